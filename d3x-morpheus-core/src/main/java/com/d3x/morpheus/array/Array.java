@@ -31,8 +31,11 @@ import java.util.function.Predicate;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.dense.DenseArrayConstructor;
 import com.d3x.morpheus.util.IntComparator;
 import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.commons.math3.distribution.RealDistribution;
@@ -69,6 +72,16 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
      */
     float loadFactor();
 
+    /**
+     * Returns the indexes of the entries explicitly stored by this array, in ascending order.
+     * For a sparse array, every index not included holds the default value, which allows
+     * the populated entries to be visited without scanning the full length of the array.
+     * @return  the ascending indexes of explicitly stored entries
+     */
+    default int[] storedIndexes() {
+        return IntStream.range(0, length()).toArray();
+    }
+
     /**
      * Returns the element class for this array
      * @return  the element class for array
@@ -82,7 +95,7 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
     ArrayType typeCode();
 
     /**
-     * Returns the style for this array (DENSE, SPARSE, MAPPED)
+     * Returns the style for this array (DENSE, SPARSE, MAPPED, OFFHEAP)
      * @return  the storage storage style for this array
      */
     ArrayStyle style();
@@ -542,6 +555,16 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
      */
     double getDouble(int index);
 
+    /**
+     * Copies a range of values from this array into a primitive double array
+     * @param start     the start index in this array
+     * @param target    the array to copy values into
+     * @param offset    the offset in the target array
+     * @param length    the number of values to copy
+     * @return          the target array
+     */
+    double[] getDoubles(int start, double[] target, int offset, int length);
+
     /**
      * Returns the value located at the index specified
      * @param index the index in this array
@@ -581,6 +604,16 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
      */
     double setDouble(int index, double value);
 
+    /**
+     * Copies a range of values from a primitive double array into this array
+     * @param start     the start index in this array
+     * @param source    the array to copy values from
+     * @param offset    the offset in the source array
+     * @param length    the number of values to copy
+     * @return          this array reference
+     */
+    Array<T> setDoubles(int start, double[] source, int offset, int length);
+
     /**
      * Sets the value located at the index specified
      * @param index the index in this array
@@ -663,6 +696,32 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
     }
 
 
+    /**
+     * Returns a newly created off-heap array of the type specified, which stores values in native memory
+     * The array is allocated by the off-heap constructor registered with ArrayFactory, which uses the global arena by default
+     * @param type          the element type for array
+     * @param length        the initial length of the array
+     * @param <V>           the type
+     * @return              the newly created off-heap array
+     */
+    static <V> Array<V> offHeap(Class<V> type, int length) {
+        return ArrayFactory.offHeap().apply(type, length, ArrayType.defaultValue(type));
+    }
+
+    /**
+     * Returns a newly created off-heap array of the type specified, which stores values in native memory
+     * The array is allocated by the off-heap constructor registered with ArrayFactory, which uses the global arena by default
+     * @param type          the element type for array
+     * @param length        the initial length of the array
+     * @param defaultValue  the default value for the array
+     * @param <V>           the type
+     * @return              the newly created off-heap array
+     */
+    static <V> Array<V> offHeap(Class<V> type, int length, V defaultValue) {
+        return ArrayFactory.offHeap().apply(type, length, defaultValue);
+    }
+
+
     /**
      * Returns a newly created dense Array that wraps the boolean array specified
      * @param values    the values to wrap
@@ -755,6 +814,7 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
             case DENSE:     return ArrayFactory.dense().apply(type, length, defaultValue);
             case SPARSE:    return ArrayFactory.sparse().apply(type, length, defaultValue);
             case MAPPED:    return ArrayFactory.mapped().apply(type, length, defaultValue);
+            case OFFHEAP:   return ArrayFactory.offHeap().apply(type, length, defaultValue);
             default:        throw new IllegalArgumentException("Unsupported style specified: " + style);
         }
     }
@@ -797,6 +857,47 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
         return Array.of(type, values.length).applyValues(v -> values[v.index()]);
     }
 
+    /**
+     * Returns a newly created dense boolean Array that packs values into bits, using an eighth of the memory
+     * @param length    the length for array
+     * @return          the newly created array, which implements WithBits
+     */
+    static Array<Boolean> ofBits(int length) {
+        return DenseArrayConstructor.ofBits(length, false);
+    }
+
+    /**
+     * Returns a newly created dense Array that can hold nulls, with all entries initially null
+     * Int, long and double arrays record nulls in a validity bitmap rather than being promoted to arrays of objects
+     * @param type      the element type for array, which cannot be boolean
+     * @param length    the length for array
+     * @return          the newly created array
+     */
+    static <V> Array<V> ofNullable(Class<V> type, int length) {
+        return DenseArrayConstructor.ofNullable(type, length);
+    }
+
+    /**
+     * Returns a newly created dense categorical Array that stores int codes into a new dictionary of distinct values
+     * @param type      the element type for array, typically String
+     * @param length    the length for array
+     * @return          the newly created array, which implements WithIntCoding
+     */
+    static <V> Array<V> ofCategorical(Class<V> type, int length) {
+        return DenseArrayConstructor.ofCategorical(IntCoding.ofDictionary(type), length);
+    }
+
+    /**
+     * Returns a newly created dense categorical Array that stores int codes into the dictionary specified
+     * Arrays that share a dictionary have directly comparable codes
+     * @param coding    the dictionary, which may be shared with other arrays
+     * @param length    the length for array
+     * @return          the newly created array, which implements WithIntCoding
+     */
+    static <V> Array<V> ofCategorical(IntCoding.OfDictionary<V> coding, int length) {
+        return DenseArrayConstructor.ofCategorical(coding, length);
+    }
+
     /**
      * Returns a newly created Array of objects of length specified
      * @param length    the initial length for array
@@ -27,7 +27,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Consumer;
@@ -50,6 +49,7 @@ import com.d3x.morpheus.array.tasks.MaxTask;
 import com.d3x.morpheus.array.tasks.MinTask;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.stats.Stats;
+import com.d3x.morpheus.util.ForkJoinContext;
 import com.d3x.morpheus.util.functions.BooleanConsumer;
 import com.d3x.morpheus.util.Bounds;
 import com.d3x.morpheus.util.Comparators;
@@ -225,7 +225,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         final Array<Boolean> result = Array.of(Boolean.class, length());
         final MapValues<Boolean> action = new MapValues<>(0, length() - 1, mapper, result);
         if (isParallel()) {
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
             return result;
         } else {
             action.compute();
@@ -239,7 +239,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         final Array<Integer> result = Array.of(Integer.class, length());
         final MapValues<Integer> action = new MapValues<>(0, length() - 1, mapper, result);
         if (isParallel()) {
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
             return result;
         } else {
             action.compute();
@@ -253,7 +253,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         final Array<Long> result = Array.of(Long.class, length());
         final MapValues<Long> action = new MapValues<>(0, length() - 1, mapper, result);
         if (isParallel()) {
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
             return result;
         } else {
             action.compute();
@@ -267,7 +267,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         final Array<Double> result = Array.of(Double.class, length());
         final MapValues<Double> action = new MapValues<>(0, length() - 1, mapper, result);
         if (isParallel()) {
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
             return result;
         } else {
             action.compute();
@@ -290,7 +290,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         if (length > 0) {
             final ApplyValues action = new ApplyValues(0, length - 1, function);
             if (isParallel()) {
-                ForkJoinPool.commonPool().invoke(action);
+                ForkJoinContext.invoke(action);
             } else {
                 action.compute();
             }
@@ -305,7 +305,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         if (length > 0) {
             final ApplyValues action = new ApplyValues(0, length - 1, function);
             if (isParallel()) {
-                ForkJoinPool.commonPool().invoke(action);
+                ForkJoinContext.invoke(action);
             } else {
                 action.compute();
             }
@@ -320,7 +320,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         if (length > 0) {
             final ApplyValues action = new ApplyValues(0, length - 1, function);
             if (isParallel()) {
-                ForkJoinPool.commonPool().invoke(action);
+                ForkJoinContext.invoke(action);
             } else {
                 action.compute();
             }
@@ -335,7 +335,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         if (length > 0) {
             final ApplyValues action = new ApplyValues(0, length - 1, function);
             if (isParallel()) {
-                ForkJoinPool.commonPool().invoke(action);
+                ForkJoinContext.invoke(action);
             } else {
                 action.compute();
             }
@@ -350,7 +350,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         if (length > 0) {
             final ApplyValues action = new ApplyValues(0, length - 1, function);
             if (isParallel()) {
-                ForkJoinPool.commonPool().invoke(action);
+                ForkJoinContext.invoke(action);
             } else {
                 action.compute();
             }
@@ -363,10 +363,10 @@ public abstract class ArrayBase<T> implements Array<T> {
     public final void forEach(Consumer<? super T> consumer) {
         var length = length();
         if (isParallel() && length > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = parallel ? Math.max(length() / processors, 10000) : Integer.MAX_VALUE;
             final ForEach action = new ForEach(0, length - 1, splitThreshold, consumer);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else {
             for (int i=0; i<length; ++i) {
                 final T value = getValue(i);
@@ -379,10 +379,10 @@ public abstract class ArrayBase<T> implements Array<T> {
     public Array<T> forEachBoolean(BooleanConsumer consumer) {
         var length = length();
         if (isParallel() && length > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = parallel ? Math.max(length() / processors, 10000) : Integer.MAX_VALUE;
             final ForEach action = new ForEach(0, length - 1, splitThreshold, consumer);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else {
             for (int i=0; i<length; ++i) {
                 final boolean value = getBoolean(i);
@@ -396,10 +396,10 @@ public abstract class ArrayBase<T> implements Array<T> {
     public Array<T> forEachInt(IntConsumer consumer) {
         var length = length();
         if (isParallel() && length > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = parallel ? Math.max(length() / processors, 10000) : Integer.MAX_VALUE;
             final ForEach action = new ForEach(0, length - 1, splitThreshold, consumer);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else {
             for (int i=0; i<length; ++i) {
                 final int value = getInt(i);
@@ -413,10 +413,10 @@ public abstract class ArrayBase<T> implements Array<T> {
     public Array<T> forEachLong(LongConsumer consumer) {
         var length = length();
         if (isParallel() && length > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = parallel ? Math.max(length() / processors, 10000) : Integer.MAX_VALUE;
             final ForEach action = new ForEach(0, length - 1, splitThreshold, consumer);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else {
             for (int i=0; i<length; ++i) {
                 final long value = getLong(i);
@@ -430,10 +430,10 @@ public abstract class ArrayBase<T> implements Array<T> {
     public final Array<T> forEachDouble(DoubleConsumer consumer) {
         var length = length();
         if (isParallel() && length > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = parallel ? Math.max(length() / processors, 10000) : Integer.MAX_VALUE;
             final ForEach action = new ForEach(0, length - 1, splitThreshold, consumer);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else {
             for (int i=0; i<length; ++i) {
                 var value = getDouble(i);
@@ -447,10 +447,10 @@ public abstract class ArrayBase<T> implements Array<T> {
     public final Array<T> forEachValue(Consumer<ArrayValue<T>> consumer) {
         var length = length();
         if (isParallel() && length > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = parallel ? Math.max(length() / processors, 10000) : Integer.MAX_VALUE;
             final ForEachArrayValue action = new ForEachArrayValue(0, length - 1, splitThreshold, consumer);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else {
             final ForEachArrayValue action = new ForEachArrayValue(0, length - 1, Integer.MAX_VALUE, consumer);
             action.compute();
@@ -558,10 +558,10 @@ public abstract class ArrayBase<T> implements Array<T> {
     @Override
     public final Optional<T> min() {
         if (isParallel() && length() > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = Math.max(length() / processors, 10000);
             final MinTask<T> task = new MinTask<>(this, 0, length()-1, splitThreshold);
-            final T minValue = ForkJoinPool.commonPool().invoke(task);
+            final T minValue = ForkJoinContext.invoke(task);
             return Optional.ofNullable(minValue);
         } else {
             final MinTask<T> task = new MinTask<>(this, 0, length()-1, Integer.MAX_VALUE);
@@ -574,10 +574,10 @@ public abstract class ArrayBase<T> implements Array<T> {
     @Override
     public final Optional<T> max() {
         if (isParallel() && length() > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = Math.max(length() / processors, 10000);
             final MaxTask<T> task = new MaxTask<>(this, 0, length()-1, splitThreshold);
-            final T maxValue = ForkJoinPool.commonPool().invoke(task);
+            final T maxValue = ForkJoinContext.invoke(task);
             return Optional.ofNullable(maxValue);
         } else {
             final MaxTask<T> task = new MaxTask<>(this, 0, length()-1, Integer.MAX_VALUE);
@@ -590,10 +590,10 @@ public abstract class ArrayBase<T> implements Array<T> {
     @Override()
     public final Optional<Bounds<T>> bounds() {
         if (isParallel() && length() > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = Math.max(length() / processors, 10000);
             final BoundsTask<T> task = new BoundsTask<>(this, 0, length()-1, splitThreshold);
-            final Bounds<T> bounds = ForkJoinPool.commonPool().invoke(task);
+            final Bounds<T> bounds = ForkJoinContext.invoke(task);
             return Optional.ofNullable(bounds);
         } else {
             final BoundsTask<T> task = new BoundsTask<>(this, 0, length()-1, Integer.MAX_VALUE);
@@ -696,9 +696,9 @@ public abstract class ArrayBase<T> implements Array<T> {
     @Override
     public int count(Predicate<ArrayValue<T>> predicate) {
         if (isParallel() && length() > 0) {
-            final int processors = Runtime.getRuntime().availableProcessors();
+            final int processors = ForkJoinContext.getParallelism();
             final int splitThreshold = Math.max(length() / processors, 10000);
-            return ForkJoinPool.commonPool().invoke(new CountTask<>(this, 0, length()-1, splitThreshold, predicate));
+            return ForkJoinContext.invoke(new CountTask<>(this, 0, length()-1, splitThreshold, predicate));
         } else {
             final CountTask task = new CountTask<>(this, 0, length()-1, Integer.MAX_VALUE, predicate);
             return task.compute();
@@ -730,6 +730,15 @@ public abstract class ArrayBase<T> implements Array<T> {
     }
 
 
+    @Override
+    public double[] getDoubles(int start, double[] target, int offset, int length) {
+        for (int i=0; i<length; ++i) {
+            target[offset + i] = getDouble(start + i);
+        }
+        return target;
+    }
+
+
     @Override
     public boolean setBoolean(int index, boolean value) {
         throw new ArrayException("Boolean type not supported by this array, type = " + typeCode().name());
@@ -754,6 +763,15 @@ public abstract class ArrayBase<T> implements Array<T> {
     }
 
 
+    @Override
+    public Array<T> setDoubles(int start, double[] source, int offset, int length) {
+        for (int i=0; i<length; ++i) {
+            setDouble(start + i, source[offset + i]);
+        }
+        return this;
+    }
+
+
     @Override()
     public final Iterator<T> iterator() {
         return new Iterator<T>() {
@@ -951,7 +969,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         protected void compute() {
             try {
                 final int count = to - from + 1;
-                final int processors = Runtime.getRuntime().availableProcessors();
+                final int processors = ForkJoinContext.getParallelism();
                 final int threshold = parallel ? Math.max(length() / processors, 10000) : Integer.MAX_VALUE;
                 if (count > threshold) {
                     final int splitCount = (to - from) / 2;
@@ -1041,7 +1059,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         protected void compute() {
             try {
                 final int count = to - from + 1;
-                final int processors = Runtime.getRuntime().availableProcessors();
+                final int processors = ForkJoinContext.getParallelism();
                 final int threshold = parallel ? Math.max(length() / processors, 10000) : Integer.MAX_VALUE;
                 if (count > threshold) {
                     final int splitCount = (to - from) / 2;
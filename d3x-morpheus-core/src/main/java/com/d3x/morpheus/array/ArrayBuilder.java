@@ -15,12 +15,19 @@
  */
 package com.d3x.morpheus.array;
 
+import java.util.BitSet;
+
+import com.d3x.morpheus.array.dense.DenseArrayConstructor;
 import com.d3x.morpheus.range.Range;
 import com.d3x.morpheus.util.Asserts;
 
 /**
  * A class designed to build an array incrementally, without necessarily knowing the type upfront, or the final length.
  *
+ * <p>Nulls appended to int and long arrays are recorded in a bitmap owned by the builder, and become a validity bitmap
+ * on the resulting array, so that columns with gaps stay primitive rather than losing the nulls. Dense boolean arrays
+ * are packed into bits on completion. The builder is only ever used by one thread, so both use plain writes.</p>
+ *
  * @param <T>   the array element dataType
  *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
@@ -31,6 +38,8 @@ public class ArrayBuilder<T> {
 
     private int capacity;
     private int index = 0;
+    private BitSet nulls;
+    private boolean nullable;
     private float fillPct;
     private Class<T> type;
     private Array<T> array;
@@ -123,6 +132,40 @@ public class ArrayBuilder<T> {
     }
 
 
+    /**
+     * Returns a newly created builder for a dense array that records appended nulls as real nulls
+     * Int, long and double values are held in primitive arrays with a validity bitmap rather than being boxed
+     * @param initialLength     the initial capacity for builder
+     * @param type              the dataType for array elements, which cannot be boolean
+     * @param <T>               the array element dataType
+     * @return                  the newly created builder
+     */
+    public static <T> ArrayBuilder<T> ofNullable(int initialLength, Class<T> type) {
+        if (ArrayType.of(type) == ArrayType.BOOLEAN) {
+            throw new ArrayException("Boolean arrays do not support null values");
+        } else {
+            final ArrayBuilder<T> builder = new ArrayBuilder<>(initialLength, type, null, 1f);
+            builder.nullable = true;
+            return builder;
+        }
+    }
+
+
+    /**
+     * Returns a newly created builder for a dense categorical array, which stores each distinct value once in a dictionary
+     * This is best suited to values with low cardinality relative to the length of the array, such as tickers or labels
+     * @param initialLength     the initial capacity for builder
+     * @param type              the dataType for array elements
+     * @param <T>               the array element dataType
+     * @return                  the newly created builder
+     */
+    public static <T> ArrayBuilder<T> ofCategorical(int initialLength, Class<T> type) {
+        final ArrayBuilder<T> builder = new ArrayBuilder<>(initialLength, type, null, 1f);
+        builder.array = Array.ofCategorical(type, builder.capacity);
+        return builder;
+    }
+
+
     /**
      * Returns the data type for this builder
      * @return      the data type for builder
@@ -138,7 +181,7 @@ public class ArrayBuilder<T> {
      * @return          true if entry is null at index
      */
     public boolean isNull(int index) {
-        return array == null || array.isNull(index);
+        return array == null || array.isNull(index) || (nulls != null && nulls.get(index));
     }
 
 
@@ -153,6 +196,8 @@ public class ArrayBuilder<T> {
             this.checkType((Class<T>)value.getClass());
             this.checkLength(index);
             this.array.setValue(index, value);
+        } else {
+            this.setNull(index);
         }
         this.index++;
         return index-1;
@@ -180,6 +225,7 @@ public class ArrayBuilder<T> {
     public final int appendInt(int value) {
         this.checkType((Class<T>)Integer.class);
         this.checkLength(index);
+        this.clearNull(index);
         this.array.setInt(index++, value);
         return index-1;
     }
@@ -193,6 +239,7 @@ public class ArrayBuilder<T> {
     public final int appendLong(long value) {
         this.checkType((Class<T>)Long.class);
         this.checkLength(index);
+        this.clearNull(index);
         this.array.setLong(index++, value);
         return index-1;
     }
@@ -206,6 +253,7 @@ public class ArrayBuilder<T> {
     public final int appendDouble(double value) {
         this.checkType((Class<T>)Double.class);
         this.checkLength(index);
+        this.clearNull(index);
         this.array.setDouble(index++, value);
         return index-1;
     }
@@ -221,6 +269,12 @@ public class ArrayBuilder<T> {
             this.checkType((Class<T>)value.getClass());
             this.checkLength(index);
             this.array.setValue(index, value);
+            this.clearNull(index);
+        } else {
+            if (array != null && index < capacity) {
+                this.array.setValue(index, null);
+            }
+            this.setNull(index);
         }
         this.index = Math.max(this.index, index+1);
     }
@@ -250,6 +304,7 @@ public class ArrayBuilder<T> {
         this.checkType((Class<T>)Integer.class);
         this.checkLength(index);
         this.array.setInt(index, value);
+        this.clearNull(index);
         this.index = Math.max(this.index, index+1);
     }
 
@@ -264,6 +319,7 @@ public class ArrayBuilder<T> {
         this.checkType((Class<T>)Long.class);
         this.checkLength(index);
         this.array.setLong(index, value);
+        this.clearNull(index);
         this.index = Math.max(this.index, index+1);
     }
 
@@ -278,6 +334,7 @@ public class ArrayBuilder<T> {
         this.checkType((Class<T>)Double.class);
         this.checkLength(index);
         this.array.setDouble(index, value);
+        this.clearNull(index);
         this.index = Math.max(this.index, index+1);
     }
 
@@ -293,6 +350,7 @@ public class ArrayBuilder<T> {
         this.checkLength(index);
         var existing = array.getInt(index);
         this.array.setInt(index, existing + value);
+        this.clearNull(index);
         this.index = Math.max(this.index, index+1);
     }
 
@@ -308,6 +366,7 @@ public class ArrayBuilder<T> {
         this.checkLength(index);
         var existing = array.getLong(index);
         this.array.setLong(index, existing + value);
+        this.clearNull(index);
         this.index = Math.max(this.index, index+1);
     }
 
@@ -325,6 +384,7 @@ public class ArrayBuilder<T> {
         var existing = array.getDouble(index);
         var result = Double.isNaN(existing) ? value : existing + toAdd;
         this.array.setDouble(index, result);
+        this.clearNull(index);
         this.index = Math.max(this.index, index+1);
     }
 
@@ -342,8 +402,8 @@ public class ArrayBuilder<T> {
             this.array.expand(newLength);
             switch (newArray.typeCode()) {
                 case BOOLEAN:           newArray.forEachBoolean(this::appendBoolean);  break;
-                case INTEGER:           newArray.forEachInt(this::appendInt);          break;
-                case LONG:              newArray.forEachLong(this::appendLong);        break;
+                case INTEGER:           newArray.forEachValue(v -> { if (v.isNull()) append(null); else appendInt(v.getInt()); });     break;
+                case LONG:              newArray.forEachValue(v -> { if (v.isNull()) append(null); else appendLong(v.getLong()); });   break;
                 case DOUBLE:            newArray.forEachDouble(this::appendDouble);    break;
                 case DATE:              newArray.forEachLong(this::appendLong);        break;
                 case INSTANT:           newArray.forEachLong(this::appendLong);        break;
@@ -372,14 +432,51 @@ public class ArrayBuilder<T> {
             this.capacity = array.length();
         } else if (checkType && !isMatch(type)) {
             var newArray = Array.<T>ofObjects(array.length(), fillPct);
-            for (int i=0; i<array.length(); ++i) newArray.setValue(i, array.getValue(i));
+            for (int i=0; i<array.length(); ++i) newArray.setValue(i, isNull(i) ? null : array.getValue(i));
             this.array = newArray;
+            this.nulls = null;
             this.type = (Class<T>)Object.class;
             this.dataType = ArrayType.OBJECT;
             this.capacity = array.length();
         }
     }
 
+    /**
+     * Records a null at the index specified for arrays that would otherwise store the default value
+     * @param index the index of the null entry
+     */
+    private void setNull(int index) {
+        if (array == null || isNullTracked()) {
+            if (nulls == null) {
+                this.nulls = new BitSet();
+            }
+            this.nulls.set(index);
+        }
+    }
+
+    /**
+     * Clears any null previously recorded at the index specified
+     * @param index the index of a non-null entry
+     */
+    private void clearNull(int index) {
+        if (nulls != null) {
+            this.nulls.clear(index);
+        }
+    }
+
+    /**
+     * Returns true if nulls appended to this builder need to be tracked to survive in the resulting array
+     * @return  true for int and long arrays, and for double arrays of a nullable builder
+     */
+    private boolean isNullTracked() {
+        switch (dataType) {
+            case INTEGER:   return true;
+            case LONG:      return true;
+            case DOUBLE:    return nullable;
+            default:        return false;
+        }
+    }
+
     /**
      * Returns the current length for this builder
      * @return      the current length for builder
@@ -417,6 +514,7 @@ public class ArrayBuilder<T> {
     public final ArrayBuilder<T> appendAll(ArrayBuilder<T> other) {
         if (array == null) {
             this.array = other.array.copy();
+            this.nulls = other.nulls != null ? (BitSet)other.nulls.clone() : null;
             return this;
         } else {
             final Array<T> arrayToAdd = other.array;
@@ -424,7 +522,7 @@ public class ArrayBuilder<T> {
             if (totalLength > array.length()) array.expand(totalLength);
             for (int i=0; i<other.index; ++i) {
                 //todo: optimize this for common types to avoid boxing
-                final T value = arrayToAdd.getValue(i);
+                final T value = other.isNull(i) ? null : arrayToAdd.getValue(i);
                 this.append(value);
             }
             return this;
@@ -440,7 +538,14 @@ public class ArrayBuilder<T> {
         if (array == null) {
             return Array.ofObjects(0);
         } else {
-            return index < array.length() ? array.copy(0, index) : array;
+            final Array<T> result = index < array.length() ? array.copy(0, index) : array;
+            if (dataType == ArrayType.BOOLEAN && result.style() == ArrayStyle.DENSE && !(result instanceof WithBits)) {
+                return (Array<T>)DenseArrayConstructor.ofBits((Array<Boolean>)result);
+            } else if (isNullTracked() && (nullable || (nulls != null && !nulls.isEmpty()))) {
+                return DenseArrayConstructor.withNulls(result, nulls != null ? nulls : new BitSet());
+            } else {
+                return result;
+            }
         }
     }
 
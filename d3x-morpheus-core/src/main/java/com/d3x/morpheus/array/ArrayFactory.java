@@ -15,13 +15,16 @@
  */
 package com.d3x.morpheus.array;
 
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.coding.WithIntCoding;
 import com.d3x.morpheus.array.dense.DenseArrayConstructor;
 import com.d3x.morpheus.array.mapped.MappedArrayConstructor;
+import com.d3x.morpheus.array.offheap.OffHeapArrayConstructor;
 import com.d3x.morpheus.array.sparse.SparseArrayConstructor;
 import com.d3x.morpheus.util.Asserts;
 
 /**
- * A factory class that exposes various Constructor objects for creating dense, sparse and memory mapped Morpheus Arrays.
+ * A factory class that exposes various Constructor objects for creating dense, sparse, memory mapped and off-heap Morpheus Arrays.
  *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
@@ -32,6 +35,7 @@ public abstract class ArrayFactory {
     private static Constructor dense = new DenseArrayConstructor();
     private static Constructor sparse = new SparseArrayConstructor();
     private static Constructor mapped = new MappedArrayConstructor();
+    private static Constructor offHeap = new OffHeapArrayConstructor();
 
     /**
      * Returns a reference to the dense array constructor
@@ -57,6 +61,14 @@ public abstract class ArrayFactory {
         return mapped;
     }
 
+    /**
+     * Returns a reference to the off-heap array constructor
+     * @return  the off-heap array factory
+     */
+    public static Constructor offHeap() {
+        return offHeap;
+    }
+
     /**
      * Sets the dense array constructor
      * @param dense dense array constructor
@@ -84,6 +96,15 @@ public abstract class ArrayFactory {
         ArrayFactory.mapped = mapped;
     }
 
+    /**
+     * Sets the off-heap array constructor, which can be used to allocate arrays in a specific OffHeapArena
+     * @param offHeap   off-heap array constructor
+     */
+    public static void setOffHeap(Constructor offHeap) {
+        Asserts.notNull(offHeap, "The array constructor cannot be null");
+        ArrayFactory.offHeap = offHeap;
+    }
+
     /**
      * Returns a newly created Morpheus Array containing the array of values specified
      * @param array     an array of values to wrap in a Morpheus array
@@ -127,13 +148,24 @@ public abstract class ArrayFactory {
      * @param <T>       the array element type
      * @return          the resulting array
      */
+    @SuppressWarnings("unchecked")
     static <T> Array<T> concat(Class<T> type, Iterable<Array<T>> arrays) {
         int startIndex = 0;
         int totalLength = 0;
         for (Array<T> array : arrays) {
             totalLength += array.length();
         }
-        final Array<T> result = Array.of(type, totalLength);
+        boolean bits = true;
+        boolean nullable = false;
+        for (Array<T> array : arrays) {
+            bits &= array instanceof WithBits;
+            nullable |= DenseArrayConstructor.isNullable(array);
+        }
+        final IntCoding.OfDictionary<T> dictionary = dictionaryOf(arrays);
+        final Array<T> result = dictionary != null ? Array.ofCategorical(dictionary, totalLength)
+            : bits && totalLength > 0 ? (Array<T>)Array.ofBits(totalLength)
+            : nullable ? Array.ofNullable(type, totalLength)
+            : Array.of(type, totalLength);
         for (Array<T> array : arrays) {
             result.update(startIndex, array, 0, array.length());
             startIndex += array.length();
@@ -142,6 +174,30 @@ public abstract class ArrayFactory {
     }
 
 
+    /**
+     * Returns the dictionary for a concatenation of categorical arrays, or null if the first array is not categorical
+     * The dictionary of the inputs is reused if they all share one, otherwise the values are encoded into a new one
+     * @param arrays    the arrays to concatenate
+     * @param <T>       the array element type
+     * @return          the dictionary for the concatenated array, null if not categorical
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> IntCoding.OfDictionary<T> dictionaryOf(Iterable<Array<T>> arrays) {
+        IntCoding.OfDictionary<T> dictionary = null;
+        for (Array<T> array : arrays) {
+            final IntCoding<T> coding = array instanceof WithIntCoding ? ((WithIntCoding<T>)array).getCoding() : null;
+            if (!(coding instanceof IntCoding.OfDictionary)) {
+                return dictionary != null ? IntCoding.ofDictionary(dictionary.getType()) : null;
+            } else if (dictionary == null) {
+                dictionary = (IntCoding.OfDictionary<T>)coding;
+            } else if (coding != dictionary) {
+                return IntCoding.ofDictionary(dictionary.getType());
+            }
+        }
+        return dictionary;
+    }
+
+
     /**
      * Resolves the array type from the values provided
      * @param values    the array of values
@@ -162,7 +218,7 @@ public abstract class ArrayFactory {
 
 
     /**
-     * An interface to a constructor of a specific style of array (dense, sparse, memory mapped)
+     * An interface to a constructor of a specific style of array (dense, sparse, memory mapped, off-heap)
      */
     public interface Constructor {
 
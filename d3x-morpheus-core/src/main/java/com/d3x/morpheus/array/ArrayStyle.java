@@ -26,7 +26,8 @@ public enum ArrayStyle {
 
     DENSE,
     SPARSE,
-    MAPPED;
+    MAPPED,
+    OFFHEAP;
 
     /**
      * Returns true if this represents the DENSE style
@@ -52,6 +53,14 @@ public enum ArrayStyle {
         return this == MAPPED;
     }
 
+    /**
+     * Returns true if this represents the OFF-HEAP style
+     * @return  true if off-heap
+     */
+    public boolean isOffHeap() {
+        return this == OFFHEAP;
+    }
+
     /**
      * Returns the supported types for this array style
      * @return      the supported array types for this style
@@ -78,6 +87,21 @@ public enum ArrayStyle {
                     ArrayType.LOCAL_DATETIME,
                     ArrayType.ZONED_DATETIME
             };
+            case OFFHEAP:   return new ArrayType[] {
+                    ArrayType.INTEGER,
+                    ArrayType.LONG,
+                    ArrayType.DOUBLE,
+                    ArrayType.DATE,
+                    ArrayType.ENUM,
+                    ArrayType.YEAR,
+                    ArrayType.CURRENCY,
+                    ArrayType.ZONE_ID,
+                    ArrayType.TIME_ZONE,
+                    ArrayType.INSTANT,
+                    ArrayType.LOCAL_DATE,
+                    ArrayType.LOCAL_TIME,
+                    ArrayType.LOCAL_DATETIME
+            };
             default:
                 throw new IllegalArgumentException("Unsupported style: " + this);
         }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+/**
+ * An interface to a boolean Array that packs its values into bits, which exposes bulk operations that work on 64 values at a time.
+ *
+ * <p>The logical operations update this array in place and accept any boolean array as an argument, although they are
+ * only word-at-a-time when the argument is also bit packed.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public interface WithBits {
+
+    /**
+     * Returns the number of true values in this array
+     * @return  the count of true values
+     */
+    int cardinality();
+
+    /**
+     * Returns the number of true values in the range specified
+     * @param start the start index, inclusive
+     * @param end   the end index, exclusive
+     * @return      the count of true values in range
+     */
+    int cardinality(int start, int end);
+
+    /**
+     * Applies a logical AND of this array with the other array, which must have the same length
+     * @param other the other boolean array
+     * @return      this array
+     */
+    Array<Boolean> and(Array<Boolean> other);
+
+    /**
+     * Applies a logical OR of this array with the other array, which must have the same length
+     * @param other the other boolean array
+     * @return      this array
+     */
+    Array<Boolean> or(Array<Boolean> other);
+
+    /**
+     * Applies a logical XOR of this array with the other array, which must have the same length
+     * @param other the other boolean array
+     * @return      this array
+     */
+    Array<Boolean> xor(Array<Boolean> other);
+
+    /**
+     * Applies a logical NOT to all values in this array
+     * @return      this array
+     */
+    Array<Boolean> not();
+}
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.IntStream;
 
 import com.d3x.morpheus.util.IntComparator;
@@ -46,6 +47,15 @@ public interface IntCoding<T> extends Coding<T> {
      */
     int getCode(T value);
 
+    /**
+     * Returns the code for the value specified without assigning a new code if the value is not already known
+     * @param value the value, which can be null
+     * @return      the code for value, or -1 if the value has no code
+     */
+    default int findCode(T value) {
+        return getCode(value);
+    }
+
     /**
      * Returns the value for the code specified
      * @param code  the code for requested value
@@ -97,6 +107,17 @@ public interface IntCoding<T> extends Coding<T> {
     }
 
 
+    /**
+     * Returns a new growable dictionary coding for values of the type specified
+     * @param type  the value type
+     * @param <T>   the type
+     * @return      the newly created coding
+     */
+    static <T> OfDictionary<T> ofDictionary(Class<T> type) {
+        return new OfDictionary<>(type);
+    }
+
+
     /**
      * Manages IntCoding support
      */
@@ -352,4 +373,126 @@ public interface IntCoding<T> extends Coding<T> {
     }
 
 
+    /**
+     * A growable IntCoding that assigns codes to distinct values in order of first appearance.
+     *
+     * <p>The dictionary is built up as values are loaded, and a single instance can be shared by many arrays so that
+     * their codes are directly comparable. Since codes follow load order rather than value order, arrays that sort
+     * on codes do so via the ranks exposed by this class, which are recomputed lazily whenever the dictionary grows.
+     * Code assignment is thread safe, so a dictionary can be populated by concurrent tasks. Only getCode() assigns
+ * new codes, while findCode() is a pure lookup that read paths use so that probing for absent values never grows
+ * the dictionary.</p>
+     */
+    class OfDictionary<T> extends BaseCoding<T> implements IntCoding<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        private volatile int size;
+        private volatile Object[] values;
+        private transient volatile int[] ranks;
+        private final Map<T,Integer> codeMap;
+
+        /**
+         * Constructor
+         * @param type  the value type
+         */
+        OfDictionary(Class<T> type) {
+            super(type);
+            this.values = new Object[16];
+            this.codeMap = new ConcurrentHashMap<>();
+        }
+
+
+        /**
+         * Returns the number of distinct values in this dictionary
+         * @return  the number of distinct values
+         */
+        public final int size() {
+            return size;
+        }
+
+
+        @Override
+        public final int getCode(T value) {
+            if (value == null) {
+                return -1;
+            } else {
+                final Integer code = codeMap.get(value);
+                return code != null ? code : add(value);
+            }
+        }
+
+
+        @Override
+        public final int findCode(T value) {
+            if (value == null) {
+                return -1;
+            } else {
+                final Integer code = codeMap.get(value);
+                return code != null ? code : -1;
+            }
+        }
+
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public final T getValue(int code) {
+            return code < 0 ? null : (T)values[code];
+        }
+
+
+        /**
+         * Returns the ranks of codes in this dictionary, such that ranks[code] is the position of the value in sort order
+         * Values that are not Comparable are ranked in order of first appearance
+         * @return  the ranks for each code currently in this dictionary
+         */
+        @SuppressWarnings("unchecked")
+        public final int[] getRanks() {
+            final int[] current = ranks;
+            if (current != null && current.length == size) {
+                return current;
+            } else {
+                synchronized (this) {
+                    final int count = size;
+                    final Object[] snapshot = values;
+                    final int[] codes = IntStream.range(0, count).toArray();
+                    if (Comparable.class.isAssignableFrom(getType())) {
+                        final IntComparator comparator = (i, j) -> ((Comparable)snapshot[codes[i]]).compareTo(snapshot[codes[j]]);
+                        SortAlgorithm.getDefault(false).sort(0, count, comparator, (i, j) -> {
+                            var code = codes[i]; codes[i] = codes[j]; codes[j] = code;
+                        });
+                    }
+                    final int[] result = new int[count];
+                    for (int i=0; i<count; ++i) {
+                        result[codes[i]] = i;
+                    }
+                    this.ranks = result;
+                    return result;
+                }
+            }
+        }
+
+
+        /**
+         * Adds a value to this dictionary if it is not already present
+         * @param value     the value to add
+         * @return          the code for value
+         */
+        private synchronized int add(T value) {
+            final Integer existing = codeMap.get(value);
+            if (existing != null) {
+                return existing;
+            } else {
+                final int code = size;
+                if (code == values.length) {
+                    this.values = Arrays.copyOf(values, code + (code >> 1));
+                }
+                this.values[code] = value;
+                this.size = code + 1;
+                this.codeMap.put(value, code);
+                return code;
+            }
+        }
+    }
+
 }
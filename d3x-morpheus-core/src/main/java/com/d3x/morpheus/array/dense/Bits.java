@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.dense;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Static helpers to manipulate bits packed into an array of long words, 64 bits per word.
+ *
+ * <p>Single bit updates are applied with atomic bitwise operations, so that concurrent updates to distinct indexes that
+ * share a word, which is routine when array ranges are split across fork join tasks, are never lost. An update that
+ * would not change the bit skips the atomic operation, and reads, bulk operations over whole words and bitmaps built
+ * by a single owning thread use plain access.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+final class Bits {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Private constructor
+     */
+    private Bits() {
+        super();
+    }
+
+
+    /**
+     * Returns a newly created array of words large enough to hold the number of bits specified
+     * @param length    the number of bits
+     * @return          the newly created words
+     */
+    static long[] words(int length) {
+        return new long[(length + 63) >>> 6];
+    }
+
+
+    /**
+     * Returns the words resized to hold the number of bits specified, clearing any bits beyond the current length
+     * @param words     the current words
+     * @param length    the current number of bits
+     * @param newLength the new number of bits
+     * @return          the resized words
+     */
+    static long[] expand(long[] words, int length, int newLength) {
+        final long[] newWords = Arrays.copyOf(words, (newLength + 63) >>> 6);
+        if ((length & 63) != 0) {
+            newWords[length >>> 6] &= (1L << length) - 1L;
+        }
+        return newWords;
+    }
+
+
+    /**
+     * Returns the value of the bit at the index specified
+     * @param words     the words
+     * @param index     the bit index
+     * @return          true if the bit is set
+     */
+    static boolean get(long[] words, int index) {
+        return (words[index >>> 6] & (1L << index)) != 0L;
+    }
+
+
+    /**
+     * Sets the bit at the index specified, atomically with respect to other bits in the same word
+     * @param words     the words
+     * @param index     the bit index
+     * @param value     the value for bit
+     * @return          the previous value of the bit
+     */
+    static boolean set(long[] words, int index, boolean value) {
+        final long mask = 1L << index;
+        final boolean current = (words[index >>> 6] & mask) != 0L;
+        if (current == value) {
+            return current;
+        } else if (value) {
+            return ((long)WORDS.getAndBitwiseOr(words, index >>> 6, mask) & mask) != 0L;
+        } else {
+            return ((long)WORDS.getAndBitwiseAnd(words, index >>> 6, ~mask) & mask) != 0L;
+        }
+    }
+
+
+    /**
+     * Returns a newly created validity bitmap with a bit set for each index in the range that is not in the nulls specified
+     * The bitmap is built with plain writes, so it must not be shared until it is complete
+     * @param nulls     the indexes of null entries
+     * @param length    the number of bits
+     * @return          the newly created validity bitmap
+     */
+    static long[] validity(BitSet nulls, int length) {
+        final long[] words = words(length);
+        final long[] nullWords = nulls.toLongArray();
+        for (int i=0; i<words.length; ++i) {
+            words[i] = i < nullWords.length ? ~nullWords[i] : -1L;
+        }
+        if ((length & 63) != 0) {
+            words[words.length - 1] &= (1L << length) - 1L;
+        }
+        return words;
+    }
+
+
+    /**
+     * Sets all bits in the range specified to the value specified
+     * @param words     the words
+     * @param start     the start bit index, inclusive
+     * @param end       the end bit index, exclusive
+     * @param value     the value for bits
+     */
+    static void fill(long[] words, int start, int end, boolean value) {
+        if (start < end) {
+            final int first = start >>> 6;
+            final int last = (end - 1) >>> 6;
+            final long firstMask = -1L << start;
+            final long lastMask = -1L >>> -end;
+            if (first == last) {
+                update(words, first, firstMask & lastMask, value);
+            } else {
+                update(words, first, firstMask, value);
+                for (int i=first+1; i<last; ++i) {
+                    words[i] = value ? -1L : 0L;
+                }
+                update(words, last, lastMask, value);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the number of set bits in the range specified
+     * @param words     the words
+     * @param start     the start bit index, inclusive
+     * @param end       the end bit index, exclusive
+     * @return          the number of set bits
+     */
+    static int count(long[] words, int start, int end) {
+        if (start >= end) {
+            return 0;
+        } else {
+            final int first = start >>> 6;
+            final int last = (end - 1) >>> 6;
+            final long firstMask = -1L << start;
+            final long lastMask = -1L >>> -end;
+            if (first == last) {
+                return Long.bitCount(words[first] & firstMask & lastMask);
+            } else {
+                int count = Long.bitCount(words[first] & firstMask);
+                for (int i=first+1; i<last; ++i) {
+                    count += Long.bitCount(words[i]);
+                }
+                return count + Long.bitCount(words[last] & lastMask);
+            }
+        }
+    }
+
+
+    /**
+     * Atomically sets or clears the masked bits of a word
+     * @param words     the words
+     * @param index     the word index
+     * @param mask      the mask of bits to update
+     * @param value     true to set the bits, false to clear them
+     */
+    private static void update(long[] words, int index, long mask, boolean value) {
+        if (value) {
+            WORDS.getAndBitwiseOr(words, index, mask);
+        } else {
+            WORDS.getAndBitwiseAnd(words, index, ~mask);
+        }
+    }
+}
@@ -22,11 +22,13 @@ import java.time.LocalTime;
 import java.time.Year;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.BitSet;
 import java.util.Currency;
 import java.util.Date;
 import java.util.TimeZone;
 
 import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayException;
 import com.d3x.morpheus.array.ArrayType;
 import com.d3x.morpheus.array.ArrayFactory;
 import com.d3x.morpheus.array.coding.IntCoding;
@@ -100,4 +102,102 @@ public class DenseArrayConstructor implements ArrayFactory.Constructor {
             }
         }
     }
+
+
+    /**
+     * Returns a newly created dense boolean array that packs its values into bits
+     * @param length        the length for array
+     * @param defaultValue  the default value for array
+     * @return              the newly created array
+     */
+    public static Array<Boolean> ofBits(int length, boolean defaultValue) {
+        return new DenseArrayOfBits(length, defaultValue);
+    }
+
+
+    /**
+     * Returns a newly created dense boolean array that packs the values specified into bits
+     * @param values    the boolean values to pack
+     * @return          the newly created array, which implements WithBits
+     */
+    public static Array<Boolean> ofBits(Array<Boolean> values) {
+        return new DenseArrayOfBits(values);
+    }
+
+
+    /**
+     * Marks the entries of an array at the indexes specified as null, and returns the resulting array
+     * Dense int, long and double arrays receive a validity bitmap built with plain writes, so the array must not be
+     * visible to other threads yet, as is the case for an array completed by an ArrayBuilder. Other arrays have
+     * their null entries assigned individually.
+     * @param array     the array to update
+     * @param nulls     the indexes of null entries
+     * @param <T>       the element type
+     * @return          the array with nulls applied
+     */
+    public static <T> Array<T> withNulls(Array<T> array, BitSet nulls) {
+        if (array instanceof DenseArrayOfInts) {
+            ((DenseArrayOfInts)array).setNulls(nulls);
+        } else if (array instanceof DenseArrayOfLongs) {
+            ((DenseArrayOfLongs)array).setNulls(nulls);
+        } else if (array instanceof DenseArrayOfDoubles) {
+            ((DenseArrayOfDoubles)array).setNulls(nulls);
+        } else {
+            for (int i = nulls.nextSetBit(0); i >= 0 && i < array.length(); i = nulls.nextSetBit(i + 1)) {
+                array.setValue(i, null);
+            }
+        }
+        return array;
+    }
+
+
+    /**
+     * Returns true if the array is a dense int, long or double array that tracks nulls in a validity bitmap
+     * @param array the array to check
+     * @return      true if array is nullable
+     */
+    public static boolean isNullable(Array<?> array) {
+        if (array instanceof DenseArrayOfInts) {
+            return ((DenseArrayOfInts)array).isNullable();
+        } else if (array instanceof DenseArrayOfLongs) {
+            return ((DenseArrayOfLongs)array).isNullable();
+        } else if (array instanceof DenseArrayOfDoubles) {
+            return ((DenseArrayOfDoubles)array).isNullable();
+        } else {
+            return false;
+        }
+    }
+
+
+    /**
+     * Returns a newly created dense array that can hold nulls, with all entries initially null
+     * Int, long and double arrays track nulls in a validity bitmap, and all object arrays are inherently nullable
+     * @param type      the element type for array
+     * @param length    the length for array
+     * @param <T>       the element type
+     * @return          the newly created array
+     * @throws ArrayException   if the type is boolean, which cannot represent null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Array<T> ofNullable(Class<T> type, int length) {
+        switch (ArrayType.of(type)) {
+            case BOOLEAN:   throw new ArrayException("Boolean arrays do not support null values");
+            case INTEGER:   return (Array<T>)new DenseArrayOfInts(length, null, true);
+            case LONG:      return (Array<T>)new DenseArrayOfLongs(length, null, true);
+            case DOUBLE:    return (Array<T>)new DenseArrayOfDoubles(length, null, true);
+            default:        return ArrayFactory.dense().apply(type, length, null);
+        }
+    }
+
+
+    /**
+     * Returns a newly created dense categorical array that stores int codes into the dictionary specified
+     * @param coding    the dictionary coding, which may be shared with other arrays
+     * @param length    the length for array
+     * @param <T>       the element type
+     * @return          the newly created array, with all entries initially null
+     */
+    public static <T> Array<T> ofCategorical(IntCoding.OfDictionary<T> coding, int length) {
+        return new DenseArrayWithIntCoding<>(length, null, coding);
+    }
 }
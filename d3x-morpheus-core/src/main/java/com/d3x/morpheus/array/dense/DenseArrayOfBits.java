@@ -0,0 +1,481 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.dense;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import com.d3x.morpheus.array.WithBits;
+
+/**
+ * An Array implementation designed to hold a dense array of boolean values packed 64 to a long word
+ *
+ * <p>This uses an eighth of the memory of DenseArrayOfBooleans, counts true values with a popcount per word, and
+ * applies logical operations against other bit packed arrays a word at a time.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class DenseArrayOfBits extends ArrayBase<Boolean> implements WithBits {
+
+    private static final long serialVersionUID = 1L;
+
+    private int length;
+    private long[] words;
+    private boolean defaultValue;
+
+    /**
+     * Constructor
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     */
+    DenseArrayOfBits(int length, Boolean defaultValue) {
+        super(Boolean.class, ArrayStyle.DENSE, false);
+        this.length = length;
+        this.words = Bits.words(length);
+        this.defaultValue = defaultValue != null ? defaultValue : false;
+        Bits.fill(words, 0, length, this.defaultValue);
+    }
+
+    /**
+     * Constructor
+     * @param values    the boolean values to pack into bits, which are read sequentially with plain writes
+     */
+    DenseArrayOfBits(Array<Boolean> values) {
+        super(Boolean.class, ArrayStyle.DENSE, false);
+        this.length = values.length();
+        this.words = Bits.words(length);
+        this.defaultValue = values.defaultValue() != null ? values.defaultValue() : false;
+        for (int i=0; i<length; ++i) {
+            if (values.getBoolean(i)) {
+                this.words[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for parallel version
+     */
+    private DenseArrayOfBits(DenseArrayOfBits source, boolean parallel) {
+        super(source.type(), ArrayStyle.DENSE, parallel);
+        this.length = source.length;
+        this.words = source.words;
+        this.defaultValue = source.defaultValue;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final Boolean defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Boolean> parallel() {
+        return isParallel() ? this : new DenseArrayOfBits(this, true);
+    }
+
+
+    @Override
+    public final Array<Boolean> sequential() {
+        return isParallel() ? new DenseArrayOfBits(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Boolean> copy() {
+        try {
+            final DenseArrayOfBits copy = (DenseArrayOfBits)super.clone();
+            copy.length = this.length;
+            copy.defaultValue = this.defaultValue;
+            copy.words = this.words.clone();
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to copy Array: " + this, ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Boolean> copy(int[] indexes) {
+        final DenseArrayOfBits clone = new DenseArrayOfBits(indexes.length, false);
+        clone.defaultValue = defaultValue;
+        for (int i = 0; i < indexes.length; ++i) {
+            if (Bits.get(words, indexes[i])) {
+                clone.words[i >>> 6] |= 1L << i;
+            }
+        }
+        return clone;
+    }
+
+
+    @Override
+    public Array<Boolean> copy(Array<Integer> indexes) {
+        final DenseArrayOfBits clone = new DenseArrayOfBits(indexes.length(), false);
+        clone.defaultValue = defaultValue;
+        for (int i = 0; i < indexes.length(); ++i) {
+            if (Bits.get(words, indexes.getInt(i))) {
+                clone.words[i >>> 6] |= 1L << i;
+            }
+        }
+        return clone;
+    }
+
+
+    @Override()
+    public final Array<Boolean> copy(int start, int end) {
+        final int count = end - start;
+        final DenseArrayOfBits clone = new DenseArrayOfBits(count, false);
+        clone.defaultValue = defaultValue;
+        final int shift = start & 63;
+        final int offset = start >>> 6;
+        for (int i=0; i<clone.words.length; ++i) {
+            final long low = words[offset + i] >>> shift;
+            final long high = shift != 0 && offset + i + 1 < words.length ? words[offset + i + 1] << (64 - shift) : 0L;
+            clone.words[i] = low | high;
+        }
+        if ((count & 63) != 0) {
+            clone.words[clone.words.length - 1] &= (1L << count) - 1L;
+        }
+        return clone;
+    }
+
+
+    @Override
+    protected final Array<Boolean> sort(int start, int end, int multiplier) {
+        final int trueCount = Bits.count(words, start, end);
+        if (multiplier > 0) {
+            Bits.fill(words, start, end - trueCount, false);
+            Bits.fill(words, end - trueCount, end, true);
+        } else {
+            Bits.fill(words, start, start + trueCount, true);
+            Bits.fill(words, start + trueCount, end, false);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        return Boolean.compare(Bits.get(words, i), Bits.get(words, j));
+    }
+
+
+    @Override
+    public final Array<Boolean> swap(int i, int j) {
+        final boolean v1 = Bits.get(words, i);
+        final boolean v2 = Bits.get(words, j);
+        if (v1 != v2) {
+            Bits.set(words, i, v2);
+            Bits.set(words, j, v1);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Boolean> filter(Predicate<ArrayValue<Boolean>> predicate) {
+        final ArrayCursor<Boolean> cursor = cursor();
+        final DenseArrayOfBits result = new DenseArrayOfBits(length, false);
+        result.defaultValue = defaultValue;
+        int count = 0;
+        for (int i=0; i<length; ++i) {
+            cursor.moveTo(i);
+            if (predicate.test(cursor)) {
+                if (cursor.getBoolean()) {
+                    result.words[count >>> 6] |= 1L << count;
+                }
+                ++count;
+            }
+        }
+        return count < length ? result.copy(0, count) : result;
+    }
+
+
+    @Override
+    public final Array<Boolean> update(Array<Boolean> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                final boolean update = from.getBoolean(fromIndex);
+                this.setBoolean(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Boolean> update(int toIndex, Array<Boolean> from, int fromIndex, int length) {
+        for (int i=0; i<length; ++i) {
+            final boolean update = from.getBoolean(fromIndex + i);
+            this.setBoolean(toIndex + i, update);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Boolean> expand(int newLength) {
+        if (newLength > length) {
+            this.words = Bits.expand(words, length, newLength);
+            Bits.fill(words, length, newLength, defaultValue);
+            this.length = newLength;
+        }
+        return this;
+    }
+
+
+    @Override
+    public Array<Boolean> fill(Boolean value, int start, int end) {
+        Bits.fill(words, start, end, value == null ? defaultValue : value);
+        return this;
+    }
+
+
+    @Override
+    public boolean isNull(int index) {
+        return false;
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Boolean value) {
+        return value != null && getBoolean(index) == value;
+    }
+
+
+    @Override
+    public final boolean getBoolean(int index) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException("Array index out of range: " + index);
+        } else {
+            return Bits.get(words, index);
+        }
+    }
+
+
+    @Override
+    public final Boolean getValue(int index) {
+        return getBoolean(index) ? Boolean.TRUE : Boolean.FALSE;
+    }
+
+
+    @Override
+    public final boolean setBoolean(int index, boolean value) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException("Array index out of range: " + index);
+        } else {
+            return Bits.set(words, index, value);
+        }
+    }
+
+
+    @Override
+    public final Boolean setValue(int index, Boolean value) {
+        return setBoolean(index, value != null ? value : defaultValue);
+    }
+
+
+    @Override
+    public int binarySearch(int start, int end, Boolean value) {
+        int low = start;
+        int high = end - 1;
+        while (low <= high) {
+            final int midIndex = (low + high) >>> 1;
+            final boolean midValue = getBoolean(midIndex);
+            final int result = Boolean.compare(midValue, value);
+            if (result < 0) {
+                low = midIndex + 1;
+            } else if (result > 0) {
+                high = midIndex - 1;
+            } else {
+                return midIndex;
+            }
+        }
+        return -(low + 1);
+    }
+
+
+    @Override
+    public Array<Boolean> distinct(int limit) {
+        final int trueCount = cardinality();
+        final ArrayBuilder<Boolean> builder = ArrayBuilder.of(2, Boolean.class);
+        if (length > 0 && limit > 0) {
+            final boolean first = getBoolean(0);
+            builder.appendBoolean(first);
+            if (limit > 1 && trueCount > 0 && trueCount < length) {
+                builder.appendBoolean(!first);
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final int cardinality() {
+        return Bits.count(words, 0, length);
+    }
+
+
+    @Override
+    public final int cardinality(int start, int end) {
+        return Bits.count(words, start, end);
+    }
+
+
+    @Override
+    public final Array<Boolean> and(Array<Boolean> other) {
+        this.checkLength(other);
+        if (other instanceof DenseArrayOfBits) {
+            final long[] otherWords = ((DenseArrayOfBits)other).words;
+            for (int i=0; i<words.length; ++i) {
+                this.words[i] &= otherWords[i];
+            }
+        } else {
+            for (int i=0; i<length; ++i) {
+                if (!other.getBoolean(i)) {
+                    Bits.set(words, i, false);
+                }
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Boolean> or(Array<Boolean> other) {
+        this.checkLength(other);
+        if (other instanceof DenseArrayOfBits) {
+            final long[] otherWords = ((DenseArrayOfBits)other).words;
+            for (int i=0; i<words.length; ++i) {
+                this.words[i] |= otherWords[i];
+            }
+        } else {
+            for (int i=0; i<length; ++i) {
+                if (other.getBoolean(i)) {
+                    Bits.set(words, i, true);
+                }
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Boolean> xor(Array<Boolean> other) {
+        this.checkLength(other);
+        if (other instanceof DenseArrayOfBits) {
+            final long[] otherWords = ((DenseArrayOfBits)other).words;
+            for (int i=0; i<words.length; ++i) {
+                this.words[i] ^= otherWords[i];
+            }
+        } else {
+            for (int i=0; i<length; ++i) {
+                if (other.getBoolean(i)) {
+                    Bits.set(words, i, !Bits.get(words, i));
+                }
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Boolean> not() {
+        for (int i=0; i<words.length; ++i) {
+            this.words[i] = ~words[i];
+        }
+        if ((length & 63) != 0) {
+            this.words[words.length - 1] &= (1L << length) - 1L;
+        }
+        return this;
+    }
+
+
+    /**
+     * Checks that the other array has the same length as this array
+     * @param other the other array
+     */
+    private void checkLength(Array<Boolean> other) {
+        if (other.length() != length) {
+            throw new ArrayException("Array lengths do not match: " + length + " != " + other.length());
+        }
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            Bits.set(words, i, is.readBoolean());
+        }
+    }
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            os.writeBoolean(Bits.get(words, index));
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(length);
+        os.writeBoolean(defaultValue);
+        for (long word : words) {
+            os.writeLong(word);
+        }
+    }
+
+
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException {
+        this.length = is.readInt();
+        this.defaultValue = is.readBoolean();
+        this.words = Bits.words(length);
+        for (int i=0; i<words.length; ++i) {
+            words[i] = is.readLong();
+        }
+    }
+
+}
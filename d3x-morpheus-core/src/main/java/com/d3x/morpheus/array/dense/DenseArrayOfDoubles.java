@@ -19,12 +19,14 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.function.Predicate;
 
 import gnu.trove.set.TDoubleSet;
 import gnu.trove.set.hash.TDoubleHashSet;
 
 import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
 import com.d3x.morpheus.array.ArrayException;
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBase;
@@ -34,6 +36,9 @@ import com.d3x.morpheus.array.ArrayValue;
 /**
  * An Array implementation designed to hold a dense array of double values
  *
+ * <p>The array optionally carries a validity bitmap with a bit set for each non-null entry, which lets it hold real
+ * nulls without boxing. Null entries store the default value, which is what the primitive accessors return.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author  Xavier Witdouck
@@ -42,8 +47,12 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
 
     private static final long serialVersionUID = 1L;
 
+    /** The serialization format version, written as a negative marker ahead of the length, which is never negative */
+    private static final int FORMAT_VERSION = 2;
+
     private double[] values;
     private final double defaultValue;
+    private long[] validity;
 
     /**
      * Constructor
@@ -57,6 +66,17 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
         Arrays.fill(values, this.defaultValue);
     }
 
+    /**
+     * Constructor
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     * @param nullable      true to track nulls in a validity bitmap, in which case all entries are initially null
+     */
+    DenseArrayOfDoubles(int length, Double defaultValue, boolean nullable) {
+        this(length, defaultValue);
+        this.validity = nullable ? Bits.words(length) : null;
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -66,6 +86,7 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
         super(source.type(), ArrayStyle.DENSE, parallel);
         this.values = source.values;
         this.defaultValue = source.defaultValue;
+        this.validity = source.validity;
     }
 
 
@@ -104,6 +125,7 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
         try {
             final DenseArrayOfDoubles copy = (DenseArrayOfDoubles)super.clone();
             copy.values = this.values.clone();
+            copy.validity = this.validity != null ? this.validity.clone() : null;
             return copy;
         } catch (Exception ex) {
             throw new ArrayException("Failed to copy Array: " + this, ex);
@@ -113,9 +135,12 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
 
     @Override()
     public final Array<Double> copy(int[] indexes) {
-        var clone = new DenseArrayOfDoubles(indexes.length, defaultValue);
+        var clone = new DenseArrayOfDoubles(indexes.length, defaultValue, validity != null);
         for (int i = 0; i < indexes.length; ++i) {
             clone.values[i] = this.values[indexes[i]];
+            if (validity != null) {
+                Bits.set(clone.validity, i, Bits.get(validity, indexes[i]));
+            }
         }
         return clone;
     }
@@ -123,9 +148,12 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
 
     @Override
     public Array<Double> copy(Array<Integer> indexes) {
-        var clone = new DenseArrayOfDoubles(indexes.length(), defaultValue);
+        var clone = new DenseArrayOfDoubles(indexes.length(), defaultValue, validity != null);
         for (int i = 0; i < indexes.length(); ++i) {
             clone.values[i] = this.values[indexes.getInt(i)];
+            if (validity != null) {
+                Bits.set(clone.validity, i, Bits.get(validity, indexes.getInt(i)));
+            }
         }
         return clone;
     }
@@ -134,20 +162,36 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
     @Override()
     public final Array<Double> copy(int start, int end) {
         var length = end - start;
-        final DenseArrayOfDoubles clone = new DenseArrayOfDoubles(length, defaultValue);
+        final DenseArrayOfDoubles clone = new DenseArrayOfDoubles(length, defaultValue, validity != null);
         System.arraycopy(values, start, clone.values, 0, length);
+        if (validity != null) {
+            for (int i=0; i<length; ++i) {
+                Bits.set(clone.validity, i, Bits.get(validity, start + i));
+            }
+        }
         return clone;
     }
 
 
     @Override
     protected final Array<Double> sort(int start, int end, int multiplier) {
-        return doSort(start, end, (i, j) -> multiplier * Double.compare(values[i], values[j]));
+        if (validity != null) {
+            return doSort(start, end, (i, j) -> multiplier * compare(i, j));
+        } else {
+            return doSort(start, end, (i, j) -> multiplier * Double.compare(values[i], values[j]));
+        }
     }
 
 
     @Override
     public final int compare(int i, int j) {
+        if (validity != null) {
+            final boolean null1 = !Bits.get(validity, i);
+            final boolean null2 = !Bits.get(validity, j);
+            if (null1 || null2) {
+                return null1 == null2 ? 0 : null1 ? -1 : 1;
+            }
+        }
         return Double.compare(values[i], values[j]);
     }
 
@@ -158,22 +202,41 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
         var v2 = values[j];
         this.values[i] = v2;
         this.values[j] = v1;
+        if (validity != null) {
+            final boolean valid1 = Bits.get(validity, i);
+            final boolean valid2 = Bits.get(validity, j);
+            if (valid1 != valid2) {
+                Bits.set(validity, i, valid2);
+                Bits.set(validity, j, valid1);
+            }
+        }
         return this;
     }
 
 
     @Override
     public final Array<Double> filter(Predicate<ArrayValue<Double>> predicate) {
-        var cursor = cursor();
-        var builder = ArrayBuilder.of(length(), type());
-        for (int i=0; i<values.length; ++i) {
-            cursor.moveTo(i);
-            var match = predicate.test(cursor);
-            if (match) {
-                builder.appendDouble(cursor.getDouble());
+        final ArrayCursor<Double> cursor = cursor();
+        if (validity != null) {
+            final ArrayBuilder<Integer> indexes = ArrayBuilder.of(length(), Integer.class);
+            for (int i=0; i<values.length; ++i) {
+                cursor.moveTo(i);
+                if (predicate.test(cursor)) {
+                    indexes.appendInt(i);
+                }
             }
+            return copy(indexes.toArray());
+        } else {
+            final ArrayBuilder<Double> builder = ArrayBuilder.of(length(), type());
+            for (int i=0; i<values.length; ++i) {
+                cursor.moveTo(i);
+                final boolean match = predicate.test(cursor);
+                if (match) {
+                    builder.appendDouble(cursor.getDouble());
+                }
+            }
+            return builder.toArray();
         }
-        return builder.toArray();
     }
 
 
@@ -185,8 +248,12 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
             for (int i=0; i<fromIndexes.length; ++i) {
                 final int toIndex = toIndexes[i];
                 final int fromIndex = fromIndexes[i];
-                var update = from.getDouble(fromIndex);
-                this.setDouble(toIndex, update);
+                if (validity != null && from.isNull(fromIndex)) {
+                    this.setValue(toIndex, null);
+                } else {
+                    final double update = from.getDouble(fromIndex);
+                    this.setDouble(toIndex, update);
+                }
             }
         }
         return this;
@@ -196,8 +263,12 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
     @Override
     public final Array<Double> update(int toIndex, Array<Double> from, int fromIndex, int length) {
         for (int i=0; i<length; ++i) {
-            var update = from.getDouble(fromIndex + i);
-            this.setDouble(toIndex + i, update);
+            if (validity != null && from.isNull(fromIndex + i)) {
+                this.setValue(toIndex + i, null);
+            } else {
+                final double update = from.getDouble(fromIndex + i);
+                this.setDouble(toIndex + i, update);
+            }
         }
         return this;
     }
@@ -209,6 +280,9 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
             var newValues = new double[newLength];
             System.arraycopy(values, 0, newValues, 0, values.length);
             Arrays.fill(newValues, values.length, newValues.length, defaultValue);
+            if (validity != null) {
+                this.validity = Bits.expand(validity, values.length, newLength);
+            }
             this.values = newValues;
         }
         return this;
@@ -218,19 +292,48 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
     @Override
     public final Array<Double> fill(Double value, int start, int end) {
         Arrays.fill(values, start, end, value == null ? defaultValue : value);
+        if (validity != null) {
+            Bits.fill(validity, start, end, value != null);
+        }
         return this;
     }
 
 
+    /**
+     * Returns true if this array tracks nulls in a validity bitmap
+     * @return  true if this array is nullable
+     */
+    final boolean isNullable() {
+        return validity != null;
+    }
+
+
+    /**
+     * Replaces the validity bitmap of this array so that only the entries at the indexes specified are null
+     * This uses plain writes, so it is only safe while a single thread owns the array, such as an ArrayBuilder
+     * @param nulls the indexes of null entries
+     */
+    final void setNulls(BitSet nulls) {
+        for (int i = nulls.nextSetBit(0); i >= 0 && i < values.length; i = nulls.nextSetBit(i + 1)) {
+            this.values[i] = defaultValue;
+        }
+        this.validity = Bits.validity(nulls, values.length);
+    }
+
+
     @Override
     public final boolean isNull(int index) {
-        return Double.isNaN(values[index]);
+        return validity != null ? !Bits.get(validity, index) : Double.isNaN(values[index]);
     }
 
 
     @Override
     public final boolean isEqualTo(int index, Double value) {
-        return value == null || Double.isNaN(value) ? Double.isNaN(values[index]) : values[index] == value;
+        if (validity != null) {
+            return value == null ? isNull(index) : !isNull(index) && Double.compare(values[index], value) == 0;
+        } else {
+            return value == null || Double.isNaN(value) ? Double.isNaN(values[index]) : values[index] == value;
+        }
     }
 
 
@@ -252,24 +355,47 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
     }
 
 
+    @Override
+    public final double[] getDoubles(int start, double[] target, int offset, int length) {
+        System.arraycopy(values, start, target, offset, length);
+        return target;
+    }
+
+
     @Override
     public final Double getValue(int index) {
-        return values[index];
+        return validity != null && !Bits.get(validity, index) ? null : values[index];
     }
 
 
     @Override
     public final double setDouble(int index, double value) {
-        var oldValue = getDouble(index);
+        final double oldValue = getDouble(index);
         this.values[index] = value;
+        if (validity != null) {
+            Bits.set(validity, index, true);
+        }
         return oldValue;
     }
 
 
+    @Override
+    public final Array<Double> setDoubles(int start, double[] source, int offset, int length) {
+        System.arraycopy(source, offset, values, start, length);
+        if (validity != null) {
+            Bits.fill(validity, start, start + length, true);
+        }
+        return this;
+    }
+
+
     @Override
     public final Double setValue(int index, Double value) {
         var oldValue = getValue(index);
         this.values[index] = value != null ? value : Double.NaN;
+        if (validity != null) {
+            Bits.set(validity, index, value != null);
+        }
         return oldValue;
     }
 
@@ -286,6 +412,9 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
         final TDoubleSet set = new TDoubleHashSet(capacity);
         final ArrayBuilder<Double> builder = ArrayBuilder.of(capacity, Double.class);
         for (int i=0; i<length(); ++i) {
+            if (validity != null && !Bits.get(validity, i)) {
+                continue;
+            }
             var value = getDouble(i);
             if (set.add(value)) {
                 builder.appendDouble(value);
@@ -323,6 +452,9 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
         for (int i=0; i<count; ++i) {
             this.values[i] = is.readDouble();
         }
+        if (validity != null) {
+            Bits.fill(validity, 0, count, true);
+        }
     }
 
 
@@ -335,21 +467,36 @@ class DenseArrayOfDoubles extends ArrayBase<Double> {
 
     /** Custom serialization */
     private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(-FORMAT_VERSION);
         os.writeInt(values.length);
         for (double value : values) {
             os.writeDouble(value);
         }
+        os.writeBoolean(validity != null);
+        if (validity != null) {
+            for (long word : validity) {
+                os.writeLong(word);
+            }
+        }
     }
 
 
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        var length = is.readInt();
+        var marker = is.readInt();
+        var version = marker < 0 ? -marker : 1;
+        var length = version > 1 ? is.readInt() : marker;
         this.values = new double[length];
         for (int i=0; i<length; ++i) {
             values[i] = is.readDouble();
         }
+        if (version > 1 && is.readBoolean()) {
+            this.validity = Bits.words(length);
+            for (int i=0; i<validity.length; ++i) {
+                validity[i] = is.readLong();
+            }
+        }
     }
 
 }
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.function.Predicate;
 
 import gnu.trove.set.TIntSet;
@@ -35,6 +36,9 @@ import com.d3x.morpheus.array.ArrayValue;
 /**
  * An Array implementation designed to hold a dense array of int values
  *
+ * <p>The array optionally carries a validity bitmap with a bit set for each non-null entry, which lets it hold real
+ * nulls without boxing. Null entries store the default value, which is what the primitive accessors return.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author  Xavier Witdouck
@@ -43,8 +47,12 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
 
     private static final long serialVersionUID = 1L;
 
+    /** The serialization format version, written as a negative marker ahead of the length, which is never negative */
+    private static final int FORMAT_VERSION = 2;
+
     private int[] values;
     private int defaultValue;
+    private long[] validity;
 
     /**
      * Constructor
@@ -58,6 +66,17 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         Arrays.fill(values, this.defaultValue);
     }
 
+    /**
+     * Constructor
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     * @param nullable      true to track nulls in a validity bitmap, in which case all entries are initially null
+     */
+    DenseArrayOfInts(int length, Integer defaultValue, boolean nullable) {
+        this(length, defaultValue);
+        this.validity = nullable ? Bits.words(length) : null;
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -67,6 +86,7 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         super(source.type(), ArrayStyle.DENSE, parallel);
         this.values = source.values;
         this.defaultValue = source.defaultValue;
+        this.validity = source.validity;
     }
 
 
@@ -106,6 +126,7 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
             final DenseArrayOfInts copy = (DenseArrayOfInts)super.clone();
             copy.defaultValue = this.defaultValue;
             copy.values = this.values.clone();
+            copy.validity = this.validity != null ? this.validity.clone() : null;
             return copy;
         } catch (Exception ex) {
             throw new ArrayException("Failed to copy Array: " + this, ex);
@@ -115,9 +136,12 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
 
     @Override()
     public final Array<Integer> copy(int[] indexes) {
-        var clone = new DenseArrayOfInts(indexes.length, defaultValue);
+        var clone = new DenseArrayOfInts(indexes.length, defaultValue, validity != null);
         for (int i = 0; i < indexes.length; ++i) {
             clone.values[i] = this.values[indexes[i]];
+            if (validity != null) {
+                Bits.set(clone.validity, i, Bits.get(validity, indexes[i]));
+            }
         }
         return clone;
     }
@@ -125,9 +149,12 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
 
     @Override
     public Array<Integer> copy(Array<Integer> indexes) {
-        var clone = new DenseArrayOfInts(indexes.length(), defaultValue);
+        var clone = new DenseArrayOfInts(indexes.length(), defaultValue, validity != null);
         for (int i = 0; i < indexes.length(); ++i) {
             clone.values[i] = this.values[indexes.getInt(i)];
+            if (validity != null) {
+                Bits.set(clone.validity, i, Bits.get(validity, indexes.getInt(i)));
+            }
         }
         return clone;
     }
@@ -136,20 +163,36 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     @Override()
     public final Array<Integer> copy(int start, int end) {
         var length = end - start;
-        final DenseArrayOfInts clone = new DenseArrayOfInts(length, defaultValue);
+        final DenseArrayOfInts clone = new DenseArrayOfInts(length, defaultValue, validity != null);
         System.arraycopy(values, start, clone.values, 0, length);
+        if (validity != null) {
+            for (int i=0; i<length; ++i) {
+                Bits.set(clone.validity, i, Bits.get(validity, start + i));
+            }
+        }
         return clone;
     }
 
 
     @Override
     protected final Array<Integer> sort(int start, int end, int multiplier) {
-        return doSort(start, end, (i, j) -> multiplier * Integer.compare(values[i], values[j]));
+        if (validity != null) {
+            return doSort(start, end, (i, j) -> multiplier * compare(i, j));
+        } else {
+            return doSort(start, end, (i, j) -> multiplier * Integer.compare(values[i], values[j]));
+        }
     }
 
 
     @Override
     public final int compare(int i, int j) {
+        if (validity != null) {
+            final boolean null1 = !Bits.get(validity, i);
+            final boolean null2 = !Bits.get(validity, j);
+            if (null1 || null2) {
+                return null1 == null2 ? 0 : null1 ? -1 : 1;
+            }
+        }
         return Integer.compare(values[i], values[j]);
     }
 
@@ -160,6 +203,14 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         final int v2 = values[j];
         this.values[i] = v2;
         this.values[j] = v1;
+        if (validity != null) {
+            final boolean valid1 = Bits.get(validity, i);
+            final boolean valid2 = Bits.get(validity, j);
+            if (valid1 != valid2) {
+                Bits.set(validity, i, valid2);
+                Bits.set(validity, j, valid1);
+            }
+        }
         return this;
     }
 
@@ -167,15 +218,26 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     @Override
     public final Array<Integer> filter(Predicate<ArrayValue<Integer>> predicate) {
         final ArrayCursor<Integer> cursor = cursor();
-        final ArrayBuilder<Integer> builder = ArrayBuilder.of(length(), type());
-        for (int i=0; i<values.length; ++i) {
-            cursor.moveTo(i);
-            final boolean match = predicate.test(cursor);
-            if (match) {
-                builder.appendInt(cursor.getInt());
+        if (validity != null) {
+            final ArrayBuilder<Integer> indexes = ArrayBuilder.of(length(), Integer.class);
+            for (int i=0; i<values.length; ++i) {
+                cursor.moveTo(i);
+                if (predicate.test(cursor)) {
+                    indexes.appendInt(i);
+                }
+            }
+            return copy(indexes.toArray());
+        } else {
+            final ArrayBuilder<Integer> builder = ArrayBuilder.of(length(), type());
+            for (int i=0; i<values.length; ++i) {
+                cursor.moveTo(i);
+                final boolean match = predicate.test(cursor);
+                if (match) {
+                    builder.appendInt(cursor.getInt());
+                }
             }
+            return builder.toArray();
         }
-        return builder.toArray();
     }
 
 
@@ -187,8 +249,12 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
             for (int i=0; i<fromIndexes.length; ++i) {
                 final int toIndex = toIndexes[i];
                 final int fromIndex = fromIndexes[i];
-                final int update = from.getInt(fromIndex);
-                this.setInt(toIndex, update);
+                if (validity != null && from.isNull(fromIndex)) {
+                    this.setValue(toIndex, null);
+                } else {
+                    final int update = from.getInt(fromIndex);
+                    this.setInt(toIndex, update);
+                }
             }
         }
         return this;
@@ -198,8 +264,12 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     @Override
     public final Array<Integer> update(int toIndex, Array<Integer> from, int fromIndex, int length) {
         for (int i=0; i<length; ++i) {
-            final int update = from.getInt(fromIndex + i);
-            this.setInt(toIndex + i, update);
+            if (validity != null && from.isNull(fromIndex + i)) {
+                this.setValue(toIndex + i, null);
+            } else {
+                final int update = from.getInt(fromIndex + i);
+                this.setInt(toIndex + i, update);
+            }
         }
         return this;
     }
@@ -211,6 +281,9 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
             var newValues = new int[newLength];
             System.arraycopy(values, 0, newValues, 0, values.length);
             Arrays.fill(newValues, values.length, newValues.length, defaultValue);
+            if (validity != null) {
+                this.validity = Bits.expand(validity, values.length, newLength);
+            }
             this.values = newValues;
         }
         return this;
@@ -220,18 +293,43 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     @Override
     public Array<Integer> fill(Integer value, int start, int end) {
         Arrays.fill(values, start, end, value == null ? defaultValue : value);
+        if (validity != null) {
+            Bits.fill(validity, start, end, value != null);
+        }
         return this;
     }
 
+    /**
+     * Returns true if this array tracks nulls in a validity bitmap
+     * @return  true if this array is nullable
+     */
+    final boolean isNullable() {
+        return validity != null;
+    }
+
+
+    /**
+     * Replaces the validity bitmap of this array so that only the entries at the indexes specified are null
+     * This uses plain writes, so it is only safe while a single thread owns the array, such as an ArrayBuilder
+     * @param nulls the indexes of null entries
+     */
+    final void setNulls(BitSet nulls) {
+        for (int i = nulls.nextSetBit(0); i >= 0 && i < values.length; i = nulls.nextSetBit(i + 1)) {
+            this.values[i] = defaultValue;
+        }
+        this.validity = Bits.validity(nulls, values.length);
+    }
+
+
     @Override
     public boolean isNull(int index) {
-        return false;
+        return validity != null && !Bits.get(validity, index);
     }
 
 
     @Override
     public final boolean isEqualTo(int index, Integer value) {
-        return value != null && value == values[index];
+        return value == null ? isNull(index) : !isNull(index) && value == values[index];
     }
 
 
@@ -249,7 +347,7 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
 
     @Override
     public final Integer getValue(int index) {
-        return values[index];
+        return validity != null && !Bits.get(validity, index) ? null : values[index];
     }
 
 
@@ -257,6 +355,9 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     public final int setInt(int index, int value) {
         final int oldValue = getInt(index);
         this.values[index] = value;
+        if (validity != null) {
+            Bits.set(validity, index, true);
+        }
         return oldValue;
     }
 
@@ -264,13 +365,11 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     @Override
     public final Integer setValue(int index, Integer value) {
         var oldValue = getValue(index);
-        if (value == null) {
-            this.values[index] = defaultValue;
-            return oldValue;
-        } else {
-            this.values[index] = value;
-            return oldValue;
+        this.values[index] = value != null ? value : defaultValue;
+        if (validity != null) {
+            Bits.set(validity, index, value != null);
         }
+        return oldValue;
     }
 
 
@@ -286,6 +385,9 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         final TIntSet set = new TIntHashSet(capacity);
         final ArrayBuilder<Integer> builder = ArrayBuilder.of(capacity, Integer.class);
         for (int i=0; i<length(); ++i) {
+            if (validity != null && !Bits.get(validity, i)) {
+                continue;
+            }
             final int value = getInt(i);
             if (set.add(value)) {
                 builder.appendInt(value);
@@ -317,6 +419,9 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         for (int i=0; i<count; ++i) {
             this.values[i] = is.readInt();
         }
+        if (validity != null) {
+            Bits.fill(validity, 0, count, true);
+        }
     }
 
 
@@ -329,21 +434,36 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
 
     /** Custom serialization */
     private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(-FORMAT_VERSION);
         os.writeInt(values.length);
         for (int value : values) {
             os.writeInt(value);
         }
+        os.writeBoolean(validity != null);
+        if (validity != null) {
+            for (long word : validity) {
+                os.writeLong(word);
+            }
+        }
     }
 
 
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        var length = is.readInt();
+        var marker = is.readInt();
+        var version = marker < 0 ? -marker : 1;
+        var length = version > 1 ? is.readInt() : marker;
         this.values = new int[length];
         for (int i=0; i<length; ++i) {
             values[i] = is.readInt();
         }
+        if (version > 1 && is.readBoolean()) {
+            this.validity = Bits.words(length);
+            for (int i=0; i<validity.length; ++i) {
+                validity[i] = is.readLong();
+            }
+        }
     }
 
 }
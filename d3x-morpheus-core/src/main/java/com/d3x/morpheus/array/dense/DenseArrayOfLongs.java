@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.function.Predicate;
 
 import gnu.trove.set.TLongSet;
@@ -35,6 +36,9 @@ import com.d3x.morpheus.array.ArrayValue;
 /**
  * An Array implementation designed to hold a dense array of long values
  *
+ * <p>The array optionally carries a validity bitmap with a bit set for each non-null entry, which lets it hold real
+ * nulls without boxing. Null entries store the default value, which is what the primitive accessors return.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author  Xavier Witdouck
@@ -43,8 +47,12 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
 
     private static final long serialVersionUID = 1L;
 
+    /** The serialization format version, written as a negative marker ahead of the length, which is never negative */
+    private static final int FORMAT_VERSION = 2;
+
     private long[] values;
     private long defaultValue;
+    private long[] validity;
 
     /**
      * Constructor
@@ -58,6 +66,17 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
         Arrays.fill(values, this.defaultValue);
     }
 
+    /**
+     * Constructor
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     * @param nullable      true to track nulls in a validity bitmap, in which case all entries are initially null
+     */
+    DenseArrayOfLongs(int length, Long defaultValue, boolean nullable) {
+        this(length, defaultValue);
+        this.validity = nullable ? Bits.words(length) : null;
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -67,6 +86,7 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
         super(source.type(), ArrayStyle.DENSE, parallel);
         this.values = source.values;
         this.defaultValue = source.defaultValue;
+        this.validity = source.validity;
     }
 
 
@@ -106,6 +126,7 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
             final DenseArrayOfLongs copy = (DenseArrayOfLongs)super.clone();
             copy.defaultValue = this.defaultValue;
             copy.values = this.values.clone();
+            copy.validity = this.validity != null ? this.validity.clone() : null;
             return copy;
         } catch (Exception ex) {
             throw new ArrayException("Failed to copy Array: " + this, ex);
@@ -115,9 +136,12 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
 
     @Override()
     public final Array<Long> copy(int[] indexes) {
-        var clone = new DenseArrayOfLongs(indexes.length, defaultValue);
+        var clone = new DenseArrayOfLongs(indexes.length, defaultValue, validity != null);
         for (int i = 0; i < indexes.length; ++i) {
             clone.values[i] = this.values[indexes[i]];
+            if (validity != null) {
+                Bits.set(clone.validity, i, Bits.get(validity, indexes[i]));
+            }
         }
         return clone;
     }
@@ -125,9 +149,12 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
 
     @Override
     public Array<Long> copy(Array<Integer> indexes) {
-        var clone = new DenseArrayOfLongs(indexes.length(), defaultValue);
+        var clone = new DenseArrayOfLongs(indexes.length(), defaultValue, validity != null);
         for (int i = 0; i < indexes.length(); ++i) {
             clone.values[i] = this.values[indexes.getInt(i)];
+            if (validity != null) {
+                Bits.set(clone.validity, i, Bits.get(validity, indexes.getInt(i)));
+            }
         }
         return clone;
     }
@@ -136,20 +163,36 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
     @Override()
     public final Array<Long> copy(int start, int end) {
         var length = end - start;
-        final DenseArrayOfLongs clone = new DenseArrayOfLongs(length, defaultValue);
+        final DenseArrayOfLongs clone = new DenseArrayOfLongs(length, defaultValue, validity != null);
         System.arraycopy(values, start, clone.values, 0, length);
+        if (validity != null) {
+            for (int i=0; i<length; ++i) {
+                Bits.set(clone.validity, i, Bits.get(validity, start + i));
+            }
+        }
         return clone;
     }
 
 
     @Override
     protected final Array<Long> sort(int start, int end, int multiplier) {
-        return doSort(start, end, (i, j) -> multiplier * Long.compare(values[i], values[j]));
+        if (validity != null) {
+            return doSort(start, end, (i, j) -> multiplier * compare(i, j));
+        } else {
+            return doSort(start, end, (i, j) -> multiplier * Long.compare(values[i], values[j]));
+        }
     }
 
 
     @Override
     public final int compare(int i, int j) {
+        if (validity != null) {
+            final boolean null1 = !Bits.get(validity, i);
+            final boolean null2 = !Bits.get(validity, j);
+            if (null1 || null2) {
+                return null1 == null2 ? 0 : null1 ? -1 : 1;
+            }
+        }
         return Long.compare(values[i], values[j]);
     }
 
@@ -160,6 +203,14 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
         final long v2 = values[j];
         this.values[i] = v2;
         this.values[j] = v1;
+        if (validity != null) {
+            final boolean valid1 = Bits.get(validity, i);
+            final boolean valid2 = Bits.get(validity, j);
+            if (valid1 != valid2) {
+                Bits.set(validity, i, valid2);
+                Bits.set(validity, j, valid1);
+            }
+        }
         return this;
     }
 
@@ -167,15 +218,26 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
     @Override
     public final Array<Long> filter(Predicate<ArrayValue<Long>> predicate) {
         final ArrayCursor<Long> cursor = cursor();
-        final ArrayBuilder<Long> builder = ArrayBuilder.of(length(), type());
-        for (int i=0; i<values.length; ++i) {
-            cursor.moveTo(i);
-            final boolean match = predicate.test(cursor);
-            if (match) {
-                builder.appendLong(cursor.getLong());
+        if (validity != null) {
+            final ArrayBuilder<Integer> indexes = ArrayBuilder.of(length(), Integer.class);
+            for (int i=0; i<values.length; ++i) {
+                cursor.moveTo(i);
+                if (predicate.test(cursor)) {
+                    indexes.appendInt(i);
+                }
+            }
+            return copy(indexes.toArray());
+        } else {
+            final ArrayBuilder<Long> builder = ArrayBuilder.of(length(), type());
+            for (int i=0; i<values.length; ++i) {
+                cursor.moveTo(i);
+                final boolean match = predicate.test(cursor);
+                if (match) {
+                    builder.appendLong(cursor.getLong());
+                }
             }
+            return builder.toArray();
         }
-        return builder.toArray();
     }
 
 
@@ -187,8 +249,12 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
             for (int i=0; i<fromIndexes.length; ++i) {
                 final int toIndex = toIndexes[i];
                 final int fromIndex = fromIndexes[i];
-                final long update = from.getLong(fromIndex);
-                this.setLong(toIndex, update);
+                if (validity != null && from.isNull(fromIndex)) {
+                    this.setValue(toIndex, null);
+                } else {
+                    final long update = from.getLong(fromIndex);
+                    this.setLong(toIndex, update);
+                }
             }
         }
         return this;
@@ -198,8 +264,12 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
     @Override
     public final Array<Long> update(int toIndex, Array<Long> from, int fromIndex, int length) {
         for (int i=0; i<length; ++i) {
-            final long update = from.getLong(fromIndex + i);
-            this.setLong(toIndex + i, update);
+            if (validity != null && from.isNull(fromIndex + i)) {
+                this.setValue(toIndex + i, null);
+            } else {
+                final long update = from.getLong(fromIndex + i);
+                this.setLong(toIndex + i, update);
+            }
         }
         return this;
     }
@@ -208,9 +278,12 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
     @Override
     public final Array<Long> expand(int newLength) {
         if (newLength > values.length) {
-            final long[] newValues = new long[newLength];
+            var newValues = new long[newLength];
             System.arraycopy(values, 0, newValues, 0, values.length);
             Arrays.fill(newValues, values.length, newValues.length, defaultValue);
+            if (validity != null) {
+                this.validity = Bits.expand(validity, values.length, newLength);
+            }
             this.values = newValues;
         }
         return this;
@@ -220,19 +293,44 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
     @Override
     public Array<Long> fill(Long value, int start, int end) {
         Arrays.fill(values, start, end, value == null ? defaultValue : value);
+        if (validity != null) {
+            Bits.fill(validity, start, end, value != null);
+        }
         return this;
     }
 
 
+    /**
+     * Returns true if this array tracks nulls in a validity bitmap
+     * @return  true if this array is nullable
+     */
+    final boolean isNullable() {
+        return validity != null;
+    }
+
+
+    /**
+     * Replaces the validity bitmap of this array so that only the entries at the indexes specified are null
+     * This uses plain writes, so it is only safe while a single thread owns the array, such as an ArrayBuilder
+     * @param nulls the indexes of null entries
+     */
+    final void setNulls(BitSet nulls) {
+        for (int i = nulls.nextSetBit(0); i >= 0 && i < values.length; i = nulls.nextSetBit(i + 1)) {
+            this.values[i] = defaultValue;
+        }
+        this.validity = Bits.validity(nulls, values.length);
+    }
+
+
     @Override
     public boolean isNull(int index) {
-        return false;
+        return validity != null && !Bits.get(validity, index);
     }
 
 
     @Override
     public final boolean isEqualTo(int index, Long value) {
-        return value != null && value == values[index];
+        return value == null ? isNull(index) : !isNull(index) && value == values[index];
     }
 
 
@@ -250,7 +348,7 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
 
     @Override
     public final Long getValue(int index) {
-        return values[index];
+        return validity != null && !Bits.get(validity, index) ? null : values[index];
     }
 
 
@@ -258,14 +356,20 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
     public final long setLong(int index, long value) {
         final long oldValue = getLong(index);
         this.values[index] = value;
+        if (validity != null) {
+            Bits.set(validity, index, true);
+        }
         return oldValue;
     }
 
 
     @Override
     public final Long setValue(int index, Long value) {
-        final Long oldValue = getValue(index);
-        this.values[index] = value == null ? defaultValue : value;
+        var oldValue = getValue(index);
+        this.values[index] = value != null ? value : defaultValue;
+        if (validity != null) {
+            Bits.set(validity, index, value != null);
+        }
         return oldValue;
     }
 
@@ -282,6 +386,9 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
         final TLongSet set = new TLongHashSet(capacity);
         final ArrayBuilder<Long> builder = ArrayBuilder.of(capacity, Long.class);
         for (int i=0; i<length(); ++i) {
+            if (validity != null && !Bits.get(validity, i)) {
+                continue;
+            }
             final long value = getLong(i);
             if (set.add(value)) {
                 builder.appendLong(value);
@@ -313,6 +420,9 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
         for (int i=0; i<count; ++i) {
             this.values[i] = is.readLong();
         }
+        if (validity != null) {
+            Bits.fill(validity, 0, count, true);
+        }
     }
 
 
@@ -325,21 +435,36 @@ class DenseArrayOfLongs extends ArrayBase<Long> {
 
     /** Custom serialization */
     private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(-FORMAT_VERSION);
         os.writeInt(values.length);
         for (long value : values) {
             os.writeLong(value);
         }
+        os.writeBoolean(validity != null);
+        if (validity != null) {
+            for (long word : validity) {
+                os.writeLong(word);
+            }
+        }
     }
 
 
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        var length = is.readInt();
+        var marker = is.readInt();
+        var version = marker < 0 ? -marker : 1;
+        var length = version > 1 ? is.readInt() : marker;
         this.values = new long[length];
         for (int i=0; i<length; ++i) {
             values[i] = is.readLong();
         }
+        if (version > 1 && is.readBoolean()) {
+            this.validity = Bits.words(length);
+            for (int i=0; i<validity.length; ++i) {
+                validity[i] = is.readLong();
+            }
+        }
     }
 
 
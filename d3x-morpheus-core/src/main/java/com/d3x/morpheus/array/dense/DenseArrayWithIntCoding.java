@@ -37,6 +37,10 @@ import com.d3x.morpheus.array.coding.WithIntCoding;
 /**
  * A dense array implementation that maintains a primitive int array of codes that apply to Object values exposed through the IntCoding interface.
  *
+ * <p>When combined with an IntCoding.OfDictionary, this serves as a categorical array for arbitrary values such as strings,
+ * where each distinct value is held once in the dictionary. Sorting such an array compares dictionary ranks rather than
+ * codes, and values are written as objects when a frame is serialized, since codes are only meaningful with their dictionary.</p>
+ *
  * @author Xavier Witdouck
  *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
@@ -163,13 +167,34 @@ class DenseArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<T
 
     @Override
     protected final Array<T> sort(int start, int end, int multiplier) {
-        return doSort(start, end, (i, j) -> multiplier * Integer.compare(codes[i], codes[j]));
+        if (coding instanceof IntCoding.OfDictionary) {
+            final int[] ranks = ((IntCoding.OfDictionary<T>)coding).getRanks();
+            return doSort(start, end, (i, j) -> multiplier * Integer.compare(rank(ranks, codes[i]), rank(ranks, codes[j])));
+        } else {
+            return doSort(start, end, (i, j) -> multiplier * Integer.compare(codes[i], codes[j]));
+        }
     }
 
 
     @Override
     public final int compare(int i, int j) {
-        return Integer.compare(codes[i], codes[j]);
+        if (coding instanceof IntCoding.OfDictionary) {
+            final int[] ranks = ((IntCoding.OfDictionary<T>)coding).getRanks();
+            return Integer.compare(rank(ranks, codes[i]), rank(ranks, codes[j]));
+        } else {
+            return Integer.compare(codes[i], codes[j]);
+        }
+    }
+
+
+    /**
+     * Returns the sort rank for a dictionary code, with null values ranked first
+     * @param ranks     the ranks of the dictionary
+     * @param code      the code
+     * @return          the rank for code
+     */
+    private static int rank(int[] ranks, int code) {
+        return code < 0 ? -1 : ranks[code];
     }
 
 
@@ -185,16 +210,17 @@ class DenseArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<T
 
     @Override
     public final Array<T> filter(Predicate<ArrayValue<T>> predicate) {
+        var count = 0;
         final ArrayCursor<T> cursor = cursor();
-        final ArrayBuilder<T> builder = ArrayBuilder.of(length(), type());
+        final DenseArrayWithIntCoding<T> result = new DenseArrayWithIntCoding<>(length(), defaultValue, coding);
         for (int i = 0; i< length(); ++i) {
             cursor.moveTo(i);
             final boolean match = predicate.test(cursor);
             if (match) {
-                builder.append(cursor.getValue());
+                result.codes[count++] = codes[i];
             }
         }
-        return builder.toArray();
+        return count < length() ? result.copy(0, count) : result;
     }
 
 
@@ -216,7 +242,7 @@ class DenseArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<T
 
     @Override
     public final Array<T> update(int toIndex, Array<T> from, int fromIndex, int length) {
-        if (from instanceof DenseArrayWithIntCoding) {
+        if (from instanceof DenseArrayWithIntCoding && isCompatible((DenseArrayWithIntCoding)from)) {
             final DenseArrayWithIntCoding other = (DenseArrayWithIntCoding) from;
             for (int i = 0; i < length; ++i) {
                 this.codes[toIndex + i] = other.codes[fromIndex + i];
@@ -235,6 +261,21 @@ class DenseArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<T
     }
 
 
+    /**
+     * Returns true if codes from the other array can be copied directly into this array
+     * Dictionary codes depend on load order, so they can only be shared between arrays with the same dictionary
+     * @param other     the other array
+     * @return          true if codes are compatible
+     */
+    private boolean isCompatible(DenseArrayWithIntCoding<?> other) {
+        if (other.coding == coding) {
+            return true;
+        } else {
+            return !(coding instanceof IntCoding.OfDictionary) && !(other.coding instanceof IntCoding.OfDictionary);
+        }
+    }
+
+
     @Override
     public final Array<T> expand(int newLength) {
         if (newLength > codes.length) {
@@ -257,7 +298,7 @@ class DenseArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<T
 
     @Override
     public final boolean isNull(int index) {
-        return codes[index] == coding.getCode(null);
+        return codes[index] == coding.findCode(null);
     }
 
 
@@ -266,8 +307,8 @@ class DenseArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<T
         if (value == null) {
             return isNull(index);
         } else {
-            var code = coding.getCode(value);
-            return code == codes[index];
+            var code = coding.findCode(value);
+            return code == codes[index] && !isNull(index);
         }
     }
 
@@ -304,33 +345,49 @@ class DenseArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<T
     public Array<T> distinct(int limit) {
         var capacity = limit < Integer.MAX_VALUE ? limit : 100;
         final TIntSet set = new TIntHashSet(capacity);
-        final ArrayBuilder<T> builder = ArrayBuilder.of(capacity, type());
+        final ArrayBuilder<Integer> indexes = ArrayBuilder.of(capacity, Integer.class);
         for (int i=0; i<length(); ++i) {
             var code = getInt(i);
             if (set.add(code)) {
-                final T value = getValue(i);
-                builder.append(value);
+                indexes.appendInt(i);
                 if (set.size() >= limit) {
                     break;
                 }
             }
         }
-        return builder.toArray();
+        return copy(indexes.toArray());
     }
 
 
     @Override
+    @SuppressWarnings("unchecked")
     public final void read(ObjectInputStream is, int count) throws IOException {
-        for (int i=0; i<count; ++i) {
-            this.codes[i] = is.readInt();
+        if (coding instanceof IntCoding.OfDictionary) {
+            try {
+                for (int i=0; i<count; ++i) {
+                    this.codes[i] = coding.getCode((T)is.readObject());
+                }
+            } catch (ClassNotFoundException ex) {
+                throw new ArrayException("Failed to de-serialized array", ex);
+            }
+        } else {
+            for (int i=0; i<count; ++i) {
+                this.codes[i] = is.readInt();
+            }
         }
     }
 
 
     @Override
     public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
-        for (int index : indexes) {
-            os.writeInt(codes[index]);
+        if (coding instanceof IntCoding.OfDictionary) {
+            for (int index : indexes) {
+                os.writeObject(getValue(index));
+            }
+        } else {
+            for (int index : indexes) {
+                os.writeInt(codes[index]);
+            }
         }
     }
 
@@ -16,6 +16,7 @@
 package com.d3x.morpheus.array.mapped;
 
 import java.io.File;
+import java.nio.channels.FileChannel;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -32,6 +33,7 @@ import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayException;
 import com.d3x.morpheus.array.ArrayFactory;
 import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.array.coding.Coding;
 import com.d3x.morpheus.array.coding.IntCoding;
 import com.d3x.morpheus.array.coding.LongCoding;
 
@@ -104,6 +106,83 @@ public class MappedArrayConstructor implements ArrayFactory.Constructor {
         }
     }
 
+    /**
+     * Returns a memory mapped array over existing data in a file without copying or initialising the data
+     * <p>The region is mapped copy-on-write, so updates to the array are never written back to the file. If the file
+     * is not writable, the region is mapped read-only and the array is copied to a temporary file on first update.</p>
+     * @param type          the element type for array
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param coding        the int or long coding for the data, null for boolean, int, long and double arrays
+     * @param file          the file that contains the array data
+     * @param offset        the byte offset of the array data within the file
+     * @param <T>           the element type
+     * @return              the newly created memory mapped array
+     */
+    public static <T> Array<T> view(Class<T> type, int length, T defaultValue, Coding<T> coding, File file, long offset) {
+        if (file.canWrite()) {
+            return map(type, length, defaultValue, coding, file, offset, FileChannel.MapMode.PRIVATE, false);
+        } else {
+            return map(type, length, defaultValue, coding, file, offset, FileChannel.MapMode.READ_ONLY, true);
+        }
+    }
+
+
+    /**
+     * Returns a memory mapped array over existing data in a file that is shared with any other process mapping the same file
+     * <p>A read-only array rejects all updates, and only requires read access to the file, so many JVMs can map the same
+     * data concurrently. A writable array writes updates straight through to the file, where they are visible to other
+     * processes mapping the same region. In either case, the existing data is never initialised.</p>
+     * @param type          the element type for array
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param coding        the int or long coding for the data, null for boolean, int, long and double arrays
+     * @param file          the file that contains the array data
+     * @param offset        the byte offset of the array data within the file
+     * @param readOnly      true to map the region read-only, false to map it read-write
+     * @param <T>           the element type
+     * @return              the newly created memory mapped array
+     */
+    public static <T> Array<T> open(Class<T> type, int length, T defaultValue, Coding<T> coding, File file, long offset, boolean readOnly) {
+        if (readOnly) {
+            return map(type, length, defaultValue, coding, file, offset, FileChannel.MapMode.READ_ONLY, false);
+        } else {
+            return map(type, length, defaultValue, coding, file, offset, FileChannel.MapMode.READ_WRITE, false);
+        }
+    }
+
+
+    /**
+     * Returns a memory mapped array over existing data in a file using the map mode specified
+     * @param type          the element type for array
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param coding        the int or long coding for the data, null for boolean, int, long and double arrays
+     * @param file          the file that contains the array data
+     * @param offset        the byte offset of the array data within the file
+     * @param mode          the mode to map the file region with
+     * @param detach        true to copy a read-only region to a temporary file on first update
+     * @param <T>           the element type
+     * @return              the newly created memory mapped array
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Array<T> map(Class<T> type, int length, T defaultValue, Coding<T> coding, File file, long offset, FileChannel.MapMode mode, boolean detach) {
+        if (coding instanceof IntCoding) {
+            return new MappedArrayWithIntCoding<>(length, defaultValue, (IntCoding<T>)coding, file, offset, mode, detach);
+        } else if (coding instanceof LongCoding) {
+            return new MappedArrayWithLongCoding<>(length, defaultValue, (LongCoding<T>)coding, file, offset, mode, detach);
+        } else {
+            switch (ArrayType.of(type)) {
+                case BOOLEAN:   return (Array<T>)new MappedArrayOfBooleans(length, (Boolean)defaultValue, file, offset, mode, detach);
+                case INTEGER:   return (Array<T>)new MappedArrayOfInts(length, (Integer)defaultValue, file, offset, mode, detach);
+                case LONG:      return (Array<T>)new MappedArrayOfLongs(length, (Long)defaultValue, file, offset, mode, detach);
+                case DOUBLE:    return (Array<T>)new MappedArrayOfDoubles(length, (Double)defaultValue, file, offset, mode, detach);
+                default:        throw new ArrayException("Data type not supported for memory mapped views: " + type);
+            }
+        }
+    }
+
+
     /**
      * Returns a newly created random file to store an array
      * @return      newly created random file
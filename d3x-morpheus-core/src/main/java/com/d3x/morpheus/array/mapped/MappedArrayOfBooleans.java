@@ -19,8 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.RandomAccessFile;
-import java.nio.ShortBuffer;
 import java.nio.channels.FileChannel;
 import java.util.function.Predicate;
 
@@ -46,13 +44,11 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
 
     private static final long serialVersionUID = 1L;
 
-    private static final long BYTE_COUNT = 2L;
+    private static final int BYTE_COUNT = 2;
 
-    private File file;
     private int length;
     private boolean defaultValue;
-    private FileChannel channel;
-    private ShortBuffer buffer;
+    private MappedSegments buffer;
 
     /**
      * Constructor
@@ -62,18 +58,43 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
      */
     MappedArrayOfBooleans(int length, Boolean defaultValue , File file) {
         super(Boolean.class, ArrayStyle.MAPPED, false);
-        try {
-            this.file = file;
-            this.length = length;
-            this.defaultValue = defaultValue == null ? false : defaultValue;
-            this.channel = new RandomAccessFile(file, "rw").getChannel();
-            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asShortBuffer();
+        this.length = length;
+        this.defaultValue = defaultValue == null ? false : defaultValue;
+        this.buffer = MappedSegments.create(file, BYTE_COUNT, length);
+        if (this.defaultValue) {
             this.fill(defaultValue);
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
         }
     }
 
+
+    /**
+     * Constructor for existing data in a file, which is mapped without being initialised
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     * @param file          the file that contains the array data
+     * @param offset        the byte offset of the array data within the file
+     * @param mode          the map mode for the file
+     * @param detach        true to copy a read-only mapping to a private file on first write
+     */
+    MappedArrayOfBooleans(int length, Boolean defaultValue , File file, long offset, FileChannel.MapMode mode, boolean detach) {
+        super(Boolean.class, ArrayStyle.MAPPED, false);
+        this.length = length;
+        this.defaultValue = defaultValue == null ? false : defaultValue;
+        this.buffer = MappedSegments.open(file, offset, BYTE_COUNT, length, mode, detach);
+    }
+
+    /**
+     * Constructor
+     * @param buffer        the mapped region for this array
+     * @param defaultValue  the default value for array
+     */
+    private MappedArrayOfBooleans(MappedSegments buffer, boolean defaultValue) {
+        super(Boolean.class, ArrayStyle.MAPPED, false);
+        this.length = buffer.length();
+        this.defaultValue = defaultValue;
+        this.buffer = buffer;
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -81,10 +102,8 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
      */
     private MappedArrayOfBooleans(MappedArrayOfBooleans source, boolean parallel) {
         super(source.type(), ArrayStyle.MAPPED, parallel);
-        this.file = source.file;
         this.length = source.length;
         this.defaultValue = source.defaultValue;
-        this.channel = source.channel;
         this.buffer = source.buffer;
     }
 
@@ -121,20 +140,7 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
 
     @Override()
     public final Array<Boolean> copy() {
-        try {
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final short defaultShort = defaultValue ? (short)1 : (short)0;
-            final MappedArrayOfBooleans copy = new MappedArrayOfBooleans(length, defaultValue, newFile);
-            for (int i=0; i<length; ++i) {
-                final short value = buffer.get(i);
-                if (value != defaultShort) {
-                    copy.buffer.put(i, value);
-                }
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to copy Array: " + this, ex);
-        }
+        return new MappedArrayOfBooleans(buffer.copy(0, length), defaultValue);
     }
 
 
@@ -145,9 +151,9 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
             var defaultShort = defaultValue ? (short)1 : (short)0;
             var copy = new MappedArrayOfBooleans(indexes.length, defaultValue, newFile);
             for (int i=0; i<indexes.length; ++i) {
-                var value = buffer.get(indexes[i]);
+                var value = buffer.getShort(indexes[i]);
                 if (value != defaultShort) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putShort(i, value);
                 }
             }
             return copy;
@@ -164,9 +170,9 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
             var defaultShort = defaultValue ? (short)1 : (short)0;
             var copy = new MappedArrayOfBooleans(indexes.length(), defaultValue, newFile);
             for (int i=0; i<indexes.length(); ++i) {
-                var value = buffer.get(indexes.getInt(i));
+                var value = buffer.getShort(indexes.getInt(i));
                 if (value != defaultShort) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putShort(i, value);
                 }
             }
             return copy;
@@ -178,29 +184,17 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
 
     @Override()
     public final Array<Boolean> copy(int start, int end) {
-        try {
-            final int newLength = end - start;
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final short defaultShort = defaultValue ? (short)1 : (short)0;
-            final MappedArrayOfBooleans copy = new MappedArrayOfBooleans(newLength, defaultValue, newFile);
-            for (int i=0; i<newLength; ++i) {
-                final short value = buffer.get(start + i);
-                if (value != defaultShort) {
-                    copy.buffer.put(i, value);
-                }
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed top copy subset of Array", ex);
-        }
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new MappedArrayOfBooleans(buffer.copy(start, end), defaultValue);
     }
 
 
     @Override
     protected final Array<Boolean> sort(int start, int end, int multiplier) {
         return doSort(start, end, (i, j) -> {
-            final boolean v1 = buffer.get(i) == 1;
-            final boolean v2 = buffer.get(j) == 1;
+            final boolean v1 = buffer.getShort(i) == 1;
+            final boolean v2 = buffer.getShort(j) == 1;
             return multiplier * Boolean.compare(v1, v2);
         });
     }
@@ -208,18 +202,18 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
 
     @Override
     public final int compare(int i, int j) {
-        final boolean v1 = buffer.get(i) == 1;
-        final boolean v2 = buffer.get(j) == 1;
+        final boolean v1 = buffer.getShort(i) == 1;
+        final boolean v2 = buffer.getShort(j) == 1;
         return Boolean.compare(v1, v2);
     }
 
 
     @Override
     public final Array<Boolean> swap(int i, int j) {
-        final short v1 = buffer.get(i);
-        final short v2 = buffer.get(j);
-        this.buffer.put(j, v1);
-        this.buffer.put(i, v2);
+        final short v1 = buffer.getShort(i);
+        final short v2 = buffer.getShort(j);
+        this.buffer.putShort(j, v1);
+        this.buffer.putShort(i, v2);
         return this;
     }
 
@@ -267,16 +261,12 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
 
     @Override
     public final Array<Boolean> expand(int newLength) {
-        try {
-            if (newLength > length) {
-                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asShortBuffer();
-                this.fill(defaultValue, length, newLength);
-                this.length = newLength;
-            }
-            return this;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        if (newLength > length) {
+            this.buffer.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
         }
+        return this;
     }
 
 
@@ -285,7 +275,7 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
         final boolean fillValue = value == null ? defaultValue : value;
         final short fillShort = fillValue ? (short)1 : (short)0;
         for (int i=start; i<end; ++i) {
-            this.buffer.put(i, fillShort);
+            this.buffer.putShort(i, fillShort);
         }
         return this;
     }
@@ -306,14 +296,14 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
     @Override
     public final boolean getBoolean(int index) {
         this.checkBounds(index, length);
-        return this.buffer.get(index) == 1;
+        return this.buffer.getShort(index) == 1;
     }
 
 
     @Override
     public final Boolean getValue(int index) {
         this.checkBounds(index, length);
-        return this.buffer.get(index) == 1 ? Boolean.TRUE : Boolean.FALSE;
+        return this.buffer.getShort(index) == 1 ? Boolean.TRUE : Boolean.FALSE;
     }
 
 
@@ -321,7 +311,7 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
     public final boolean setBoolean(int index, boolean value) {
         this.checkBounds(index, length);
         final boolean oldValue = getBoolean(index);
-        this.buffer.put(index, value ? (short)1 : (short)0);
+        this.buffer.putShort(index, value ? (short)1 : (short)0);
         return oldValue;
     }
 
@@ -330,10 +320,10 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
     public final Boolean setValue(int index, Boolean value) {
         final boolean oldValue = getBoolean(index);
         if (value == null) {
-            this.buffer.put(index, defaultValue ? (short)1 : (short)0);
+            this.buffer.putShort(index, defaultValue ? (short)1 : (short)0);
             return oldValue;
         } else {
-            this.buffer.put(index, value ? (short)1 : (short)0);
+            this.buffer.putShort(index, value ? (short)1 : (short)0);
             return oldValue;
         }
     }
@@ -406,11 +396,9 @@ class MappedArrayOfBooleans extends ArrayBase<Boolean> {
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        this.file = MappedArrayConstructor.randomFile(true);
         this.length = is.readInt();
         this.defaultValue = is.readBoolean();
-        this.channel = new RandomAccessFile(file, "rw").getChannel();
-        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asShortBuffer();
+        this.buffer = MappedSegments.create(MappedArrayConstructor.randomFile(true), BYTE_COUNT, length);
         for (int i=0; i<length; ++i) {
             final boolean value = is.readBoolean();
             this.setBoolean(i, value);
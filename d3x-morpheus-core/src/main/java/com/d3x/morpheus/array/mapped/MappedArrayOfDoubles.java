@@ -19,8 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.RandomAccessFile;
-import java.nio.DoubleBuffer;
 import java.nio.channels.FileChannel;
 import java.util.function.Predicate;
 
@@ -44,13 +42,11 @@ import com.d3x.morpheus.array.ArrayValue;
  */
 class MappedArrayOfDoubles extends ArrayBase<Double> {
 
-    private static final long BYTE_COUNT = 8L;
+    private static final int BYTE_COUNT = 8;
 
-    private File file;
     private int length;
     private double defaultValue;
-    private FileChannel channel;
-    private DoubleBuffer buffer;
+    private MappedSegments buffer;
 
     /**
      * Constructor
@@ -60,18 +56,43 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
      */
     MappedArrayOfDoubles(int length, Double defaultValue, File file) {
         super(Double.class, ArrayStyle.MAPPED, false);
-        try {
-            this.file = file;
-            this.length = length;
-            this.defaultValue = defaultValue == null ? Double.NaN : defaultValue;
-            this.channel = new RandomAccessFile(file, "rw").getChannel();
-            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asDoubleBuffer();
+        this.length = length;
+        this.defaultValue = defaultValue == null ? Double.NaN : defaultValue;
+        this.buffer = MappedSegments.create(file, BYTE_COUNT, length);
+        if (Double.doubleToRawLongBits(this.defaultValue) != 0L) {
             this.fill(defaultValue);
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
         }
     }
 
+
+    /**
+     * Constructor for existing data in a file, which is mapped without being initialised
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the file that contains the array data
+     * @param offset        the byte offset of the array data within the file
+     * @param mode          the map mode for the file
+     * @param detach        true to copy a read-only mapping to a private file on first write
+     */
+    MappedArrayOfDoubles(int length, Double defaultValue, File file, long offset, FileChannel.MapMode mode, boolean detach) {
+        super(Double.class, ArrayStyle.MAPPED, false);
+        this.length = length;
+        this.defaultValue = defaultValue == null ? Double.NaN : defaultValue;
+        this.buffer = MappedSegments.open(file, offset, BYTE_COUNT, length, mode, detach);
+    }
+
+    /**
+     * Constructor
+     * @param buffer        the mapped region for this array
+     * @param defaultValue  the default value for array
+     */
+    private MappedArrayOfDoubles(MappedSegments buffer, double defaultValue) {
+        super(Double.class, ArrayStyle.MAPPED, false);
+        this.length = buffer.length();
+        this.defaultValue = defaultValue;
+        this.buffer = buffer;
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -79,10 +100,8 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
      */
     private MappedArrayOfDoubles(MappedArrayOfDoubles source, boolean parallel) {
         super(source.type(), ArrayStyle.MAPPED, parallel);
-        this.file = source.file;
         this.length = source.length;
         this.defaultValue = source.defaultValue;
-        this.channel = source.channel;
         this.buffer = source.buffer;
     }
 
@@ -92,7 +111,7 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
      * @return      the file handle for memory mapped array
      */
     File getFile() {
-        return file;
+        return buffer.file();
     }
 
 
@@ -128,17 +147,7 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
 
     @Override()
     public final Array<Double> copy() {
-        try {
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayOfDoubles copy = new MappedArrayOfDoubles(length, defaultValue, newFile);
-            for (int i=0; i<length; ++i) {
-                final double v = buffer.get(i);
-                copy.buffer.put(i, v);
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to copy Array: " + this, ex);
-        }
+        return new MappedArrayOfDoubles(buffer.copy(0, length), defaultValue);
     }
 
 
@@ -150,7 +159,7 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
             for (int i=0; i<indexes.length; ++i) {
                 var value = getDouble(indexes[i]);
                 if (Double.compare(value, defaultValue) != 0) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putDouble(i, value);
                 }
             }
             return copy;
@@ -168,7 +177,7 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
             for (int i=0; i<indexes.length(); ++i) {
                 var value = getDouble(indexes.getInt(i));
                 if (Double.compare(value, defaultValue) != 0) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putDouble(i, value);
                 }
             }
             return copy;
@@ -180,20 +189,9 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
 
     @Override()
     public final Array<Double> copy(int start, int end) {
-        try {
-            final int newLength = end - start;
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayOfDoubles copy = new MappedArrayOfDoubles(newLength, defaultValue, newFile);
-            for (int i=0; i<newLength; ++i) {
-                final double value = buffer.get(start + i);
-                if (Double.compare(value, defaultValue) != 0) {
-                    copy.buffer.put(i, value);
-                }
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed top copy subset of Array", ex);
-        }
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new MappedArrayOfDoubles(buffer.copy(start, end), defaultValue);
     }
 
 
@@ -268,16 +266,12 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
 
     @Override
     public final Array<Double> expand(int newLength) {
-        try {
-            if (newLength > length) {
-                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asDoubleBuffer();
-                this.fill(defaultValue, length, newLength);
-                this.length = newLength;
-            }
-            return this;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        if (newLength > length) {
+            this.buffer.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
         }
+        return this;
     }
 
 
@@ -285,7 +279,7 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
     public final Array<Double> fill(Double value, int start, int end) {
         final double fillValue = value == null ? defaultValue : value;
         for (int i=start; i<end; ++i) {
-            this.buffer.put(i, fillValue);
+            this.buffer.putDouble(i, fillValue);
         }
         return this;
     }
@@ -306,22 +300,22 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
     @Override
     public final double getDouble(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getDouble(index);
     }
 
 
     @Override
     public final Double getValue(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getDouble(index);
     }
 
 
     @Override
     public final double setDouble(int index, double value) {
         this.checkBounds(index, length);
-        final double oldValue = buffer.get(index);
-        this.buffer.put(index, value);
+        final double oldValue = buffer.getDouble(index);
+        this.buffer.putDouble(index, value);
         return oldValue;
     }
 
@@ -330,7 +324,7 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
     public final Double setValue(int index, Double value) {
         this.checkBounds(index, length);
         final Double oldValue = getValue(index);
-        this.buffer.put(index, value != null ? value : defaultValue);
+        this.buffer.putDouble(index, value != null ? value : defaultValue);
         return oldValue;
     }
 
@@ -342,7 +336,7 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
             int high = end - 1;
             while (low <= high) {
                 final int midIndex = (low + high) >>> 1;
-                final double midValue = buffer.get(midIndex);
+                final double midValue = buffer.getDouble(midIndex);
                 final int result = Double.compare(midValue, value);
                 if (result < 0) {
                     low = midIndex + 1;
@@ -384,7 +378,7 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
         result.setDouble(0, getDouble(0));
         for (int i=1; i<length; ++i) {
             final double prior = result.getDouble(i-1);
-            final double current = buffer.get(i);
+            final double current = buffer.getDouble(i);
             if (Double.isNaN(prior)) {
                 result.setDouble(i, current);
             } else if (Double.isNaN(current)) {
@@ -428,11 +422,9 @@ class MappedArrayOfDoubles extends ArrayBase<Double> {
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        this.file = MappedArrayConstructor.randomFile(true);
         this.length = is.readInt();
         this.defaultValue = is.readDouble();
-        this.channel = new RandomAccessFile(file, "rw").getChannel();
-        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asDoubleBuffer();
+        this.buffer = MappedSegments.create(MappedArrayConstructor.randomFile(true), BYTE_COUNT, length);
         for (int i=0; i<length; ++i) {
             final double value = is.readDouble();
             this.setDouble(i, value);
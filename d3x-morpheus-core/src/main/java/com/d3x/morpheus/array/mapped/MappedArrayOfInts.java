@@ -19,8 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.RandomAccessFile;
-import java.nio.IntBuffer;
 import java.nio.channels.FileChannel;
 import java.util.function.Predicate;
 
@@ -44,13 +42,11 @@ import com.d3x.morpheus.array.ArrayValue;
  */
 class MappedArrayOfInts extends ArrayBase<Integer> {
 
-    private static final long BYTE_COUNT = 4L;
+    private static final int BYTE_COUNT = 4;
 
-    private File file;
     private int length;
     private int defaultValue;
-    private FileChannel channel;
-    private IntBuffer buffer;
+    private MappedSegments buffer;
 
     /**
      * Constructor
@@ -60,18 +56,43 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
      */
     MappedArrayOfInts(int length, Integer defaultValue, File file) {
         super(Integer.class, ArrayStyle.MAPPED, false);
-        try {
-            this.file = file;
-            this.length = length;
-            this.defaultValue = defaultValue == null ? 0 : defaultValue;
-            this.channel = new RandomAccessFile(file, "rw").getChannel();
-            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asIntBuffer();
+        this.length = length;
+        this.defaultValue = defaultValue == null ? 0 : defaultValue;
+        this.buffer = MappedSegments.create(file, BYTE_COUNT, length);
+        if (this.defaultValue != 0) {
             this.fill(defaultValue);
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
         }
     }
 
+
+    /**
+     * Constructor for existing data in a file, which is mapped without being initialised
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the file that contains the array data
+     * @param offset        the byte offset of the array data within the file
+     * @param mode          the map mode for the file
+     * @param detach        true to copy a read-only mapping to a private file on first write
+     */
+    MappedArrayOfInts(int length, Integer defaultValue, File file, long offset, FileChannel.MapMode mode, boolean detach) {
+        super(Integer.class, ArrayStyle.MAPPED, false);
+        this.length = length;
+        this.defaultValue = defaultValue == null ? 0 : defaultValue;
+        this.buffer = MappedSegments.open(file, offset, BYTE_COUNT, length, mode, detach);
+    }
+
+    /**
+     * Constructor
+     * @param buffer        the mapped region for this array
+     * @param defaultValue  the default value for array
+     */
+    private MappedArrayOfInts(MappedSegments buffer, int defaultValue) {
+        super(Integer.class, ArrayStyle.MAPPED, false);
+        this.length = buffer.length();
+        this.defaultValue = defaultValue;
+        this.buffer = buffer;
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -79,10 +100,8 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
      */
     private MappedArrayOfInts(MappedArrayOfInts source, boolean parallel) {
         super(source.type(), ArrayStyle.MAPPED, parallel);
-        this.file = source.file;
         this.length = source.length;
         this.defaultValue = source.defaultValue;
-        this.channel = source.channel;
         this.buffer = source.buffer;
     }
 
@@ -91,7 +110,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
      * @return      the file handle for memory mapped array
      */
     File getFile() {
-        return file;
+        return buffer.file();
     }
 
 
@@ -127,17 +146,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
 
     @Override()
     public final Array<Integer> copy() {
-        try {
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayOfInts copy = new MappedArrayOfInts(length, defaultValue, newFile);
-            for (int i=0; i<length; ++i) {
-                var v = getInt(i);
-                copy.buffer.put(i, v);
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to copy Array: " + this, ex);
-        }
+        return new MappedArrayOfInts(buffer.copy(0, length), defaultValue);
     }
 
 
@@ -149,7 +158,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
             for (int i=0; i<indexes.length; ++i) {
                 var value = getInt(indexes[i]);
                 if (value != defaultValue) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putInt(i, value);
                 }
             }
             return copy;
@@ -167,7 +176,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
             for (int i=0; i<indexes.length(); ++i) {
                 var value = getInt(indexes.getInt(i));
                 if (value != defaultValue) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putInt(i, value);
                 }
             }
             return copy;
@@ -179,20 +188,9 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
 
     @Override()
     public final Array<Integer> copy(int start, int end) {
-        try {
-            var newLength = end - start;
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayOfInts copy = new MappedArrayOfInts(newLength, defaultValue, newFile);
-            for (int i=0; i<newLength; ++i) {
-                var value = buffer.get(start + i);
-                if (Integer.compare(value, defaultValue) != 0) {
-                    copy.buffer.put(i, value);
-                }
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed top copy subset of Array", ex);
-        }
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new MappedArrayOfInts(buffer.copy(start, end), defaultValue);
     }
 
 
@@ -267,16 +265,12 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
 
     @Override
     public final Array<Integer> expand(int newLength) {
-        try {
-            if (newLength > length) {
-                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asIntBuffer();
-                this.fill(defaultValue, length, newLength);
-                this.length = newLength;
-            }
-            return this;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        if (newLength > length) {
+            this.buffer.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
         }
+        return this;
     }
 
 
@@ -284,7 +278,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
     public final Array<Integer> fill(Integer value, int start, int end) {
         var fillValue = value == null ? defaultValue : value;
         for (int i=start; i<end; ++i) {
-            this.buffer.put(i, fillValue);
+            this.buffer.putInt(i, fillValue);
         }
         return this;
     }
@@ -298,43 +292,43 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
 
     @Override
     public final boolean isEqualTo(int index, Integer value) {
-        return value != null && value == buffer.get(index);
+        return value != null && value == buffer.getInt(index);
     }
 
 
     @Override
     public final int getInt(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getInt(index);
     }
 
 
     @Override
     public final long getLong(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getInt(index);
     }
 
 
     @Override
     public final double getDouble(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getInt(index);
     }
 
 
     @Override
     public final Integer getValue(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getInt(index);
     }
 
 
     @Override
     public final int setInt(int index, int value) {
         this.checkBounds(index, length);
-        var oldValue = buffer.get(index);
-        this.buffer.put(index, value);
+        var oldValue = buffer.getInt(index);
+        this.buffer.putInt(index, value);
         return oldValue;
     }
 
@@ -342,7 +336,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
     @Override
     public final Integer setValue(int index, Integer value) {
         var oldValue = getValue(index);
-        this.buffer.put(index, value != null ? value : defaultValue);
+        this.buffer.putInt(index, value != null ? value : defaultValue);
         return oldValue;
     }
 
@@ -354,7 +348,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
             int high = end - 1;
             while (low <= high) {
                 var midIndex = (low + high) >>> 1;
-                var midValue = buffer.get(midIndex);
+                var midValue = buffer.getInt(midIndex);
                 var result = Integer.compare(midValue, value);
                 if (result < 0) {
                     low = midIndex + 1;
@@ -393,10 +387,10 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
     public final Array<Integer> cumSum() {
         var length = length();
         final Array<Integer> result = Array.of(Integer.class, length);
-        result.setInt(0, buffer.get(0));
+        result.setInt(0, buffer.getInt(0));
         for (int i=1; i<length; ++i) {
             var prior = result.getInt(i-1);
-            var current = buffer.get(i);
+            var current = buffer.getInt(i);
             result.setInt(i, prior + current);
         }
         return result;
@@ -436,9 +430,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
         this.length = is.readInt();
         this.defaultValue = is.readInt();
-        this.file = MappedArrayConstructor.randomFile(true);
-        this.channel = new RandomAccessFile(file, "rw").getChannel();
-        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asIntBuffer();
+        this.buffer = MappedSegments.create(MappedArrayConstructor.randomFile(true), BYTE_COUNT, length);
         for (int i=0; i<length; ++i) {
             var value = is.readInt();
             this.setInt(i, value);
@@ -19,8 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.RandomAccessFile;
-import java.nio.LongBuffer;
 import java.nio.channels.FileChannel;
 import java.util.function.Predicate;
 
@@ -44,13 +42,11 @@ import com.d3x.morpheus.array.ArrayValue;
  */
 class MappedArrayOfLongs extends ArrayBase<Long> {
 
-    private static final long BYTE_COUNT = 8L;
+    private static final int BYTE_COUNT = 8;
 
-    private File file;
     private int length;
     private long defaultValue;
-    private FileChannel channel;
-    private LongBuffer buffer;
+    private MappedSegments buffer;
 
     /**
      * Constructor
@@ -60,18 +56,43 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
      */
     MappedArrayOfLongs(int length, Long defaultValue, File file) {
         super(Long.class, ArrayStyle.MAPPED, false);
-        try {
-            this.file = file;
-            this.length = length;
-            this.defaultValue = defaultValue == null ? 0 : defaultValue;
-            this.channel = new RandomAccessFile(file, "rw").getChannel();
-            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asLongBuffer();
+        this.length = length;
+        this.defaultValue = defaultValue == null ? 0 : defaultValue;
+        this.buffer = MappedSegments.create(file, BYTE_COUNT, length);
+        if (this.defaultValue != 0L) {
             this.fill(defaultValue);
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
         }
     }
 
+
+    /**
+     * Constructor for existing data in a file, which is mapped without being initialised
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the file that contains the array data
+     * @param offset        the byte offset of the array data within the file
+     * @param mode          the map mode for the file
+     * @param detach        true to copy a read-only mapping to a private file on first write
+     */
+    MappedArrayOfLongs(int length, Long defaultValue, File file, long offset, FileChannel.MapMode mode, boolean detach) {
+        super(Long.class, ArrayStyle.MAPPED, false);
+        this.length = length;
+        this.defaultValue = defaultValue == null ? 0 : defaultValue;
+        this.buffer = MappedSegments.open(file, offset, BYTE_COUNT, length, mode, detach);
+    }
+
+    /**
+     * Constructor
+     * @param buffer        the mapped region for this array
+     * @param defaultValue  the default value for array
+     */
+    private MappedArrayOfLongs(MappedSegments buffer, long defaultValue) {
+        super(Long.class, ArrayStyle.MAPPED, false);
+        this.length = buffer.length();
+        this.defaultValue = defaultValue;
+        this.buffer = buffer;
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -79,10 +100,8 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
      */
     private MappedArrayOfLongs(MappedArrayOfLongs source, boolean parallel) {
         super(source.type(), ArrayStyle.MAPPED, parallel);
-        this.file = source.file;
         this.length = source.length;
         this.defaultValue = source.defaultValue;
-        this.channel = source.channel;
         this.buffer = source.buffer;
     }
 
@@ -91,7 +110,7 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
      * @return      the file handle for memory mapped array
      */
     File getFile() {
-        return file;
+        return buffer.file();
     }
 
 
@@ -127,17 +146,7 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
 
     @Override()
     public final Array<Long> copy() {
-        try {
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayOfLongs copy = new MappedArrayOfLongs(length, defaultValue, newFile);
-            for (int i=0; i<length; ++i) {
-                final long v = getLong(i);
-                copy.buffer.put(i, v);
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to copy Array: " + this, ex);
-        }
+        return new MappedArrayOfLongs(buffer.copy(0, length), defaultValue);
     }
 
 
@@ -149,7 +158,7 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
             for (int i=0; i<indexes.length; ++i) {
                 final long value = getLong(indexes[i]);
                 if (value != defaultValue) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putLong(i, value);
                 }
             }
             return copy;
@@ -167,7 +176,7 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
             for (int i=0; i<indexes.length(); ++i) {
                 final long value = getLong(indexes.getInt(i));
                 if (value != defaultValue) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putLong(i, value);
                 }
             }
             return copy;
@@ -179,20 +188,9 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
 
     @Override()
     public final Array<Long> copy(int start, int end) {
-        try {
-            var newLength = end - start;
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayOfLongs copy = new MappedArrayOfLongs(newLength, defaultValue, newFile);
-            for (int i=0; i<newLength; ++i) {
-                final long value = buffer.get(start + i);
-                if (Long.compare(value, defaultValue) != 0) {
-                    copy.buffer.put(i, value);
-                }
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed top copy subset of Array", ex);
-        }
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new MappedArrayOfLongs(buffer.copy(start, end), defaultValue);
     }
 
 
@@ -267,16 +265,12 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
 
     @Override
     public final Array<Long> expand(int newLength) {
-        try {
-            if (newLength > length) {
-                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asLongBuffer();
-                this.fill(defaultValue, length, newLength);
-                this.length = newLength;
-            }
-            return this;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        if (newLength > length) {
+            this.buffer.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
         }
+        return this;
     }
 
 
@@ -284,7 +278,7 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
     public final Array<Long> fill(Long value, int start, int end) {
         final long fillValue = value == null ? defaultValue : value;
         for (int i=start; i<end; ++i) {
-            this.buffer.put(i, fillValue);
+            this.buffer.putLong(i, fillValue);
         }
         return this;
     }
@@ -298,36 +292,36 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
 
     @Override
     public final boolean isEqualTo(int index, Long value) {
-        return value != null && value == buffer.get(index);
+        return value != null && value == buffer.getLong(index);
     }
 
 
     @Override
     public final long getLong(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getLong(index);
     }
 
 
     @Override
     public final double getDouble(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getLong(index);
     }
 
 
     @Override
     public final Long getValue(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getLong(index);
     }
 
 
     @Override
     public final long setLong(int index, long value) {
         this.checkBounds(index, length);
-        final long oldValue = buffer.get(index);
-        this.buffer.put(index, value);
+        final long oldValue = buffer.getLong(index);
+        this.buffer.putLong(index, value);
         return oldValue;
     }
 
@@ -336,7 +330,7 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
     public final Long setValue(int index, Long value) {
         this.checkBounds(index, length);
         final Long oldValue = getValue(index);
-        this.buffer.put(index, value != null ? value : defaultValue);
+        this.buffer.putLong(index, value != null ? value : defaultValue);
         return oldValue;
     }
 
@@ -348,7 +342,7 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
             int high = end - 1;
             while (low <= high) {
                 var midIndex = (low + high) >>> 1;
-                final long midValue = buffer.get(midIndex);
+                final long midValue = buffer.getLong(midIndex);
                 var result = Long.compare(midValue, value);
                 if (result < 0) {
                     low = midIndex + 1;
@@ -387,10 +381,10 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
     public final Array<Long> cumSum() {
         var length = length();
         final Array<Long> result = Array.of(Long.class, length);
-        result.setLong(0, buffer.get(0));
+        result.setLong(0, buffer.getLong(0));
         for (int i=1; i<length; ++i) {
             final long prior = result.getLong(i-1);
-            final long current = buffer.get(i);
+            final long current = buffer.getLong(i);
             result.setLong(i, prior + current);
         }
         return result;
@@ -428,11 +422,9 @@ class MappedArrayOfLongs extends ArrayBase<Long> {
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        this.file = MappedArrayConstructor.randomFile(true);
         this.length = is.readInt();
         this.defaultValue = is.readLong();
-        this.channel = new RandomAccessFile(file, "rw").getChannel();
-        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asLongBuffer();
+        this.buffer = MappedSegments.create(MappedArrayConstructor.randomFile(true), BYTE_COUNT, length);
         for (int i=0; i<length; ++i) {
             final long value = is.readLong();
             this.setLong(i, value);
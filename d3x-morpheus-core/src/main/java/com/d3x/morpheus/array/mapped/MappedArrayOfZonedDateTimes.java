@@ -19,9 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.RandomAccessFile;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -75,10 +72,8 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     private static final short NULL_ZONE = -1;
     private static final short UTC_ZONE = zoneIdMap1.get(ZoneId.of("UTC"));
 
-    private File file;
     private int length;
-    private FileChannel channel;
-    private ByteBuffer byteBuffer;
+    private MappedSegments buffer;
     private long defaultValueAsLong;
     private short defaultZoneId;
     private ZonedDateTime defaultValue;
@@ -92,18 +87,26 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
      */
     MappedArrayOfZonedDateTimes(int length, ZonedDateTime defaultValue, File file) {
         super(ZonedDateTime.class, ArrayStyle.MAPPED, false);
-        try {
-            this.file = file;
-            this.length = length;
-            this.defaultValue = defaultValue;
-            this.defaultValueAsLong = defaultValue != null ? defaultValue.toInstant().toEpochMilli() : nullValue;
-            this.defaultZoneId = defaultValue != null ? zoneIdMap1.get(defaultValue.getZone()) : NULL_ZONE;
-            this.channel = new RandomAccessFile(file, "rw").getChannel();
-            this.byteBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length);
-            this.fill(defaultValue);
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
-        }
+        this.length = length;
+        this.defaultValue = defaultValue;
+        this.defaultValueAsLong = defaultValue != null ? defaultValue.toInstant().toEpochMilli() : nullValue;
+        this.defaultZoneId = defaultValue != null ? zoneIdMap1.get(defaultValue.getZone()) : NULL_ZONE;
+        this.buffer = MappedSegments.create(file, BYTE_COUNT, length);
+        this.fill(defaultValue);
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to copy settings from
+     * @param buffer    the mapped region for this array
+     */
+    private MappedArrayOfZonedDateTimes(MappedArrayOfZonedDateTimes source, MappedSegments buffer) {
+        super(source.type(), ArrayStyle.MAPPED, false);
+        this.length = buffer.length();
+        this.defaultValue = source.defaultValue;
+        this.defaultValueAsLong = source.defaultValueAsLong;
+        this.defaultZoneId = source.defaultZoneId;
+        this.buffer = buffer;
     }
 
     /**
@@ -113,13 +116,11 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
      */
     private MappedArrayOfZonedDateTimes(MappedArrayOfZonedDateTimes source, boolean parallel) {
         super(source.type(), ArrayStyle.MAPPED, parallel);
-        this.file = source.file;
         this.length = source.length;
         this.defaultValue = source.defaultValue;
         this.defaultValueAsLong = source.defaultValueAsLong;
         this.defaultZoneId = source.defaultZoneId;
-        this.channel = source.channel;
-        this.byteBuffer = source.byteBuffer;
+        this.buffer = source.buffer;
     }
 
 
@@ -155,21 +156,7 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
 
     @Override()
     public final Array<ZonedDateTime> copy() {
-        try {
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayOfZonedDateTimes copy = new MappedArrayOfZonedDateTimes(length, defaultValue, newFile);
-            for (int i=0; i<length; ++i) {
-                final int longIndex = i * BYTE_COUNT;
-                final int shortIndex = i * BYTE_COUNT + 8;
-                final long epochMillis = byteBuffer.getLong(longIndex);
-                final short zoneId = byteBuffer.getShort(shortIndex);
-                copy.byteBuffer.putLong(longIndex, epochMillis);
-                copy.byteBuffer.putShort(shortIndex, zoneId);
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to copy Array: " + this, ex);
-        }
+        return new MappedArrayOfZonedDateTimes(this, buffer.copy(0, length));
     }
 
 
@@ -179,12 +166,11 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
             var newFile = MappedArrayConstructor.randomFile(true);
             var copy = new MappedArrayOfZonedDateTimes(indexes.length, defaultValue, newFile);
             for (int i=0; i<indexes.length; ++i) {
-                var toIndex = i * BYTE_COUNT;
-                var fromIndex = indexes[i] * BYTE_COUNT;
-                var epochMillis = byteBuffer.getLong(fromIndex);
-                var zoneId = byteBuffer.getShort(fromIndex + 8);
-                copy.byteBuffer.putLong(toIndex, epochMillis);
-                copy.byteBuffer.putShort(toIndex + 8, zoneId);
+                var fromIndex = indexes[i];
+                var epochMillis = buffer.getLong(fromIndex);
+                var zoneId = buffer.getShort(fromIndex, 8);
+                copy.buffer.putLong(i, epochMillis);
+                copy.buffer.putShort(i, 8, zoneId);
             }
             return copy;
         } catch (Exception ex) {
@@ -199,12 +185,11 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
             var newFile = MappedArrayConstructor.randomFile(true);
             var copy = new MappedArrayOfZonedDateTimes(indexes.length(), defaultValue, newFile);
             for (int i=0; i<indexes.length(); ++i) {
-                var toIndex = i * BYTE_COUNT;
-                var fromIndex = indexes.getInt(i) * BYTE_COUNT;
-                var epochMillis = byteBuffer.getLong(fromIndex);
-                var zoneId = byteBuffer.getShort(fromIndex + 8);
-                copy.byteBuffer.putLong(toIndex, epochMillis);
-                copy.byteBuffer.putShort(toIndex + 8, zoneId);
+                var fromIndex = indexes.getInt(i);
+                var epochMillis = buffer.getLong(fromIndex);
+                var zoneId = buffer.getShort(fromIndex, 8);
+                copy.buffer.putLong(i, epochMillis);
+                copy.buffer.putShort(i, 8, zoneId);
             }
             return copy;
         } catch (Exception ex) {
@@ -215,30 +200,17 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
 
     @Override()
     public final Array<ZonedDateTime> copy(int start, int end) {
-        try {
-            final int newLength = end - start;
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayOfZonedDateTimes copy = new MappedArrayOfZonedDateTimes(newLength, defaultValue, newFile);
-            for (int i=0; i<newLength; ++i) {
-                final int toIndex = i * BYTE_COUNT;
-                final int fromIndex = (start + i) * BYTE_COUNT;
-                final long epochMillis = byteBuffer.getLong(fromIndex);
-                final short zoneId = byteBuffer.getShort(fromIndex + 8);
-                copy.byteBuffer.putLong(toIndex, epochMillis);
-                copy.byteBuffer.putShort(toIndex + 8, zoneId);
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed top copy subset of Array", ex);
-        }
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new MappedArrayOfZonedDateTimes(this, buffer.copy(start, end));
     }
 
 
     @Override
     protected final Array<ZonedDateTime> sort(int start, int end, int multiplier) {
         return doSort(start, end, (i, j) -> {
-            final long v1 = byteBuffer.getLong(i * BYTE_COUNT);
-            final long v2 = byteBuffer.getLong(j * BYTE_COUNT);
+            final long v1 = buffer.getLong(i);
+            final long v2 = buffer.getLong(j);
             return multiplier * Long.compare(v1, v2);
         });
     }
@@ -246,24 +218,22 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
 
     @Override
     public final int compare(int i, int j) {
-        final long v1 = byteBuffer.getLong(i * BYTE_COUNT);
-        final long v2 = byteBuffer.getLong(j * BYTE_COUNT);
+        final long v1 = buffer.getLong(i);
+        final long v2 = buffer.getLong(j);
         return Long.compare(v1, v2);
     }
 
 
     @Override
     public final Array<ZonedDateTime> swap(int i, int j) {
-        final int x = i * BYTE_COUNT;
-        final int y = j * BYTE_COUNT;
-        final long v1 = byteBuffer.getLong(x);
-        final long v2 = byteBuffer.getLong(y);
-        final short z1 = byteBuffer.getShort(x + 8);
-        final short z2 = byteBuffer.getShort(y + 8);
-        this.byteBuffer.putLong(x, v2);
-        this.byteBuffer.putLong(y, v1);
-        this.byteBuffer.putShort(x + 8, z2);
-        this.byteBuffer.putShort(y + 8, z1);
+        final long v1 = buffer.getLong(i);
+        final long v2 = buffer.getLong(j);
+        final short z1 = buffer.getShort(i, 8);
+        final short z2 = buffer.getShort(j, 8);
+        this.buffer.putLong(i, v2);
+        this.buffer.putLong(j, v1);
+        this.buffer.putShort(i, 8, z2);
+        this.buffer.putShort(j, 8, z1);
         return this;
     }
 
@@ -291,10 +261,10 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
             if (from instanceof MappedArrayOfZonedDateTimes) {
                 final MappedArrayOfZonedDateTimes other = (MappedArrayOfZonedDateTimes)from;
                 for (int i=0; i<fromIndexes.length; ++i) {
-                    final int toIndex = toIndexes[i] * BYTE_COUNT;
-                    final int fromIndex = fromIndexes[i] * BYTE_COUNT;
-                    this.byteBuffer.putLong(toIndex, other.byteBuffer.getLong(fromIndex));
-                    this.byteBuffer.putShort(toIndex + 8, byteBuffer.getShort(fromIndex + 8));
+                    final int toIndex = toIndexes[i];
+                    final int fromIndex = fromIndexes[i];
+                    this.buffer.putLong(toIndex, other.buffer.getLong(fromIndex));
+                    this.buffer.putShort(toIndex, 8, other.buffer.getShort(fromIndex, 8));
                 }
             } else {
                 for (int i=0; i<fromIndexes.length; ++i) {
@@ -313,12 +283,8 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     public final Array<ZonedDateTime> update(int toIndex, Array<ZonedDateTime> from, int fromIndex, int length) {
         if (from instanceof MappedArrayOfZonedDateTimes) {
             final MappedArrayOfZonedDateTimes other = (MappedArrayOfZonedDateTimes)from;
-            for (int i=0; i<length; ++i) {
-                final int x = toIndex * BYTE_COUNT;
-                final int y = fromIndex * BYTE_COUNT;
-                this.byteBuffer.putLong(x, other.byteBuffer.getLong(y));
-                this.byteBuffer.putShort(x + 8, byteBuffer.getShort(y + 8));
-            }
+            this.checkBounds(toIndex + length - 1, this.length);
+            other.buffer.copyTo(fromIndex, buffer, toIndex, length);
         } else {
             for (int i=0; i<length; ++i) {
                 final ZonedDateTime update = from.getValue(fromIndex + i);
@@ -331,16 +297,12 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
 
     @Override
     public final Array<ZonedDateTime> expand(int newLength) {
-        try {
-            if (newLength > length) {
-                this.byteBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength);
-                this.fill(defaultValue, length, newLength);
-                this.length = newLength;
-            }
-            return this;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        if (newLength > length) {
+            this.buffer.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
         }
+        return this;
     }
 
 
@@ -349,9 +311,8 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
         final long fillEpochMillis = value == null ? nullValue : value.toInstant().toEpochMilli();
         final short fillZoneId = value == null ? NULL_ZONE : zoneIdMap1.get(value.getZone());
         for (int i=start; i<end; ++i) {
-            final int index = i * BYTE_COUNT;
-            this.byteBuffer.putLong(index, fillEpochMillis);
-            this.byteBuffer.putShort(index + 8, fillZoneId);
+            this.buffer.putLong(i, fillEpochMillis);
+            this.buffer.putShort(i, 8, fillZoneId);
         }
         return this;
     }
@@ -359,13 +320,13 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
 
     @Override
     public boolean isNull(int index) {
-        return byteBuffer.getLong(index * BYTE_COUNT) == nullValue;
+        return buffer.getLong(index) == nullValue;
     }
 
 
     @Override
     public final boolean isEqualTo(int index, ZonedDateTime value) {
-        final long epochMillis = byteBuffer.getLong(index * BYTE_COUNT);
+        final long epochMillis = buffer.getLong(index);
         if (value == null) {
             return epochMillis == nullValue;
         } else {
@@ -375,7 +336,7 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
             } else {
                 final ZoneId zoneId = value.getZone();
                 final short code1 = zoneIdMap1.get(zoneId);
-                final short code2 = byteBuffer.getShort(index * BYTE_COUNT + 8);
+                final short code2 = buffer.getShort(index, 8);
                 return code1 == code2;
             }
         }
@@ -385,7 +346,7 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     @Override
     public final long getLong(int index) {
         this.checkBounds(index, length);
-        return byteBuffer.getLong(index * BYTE_COUNT);
+        return buffer.getLong(index);
     }
 
 
@@ -393,12 +354,11 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     @SuppressWarnings("unchecked")
     public final ZonedDateTime getValue(int index) {
         this.checkBounds(index, length);
-        final int byteIndex = index * BYTE_COUNT;
-        final long value = byteBuffer.getLong(byteIndex);
+        final long value = buffer.getLong(index);
         if (value == nullValue) {
             return null;
         } else {
-            final short zoneId = byteBuffer.getShort(byteIndex + 8);
+            final short zoneId = buffer.getShort(index, 8);
             final ZoneId zone = zoneIdMap2.get(zoneId);
             final Instant instant = Instant.ofEpochMilli(value);
             return ZonedDateTime.ofInstant(instant, zone);
@@ -409,12 +369,11 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     @Override
     public final long setLong(int index, long value) {
         this.checkBounds(index, length);
-        final int byteIndex = index * BYTE_COUNT;
-        final long oldMillis = byteBuffer.getLong(byteIndex);
-        final short oldZone = byteBuffer.getShort(byteIndex + 8);
-        this.byteBuffer.putLong(byteIndex, value);
+        final long oldMillis = buffer.getLong(index);
+        final short oldZone = buffer.getShort(index, 8);
+        this.buffer.putLong(index, value);
         if (oldZone < 0) {
-            this.byteBuffer.putShort(byteIndex + 8, UTC_ZONE);
+            this.buffer.putShort(index, 8, UTC_ZONE);
         }
         return oldMillis;
     }
@@ -423,15 +382,14 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     @Override
     public final ZonedDateTime setValue(int index, ZonedDateTime value) {
         this.checkBounds(index, length);
-        final int byteIndex = index * BYTE_COUNT;
         final ZonedDateTime oldValue = getValue(index);
         if (value == null) {
-            this.byteBuffer.putLong(byteIndex, nullValue);
-            this.byteBuffer.putShort(byteIndex + 8, NULL_ZONE);
+            this.buffer.putLong(index, nullValue);
+            this.buffer.putShort(index, 8, NULL_ZONE);
             return oldValue;
         } else  {
-            this.byteBuffer.putLong(byteIndex, value.toInstant().toEpochMilli());
-            this.byteBuffer.putShort(byteIndex + 8, zoneIdMap1.get(value.getZone()));
+            this.buffer.putLong(index, value.toInstant().toEpochMilli());
+            this.buffer.putShort(index, 8, zoneIdMap1.get(value.getZone()));
             return oldValue;
         }
     }
@@ -445,7 +403,7 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
             final long epochMillis = value != null ? value.toInstant().toEpochMilli() : Long.MIN_VALUE;
             while (low <= high) {
                 final int midIndex = (low + high) >>> 1;
-                final long midValue = byteBuffer.getLong(midIndex * BYTE_COUNT);
+                final long midValue = buffer.getLong(midIndex);
                 final int result = Long.compare(midValue, epochMillis);
                 if (result < 0) {
                     low = midIndex + 1;
@@ -465,11 +423,10 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     @Override
     public final void read(ObjectInputStream is, int count) throws IOException {
         for (int i=0; i<count; ++i) {
-            final int byteIndex = i * BYTE_COUNT;
             final long epochMillis = is.readLong();
             final short zoneId = is.readShort();
-            this.byteBuffer.putLong(byteIndex, epochMillis);
-            this.byteBuffer.putShort(byteIndex + 8, zoneId);
+            this.buffer.putLong(i, epochMillis);
+            this.buffer.putShort(i, 8, zoneId);
         }
     }
 
@@ -477,9 +434,8 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     @Override
     public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
         for (int index : indexes) {
-            final int byteIndex = index * BYTE_COUNT;
-            final long epochMillis = byteBuffer.getLong(byteIndex);
-            final short zoneId = byteBuffer.getShort(byteIndex + 8);
+            final long epochMillis = buffer.getLong(index);
+            final short zoneId = buffer.getShort(index, 8);
             os.writeLong(epochMillis);
             os.writeShort(zoneId);
         }
@@ -492,9 +448,8 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
         os.writeShort(defaultZoneId);
         os.writeObject(defaultValue);
         for (int i=0; i<length; ++i) {
-            final int byteIndex = i * BYTE_COUNT;
-            final long epochMillis = byteBuffer.getLong(byteIndex);
-            final short zoneId = byteBuffer.getShort(byteIndex + 8);
+            final long epochMillis = buffer.getLong(i);
+            final short zoneId = buffer.getShort(i, 8);
             os.writeLong(epochMillis);
             os.writeShort(zoneId);
         }
@@ -504,19 +459,16 @@ class MappedArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        this.file = MappedArrayConstructor.randomFile(true);
         this.length = is.readInt();
         this.defaultValueAsLong = is.readLong();
         this.defaultZoneId = is.readShort();
         this.defaultValue = (ZonedDateTime)is.readObject();
-        this.channel = new RandomAccessFile(file, "rw").getChannel();
-        this.byteBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length);
+        this.buffer = MappedSegments.create(MappedArrayConstructor.randomFile(true), BYTE_COUNT, length);
         for (int i=0; i<length; ++i) {
-            final int byteIndex = i * BYTE_COUNT;
             final long epochMillis = is.readLong();
             final short zoneId = is.readShort();
-            this.byteBuffer.putLong(byteIndex, epochMillis);
-            this.byteBuffer.putShort(byteIndex + 8, zoneId);
+            this.buffer.putLong(i, epochMillis);
+            this.buffer.putShort(i, 8, zoneId);
         }
     }
 
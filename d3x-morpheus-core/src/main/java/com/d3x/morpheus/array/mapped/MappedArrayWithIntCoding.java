@@ -19,8 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.RandomAccessFile;
-import java.nio.IntBuffer;
 import java.nio.channels.FileChannel;
 import java.util.function.Predicate;
 
@@ -48,15 +46,13 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
 
     private static final long serialVersionUID = 1L;
 
-    private static final long BYTE_COUNT = 4L;
+    private static final int BYTE_COUNT = 4;
 
-    private File file;
     private int length;
     private T defaultValue;
     private int defaultCode;
     private IntCoding<T> coding;
-    private FileChannel channel;
-    private IntBuffer buffer;
+    private MappedSegments buffer;
 
     /**
      * Constructor
@@ -67,21 +63,51 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
      */
     MappedArrayWithIntCoding(int length, T defaultValue, IntCoding<T> coding, File file) {
         super(coding.getType(), ArrayStyle.MAPPED, false);
-        try {
-            this.file = file;
-            this.length = length;
-            this.coding = coding;
-            this.defaultValue = defaultValue;
-            this.defaultCode = coding.getCode(defaultValue);
-            this.channel = new RandomAccessFile(file, "rw").getChannel();
-            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asIntBuffer();
+        this.length = length;
+        this.coding = coding;
+        this.defaultValue = defaultValue;
+        this.defaultCode = coding.getCode(defaultValue);
+        this.buffer = MappedSegments.create(file, BYTE_COUNT, length);
+        if (this.defaultCode != 0) {
             this.fill(defaultValue);
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
         }
     }
 
 
+    /**
+     * Constructor for existing data in a file, which is mapped without being initialised
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     * @param coding        the coding for this array
+     * @param file          the file that contains the array data
+     * @param offset        the byte offset of the array data within the file
+     * @param mode          the map mode for the file
+     * @param detach        true to copy a read-only mapping to a private file on first write
+     */
+    MappedArrayWithIntCoding(int length, T defaultValue, IntCoding<T> coding, File file, long offset, FileChannel.MapMode mode, boolean detach) {
+        super(coding.getType(), ArrayStyle.MAPPED, false);
+        this.length = length;
+        this.coding = coding;
+        this.defaultValue = defaultValue;
+        this.defaultCode = coding.getCode(defaultValue);
+        this.buffer = MappedSegments.open(file, offset, BYTE_COUNT, length, mode, detach);
+    }
+
+
+    /**
+     * Constructor
+     * @param source    the source array to copy settings from
+     * @param buffer    the mapped region for this array
+     */
+    private MappedArrayWithIntCoding(MappedArrayWithIntCoding<T> source, MappedSegments buffer) {
+        super(source.type(), ArrayStyle.MAPPED, false);
+        this.length = buffer.length();
+        this.coding = source.coding;
+        this.defaultValue = source.defaultValue;
+        this.defaultCode = source.defaultCode;
+        this.buffer = buffer;
+    }
+
     /**
      * Constructor
      * @param source    the source array to copy
@@ -89,12 +115,10 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
      */
     private MappedArrayWithIntCoding(MappedArrayWithIntCoding<T> source, boolean parallel) {
         super(source.type(), ArrayStyle.DENSE, parallel);
-        this.file = source.file;
         this.length = source.length;
         this.coding = source.coding;
         this.defaultValue = source.defaultValue;
         this.defaultCode = source.defaultCode;
-        this.channel = source.channel;
         this.buffer = source.buffer;
     }
 
@@ -136,19 +160,8 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
 
 
     @Override()
-    @SuppressWarnings("unchecked")
     public final Array<T> copy() {
-        try {
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayWithIntCoding<T> copy = new MappedArrayWithIntCoding<>(length, defaultValue, coding, newFile);
-            for (int i=0; i<length; ++i) {
-                var v = buffer.get(i);
-                copy.buffer.put(i, v);
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to copy Array: " + this, ex);
-        }
+        return new MappedArrayWithIntCoding<>(this, buffer.copy(0, length));
     }
 
 
@@ -158,9 +171,9 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
             var newFile = MappedArrayConstructor.randomFile(true);
             var copy = new MappedArrayWithIntCoding<T>(indexes.length, defaultValue, coding, newFile);
             for (int i=0; i<indexes.length; ++i) {
-                var value = buffer.get(indexes[i]);
+                var value = buffer.getInt(indexes[i]);
                 if (value != defaultCode) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putInt(i, value);
                 }
             }
             return copy;
@@ -176,9 +189,9 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
             var newFile = MappedArrayConstructor.randomFile(true);
             var copy = new MappedArrayWithIntCoding<T>(indexes.length(), defaultValue, coding, newFile);
             for (int i=0; i<indexes.length(); ++i) {
-                var value = buffer.get(indexes.getInt(i));
+                var value = buffer.getInt(indexes.getInt(i));
                 if (value != defaultCode) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putInt(i, value);
                 }
             }
             return copy;
@@ -190,28 +203,17 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
 
     @Override()
     public final Array<T> copy(int start, int end) {
-        try {
-            var newLength = end - start;
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayWithIntCoding<T> copy = new MappedArrayWithIntCoding<>(newLength, defaultValue, coding, newFile);
-            for (int i=0; i<newLength; ++i) {
-                var value = buffer.get(start + i);
-                if (Integer.compare(value, defaultCode) != 0) {
-                    copy.buffer.put(i, value);
-                }
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed top copy subset of Array", ex);
-        }
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new MappedArrayWithIntCoding<>(this, buffer.copy(start, end));
     }
 
 
     @Override
     protected final Array<T> sort(int start, int end, int multiplier) {
         return doSort(start, end, (i, j) -> {
-            var v1 = buffer.get(i);
-            var v2 = buffer.get(j);
+            var v1 = buffer.getInt(i);
+            var v2 = buffer.getInt(j);
             return multiplier * Integer.compare(v1, v2);
         });
     }
@@ -219,18 +221,18 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
 
     @Override
     public final int compare(int i, int j) {
-        var v1 = buffer.get(i);
-        var v2 = buffer.get(j);
+        var v1 = buffer.getInt(i);
+        var v2 = buffer.getInt(j);
         return Integer.compare(v1, v2);
     }
 
 
     @Override
     public final Array<T> swap(int i, int j) {
-        var v1 = buffer.get(i);
-        var v2 = buffer.get(j);
-        this.buffer.put(j, v1);
-        this.buffer.put(i, v2);
+        var v1 = buffer.getInt(i);
+        var v2 = buffer.getInt(j);
+        this.buffer.putInt(j, v1);
+        this.buffer.putInt(i, v2);
         return this;
     }
 
@@ -271,7 +273,7 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
         if (from instanceof MappedArrayWithIntCoding) {
             final MappedArrayWithIntCoding other = (MappedArrayWithIntCoding) from;
             for (int i = 0; i < length; ++i) {
-                this.buffer.put(toIndex + i, other.buffer.get(fromIndex + i));
+                this.buffer.putInt(toIndex + i, other.buffer.getInt(fromIndex + i));
             }
         } else {
             for (int i=0; i<length; ++i) {
@@ -285,17 +287,12 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
 
     @Override
     public final Array<T> expand(int newLength) {
-        try {
-            if (newLength > length) {
-                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asIntBuffer();
-                this.fill(defaultValue, length, newLength);
-                this.length = newLength;
-            }
-            return this;
-
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        if (newLength > length) {
+            this.buffer.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
         }
+        return this;
     }
 
 
@@ -303,7 +300,7 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
     public Array<T> fill(T value, int start, int end) {
         var code = coding.getCode(value);
         for (int i=start; i<end; ++i) {
-            this.buffer.put(i, code);
+            this.buffer.putInt(i, code);
         }
         return this;
     }
@@ -311,7 +308,7 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
 
     @Override
     public final boolean isNull(int index) {
-        return buffer.get(index) == coding.getCode(null);
+        return buffer.getInt(index) == coding.findCode(null);
     }
 
 
@@ -320,8 +317,8 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
         if (value == null) {
             return isNull(index);
         } else {
-            var code = coding.getCode(value);
-            return code == buffer.get(index);
+            var code = coding.findCode(value);
+            return code == buffer.getInt(index) && !isNull(index);
         }
     }
 
@@ -329,14 +326,14 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
     @Override
     public int getInt(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getInt(index);
     }
 
 
     @Override
     public final T getValue(int index) {
         this.checkBounds(index, length);
-        var code = buffer.get(index);
+        var code = buffer.getInt(index);
         return coding.getValue(code);
     }
 
@@ -344,7 +341,7 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
     @Override
     public int setInt(int index, int value) {
         var oldValue = getInt(index);
-        this.buffer.put(index, value);
+        this.buffer.putInt(index, value);
         return oldValue;
     }
 
@@ -352,7 +349,7 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
     public final T setValue(int index, T value) {
         this.checkBounds(index, length);
         final T oldValue = getValue(index);
-        this.buffer.put(index, coding.getCode(value));
+        this.buffer.putInt(index, coding.getCode(value));
         return oldValue;
     }
 
@@ -380,7 +377,7 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
     public final void read(ObjectInputStream is, int count) throws IOException {
         for (int i=0; i<count; ++i) {
             var code = is.readInt();
-            this.buffer.put(i, code);
+            this.buffer.putInt(i, code);
         }
     }
 
@@ -388,7 +385,7 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
     @Override
     public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
         for (int index : indexes) {
-            var code = buffer.get(index);
+            var code = buffer.getInt(index);
             os.writeInt(code);
         }
     }
@@ -400,7 +397,7 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
         os.writeObject(defaultValue);
         os.writeObject(coding);
         for (int i=0; i<length; ++i) {
-            var value = buffer.get(i);
+            var value = buffer.getInt(i);
             os.writeInt(value);
         }
     }
@@ -409,16 +406,14 @@ class MappedArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        this.file = MappedArrayConstructor.randomFile(true);
         this.length = is.readInt();
         this.defaultCode = is.readInt();
         this.defaultValue = (T)is.readObject();
         this.coding = (IntCoding<T>)is.readObject();
-        this.channel = new RandomAccessFile(file, "rw").getChannel();
-        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asIntBuffer();
+        this.buffer = MappedSegments.create(MappedArrayConstructor.randomFile(true), BYTE_COUNT, length);
         for (int i=0; i<length; ++i) {
             var value = is.readInt();
-            this.buffer.put(i, value);
+            this.buffer.putInt(i, value);
         }
     }
 
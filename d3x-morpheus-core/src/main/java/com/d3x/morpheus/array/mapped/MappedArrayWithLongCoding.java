@@ -19,8 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.RandomAccessFile;
-import java.nio.LongBuffer;
 import java.nio.channels.FileChannel;
 import java.util.function.Predicate;
 
@@ -47,15 +45,13 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
 
     private static final long serialVersionUID = 1L;
 
-    private static final long BYTE_COUNT = 8L;
+    private static final int BYTE_COUNT = 8;
 
-    private File file;
     private int length;
     private T defaultValue;
     private long defaultCode;
     private LongCoding<T> coding;
-    private FileChannel channel;
-    private LongBuffer buffer;
+    private MappedSegments buffer;
 
 
     /**
@@ -67,20 +63,50 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
      */
     MappedArrayWithLongCoding(int length, T defaultValue, LongCoding<T> coding, File file) {
         super(coding.getType(), ArrayStyle.MAPPED, false);
-        try {
-            this.file = file;
-            this.length = length;
-            this.coding = coding;
-            this.defaultValue = defaultValue;
-            this.defaultCode = coding.getCode(defaultValue);
-            this.channel = new RandomAccessFile(file, "rw").getChannel();
-            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asLongBuffer();
+        this.length = length;
+        this.coding = coding;
+        this.defaultValue = defaultValue;
+        this.defaultCode = coding.getCode(defaultValue);
+        this.buffer = MappedSegments.create(file, BYTE_COUNT, length);
+        if (this.defaultCode != 0L) {
             this.fill(defaultValue);
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
         }
     }
 
+
+    /**
+     * Constructor for existing data in a file, which is mapped without being initialised
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     * @param coding        the coding for this array
+     * @param file          the file that contains the array data
+     * @param offset        the byte offset of the array data within the file
+     * @param mode          the map mode for the file
+     * @param detach        true to copy a read-only mapping to a private file on first write
+     */
+    MappedArrayWithLongCoding(int length, T defaultValue, LongCoding<T> coding, File file, long offset, FileChannel.MapMode mode, boolean detach) {
+        super(coding.getType(), ArrayStyle.MAPPED, false);
+        this.length = length;
+        this.coding = coding;
+        this.defaultValue = defaultValue;
+        this.defaultCode = coding.getCode(defaultValue);
+        this.buffer = MappedSegments.open(file, offset, BYTE_COUNT, length, mode, detach);
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to copy settings from
+     * @param buffer    the mapped region for this array
+     */
+    private MappedArrayWithLongCoding(MappedArrayWithLongCoding<T> source, MappedSegments buffer) {
+        super(source.type(), ArrayStyle.MAPPED, false);
+        this.length = buffer.length();
+        this.coding = source.coding;
+        this.defaultValue = source.defaultValue;
+        this.defaultCode = source.defaultCode;
+        this.buffer = buffer;
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -88,12 +114,10 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
      */
     private MappedArrayWithLongCoding(MappedArrayWithLongCoding<T> source, boolean parallel) {
         super(source.type(), ArrayStyle.SPARSE, parallel);
-        this.file = source.file;
         this.length = source.length;
         this.coding = source.coding;
         this.defaultValue = source.defaultValue;
         this.defaultCode = source.defaultCode;
-        this.channel = source.channel;
         this.buffer = source.buffer;
     }
 
@@ -129,19 +153,8 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
 
 
     @Override()
-    @SuppressWarnings("unchecked")
     public final Array<T> copy() {
-        try {
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayWithLongCoding<T> copy = new MappedArrayWithLongCoding<>(length, defaultValue, coding, newFile);
-            for (int i=0; i<length; ++i) {
-                final long v = buffer.get(i);
-                copy.buffer.put(i, v);
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to copy Array: " + this, ex);
-        }
+        return new MappedArrayWithLongCoding<>(this, buffer.copy(0, length));
     }
 
 
@@ -151,9 +164,9 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
             var newFile = MappedArrayConstructor.randomFile(true);
             var copy = new MappedArrayWithLongCoding<T>(indexes.length, defaultValue, coding, newFile);
             for (int i=0; i<indexes.length; ++i) {
-                var value = buffer.get(indexes[i]);
+                var value = buffer.getLong(indexes[i]);
                 if (value != defaultCode) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putLong(i, value);
                 }
             }
             return copy;
@@ -169,9 +182,9 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
             var newFile = MappedArrayConstructor.randomFile(true);
             var copy = new MappedArrayWithLongCoding<T>(indexes.length(), defaultValue, coding, newFile);
             for (int i=0; i<indexes.length(); ++i) {
-                var value = buffer.get(indexes.getInt(i));
+                var value = buffer.getLong(indexes.getInt(i));
                 if (value != defaultCode) {
-                    copy.buffer.put(i, value);
+                    copy.buffer.putLong(i, value);
                 }
             }
             return copy;
@@ -183,37 +196,26 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
 
     @Override()
     public final Array<T> copy(int start, int end) {
-        try {
-            var newLength = end - start;
-            final File newFile = MappedArrayConstructor.randomFile(true);
-            final MappedArrayWithLongCoding<T> copy = new MappedArrayWithLongCoding<>(newLength, defaultValue, coding, newFile);
-            for (int i=0; i<newLength; ++i) {
-                final long value = buffer.get(start + i);
-                if (Long.compare(value, defaultCode) != 0) {
-                    copy.buffer.put(i, value);
-                }
-            }
-            return copy;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed top copy subset of Array", ex);
-        }
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new MappedArrayWithLongCoding<>(this, buffer.copy(start, end));
     }
 
 
     @Override
     public final int compare(int i, int j) {
-        final long v1 = buffer.get(i);
-        final long v2 = buffer.get(j);
+        final long v1 = buffer.getLong(i);
+        final long v2 = buffer.getLong(j);
         return Long.compare(v1, v2);
     }
 
 
     @Override
     public final Array<T> swap(int i, int j) {
-        final long v1 = buffer.get(i);
-        final long v2 = buffer.get(j);
-        this.buffer.put(i, v2);
-        this.buffer.put(j, v1);
+        final long v1 = buffer.getLong(i);
+        final long v2 = buffer.getLong(j);
+        this.buffer.putLong(i, v2);
+        this.buffer.putLong(j, v1);
         return this;
     }
 
@@ -254,7 +256,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
         if (from instanceof MappedArrayWithLongCoding) {
             final MappedArrayWithLongCoding other = (MappedArrayWithLongCoding) from;
             for (int i = 0; i < length; ++i) {
-                this.buffer.put(toIndex + i, other.buffer.get(fromIndex + i));
+                this.buffer.putLong(toIndex + i, other.buffer.getLong(fromIndex + i));
             }
         } else {
             for (int i=0; i<length; ++i) {
@@ -268,16 +270,12 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
 
     @Override
     public final Array<T> expand(int newLength) {
-        try {
-            if (newLength > length) {
-                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asLongBuffer();
-                this.fill(defaultValue, length, newLength);
-                this.length = newLength;
-            }
-            return this;
-        } catch (Exception ex) {
-            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        if (newLength > length) {
+            this.buffer.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
         }
+        return this;
     }
 
 
@@ -285,7 +283,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     public Array<T> fill(T value, int start, int end) {
         final long code = coding.getCode(value);
         for (int i=start; i<end; ++i) {
-            this.buffer.put(i, code);
+            this.buffer.putLong(i, code);
         }
         return this;
     }
@@ -293,7 +291,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
 
     @Override
     public final boolean isNull(int index) {
-        return buffer.get(index) == coding.getCode(null);
+        return buffer.getLong(index) == coding.getCode(null);
     }
 
 
@@ -303,7 +301,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
             return isNull(index);
         } else {
             final long code = coding.getCode(value);
-            return code == buffer.get(index);
+            return code == buffer.getLong(index);
         }
     }
 
@@ -311,14 +309,14 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     @Override
     public final long getLong(int index) {
         this.checkBounds(index, length);
-        return buffer.get(index);
+        return buffer.getLong(index);
     }
 
 
     @Override
     public final T getValue(int index) {
         this.checkBounds(index, length);
-        final long code = buffer.get(index);
+        final long code = buffer.getLong(index);
         return coding.getValue(code);
     }
 
@@ -326,8 +324,8 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     @Override
     public final long setLong(int index, long value) {
         this.checkBounds(index, length);
-        final long oldCode = buffer.get(index);
-        this.buffer.put(index, value);
+        final long oldCode = buffer.getLong(index);
+        this.buffer.putLong(index, value);
         return oldCode;
     }
 
@@ -337,7 +335,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
         this.checkBounds(index, length);
         final T oldValue = getValue(index);
         final long code = coding.getCode(value);
-        this.buffer.put(index, code);
+        this.buffer.putLong(index, code);
         return oldValue;
     }
 
@@ -365,7 +363,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     public final void read(ObjectInputStream is, int count) throws IOException {
         for (int i=0; i<count; ++i) {
             final long value = is.readLong();
-            this.buffer.put(i, value);
+            this.buffer.putLong(i, value);
         }
     }
 
@@ -386,7 +384,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
         os.writeObject(defaultValue);
         os.writeObject(coding);
         for (int i=0; i<length; ++i) {
-            final long value = buffer.get(i);
+            final long value = buffer.getLong(i);
             os.writeLong(value);
         }
     }
@@ -395,16 +393,14 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        this.file = MappedArrayConstructor.randomFile(true);
         this.length = is.readInt();
         this.defaultCode = is.readLong();
         this.defaultValue = (T)is.readObject();
         this.coding = (LongCoding<T>)is.readObject();
-        this.channel = new RandomAccessFile(file, "rw").getChannel();
-        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asLongBuffer();
+        this.buffer = MappedSegments.create(MappedArrayConstructor.randomFile(true), BYTE_COUNT, length);
         for (int i=0; i<length; ++i) {
             final long value = is.readLong();
-            this.buffer.put(i, value);
+            this.buffer.putLong(i, value);
         }
     }
 
@@ -0,0 +1,454 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.mapped;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import com.d3x.morpheus.array.ArrayException;
+
+/**
+ * A region of a file holding fixed width records that is memory mapped as a sequence of segments, so that a single
+ * array can span more than the 2GB that a single MappedByteBuffer can address.
+ *
+ * <p>A region can be mapped read-write, which creates or shares the underlying file, copy-on-write, where changes are
+ * private to this process, or read-only. Read-only regions either reject writes, or are detached to a private temporary
+ * file on the first write, which allows files that are not writable by this process to be exposed as modifiable arrays.
+ * Read-only and read-write regions of the same file can be mapped concurrently by several processes.</p>
+ *
+ * <p>Segments default to 1GB, which can be overridden via the morpheus.array.segmentBytes system property when the
+ * region is created, mostly so that the segment boundaries can be exercised with small arrays.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+final class MappedSegments {
+
+    private static final int SEGMENT_BYTES = 1 << 30;
+
+    private File file;
+    private long offset;
+    private int width;
+    private int shift;
+    private int mask;
+    private int length;
+    private boolean detach;
+    private FileChannel channel;
+    private FileChannel.MapMode mode;
+    private MappedByteBuffer[] segments;
+
+    /**
+     * Constructor
+     * @param file      the file that contains the region
+     * @param offset    the byte offset of the region in the file
+     * @param width     the width of each record in bytes
+     * @param mode      the map mode for the region
+     * @param detach    true to detach a read-only region to a private file on first write
+     * @param segmentBytes  the maximum number of bytes in each segment
+     */
+    private MappedSegments(File file, long offset, int width, FileChannel.MapMode mode, boolean detach, int segmentBytes) {
+        if (segmentBytes < width) {
+            throw new ArrayException("The segment size of " + segmentBytes + " bytes cannot hold records of " + width + " bytes");
+        }
+        this.file = file;
+        this.offset = offset;
+        this.width = width;
+        this.mode = mode;
+        this.detach = detach;
+        this.shift = 31 - Integer.numberOfLeadingZeros(segmentBytes / width);
+        this.mask = (1 << shift) - 1;
+        this.segments = new MappedByteBuffer[0];
+    }
+
+
+    /**
+     * Returns a newly created read-write region at the start of the file, which is truncated so all records are zero
+     * @param file      the file to create, which is truncated if it already exists
+     * @param width     the width of each record in bytes
+     * @param length    the number of records
+     * @return          the newly created region
+     */
+    static MappedSegments create(File file, int width, int length) {
+        return create(file, width, length, segmentBytes());
+    }
+
+
+    /**
+     * Returns a newly created read-write region at the start of the file, which is truncated so all records are zero
+     * @param file          the file to create, which is truncated if it already exists
+     * @param width         the width of each record in bytes
+     * @param length        the number of records
+     * @param segmentBytes  the maximum number of bytes in each segment
+     * @return              the newly created region
+     */
+    static MappedSegments create(File file, int width, int length, int segmentBytes) {
+        try {
+            final MappedSegments region = new MappedSegments(file, 0L, width, FileChannel.MapMode.READ_WRITE, false, segmentBytes);
+            final FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+            try {
+                region.channel = channel;
+                region.channel.truncate(0L);
+                region.map(length);
+                return region;
+            } catch (IOException | RuntimeException ex) {
+                close(channel, ex);
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
+
+    /**
+     * Returns a region that maps existing records in a file without initialising them
+     * @param file      the file that contains the records
+     * @param offset    the byte offset of the records in the file
+     * @param width     the width of each record in bytes
+     * @param length    the number of records
+     * @param mode      the map mode, READ_ONLY, READ_WRITE to share changes via the file, or PRIVATE for copy-on-write
+     * @param detach    true to detach a READ_ONLY region to a private file on first write, false to reject writes
+     * @return          the newly mapped region
+     */
+    static MappedSegments open(File file, long offset, int width, int length, FileChannel.MapMode mode, boolean detach) {
+        return open(file, offset, width, length, mode, detach, segmentBytes());
+    }
+
+
+    /**
+     * Returns a region that maps existing records in a file without initialising them
+     * @param file          the file that contains the records
+     * @param offset        the byte offset of the records in the file
+     * @param width         the width of each record in bytes
+     * @param length        the number of records
+     * @param mode          the map mode, READ_ONLY, READ_WRITE to share changes via the file, or PRIVATE for copy-on-write
+     * @param detach        true to detach a READ_ONLY region to a private file on first write, false to reject writes
+     * @param segmentBytes  the maximum number of bytes in each segment
+     * @return              the newly mapped region
+     */
+    static MappedSegments open(File file, long offset, int width, int length, FileChannel.MapMode mode, boolean detach, int segmentBytes) {
+        try {
+            final boolean readOnly = mode == FileChannel.MapMode.READ_ONLY;
+            final MappedSegments region = new MappedSegments(file, offset, width, mode, detach, segmentBytes);
+            final FileChannel channel = new RandomAccessFile(file, readOnly ? "r" : "rw").getChannel();
+            try {
+                region.channel = channel;
+                region.map(length);
+            } catch (IOException | RuntimeException ex) {
+                close(channel, ex);
+                throw ex;
+            }
+            if (mode != FileChannel.MapMode.READ_WRITE) {
+                region.channel.close();
+                region.channel = null;
+            }
+            return region;
+        } catch (IOException ex) {
+            throw new ArrayException("Failed to map array at offset " + offset + " in file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
+
+    /**
+     * Closes a channel after a failed mapping, recording any error on close against the original failure
+     * @param channel   the channel to close
+     * @param cause     the failure that abandoned the channel
+     */
+    private static void close(FileChannel channel, Exception cause) {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+
+    /**
+     * Returns the segment size for newly created regions, from the morpheus.array.segmentBytes system property if set
+     * @return  the maximum number of bytes in each segment
+     */
+    static int segmentBytes() {
+        final int segmentBytes = Integer.getInteger("morpheus.array.segmentBytes", SEGMENT_BYTES);
+        if (segmentBytes <= 0) {
+            throw new ArrayException("The memory mapped segment size must be positive, not " + segmentBytes);
+        } else {
+            return segmentBytes;
+        }
+    }
+
+
+    /**
+     * Returns the file that currently backs this region
+     * @return  the file for region
+     */
+    File file() {
+        return file;
+    }
+
+
+    /**
+     * Returns the number of records in this region
+     * @return  the record count
+     */
+    int length() {
+        return length;
+    }
+
+
+    /**
+     * Maps the segments required to hold the number of records specified, remapping the last segment if it grows
+     * @param newLength the new number of records
+     * @throws IOException  if the mapping fails
+     */
+    private void map(int newLength) throws IOException {
+        final int count = newLength == 0 ? 0 : ((newLength - 1) >>> shift) + 1;
+        final MappedByteBuffer[] newSegments = Arrays.copyOf(segments, count);
+        for (int i = Math.max(segments.length - 1, 0); i < count; ++i) {
+            final long start = (long)i << shift;
+            final long records = Math.min(newLength - start, mask + 1L);
+            if (newSegments[i] == null || newSegments[i].capacity() < records * width) {
+                newSegments[i] = channel.map(mode, offset + start * width, records * width);
+            }
+        }
+        this.segments = newSegments;
+        this.length = newLength;
+    }
+
+
+    /**
+     * Grows this region to hold the number of records specified
+     * Copy-on-write and detachable read-only regions are first copied to a private temporary file
+     * @param newLength the new number of records
+     */
+    void resize(int newLength) {
+        if (newLength > length) {
+            if (mode == FileChannel.MapMode.READ_ONLY && !detach) {
+                throw new ArrayException("Cannot expand a read-only memory mapped array on file: " + file.getAbsolutePath());
+            } else if (mode != FileChannel.MapMode.READ_WRITE) {
+                this.detach();
+            } else if (offset != 0L) {
+                throw new ArrayException("Cannot expand a shared memory mapped array at offset " + offset + " in file: " + file.getAbsolutePath());
+            }
+            try {
+                this.map(newLength);
+            } catch (IOException ex) {
+                throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+            }
+        }
+    }
+
+
+    /**
+     * Copies the records in this region to a private temporary file, which then backs this region read-write
+     */
+    private synchronized void detach() {
+        if (mode != FileChannel.MapMode.READ_WRITE) {
+            final MappedSegments copy = MappedSegments.create(MappedArrayConstructor.randomFile(true), width, length, (mask + 1) * width);
+            this.copyTo(0, copy, 0, length);
+            this.file = copy.file;
+            this.offset = 0L;
+            this.channel = copy.channel;
+            this.segments = copy.segments;
+            this.detach = false;
+            this.mode = FileChannel.MapMode.READ_WRITE;
+        }
+    }
+
+
+    /**
+     * Returns the segment that holds the record at the index specified
+     * @param index the record index
+     * @return      the segment for record
+     */
+    private ByteBuffer segment(int index) {
+        return segments[index >>> shift];
+    }
+
+
+    /**
+     * Returns the segment that holds the record at the index specified, so that it can be modified
+     * @param index the record index
+     * @return      the segment for record
+     */
+    private ByteBuffer writable(int index) {
+        if (mode == FileChannel.MapMode.READ_ONLY) {
+            if (detach) {
+                this.detach();
+            } else {
+                throw new ArrayException("Cannot modify a read-only memory mapped array on file: " + file.getAbsolutePath());
+            }
+        }
+        return segments[index >>> shift];
+    }
+
+
+    /**
+     * Returns the byte position of the record at the index specified within its segment
+     * @param index the record index
+     * @return      the byte position in segment
+     */
+    private int position(int index) {
+        return (index & mask) * width;
+    }
+
+
+    /**
+     * Returns the short at the start of the record at the index specified
+     * @param index the record index
+     * @return      the short value
+     */
+    short getShort(int index) {
+        return segment(index).getShort(position(index));
+    }
+
+
+    /**
+     * Returns the short at a byte offset within the record at the index specified
+     * @param index the record index
+     * @param field the byte offset of the field within the record
+     * @return      the short value
+     */
+    short getShort(int index, int field) {
+        return segment(index).getShort(position(index) + field);
+    }
+
+
+    /**
+     * Returns the int at the start of the record at the index specified
+     * @param index the record index
+     * @return      the int value
+     */
+    int getInt(int index) {
+        return segment(index).getInt(position(index));
+    }
+
+
+    /**
+     * Returns the long at the start of the record at the index specified
+     * @param index the record index
+     * @return      the long value
+     */
+    long getLong(int index) {
+        return segment(index).getLong(position(index));
+    }
+
+
+    /**
+     * Returns the double at the start of the record at the index specified
+     * @param index the record index
+     * @return      the double value
+     */
+    double getDouble(int index) {
+        return segment(index).getDouble(position(index));
+    }
+
+
+    /**
+     * Writes a short at the start of the record at the index specified
+     * @param index the record index
+     * @param value the value to write
+     */
+    void putShort(int index, short value) {
+        this.writable(index).putShort(position(index), value);
+    }
+
+
+    /**
+     * Writes a short at a byte offset within the record at the index specified
+     * @param index the record index
+     * @param field the byte offset of the field within the record
+     * @param value the value to write
+     */
+    void putShort(int index, int field, short value) {
+        this.writable(index).putShort(position(index) + field, value);
+    }
+
+
+    /**
+     * Writes an int at the start of the record at the index specified
+     * @param index the record index
+     * @param value the value to write
+     */
+    void putInt(int index, int value) {
+        this.writable(index).putInt(position(index), value);
+    }
+
+
+    /**
+     * Writes a long at the start of the record at the index specified
+     * @param index the record index
+     * @param value the value to write
+     */
+    void putLong(int index, long value) {
+        this.writable(index).putLong(position(index), value);
+    }
+
+
+    /**
+     * Writes a double at the start of the record at the index specified
+     * @param index the record index
+     * @param value the value to write
+     */
+    void putDouble(int index, double value) {
+        this.writable(index).putDouble(position(index), value);
+    }
+
+
+    /**
+     * Copies a range of records from this region into another region with the same record width
+     * @param start     the start record index in this region
+     * @param target    the target region
+     * @param toIndex   the start record index in the target region
+     * @param count     the number of records to copy
+     */
+    void copyTo(int start, MappedSegments target, int toIndex, int count) {
+        if (count > 0) {
+            target.writable(toIndex);
+            while (count > 0) {
+                final int fromOffset = start & mask;
+                final int toOffset = toIndex & target.mask;
+                final int n = Math.min(count, Math.min(mask + 1 - fromOffset, target.mask + 1 - toOffset));
+                final ByteBuffer from = segment(start).duplicate();
+                final ByteBuffer to = target.segment(toIndex).duplicate();
+                from.limit((fromOffset + n) * width).position(fromOffset * width);
+                to.position(toOffset * width);
+                to.put(from);
+                start += n;
+                toIndex += n;
+                count -= n;
+            }
+        }
+    }
+
+
+    /**
+     * Returns a copy of a range of records in this region, backed by a new temporary file
+     * @param start     the start record index
+     * @param end       the end record index, exclusive
+     * @return          the newly created copy
+     */
+    MappedSegments copy(int start, int end) {
+        final MappedSegments copy = MappedSegments.create(MappedArrayConstructor.randomFile(true), width, end - start, (mask + 1) * width);
+        this.copyTo(start, copy, 0, end - start);
+        return copy;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.offheap;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayType;
+
+/**
+ * An arena that owns the native memory behind a set of off-heap Morpheus Arrays and controls its lifetime.
+ *
+ * <p>Arrays allocated in the global arena release their memory when they are garbage collected, much like a direct
+ * ByteBuffer. Arrays allocated in an arena created via {@link #create()} release their memory when the arena is closed,
+ * which allows very large off-heap frames to be discarded deterministically without waiting on the garbage collector.
+ * Any array allocated in a closed arena will throw an ArrayException on access, and copies or expansions of an array
+ * are allocated in the same arena as the original. Closing an arena waits for accesses already in flight on other
+ * threads to complete before freeing the memory, and any access that starts afterwards throws an ArrayException.</p>
+ *
+ * <p>Native memory is subject to the JVM direct memory limit, which can be raised via -XX:MaxDirectMemorySize</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class OffHeapArena implements AutoCloseable {
+
+    private static final OffHeapArena global = new OffHeapArena(false);
+
+    private volatile boolean closed;
+    private boolean closeable;
+    private AtomicLong allocated;
+    private Set<OffHeapMemory> blocks;
+    private OffHeapArrayConstructor constructor;
+
+
+    /**
+     * Constructor
+     * @param closeable true if this arena owns the lifetime of its memory
+     */
+    private OffHeapArena(boolean closeable) {
+        this.closeable = closeable;
+        this.allocated = new AtomicLong();
+        this.blocks = closeable ? ConcurrentHashMap.newKeySet() : null;
+        this.constructor = new OffHeapArrayConstructor(this);
+    }
+
+
+    /**
+     * Returns the global arena, whose memory is released as arrays are garbage collected
+     * @return  the global off-heap arena
+     */
+    public static OffHeapArena global() {
+        return global;
+    }
+
+
+    /**
+     * Returns a newly created arena that releases all memory allocated in it when closed
+     * @return  the newly created arena
+     */
+    public static OffHeapArena create() {
+        return new OffHeapArena(true);
+    }
+
+
+    /**
+     * Returns true if this arena has been closed
+     * @return  true if closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+
+    /**
+     * Returns the number of bytes of native memory currently allocated by this arena, which is always zero for the global arena
+     * @return  the number of bytes allocated
+     */
+    public long allocated() {
+        return allocated.get();
+    }
+
+
+    /**
+     * Returns the array constructor that allocates arrays in this arena
+     * @return  the array constructor for this arena
+     */
+    public OffHeapArrayConstructor constructor() {
+        return constructor;
+    }
+
+
+    /**
+     * Returns a newly created off-heap array in this arena, initialized with the default value for the type
+     * @param type      the element type for array
+     * @param length    the length of the array
+     * @param <T>       the element type
+     * @return          the newly created array
+     */
+    public <T> Array<T> array(Class<T> type, int length) {
+        return constructor.apply(type, length, ArrayType.defaultValue(type));
+    }
+
+
+    /**
+     * Returns a newly created off-heap array in this arena
+     * @param type          the element type for array
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param <T>           the element type
+     * @return              the newly created array
+     */
+    public <T> Array<T> array(Class<T> type, int length, T defaultValue) {
+        return constructor.apply(type, length, defaultValue);
+    }
+
+
+    /**
+     * Returns a newly allocated block of native memory owned by this arena
+     * @param shift     the log2 of the element width in bytes
+     * @param length    the number of elements
+     * @return          the newly allocated block
+     */
+    OffHeapMemory allocate(int shift, int length) {
+        if (closed) {
+            throw new ArrayException("Cannot allocate off-heap memory in a closed arena");
+        } else {
+            final OffHeapMemory memory = new OffHeapMemory(this, shift, length);
+            if (blocks != null) {
+                this.blocks.add(memory);
+                if (closed) {
+                    memory.release();
+                    throw new ArrayException("Cannot allocate off-heap memory in a closed arena");
+                }
+            }
+            return memory;
+        }
+    }
+
+
+    /**
+     * Records a change in the number of bytes allocated by this arena
+     * @param bytes the number of bytes allocated, negative when memory is released
+     */
+    void allocated(long bytes) {
+        if (closeable) {
+            this.allocated.addAndGet(bytes);
+        }
+    }
+
+
+    /**
+     * Removes a block from this arena after it has been released
+     * @param memory    the memory block
+     */
+    void released(OffHeapMemory memory) {
+        if (blocks != null) {
+            this.blocks.remove(memory);
+        }
+    }
+
+
+    @Override
+    public void close() {
+        if (!closeable) {
+            throw new ArrayException("The global off-heap arena cannot be closed");
+        } else if (!closed) {
+            this.closed = true;
+            this.blocks.forEach(OffHeapMemory::release);
+            this.blocks.clear();
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        return "OffHeapArena allocated=" + allocated() + ", closed=" + closed;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.offheap;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.util.Currency;
+import java.util.Date;
+import java.util.TimeZone;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayFactory;
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.coding.LongCoding;
+import com.d3x.morpheus.util.Asserts;
+
+/**
+ * An ArrayFactory.Constructor implementation designed to manufacture off-heap Morpheus Arrays in an OffHeapArena.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class OffHeapArrayConstructor implements ArrayFactory.Constructor {
+
+    private static final IntCoding<Year> yearCoding = new IntCoding.OfYear();
+    private static final IntCoding<Currency> currencyCoding = new IntCoding.OfCurrency();
+    private static final IntCoding<ZoneId> zoneIdCoding = IntCoding.ofZoneId();
+    private static final IntCoding<TimeZone> timeZoneCoding = IntCoding.ofTimeZone();
+    private static final LongCoding<Date> dateCoding = LongCoding.ofDate();
+    private static final LongCoding<Instant> instantCoding = LongCoding.ofInstant();
+    private static final LongCoding<LocalDate> localDateCoding = LongCoding.ofLocalDate();
+    private static final LongCoding<LocalTime> localTimeCoding = LongCoding.ofLocalTime();
+    private static final LongCoding<LocalDateTime> localDateTimeCoding = LongCoding.ofLocalDateTime();
+
+    private OffHeapArena arena;
+
+
+    /**
+     * Constructor for arrays allocated in the global arena
+     */
+    public OffHeapArrayConstructor() {
+        this(OffHeapArena.global());
+    }
+
+
+    /**
+     * Constructor
+     * @param arena the arena to allocate arrays in
+     */
+    public OffHeapArrayConstructor(OffHeapArena arena) {
+        this.arena = Asserts.notNull(arena, "The off-heap arena cannot be null");
+    }
+
+
+    /**
+     * Returns the arena this constructor allocates arrays in
+     * @return  the off-heap arena
+     */
+    public OffHeapArena arena() {
+        return arena;
+    }
+
+
+    @Override()
+    public final <T> Array<T> apply(Class<T> type, int length, T defaultValue) {
+        return apply(type, length, defaultValue, null);
+    }
+
+
+    @Override
+    public <T> Array<T> apply(Class<T> type, int length, float fillPct, T defaultValue) {
+        return apply(type, length, defaultValue, null);
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Array<T> apply(Class<T> type, int length, T defaultValue, String path) {
+        if (type.isEnum()) {
+            final IntCoding<T> enumCoding = (IntCoding<T>)IntCoding.ofEnum((Class<Enum>) type);
+            return new OffHeapArrayWithIntCoding<>(length, defaultValue, enumCoding, arena);
+        } else {
+            switch (ArrayType.of(type)) {
+                case INTEGER:           return (Array<T>)new OffHeapArrayOfInts(length, (Integer)defaultValue, arena);
+                case LONG:              return (Array<T>)new OffHeapArrayOfLongs(length, (Long)defaultValue, arena);
+                case DOUBLE:            return (Array<T>)new OffHeapArrayOfDoubles(length, (Double)defaultValue, arena);
+                case CURRENCY:          return (Array<T>)new OffHeapArrayWithIntCoding<>(length, (Currency)defaultValue, currencyCoding, arena);
+                case YEAR:              return (Array<T>)new OffHeapArrayWithIntCoding<>(length, (Year)defaultValue, yearCoding, arena);
+                case ZONE_ID:           return (Array<T>)new OffHeapArrayWithIntCoding<>(length, (ZoneId)defaultValue, zoneIdCoding, arena);
+                case TIME_ZONE:         return (Array<T>)new OffHeapArrayWithIntCoding<>(length, (TimeZone)defaultValue, timeZoneCoding, arena);
+                case DATE:              return (Array<T>)new OffHeapArrayWithLongCoding<>(length, (Date)defaultValue, dateCoding, arena);
+                case INSTANT:           return (Array<T>)new OffHeapArrayWithLongCoding<>(length, (Instant)defaultValue, instantCoding, arena);
+                case LOCAL_DATE:        return (Array<T>)new OffHeapArrayWithLongCoding<>(length, (LocalDate)defaultValue, localDateCoding, arena);
+                case LOCAL_TIME:        return (Array<T>)new OffHeapArrayWithLongCoding<>(length, (LocalTime)defaultValue, localTimeCoding, arena);
+                case LOCAL_DATETIME:    return (Array<T>)new OffHeapArrayWithLongCoding<>(length, (LocalDateTime)defaultValue, localDateTimeCoding, arena);
+                default:                throw new UnsupportedOperationException("Data type currently not supported for off-heap arrays: " + type);
+            }
+        }
+    }
+}
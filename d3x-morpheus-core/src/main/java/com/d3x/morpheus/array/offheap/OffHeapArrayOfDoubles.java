@@ -0,0 +1,442 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.offheap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.Predicate;
+
+import gnu.trove.set.TDoubleSet;
+import gnu.trove.set.hash.TDoubleHashSet;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import com.d3x.morpheus.util.SortAlgorithm;
+
+/**
+ * An Array implementation designed to represent a dense array of double values in off-heap native memory.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class OffHeapArrayOfDoubles extends ArrayBase<Double> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SHIFT = 3;
+
+    private int length;
+    private double defaultValue;
+    private OffHeapMemory memory;
+
+    /**
+     * Constructor
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param arena         the arena to allocate memory in
+     */
+    OffHeapArrayOfDoubles(int length, Double defaultValue, OffHeapArena arena) {
+        super(Double.class, ArrayStyle.OFFHEAP, false);
+        this.length = length;
+        this.defaultValue = defaultValue == null ? Double.NaN : defaultValue;
+        this.memory = arena.allocate(SHIFT, length);
+        this.fill(defaultValue);
+    }
+
+    /**
+     * Constructor
+     * @param memory        the memory for this array
+     * @param defaultValue  the default value for array
+     */
+    private OffHeapArrayOfDoubles(OffHeapMemory memory, double defaultValue) {
+        super(Double.class, ArrayStyle.OFFHEAP, false);
+        this.length = memory.length();
+        this.defaultValue = defaultValue;
+        this.memory = memory;
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for parallel version
+     */
+    private OffHeapArrayOfDoubles(OffHeapArrayOfDoubles source, boolean parallel) {
+        super(source.type(), ArrayStyle.OFFHEAP, parallel);
+        this.length = source.length;
+        this.defaultValue = source.defaultValue;
+        this.memory = source.memory;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final Double defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Double> parallel() {
+        return isParallel() ? this : new OffHeapArrayOfDoubles(this, true);
+    }
+
+
+    @Override
+    public final Array<Double> sequential() {
+        return isParallel() ? new OffHeapArrayOfDoubles(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Double> copy() {
+        return new OffHeapArrayOfDoubles(memory.copy(0, length), defaultValue);
+    }
+
+
+    @Override()
+    public final Array<Double> copy(int[] indexes) {
+        var copy = new OffHeapArrayOfDoubles(memory.arena().allocate(SHIFT, indexes.length), defaultValue);
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length; ++i) {
+                this.checkBounds(indexes[i], length);
+                target.putDouble(i, source.getDouble(indexes[i]));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override
+    public Array<Double> copy(Array<Integer> indexes) {
+        var copy = new OffHeapArrayOfDoubles(memory.arena().allocate(SHIFT, indexes.length()), defaultValue);
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length(); ++i) {
+                final int index = indexes.getInt(i);
+                this.checkBounds(index, length);
+                target.putDouble(i, source.getDouble(index));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override()
+    public final Array<Double> copy(int start, int end) {
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new OffHeapArrayOfDoubles(memory.copy(start, end), defaultValue);
+    }
+
+
+    @Override
+    protected final Array<Double> sort(int start, int end, int multiplier) {
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            SortAlgorithm.getDefault(isParallel()).sort(start, end, (i, j) -> {
+                final double v1 = lease.getDouble(i);
+                final double v2 = lease.getDouble(j);
+                return multiplier * Double.compare(v1, v2);
+            }, (i, j) -> {
+                final double v1 = lease.getDouble(i);
+                lease.putDouble(i, lease.getDouble(j));
+                lease.putDouble(j, v1);
+            });
+            return this;
+        }
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        final double v1 = getDouble(i);
+        final double v2 = getDouble(j);
+        return Double.compare(v1, v2);
+    }
+
+
+    @Override
+    public final Array<Double> swap(int i, int j) {
+        this.checkBounds(i, length);
+        this.checkBounds(j, length);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            final double v1 = lease.getDouble(i);
+            lease.putDouble(i, lease.getDouble(j));
+            lease.putDouble(j, v1);
+            return this;
+        }
+    }
+
+
+    @Override
+    public final Array<Double> filter(Predicate<ArrayValue<Double>> predicate) {
+        final ArrayCursor<Double> cursor = cursor();
+        final ArrayBuilder<Double> builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<length(); ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) {
+                builder.appendDouble(cursor.getDouble());
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Double> update(Array<Double> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                final double update = from.getDouble(fromIndex);
+                this.setDouble(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Double> update(int toIndex, Array<Double> from, int fromIndex, int length) {
+        if (from instanceof OffHeapArrayOfDoubles) {
+            this.checkBounds(toIndex + length - 1, this.length);
+            final OffHeapArrayOfDoubles other = (OffHeapArrayOfDoubles)from;
+            other.memory.copyTo(fromIndex, memory, toIndex, length);
+        } else {
+            for (int i=0; i<length; ++i) {
+                final double update = from.getDouble(fromIndex + i);
+                this.setDouble(toIndex + i, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Double> expand(int newLength) {
+        if (newLength > length) {
+            this.memory.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Double> fill(Double value, int start, int end) {
+        final double fillValue = value == null ? defaultValue : value;
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=start; i<end; ++i) {
+                lease.putDouble(i, fillValue);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return Double.isNaN(getDouble(index));
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Double value) {
+        return value == null || Double.isNaN(value) ? Double.isNaN(getDouble(index)) : getDouble(index) == value;
+    }
+
+
+    @Override
+    public final double getDouble(int index) {
+        this.checkBounds(index, length);
+        return memory.getDouble(index);
+    }
+
+
+    @Override
+    public final Double getValue(int index) {
+        this.checkBounds(index, length);
+        return memory.getDouble(index);
+    }
+
+
+    @Override
+    public final double[] getDoubles(int start, double[] target, int offset, int length) {
+        if (length > 0) {
+            this.checkBounds(start, this.length);
+            this.checkBounds(start + length - 1, this.length);
+            this.memory.getDoubles(start, target, offset, length);
+        }
+        return target;
+    }
+
+
+    @Override
+    public final double setDouble(int index, double value) {
+        this.checkBounds(index, length);
+        final double oldValue = memory.getDouble(index);
+        this.memory.putDouble(index, value);
+        return oldValue;
+    }
+
+
+    @Override
+    public final Double setValue(int index, Double value) {
+        this.checkBounds(index, length);
+        final Double oldValue = getValue(index);
+        this.memory.putDouble(index, value != null ? value : defaultValue);
+        return oldValue;
+    }
+
+
+    @Override
+    public final Array<Double> setDoubles(int start, double[] source, int offset, int length) {
+        if (length > 0) {
+            this.checkBounds(start, this.length);
+            this.checkBounds(start + length - 1, this.length);
+            this.memory.putDoubles(start, source, offset, length);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final int binarySearch(int start, int end, Double value) {
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            int low = start;
+            int high = end - 1;
+            while (low <= high) {
+                final int midIndex = (low + high) >>> 1;
+                final double midValue = lease.getDouble(midIndex);
+                final int result = Double.compare(midValue, value);
+                if (result < 0) {
+                    low = midIndex + 1;
+                } else if (result > 0) {
+                    high = midIndex - 1;
+                } else {
+                    return midIndex;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+
+    @Override
+    public final Array<Double> distinct(int limit) {
+        final int capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        final TDoubleSet set = new TDoubleHashSet(capacity);
+        final ArrayBuilder<Double> builder = ArrayBuilder.of(capacity, Double.class);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=0; i<length; ++i) {
+                final double value = lease.getDouble(i);
+                if (set.add(value)) {
+                    builder.appendDouble(value);
+                    if (set.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Double> cumSum() {
+        var length = length();
+        final Array<Double> result = Array.of(Double.class, length);
+        if (length > 0) {
+            result.setDouble(0, getDouble(0));
+            try (OffHeapMemory.Lease lease = memory.lease()) {
+                for (int i=1; i<length; ++i) {
+                    final double prior = result.getDouble(i-1);
+                    final double current = lease.getDouble(i);
+                    if (Double.isNaN(prior)) {
+                        result.setDouble(i, current);
+                    } else if (Double.isNaN(current)) {
+                        result.setDouble(i, prior);
+                    } else {
+                        result.setDouble(i, prior + current);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            final double value = is.readDouble();
+            this.setDouble(i, value);
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            final double value = getDouble(index);
+            os.writeDouble(value);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(length);
+        os.writeDouble(defaultValue);
+        for (int i=0; i<length; ++i) {
+            final double value = getDouble(i);
+            os.writeDouble(value);
+        }
+    }
+
+
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        this.length = is.readInt();
+        this.defaultValue = is.readDouble();
+        this.memory = OffHeapArena.global().allocate(SHIFT, length);
+        for (int i=0; i<length; ++i) {
+            final double value = is.readDouble();
+            this.memory.putDouble(i, value);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.offheap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.Predicate;
+
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import com.d3x.morpheus.util.SortAlgorithm;
+
+/**
+ * An Array implementation designed to represent a dense array of int values in off-heap native memory.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class OffHeapArrayOfInts extends ArrayBase<Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SHIFT = 2;
+
+    private int length;
+    private int defaultValue;
+    private OffHeapMemory memory;
+
+    /**
+     * Constructor
+     * intaram length        the length of the array
+     * intaram defaultValue  the default value for array
+     * intaram arena         the arena to allocate memory in
+     */
+    OffHeapArrayOfInts(int length, Integer defaultValue, OffHeapArena arena) {
+        super(Integer.class, ArrayStyle.OFFHEAP, false);
+        this.length = length;
+        this.defaultValue = defaultValue == null ? 0 : defaultValue;
+        this.memory = arena.allocate(SHIFT, length);
+        this.fill(defaultValue);
+    }
+
+    /**
+     * Constructor
+     * intaram memory        the memory for this array
+     * intaram defaultValue  the default value for array
+     */
+    private OffHeapArrayOfInts(OffHeapMemory memory, int defaultValue) {
+        super(Integer.class, ArrayStyle.OFFHEAP, false);
+        this.length = memory.length();
+        this.defaultValue = defaultValue;
+        this.memory = memory;
+    }
+
+    /**
+     * Constructor
+     * intaram source    the source array to shallow copy
+     * intaram parallel  true for parallel version
+     */
+    private OffHeapArrayOfInts(OffHeapArrayOfInts source, boolean parallel) {
+        super(source.type(), ArrayStyle.OFFHEAP, parallel);
+        this.length = source.length;
+        this.defaultValue = source.defaultValue;
+        this.memory = source.memory;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final Integer defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Integer> parallel() {
+        return isParallel() ? this : new OffHeapArrayOfInts(this, true);
+    }
+
+
+    @Override
+    public final Array<Integer> sequential() {
+        return isParallel() ? new OffHeapArrayOfInts(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Integer> copy() {
+        return new OffHeapArrayOfInts(memory.copy(0, length), defaultValue);
+    }
+
+
+    @Override()
+    public final Array<Integer> copy(int[] indexes) {
+        var copy = new OffHeapArrayOfInts(memory.arena().allocate(SHIFT, indexes.length), defaultValue);
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length; ++i) {
+                this.checkBounds(indexes[i], length);
+                target.putInt(i, source.getInt(indexes[i]));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override
+    public Array<Integer> copy(Array<Integer> indexes) {
+        var copy = new OffHeapArrayOfInts(memory.arena().allocate(SHIFT, indexes.length()), defaultValue);
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length(); ++i) {
+                final int index = indexes.getInt(i);
+                this.checkBounds(index, length);
+                target.putInt(i, source.getInt(index));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override()
+    public final Array<Integer> copy(int start, int end) {
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new OffHeapArrayOfInts(memory.copy(start, end), defaultValue);
+    }
+
+
+    @Override
+    protected final Array<Integer> sort(int start, int end, int multiplier) {
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            SortAlgorithm.getDefault(isParallel()).sort(start, end, (i, j) -> {
+                final int v1 = lease.getInt(i);
+                final int v2 = lease.getInt(j);
+                return multiplier * Integer.compare(v1, v2);
+            }, (i, j) -> {
+                final int v1 = lease.getInt(i);
+                lease.putInt(i, lease.getInt(j));
+                lease.putInt(j, v1);
+            });
+            return this;
+        }
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        final int v1 = getInt(i);
+        final int v2 = getInt(j);
+        return Integer.compare(v1, v2);
+    }
+
+
+    @Override
+    public final Array<Integer> swap(int i, int j) {
+        this.checkBounds(i, length);
+        this.checkBounds(j, length);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            final int v1 = lease.getInt(i);
+            lease.putInt(i, lease.getInt(j));
+            lease.putInt(j, v1);
+            return this;
+        }
+    }
+
+
+    @Override
+    public final Array<Integer> filter(Predicate<ArrayValue<Integer>> predicate) {
+        final ArrayCursor<Integer> cursor = cursor();
+        final ArrayBuilder<Integer> builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<length(); ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) {
+                builder.appendInt(cursor.getInt());
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Integer> update(Array<Integer> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                final int update = from.getInt(fromIndex);
+                this.setInt(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Integer> update(int toIndex, Array<Integer> from, int fromIndex, int length) {
+        if (from instanceof OffHeapArrayOfInts) {
+            this.checkBounds(toIndex + length - 1, this.length);
+            final OffHeapArrayOfInts other = (OffHeapArrayOfInts)from;
+            other.memory.copyTo(fromIndex, memory, toIndex, length);
+        } else {
+            for (int i=0; i<length; ++i) {
+                final int update = from.getInt(fromIndex + i);
+                this.setInt(toIndex + i, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Integer> expand(int newLength) {
+        if (newLength > length) {
+            this.memory.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Integer> fill(Integer value, int start, int end) {
+        final int fillValue = value == null ? defaultValue : value;
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=start; i<end; ++i) {
+                lease.putInt(i, fillValue);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return false;
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Integer value) {
+        return value != null && value == getInt(index);
+    }
+
+
+    @Override
+    public final int getInt(int index) {
+        this.checkBounds(index, length);
+        return memory.getInt(index);
+    }
+
+
+    @Override
+    public final long getLong(int index) {
+        this.checkBounds(index, length);
+        return memory.getInt(index);
+    }
+
+
+    @Override
+    public final double getDouble(int index) {
+        this.checkBounds(index, length);
+        return memory.getInt(index);
+    }
+
+
+    @Override
+    public final Integer getValue(int index) {
+        this.checkBounds(index, length);
+        return memory.getInt(index);
+    }
+
+
+    @Override
+    public final int setInt(int index, int value) {
+        this.checkBounds(index, length);
+        final int oldValue = memory.getInt(index);
+        this.memory.putInt(index, value);
+        return oldValue;
+    }
+
+
+    @Override
+    public final Integer setValue(int index, Integer value) {
+        this.checkBounds(index, length);
+        final Integer oldValue = getValue(index);
+        this.memory.putInt(index, value != null ? value : defaultValue);
+        return oldValue;
+    }
+
+
+    @Override
+    public final int binarySearch(int start, int end, Integer value) {
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            int low = start;
+            int high = end - 1;
+            while (low <= high) {
+                final int midIndex = (low + high) >>> 1;
+                final int midValue = lease.getInt(midIndex);
+                final int result = Integer.compare(midValue, value);
+                if (result < 0) {
+                    low = midIndex + 1;
+                } else if (result > 0) {
+                    high = midIndex - 1;
+                } else {
+                    return midIndex;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+
+    @Override
+    public final Array<Integer> distinct(int limit) {
+        final int capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        final TIntSet set = new TIntHashSet(capacity);
+        final ArrayBuilder<Integer> builder = ArrayBuilder.of(capacity, Integer.class);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=0; i<length; ++i) {
+                final int value = lease.getInt(i);
+                if (set.add(value)) {
+                    builder.appendInt(value);
+                    if (set.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Integer> cumSum() {
+        var length = length();
+        final Array<Integer> result = Array.of(Integer.class, length);
+        if (length > 0) {
+            result.setInt(0, getInt(0));
+            try (OffHeapMemory.Lease lease = memory.lease()) {
+                for (int i=1; i<length; ++i) {
+                    final int prior = result.getInt(i-1);
+                    final int current = lease.getInt(i);
+                    result.setInt(i, prior + current);
+                }
+            }
+        }
+        return result;
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            final int value = is.readInt();
+            this.setInt(i, value);
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            final int value = getInt(index);
+            os.writeInt(value);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(length);
+        os.writeInt(defaultValue);
+        for (int i=0; i<length; ++i) {
+            final int value = getInt(i);
+            os.writeInt(value);
+        }
+    }
+
+
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        this.length = is.readInt();
+        this.defaultValue = is.readInt();
+        this.memory = OffHeapArena.global().allocate(SHIFT, length);
+        for (int i=0; i<length; ++i) {
+            final int value = is.readInt();
+            this.memory.putInt(i, value);
+        }
+    }
+}
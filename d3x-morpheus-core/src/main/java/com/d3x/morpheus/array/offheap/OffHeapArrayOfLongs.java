@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.offheap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.Predicate;
+
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import com.d3x.morpheus.util.SortAlgorithm;
+
+/**
+ * An Array implementation designed to represent a dense array of long values in off-heap native memory.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class OffHeapArrayOfLongs extends ArrayBase<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SHIFT = 3;
+
+    private int length;
+    private long defaultValue;
+    private OffHeapMemory memory;
+
+    /**
+     * Constructor
+     * longaram length        the length of the array
+     * longaram defaultValue  the default value for array
+     * longaram arena         the arena to allocate memory in
+     */
+    OffHeapArrayOfLongs(int length, Long defaultValue, OffHeapArena arena) {
+        super(Long.class, ArrayStyle.OFFHEAP, false);
+        this.length = length;
+        this.defaultValue = defaultValue == null ? 0 : defaultValue;
+        this.memory = arena.allocate(SHIFT, length);
+        this.fill(defaultValue);
+    }
+
+    /**
+     * Constructor
+     * longaram memory        the memory for this array
+     * longaram defaultValue  the default value for array
+     */
+    private OffHeapArrayOfLongs(OffHeapMemory memory, long defaultValue) {
+        super(Long.class, ArrayStyle.OFFHEAP, false);
+        this.length = memory.length();
+        this.defaultValue = defaultValue;
+        this.memory = memory;
+    }
+
+    /**
+     * Constructor
+     * longaram source    the source array to shallow copy
+     * longaram parallel  true for parallel version
+     */
+    private OffHeapArrayOfLongs(OffHeapArrayOfLongs source, boolean parallel) {
+        super(source.type(), ArrayStyle.OFFHEAP, parallel);
+        this.length = source.length;
+        this.defaultValue = source.defaultValue;
+        this.memory = source.memory;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final Long defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Long> parallel() {
+        return isParallel() ? this : new OffHeapArrayOfLongs(this, true);
+    }
+
+
+    @Override
+    public final Array<Long> sequential() {
+        return isParallel() ? new OffHeapArrayOfLongs(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Long> copy() {
+        return new OffHeapArrayOfLongs(memory.copy(0, length), defaultValue);
+    }
+
+
+    @Override()
+    public final Array<Long> copy(int[] indexes) {
+        var copy = new OffHeapArrayOfLongs(memory.arena().allocate(SHIFT, indexes.length), defaultValue);
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length; ++i) {
+                this.checkBounds(indexes[i], length);
+                target.putLong(i, source.getLong(indexes[i]));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override
+    public Array<Long> copy(Array<Integer> indexes) {
+        var copy = new OffHeapArrayOfLongs(memory.arena().allocate(SHIFT, indexes.length()), defaultValue);
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length(); ++i) {
+                final int index = indexes.getInt(i);
+                this.checkBounds(index, length);
+                target.putLong(i, source.getLong(index));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override()
+    public final Array<Long> copy(int start, int end) {
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new OffHeapArrayOfLongs(memory.copy(start, end), defaultValue);
+    }
+
+
+    @Override
+    protected final Array<Long> sort(int start, int end, int multiplier) {
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            SortAlgorithm.getDefault(isParallel()).sort(start, end, (i, j) -> {
+                final long v1 = lease.getLong(i);
+                final long v2 = lease.getLong(j);
+                return multiplier * Long.compare(v1, v2);
+            }, (i, j) -> {
+                final long v1 = lease.getLong(i);
+                lease.putLong(i, lease.getLong(j));
+                lease.putLong(j, v1);
+            });
+            return this;
+        }
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        final long v1 = getLong(i);
+        final long v2 = getLong(j);
+        return Long.compare(v1, v2);
+    }
+
+
+    @Override
+    public final Array<Long> swap(int i, int j) {
+        this.checkBounds(i, length);
+        this.checkBounds(j, length);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            final long v1 = lease.getLong(i);
+            lease.putLong(i, lease.getLong(j));
+            lease.putLong(j, v1);
+            return this;
+        }
+    }
+
+
+    @Override
+    public final Array<Long> filter(Predicate<ArrayValue<Long>> predicate) {
+        final ArrayCursor<Long> cursor = cursor();
+        final ArrayBuilder<Long> builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<length(); ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) {
+                builder.appendLong(cursor.getLong());
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Long> update(Array<Long> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                final long update = from.getLong(fromIndex);
+                this.setLong(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Long> update(int toIndex, Array<Long> from, int fromIndex, int length) {
+        if (from instanceof OffHeapArrayOfLongs) {
+            this.checkBounds(toIndex + length - 1, this.length);
+            final OffHeapArrayOfLongs other = (OffHeapArrayOfLongs)from;
+            other.memory.copyTo(fromIndex, memory, toIndex, length);
+        } else {
+            for (int i=0; i<length; ++i) {
+                final long update = from.getLong(fromIndex + i);
+                this.setLong(toIndex + i, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Long> expand(int newLength) {
+        if (newLength > length) {
+            this.memory.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Long> fill(Long value, int start, int end) {
+        final long fillValue = value == null ? defaultValue : value;
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=start; i<end; ++i) {
+                lease.putLong(i, fillValue);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return false;
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Long value) {
+        return value != null && value == getLong(index);
+    }
+
+
+    @Override
+    public final long getLong(int index) {
+        this.checkBounds(index, length);
+        return memory.getLong(index);
+    }
+
+
+    @Override
+    public final double getDouble(int index) {
+        this.checkBounds(index, length);
+        return memory.getLong(index);
+    }
+
+
+    @Override
+    public final Long getValue(int index) {
+        this.checkBounds(index, length);
+        return memory.getLong(index);
+    }
+
+
+    @Override
+    public final long setLong(int index, long value) {
+        this.checkBounds(index, length);
+        final long oldValue = memory.getLong(index);
+        this.memory.putLong(index, value);
+        return oldValue;
+    }
+
+
+    @Override
+    public final Long setValue(int index, Long value) {
+        this.checkBounds(index, length);
+        final Long oldValue = getValue(index);
+        this.memory.putLong(index, value != null ? value : defaultValue);
+        return oldValue;
+    }
+
+
+    @Override
+    public final int binarySearch(int start, int end, Long value) {
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            int low = start;
+            int high = end - 1;
+            while (low <= high) {
+                final int midIndex = (low + high) >>> 1;
+                final long midValue = lease.getLong(midIndex);
+                final int result = Long.compare(midValue, value);
+                if (result < 0) {
+                    low = midIndex + 1;
+                } else if (result > 0) {
+                    high = midIndex - 1;
+                } else {
+                    return midIndex;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+
+    @Override
+    public final Array<Long> distinct(int limit) {
+        final int capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        final TLongSet set = new TLongHashSet(capacity);
+        final ArrayBuilder<Long> builder = ArrayBuilder.of(capacity, Long.class);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=0; i<length; ++i) {
+                final long value = lease.getLong(i);
+                if (set.add(value)) {
+                    builder.appendLong(value);
+                    if (set.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Long> cumSum() {
+        var length = length();
+        final Array<Long> result = Array.of(Long.class, length);
+        if (length > 0) {
+            result.setLong(0, getLong(0));
+            try (OffHeapMemory.Lease lease = memory.lease()) {
+                for (int i=1; i<length; ++i) {
+                    final long prior = result.getLong(i-1);
+                    final long current = lease.getLong(i);
+                    result.setLong(i, prior + current);
+                }
+            }
+        }
+        return result;
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            final long value = is.readLong();
+            this.setLong(i, value);
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            final long value = getLong(index);
+            os.writeLong(value);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(length);
+        os.writeLong(defaultValue);
+        for (int i=0; i<length; ++i) {
+            final long value = getLong(i);
+            os.writeLong(value);
+        }
+    }
+
+
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        this.length = is.readInt();
+        this.defaultValue = is.readLong();
+        this.memory = OffHeapArena.global().allocate(SHIFT, length);
+        for (int i=0; i<length; ++i) {
+            final long value = is.readLong();
+            this.memory.putLong(i, value);
+        }
+    }
+}
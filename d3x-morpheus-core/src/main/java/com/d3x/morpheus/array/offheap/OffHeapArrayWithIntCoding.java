@@ -0,0 +1,400 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.offheap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.Predicate;
+
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.coding.WithIntCoding;
+import com.d3x.morpheus.util.SortAlgorithm;
+
+/**
+ * An off-heap array implementation that maintains int codes in native memory that map to Object values exposed through the IntCoding interface.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class OffHeapArrayWithIntCoding<T> extends ArrayBase<T> implements WithIntCoding<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SHIFT = 2;
+
+    private int length;
+    private T defaultValue;
+    private int defaultCode;
+    private IntCoding<T> coding;
+    private OffHeapMemory memory;
+
+    /**
+     * Constructor
+     * intaram length        the length for this array
+     * intaram defaultValue  the default value for array
+     * intaram coding        the coding for this array
+     * intaram arena         the arena to allocate memory in
+     */
+    OffHeapArrayWithIntCoding(int length, T defaultValue, IntCoding<T> coding, OffHeapArena arena) {
+        super(coding.getType(), ArrayStyle.OFFHEAP, false);
+        this.length = length;
+        this.coding = coding;
+        this.defaultValue = defaultValue;
+        this.defaultCode = coding.getCode(defaultValue);
+        this.memory = arena.allocate(SHIFT, length);
+        this.fill(defaultValue);
+    }
+
+    /**
+     * Constructor
+     * intaram source    the source array to copy settings from
+     * intaram memory    the memory for this array
+     */
+    private OffHeapArrayWithIntCoding(OffHeapArrayWithIntCoding<T> source, OffHeapMemory memory) {
+        super(source.type(), ArrayStyle.OFFHEAP, false);
+        this.length = memory.length();
+        this.coding = source.coding;
+        this.defaultValue = source.defaultValue;
+        this.defaultCode = source.defaultCode;
+        this.memory = memory;
+    }
+
+    /**
+     * Constructor
+     * intaram source    the source array to shallow copy
+     * intaram parallel  true for the parallel version
+     */
+    private OffHeapArrayWithIntCoding(OffHeapArrayWithIntCoding<T> source, boolean parallel) {
+        super(source.type(), ArrayStyle.OFFHEAP, parallel);
+        this.length = source.length;
+        this.coding = source.coding;
+        this.defaultValue = source.defaultValue;
+        this.defaultCode = source.defaultCode;
+        this.memory = source.memory;
+    }
+
+
+    @Override
+    public final IntCoding<T> getCoding() {
+        return coding;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override
+    public final float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final T defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<T> parallel() {
+        return isParallel() ? this : new OffHeapArrayWithIntCoding<>(this, true);
+    }
+
+
+    @Override
+    public final Array<T> sequential() {
+        return isParallel() ? new OffHeapArrayWithIntCoding<>(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<T> copy() {
+        return new OffHeapArrayWithIntCoding<>(this, memory.copy(0, length));
+    }
+
+
+    @Override()
+    public final Array<T> copy(int[] indexes) {
+        var copy = new OffHeapArrayWithIntCoding<>(this, memory.arena().allocate(SHIFT, indexes.length));
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length; ++i) {
+                this.checkBounds(indexes[i], length);
+                target.putInt(i, source.getInt(indexes[i]));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override
+    public Array<T> copy(Array<Integer> indexes) {
+        var copy = new OffHeapArrayWithIntCoding<>(this, memory.arena().allocate(SHIFT, indexes.length()));
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length(); ++i) {
+                final int index = indexes.getInt(i);
+                this.checkBounds(index, length);
+                target.putInt(i, source.getInt(index));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override()
+    public final Array<T> copy(int start, int end) {
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new OffHeapArrayWithIntCoding<>(this, memory.copy(start, end));
+    }
+
+
+    @Override
+    protected final Array<T> sort(int start, int end, int multiplier) {
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            SortAlgorithm.getDefault(isParallel()).sort(start, end, (i, j) -> {
+                final int v1 = lease.getInt(i);
+                final int v2 = lease.getInt(j);
+                return multiplier * Integer.compare(v1, v2);
+            }, (i, j) -> {
+                final int v1 = lease.getInt(i);
+                lease.putInt(i, lease.getInt(j));
+                lease.putInt(j, v1);
+            });
+            return this;
+        }
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        final int v1 = getInt(i);
+        final int v2 = getInt(j);
+        return Integer.compare(v1, v2);
+    }
+
+
+    @Override
+    public final Array<T> swap(int i, int j) {
+        this.checkBounds(i, length);
+        this.checkBounds(j, length);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            final int v1 = lease.getInt(i);
+            lease.putInt(i, lease.getInt(j));
+            lease.putInt(j, v1);
+            return this;
+        }
+    }
+
+
+    @Override
+    public final Array<T> filter(Predicate<ArrayValue<T>> predicate) {
+        final ArrayCursor<T> cursor = cursor();
+        final ArrayBuilder<T> builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<length(); ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) {
+                builder.append(cursor.getValue());
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<T> update(Array<T> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                final T update = from.getValue(fromIndex);
+                this.setValue(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<T> update(int toIndex, Array<T> from, int fromIndex, int length) {
+        if (from instanceof OffHeapArrayWithIntCoding && ((OffHeapArrayWithIntCoding<T>)from).coding == coding) {
+            this.checkBounds(toIndex + length - 1, this.length);
+            final OffHeapArrayWithIntCoding<T> other = (OffHeapArrayWithIntCoding<T>)from;
+            other.memory.copyTo(fromIndex, memory, toIndex, length);
+        } else {
+            for (int i=0; i<length; ++i) {
+                final T update = from.getValue(fromIndex + i);
+                this.setValue(toIndex + i, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<T> expand(int newLength) {
+        if (newLength > length) {
+            this.memory.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<T> fill(T value, int start, int end) {
+        final int code = coding.getCode(value);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=start; i<end; ++i) {
+                lease.putInt(i, code);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return getInt(index) == coding.findCode(null);
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, T value) {
+        if (value == null) {
+            return isNull(index);
+        } else {
+            final int code = coding.findCode(value);
+            return code == getInt(index) && !isNull(index);
+        }
+    }
+
+
+    @Override
+    public final int getInt(int index) {
+        this.checkBounds(index, length);
+        return memory.getInt(index);
+    }
+
+
+    @Override
+    public final T getValue(int index) {
+        this.checkBounds(index, length);
+        final int code = memory.getInt(index);
+        return coding.getValue(code);
+    }
+
+
+    @Override
+    public final int setInt(int index, int value) {
+        this.checkBounds(index, length);
+        final int oldValue = memory.getInt(index);
+        this.memory.putInt(index, value);
+        return oldValue;
+    }
+
+
+    @Override
+    public final T setValue(int index, T value) {
+        this.checkBounds(index, length);
+        final T oldValue = getValue(index);
+        this.memory.putInt(index, coding.getCode(value));
+        return oldValue;
+    }
+
+
+    @Override
+    public final Array<T> distinct(int limit) {
+        final int capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        final TIntSet set = new TIntHashSet(capacity);
+        final ArrayBuilder<T> builder = ArrayBuilder.of(capacity, type());
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=0; i<length; ++i) {
+                final int code = lease.getInt(i);
+                if (set.add(code)) {
+                    builder.append(coding.getValue(code));
+                    if (set.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            final int code = is.readInt();
+            this.memory.putInt(i, code);
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            final int code = getInt(index);
+            os.writeInt(code);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(length);
+        os.writeInt(defaultCode);
+        os.writeObject(defaultValue);
+        os.writeObject(coding);
+        for (int i=0; i<length; ++i) {
+            final int code = getInt(i);
+            os.writeInt(code);
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        this.length = is.readInt();
+        this.defaultCode = is.readInt();
+        this.defaultValue = (T)is.readObject();
+        this.coding = (IntCoding<T>)is.readObject();
+        this.memory = OffHeapArena.global().allocate(SHIFT, length);
+        for (int i=0; i<length; ++i) {
+            final int code = is.readInt();
+            this.memory.putInt(i, code);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.offheap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.Predicate;
+
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import com.d3x.morpheus.array.coding.LongCoding;
+import com.d3x.morpheus.array.coding.WithLongCoding;
+import com.d3x.morpheus.util.SortAlgorithm;
+
+/**
+ * An off-heap array implementation that maintains long codes in native memory that map to Object values exposed through the LongCoding interface.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class OffHeapArrayWithLongCoding<T> extends ArrayBase<T> implements WithLongCoding<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SHIFT = 3;
+
+    private int length;
+    private T defaultValue;
+    private long defaultCode;
+    private LongCoding<T> coding;
+    private OffHeapMemory memory;
+
+    /**
+     * Constructor
+     * longaram length        the length for this array
+     * longaram defaultValue  the default value for array
+     * longaram coding        the coding for this array
+     * longaram arena         the arena to allocate memory in
+     */
+    OffHeapArrayWithLongCoding(int length, T defaultValue, LongCoding<T> coding, OffHeapArena arena) {
+        super(coding.getType(), ArrayStyle.OFFHEAP, false);
+        this.length = length;
+        this.coding = coding;
+        this.defaultValue = defaultValue;
+        this.defaultCode = coding.getCode(defaultValue);
+        this.memory = arena.allocate(SHIFT, length);
+        this.fill(defaultValue);
+    }
+
+    /**
+     * Constructor
+     * longaram source    the source array to copy settings from
+     * longaram memory    the memory for this array
+     */
+    private OffHeapArrayWithLongCoding(OffHeapArrayWithLongCoding<T> source, OffHeapMemory memory) {
+        super(source.type(), ArrayStyle.OFFHEAP, false);
+        this.length = memory.length();
+        this.coding = source.coding;
+        this.defaultValue = source.defaultValue;
+        this.defaultCode = source.defaultCode;
+        this.memory = memory;
+    }
+
+    /**
+     * Constructor
+     * longaram source    the source array to shallow copy
+     * longaram parallel  true for the parallel version
+     */
+    private OffHeapArrayWithLongCoding(OffHeapArrayWithLongCoding<T> source, boolean parallel) {
+        super(source.type(), ArrayStyle.OFFHEAP, parallel);
+        this.length = source.length;
+        this.coding = source.coding;
+        this.defaultValue = source.defaultValue;
+        this.defaultCode = source.defaultCode;
+        this.memory = source.memory;
+    }
+
+
+    @Override
+    public final LongCoding<T> getCoding() {
+        return coding;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override
+    public final float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final T defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<T> parallel() {
+        return isParallel() ? this : new OffHeapArrayWithLongCoding<>(this, true);
+    }
+
+
+    @Override
+    public final Array<T> sequential() {
+        return isParallel() ? new OffHeapArrayWithLongCoding<>(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<T> copy() {
+        return new OffHeapArrayWithLongCoding<>(this, memory.copy(0, length));
+    }
+
+
+    @Override()
+    public final Array<T> copy(int[] indexes) {
+        var copy = new OffHeapArrayWithLongCoding<>(this, memory.arena().allocate(SHIFT, indexes.length));
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length; ++i) {
+                this.checkBounds(indexes[i], length);
+                target.putLong(i, source.getLong(indexes[i]));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override
+    public Array<T> copy(Array<Integer> indexes) {
+        var copy = new OffHeapArrayWithLongCoding<>(this, memory.arena().allocate(SHIFT, indexes.length()));
+        try (OffHeapMemory.Lease source = memory.lease(); OffHeapMemory.Lease target = copy.memory.lease()) {
+            for (int i=0; i<indexes.length(); ++i) {
+                final int index = indexes.getInt(i);
+                this.checkBounds(index, length);
+                target.putLong(i, source.getLong(index));
+            }
+        }
+        return copy;
+    }
+
+
+    @Override()
+    public final Array<T> copy(int start, int end) {
+        this.checkBounds(start, length + 1);
+        this.checkBounds(end, length + 1);
+        return new OffHeapArrayWithLongCoding<>(this, memory.copy(start, end));
+    }
+
+
+    @Override
+    protected final Array<T> sort(int start, int end, int multiplier) {
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            SortAlgorithm.getDefault(isParallel()).sort(start, end, (i, j) -> {
+                final long v1 = lease.getLong(i);
+                final long v2 = lease.getLong(j);
+                return multiplier * Long.compare(v1, v2);
+            }, (i, j) -> {
+                final long v1 = lease.getLong(i);
+                lease.putLong(i, lease.getLong(j));
+                lease.putLong(j, v1);
+            });
+            return this;
+        }
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        final long v1 = getLong(i);
+        final long v2 = getLong(j);
+        return Long.compare(v1, v2);
+    }
+
+
+    @Override
+    public final Array<T> swap(int i, int j) {
+        this.checkBounds(i, length);
+        this.checkBounds(j, length);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            final long v1 = lease.getLong(i);
+            lease.putLong(i, lease.getLong(j));
+            lease.putLong(j, v1);
+            return this;
+        }
+    }
+
+
+    @Override
+    public final Array<T> filter(Predicate<ArrayValue<T>> predicate) {
+        final ArrayCursor<T> cursor = cursor();
+        final ArrayBuilder<T> builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<length(); ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) {
+                builder.append(cursor.getValue());
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<T> update(Array<T> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                final T update = from.getValue(fromIndex);
+                this.setValue(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<T> update(int toIndex, Array<T> from, int fromIndex, int length) {
+        if (from instanceof OffHeapArrayWithLongCoding && ((OffHeapArrayWithLongCoding<T>)from).coding == coding) {
+            this.checkBounds(toIndex + length - 1, this.length);
+            final OffHeapArrayWithLongCoding<T> other = (OffHeapArrayWithLongCoding<T>)from;
+            other.memory.copyTo(fromIndex, memory, toIndex, length);
+        } else {
+            for (int i=0; i<length; ++i) {
+                final T update = from.getValue(fromIndex + i);
+                this.setValue(toIndex + i, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<T> expand(int newLength) {
+        if (newLength > length) {
+            this.memory.resize(newLength);
+            this.fill(defaultValue, length, newLength);
+            this.length = newLength;
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<T> fill(T value, int start, int end) {
+        final long code = coding.getCode(value);
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=start; i<end; ++i) {
+                lease.putLong(i, code);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return getLong(index) == coding.getCode(null);
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, T value) {
+        if (value == null) {
+            return isNull(index);
+        } else {
+            final long code = coding.getCode(value);
+            return code == getLong(index);
+        }
+    }
+
+
+    @Override
+    public final long getLong(int index) {
+        this.checkBounds(index, length);
+        return memory.getLong(index);
+    }
+
+
+    @Override
+    public final T getValue(int index) {
+        this.checkBounds(index, length);
+        final long code = memory.getLong(index);
+        return coding.getValue(code);
+    }
+
+
+    @Override
+    public final long setLong(int index, long value) {
+        this.checkBounds(index, length);
+        final long oldValue = memory.getLong(index);
+        this.memory.putLong(index, value);
+        return oldValue;
+    }
+
+
+    @Override
+    public final T setValue(int index, T value) {
+        this.checkBounds(index, length);
+        final T oldValue = getValue(index);
+        this.memory.putLong(index, coding.getCode(value));
+        return oldValue;
+    }
+
+
+    @Override
+    public final Array<T> distinct(int limit) {
+        final int capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        final TLongSet set = new TLongHashSet(capacity);
+        final ArrayBuilder<T> builder = ArrayBuilder.of(capacity, type());
+        try (OffHeapMemory.Lease lease = memory.lease()) {
+            for (int i=0; i<length; ++i) {
+                final long code = lease.getLong(i);
+                if (set.add(code)) {
+                    builder.append(coding.getValue(code));
+                    if (set.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            final long code = is.readLong();
+            this.memory.putLong(i, code);
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            final long code = getLong(index);
+            os.writeLong(code);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(length);
+        os.writeLong(defaultCode);
+        os.writeObject(defaultValue);
+        os.writeObject(coding);
+        for (int i=0; i<length; ++i) {
+            final long code = getLong(i);
+            os.writeLong(code);
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        this.length = is.readInt();
+        this.defaultCode = is.readLong();
+        this.defaultValue = (T)is.readObject();
+        this.coding = (LongCoding<T>)is.readObject();
+        this.memory = OffHeapArena.global().allocate(SHIFT, length);
+        for (int i=0; i<length; ++i) {
+            final long code = is.readLong();
+            this.memory.putLong(i, code);
+        }
+    }
+}
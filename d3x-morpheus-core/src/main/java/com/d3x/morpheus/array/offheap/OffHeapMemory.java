@@ -0,0 +1,480 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.offheap;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.d3x.morpheus.array.ArrayException;
+
+/**
+ * A block of native memory holding fixed width elements, which is allocated as a sequence of direct ByteBuffer chunks
+ * so that a single block can hold more than 2GB of data, and so that growing a block only reallocates the last chunk.
+ *
+ * <p>Blocks owned by a closeable arena count the accesses in flight, and releasing such a block waits for them to
+ * drain before freeing its chunks, so a thread reading while the arena is closed gets an ArrayException rather than
+ * touching unmapped memory. Operations over many elements take a single Lease rather than counting each access, so
+ * the cost of this guard is paid once per operation. A chunk replaced by a resize is never freed eagerly since a
+ * concurrent reader may still hold it, and is instead reclaimed by the garbage collector.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+final class OffHeapMemory {
+
+    private static final int CHUNK_SHIFT = 30;
+    private static final Object unsafe;
+    private static final Method invokeCleaner;
+
+    private int shift;
+    private int length;
+    private int chunkShift;
+    private int chunkMask;
+    private volatile ByteBuffer[] chunks;
+    private OffHeapArena arena;
+    private LongAdder readers;
+
+    static {
+        Object instance = null;
+        Method method = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final java.lang.reflect.Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            instance = field.get(null);
+            method = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (Throwable t) {
+            instance = null;
+            method = null;
+        }
+        unsafe = instance;
+        invokeCleaner = method;
+    }
+
+    /**
+     * Constructor
+     * @param arena     the arena that owns this memory
+     * @param shift     the log2 of the element width in bytes
+     * @param length    the number of elements
+     */
+    OffHeapMemory(OffHeapArena arena, int shift, int length) {
+        this.arena = arena;
+        this.shift = shift;
+        this.chunkShift = CHUNK_SHIFT - shift;
+        this.chunkMask = (1 << chunkShift) - 1;
+        this.readers = arena != OffHeapArena.global() ? new LongAdder() : null;
+        this.chunks = new ByteBuffer[0];
+        this.resize(length);
+    }
+
+
+    /**
+     * Returns the arena that owns this memory
+     * @return  the owning arena
+     */
+    OffHeapArena arena() {
+        return arena;
+    }
+
+
+    /**
+     * Returns the number of elements in this block
+     * @return  the element count
+     */
+    int length() {
+        return length;
+    }
+
+
+    /**
+     * Registers an access in flight and returns the chunks for this block, checking that the memory has not been released
+     * Every call must be paired with a call to exit() once the access is complete
+     * @return  the chunks for this block
+     */
+    private ByteBuffer[] enter() {
+        if (readers != null) {
+            this.readers.increment();
+        }
+        final ByteBuffer[] chunks = this.chunks;
+        if (chunks == null) {
+            this.exit();
+            throw new ArrayException("The off-heap memory for this array has been released by its arena");
+        } else {
+            return chunks;
+        }
+    }
+
+
+    /**
+     * Signals the end of an access started by enter()
+     */
+    private void exit() {
+        if (readers != null) {
+            this.readers.decrement();
+        }
+    }
+
+
+    /**
+     * Returns a lease on the chunks of this block, which are not freed until the lease is closed
+     * Accesses through a lease are not counted individually, so an operation over many elements should take one lease
+     * @return  the lease, which should be closed by the thread that took it, ideally via a try-with-resources block
+     */
+    Lease lease() {
+        return new Lease(enter());
+    }
+
+
+    /**
+     * Returns the int element at the index specified
+     * @param index the element index
+     * @return      the element value
+     */
+    int getInt(int index) {
+        final ByteBuffer[] chunks = enter();
+        try {
+            return chunks[index >>> chunkShift].getInt((index & chunkMask) << shift);
+        } finally {
+            this.exit();
+        }
+    }
+
+
+    /**
+     * Returns the long element at the index specified
+     * @param index the element index
+     * @return      the element value
+     */
+    long getLong(int index) {
+        final ByteBuffer[] chunks = enter();
+        try {
+            return chunks[index >>> chunkShift].getLong((index & chunkMask) << shift);
+        } finally {
+            this.exit();
+        }
+    }
+
+
+    /**
+     * Returns the double element at the index specified
+     * @param index the element index
+     * @return      the element value
+     */
+    double getDouble(int index) {
+        final ByteBuffer[] chunks = enter();
+        try {
+            return chunks[index >>> chunkShift].getDouble((index & chunkMask) << shift);
+        } finally {
+            this.exit();
+        }
+    }
+
+
+    /**
+     * Sets the int element at the index specified
+     * @param index the element index
+     * @param value the element value
+     */
+    void putInt(int index, int value) {
+        final ByteBuffer[] chunks = enter();
+        try {
+            chunks[index >>> chunkShift].putInt((index & chunkMask) << shift, value);
+        } finally {
+            this.exit();
+        }
+    }
+
+
+    /**
+     * Sets the long element at the index specified
+     * @param index the element index
+     * @param value the element value
+     */
+    void putLong(int index, long value) {
+        final ByteBuffer[] chunks = enter();
+        try {
+            chunks[index >>> chunkShift].putLong((index & chunkMask) << shift, value);
+        } finally {
+            this.exit();
+        }
+    }
+
+
+    /**
+     * Sets the double element at the index specified
+     * @param index the element index
+     * @param value the element value
+     */
+    void putDouble(int index, double value) {
+        final ByteBuffer[] chunks = enter();
+        try {
+            chunks[index >>> chunkShift].putDouble((index & chunkMask) << shift, value);
+        } finally {
+            this.exit();
+        }
+    }
+
+
+    /**
+     * Copies a range of double elements from this block into a double array
+     * @param start     the start element index in this block
+     * @param target    the target array
+     * @param offset    the offset in the target array
+     * @param count     the number of elements to copy
+     */
+    void getDoubles(int start, double[] target, int offset, int count) {
+        final ByteBuffer[] chunks = enter();
+        try {
+            while (count > 0) {
+                final int chunkOffset = start & chunkMask;
+                final int n = Math.min(count, chunkMask + 1 - chunkOffset);
+                final ByteBuffer chunk = chunks[start >>> chunkShift].duplicate().order(ByteOrder.nativeOrder());
+                chunk.position(chunkOffset << shift);
+                chunk.asDoubleBuffer().get(target, offset, n);
+                start += n;
+                offset += n;
+                count -= n;
+            }
+        } finally {
+            this.exit();
+        }
+    }
+
+
+    /**
+     * Copies a range of double elements from a double array into this block
+     * @param start     the start element index in this block
+     * @param source    the source array
+     * @param offset    the offset in the source array
+     * @param count     the number of elements to copy
+     */
+    void putDoubles(int start, double[] source, int offset, int count) {
+        final ByteBuffer[] chunks = enter();
+        try {
+            while (count > 0) {
+                final int chunkOffset = start & chunkMask;
+                final int n = Math.min(count, chunkMask + 1 - chunkOffset);
+                final ByteBuffer chunk = chunks[start >>> chunkShift].duplicate().order(ByteOrder.nativeOrder());
+                chunk.position(chunkOffset << shift);
+                chunk.asDoubleBuffer().put(source, offset, n);
+                start += n;
+                offset += n;
+                count -= n;
+            }
+        } finally {
+            this.exit();
+        }
+    }
+
+
+    /**
+     * Copies a range of elements from this block into another block with the same element width
+     * @param start     the start element index in this block
+     * @param target    the target block
+     * @param toIndex   the start element index in the target block
+     * @param count     the number of elements to copy
+     */
+    void copyTo(int start, OffHeapMemory target, int toIndex, int count) {
+        final ByteBuffer[] source = enter();
+        try {
+            final ByteBuffer[] dest = target.enter();
+            try {
+                while (count > 0) {
+                    final int fromOffset = start & chunkMask;
+                    final int toOffset = toIndex & chunkMask;
+                    final int n = Math.min(count, chunkMask + 1 - Math.max(fromOffset, toOffset));
+                    final ByteBuffer from = source[start >>> chunkShift].duplicate();
+                    final ByteBuffer to = dest[toIndex >>> chunkShift].duplicate();
+                    from.limit((fromOffset + n) << shift).position(fromOffset << shift);
+                    to.position(toOffset << shift);
+                    to.put(from);
+                    start += n;
+                    toIndex += n;
+                    count -= n;
+                }
+            } finally {
+                target.exit();
+            }
+        } finally {
+            this.exit();
+        }
+    }
+
+
+    /**
+     * Returns a newly allocated copy of a range of elements in this block, in the same arena
+     * @param start     the start element index
+     * @param end       the end element index, exclusive
+     * @return          the newly allocated copy
+     */
+    OffHeapMemory copy(int start, int end) {
+        final OffHeapMemory copy = arena.allocate(shift, end - start);
+        this.copyTo(start, copy, 0, end - start);
+        return copy;
+    }
+
+
+    /**
+     * Grows this block to hold at least the number of elements specified, which only reallocates the last chunk
+     * The chunk being replaced is left to the garbage collector, since a concurrent reader may still be using it
+     * @param newLength the new element count
+     */
+    synchronized void resize(int newLength) {
+        if (newLength > length) {
+            final ByteBuffer[] oldChunks = this.chunks;
+            if (oldChunks == null) {
+                throw new ArrayException("The off-heap memory for this array has been released by its arena");
+            }
+            final int count = newLength == 0 ? 0 : ((newLength - 1) >>> chunkShift) + 1;
+            final ByteBuffer[] newChunks = java.util.Arrays.copyOf(oldChunks, count);
+            final int last = oldChunks.length - 1;
+            for (int i = Math.max(last, 0); i < count; ++i) {
+                final long elements = Math.min(newLength - ((long)i << chunkShift), chunkMask + 1L);
+                final ByteBuffer existing = i < oldChunks.length ? oldChunks[i] : null;
+                final int capacity = (int)(elements << shift);
+                if (existing == null || existing.capacity() < capacity) {
+                    final ByteBuffer chunk = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+                    this.arena.allocated(capacity);
+                    if (existing != null) {
+                        chunk.put(existing.duplicate().clear());
+                        chunk.clear();
+                        this.arena.allocated(-existing.capacity());
+                    }
+                    newChunks[i] = chunk;
+                }
+            }
+            this.chunks = newChunks;
+            this.length = newLength;
+        }
+    }
+
+
+    /**
+     * Releases the native memory for this block, after which any access throws an ArrayException
+     * Accesses already in flight are allowed to complete before the chunks are freed
+     */
+    synchronized void release() {
+        final ByteBuffer[] chunks = this.chunks;
+        if (chunks != null) {
+            this.chunks = null;
+            while (readers != null && readers.sum() > 0) {
+                Thread.onSpinWait();
+            }
+            for (ByteBuffer chunk : chunks) {
+                this.free(chunk);
+            }
+            this.arena.released(this);
+        }
+    }
+
+
+    /**
+     * An access to the chunks of this block that spans many elements, which holds off a release until closed
+     */
+    final class Lease implements AutoCloseable {
+
+        private ByteBuffer[] chunks;
+
+        /**
+         * Constructor
+         * @param chunks    the chunks returned by enter()
+         */
+        private Lease(ByteBuffer[] chunks) {
+            this.chunks = chunks;
+        }
+
+        /**
+         * Returns the int element at the index specified
+         * @param index the element index
+         * @return      the element value
+         */
+        int getInt(int index) {
+            return chunks[index >>> chunkShift].getInt((index & chunkMask) << shift);
+        }
+
+        /**
+         * Returns the long element at the index specified
+         * @param index the element index
+         * @return      the element value
+         */
+        long getLong(int index) {
+            return chunks[index >>> chunkShift].getLong((index & chunkMask) << shift);
+        }
+
+        /**
+         * Returns the double element at the index specified
+         * @param index the element index
+         * @return      the element value
+         */
+        double getDouble(int index) {
+            return chunks[index >>> chunkShift].getDouble((index & chunkMask) << shift);
+        }
+
+        /**
+         * Sets the int element at the index specified
+         * @param index the element index
+         * @param value the element value
+         */
+        void putInt(int index, int value) {
+            this.chunks[index >>> chunkShift].putInt((index & chunkMask) << shift, value);
+        }
+
+        /**
+         * Sets the long element at the index specified
+         * @param index the element index
+         * @param value the element value
+         */
+        void putLong(int index, long value) {
+            this.chunks[index >>> chunkShift].putLong((index & chunkMask) << shift, value);
+        }
+
+        /**
+         * Sets the double element at the index specified
+         * @param index the element index
+         * @param value the element value
+         */
+        void putDouble(int index, double value) {
+            this.chunks[index >>> chunkShift].putDouble((index & chunkMask) << shift, value);
+        }
+
+        @Override
+        public void close() {
+            if (chunks != null) {
+                this.chunks = null;
+                exit();
+            }
+        }
+    }
+
+
+    /**
+     * Frees the native memory behind a chunk immediately if the runtime allows it, otherwise leaves it to the garbage collector
+     * @param chunk the chunk to free
+     */
+    private void free(ByteBuffer chunk) {
+        this.arena.allocated(-chunk.capacity());
+        if (invokeCleaner != null && arena != OffHeapArena.global()) {
+            try {
+                invokeCleaner.invoke(unsafe, chunk);
+            } catch (Exception ex) {
+                throw new ArrayException("Failed to release off-heap memory", ex);
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.d3x.morpheus.array.sparse;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.function.Predicate;
 
 import gnu.trove.map.TIntDoubleMap;
@@ -86,6 +87,14 @@ class SparseArrayOfDoubles extends ArrayBase<Double> {
     }
 
 
+    @Override()
+    public final int[] storedIndexes() {
+        final int[] indexes = values.keys();
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+
     @Override
     public final Double defaultValue() {
         return defaultValue;
@@ -21,6 +21,7 @@ import java.io.ObjectOutputStream;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Predicate;
@@ -118,6 +119,14 @@ class SparseArrayOfZonedDateTimes extends ArrayBase<ZonedDateTime> {
     }
 
 
+    @Override()
+    public final int[] storedIndexes() {
+        final int[] indexes = values.keys();
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+
     @Override
     public final ZonedDateTime defaultValue() {
         return defaultValue;
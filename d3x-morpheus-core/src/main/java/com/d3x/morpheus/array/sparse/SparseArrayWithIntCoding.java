@@ -18,6 +18,7 @@ package com.d3x.morpheus.array.sparse;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.function.Predicate;
 
 import gnu.trove.map.TIntIntMap;
@@ -94,6 +95,14 @@ class SparseArrayWithIntCoding<T> extends ArrayBase<T> {
     }
 
 
+    @Override()
+    public final int[] storedIndexes() {
+        final int[] indexes = codes.keys();
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+
     @Override
     public final T defaultValue() {
         return defaultValue;
@@ -254,7 +263,7 @@ class SparseArrayWithIntCoding<T> extends ArrayBase<T> {
 
     @Override
     public final boolean isNull(int index) {
-        return codes.get(index) == coding.getCode(null);
+        return codes.get(index) == coding.findCode(null);
     }
 
 
@@ -263,8 +272,8 @@ class SparseArrayWithIntCoding<T> extends ArrayBase<T> {
         if (value == null) {
             return isNull(index);
         } else {
-            var code = coding.getCode(value);
-            return code == codes.get(index);
+            var code = coding.findCode(value);
+            return code == codes.get(index) && !isNull(index);
         }
     }
 
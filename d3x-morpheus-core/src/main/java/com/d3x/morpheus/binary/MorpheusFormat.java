@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.binary;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.stream.Stream;
+
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.array.coding.Coding;
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.coding.LongCoding;
+import com.d3x.morpheus.frame.DataFrameException;
+
+/**
+ * Constants and helpers that describe the layout of the Morpheus columnar binary format.
+ *
+ * <p>A file starts with an 8 byte magic number and a version, followed by one block per axis / column, each aligned to
+ * 8 bytes so that primitive blocks can be memory mapped in place. The metadata describing each block is written as a
+ * footer at the end of the file, and the last 8 bytes of the file record the offset of that footer. All values are
+ * stored big-endian which matches the byte order of the memory mapped arrays.</p>
+ *
+ * <p>The footer and any non primitive blocks are written with DataOutput as a small schema of type names and tagged
+ * values, rather than with java serialization, so reading a file never instantiates classes named in the file other
+ * than the supported data types and enums. Every offset in the footer is checked against the length of the file.</p>
+ *
+ * <p>Int and long blocks that contain nulls are followed by a bitmap of 64 bit words in which a set bit marks a null
+ * entry, and the footer records the offset of that bitmap, or -1 if the block has no nulls.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+final class MorpheusFormat {
+
+    /** The magic bytes that start every Morpheus file */
+    static final byte[] MAGIC = "MORPHEUS".getBytes(StandardCharsets.US_ASCII);
+    /** The current version of the format */
+    static final int VERSION = 3;
+    /** The length of the fixed header in bytes */
+    static final int HEADER_LENGTH = 16;
+    /** The alignment in bytes of every data block */
+    static final int ALIGNMENT = 8;
+
+    /**
+     * The physical encoding of a data block
+     */
+    enum Encoding {
+
+        /** Booleans stored as 2 byte shorts */
+        BOOLEAN,
+        /** Primitive 4 byte ints */
+        INT,
+        /** Primitive 8 byte longs */
+        LONG,
+        /** Primitive 8 byte doubles */
+        DOUBLE,
+        /** Objects stored as 4 byte codes described by an IntCoding */
+        INT_CODED,
+        /** Objects stored as 8 byte codes described by a LongCoding */
+        LONG_CODED,
+        /** Objects stored as tagged values, which cannot be memory mapped */
+        OBJECT
+    }
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte LOCAL_DATE = 6;
+    private static final byte LOCAL_TIME = 7;
+    private static final byte LOCAL_DATETIME = 8;
+    private static final byte ZONED_DATETIME = 9;
+    private static final byte INSTANT = 10;
+    private static final byte DATE = 11;
+    private static final byte ENUM = 12;
+
+    private static final Map<String,Class<?>> typeMap = new HashMap<>();
+
+    static {
+        Stream.of(
+            boolean.class, int.class, long.class, double.class,
+            Boolean.class, Integer.class, Long.class, Double.class, String.class, Object.class,
+            Date.class, Year.class, Currency.class, ZoneId.class, TimeZone.class, Instant.class,
+            LocalDate.class, LocalTime.class, LocalDateTime.class, ZonedDateTime.class
+        ).forEach(type -> typeMap.put(type.getName(), type));
+    }
+
+
+    /**
+     * Private constructor
+     */
+    private MorpheusFormat() {
+        super();
+    }
+
+
+    /**
+     * Returns the encoding to use for data of the type specified
+     * @param type  the data type
+     * @return      the block encoding for type
+     */
+    static Encoding encoding(Class<?> type) {
+        switch (ArrayType.of(type)) {
+            case BOOLEAN:   return Encoding.BOOLEAN;
+            case INTEGER:   return Encoding.INT;
+            case LONG:      return Encoding.LONG;
+            case DOUBLE:    return Encoding.DOUBLE;
+            default:
+                final Coding<?> coding = coding(type);
+                if (coding instanceof IntCoding) {
+                    return Encoding.INT_CODED;
+                } else if (coding instanceof LongCoding) {
+                    return Encoding.LONG_CODED;
+                } else {
+                    return Encoding.OBJECT;
+                }
+        }
+    }
+
+
+    /**
+     * Returns the coding for the type specified, null if the type is not coded
+     * @param type  the data type
+     * @return      the int or long coding for type, null if none
+     */
+    @SuppressWarnings("unchecked")
+    static Coding<?> coding(Class<?> type) {
+        switch (ArrayType.of(type)) {
+            case ENUM:              return IntCoding.ofEnum((Class<Enum>)type);
+            case YEAR:              return IntCoding.ofYear();
+            case CURRENCY:          return IntCoding.ofCurrency();
+            case ZONE_ID:           return IntCoding.ofZoneId();
+            case TIME_ZONE:         return IntCoding.ofTimeZone();
+            case DATE:              return LongCoding.ofDate();
+            case INSTANT:           return LongCoding.ofInstant();
+            case LOCAL_DATE:        return LongCoding.ofLocalDate();
+            case LOCAL_TIME:        return LongCoding.ofLocalTime();
+            case LOCAL_DATETIME:    return LongCoding.ofLocalDateTime();
+            default:                return null;
+        }
+    }
+
+
+    /**
+     * Returns the number of bytes per value for the encoding specified, 0 for variable width encodings
+     * @param encoding  the block encoding
+     * @return          the value width in bytes
+     */
+    static int width(Encoding encoding) {
+        switch (encoding) {
+            case BOOLEAN:       return 2;
+            case INT:           return 4;
+            case INT_CODED:     return 4;
+            case LONG:          return 8;
+            case LONG_CODED:    return 8;
+            case DOUBLE:        return 8;
+            default:            return 0;
+        }
+    }
+
+
+    /**
+     * Returns the number of 64 bit words in the null bitmap for a block with the number of values specified
+     * @param length    the number of values in the block
+     * @return          the number of words in the null bitmap
+     */
+    static int nullWords(int length) {
+        return (int)(((long)length + 63) >>> 6);
+    }
+
+
+    /**
+     * Returns the offset rounded up to the next block alignment boundary
+     * @param offset    the offset in bytes
+     * @return          the aligned offset
+     */
+    static long align(long offset) {
+        final long remainder = offset % ALIGNMENT;
+        return remainder == 0 ? offset : offset + ALIGNMENT - remainder;
+    }
+
+
+    /**
+     * Returns true if columns of the data type specified can be written in this format
+     * @param type  the data type
+     * @return      true if the type is supported
+     */
+    static boolean isSupported(Class<?> type) {
+        return type.isEnum() || typeMap.containsKey(type.getName());
+    }
+
+
+    /**
+     * Returns the data type with the name specified, which must be one of the supported types or an enum
+     * @param name  the class name of the data type
+     * @return      the data type
+     * @throws IOException  if the name does not refer to a supported type
+     */
+    static Class<?> typeOf(String name) throws IOException {
+        final Class<?> type = typeMap.get(name);
+        if (type != null) {
+            return type;
+        } else {
+            try {
+                final Class<?> enumType = Class.forName(name, false, MorpheusFormat.class.getClassLoader());
+                if (enumType.isEnum()) {
+                    return enumType;
+                } else {
+                    throw new IOException("Unsupported data type in Morpheus format: " + name);
+                }
+            } catch (ClassNotFoundException ex) {
+                throw new IOException("Unresolved data type in Morpheus format: " + name, ex);
+            }
+        }
+    }
+
+
+    /**
+     * Writes a value preceded by a tag that identifies its type
+     * @param os        the output to write to
+     * @param value     the value to write, which may be null
+     * @throws IOException  if the write fails
+     * @throws DataFrameException   if the value type is not supported by this format
+     */
+    static void writeValue(DataOutput os, Object value) throws IOException {
+        if (value == null) {
+            os.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            os.writeByte(BOOLEAN);
+            os.writeBoolean((Boolean)value);
+        } else if (value instanceof Integer) {
+            os.writeByte(INTEGER);
+            os.writeInt((Integer)value);
+        } else if (value instanceof Long) {
+            os.writeByte(LONG);
+            os.writeLong((Long)value);
+        } else if (value instanceof Double) {
+            os.writeByte(DOUBLE);
+            os.writeDouble((Double)value);
+        } else if (value instanceof String) {
+            os.writeByte(STRING);
+            writeString(os, (String)value);
+        } else if (value instanceof LocalDate) {
+            os.writeByte(LOCAL_DATE);
+            os.writeLong(((LocalDate)value).toEpochDay());
+        } else if (value instanceof LocalTime) {
+            os.writeByte(LOCAL_TIME);
+            os.writeLong(((LocalTime)value).toNanoOfDay());
+        } else if (value instanceof LocalDateTime) {
+            final LocalDateTime dateTime = (LocalDateTime)value;
+            os.writeByte(LOCAL_DATETIME);
+            os.writeLong(dateTime.toLocalDate().toEpochDay());
+            os.writeLong(dateTime.toLocalTime().toNanoOfDay());
+        } else if (value instanceof ZonedDateTime) {
+            final ZonedDateTime dateTime = (ZonedDateTime)value;
+            os.writeByte(ZONED_DATETIME);
+            os.writeLong(dateTime.toEpochSecond());
+            os.writeInt(dateTime.getNano());
+            writeString(os, dateTime.getZone().getId());
+        } else if (value instanceof Instant) {
+            os.writeByte(INSTANT);
+            os.writeLong(((Instant)value).getEpochSecond());
+            os.writeInt(((Instant)value).getNano());
+        } else if (value instanceof Date) {
+            os.writeByte(DATE);
+            os.writeLong(((Date)value).getTime());
+        } else if (value instanceof Enum) {
+            os.writeByte(ENUM);
+            writeString(os, ((Enum<?>)value).getDeclaringClass().getName());
+            writeString(os, ((Enum<?>)value).name());
+        } else {
+            throw new DataFrameException("Values of type " + value.getClass().getName() + " cannot be written in Morpheus format");
+        }
+    }
+
+
+    /**
+     * Returns a value written by writeValue()
+     * @param is        the input to read from
+     * @param limit     the maximum number of bytes the value can occupy
+     * @return          the value read, which may be null
+     * @throws IOException  if the read fails or the input is malformed
+     */
+    @SuppressWarnings("unchecked")
+    static Object readValue(DataInput is, long limit) throws IOException {
+        final byte tag = is.readByte();
+        switch (tag) {
+            case NULL:              return null;
+            case BOOLEAN:           return is.readBoolean();
+            case INTEGER:           return is.readInt();
+            case LONG:              return is.readLong();
+            case DOUBLE:            return is.readDouble();
+            case STRING:            return readString(is, limit);
+            case LOCAL_DATE:        return LocalDate.ofEpochDay(is.readLong());
+            case LOCAL_TIME:        return LocalTime.ofNanoOfDay(is.readLong());
+            case LOCAL_DATETIME:    return LocalDateTime.of(LocalDate.ofEpochDay(is.readLong()), LocalTime.ofNanoOfDay(is.readLong()));
+            case INSTANT:           return Instant.ofEpochSecond(is.readLong(), is.readInt());
+            case DATE:              return new Date(is.readLong());
+            case ZONED_DATETIME:
+                final Instant instant = Instant.ofEpochSecond(is.readLong(), is.readInt());
+                return ZonedDateTime.ofInstant(instant, ZoneId.of(readString(is, limit)));
+            case ENUM:
+                final Class<?> type = typeOf(readString(is, limit));
+                if (!type.isEnum()) {
+                    throw new IOException("Expected an enum type in Morpheus format, found " + type.getName());
+                } else {
+                    return Enum.valueOf((Class<Enum>)type, readString(is, limit));
+                }
+            default:
+                throw new IOException("Invalid value tag in Morpheus format: " + tag);
+        }
+    }
+
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes, which unlike writeUTF() has no 64KB limit
+     * @param os        the output to write to
+     * @param value     the value to write
+     * @throws IOException  if the write fails
+     */
+    private static void writeString(DataOutput os, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        os.writeInt(bytes.length);
+        os.write(bytes);
+    }
+
+
+    /**
+     * Returns a string written by writeString()
+     * @param is        the input to read from
+     * @param limit     the maximum number of bytes the string can occupy
+     * @return          the string value
+     * @throws IOException  if the read fails or the length is out of bounds
+     */
+    private static String readString(DataInput is, long limit) throws IOException {
+        final int length = is.readInt();
+        if (length < 0 || length > limit) {
+            throw new IOException("Invalid string length in Morpheus format: " + length);
+        } else {
+            final byte[] bytes = new byte[length];
+            is.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+
+    /**
+     * The footer metadata that describes a single data block in the file
+     */
+    @lombok.AllArgsConstructor()
+    static class Block {
+
+        /** The axis key for the block, which is null for the row key block */
+        final Object key;
+        /** The data type for the block */
+        final Class<?> type;
+        /** The physical encoding for the block */
+        final Encoding encoding;
+        /** The coding for INT_CODED and LONG_CODED blocks, otherwise null */
+        final Coding<?> coding;
+        /** The number of values in the block */
+        final int length;
+        /** The offset of the block from the start of the file */
+        final long offset;
+        /** The length of the block in bytes */
+        final long byteLength;
+        /** The offset of the null bitmap for INT and LONG blocks with nulls, otherwise -1 */
+        final long nullOffset;
+
+        /**
+         * Writes this block metadata to the footer stream
+         * The coding is not written since it is implied by the data type
+         * @param os    the footer output stream
+         * @throws IOException  if the write fails
+         */
+        void write(DataOutput os) throws IOException {
+            writeValue(os, key);
+            writeString(os, type.getName());
+            os.writeByte(encoding.ordinal());
+            os.writeInt(length);
+            os.writeLong(offset);
+            os.writeLong(byteLength);
+            os.writeLong(nullOffset);
+        }
+
+        /**
+         * Returns block metadata read from the footer stream, checking that the block lies within the data section
+         * @param is            the footer input stream
+         * @param footerOffset  the offset of the footer, which is the end of the data section
+         * @param limit         the maximum number of bytes that a key or type name can occupy
+         * @return              the block metadata
+         * @throws IOException  if the read fails or the metadata is malformed
+         */
+        static Block read(DataInput is, long footerOffset, long limit) throws IOException {
+            final Object key = readValue(is, limit);
+            final Class<?> type = typeOf(readString(is, limit));
+            final int ordinal = is.readByte();
+            final int length = is.readInt();
+            final long offset = is.readLong();
+            final long byteLength = is.readLong();
+            final long nullOffset = is.readLong();
+            final Encoding encoding = ordinal >= 0 && ordinal < Encoding.values().length ? Encoding.values()[ordinal] : null;
+            if (encoding != encoding(type)) {
+                throw new IOException("Invalid encoding " + ordinal + " for " + type.getName() + " in Morpheus format");
+            } else if (length < 0 || offset < HEADER_LENGTH || byteLength < 0 || byteLength > footerOffset - offset) {
+                throw new IOException("Block at offset " + offset + " with " + byteLength + " bytes lies outside the data section");
+            } else if (width(encoding) > 0 && byteLength != (long)length * width(encoding)) {
+                throw new IOException("Block at offset " + offset + " has " + byteLength + " bytes for " + length + " values");
+            } else if (nullOffset != -1L && !isValidNulls(encoding, length, offset + byteLength, nullOffset, footerOffset)) {
+                throw new IOException("Null bitmap at offset " + nullOffset + " lies outside the data section");
+            } else {
+                return new Block(key, type, encoding, coding(type), length, offset, byteLength, nullOffset);
+            }
+        }
+
+        /**
+         * Returns true if a null bitmap is permitted for the encoding and lies between its block and the footer
+         * @param encoding      the block encoding
+         * @param length        the number of values in the block
+         * @param blockEnd      the offset of the end of the block
+         * @param nullOffset    the offset of the null bitmap
+         * @param footerOffset  the offset of the footer, which is the end of the data section
+         * @return              true if the null bitmap is valid
+         */
+        private static boolean isValidNulls(Encoding encoding, int length, long blockEnd, long nullOffset, long footerOffset) {
+            final boolean primitive = encoding == Encoding.INT || encoding == Encoding.LONG;
+            return primitive && nullOffset >= blockEnd && nullWords(length) * 8L <= footerOffset - nullOffset;
+        }
+    }
+}
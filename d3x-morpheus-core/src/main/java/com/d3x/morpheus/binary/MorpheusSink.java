@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.coding.Coding;
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.coding.LongCoding;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameColumn;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.util.Resource;
+
+/**
+ * A sink that writes a DataFrame to the Morpheus columnar binary format, which can be read back with MorpheusSource.
+ *
+ * <p>The frame is written in a single sequential pass, so the resource can be a file or any output stream. Columns of
+ * booleans, ints, longs, doubles and types that have an IntCoding or LongCoding are written as primitive blocks which
+ * are memory mapped when read, while strings, zoned date times and objects are written as tagged values. Nulls in int
+ * and long columns are recorded in a bitmap that follows the block.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+@lombok.AllArgsConstructor()
+public class MorpheusSink<R,C> {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    @lombok.NonNull
+    private Resource resource;
+    @lombok.NonNull
+    private DataFrame<R,C> frame;
+
+
+    /**
+     * Writes the DataFrame to the underlying resource
+     * @throws DataFrameException   if the write fails
+     */
+    public void apply() {
+        try (OutputStream os = resource.toOutputStream()) {
+            final Writer writer = new Writer(Channels.newChannel(os));
+            final List<MorpheusFormat.Block> blocks = new ArrayList<>(frame.colCount() + 1);
+            writer.putBytes(MorpheusFormat.MAGIC);
+            writer.putInt(MorpheusFormat.VERSION);
+            writer.align();
+            final Array<R> rowKeys = frame.rows().keyArray();
+            blocks.add(writer.write(null, frame.rows().keyClass(), rowKeys.length(), new Values() {
+                public boolean isNull(int index) { return rowKeys.isNull(index); }
+                public boolean getBoolean(int index) { return rowKeys.getBoolean(index); }
+                public int getInt(int index) { return rowKeys.getInt(index); }
+                public long getLong(int index) { return rowKeys.getLong(index); }
+                public double getDouble(int index) { return rowKeys.getDouble(index); }
+                public Object getValue(int index) { return rowKeys.getValue(index); }
+            }));
+            for (int j=0; j<frame.colCount(); ++j) {
+                final int colOrdinal = j;
+                final C colKey = frame.cols().key(j);
+                final Class<?> type = frame.cols().type(colKey);
+                final DataFrameColumn<R,C> column = frame.col(colKey);
+                blocks.add(writer.write(colKey, type, frame.rowCount(), new Values() {
+                    public boolean isNull(int index) { return column.isNullAt(index); }
+                    public boolean getBoolean(int index) { return frame.getBooleanAt(index, colOrdinal); }
+                    public int getInt(int index) { return frame.getIntAt(index, colOrdinal); }
+                    public long getLong(int index) { return frame.getLongAt(index, colOrdinal); }
+                    public double getDouble(int index) { return frame.getDoubleAt(index, colOrdinal); }
+                    public Object getValue(int index) { return frame.getValueAt(index, colOrdinal); }
+                }));
+            }
+            writer.writeFooter(blocks);
+            writer.flush();
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new DataFrameException("Failed to write DataFrame in Morpheus format to " + resource, ex);
+        }
+    }
+
+
+    /**
+     * An interface to typed access of the values to be written to a block
+     */
+    private interface Values {
+
+        boolean isNull(int index);
+
+        boolean getBoolean(int index);
+
+        int getInt(int index);
+
+        long getLong(int index);
+
+        double getDouble(int index);
+
+        Object getValue(int index);
+    }
+
+
+    /**
+     * A buffered writer over a channel that tracks the offset of each block written
+     */
+    private static class Writer {
+
+        private long position;
+        private ByteBuffer buffer;
+        private WritableByteChannel channel;
+
+        /**
+         * Constructor
+         * @param channel   the channel to write to
+         */
+        Writer(WritableByteChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+
+        /**
+         * Writes a data block with the values provided and returns its metadata
+         * @param key       the axis key for block, null for row keys
+         * @param type      the data type for the block
+         * @param length    the number of values to write
+         * @param values    the values to write
+         * @return          the block metadata
+         * @throws IOException  if the write fails
+         */
+        @SuppressWarnings("unchecked")
+        MorpheusFormat.Block write(Object key, Class<?> type, int length, Values values) throws IOException {
+            if (!MorpheusFormat.isSupported(type)) {
+                throw new DataFrameException("Data type " + type.getName() + " cannot be written in Morpheus format");
+            }
+            this.align();
+            final long offset = position;
+            final MorpheusFormat.Encoding encoding = MorpheusFormat.encoding(type);
+            final Coding<?> coding = MorpheusFormat.coding(type);
+            long[] nulls = null;
+            switch (encoding) {
+                case BOOLEAN:
+                    for (int i=0; i<length; ++i) {
+                        this.ensure(2).putShort(values.getBoolean(i) ? (short)1 : (short)0);
+                    }
+                    break;
+                case INT:
+                    for (int i=0; i<length; ++i) {
+                        this.ensure(4).putInt(values.getInt(i));
+                        if (values.isNull(i)) {
+                            nulls = nulls != null ? nulls : new long[MorpheusFormat.nullWords(length)];
+                            nulls[i >>> 6] |= 1L << i;
+                        }
+                    }
+                    break;
+                case LONG:
+                    for (int i=0; i<length; ++i) {
+                        this.ensure(8).putLong(values.getLong(i));
+                        if (values.isNull(i)) {
+                            nulls = nulls != null ? nulls : new long[MorpheusFormat.nullWords(length)];
+                            nulls[i >>> 6] |= 1L << i;
+                        }
+                    }
+                    break;
+                case DOUBLE:
+                    for (int i=0; i<length; ++i) {
+                        this.ensure(8).putDouble(values.getDouble(i));
+                    }
+                    break;
+                case INT_CODED:
+                    final IntCoding<Object> intCoding = (IntCoding<Object>)coding;
+                    for (int i=0; i<length; ++i) {
+                        this.ensure(4).putInt(intCoding.getCode(values.getValue(i)));
+                    }
+                    break;
+                case LONG_CODED:
+                    final LongCoding<Object> longCoding = (LongCoding<Object>)coding;
+                    for (int i=0; i<length; ++i) {
+                        this.ensure(8).putLong(longCoding.getCode(values.getValue(i)));
+                    }
+                    break;
+                default:
+                    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    try (DataOutputStream os = new DataOutputStream(bytes)) {
+                        for (int i=0; i<length; ++i) {
+                            MorpheusFormat.writeValue(os, values.getValue(i));
+                        }
+                    }
+                    this.putBytes(bytes.toByteArray());
+                    break;
+            }
+            final long byteLength = position - offset;
+            final long nullOffset = nulls != null ? writeNulls(nulls) : -1L;
+            return new MorpheusFormat.Block(key, type, encoding, coding, length, offset, byteLength, nullOffset);
+        }
+
+        /**
+         * Writes a null bitmap at the next block alignment boundary
+         * @param nulls the bitmap words, where a set bit marks a null entry
+         * @return      the offset of the bitmap
+         * @throws IOException  if the write fails
+         */
+        private long writeNulls(long[] nulls) throws IOException {
+            this.align();
+            final long offset = position;
+            for (long word : nulls) {
+                this.ensure(8).putLong(word);
+            }
+            return offset;
+        }
+
+        /**
+         * Writes the footer describing all blocks, followed by the offset of the footer
+         * @param blocks    the blocks written to the file
+         * @throws IOException  if the write fails
+         */
+        void writeFooter(List<MorpheusFormat.Block> blocks) throws IOException {
+            this.align();
+            final long offset = position;
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream os = new DataOutputStream(bytes)) {
+                os.writeInt(blocks.size());
+                for (MorpheusFormat.Block block : blocks) {
+                    block.write(os);
+                }
+            }
+            this.putBytes(bytes.toByteArray());
+            this.ensure(8).putLong(offset);
+        }
+
+        /**
+         * Writes the bytes to the channel
+         * @param bytes the bytes to write
+         * @throws IOException  if the write fails
+         */
+        void putBytes(byte[] bytes) throws IOException {
+            int index = 0;
+            while (index < bytes.length) {
+                final int count = Math.min(bytes.length - index, BUFFER_SIZE);
+                this.ensure(count).put(bytes, index, count);
+                index += count;
+            }
+        }
+
+        /**
+         * Writes an int to the channel
+         * @param value the value to write
+         * @throws IOException  if the write fails
+         */
+        void putInt(int value) throws IOException {
+            this.ensure(4).putInt(value);
+        }
+
+        /**
+         * Pads the output with zeros up to the next block alignment boundary
+         * @throws IOException  if the write fails
+         */
+        void align() throws IOException {
+            final long aligned = MorpheusFormat.align(position);
+            while (position < aligned) {
+                this.ensure(1).put((byte)0);
+            }
+        }
+
+        /**
+         * Ensures the buffer has room for the number of bytes specified, and advances the position
+         * @param bytes the number of bytes about to be written
+         * @return      the buffer to write to
+         * @throws IOException  if the write fails
+         */
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                this.flush();
+            }
+            this.position += bytes;
+            return buffer;
+        }
+
+        /**
+         * Flushes any buffered bytes to the channel
+         * @throws IOException  if the write fails
+         */
+        void flush() throws IOException {
+            this.buffer.flip();
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.binary;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.array.coding.Coding;
+import com.d3x.morpheus.array.mapped.MappedArrayConstructor;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.util.Resource;
+import com.d3x.morpheus.util.compress.Compression;
+
+/**
+ * A source that reads a DataFrame from the Morpheus columnar binary format written by MorpheusSink.
+ *
+ * <p>Primitive and coded blocks are not parsed, but are exposed as memory mapped arrays over the file itself, so the
+ * cost of opening a file is proportional to the number of columns rather than the number of cells. The mappings are
+ * copy-on-write, so modifying the resulting frame never modifies the file. A resource that is not a file, or that is
+ * compressed, is first decompressed to a temporary file so that it can be mapped, and that file is deleted once the
+ * frame has been mapped. Int and long blocks that contain nulls are read into nullable arrays in memory.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+@lombok.AllArgsConstructor()
+public class MorpheusSource {
+
+    @lombok.NonNull
+    private Resource resource;
+
+
+    /**
+     * Returns a DataFrame read from the underlying resource
+     * @param <R>   the row key type
+     * @param <C>   the column key type
+     * @return      the DataFrame read from resource
+     * @throws DataFrameException   if the read fails
+     */
+    @SuppressWarnings("unchecked")
+    public <R,C> DataFrame<R,C> read() {
+        File temp = null;
+        try {
+            final File file;
+            if (resource.isFile() && resource.getCompression() == Compression.NONE) {
+                file = resource.asFile();
+            } else {
+                temp = File.createTempFile("morpheus", ".dat");
+                file = copyTo(temp);
+            }
+            final List<MorpheusFormat.Block> blocks = readFooter(file);
+            final Array<R> rowKeys = (Array<R>)toArray(file, blocks.get(0));
+            final List<Array<?>> arrays = new ArrayList<>(blocks.size() - 1);
+            for (int i=1; i<blocks.size(); ++i) {
+                arrays.add(toArray(file, blocks.get(i)));
+            }
+            final Class<C> colType = (Class<C>)colType(blocks);
+            return DataFrame.of(rowKeys, colType, columns -> {
+                for (int i=1; i<blocks.size(); ++i) {
+                    final C colKey = (C)blocks.get(i).key;
+                    columns.add(colKey, arrays.get(i-1));
+                }
+            });
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new DataFrameException("Failed to read DataFrame in Morpheus format from " + resource, ex);
+        } finally {
+            if (temp != null && !temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+
+
+    /**
+     * Decompresses the resource into the file specified, so that it can be memory mapped
+     * The mappings remain valid once the file is deleted, except on platforms that refuse to delete a mapped file
+     * @param file  the file to copy the resource to
+     * @return      the same as arg
+     * @throws IOException  if copying the resource fails
+     */
+    private File copyTo(File file) throws IOException {
+        try (InputStream is = resource.toInputStream()) {
+            Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+
+    /**
+     * Returns the block metadata read from the header and footer of the file
+     * @param file  the file to read
+     * @return      the block metadata, with the row key block first
+     * @throws IOException  if the read fails or the footer is malformed
+     */
+    private List<MorpheusFormat.Block> readFooter(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            final FileChannel channel = raf.getChannel();
+            final long size = channel.size();
+            if (size < MorpheusFormat.HEADER_LENGTH + 8) {
+                throw new DataFrameException("The resource is not in Morpheus format: " + resource);
+            }
+            final ByteBuffer header = read(channel, 0L, MorpheusFormat.HEADER_LENGTH);
+            final byte[] magic = Arrays.copyOf(header.array(), MorpheusFormat.MAGIC.length);
+            final int version = header.getInt(MorpheusFormat.MAGIC.length);
+            if (!Arrays.equals(magic, MorpheusFormat.MAGIC)) {
+                throw new DataFrameException("The resource is not in Morpheus format: " + resource);
+            } else if (version != MorpheusFormat.VERSION) {
+                throw new DataFrameException("Unsupported Morpheus format version " + version + " in " + resource);
+            } else {
+                final long footerOffset = read(channel, size - 8, 8).getLong(0);
+                final long footerLength = size - 8 - footerOffset;
+                if (footerOffset < MorpheusFormat.HEADER_LENGTH || footerLength < 4 || footerLength > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid footer offset " + footerOffset + " for file of " + size + " bytes");
+                }
+                final ByteBuffer footer = read(channel, footerOffset, (int)footerLength);
+                final DataInputStream is = new DataInputStream(new ByteArrayInputStream(footer.array()));
+                final int count = is.readInt();
+                if (count < 1 || count > footerLength) {
+                    throw new IOException("Invalid block count in Morpheus format: " + count);
+                }
+                final List<MorpheusFormat.Block> blocks = new ArrayList<>(count);
+                for (int i=0; i<count; ++i) {
+                    final MorpheusFormat.Block block = MorpheusFormat.Block.read(is, footerOffset, footerLength);
+                    if (i > 0 && block.length != blocks.get(0).length) {
+                        throw new IOException("Column block " + block.key + " has " + block.length + " values, expected " + blocks.get(0).length);
+                    } else {
+                        blocks.add(block);
+                    }
+                }
+                return blocks;
+            }
+        }
+    }
+
+
+    /**
+     * Returns a buffer filled with the bytes at the position in the channel specified
+     * @param channel   the channel to read from
+     * @param position  the position to read from
+     * @param length    the number of bytes to read
+     * @return          the buffer of bytes read
+     * @throws IOException  if the read fails or the channel ends early
+     */
+    private ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            final int count = channel.read(buffer, position + buffer.position());
+            if (count < 0) {
+                throw new IOException("Unexpected end of file at position " + (position + buffer.position()));
+            }
+        }
+        return buffer;
+    }
+
+
+    /**
+     * Returns the column key type given the column blocks
+     * @param blocks    the block metadata
+     * @return          the column key type
+     */
+    private Class<?> colType(List<MorpheusFormat.Block> blocks) {
+        Class<?> colType = null;
+        for (int i=1; i<blocks.size(); ++i) {
+            final Class<?> keyType = blocks.get(i).key.getClass();
+            if (colType == null) {
+                colType = keyType;
+            } else if (colType != keyType) {
+                return Object.class;
+            }
+        }
+        return colType != null ? colType : Object.class;
+    }
+
+
+    /**
+     * Returns a nullable array with the values of the mapped view, and nulls where set in the null bitmap of the block
+     * @param file      the file to read from
+     * @param block     the block metadata
+     * @param view      the memory mapped view of the block values
+     * @return          the nullable array
+     * @throws IOException  if the read fails
+     */
+    private Array<Object> toNullable(File file, MorpheusFormat.Block block, Array<Object> view) throws IOException {
+        final Array<Object> array = Array.ofNullable(view.type(), block.length);
+        array.update(0, view, 0, block.length);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            final int words = MorpheusFormat.nullWords(block.length);
+            final ByteBuffer nulls = read(raf.getChannel(), block.nullOffset, words * 8);
+            for (int i=0; i<words; ++i) {
+                long word = nulls.getLong(i * 8);
+                while (word != 0L) {
+                    final int index = i * 64 + Long.numberOfTrailingZeros(word);
+                    if (index < block.length) {
+                        array.setValue(index, null);
+                    }
+                    word &= word - 1;
+                }
+            }
+        }
+        return array;
+    }
+
+
+    /**
+     * Returns an array for the block specified, memory mapped where possible
+     * @param file      the file to read from
+     * @param block     the block metadata
+     * @return          the array for block
+     * @throws IOException  if the read fails
+     */
+    @SuppressWarnings("unchecked")
+    private Array<?> toArray(File file, MorpheusFormat.Block block) throws IOException {
+        final Class<Object> type = (Class<Object>)block.type;
+        final Object defaultValue = ArrayType.defaultValue(type);
+        switch (block.encoding) {
+            case BOOLEAN:
+            case INT:
+            case LONG:
+            case DOUBLE:
+            case INT_CODED:
+            case LONG_CODED:
+                final Coding<Object> coding = (Coding<Object>)block.coding;
+                final Array<Object> view = MappedArrayConstructor.view(type, block.length, defaultValue, coding, file, block.offset);
+                return block.nullOffset < 0 ? view : toNullable(file, block, view);
+            default:
+                final Array<Object> array = Array.of(type, block.length);
+                try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                    final FileChannel channel = raf.getChannel().position(block.offset);
+                    final DataInputStream is = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                    for (int i=0; i<block.length; ++i) {
+                        array.setValue(i, MorpheusFormat.readValue(is, block.byteLength));
+                    }
+                }
+                return array;
+        }
+    }
+}
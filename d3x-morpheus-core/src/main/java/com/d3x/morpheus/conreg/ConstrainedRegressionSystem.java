@@ -175,7 +175,7 @@ public final class ConstrainedRegressionSystem<R,C> {
     }
 
     private D3xMatrix computeTwoATW() {
-        return designMatrix.transpose().times(D3xMatrix.diagonal(weightVector.times(2.0)));
+        return designMatrix.transposeTimes(D3xMatrix.diagonal(weightVector.times(2.0)));
     }
 
     private D3xMatrix buildAugmentedMatrix() {
@@ -163,7 +163,7 @@ public final class RegressionConstraintSet<C> {
             return D3xMatrix.empty();
 
         List<String> rowKeys = getConstraintNames();
-        D3xMatrix matrix = D3xMatrix.dense(rowKeys.size(), columnKeys.size());
+        D3xMatrix matrix = D3xMatrix.sparse(rowKeys.size(), columnKeys.size());
 
         for (int row = 0; row < matrix.nrow(); ++row) {
             DoubleSeries<C> terms = constraintMap.get(rowKeys.get(row)).getTerms();
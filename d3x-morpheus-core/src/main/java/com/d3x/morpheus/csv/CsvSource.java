@@ -92,6 +92,10 @@ public interface CsvSource {
         private Predicate<Integer> colIndexPredicate;
         /** The optional column name mapping function */
         private ObjectIntBiFunction<String,String> columnNameMapping;
+        /** True to parse file resources in concurrent chunks split at line boundaries */
+        private boolean parallel;
+        /** The optional predicate on column names to select String columns to store as categorical arrays */
+        private Predicate<String> categoricalPredicate;
 
 
         /**
@@ -143,6 +147,14 @@ public interface CsvSource {
             this.setColIndexPredicate(Predicates.in(columns).negate());
         }
 
+        /**
+         * Stores the specified String columns as categorical arrays, which hold each distinct value once in a dictionary
+         * @param columns   the column names to store as categorical arrays
+         */
+        public void setCategoricalColumns(String... columns) {
+            this.setCategoricalPredicate(Predicates.in(columns));
+        }
+
         /**
          * Sets a parser for one or more columns
          * @param colNameRegex  the column name regular expression
@@ -201,6 +213,15 @@ public interface CsvSource {
             }
         }
 
+        /**
+         * Returns true if the column should be stored as a categorical array should it contain String values
+         * @param colName   the column name
+         * @return          true if column is categorical
+         */
+        boolean isCategorical(String colName) {
+            return categoricalPredicate != null && categoricalPredicate.test(colName);
+        }
+
         /**
          * Returns true if the column should be included in result
          * @param colName   the column name
@@ -16,28 +16,40 @@
 package com.d3x.morpheus.csv;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.dense.DenseArrayConstructor;
 import com.d3x.morpheus.array.ArrayType;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.ForkJoinContext;
 import com.d3x.morpheus.util.IO;
 import com.d3x.morpheus.util.Resource;
+import com.d3x.morpheus.util.compress.Compression;
 import com.d3x.morpheus.util.http.HttpClient;
 import com.d3x.morpheus.util.text.Formats;
 import com.d3x.morpheus.util.text.parser.Parser;
@@ -56,6 +68,9 @@ import com.univocity.parsers.csv.CsvParserSettings;
 @lombok.AllArgsConstructor()
 public class CsvSourceDefault implements CsvSource {
 
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final Set<ArrayType> NUMERIC_TYPES = EnumSet.of(ArrayType.INTEGER, ArrayType.LONG, ArrayType.DOUBLE);
+
     @lombok.NonNull
     private final Resource resource;
 
@@ -71,7 +86,7 @@ public class CsvSourceDefault implements CsvSource {
             var options = new Options();
             configurator.accept(options);
             switch (resource.getType()) {
-                case FILE:          return parse(rowType, options, resource.toInputStream());
+                case FILE:          return isChunked(options) ? parseChunks(rowType, options, resource.asFile()) : parse(rowType, options, resource.toInputStream());
                 case URL:           return parse(rowType, options, resource.asURL());
                 case INPUT_STREAM:  return parse(rowType, options, resource.toInputStream());
                 default:    throw new DataFrameException("Unsupported resource specified in CSVRequest: " + resource);
@@ -84,6 +99,16 @@ public class CsvSourceDefault implements CsvSource {
     }
 
 
+    /**
+     * Returns true if the file resource should be parsed in parallel chunks, which requires uncompressed content
+     * @param options   the CSV options
+     * @return          true to parse the file in parallel chunks
+     */
+    private boolean isChunked(Options options) {
+        return options.isParallel() && resource.getCompression() == Compression.NONE;
+    }
+
+
     /**
      * Returns a DataFrame parsed from the url specified
      * @param url   the url to parse
@@ -93,12 +118,12 @@ public class CsvSourceDefault implements CsvSource {
     private <R> DataFrame<R,String> parse(Class<R> rowType, Options options, URL url) throws IOException {
         Objects.requireNonNull(url, "The URL cannot be null");
         if (!url.getProtocol().startsWith("http")) {
-            return parse(rowType, options, url.openStream());
+            return parse(rowType, options, resource.toInputStream());
         } else {
             return HttpClient.getDefault().<DataFrame<R,String>>doGet(httpRequest -> {
                 httpRequest.setUrl(url);
                 httpRequest.setResponseHandler(response -> {
-                    try (InputStream stream = response.getStream()) {
+                    try (InputStream stream = resource.decode(response.getStream(), null)) {
                         var frame = parse(rowType, options, stream);
                         return Optional.ofNullable(frame);
                     } catch (IOException ex) {
@@ -140,6 +165,216 @@ public class CsvSourceDefault implements CsvSource {
     }
 
 
+    /**
+     * Returns a DataFrame parsed from the file by splitting it at line boundaries and parsing the chunks concurrently
+     * <p>This falls back to a sequential parse if the charset is not ASCII compatible, if a row limit is set, if a quoted
+     * value spans multiple lines, or if the types inferred for a column in different chunks cannot be reconciled</p>
+     * @param rowType   the row type
+     * @param options   the CSV options
+     * @param file      the file to parse
+     * @return          the DataFrame parsed from file
+     * @throws IOException      if there file read error
+     */
+    private <R> DataFrame<R,String> parseChunks(Class<R> rowType, Options options, File file) throws IOException {
+        var charset = options.getCharset();
+        var asciiCompatible = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1);
+        if (!asciiCompatible || options.getReadRowCount() < Integer.MAX_VALUE) {
+            return parse(rowType, options, resource.toInputStream());
+        } else {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                var channel = raf.getChannel();
+                var size = channel.size();
+                var start = 0L;
+                for (int i=0; i<options.getSkipRowCount(); ++i) {
+                    start = nextLine(channel, start, size);
+                }
+                String[] headers = null;
+                if (options.isHeader()) {
+                    var end = nextLine(channel, start, size);
+                    headers = parseHeader(channel, start, end, options);
+                    start = end;
+                }
+                var parallelism = ForkJoinContext.getParallelism();
+                var chunkSize = Math.max(MIN_CHUNK_SIZE, (size - start) / (parallelism * 4L));
+                var chunks = new ArrayList<CsvChunk<R>>();
+                while (start < size) {
+                    var end = nextLine(channel, Math.min(start + chunkSize, size) - 1, size);
+                    chunks.add(new CsvChunk<>(channel, start, end, options, headers));
+                    start = end;
+                }
+                ForkJoinContext.invoke(new CsvChunkTask<>(chunks, 0, chunks.size()));
+                if (chunks.stream().anyMatch(chunk -> chunk.multiline)) {
+                    return parse(rowType, options, resource.toInputStream());
+                } else {
+                    var frame = this.<R>merge(options, chunks);
+                    return frame != null ? frame : parse(rowType, options, resource.toInputStream());
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns the file position immediately after the next line feed at or after the position specified
+     * @param channel   the file channel
+     * @param position  the position to start searching from
+     * @param size      the size of the file
+     * @return          the position after the next line feed, or the file size if none
+     * @throws IOException  if there file read error
+     */
+    private long nextLine(FileChannel channel, long position, long size) throws IOException {
+        var buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            var count = channel.read(buffer, position);
+            for (int i=0; i<count; ++i) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(count, 0);
+        }
+        return size;
+    }
+
+
+    /**
+     * Returns the column headers parsed from the line between the file positions specified
+     * @param channel   the file channel
+     * @param start     the start position of header line
+     * @param end       the end position of header line
+     * @param options   the CSV options
+     * @return          the column headers
+     * @throws IOException  if there file read error
+     */
+    private String[] parseHeader(FileChannel channel, long start, long end, Options options) throws IOException {
+        var buffer = ByteBuffer.allocate((int)(end - start));
+        while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0);
+        var line = new String(buffer.array(), 0, buffer.position(), options.getCharset());
+        var settings = new CsvParserSettings();
+        settings.getFormat().setDelimiter(options.getDelimiter());
+        settings.setIgnoreTrailingWhitespaces(true);
+        settings.setIgnoreLeadingWhitespaces(true);
+        settings.setMaxColumns(options.getMaxColumns());
+        var headers = new CsvParser(settings).parseLine(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        return headers != null ? headers : new String[0];
+    }
+
+
+    /**
+     * Returns a DataFrame that concatenates the columns parsed from each chunk, or null if column types cannot be reconciled
+     * @param options   the CSV options
+     * @param chunks    the parsed chunks in file order
+     * @return          the combined DataFrame, or null if chunks are not compatible
+     */
+    private <R> DataFrame<R,String> merge(Options options, List<CsvChunk<R>> chunks) {
+        var rowCount = 0;
+        List<String> names = null;
+        var columns = new ArrayList<List<Array<?>>>();
+        for (CsvChunk<R> chunk : chunks) {
+            if (chunk.processor.rowCounter > 0) {
+                var chunkNames = chunk.processor.names();
+                if (names == null) {
+                    names = chunkNames;
+                    chunkNames.forEach(name -> columns.add(new ArrayList<>()));
+                } else if (!names.equals(chunkNames)) {
+                    return null;
+                }
+                var arrays = chunk.processor.arrays();
+                for (int i=0; i<arrays.size(); ++i) {
+                    columns.get(i).add(arrays.get(i));
+                }
+                rowCount += chunk.processor.rowCounter;
+            }
+        }
+        var arrays = new ArrayList<Array<?>>(columns.size());
+        for (List<Array<?>> column : columns) {
+            var array = concat(column);
+            if (array == null) {
+                return null;
+            } else {
+                arrays.add(array);
+            }
+        }
+        return createFrame(options, rowCount, names, arrays);
+    }
+
+
+    /**
+     * Returns the concatenation of the arrays parsed for a column, widening numeric types where chunks disagree
+     * @param arrays    the arrays for a column in file order
+     * @return          the concatenated array, or null if the types cannot be reconciled
+     */
+    @SuppressWarnings("unchecked")
+    private Array<?> concat(List<Array<?>> arrays) {
+        var types = arrays.stream().map(Array::typeCode).collect(Collectors.toSet());
+        if (types.size() == 1) {
+            var type = (Class<Object>)arrays.get(0).type();
+            return Array.concat(type, arrays.stream().map(v -> (Array<Object>)v).collect(Collectors.toList()));
+        } else if (NUMERIC_TYPES.containsAll(types)) {
+            var length = arrays.stream().mapToInt(Array::length).sum();
+            var widest = types.contains(ArrayType.DOUBLE) ? ArrayType.DOUBLE : ArrayType.LONG;
+            var nullable = widest == ArrayType.LONG && arrays.stream().anyMatch(DenseArrayConstructor::isNullable);
+            var result = widest == ArrayType.DOUBLE ? Array.of(Double.class, length) : nullable ? Array.ofNullable(Long.class, length) : Array.of(Long.class, length);
+            var offset = 0;
+            for (Array<?> array : arrays) {
+                for (int i=0; i<array.length(); ++i) {
+                    if (array.isNull(i)) {
+                        result.setValue(offset + i, null);
+                    } else if (widest == ArrayType.DOUBLE) {
+                        result.setDouble(offset + i, array.typeCode() == ArrayType.LONG ? array.getLong(i) : array.getDouble(i));
+                    } else {
+                        result.setLong(offset + i, array.typeCode() == ArrayType.LONG ? array.getLong(i) : array.getInt(i));
+                    }
+                }
+                offset += array.length();
+            }
+            return result;
+        } else {
+            return null;
+        }
+    }
+
+
+    /**
+     * Returns a DataFrame for the parsed columns, using a row key column if configured
+     * @param options   the CSV options
+     * @param rowCount  the number of rows parsed
+     * @param names     the names of the parsed columns
+     * @param arrays    the arrays of the parsed columns
+     * @return          the newly created DataFrame
+     */
+    @SuppressWarnings("unchecked")
+    private <R> DataFrame<R,String> createFrame(Options options, int rowCount, List<String> names, List<Array<?>> arrays) {
+        if (rowCount == 0) {
+            return DataFrame.empty();
+        } else if (options.getRowKeyColumnName() != null) {
+            var rowKeyColumn = options.getRowKeyColumnName();
+            var rowKeyIndex = names.indexOf(rowKeyColumn);
+            if (rowKeyIndex < 0) throw new DataFrameException("No column in content matching: " + rowKeyColumn);
+            var rowKeys = (Array<R>)arrays.get(rowKeyIndex);
+            return DataFrame.of(rowKeys, String.class, cols -> IntStream.range(0, names.size()).forEach(i -> {
+                if (!names.get(i).equals(rowKeyColumn)) {
+                    cols.add(names.get(i), arrays.get(i));
+                }
+            }));
+        } else if (options.getRowKeyColumnIndex() != null) {
+            var rowKeyIndex = options.getRowKeyColumnIndex().intValue();
+            var rowKeys = (Array<R>)arrays.get(rowKeyIndex);
+            return DataFrame.of(rowKeys, String.class, cols -> IntStream.range(0, names.size()).forEach(i -> {
+                if (!names.get(i).equals(names.get(rowKeyIndex))) {
+                    cols.add(names.get(i), arrays.get(i));
+                }
+            }));
+        } else {
+            var rowKeys = (Range<R>)Range.of(0, rowCount);
+            return DataFrame.of(rowKeys, String.class, cols -> IntStream.range(0, names.size()).forEach(i -> {
+                cols.add(names.get(i), arrays.get(i));
+            }));
+        }
+    }
+
+
 
 
 
@@ -156,6 +391,8 @@ public class CsvSourceDefault implements CsvSource {
         private long endTime;
         private List<CsvColumn> columns;
         private Options options;
+        private String[] headers;
+        private boolean chunked;
         private Predicate<String[]> rowPredicate;
 
         /**
@@ -163,7 +400,19 @@ public class CsvSourceDefault implements CsvSource {
          * @param options   the options
          */
         CsvProcessor(Options options) {
+            this(options, null, false);
+        }
+
+        /**
+         * Constructor
+         * @param options   the options
+         * @param headers   the headers parsed ahead of time, null to use headers from parsing context
+         * @param chunked   true if this processor parses one of several chunks of content
+         */
+        CsvProcessor(Options options, String[] headers, boolean chunked) {
             this.options = options;
+            this.headers = headers;
+            this.chunked = chunked;
             this.rowPredicate = options.getRowPredicate();
         }
 
@@ -175,9 +424,9 @@ public class CsvSourceDefault implements CsvSource {
          */
         private void initColumns(int colCount, ParsingContext context) {
             this.columns = new ArrayList<>();
-            var headers = options.isHeader() ? context.headers() : IntStream.range(0, colCount).mapToObj(i -> "Column-" + i).toArray(String[]::new);
+            var headers = this.headers != null ? this.headers : options.isHeader() ? context.headers() : IntStream.range(0, colCount).mapToObj(i -> "Column-" + i).toArray(String[]::new);
             for (int colIndex=0; colIndex<colCount; ++colIndex) {
-                var colName = Optional.ofNullable(headers[colIndex]).orElse(String.format("Column-%s", colIndex));
+                var colName = Optional.ofNullable(colIndex < headers.length ? headers[colIndex] : null).orElse(String.format("Column-%s", colIndex));
                 if (options.include(colName, colIndex)) {
                     var formats = options.getFormats();
                     var buffer = options.getReadBatchSize();
@@ -186,7 +435,8 @@ public class CsvSourceDefault implements CsvSource {
                     if (parser == null){
                         parser = options.getFormats().getParser(colIndex);
                     }
-                    var column = new CsvColumn(colName, colIndex, capacity, buffer, formats, parser);
+                    var categorical = options.isCategorical(colName);
+                    var column = new CsvColumn(colName, colIndex, capacity, buffer, formats, parser, categorical);
                     this.columns.add(column);
                 }
             }
@@ -218,7 +468,7 @@ public class CsvSourceDefault implements CsvSource {
                 }
                 if (rowPredicate == null || rowPredicate.test(row)) {
                     this.rowCounter++;
-                    if (rowCounter % 10000 == 0) {
+                    if (rowCounter % 10000 == 0 && !chunked) {
                         var time = System.currentTimeMillis() - startTime;
                         IO.println("Loaded " + rowCounter + " rows in " + time + " millis");
                     }
@@ -234,40 +484,34 @@ public class CsvSourceDefault implements CsvSource {
         }
 
 
+        /**
+         * Returns the names of the columns parsed by this handler
+         * @return      the column names
+         */
+        private List<String> names() {
+            return columns.stream().map(v -> v.name).collect(Collectors.toList());
+        }
+
+
+        /**
+         * Returns the arrays of the columns parsed by this handler
+         * @return      the column arrays
+         */
+        private List<Array<?>> arrays() {
+            return columns.stream().map(CsvColumn::toArray).collect(Collectors.toList());
+        }
+
+
         /**
          * Builds the data frame from the contents in this handler
          * @return      the newly built data frame
          */
-        @SuppressWarnings("unchecked")
         private DataFrame<R,String> build() {
             try {
                 if (rowCounter == 0) {
                     return DataFrame.empty();
-                } else if (options.getRowKeyColumnName() != null) {
-                    var rowKeyColumn = options.getRowKeyColumnName();
-                    var rowColumn = columns.stream().filter(v -> v.name.equals(rowKeyColumn)).findFirst().orElse(null);
-                    if (rowColumn == null) throw new DataFrameException("No column in content matching: " + rowKeyColumn);
-                    var rowKeys = (Array<R>)rowColumn.toArray();
-                    var selection = columns.stream().filter(v -> !v.name.equals(rowKeyColumn));
-                    return DataFrame.of(rowKeys, String.class, cols -> selection.forEach(v -> {
-                        var values = v.toArray();
-                        cols.add(v.name, values);
-                    }));
-                } else if (options.getRowKeyColumnIndex() != null) {
-                    var rowKeyIndex = options.getRowKeyColumnIndex();
-                    var rowColumn = columns.get(rowKeyIndex);
-                    var rowKeys = (Array<R>)rowColumn.toArray();
-                    var selection = columns.stream().filter(v -> !v.name.equals(rowColumn.name));
-                    return DataFrame.of(rowKeys, String.class, cols -> selection.forEach(v -> {
-                        var values = v.toArray();
-                        cols.add(v.name, values);
-                    }));
                 } else {
-                    var rowKeys = (Range<R>)Range.of(0, rowCounter);
-                    return DataFrame.of(rowKeys, String.class, cols -> columns.forEach(v -> {
-                        var values = v.toArray();
-                        cols.add(v.name, values);
-                    }));
+                    return createFrame(options, rowCounter, names(), arrays());
                 }
             } catch (DataFrameException ex) {
                 throw ex;
@@ -279,6 +523,175 @@ public class CsvSourceDefault implements CsvSource {
 
 
 
+    /**
+     * A chunk of a file between two line boundaries that is parsed independently of other chunks
+     */
+    private class CsvChunk<R> {
+
+        private long start;
+        private long end;
+        private boolean multiline;
+        private Options options;
+        private FileChannel channel;
+        private CsvProcessor<R> processor;
+
+        /**
+         * Constructor
+         * @param channel   the file channel
+         * @param start     the start position of chunk, which is the start of a line
+         * @param end       the end position of chunk, which is the end of a line
+         * @param options   the CSV options
+         * @param headers   the column headers, null if content has no header
+         */
+        CsvChunk(FileChannel channel, long start, long end, Options options, String[] headers) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.options = options;
+            this.processor = new CsvProcessor<>(options, headers, true);
+        }
+
+
+        /**
+         * Parses the rows in this chunk, recording whether any quoted value appears to span lines
+         * @throws IOException  if there file read error
+         */
+        void parse() throws IOException {
+            var stream = new ChunkInputStream(channel, start, end);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, options.getCharset()))) {
+                var settings = new CsvParserSettings();
+                settings.getFormat().setDelimiter(options.getDelimiter());
+                settings.setHeaderExtractionEnabled(false);
+                settings.setLineSeparatorDetectionEnabled(true);
+                settings.setProcessor(processor);
+                settings.setIgnoreTrailingWhitespaces(true);
+                settings.setIgnoreLeadingWhitespaces(true);
+                settings.setSkipEmptyLines(true);
+                settings.setMaxColumns(options.getMaxColumns());
+                var parser = new CsvParser(settings);
+                parser.parse(reader);
+            }
+            this.multiline = stream.multiline;
+        }
+    }
+
+
+
+    /**
+     * A RecursiveAction that parses a range of chunks, splitting the range until each task has one chunk
+     */
+    private static class CsvChunkTask<R> extends RecursiveAction {
+
+        private int from;
+        private int to;
+        private List<CsvSourceDefault.CsvChunk<R>> chunks;
+
+        /**
+         * Constructor
+         * @param chunks    the chunks to parse
+         * @param from      the from chunk index, inclusive
+         * @param to        the to chunk index, exclusive
+         */
+        CsvChunkTask(List<CsvSourceDefault.CsvChunk<R>> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (to - from == 1) {
+                    this.chunks.get(from).parse();
+                } else if (to - from > 1) {
+                    var midPoint = from + (to - from) / 2;
+                    invokeAll(new CsvChunkTask<>(chunks, from, midPoint), new CsvChunkTask<>(chunks, midPoint, to));
+                }
+            } catch (IOException ex) {
+                throw new DataFrameException("Failed to parse CSV chunk", ex);
+            }
+        }
+    }
+
+
+
+    /**
+     * An InputStream over a region of a file that tracks whether any line contains an unbalanced quote
+     */
+    private static class ChunkInputStream extends InputStream {
+
+        private long position;
+        private long end;
+        private int quotes;
+        private boolean multiline;
+        private ByteBuffer buffer;
+        private FileChannel channel;
+
+        /**
+         * Constructor
+         * @param channel   the file channel, which is read with positional reads so can be shared across threads
+         * @param start     the start position, inclusive
+         * @param end       the end position, exclusive
+         */
+        ChunkInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+            this.buffer = ByteBuffer.allocate(65536);
+            this.buffer.limit(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!buffer.hasRemaining() && !fill()) {
+                return -1;
+            } else {
+                return buffer.get() & 0xFF;
+            }
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (!buffer.hasRemaining() && !fill()) {
+                return -1;
+            } else {
+                var count = Math.min(length, buffer.remaining());
+                this.buffer.get(bytes, offset, count);
+                return count;
+            }
+        }
+
+        /**
+         * Fills the buffer with the next block of bytes from the file, scanning it for quotes
+         * @return  true if bytes were read, false if the end of the region was reached
+         * @throws IOException  if there file read error
+         */
+        private boolean fill() throws IOException {
+            if (position >= end) {
+                this.multiline |= (quotes & 1) != 0;
+                return false;
+            } else {
+                this.buffer.clear();
+                this.buffer.limit((int)Math.min(buffer.capacity(), end - position));
+                var count = channel.read(buffer, position);
+                this.buffer.flip();
+                for (int i=0; i<count; ++i) {
+                    var value = buffer.get(i);
+                    if (value == '"') {
+                        this.quotes++;
+                    } else if (value == '\n') {
+                        this.multiline |= (quotes & 1) != 0;
+                        this.quotes = 0;
+                    }
+                }
+                this.position += Math.max(count, 0);
+                return count > 0 || fill();
+            }
+        }
+    }
+
+
+
     /**
      * A class that represents a column in a CSV parse operation
      */
@@ -286,9 +699,12 @@ public class CsvSourceDefault implements CsvSource {
 
         private int index;
         private String name;
+        private int capacity;
         private int bufferSize;
+        private boolean categorical;
         private Formats formats;
         private Parser<?> parser;
+        private ArrayType dataType;
         private List<String> buffer;
         private ArrayBuilder<Object> array;
 
@@ -299,16 +715,34 @@ public class CsvSourceDefault implements CsvSource {
          * @param capacity      the initial capacity
          * @param bufferSize    the buffer size
          * @param parser        the optional parser for column, otherwise auto resolve from contents
+         * @param categorical   true to store String values in a categorical array
          */
-        @SuppressWarnings("unchecked")
-        CsvColumn(String name, int index, int capacity, int bufferSize, Formats formats, Parser<?> parser) {
+        CsvColumn(String name, int index, int capacity, int bufferSize, Formats formats, Parser<?> parser, boolean categorical) {
             this.index = index;
             this.name = name;
+            this.capacity = capacity;
             this.bufferSize = bufferSize;
+            this.categorical = categorical;
             this.formats = formats;
             this.parser = parser;
+            this.dataType = parser != null ? ArrayType.of(parser.getType()) : null;
             this.buffer = new ArrayList<>(bufferSize);
-            this.array = parser == null ? ArrayBuilder.of(capacity) : (ArrayBuilder<Object>)ArrayBuilder.of(capacity, parser.getType());
+            this.array = parser == null ? ArrayBuilder.of(capacity) : createArray(parser.getType());
+        }
+
+
+        /**
+         * Returns a newly created array builder for the resolved column type
+         * @param type  the column type
+         * @return      the newly created array builder
+         */
+        @SuppressWarnings("unchecked")
+        private ArrayBuilder<Object> createArray(Class<?> type) {
+            if (categorical && type == String.class) {
+                return (ArrayBuilder<Object>)ArrayBuilder.ofCategorical(capacity, type);
+            } else {
+                return (ArrayBuilder<Object>)ArrayBuilder.of(capacity, type);
+            }
         }
 
 
@@ -327,9 +761,13 @@ public class CsvSourceDefault implements CsvSource {
          */
         final void apply(String[] row) {
             var value = row[index];
-            this.buffer.add(value);
-            if (buffer.size() >= bufferSize) {
-                this.flush();
+            if (dataType != null && buffer.isEmpty()) {
+                this.append(value);
+            } else {
+                this.buffer.add(value);
+                if (buffer.size() >= bufferSize) {
+                    this.flush();
+                }
             }
         }
 
@@ -340,6 +778,10 @@ public class CsvSourceDefault implements CsvSource {
             if (parser == null) {
                 var stringParser = formats.getParserOrFail(String.class);
                 this.parser = formats.findParser(buffer).orElse(stringParser);
+                this.dataType = ArrayType.of(parser.getType());
+                if (categorical && array.length() == 0) {
+                    this.array = createArray(parser.getType());
+                }
             }
         }
 
@@ -350,19 +792,38 @@ public class CsvSourceDefault implements CsvSource {
         private void flush() {
             try {
                 this.resolveParser();
-                var dataType = ArrayType.of(parser.getType());
-                switch (dataType) {
-                    case BOOLEAN:   buffer.forEach(v -> array.appendBoolean(parser.applyAsBoolean(v)));    break;
-                    case INTEGER:   buffer.forEach(v -> array.appendInt(parser.applyAsInt(v)));            break;
-                    case LONG:      buffer.forEach(v -> array.appendLong(parser.applyAsLong(v)));          break;
-                    case DOUBLE:    buffer.forEach(v -> array.appendDouble(parser.applyAsDouble(v)));      break;
-                    default:        buffer.forEach(v -> array.append(parser.apply(v)));                    break;
-                }
+                this.buffer.forEach(this::append);
             } finally {
                 buffer.clear();
             }
         }
 
+
+        /**
+         * Parses a value with the resolved parser and appends it to the array builder
+         * The value is parsed as a character range so that the common types are parsed without allocation
+         * @param value     the value to append, which may be null
+         */
+        private void append(String value) {
+            var length = value != null ? value.length() : 0;
+            switch (dataType) {
+                case BOOLEAN:   array.appendBoolean(parser.applyAsBoolean(value, 0, length));  break;
+                case INTEGER:   if (isNull(value)) array.append(null); else array.appendInt(parser.applyAsInt(value, 0, length));      break;
+                case LONG:      if (isNull(value)) array.append(null); else array.appendLong(parser.applyAsLong(value, 0, length));    break;
+                case DOUBLE:    array.appendDouble(parser.applyAsDouble(value, 0, length));    break;
+                default:        array.append(parser.apply(value, 0, length));                  break;
+            }
+        }
+
+        /**
+         * Returns true if the value is null according to the resolved parser, so int and long columns keep their gaps
+         * @param value     the value to check, which may be null
+         * @return          true if the value represents null
+         */
+        private boolean isNull(String value) {
+            return value == null || parser.getNullChecker().applyAsBoolean(value);
+        }
+
         @Override
         public String toString() {
             return String.format("Column: %s @ %s", name, index);
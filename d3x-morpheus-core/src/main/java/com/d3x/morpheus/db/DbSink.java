@@ -19,15 +19,22 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -35,7 +42,7 @@ import java.util.stream.IntStream;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameCursor;
 import com.d3x.morpheus.frame.DataFrameException;
-import com.d3x.morpheus.frame.DataFrameRow;
+import com.d3x.morpheus.frame.DataFrameRows;
 import com.d3x.morpheus.frame.DataFrameValue;
 import com.d3x.morpheus.util.Collect;
 import com.d3x.morpheus.util.IO;
@@ -52,7 +59,7 @@ import com.d3x.morpheus.util.sql.SQLType;
  *
  * @author  Xavier Witdouck
  */
-@lombok.AllArgsConstructor()
+@lombok.extern.slf4j.Slf4j()
 public class DbSink {
 
     private static final Map<Class<?>,SQLType> sqlTypeMap = new HashMap<>();
@@ -78,14 +85,23 @@ public class DbSink {
     }
 
 
-    @lombok.NonNull
     private Connection connection;
+    private DataSource dataSource;
 
     /**
      * Constructor
-     * @param dataSource    the data source to get connection
+     * @param connection    the connection to write to, which is closed after writing
+     */
+    public DbSink(Connection connection) {
+        this.connection = Objects.requireNonNull(connection, "The connection cannot be null");
+    }
+
+    /**
+     * Constructor
+     * @param dataSource    the data source to get connections, which enables parallel inserts
      */
     public DbSink(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "The data source cannot be null");
         this.connection = Try.call(dataSource::getConnection);
     }
 
@@ -122,10 +138,10 @@ public class DbSink {
             var metaData = connection.getMetaData();
             var tables = metaData.getTables(null, null, tableName, null);
             if (tables.next()) {
-                System.out.println("The table named " + tableName + " already exists");
+                log.debug("The table named " + tableName + " already exists");
             } else {
                 var ddl = getCreateTableSql(frame, options);
-                System.out.println("Executing DDL:\n " + ddl);
+                log.debug("Executing DDL:\n " + ddl);
                 stmt.execute(ddl);
             }
         } catch (Exception ex) {
@@ -135,71 +151,216 @@ public class DbSink {
 
 
     /**
-     * Called to insert data from the DataFrame to the target table
+     * Called to insert data from the DataFrame to the target table, in parallel partitions if configured
      * @param frame     the DataFrame to load data from
      * @param options   the sink options
      * @throws DataFrameException   if this operation fails
      */
     private <R,C> void insertData(DataFrame<R,C> frame, DbSinkOptions<R,C> options) {
-        var columnList = getColumnAdapters(frame, options);
-        var insertSql = getInsertSql(columnList, options);
-        System.out.println("Insert SQL: " + insertSql);
-        try (PreparedStatement stmt = connection.prepareStatement(insertSql)) {
-            int rowCount = 0;
-            for (var row : frame.rows()) {
-                for (int i=0; i<columnList.size(); ++i) {
-                    var adapter = columnList.get(i);
-                    var stmtIndex = i+1;
-                    adapter.apply(stmt, stmtIndex, row);
+        var columnList = getColumnInfo(frame, options);
+        var rowCount = frame.rowCount();
+        var platform = options.getPlatform();
+        var maxPartitions = Math.max(1, rowCount / Math.max(1, options.getBatchSize()));
+        var parallelism = dataSource == null || !platform.isConcurrentWriteSupported() ? 1 : Math.min(options.getParallelism(), maxPartitions);
+        if (parallelism <= 1) {
+            this.insertRows(connection, frame, options, columnList, 0, rowCount);
+        } else {
+            var executor = Executors.newFixedThreadPool(parallelism - 1, runnable -> {
+                var thread = new Thread(runnable, "DbSink-" + options.getTableName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                var futures = new ArrayList<Future<?>>();
+                var partitionSize = rowCount / parallelism;
+                for (int i=1; i<parallelism; ++i) {
+                    var from = i * partitionSize;
+                    var to = i == parallelism - 1 ? rowCount : from + partitionSize;
+                    futures.add(executor.submit(() -> {
+                        try (Connection conn = dataSource.getConnection()) {
+                            this.insertRows(conn, frame, options, columnList, from, to);
+                        }
+                        return null;
+                    }));
                 }
-                stmt.addBatch();
-                rowCount++;
-                if (rowCount % options.getBatchSize() == 0) {
-                    System.out.println("Executing batch, row count is " + rowCount);
+                this.insertRows(connection, frame, options, columnList, 0, partitionSize);
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException ex) {
+                throw new DataFrameException("Failed to insert data from DataFrame into table named " + options.getTableName(), ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new DataFrameException("Interrupted while inserting data into table named " + options.getTableName(), ex);
+            } finally {
+                this.shutdown(executor, options);
+            }
+        }
+    }
+
+
+    /**
+     * Cancels any partitions still running and waits for their threads to finish, so no insert outlives the call
+     * @param executor  the executor running the partitions
+     * @param options   the sink options
+     */
+    private void shutdown(ExecutorService executor, DbSinkOptions<?,?> options) {
+        executor.shutdownNow();
+        try {
+            while (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Waiting for inserts into table named " + options.getTableName() + " to terminate");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * Inserts a range of rows from the DataFrame into the target table over the connection specified
+     * @param conn          the connection to insert rows over
+     * @param frame         the DataFrame to load data from
+     * @param options       the sink options
+     * @param columnList    the column info for the target table
+     * @param from          the first row ordinal, inclusive
+     * @param to            the last row ordinal, exclusive
+     * @throws DataFrameException   if this operation fails
+     */
+    private <R,C> void insertRows(Connection conn, DataFrame<R,C> frame, DbSinkOptions<R,C> options, List<ColumnInfo<C>> columnList, int from, int to) {
+        var adapters = getColumnAdapters(frame, options, columnList);
+        var rowsPerInsert = getRowsPerInsert(columnList.size(), options);
+        var batchSize = Math.max(1, options.getBatchSize());
+        var commitSize = options.getCommitSize();
+        var autoCommit = Try.call(conn::getAutoCommit);
+        try {
+            if (commitSize > 0) {
+                conn.setAutoCommit(false);
+            }
+            var insertSql = getInsertSql(columnList, rowsPerInsert, options);
+            log.debug("Insert SQL: " + insertSql);
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+                var rowOrdinal = from;
+                var batchCount = 0;
+                var commitCount = 0;
+                while (to - rowOrdinal >= rowsPerInsert) {
+                    this.bind(stmt, adapters, rowOrdinal, rowsPerInsert);
+                    stmt.addBatch();
+                    rowOrdinal += rowsPerInsert;
+                    batchCount += rowsPerInsert;
+                    commitCount += rowsPerInsert;
+                    if (batchCount >= batchSize) {
+                        log.debug("Executing batch, row count is " + (rowOrdinal - from));
+                        stmt.executeBatch();
+                        batchCount = 0;
+                        if (commitSize > 0 && commitCount >= commitSize) {
+                            conn.commit();
+                            commitCount = 0;
+                        }
+                    }
+                }
+                if (batchCount > 0) {
+                    log.debug("Executing final batch, row count is " + (rowOrdinal - from));
                     stmt.executeBatch();
                 }
+                if (rowOrdinal < to) {
+                    var remaining = to - rowOrdinal;
+                    try (PreparedStatement last = conn.prepareStatement(getInsertSql(columnList, remaining, options))) {
+                        this.bind(last, adapters, rowOrdinal, remaining);
+                        last.executeUpdate();
+                    }
+                }
             }
-            if (rowCount % options.getBatchSize() != 0) {
-                System.out.println("Executing final batch, row count is " + rowCount);
-                stmt.executeBatch();
+            if (commitSize > 0) {
+                conn.commit();
             }
         } catch (Exception ex) {
+            if (commitSize > 0) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    ex.addSuppressed(rollbackEx);
+                }
+            }
             throw new DataFrameException("Failed to insert data from DataFrame into table named " + options.getTableName(), ex);
+        } finally {
+            if (commitSize > 0) {
+                try {
+                    conn.setAutoCommit(autoCommit);
+                } catch (SQLException ex) {
+                    log.warn("Failed to restore auto commit on connection", ex);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Binds the values for a sequence of rows to the parameters of a single INSERT statement
+     * @param stmt          the statement to bind parameters to
+     * @param adapters      the column adapters, in parameter order
+     * @param rowOrdinal    the ordinal of the first row to bind
+     * @param rowCount      the number of rows to bind
+     */
+    private <R,C> void bind(PreparedStatement stmt, List<ColumnAdapter<R,C>> adapters, int rowOrdinal, int rowCount) {
+        var stmtIndex = 1;
+        for (int i=0; i<rowCount; ++i) {
+            for (ColumnAdapter<R,C> adapter : adapters) {
+                adapter.apply(stmt, stmtIndex++, rowOrdinal + i);
+            }
         }
     }
 
 
+    /**
+     * Returns the number of rows to include per INSERT statement, limited by the max parameter and row counts for the platform
+     * @param colCount  the number of columns per row
+     * @param options   the sink options
+     * @return          the number of rows per INSERT statement
+     */
+    private int getRowsPerInsert(int colCount, DbSinkOptions<?,?> options) {
+        var platform = options.getPlatform();
+        var rowsPerInsert = options.getRowsPerInsert();
+        if (rowsPerInsert <= 1 || colCount == 0 || !platform.isMultiRowInsertSupported()) {
+            return 1;
+        } else {
+            var maxRows = Math.min(platform.getMaxRowsPerInsert(), platform.getMaxParameterCount() / colCount);
+            return Math.max(1, Math.min(rowsPerInsert, maxRows));
+        }
+    }
+
 
     /**
      * Constructs the SQL insert statement for the column list specified
      * @param columnList    the column list
+     * @param rowCount      the number of rows in the VALUES clause
      * @param options       the DB sink options
      * @return              the sql insert statement
      */
-    private <R,C> String getInsertSql(List<ColumnAdapter<R,C>> columnList, DbSinkOptions<R,C> options) {
+    private <R,C> String getInsertSql(List<ColumnInfo<C>> columnList, int rowCount, DbSinkOptions<R,C> options) {
         var tableName = options.getTableName();
         var colNames = columnList.stream().map(c -> c.colName).collect(Collectors.toList());
         var params = IntStream.range(0, colNames.size()).mapToObj(i -> "?").collect(Collectors.toList());
-        var paramsString = String.join(",", params);
+        var paramsString = "(" + String.join(",", params) + ")";
+        var valuesString = String.join(",", Collections.nCopies(rowCount, paramsString));
         var columnsString = String.join(",", colNames);
-        return String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, columnsString, paramsString);
+        return String.format("INSERT INTO %s (%s) VALUES %s", tableName, columnsString, valuesString);
     }
 
 
     /**
-     * Returns a apply of column type info for the target table
+     * Returns the list of column info for the target table, resolved from the table meta data
      * @param frame     the DataFrame reference
-     * @return          the apply of column type info
+     * @param options   the sink options
+     * @return          the list of column info
      */
-    @SuppressWarnings("unchecked")
-    private <R,C> List<ColumnAdapter<R,C>> getColumnAdapters(DataFrame<R,C> frame, DbSinkOptions<R,C> options) {
+    private <R,C> List<ColumnInfo<C>> getColumnInfo(DataFrame<R,C> frame, DbSinkOptions<R,C> options) {
         var tableName = options.getTableName();
         var platform = options.getPlatform();
         var columnMap1 = frame.cols().keys().collect(Collectors.toMap(c -> c, c -> options.getColumnNames().apply(c).toLowerCase()));
         var columnMap2 = Collect.reverse(columnMap1);
         try (Statement stmt = connection.createStatement()) {
             var sql = String.format("SELECT * FROM %s WHERE 1=2", tableName);
-            var columnList = new ArrayList<ColumnAdapter<R,C>>();
+            var columnList = new ArrayList<ColumnInfo<C>>();
             var metaData = stmt.executeQuery(sql).getMetaData();
             var typeResolver = SQLType.getTypeResolver(platform);
             for (int i=0; i<metaData.getColumnCount(); ++i) {
@@ -208,16 +369,13 @@ public class DbSink {
                 var sqlTypeName = metaData.getColumnTypeName(i+1);
                 var sqlType = typeResolver.getType(sqlTypeCode, sqlTypeName);
                 if (Optional.ofNullable(options.getRowKeyColumn()).map(name -> name.equalsIgnoreCase(sqlColName)).orElse(false)) {
-                    columnList.add(new RowKeyAdapter(sqlColName, sqlType, options));
+                    columnList.add(new ColumnInfo<>(sqlColName, sqlType, null));
                 } else if (Optional.ofNullable(options.getAutoIncrementColumnName()).map(name -> !name.equalsIgnoreCase(sqlColName)).orElse(true)) {
                     var colKey = columnMap2.get(sqlColName);
                     if (colKey == null) {
                         throw new DataFrameException("No match for sql column name: " + sqlColName);
                     }
-                    var dataType = frame.cols().type(colKey);
-                    var cursor = frame.cursor().col(colKey);
-                    var mapper = options.getColumnMappings().getMapper(dataType);
-                    columnList.add(new ValueAdapter(sqlColName, sqlType, cursor, mapper));
+                    columnList.add(new ColumnInfo<>(sqlColName, sqlType, colKey));
                 }
             }
             return columnList;
@@ -226,6 +384,30 @@ public class DbSink {
         }
     }
 
+
+    /**
+     * Returns a list of column adapters for the column info, which should only be used by one thread
+     * @param frame         the DataFrame reference
+     * @param options       the sink options
+     * @param columnList    the column info for the target table
+     * @return              the list of column adapters
+     */
+    @SuppressWarnings("unchecked")
+    private <R,C> List<ColumnAdapter<R,C>> getColumnAdapters(DataFrame<R,C> frame, DbSinkOptions<R,C> options, List<ColumnInfo<C>> columnList) {
+        var adapters = new ArrayList<ColumnAdapter<R,C>>(columnList.size());
+        for (ColumnInfo<C> info : columnList) {
+            if (info.colKey == null) {
+                adapters.add(new RowKeyAdapter(info.colName, info.colType, frame, options));
+            } else {
+                var dataType = frame.cols().type(info.colKey);
+                var cursor = frame.cursor().col(info.colKey);
+                var mapper = options.getColumnMappings().getMapper(dataType);
+                adapters.add(new ValueAdapter(info.colName, info.colType, cursor, mapper));
+            }
+        }
+        return adapters;
+    }
+
     /**
      * Returns the SQL DDL statement to create a table for the DataFrame specified
      * @param frame     the frame instance
@@ -319,6 +501,29 @@ public class DbSink {
 
 
 
+    /**
+     * A class that describes a column of the target table, and the frame column that maps to it
+     */
+    private static class ColumnInfo<C> {
+
+        private String colName;
+        private SQLType colType;
+        private C colKey;
+
+        /**
+         * Constructor
+         * @param colName   the SQL column name
+         * @param colType   the SQL column type
+         * @param colKey    the frame column key, null if this column holds row keys
+         */
+        ColumnInfo(String colName, SQLType colType, C colKey) {
+            this.colName = colName;
+            this.colType = colType;
+            this.colKey = colKey;
+        }
+    }
+
+
     /**
      * A convenience base class for building an adapter that maps DataFrame content to a SQL column of a well defined type
      */
@@ -346,9 +551,9 @@ public class DbSink {
          * Applies a parameter value to the SQL PreparedStatement
          * @param stmt          the PreparedStatement to apply parameter to
          * @param stmtIndex     the statement index for parameter
-         * @param row           the row to extract a value from
+         * @param rowOrdinal    the ordinal of the row to extract a value from
          */
-        abstract void apply(PreparedStatement stmt, int stmtIndex, DataFrameRow<R,C> row);
+        abstract void apply(PreparedStatement stmt, int stmtIndex, int rowOrdinal);
     }
 
 
@@ -359,16 +564,19 @@ public class DbSink {
 
         private SQLType rowKeyType;
         private Class<?> rowKeyClass;
+        private DataFrameRows<R,C> rows;
         private Function1<R,?> rowKeyMapper;
 
         /**
          * Constructor
          * @param colName   the column name
          * @param colType   the column type
+         * @param frame     the frame to extract row keys from
          * @param options   the sink options
          */
-        RowKeyAdapter(String colName, SQLType colType, DbSinkOptions<R,C> options) {
+        RowKeyAdapter(String colName, SQLType colType, DataFrame<R,C> frame, DbSinkOptions<R,C> options) {
             super(colName, colType);
+            this.rows = frame.rows();
             this.rowKeyMapper = options.getRowKeyMapper();
             this.rowKeyClass = options.getRowKeySqlClass();
             this.rowKeyType = Optional.ofNullable(sqlTypeMap.get(rowKeyClass)).orElseThrow(() ->
@@ -377,8 +585,8 @@ public class DbSink {
         }
 
         @Override
-        void apply(PreparedStatement stmt, int stmtIndex, DataFrameRow<R,C> row) {
-            final R rowKey = row.key();
+        void apply(PreparedStatement stmt, int stmtIndex, int rowOrdinal) {
+            final R rowKey = rows.key(rowOrdinal);
             try {
                 switch (rowKeyType) {
                     case BIT:       stmt.setBoolean(stmtIndex, rowKeyMapper.applyAsBoolean(rowKey));             break;
@@ -425,9 +633,9 @@ public class DbSink {
         }
 
         @Override()
-        void apply(PreparedStatement stmt, int stmtIndex, DataFrameRow<R,C> row) {
+        void apply(PreparedStatement stmt, int stmtIndex, int rowOrdinal) {
             try {
-                this.cursor.rowAt(row.ordinal());
+                this.cursor.rowAt(rowOrdinal);
                 if (cursor.isNull()) {
                     stmt.setNull(stmtIndex, colType.getTypeCode());
                 } else {
@@ -44,6 +44,9 @@ import com.d3x.morpheus.util.sql.SQLPlatform;
 public class DbSinkOptions<R,C> {
 
     private int batchSize;
+    private int commitSize;
+    private int parallelism;
+    private int rowsPerInsert;
     private String tableName;
     private SQLPlatform platform;
     private ColumnMappings columnMappings;
@@ -59,6 +62,8 @@ public class DbSinkOptions<R,C> {
      */
     DbSinkOptions() {
         this.batchSize = 1000;
+        this.parallelism = 1;
+        this.rowsPerInsert = 1;
         this.columnMappings = new ColumnMappings();
         this.columnNames = v -> v.toString()
             .toLowerCase()
@@ -197,7 +197,8 @@ public class DbSource {
                 var typeName = metaData.getColumnTypeName(colIndex);
                 var sqlType = typeResolver.getType(typeCode, typeName);
                 var extractor = SQLExtractor.with(sqlType.typeClass(), platform);
-                columnInfoList.add(new ColumnInfo(colIndex, colName, rowCapacity, extractor));
+                var categorical = options.getCategoricalColumnSet().contains(colName);
+                columnInfoList.add(new ColumnInfo(colIndex, colName, rowCapacity, extractor, categorical));
             }
         }
         return columnInfoList;
@@ -235,16 +236,18 @@ public class DbSource {
 
         /**
          * Constructor
-         * @param index     the JDBC column index
-         * @param name      the JDBC column name
-         * @param capacity  the initial capacity for column
+         * @param index         the JDBC column index
+         * @param name          the JDBC column name
+         * @param capacity      the initial capacity for column
+         * @param extractor     the extractor for column values
+         * @param categorical   true to store String values in a categorical array
          */
-        ColumnInfo(int index, String name, int capacity, SQLExtractor extractor) {
+        ColumnInfo(int index, String name, int capacity, SQLExtractor extractor, boolean categorical) {
             this.index = index;
             this.name = name;
             this.type = extractor.getDataType();
             this.typeCode = ArrayType.of(type);
-            this.array = ArrayBuilder.of(capacity, type);
+            this.array = categorical && typeCode == ArrayType.STRING ? ArrayBuilder.ofCategorical(capacity, type) : ArrayBuilder.of(capacity, type);
             this.extractor = extractor;
         }
 
@@ -256,8 +259,8 @@ public class DbSource {
             try {
                 switch (typeCode) {
                     case BOOLEAN:   array.appendBoolean(extractor.getBoolean(rs, index));  break;
-                    case INTEGER:   array.appendInt(extractor.getInt(rs, index));          break;
-                    case LONG:      array.appendLong(extractor.getLong(rs, index));        break;
+                    case INTEGER:   appendInt(extractor.getInt(rs, index), rs.wasNull());      break;
+                    case LONG:      appendLong(extractor.getLong(rs, index), rs.wasNull());    break;
                     case DOUBLE:    array.appendDouble(extractor.getDouble(rs, index));    break;
                     default:        array.append(extractor.getValue(rs, index));           break;
                 }
@@ -265,6 +268,32 @@ public class DbSource {
                 throw new RuntimeException("Failed to extract data for column " + name, ex);
             }
         }
+
+        /**
+         * Appends an int value, or a null if the column value was SQL NULL, so the column stays a primitive array
+         * @param value     the value extracted
+         * @param isNull    true if the column value was SQL NULL
+         */
+        private void appendInt(int value, boolean isNull) {
+            if (isNull) {
+                this.array.append(null);
+            } else {
+                this.array.appendInt(value);
+            }
+        }
+
+        /**
+         * Appends a long value, or a null if the column value was SQL NULL, so the column stays a primitive array
+         * @param value     the value extracted
+         * @param isNull    true if the column value was SQL NULL
+         */
+        private void appendLong(long value, boolean isNull) {
+            if (isNull) {
+                this.array.append(null);
+            } else {
+                this.array.appendLong(value);
+            }
+        }
     }
 
 
@@ -274,6 +303,7 @@ public class DbSource {
         private int logRowCount = Integer.MAX_VALUE;
         private String rowIndexColumnName;
         private Set<String> excludeColumnSet = new HashSet<>();
+        private Set<String> categoricalColumnSet = new HashSet<>();
         private Function<String,String> colKeyMapper = v -> v;
     }
 
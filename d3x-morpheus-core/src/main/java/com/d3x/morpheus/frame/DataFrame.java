@@ -284,6 +284,15 @@ public interface DataFrame<R,C> extends DataFrameAccess<R,C>, DataFrameOperation
      */
     DataFrame<R,C> addAll(DataFrame<R,C> other);
 
+    /**
+     * Returns a new frame that joins rows of this frame with rows of another frame on the values of a common column
+     * @param right     the frame to join with, which must not share any other column keys with this frame
+     * @param on        the key of the column to join on, which must exist in both frames
+     * @param type      the join type
+     * @return          the joined frame keyed by row ordinal, with the join column followed by the other columns of both frames
+     */
+    DataFrame<Integer,C> join(DataFrame<?,C> right, C on, JoinType type);
+
     /**
      * Updates data in this frame based on update frame provided
      * @param update        the DataFrame with updates to apply to this frame
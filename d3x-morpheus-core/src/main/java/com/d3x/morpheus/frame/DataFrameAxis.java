@@ -276,6 +276,14 @@ public interface DataFrameAxis<X,Y,R,C,V extends DataFrameVector,T extends DataF
      */
     Optional<X> higherKey(X key);
 
+    /**
+     * Returns an <code>Optional</code> on the greatest key less than or equal to the given key
+     * If the keys are sorted this is a binary search, otherwise a linear scan of the keys
+     * @param key   the key for which to find the key in effect as of that key
+     * @return      the <code>Optional</code> on the greatest key less than or equal to the given key
+     */
+    Optional<X> asOf(X key);
+
     /**
      * Replaces an existing key with the new key in place
      * @param key       the existing key to replace
@@ -313,6 +321,15 @@ public interface DataFrameAxis<X,Y,R,C,V extends DataFrameVector,T extends DataF
      */
     DataFrame<R,C> select(int start, int length);
 
+    /**
+     * Returns a DataFrame view containing records with keys in the closed interval [lower, upper]
+     * If the keys are sorted the bounds are located by binary search, otherwise all keys are tested in order
+     * @param lower     the lower bound key, inclusive
+     * @param upper     the upper bound key, inclusive
+     * @return          the <code>DataFrame</code> view
+     */
+    DataFrame<R,C> between(X lower, X upper);
+
     /**
      * Sorts the DataFrame along this axis based on the keys in ascending/descending order
      * @param ascending     true for ascending order, false for descending
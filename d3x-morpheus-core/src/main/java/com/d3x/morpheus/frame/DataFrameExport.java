@@ -18,6 +18,7 @@ package com.d3x.morpheus.frame;
 import org.apache.commons.math3.linear.RealMatrix;
 
 import com.d3x.morpheus.jama.Matrix;
+import com.d3x.morpheus.matrix.SparseMatrix;
 
 /**
  * An interface that can export a <code>DataFrame</code> as other common used representations
@@ -40,6 +41,12 @@ public interface DataFrameExport {
      */
     RealMatrix asApacheMatrix();
 
-
+    /**
+     * Returns a compressed sparse column representation of this <code>DataFrame</code>.
+     * Columns backed by sparse arrays with a default value of zero are copied by visiting only their
+     * populated entries, so the frame is never expanded into dense storage.
+     * @return      the <code>SparseMatrix</code> representing this <code>DataFrame</code>
+     */
+    SparseMatrix asSparseMatrix();
 
 }
@@ -19,8 +19,10 @@ import java.lang.reflect.Constructor;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.d3x.morpheus.util.Resource;
 
@@ -149,6 +151,16 @@ public abstract class DataFrameFactory {
      */
     public abstract <R,C> DataFrame<R,C> concatColumns(Iterator<DataFrame<R,C>> frames);
 
+    /**
+     * Returns a newly created partitioned view over frames that are loaded on demand
+     * @param loaders       the loaders for each partition, in row order
+     * @param cacheSize     the max number of loaded partitions to retain in memory
+     * @param <R>           the row key type for frames
+     * @param <C>           the column key type for frames
+     * @return              the newly created partitions
+     */
+    public abstract <R,C> DataFramePartitions<R,C> partitions(List<Supplier<DataFrame<R,C>>> loaders, int cacheSize);
+
     /**
      * Returns a newly created empty <code>DataFrame</code> initialized with the row and column type
      * @param rowType       the row key type
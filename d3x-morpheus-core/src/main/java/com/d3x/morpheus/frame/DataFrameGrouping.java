@@ -17,8 +17,10 @@ package com.d3x.morpheus.frame;
 
 import java.util.Optional;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
+import com.d3x.morpheus.stats.StatType;
 import com.d3x.morpheus.stats.Stats;
 import com.d3x.morpheus.util.Tuple;
 
@@ -37,7 +39,30 @@ public interface DataFrameGrouping<R,C,S> {
      * @param <R>       the row key type
      * @param <C>       the column key type
      */
-    interface Rows<R,C> extends DataFrameGrouping<R,C,DataFrame<Tuple,C>> {}
+    interface Rows<R,C> extends DataFrameGrouping<R,C,DataFrame<Tuple,C>> {
+
+        /**
+         * Returns a frame of aggregated values at the deepest level, with a row per group and a column per aggregated column
+         * @param function  the function that returns the statistic for each numeric column, or null to exclude the column
+         * @return          the frame of aggregated values
+         * @see #agg(int, Function)
+         */
+        default DataFrame<Tuple,C> agg(Function<C,StatType> function) {
+            return agg(Math.max(getDepth() - 1, 0), function);
+        }
+
+        /**
+         * Returns a frame of aggregated values for groups at the level specified, with a row per group and a column per aggregated column
+         * The values are computed in a single pass over the source rows without creating a frame per group, and only
+         * the COUNT, SUM, SUM_SQUARES, MIN, MAX, MEAN, VARIANCE and STD_DEV statistics are supported
+         * The columns being grouped on are never aggregated, and groups are ordered by the first row of each group in the
+         * source, which may differ from the order of getGroupKeys(). Grouped row stats are computed the same way.
+         * @param level     level 0 implies top level, 1 implies level below that, and so on
+         * @param function  the function that returns the statistic for each numeric column, or null to exclude the column
+         * @return          the frame of aggregated values
+         */
+        DataFrame<Tuple,C> agg(int level, Function<C,StatType> function);
+    }
 
     /**
      * A grouping interface specialization that represents a grouping of columns
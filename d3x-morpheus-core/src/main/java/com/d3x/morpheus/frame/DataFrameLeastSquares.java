@@ -26,7 +26,7 @@ import java.util.List;
  */
 public interface DataFrameLeastSquares<R,C> {
 
-    enum Solver { INV, QR }
+    enum Solver { INV, QR, SVD }
     enum Field { PARAMETER, STD_ERROR, T_STAT, P_VALUE, CI_LOWER, CI_UPPER }
 
     /**
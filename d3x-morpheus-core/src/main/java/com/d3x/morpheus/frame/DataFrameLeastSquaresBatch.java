@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.frame;
+
+import java.util.List;
+
+/**
+ * An interface to a batch of Linear Regression models that regress many regressands on the same regressors, so that
+ * the design matrix is decomposed once and all regressands are solved together in a single matrix solve.
+ *
+ * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public interface DataFrameLeastSquaresBatch<R,C> {
+
+    enum Stat { RSS, TSS, R_SQUARED, R_SQUARED_ADJ, STD_ERROR, F_VALUE, F_PROBABILITY }
+
+    /**
+     * Triggers this batch to (re)compute parameters for all regressands
+     * @throws DataFrameException   if there is an error running regressions
+     */
+    void fit();
+
+    /**
+     * Returns the sample size for the models in this batch
+     * @return  the sample size
+     */
+    int getN();
+
+    /**
+     * Returns the list of regressands for this batch
+     * @return  the list of regressands
+     */
+    List<C> getRegressands();
+
+    /**
+     * Returns the list of regressors shared by all models in this batch
+     * @return  the list of regressors
+     */
+    List<C> getRegressors();
+
+    /**
+     * Returns true if the models in this batch include an intercept term
+     * @return      true if models include an intercept term
+     */
+    boolean hasIntercept();
+
+    /**
+     * Returns the significance level to compute intercept confidence intervals
+     * @return      the significance level
+     */
+    double getAlpha();
+
+    /**
+     * Returns the regression coefficients with a row per regressand and a column per regressor
+     * @return      the DataFrame of regression coefficients
+     */
+    DataFrame<C,C> getBetas();
+
+    /**
+     * Returns the standard errors of the regression coefficients with a row per regressand and a column per regressor
+     * @return      the DataFrame of coefficient standard errors
+     */
+    DataFrame<C,C> getBetaStdErrors();
+
+    /**
+     * Returns the intercept parameter and its significance with a row per regressand
+     * @return      the DataFrame of intercept results, which is all NaN if models have no intercept
+     */
+    DataFrame<C,DataFrameLeastSquares.Field> getIntercepts();
+
+    /**
+     * Returns the residuals with a row per observation and a column per regressand
+     * For weighted models, these are the residuals of the weighted regression
+     * @return      the DataFrame of residuals
+     */
+    DataFrame<R,C> getResiduals();
+
+    /**
+     * Returns the goodness of fit statistics with a row per regressand
+     * @return      the DataFrame of fit statistics
+     */
+    DataFrame<C,Stat> getStats();
+
+    /**
+     * Sets the solver used to decompose the design matrix
+     * @param solver    the solver type
+     * @return          this batch
+     */
+    DataFrameLeastSquaresBatch<R,C> withSolver(DataFrameLeastSquares.Solver solver);
+
+    /**
+     * Sets the significance level used to compute intercept confidence intervals
+     * @param alpha     the significance level
+     * @return          this batch
+     */
+    DataFrameLeastSquaresBatch<R,C> withAlpha(double alpha);
+
+}
@@ -16,8 +16,11 @@
 package com.d3x.morpheus.frame;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.ToIntFunction;
 
+import com.d3x.morpheus.util.ForkJoinContext;
+
 /**
  * An enum which exposes various options for controlling the behaviour of certain matrix functions.
  *
@@ -57,8 +60,6 @@ public enum DataFrameOptions {
     MAXIMUM,
     AVERAGE;
 
-    private static final int processorCount = Runtime.getRuntime().availableProcessors();
-
     private static ToIntFunction<DataFrame<?,?>> defaultRowSplitThreshold;
     private static ToIntFunction<DataFrame<?,?>> defaultColSplitThreshold;
     private static final ThreadLocal<DataFrameOptions> nanStrategy = new ThreadLocal<>();
@@ -79,13 +80,13 @@ public enum DataFrameOptions {
     static {
         DataFrameOptions.setDefaultRowSplitThreshold(frame -> {
             final int rowCount = frame.rows().count();
-            final int groupCount = rowCount / processorCount;
+            final int groupCount = rowCount / ForkJoinContext.getParallelism();
             return Math.max(groupCount, 1);
         });
 
         DataFrameOptions.setDefaultColSplitThreshold(frame -> {
             final int colCount = frame.cols().count();
-            final int groupCount = colCount / processorCount;
+            final int groupCount = colCount / ForkJoinContext.getParallelism();
             return Math.max(groupCount, 1);
         });
     }
@@ -169,6 +170,61 @@ public enum DataFrameOptions {
         DataFrameOptions.defaultColSplitThreshold = defaultColSplitThreshold;
     }
 
+    /**
+     * Returns the ForkJoinPool that executes parallel operations initiated by the current thread
+     * @return      the pool for parallel operations on the current thread
+     * @see ForkJoinContext#getPool()
+     */
+    public static ForkJoinPool getForkJoinPool() {
+        return ForkJoinContext.getPool();
+    }
+
+    /**
+     * Sets the default ForkJoinPool for parallel operations on threads without a scoped pool
+     * @param pool  the default pool, null to revert to the common pool
+     */
+    public static void setDefaultForkJoinPool(ForkJoinPool pool) {
+        ForkJoinContext.setDefaultPool(pool);
+    }
+
+    /**
+     * Scopes the pool specified to the current thread until the context returned is closed
+     * @param pool  the pool for parallel operations initiated by the current thread
+     * @return      the context which should be closed, ideally via a try-with-resources block
+     */
+    public static ForkJoinContext withForkJoinPool(ForkJoinPool pool) {
+        return ForkJoinContext.of(pool);
+    }
+
+    /**
+     * Scopes a dedicated pool with the parallelism specified to the current thread until the context returned is closed
+     * @param parallelism   the parallelism for the dedicated pool, which is shut down when the context is closed
+     * @return              the context which should be closed, ideally via a try-with-resources block
+     */
+    public static ForkJoinContext withParallelism(int parallelism) {
+        return ForkJoinContext.of(parallelism);
+    }
+
+    /**
+     * Executes the callable with the pool specified for any parallel operations it initiates on the current thread
+     * @param pool      the pool for parallel operations
+     * @param callable  the callable to execute
+     * @param <T>       the result type
+     * @return          the result of the callable
+     */
+    public static <T> T whileUsing(ForkJoinPool pool, Callable<T> callable) {
+        final ForkJoinContext context = ForkJoinContext.of(pool);
+        try {
+            return callable.call();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex.getMessage(), ex);
+        } finally {
+            context.close();
+        }
+    }
+
     /**
      * Returns true if operations on the current thread should ignore duplicates
      * @return      true if operations on the current thread should ignore duplicates
@@ -33,7 +33,9 @@ public interface DataFramePCA<R,C> {
     enum Solver {
         SVD,
         EVD_COV,
-        EVD_COR
+        EVD_COR,
+        RANDOMIZED_SVD,
+        LANCZOS
     }
 
     enum Field  {
@@ -63,6 +65,20 @@ public interface DataFramePCA<R,C> {
      */
     <T> Optional<T> apply(boolean demean, Solver solver, Function<Model<R,C>,Optional<T>> handler);
 
+    /**
+     * Performs Principal Component Analysis on a DataFrame retaining only the leading components specified
+     * The RANDOMIZED_SVD and LANCZOS solvers only compute the leading components, and unlike the other solvers
+     * they also accept frames with fewer rows than columns. Variance percentages are always expressed relative
+     * to the total variance of the data, so they do not sum to one unless all components are retained.
+     * @param demean        true if the columns should be demeaned before apply PCA
+     * @param solver        the solver type to use when performing PCA
+     * @param numComponents the number of leading principal components to compute
+     * @param handler       the function to consume the resulting model
+     * @param <T>           the type of the object returned by the handler
+     * @return              the optional result generated by the handler
+     */
+    <T> Optional<T> apply(boolean demean, Solver solver, int numComponents, Function<Model<R,C>,Optional<T>> handler);
+
 
     /**
      * An interface to a Principal Component Analysis model generated from a DataFrame dataset
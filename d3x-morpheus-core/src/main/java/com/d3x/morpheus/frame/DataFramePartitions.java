@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.frame;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.d3x.morpheus.csv.CsvSource;
+import com.d3x.morpheus.stats.StatType;
+import com.d3x.morpheus.stats.Stats;
+
+/**
+ * An interface to a logical DataFrame whose rows are split across partitions, such as files in a directory, which are
+ * loaded on demand and retained in a bounded least recently used cache.
+ *
+ * <p>Operations on this interface visit the partitions one at a time, so the peak memory required is proportional to
+ * the size of the cache rather than the size of the data, which allows summary statistics and selections over data
+ * sets that are far larger than the heap. Row keys are expected to be unique across all partitions, and all partitions
+ * are expected to share the same columns.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public interface DataFramePartitions<R,C> {
+
+    /**
+     * Returns the number of partitions
+     * @return  the partition count
+     */
+    int count();
+
+    /**
+     * Returns the total number of rows across all partitions
+     * Partitions that have not yet been loaded are loaded once to determine their size
+     * @return  the total row count
+     */
+    int rowCount();
+
+    /**
+     * Returns the partition at the index specified, loading it if it is not in the cache
+     * @param index the partition index
+     * @return      the DataFrame for partition
+     */
+    DataFrame<R,C> partition(int index);
+
+    /**
+     * Returns a sequential stream over the partitions, which are loaded as the stream is consumed
+     * @return  the stream of partitions
+     */
+    Stream<DataFrame<R,C>> stream();
+
+    /**
+     * Returns a sequential stream over the rows of all partitions, which are loaded as the stream is consumed
+     * @return  the stream of rows
+     */
+    Stream<DataFrameRow<R,C>> rows();
+
+    /**
+     * Returns column statistics computed over all partitions, with one row per numeric column
+     * @return  the column stats interface
+     */
+    Stats<DataFrame<C,StatType>> stats();
+
+    /**
+     * Returns a DataFrame of the rows across all partitions that match the predicate
+     * @param rowPredicate  the predicate to select rows
+     * @return              the DataFrame of selected rows
+     */
+    DataFrame<R,C> select(Predicate<DataFrameRow<R,C>> rowPredicate);
+
+    /**
+     * Returns a DataFrame of the rows and columns across all partitions that match the predicates
+     * @param rowPredicate  the predicate to select rows
+     * @param colPredicate  the predicate to select columns
+     * @return              the DataFrame of selected rows and columns
+     */
+    DataFrame<R,C> select(Predicate<DataFrameRow<R,C>> rowPredicate, Predicate<DataFrameColumn<R,C>> colPredicate);
+
+    /**
+     * Returns a DataFrame of the first N rows, loading only the partitions required
+     * @param count the max number of rows
+     * @return      the DataFrame of the first N rows
+     */
+    DataFrame<R,C> head(int count);
+
+    /**
+     * Returns a DataFrame of the last N rows, loading only the partitions required
+     * @param count the max number of rows
+     * @return      the DataFrame of the last N rows
+     */
+    DataFrame<R,C> tail(int count);
+
+
+    /**
+     * Returns partitions over the frames returned by the loaders, keeping at most cacheSize frames in memory
+     * @param loaders   the loaders for each partition, in row order
+     * @param cacheSize the max number of partitions to retain in memory
+     * @param <R>       the row key type
+     * @param <C>       the column key type
+     * @return          the newly created partitions
+     */
+    static <R,C> DataFramePartitions<R,C> of(List<Supplier<DataFrame<R,C>>> loaders, int cacheSize) {
+        return DataFrame.factory().partitions(loaders, cacheSize);
+    }
+
+
+    /**
+     * Returns partitions over a directory of files in Morpheus binary format, ordered by file name
+     * @param dir       the directory of partition files
+     * @param cacheSize the max number of partitions to retain in memory
+     * @param <R>       the row key type
+     * @param <C>       the column key type
+     * @return          the newly created partitions
+     */
+    static <R,C> DataFramePartitions<R,C> ofMorpheus(File dir, int cacheSize) {
+        final List<Supplier<DataFrame<R,C>>> loaders = files(dir, null).stream()
+            .map(file -> (Supplier<DataFrame<R,C>>)() -> DataFrame.read(file).morpheus())
+            .collect(Collectors.toList());
+        return DataFramePartitions.of(loaders, cacheSize);
+    }
+
+
+    /**
+     * Returns partitions over a directory of CSV files, ordered by file name
+     * The configurator should nominate a row key column, since row keys must be unique across partitions
+     * @param dir           the directory of CSV files, which may be compressed
+     * @param rowType       the row key type
+     * @param configurator  the options configurator applied to each file
+     * @param cacheSize     the max number of partitions to retain in memory
+     * @param <R>           the row key type
+     * @return              the newly created partitions
+     */
+    static <R> DataFramePartitions<R,String> ofCsv(File dir, Class<R> rowType, Consumer<CsvSource.Options> configurator, int cacheSize) {
+        final List<Supplier<DataFrame<R,String>>> loaders = files(dir, ".csv").stream()
+            .map(file -> (Supplier<DataFrame<R,String>>)() -> DataFrame.read(file).csv(rowType, configurator))
+            .collect(Collectors.toList());
+        return DataFramePartitions.of(loaders, cacheSize);
+    }
+
+
+    /**
+     * Writes a DataFrame to a directory as partitions in Morpheus binary format, which can be read with ofMorpheus()
+     * @param frame         the frame to write
+     * @param dir           the directory to write to, which is created if it does not exist
+     * @param rowsPerFile   the max number of rows per partition
+     * @param <R>           the row key type
+     * @param <C>           the column key type
+     * @return              the files written, in row order
+     */
+    static <R,C> List<File> write(DataFrame<R,C> frame, File dir, int rowsPerFile) {
+        if (rowsPerFile <= 0) {
+            throw new DataFrameException("The number of rows per partition must be > 0, not " + rowsPerFile);
+        } else if (!dir.exists() && !dir.mkdirs()) {
+            throw new DataFrameException("Failed to create partition directory: " + dir.getAbsolutePath());
+        } else {
+            final int rowCount = frame.rowCount();
+            final int fileCount = Math.max(1, (rowCount + rowsPerFile - 1) / rowsPerFile);
+            final File[] files = new File[fileCount];
+            for (int i=0; i<fileCount; ++i) {
+                final int start = i * rowsPerFile;
+                final int length = Math.min(rowsPerFile, rowCount - start);
+                files[i] = new File(dir, String.format("part-%05d.dat", i));
+                frame.rows().select(start, length).write().morpheus(files[i]).apply();
+            }
+            return Arrays.asList(files);
+        }
+    }
+
+
+    /**
+     * Returns the files in a directory ordered by name, optionally only those whose names contain some text
+     * @param dir       the directory to list
+     * @param contains  the text file names must contain, null for all files
+     * @return          the files ordered by name
+     */
+    private static List<File> files(File dir, String contains) {
+        final File[] files = dir.listFiles(file -> file.isFile() && (contains == null || file.getName().contains(contains)));
+        if (files == null) {
+            throw new DataFrameException("Unable to list partition files in directory: " + dir.getAbsolutePath());
+        } else {
+            return Stream.of(files).sorted().collect(Collectors.toList());
+        }
+    }
+}
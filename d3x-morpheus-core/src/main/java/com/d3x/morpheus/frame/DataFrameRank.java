@@ -44,4 +44,22 @@ public interface DataFrameRank<R,C> {
      */
     DataFrame<R,C> ofColumns() throws DataFrameException;
 
+    /**
+     * Returns a <code>DataFrame</code> containing row ranked data, optionally as percentiles and optionally written in place
+     * @param percentile    true to express ranks as a fraction of the row length, in the range (0, 1]
+     * @param inPlace       true to write ranks into this frame, which must hold double values, false to create a new frame
+     * @return              the <code>DataFrame</code> of ranked data
+     * @throws DataFrameException      if data is non numeric
+     */
+    DataFrame<R,C> ofRows(boolean percentile, boolean inPlace) throws DataFrameException;
+
+    /**
+     * Returns a <code>DataFrame</code> containing column ranked data, optionally as percentiles and optionally written in place
+     * @param percentile    true to express ranks as a fraction of the column length, in the range (0, 1]
+     * @param inPlace       true to write ranks into this frame, which must hold double values, false to create a new frame
+     * @return              the <code>DataFrame</code> of ranked data
+     * @throws DataFrameException      if data is non numeric
+     */
+    DataFrame<R,C> ofColumns(boolean percentile, boolean inPlace) throws DataFrameException;
+
 }
@@ -44,4 +44,13 @@ public interface DataFrameRead {
     <R> DataFrame<R,String> csv(Class<R> rowType, Consumer<CsvSource.Options> configurator);
 
 
+    /**
+     * Loads underlying resource written in the Morpheus columnar binary format, memory mapping primitive columns
+     * @param <R>   the row key type
+     * @param <C>   the column key type
+     * @return      the data frame result containing the file data
+     * @throws DataFrameException   if fails to read resource
+     */
+    <R,C> DataFrame<R,C> morpheus();
+
 }
@@ -15,6 +15,7 @@
  */
 package com.d3x.morpheus.frame;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -98,4 +99,51 @@ public interface DataFrameRegression<R,C> {
      */
     <T> Optional<T> gls(C regressand, Iterable<C> regressors, DataFrame<?,?> omega, boolean intercept, Function<DataFrameLeastSquares<R,C>,Optional<T>> handler);
 
+    /**
+     * Executes multiple variable OLS regressions of many regressands on the same regressors, decomposing the design matrix once
+     * @param regressands   the columns that define the regressands or Y variables
+     * @param regressors    the column(s) that define the regressors or X variables
+     * @param intercept     true to include an intercept / constant term in the models
+     * @param handler       the batch regression result handler
+     * @param <T>           the type of return object
+     * @return              an optional result built from regression results
+     */
+    <T> Optional<T> olsBatch(Iterable<C> regressands, Iterable<C> regressors, boolean intercept, Function<DataFrameLeastSquaresBatch<R,C>,Optional<T>> handler);
+
+    /**
+     * Executes multiple variable WLS regressions of many regressands on the same regressors, decomposing the design matrix once
+     * @param regressands   the columns that define the regressands or Y variables
+     * @param regressors    the column(s) that define the regressors or X variables
+     * @param weights       the weights for the diagonal matrix in WLS
+     * @param intercept     true to include an intercept / constant term in the models
+     * @param handler       the batch regression result handler
+     * @param <T>           the type of return object
+     * @return              an optional result built from regression results
+     */
+    <T> Optional<T> wlsBatch(Iterable<C> regressands, Iterable<C> regressors, Array<Double> weights, boolean intercept, Function<DataFrameLeastSquaresBatch<R,C>,Optional<T>> handler);
+
+    /**
+     * Executes a multiple variable OLS regression over a rolling window of rows, updating the model incrementally as rows enter and leave
+     * <p>The result has one row per window keyed by the last row key of the window, with a column per parameter, followed by a
+     * column of standard errors per parameter suffixed with _STD_ERROR, then R_SQUARED and the regression STD_ERROR. Rows with
+     * missing values are excluded from a window, and windows that cannot be fitted are NaN.</p>
+     * @param regressand    the column that defines the regressand or Y variable
+     * @param regressors    the column(s) that define the regressors or X variables
+     * @param window        the number of rows in each window, which must exceed the number of parameters
+     * @param intercept     true to include an intercept / constant term in the model
+     * @return              the frame of rolling regression results
+     */
+    DataFrame<R,String> rollingOls(C regressand, Iterable<C> regressors, int window, boolean intercept);
+
+    /**
+     * Executes rolling window OLS regressions of multiple regressands on the same regressors, in parallel if this frame is parallel
+     * @param regressands   the columns that define the regressands or Y variables
+     * @param regressors    the column(s) that define the regressors or X variables
+     * @param window        the number of rows in each window, which must exceed the number of parameters
+     * @param intercept     true to include an intercept / constant term in the model
+     * @return              the frames of rolling regression results keyed by regressand
+     * @see #rollingOls(Object, Iterable, int, boolean)
+     */
+    Map<C,DataFrame<R,String>> rollingOls(Iterable<C> regressands, Iterable<C> regressors, int window, boolean intercept);
+
 }
@@ -19,6 +19,7 @@ import java.io.File;
 import java.io.OutputStream;
 import java.net.URL;
 
+import com.d3x.morpheus.binary.MorpheusSink;
 import com.d3x.morpheus.csv.CsvSink;
 
 /**
@@ -58,4 +59,19 @@ public interface DataFrameWrite<R,C> {
      */
     CsvSink<R,C> csv(String resource);
 
+
+    /**
+     * Returns a sink to write a DF in the Morpheus columnar binary format
+     * @param file      the output file
+     * @return          the Morpheus sink
+     */
+    MorpheusSink<R,C> morpheus(File file);
+
+    /**
+     * Returns a sink to write a DF in the Morpheus columnar binary format
+     * @param os        the output stream to write to
+     * @return          the Morpheus sink
+     */
+    MorpheusSink<R,C> morpheus(OutputStream os);
+
 }
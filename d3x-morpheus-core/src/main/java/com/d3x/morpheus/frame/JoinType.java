@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.frame;
+
+/**
+ * An enum that defines the types of key based joins supported between two DataFrames
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public enum JoinType {
+
+    /**
+     * Only rows with a matching key on both sides are included
+     */
+    INNER,
+
+    /**
+     * All rows of the left frame are included, with unmatched right values left as defaults
+     */
+    LEFT,
+
+    /**
+     * All rows of both frames are included, with unmatched right rows appended after the left rows
+     */
+    OUTER,
+
+    /**
+     * All rows of the left frame are included, each matched to the last right row whose key is less than or equal to its own
+     */
+    ASOF
+
+}
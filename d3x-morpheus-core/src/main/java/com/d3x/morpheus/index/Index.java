@@ -171,9 +171,17 @@ public interface Index<K> extends Iterable<K>, Cloneable, Serializable {
      */
     Optional<K> last();
 
+    /**
+     * Returns true if the keys in this index are known to be in ascending order
+     * The flag is set by an ascending sort, by indexes created from an ascending Range and is preserved by appending
+     * increasing keys, otherwise it is resolved by a single scan of the keys which is then cached until the next change.
+     * @return  true if the keys of this index are in ascending order
+     */
+    boolean isSorted();
+
     /**
      * Returns the largest key strictly less than the given key
-     * This operation only works if the index is sorted, otherwise result is undefined
+     * This is a binary search if the index is sorted, otherwise a linear scan of the keys
      * @param key   the key from which to find the next lower key
      * @return      the largest key strictly less than the given key
      */
@@ -181,12 +189,29 @@ public interface Index<K> extends Iterable<K>, Cloneable, Serializable {
 
     /**
      * Returns the smallest key strictly greater than the given key
-     * This operation only works if the array is sorted, otherwise result is undefined
+     * This is a binary search if the index is sorted, otherwise a linear scan of the keys
      * @param key   the key from which to find the next highest key
      * @return      the smallest key strictly greater than the given key
      */
     Optional<K> nextKey(K key);
 
+    /**
+     * Returns the largest key less than or equal to the given key, which is the key in effect "as of" the key specified
+     * This is a binary search if the index is sorted, otherwise a linear scan of the keys
+     * @param key   the key for which to find the as-of key
+     * @return      the largest key less than or equal to the given key
+     */
+    Optional<K> asOf(K key);
+
+    /**
+     * Returns a filter over this index including only the keys in the closed interval [lower, upper]
+     * If the index is sorted, the bounds are located by binary search, otherwise all keys are tested in order
+     * @param lower     the lower bound key, inclusive
+     * @param upper     the upper bound key, inclusive
+     * @return          the filtered index
+     */
+    Index<K> between(K lower, K upper);
+
     /**
      * Resets the order of this index to insertion order
      * @return  this index
@@ -288,6 +313,13 @@ public interface Index<K> extends Iterable<K>, Cloneable, Serializable {
      */
     void sort(boolean parallel, IntComparator comparator);
 
+    /**
+     * Re-orders the keys in this index according to the permutation of ordinals provided
+     * @param ordinals  the current ordinals of the keys in their new order, which must be a permutation of 0 to size() - 1
+     * @throws IndexException   if the length of ordinals does not match the size of this index
+     */
+    void reorder(int[] ordinals);
+
     /**
      * Returns a filter over this index including only the keys specified
      * @param keys  the iterable set of keys to include in the filter
@@ -25,15 +25,21 @@ import java.util.stream.StreamSupport;
 
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBuilder;
-import com.d3x.morpheus.array.ArrayValue;
+import com.d3x.morpheus.array.coding.WithLongCoding;
 import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.Comparators;
 import com.d3x.morpheus.util.IntComparator;
 import com.d3x.morpheus.util.SortAlgorithm;
+import com.d3x.morpheus.util.StableSort;
 import com.d3x.morpheus.util.Swapper;
 
 /**
  * A convenience base class for building Index implementations
  *
+ * <p>This class tracks whether the keys are in ascending order, in which case lower / higher / as-of lookups and key range
+ * filters are resolved by binary search rather than a scan. Subclasses that hold primitive or coded keys override
+ * <code>compareAt()</code> so that the search compares primitives without boxing or decoding keys.</p>
+ *
  * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
  *
  * @author  Xavier Witdouck
@@ -48,6 +54,7 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
     private Index<K> parent;
     private int[] indexes;
     private int[] ordinals;
+    private Boolean sorted;
 
     /**
      *
@@ -65,6 +72,7 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
     IndexBase(Iterable<K> iterable, Index<K> parent) {
         this.keys = createArray(iterable);
         this.parent = parent;
+        this.sorted = isAscendingRange(iterable) ? Boolean.TRUE : null;
         if (parent != null) {
             this.indexes = new int[keys.length()];
             this.ordinals = new int[parent.size()];
@@ -99,6 +107,15 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
         }
     }
 
+    /**
+     * Returns true if the keys are a Range known to be in ascending order
+     * @param keys  the iterable set of keys
+     * @return      true if keys are an ascending Range
+     */
+    private static boolean isAscendingRange(Iterable<?> keys) {
+        return keys instanceof Range && !(keys instanceof Range.RangeMapping) && ((Range<?>)keys).isAscending();
+    }
+
     /**
      * Returns the parent for this index
      * @return the optional parent
@@ -190,14 +207,195 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
         return size() == 0 ? Optional.empty() : Optional.ofNullable(getKey(size() - 1));
     }
 
+    @Override()
+    public final boolean isSorted() {
+        if (sorted == null) {
+            var size = size();
+            var result = true;
+            for (int i = 1; i < size && result; ++i) {
+                result = isOrdered(i - 1, i);
+            }
+            this.sorted = result;
+        }
+        return sorted;
+    }
+
     @Override()
     public final Optional<K> previousKey(K key) {
-        return keys.previous(key).map(ArrayValue::getValue);
+        var ordinal = floorOrdinal(key, false);
+        return ordinal < 0 ? Optional.empty() : Optional.ofNullable(getKey(ordinal));
     }
 
     @Override()
     public final Optional<K> nextKey(K key) {
-        return keys.next(key).map(ArrayValue::getValue);
+        var ordinal = ceilingOrdinal(key, false);
+        return ordinal < 0 ? Optional.empty() : Optional.ofNullable(getKey(ordinal));
+    }
+
+    @Override()
+    public final Optional<K> asOf(K key) {
+        var ordinal = floorOrdinal(key, true);
+        return ordinal < 0 ? Optional.empty() : Optional.ofNullable(getKey(ordinal));
+    }
+
+    @Override()
+    @SuppressWarnings("unchecked")
+    public final Index<K> between(K lower, K upper) {
+        if (isSorted()) {
+            var from = ceilingOrdinal(lower, true);
+            var to = floorOrdinal(upper, true);
+            var filter = from < 0 || to < from ? filter(Array.of(type(), 0)) : filter(keys.copy(from, to + 1));
+            if (filter instanceof IndexBase) {
+                ((IndexBase<K>)filter).sorted = Boolean.TRUE;
+            }
+            return filter;
+        } else {
+            var size = size();
+            var builder = ArrayBuilder.of(Math.max(10, size / 10), type());
+            for (int i = 0; i < size; ++i) {
+                if (compareAt(i, lower) >= 0 && compareAt(i, upper) <= 0) {
+                    builder.append(keys.getValue(i));
+                }
+            }
+            return filter(builder.toArray());
+        }
+    }
+
+    /**
+     * Compares the key at the ordinal specified with some other key, consistent with the order used to sort this index
+     * Subclasses with primitive or coded keys override this to avoid boxing or decoding keys during a binary search
+     * @param ordinal   the ordinal of the key in this index
+     * @param key       the key to compare with
+     * @return          negative, zero or positive if the key at ordinal is less than, equal to or greater than the key
+     */
+    int compareAt(int ordinal, K key) {
+        return Comparators.getDefaultComparator(type()).compare(keys.getValue(ordinal), key);
+    }
+
+    /**
+     * Compares the keys at the two ordinals specified, consistent with <code>compareAt()</code>
+     * @param i     the ordinal of the first key
+     * @param j     the ordinal of the second key
+     * @return      negative, zero or positive if the first key is less than, equal to or greater than the second
+     */
+    int compareOrdinals(int i, int j) {
+        return compareAt(i, keys.getValue(j));
+    }
+
+    /**
+     * Returns true if the key at the first ordinal is strictly less than the key at the second
+     * Keys that cannot be compared with one another, such as an index of mixed types, are considered out of order
+     * @param i     the ordinal of the first key
+     * @param j     the ordinal of the second key
+     * @return      true if the keys are in ascending order
+     */
+    private boolean isOrdered(int i, int j) {
+        try {
+            return compareOrdinals(i, j) < 0;
+        } catch (ClassCastException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the ordinal of the key matching the key specified by binary search, which requires the index to be sorted
+     * @param key   the key to search for
+     * @return      the ordinal of the match, or (-(insertion point) - 1) if no match
+     */
+    private int search(K key) {
+        var low = 0;
+        var high = size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int result = compareAt(mid, key);
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Returns the ordinal of the greatest key less than (or equal to if inclusive) the key specified
+     * @param key       the key to search from
+     * @param inclusive true to include a key equal to the one specified
+     * @return          the ordinal of matching key, or -1 if no match
+     */
+    private int floorOrdinal(K key, boolean inclusive) {
+        if (isSorted()) {
+            final int index = search(key);
+            return index < 0 ? -index - 2 : inclusive ? index : index - 1;
+        } else {
+            var result = -1;
+            var size = size();
+            for (int i = 0; i < size; ++i) {
+                final int compare = compareAt(i, key);
+                if (compare < 0 || (inclusive && compare == 0)) {
+                    if (result < 0 || compareOrdinals(i, result) > 0) {
+                        result = i;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the ordinal of the least key greater than (or equal to if inclusive) the key specified
+     * @param key       the key to search from
+     * @param inclusive true to include a key equal to the one specified
+     * @return          the ordinal of matching key, or -1 if no match
+     */
+    private int ceilingOrdinal(K key, boolean inclusive) {
+        if (isSorted()) {
+            final int index = search(key);
+            final int ordinal = index < 0 ? -index - 1 : inclusive ? index : index + 1;
+            return ordinal < size() ? ordinal : -1;
+        } else {
+            var result = -1;
+            var size = size();
+            for (int i = 0; i < size; ++i) {
+                final int compare = compareAt(i, key);
+                if (compare > 0 || (inclusive && compare == 0)) {
+                    if (result < 0 || compareOrdinals(i, result) < 0) {
+                        result = i;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Updates the sorted state of this index after a key has been appended at the ordinal specified
+     * Appending keys in increasing order to an empty or sorted index retains the sorted state without a scan
+     * @param ordinal   the ordinal of the appended key
+     */
+    final void appended(int ordinal) {
+        if (ordinal == 0) {
+            this.sorted = Boolean.TRUE;
+        } else if (sorted != null && sorted) {
+            this.sorted = isOrdered(ordinal - 1, ordinal);
+        }
+    }
+
+    /**
+     * Updates the sorted state of this index after the key at the ordinal specified has been replaced
+     * @param ordinal   the ordinal of the replaced key
+     */
+    final void replaced(int ordinal) {
+        if (sorted != null && sorted) {
+            var last = size() - 1;
+            var lowerOk = ordinal == 0 || isOrdered(ordinal - 1, ordinal);
+            var upperOk = ordinal == last || isOrdered(ordinal, ordinal + 1);
+            this.sorted = lowerOk && upperOk;
+        } else {
+            this.sorted = null;
+        }
     }
 
     @Override
@@ -266,10 +464,18 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
     @SuppressWarnings("unchecked")
     public void sort(boolean parallel, boolean ascending) {
         try {
-            var multiplier = ascending ? 1 : -1;
-            this.indexes = indexes != null ? indexes : IntStream.range(0, size()).toArray();
-            IntComparator comparator = (i, j) -> multiplier * keys.compare(i, j);
-            SortAlgorithm.getDefault(parallel).sort(0, size(), comparator, this);
+            var radixKeys = radixKeys(ascending);
+            if (radixKeys != null) {
+                var order = IntStream.range(0, radixKeys.length).toArray();
+                StableSort.radix(radixKeys, order, parallel);
+                this.reorder(order);
+            } else {
+                var multiplier = ascending ? 1 : -1;
+                this.indexes = indexes != null ? indexes : IntStream.range(0, size()).toArray();
+                IntComparator comparator = (i, j) -> multiplier * keys.compare(i, j);
+                SortAlgorithm.getDefault(parallel).sort(0, size(), comparator, this);
+            }
+            this.sorted = ascending ? Boolean.TRUE : null;
         } catch (Exception ex) {
             throw new IndexException("Failed to sort Index", ex);
         }
@@ -280,6 +486,7 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
     @SuppressWarnings("unchecked")
     public void sort(boolean parallel, IntComparator comparator) {
         try {
+            this.sorted = null;
             if (comparator == null) {
                 this.indexes = null;
                 this.ordinals = null;
@@ -298,6 +505,57 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
     }
 
 
+    @Override
+    public void reorder(int[] order) {
+        var size = size();
+        if (order.length != size) {
+            throw new IndexException("The ordinals must be a permutation of all " + size + " ordinals, not " + order.length);
+        } else {
+            var newIndexes = new int[size];
+            for (int i = 0; i < size; ++i) {
+                newIndexes[i] = indexes != null ? indexes[order[i]] : order[i];
+            }
+            this.keys = keys.copy(order);
+            this.indexes = newIndexes;
+            this.ordinals = ordinals != null ? ordinals : new int[size];
+            for (int i = 0; i < size; ++i) {
+                this.ordinals[newIndexes[i]] = i;
+            }
+            this.sorted = null;
+        }
+    }
+
+
+    /**
+     * Returns radix sort keys for the keys of this index in ordinal order, or null if the keys are not primitive or coded
+     * @param ascending true for keys that sort ascending, false for descending
+     * @return          the radix sort keys, or null if a radix sort is not applicable
+     */
+    private long[] radixKeys(boolean ascending) {
+        var size = size();
+        var mask = ascending ? 0L : -1L;
+        var result = new long[size];
+        if (keys instanceof WithLongCoding) {
+            for (int i = 0; i < size; ++i) result[i] = StableSort.toKey(keys.getLong(i)) ^ mask;
+            return result;
+        } else {
+            switch (keys.typeCode()) {
+                case INTEGER:
+                    for (int i = 0; i < size; ++i) result[i] = StableSort.toKey(keys.getInt(i)) ^ mask;
+                    return result;
+                case LONG:
+                    for (int i = 0; i < size; ++i) result[i] = StableSort.toKey(keys.getLong(i)) ^ mask;
+                    return result;
+                case DOUBLE:
+                    for (int i = 0; i < size; ++i) result[i] = StableSort.toKey(keys.getDouble(i)) ^ mask;
+                    return result;
+                default:
+                    return null;
+            }
+        }
+    }
+
+
     @Override
     public final void swap(int i, int j) {
         this.keys.swap(i, j);
@@ -326,8 +584,16 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
     @Override()
     public Index<K> resetOrder() {
         if (!isFilter()) {
+            if (indexes != null) {
+                var order = IntStream.range(0, size()).toArray();
+                for (int i = 0; i < indexes.length; ++i) {
+                    order[indexes[i]] = i;
+                }
+                this.keys = keys.copy(order);
+            }
             this.ordinals = null;
             this.indexes = null;
+            this.sorted = null;
         }
         return this;
     }
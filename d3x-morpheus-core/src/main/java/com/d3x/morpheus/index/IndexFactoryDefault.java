@@ -28,6 +28,7 @@ import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayType;
 import com.d3x.morpheus.array.coding.IntCoding;
 import com.d3x.morpheus.array.coding.LongCoding;
+import com.d3x.morpheus.array.coding.WithIntCoding;
 
 /**
  * The default IndexFactory implementation
@@ -51,6 +52,10 @@ class IndexFactoryDefault extends IndexFactory {
     @SuppressWarnings("unchecked")
     public <K> Index<K> create(Iterable<K> keys) {
         final ArrayType type = typeOf(keys);
+        final IntCoding<K> dictionary = dictionaryOf(keys);
+        if (dictionary != null) {
+            return new IndexWithIntCoding<>(keys, dictionary);
+        }
         switch (type) {
             case INTEGER:           return (Index<K>)new IndexOfInts((Iterable<Integer>)keys);
             case LONG:              return (Index<K>)new IndexOfLongs((Iterable<Long>)keys);
@@ -87,6 +92,22 @@ class IndexFactoryDefault extends IndexFactory {
         }
     }
 
+    /**
+     * Returns the dictionary coding of a categorical array of keys, so that the index can share its codes
+     * @param keys  the Iterable keys
+     * @param <K>   the key type
+     * @return      the dictionary coding, null if keys are not a categorical array
+     */
+    @SuppressWarnings("unchecked")
+    private <K> IntCoding<K> dictionaryOf(Iterable<K> keys) {
+        if (keys instanceof Array && keys instanceof WithIntCoding) {
+            final IntCoding<K> coding = ((WithIntCoding<K>)keys).getCoding();
+            return coding instanceof IntCoding.OfDictionary ? coding : null;
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Returns the array type from the Iterable
      * @param keys  the Iterable keys
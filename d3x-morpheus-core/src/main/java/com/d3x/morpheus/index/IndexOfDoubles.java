@@ -110,6 +110,7 @@ class IndexOfDoubles extends IndexBase<Double> {
                 final int index = indexMap.size();
                 this.ensureCapacity(index + 1);
                 this.keyArray().setValue(index, key);
+                this.appended(index);
                 this.indexMap.put(key, index);
                 return true;
             }
@@ -128,6 +129,7 @@ class IndexOfDoubles extends IndexBase<Double> {
                     final int index = indexMap.size();
                     this.ensureCapacity(index + 1);
                     this.keyArray().setDouble(index, keyAsDouble);
+                    this.appended(index);
                     final int existing = indexMap.put(keyAsDouble, index);
                     if (!ignoreDuplicates && existing >= 0) {
                         throw new IndexException("Attempt to add duplicate key to index: " + key);
@@ -150,6 +152,16 @@ class IndexOfDoubles extends IndexBase<Double> {
         }
     }
 
+    @Override
+    final int compareAt(int ordinal, Double key) {
+        return Double.compare(keyArray().getDouble(ordinal), key);
+    }
+
+    @Override
+    final int compareOrdinals(int i, int j) {
+        return keyArray().compare(i, j);
+    }
+
     @Override
     public final int size() {
         return indexMap.size();
@@ -177,6 +189,7 @@ class IndexOfDoubles extends IndexBase<Double> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacement, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.replaced(ordinal);
                 return index;
             }
         }
@@ -115,6 +115,7 @@ class IndexOfInts extends IndexBase<Integer> {
                 final int index = indexMap.size();
                 this.ensureCapacity(index + 1);
                 this.keyArray().setValue(index, key);
+                this.appended(index);
                 this.indexMap.put(key, index);
                 return true;
             }
@@ -133,6 +134,7 @@ class IndexOfInts extends IndexBase<Integer> {
                     final int index = indexMap.size();
                     this.ensureCapacity(index + 1);
                     this.keyArray().setValue(index, keyAsInt);
+                    this.appended(index);
                     final int existing = indexMap.put(keyAsInt, index);
                     if (!ignoreDuplicates && existing >= 0) {
                         throw new IndexException("Attempt to add duplicate key to index: " + key);
@@ -155,6 +157,16 @@ class IndexOfInts extends IndexBase<Integer> {
         }
     }
 
+    @Override
+    final int compareAt(int ordinal, Integer key) {
+        return Integer.compare(keyArray().getInt(ordinal), key);
+    }
+
+    @Override
+    final int compareOrdinals(int i, int j) {
+        return keyArray().compare(i, j);
+    }
+
     @Override
     public final int size() {
         return indexMap.size();
@@ -182,6 +194,7 @@ class IndexOfInts extends IndexBase<Integer> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacement, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.replaced(ordinal);
                 return index;
             }
         }
@@ -198,17 +211,6 @@ class IndexOfInts extends IndexBase<Integer> {
     }
 
 
-    @Override
-    public final Index<Integer> resetOrder() {
-        final Array<Integer> keys = keyArray();
-        this.indexMap.forEachEntry((key, index) -> {
-            keys.setInt(index, key);
-            return true;
-        });
-        return this;
-    }
-
-
     @Override
     public final void sort(boolean parallel, IntComparator comparator) {
         super.sort(parallel, comparator);
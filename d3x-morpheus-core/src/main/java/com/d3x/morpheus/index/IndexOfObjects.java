@@ -112,6 +112,7 @@ class IndexOfObjects<K> extends IndexBase<K> {
                 final int index = indexMap.size();
                 this.ensureCapacity(index + 1);
                 this.keyArray().setValue(index, key);
+                this.appended(index);
                 this.indexMap.put(key, index);
                 return true;
             }
@@ -129,6 +130,7 @@ class IndexOfObjects<K> extends IndexBase<K> {
                     final int index = indexMap.size();
                     this.ensureCapacity(index + 1);
                     this.keyArray().setValue(index, key);
+                    this.appended(index);
                     final int existing = indexMap.put(key, index);
                     if (!ignoreDuplicates && existing >= 0) {
                         throw new IndexException("Attempt to add duplicate key to index: " + key);
@@ -179,6 +181,7 @@ class IndexOfObjects<K> extends IndexBase<K> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacement, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.replaced(ordinal);
                 return index;
             }
         }
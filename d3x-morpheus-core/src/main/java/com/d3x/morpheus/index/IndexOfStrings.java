@@ -110,6 +110,7 @@ class IndexOfStrings extends IndexBase<String> {
                 final int index = indexMap.size();
                 this.ensureCapacity(index + 1);
                 this.keyArray().setValue(index, key);
+                this.appended(index);
                 this.indexMap.put(key, index);
                 return true;
             }
@@ -127,6 +128,7 @@ class IndexOfStrings extends IndexBase<String> {
                     final int index = indexMap.size();
                     this.ensureCapacity(index + 1);
                     this.keyArray().setValue(index, key);
+                    this.appended(index);
                     final int existing = indexMap.put(key, index);
                     if (!ignoreDuplicates && existing >= 0) {
                         throw new IndexException("Attempt to add duplicate key to index: " + key);
@@ -176,6 +178,7 @@ class IndexOfStrings extends IndexBase<String> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacement, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.replaced(ordinal);
                 return index;
             }
         }
@@ -153,6 +153,21 @@ class IndexReadOnly<K> implements Index<K> {
         return underlying.nextKey(key);
     }
 
+    @Override
+    public final Optional<K> asOf(K key) {
+        return underlying.asOf(key);
+    }
+
+    @Override
+    public final boolean isSorted() {
+        return underlying.isSorted();
+    }
+
+    @Override
+    public final Index<K> between(K lower, K upper) {
+        return underlying.between(lower, upper);
+    }
+
     @Override
     public final Index<K> resetOrder() {
         return underlying.resetOrder();
@@ -223,6 +238,11 @@ class IndexReadOnly<K> implements Index<K> {
         this.underlying.sort(parallel, comparator);
     }
 
+    @Override
+    public final void reorder(int[] ordinals) {
+        this.underlying.reorder(ordinals);
+    }
+
     @Override
     public final Index<K> filter(Iterable<K> keys) {
         return underlying.filter(keys);
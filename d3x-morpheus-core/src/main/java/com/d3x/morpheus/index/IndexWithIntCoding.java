@@ -46,7 +46,7 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
      * @param capacity  the initial capacity for this index
      */
     IndexWithIntCoding(Class<T> type, IntCoding<T> coding, int capacity) {
-        super(Array.of(type, capacity));
+        super(coding instanceof IntCoding.OfDictionary ? Array.ofCategorical((IntCoding.OfDictionary<T>)coding, capacity) : Array.of(type, capacity));
         this.coding = coding;
         this.indexMap = new TIntIntHashMap(capacity, DEFAULT_LOAD_FACTOR, -1, -1);
     }
@@ -57,7 +57,7 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
      * @param coding    the coding for this index
      */
     IndexWithIntCoding(Iterable<T> iterable, IntCoding<T> coding) {
-        super(iterable);
+        super(encode(iterable, coding));
         this.coding = coding;
         this.indexMap = new TIntIntHashMap(keyArray().length(), DEFAULT_LOAD_FACTOR, -1, -1);
         this.keyArray().sequential().forEachValue(v -> {
@@ -77,7 +77,7 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
      * @param parent    the parent index to initialize from
      */
     private IndexWithIntCoding(Iterable<T> iterable, IntCoding<T> coding, IndexWithIntCoding<T> parent) {
-        super(iterable, parent);
+        super(encode(iterable, coding), parent);
         this.coding = coding;
         this.indexMap = new TIntIntHashMap(keyArray().length(), DEFAULT_LOAD_FACTOR, -1, -1);
         this.keyArray().sequential().forEachValue(v -> {
@@ -92,6 +92,28 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
     }
 
 
+    /**
+     * Returns the keys as an array coded with the dictionary specified, if not already coded that way
+     * Codes from a dictionary are only meaningful with that dictionary, so keys coded otherwise must be encoded again
+     * @param keys      the keys for index
+     * @param coding    the coding for index
+     * @return          the keys, coded with the dictionary if the coding is a dictionary
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Iterable<T> encode(Iterable<T> keys, IntCoding<T> coding) {
+        if (!(coding instanceof IntCoding.OfDictionary)) {
+            return keys;
+        } else if (keys instanceof WithIntCoding && ((WithIntCoding<T>)keys).getCoding() == coding) {
+            return keys;
+        } else {
+            final ArrayBuilder<T> builder = ArrayBuilder.of(1000, coding.getType());
+            final Array<T> array = builder.appendAll(keys).toArray();
+            final Array<T> result = Array.ofCategorical((IntCoding.OfDictionary<T>)coding, array.length());
+            return result.applyValues(v -> array.getValue(v.index()));
+        }
+    }
+
+
     @Override
     public final IntCoding<T> getCoding() {
         return coding;
@@ -130,6 +152,7 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
                 final int index = indexMap.size();
                 this.ensureCapacity(index + 1);
                 this.keyArray().setValue(index, key);
+                this.appended(index);
                 this.indexMap.put(code, index);
                 return true;
             }
@@ -148,6 +171,7 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
                     final int index = indexMap.size();
                     this.ensureCapacity(index + 1);
                     this.keyArray().setValue(index, key);
+                    this.appended(index);
                     final int existing = indexMap.put(code, index);
                     if (!ignoreDuplicates && existing >= 0) {
                         throw new IndexException("Attempt to add duplicate key to index: " + key);
@@ -171,6 +195,24 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
         }
     }
 
+    @Override
+    final int compareAt(int ordinal, T key) {
+        if (coding instanceof IntCoding.OfDictionary || !(keyArray() instanceof WithIntCoding)) {
+            return super.compareAt(ordinal, key);
+        } else {
+            return Integer.compare(keyArray().getInt(ordinal), coding.findCode(key));
+        }
+    }
+
+    @Override
+    final int compareOrdinals(int i, int j) {
+        if (keyArray() instanceof WithIntCoding) {
+            return keyArray().compare(i, j);
+        } else {
+            return super.compareOrdinals(i, j);
+        }
+    }
+
     @Override
     public final int size() {
         return indexMap.size();
@@ -178,30 +220,31 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
 
     @Override
     public final int getCoordinate(T key) {
-        final int code = coding.getCode(key);
-        return indexMap.get(code);
+        final int code = coding.findCode(key);
+        return code < 0 && key != null ? -1 : indexMap.get(code);
     }
 
     @Override
     public final boolean contains(T key) {
-        final int code = coding.getCode(key);
-        return indexMap.containsKey(code);
+        final int code = coding.findCode(key);
+        return (code >= 0 || key == null) && indexMap.containsKey(code);
     }
 
     @Override
     public final int replace(T existing, T replacement) {
-        final int existingCode = coding.getCode(existing);
-        final int index = indexMap.remove(existingCode);
+        final int existingCode = coding.findCode(existing);
+        final int index = existingCode < 0 && existing != null ? -1 : indexMap.remove(existingCode);
         if (index == -1) {
             throw new IndexException("No match key for " + existing);
         } else {
-            final int replacementCode = coding.getCode(existing);
+            final int replacementCode = coding.getCode(replacement);
             if (indexMap.containsKey(replacementCode)) {
                 throw new IndexException("The replacement key already exists in index " + replacement);
             } else {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacementCode, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.replaced(ordinal);
                 return index;
             }
         }
@@ -212,7 +255,7 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
         final int size = size();
         for (int i=0; i<size; ++i) {
             final T key = keyArray().getValue(i);
-            final int code = coding.getCode(key);
+            final int code = coding.findCode(key);
             final int index = indexMap.get(code);
             consumer.accept(key, index);
         }
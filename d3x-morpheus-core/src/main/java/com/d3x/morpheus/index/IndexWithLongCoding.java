@@ -130,6 +130,7 @@ class IndexWithLongCoding<T> extends IndexBase<T> implements WithLongCoding<T> {
                 final int index = indexMap.size();
                 this.ensureCapacity(index + 1);
                 this.keyArray().setValue(index, key);
+                this.appended(index);
                 this.indexMap.put(code, index);
                 return true;
             }
@@ -148,6 +149,7 @@ class IndexWithLongCoding<T> extends IndexBase<T> implements WithLongCoding<T> {
                     final int index = indexMap.size();
                     this.ensureCapacity(index + 1);
                     this.keyArray().setValue(index, key);
+                    this.appended(index);
                     final int existing = indexMap.put(code, index);
                     if (!ignoreDuplicates && existing >= 0) {
                         throw new IndexException("Attempt to add duplicate key to index: " + key);
@@ -171,6 +173,16 @@ class IndexWithLongCoding<T> extends IndexBase<T> implements WithLongCoding<T> {
         }
     }
 
+    @Override
+    final int compareAt(int ordinal, T key) {
+        return Long.compare(keyArray().getLong(ordinal), coding.getCode(key));
+    }
+
+    @Override
+    final int compareOrdinals(int i, int j) {
+        return keyArray().compare(i, j);
+    }
+
     @Override
     public final int size() {
         return indexMap.size();
@@ -202,6 +214,7 @@ class IndexWithLongCoding<T> extends IndexBase<T> implements WithLongCoding<T> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacementCode, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.replaced(ordinal);
                 return index;
             }
         }
@@ -15,8 +15,8 @@
  */
 package com.d3x.morpheus.linalg;
 
-import com.d3x.morpheus.matrix.ApacheMatrix;
 import com.d3x.morpheus.matrix.D3xMatrix;
+import com.d3x.morpheus.matrix.DenseMatrix;
 import com.d3x.morpheus.util.MorpheusException;
 import com.d3x.morpheus.vector.D3xVector;
 
@@ -49,12 +49,16 @@ final class ApacheSVD implements SVD {
         BlockRealMatrix blockA = new BlockRealMatrix(A.toArray());
         SingularValueDecomposition svd = new SingularValueDecomposition(blockA);
 
-        D3xMatrix apacheA = ApacheMatrix.wrap(blockA);
-        D3xMatrix apacheU = ApacheMatrix.wrap(svd.getU());
-        D3xMatrix apacheV = ApacheMatrix.wrap(svd.getV());
+        //
+        // Store the factors in dense matrices so that products with them
+        // (when solving or inverting) use the blocked matrix kernels...
+        //
+        D3xMatrix denseA = DenseMatrix.copyOf(A);
+        D3xMatrix denseU = DenseMatrix.copyOf(svd.getU().getData());
+        D3xMatrix denseV = DenseMatrix.copyOf(svd.getV().getData());
         D3xVector singVec = D3xVector.copyOf(svd.getSingularValues());
 
-        return new ApacheSVD(apacheA, apacheU, apacheV, singVec);
+        return new ApacheSVD(denseA, denseU, denseV, singVec);
     }
 
     @Override
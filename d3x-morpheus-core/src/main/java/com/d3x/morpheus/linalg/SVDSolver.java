@@ -350,7 +350,7 @@ public final class SVDSolver {
      * the row dimension of the coefficient matrix.
      */
     public D3xMatrix solve(D3xMatrix matrixB) {
-        D3xMatrix UT_B = svd.getUT().times(matrixB);
+        D3xMatrix UT_B = svd.getU().transposeTimes(matrixB);
         D3xMatrix Winv_UT_B = invertSingularValues().times(UT_B);
         D3xMatrix V_Winv_UT_B = svd.getV().times(Winv_UT_B);
 
@@ -221,10 +221,37 @@ public final class ApacheMatrix implements D3xMatrix {
     }
 
     @Override
-    public ApacheMatrix times(D3xMatrix B) {
+    public D3xMatrix times(D3xMatrix B) {
+        //
+        // Dense products are delegated to the blocked DenseMatrix kernels,
+        // diagonal factors simply scale the rows of the dense operand, and
+        // sparse right factors visit only their stored elements...
+        //
+        if (B instanceof DenseMatrix) {
+            if (impl instanceof DiagonalMatrix)
+                return DenseMatrix.copyOf(B).scaleRows(getDiagonalStorage());
+
+            if (!(impl instanceof OpenMapRealMatrix))
+                return DenseMatrix.copyOf(this).times(B);
+        }
+
+        if (B instanceof SparseMatrix && !(impl instanceof OpenMapRealMatrix))
+            return ((SparseMatrix) B).leftMultiply(DenseMatrix.copyOf(this));
+
         return wrap(this.impl.multiply(asOperand(B)));
     }
 
+    /**
+     * Returns the diagonal elements of this matrix if it has storage only
+     * for diagonal elements.
+     *
+     * @return the diagonal elements (a shallow reference) for a diagonal
+     * matrix, or {@code null} for any other matrix.
+     */
+    double[] getDiagonalStorage() {
+        return impl instanceof DiagonalMatrix ? ((DiagonalMatrix) impl).getDataRef() : null;
+    }
+
     @Override
     public ApacheMatrix transpose() {
         return wrap(impl.transpose());
@@ -149,6 +149,41 @@ public interface D3xMatrix extends D3xMatrixView {
      */
     D3xMatrix times(D3xMatrix B);
 
+    /**
+     * Computes the product {@code A'x} of the transpose of this matrix
+     * {@code A} and a vector {@code x} and returns the result in a new
+     * vector.
+     *
+     * @param x the vector factor.
+     *
+     * @return the product {@code A'x} of the transpose of this matrix and
+     * the input vector {@code x}.
+     *
+     * @throws RuntimeException unless the length of the input vector
+     * matches the row dimension of this matrix.
+     */
+    default D3xVector transposeTimes(D3xVector x) {
+        return transpose().times(x);
+    }
+
+    /**
+     * Computes the product {@code A'B} of the transpose of this matrix
+     * {@code A} and another matrix {@code B} and returns the result in a
+     * new matrix.  Dense implementations compute the product without
+     * creating the transpose.
+     *
+     * @param B the right matrix factor.
+     *
+     * @return the product {@code A'B} of the transpose of this matrix and
+     * the input matrix {@code B}.
+     *
+     * @throws RuntimeException unless the row dimension of the input
+     * matrix matches the row dimension of this matrix.
+     */
+    default D3xMatrix transposeTimes(D3xMatrix B) {
+        return transpose().times(B);
+    }
+
     /**
      * Creates the transpose of this matrix; this matrix is unchanged.
      * @return the transpose of this matrix.
@@ -232,7 +267,7 @@ public interface D3xMatrix extends D3xMatrixView {
      * @return a new matrix containing a copy of the specified array.
      */
     static D3xMatrix copyOf(double[][] values) {
-        return ApacheMatrix.copyOf(values);
+        return DenseMatrix.copyOf(values);
     }
 
     /**
@@ -248,7 +283,7 @@ public interface D3xMatrix extends D3xMatrixView {
      * @throws RuntimeException if either dimension is negative.
      */
     static D3xMatrix dense(int nrow, int ncol) {
-        return ApacheMatrix.dense(nrow, ncol);
+        return DenseMatrix.dense(nrow, ncol);
     }
 
     /**
@@ -353,7 +388,7 @@ public interface D3xMatrix extends D3xMatrixView {
      * @throws RuntimeException if either dimension is negative.
      */
     static D3xMatrix sparse(int nrow, int ncol) {
-        return ApacheMatrix.sparse(nrow, ncol);
+        return SparseMatrix.csr(nrow, ncol);
     }
 
     /**
@@ -431,7 +466,7 @@ public interface D3xMatrix extends D3xMatrixView {
      * @throws RuntimeException if either dimension is negative.
      */
     static D3xMatrix zeros(int nrow, int ncol) {
-        return ApacheMatrix.sparse(nrow, ncol);
+        return SparseMatrix.csr(nrow, ncol);
     }
 
 
@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.matrix;
+
+import lombok.NonNull;
+
+import com.d3x.morpheus.util.MorpheusException;
+import com.d3x.morpheus.vector.D3xVector;
+
+/**
+ * Implements the D3xMatrix interface using a single contiguous array
+ * with elements stored in row-major order.
+ *
+ * <p>Matrix products are computed by cache-blocked kernels that operate
+ * directly on the contiguous storage, and large products are split into
+ * tiles computed in parallel on the fork-join pool.  Products involving
+ * the transpose of this matrix ({@code A'B} and {@code A'x}) are computed
+ * without creating the transpose.</p>
+ *
+ * @author Scott Shaffer
+ */
+public final class DenseMatrix implements D3xMatrix {
+    private final int nrow;
+    private final int ncol;
+    @NonNull private final double[] data;
+
+    private DenseMatrix(int nrow, int ncol, double[] data) {
+        D3xMatrix.validateShape(nrow, ncol);
+
+        if (data.length != nrow * ncol)
+            throw new MorpheusException("Array length [%d] does not match the matrix shape [%d x %d].", data.length, nrow, ncol);
+
+        this.nrow = nrow;
+        this.ncol = ncol;
+        this.data = data;
+    }
+
+    /**
+     * Creates a new matrix by copying values from a bare array.
+     *
+     * @param values the values to be copied.
+     *
+     * @return a new matrix containing a copy of the specified array.
+     *
+     * @throws RuntimeException unless the array is rectangular.
+     */
+    public static DenseMatrix copyOf(double[][] values) {
+        int nrow = values.length;
+        int ncol = nrow > 0 ? values[0].length : 0;
+        DenseMatrix matrix = dense(nrow, ncol);
+
+        for (int i = 0; i < nrow; ++i) {
+            if (values[i].length != ncol)
+                throw new MorpheusException("Ragged input array.");
+
+            System.arraycopy(values[i], 0, matrix.data, i * ncol, ncol);
+        }
+
+        return matrix;
+    }
+
+    /**
+     * Creates a new matrix by copying values from another matrix view.
+     *
+     * @param view the view to be copied.
+     *
+     * @return a new matrix containing a copy of the specified view.
+     */
+    public static DenseMatrix copyOf(D3xMatrixView view) {
+        if (view instanceof DenseMatrix)
+            return ((DenseMatrix) view).copy();
+
+        DenseMatrix matrix = dense(view.nrow(), view.ncol());
+
+        for (int i = 0; i < matrix.nrow; ++i)
+            for (int j = 0; j < matrix.ncol; ++j)
+                matrix.data[i * matrix.ncol + j] = view.get(i, j);
+
+        return matrix;
+    }
+
+    /**
+     * Returns a dense matrix with the same values as a matrix view, without
+     * copying when the view is already a dense matrix.  The result must be
+     * treated as read-only, since it may share storage with the view.
+     *
+     * @param view the view to be converted.
+     *
+     * @return the view itself if it is a dense matrix, otherwise a new dense
+     * copy of the view.
+     */
+    static DenseMatrix denseOf(D3xMatrixView view) {
+        return view instanceof DenseMatrix ? (DenseMatrix) view : copyOf(view);
+    }
+
+    /**
+     * Creates a new matrix with all elements initialized to zero.
+     *
+     * @param nrow the number of matrix rows.
+     * @param ncol the number of matrix columns.
+     *
+     * @return a new matrix of zeros.
+     *
+     * @throws RuntimeException if either dimension is negative.
+     */
+    public static DenseMatrix dense(int nrow, int ncol) {
+        D3xMatrix.validateShape(nrow, ncol);
+        return new DenseMatrix(nrow, ncol, new double[nrow * ncol]);
+    }
+
+    /**
+     * Creates a mutable matrix view over a bare array with elements stored
+     * in row-major order (a shallow copy).  Changes to the returned matrix
+     * will be reflected in the input array, and changes to the array will be
+     * reflected in the matrix.
+     *
+     * @param nrow the number of matrix rows.
+     * @param ncol the number of matrix columns.
+     * @param data the matrix elements in row-major order.
+     *
+     * @return a new mutable matrix using the input array for its physical
+     * storage.
+     *
+     * @throws RuntimeException unless the array length matches the shape.
+     */
+    public static DenseMatrix wrap(int nrow, int ncol, double[] data) {
+        return new DenseMatrix(nrow, ncol, data);
+    }
+
+    @Override
+    public int nrow() {
+        return nrow;
+    }
+
+    @Override
+    public int ncol() {
+        return ncol;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        validateRowIndex(row);
+        validateColumnIndex(col);
+        return data[row * ncol + col];
+    }
+
+    @Override
+    public void set(int row, int col, double value) {
+        validateRowIndex(row);
+        validateColumnIndex(col);
+        data[row * ncol + col] = value;
+    }
+
+    @Override
+    public DenseMatrix copy() {
+        return new DenseMatrix(nrow, ncol, data.clone());
+    }
+
+    @Override
+    public DenseMatrix like(int nrow, int ncol) {
+        return dense(nrow, ncol);
+    }
+
+    @Override
+    public DenseMatrix multiplyInPlace(double scalar) {
+        for (int index = 0; index < data.length; ++index)
+            data[index] *= scalar;
+
+        return this;
+    }
+
+    @Override
+    public DenseMatrix times(double scalar) {
+        return copy().multiplyInPlace(scalar);
+    }
+
+    @Override
+    public D3xVector times(D3xVector x) {
+        if (x.length() != ncol)
+            throw new MorpheusException("Vector length does not match the number of columns.");
+
+        double[] y = new double[nrow];
+        MatrixKernels.gemv(data, nrow, ncol, false, x.toArray(), y, true);
+
+        return D3xVector.wrap(y);
+    }
+
+    @Override
+    public D3xVector transposeTimes(D3xVector x) {
+        if (x.length() != nrow)
+            throw new MorpheusException("Vector length does not match the number of rows.");
+
+        double[] y = new double[ncol];
+        MatrixKernels.gemv(data, nrow, ncol, true, x.toArray(), y, true);
+
+        return D3xVector.wrap(y);
+    }
+
+    @Override
+    public DenseMatrix times(D3xMatrix B) {
+        return times(B, true);
+    }
+
+    /**
+     * Computes the product {@code AB} of this matrix {@code A} and another
+     * matrix {@code B} and returns the result in a new matrix.
+     *
+     * @param B the right matrix factor.
+     * @param parallel whether the product may be computed in parallel.
+     *
+     * @return the product {@code AB} of this matrix {@code A} and the
+     * input matrix {@code B}.
+     *
+     * @throws RuntimeException unless the row dimension of the input
+     * matrix matches the column dimension of this matrix.
+     */
+    public DenseMatrix times(D3xMatrix B, boolean parallel) {
+        if (B.nrow() != ncol)
+            throw new MorpheusException("Matrix shapes [%d x %d] and [%d x %d] are not conformable.", nrow, ncol, B.nrow(), B.ncol());
+
+        double[] diagonal = diagonalOf(B);
+
+        if (diagonal != null)
+            return copy().scaleColumns(diagonal);
+
+        if (B instanceof SparseMatrix)
+            return ((SparseMatrix) B).leftMultiply(this);
+
+        DenseMatrix product = dense(nrow, B.ncol());
+        MatrixKernels.gemm(data, false, denseOf(B).data, product.data, nrow, B.ncol(), ncol, parallel);
+
+        return product;
+    }
+
+    @Override
+    public DenseMatrix transposeTimes(D3xMatrix B) {
+        return transposeTimes(B, true);
+    }
+
+    /**
+     * Computes the product {@code A'B} of the transpose of this matrix
+     * {@code A} and another matrix {@code B} without creating the transpose.
+     *
+     * @param B the right matrix factor.
+     * @param parallel whether the product may be computed in parallel.
+     *
+     * @return the product {@code A'B} of the transpose of this matrix and
+     * the input matrix {@code B}.
+     *
+     * @throws RuntimeException unless the row dimension of the input
+     * matrix matches the row dimension of this matrix.
+     */
+    public DenseMatrix transposeTimes(D3xMatrix B, boolean parallel) {
+        if (B.nrow() != nrow)
+            throw new MorpheusException("Matrix shapes [%d x %d]' and [%d x %d] are not conformable.", nrow, ncol, B.nrow(), B.ncol());
+
+        double[] diagonal = diagonalOf(B);
+
+        if (diagonal != null)
+            return transpose().scaleColumns(diagonal);
+
+        if (B instanceof SparseMatrix)
+            return ((SparseMatrix) B).leftMultiply(transpose());
+
+        DenseMatrix product = dense(ncol, B.ncol());
+        MatrixKernels.gemm(data, true, denseOf(B).data, product.data, ncol, B.ncol(), nrow, parallel);
+
+        return product;
+    }
+
+    @Override
+    public DenseMatrix transpose() {
+        DenseMatrix transpose = dense(ncol, nrow);
+
+        for (int i = 0; i < nrow; ++i)
+            for (int j = 0; j < ncol; ++j)
+                transpose.data[j * nrow + i] = data[i * ncol + j];
+
+        return transpose;
+    }
+
+    @Override
+    public double[][] toArray() {
+        double[][] array = new double[nrow][ncol];
+
+        for (int i = 0; i < nrow; ++i)
+            System.arraycopy(data, i * ncol, array[i], 0, ncol);
+
+        return array;
+    }
+
+    /**
+     * Returns the contiguous row-major storage for this matrix (a shallow
+     * reference).
+     *
+     * @return the contiguous row-major storage for this matrix.
+     */
+    double[] data() {
+        return data;
+    }
+
+    /**
+     * Multiplies each row of this matrix by the corresponding factor and
+     * modifies the elements of this matrix in place, which is equivalent
+     * to pre-multiplying by a diagonal matrix.
+     *
+     * @param factors the row factors.
+     *
+     * @return this matrix, for operator chaining.
+     */
+    DenseMatrix scaleRows(double[] factors) {
+        for (int i = 0; i < nrow; ++i)
+            for (int j = 0; j < ncol; ++j)
+                data[i * ncol + j] *= factors[i];
+
+        return this;
+    }
+
+    /**
+     * Multiplies each column of this matrix by the corresponding factor and
+     * modifies the elements of this matrix in place, which is equivalent to
+     * post-multiplying by a diagonal matrix.
+     *
+     * @param factors the column factors.
+     *
+     * @return this matrix, for operator chaining.
+     */
+    DenseMatrix scaleColumns(double[] factors) {
+        for (int i = 0; i < nrow; ++i)
+            for (int j = 0; j < ncol; ++j)
+                data[i * ncol + j] *= factors[j];
+
+        return this;
+    }
+
+    private static double[] diagonalOf(D3xMatrix matrix) {
+        return matrix instanceof ApacheMatrix ? ((ApacheMatrix) matrix).getDiagonalStorage() : null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DenseMatrix(%d x %d)", nrow, ncol);
+    }
+}
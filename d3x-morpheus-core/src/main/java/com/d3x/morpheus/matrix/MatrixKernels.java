@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.matrix;
+
+import java.util.concurrent.RecursiveAction;
+
+import com.d3x.morpheus.util.ForkJoinContext;
+
+/**
+ * Provides cache-blocked, multi-threaded matrix multiplication kernels
+ * operating on contiguous arrays stored in row-major order.
+ *
+ * <p>The matrix-matrix kernel walks the product in tiles: each tile of
+ * the result is accumulated from panels of the left and right factors
+ * small enough to remain in cache, and the innermost loop runs along
+ * contiguous rows of the right factor and the result so that the JIT
+ * compiler can vectorize it.  Large products are split into tiles of
+ * the result which are computed in parallel on the fork-join pool;
+ * each task owns a distinct tile, so no synchronization is required.</p>
+ *
+ * @author Scott Shaffer
+ */
+final class MatrixKernels {
+    // The number of result rows in a single tile...
+    private static final int ROW_BLOCK = 64;
+
+    // The number of inner (summation) indexes in a single panel...
+    private static final int INNER_BLOCK = 128;
+
+    // The number of result columns in a single tile...
+    private static final int COL_BLOCK = 256;
+
+    // Products requiring fewer multiply-adds run on the calling thread...
+    private static final long PARALLEL_THRESHOLD = 1L << 18;
+
+    private MatrixKernels() {
+    }
+
+    /**
+     * Accumulates the matrix product {@code C += op(A) * B}, where
+     * {@code op(A)} is either {@code A} or its transpose.
+     *
+     * @param A the left factor: an {@code M x K} matrix if {@code transA}
+     *          is {@code false}, otherwise a {@code K x M} matrix.
+     * @param transA whether to multiply by the transpose of {@code A}.
+     * @param B the {@code K x N} right factor.
+     * @param C the {@code M x N} result.
+     * @param M the number of rows in the result.
+     * @param N the number of columns in the result.
+     * @param K the inner dimension of the product.
+     * @param parallel whether the product may be split across the
+     *                 fork-join pool.
+     */
+    static void gemm(double[] A, boolean transA, double[] B, double[] C, int M, int N, int K, boolean parallel) {
+        GemmAction action = new GemmAction(A, transA, B, C, M, N, K, 0, M, 0, N);
+
+        if (parallel && (long) M * N * K >= PARALLEL_THRESHOLD)
+            ForkJoinContext.invoke(action);
+        else
+            action.multiply();
+    }
+
+    /**
+     * Computes the matrix-vector product {@code y = op(A) * x}, where
+     * {@code op(A)} is either {@code A} or its transpose.
+     *
+     * @param A the {@code M x N} matrix.
+     * @param M the number of rows in {@code A}.
+     * @param N the number of columns in {@code A}.
+     * @param transA whether to multiply by the transpose of {@code A}.
+     * @param x the vector factor, with length {@code N} (or {@code M} if
+     *          {@code transA} is {@code true}).
+     * @param y the result, with length {@code M} (or {@code N} if
+     *          {@code transA} is {@code true}).
+     * @param parallel whether the product may be split across the
+     *                 fork-join pool.
+     */
+    static void gemv(double[] A, int M, int N, boolean transA, double[] x, double[] y, boolean parallel) {
+        GemvAction action = new GemvAction(A, M, N, transA, x, y, 0, y.length);
+
+        if (parallel && (long) M * N >= PARALLEL_THRESHOLD)
+            ForkJoinContext.invoke(action);
+        else
+            action.multiply();
+    }
+
+    /**
+     * Computes one tile of a matrix-matrix product and splits itself
+     * along its longer dimension until the tile is small enough.
+     */
+    private static final class GemmAction extends RecursiveAction {
+        private final double[] A;
+        private final double[] B;
+        private final double[] C;
+        private final boolean transA;
+        private final int M;
+        private final int N;
+        private final int K;
+        private final int rowFrom;
+        private final int rowTo;
+        private final int colFrom;
+        private final int colTo;
+
+        private GemmAction(double[] A, boolean transA, double[] B, double[] C,
+                           int M, int N, int K, int rowFrom, int rowTo, int colFrom, int colTo) {
+            this.A = A;
+            this.B = B;
+            this.C = C;
+            this.transA = transA;
+            this.M = M;
+            this.N = N;
+            this.K = K;
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+            this.colFrom = colFrom;
+            this.colTo = colTo;
+        }
+
+        @Override
+        protected void compute() {
+            int nrow = rowTo - rowFrom;
+            int ncol = colTo - colFrom;
+
+            if ((long) nrow * ncol * K < PARALLEL_THRESHOLD || (nrow <= ROW_BLOCK && ncol <= COL_BLOCK)) {
+                multiply();
+            }
+            else if (nrow * COL_BLOCK >= ncol * ROW_BLOCK) {
+                int rowMid = rowFrom + nrow / 2;
+                invokeAll(new GemmAction(A, transA, B, C, M, N, K, rowFrom, rowMid, colFrom, colTo),
+                          new GemmAction(A, transA, B, C, M, N, K, rowMid, rowTo, colFrom, colTo));
+            }
+            else {
+                int colMid = colFrom + ncol / 2;
+                invokeAll(new GemmAction(A, transA, B, C, M, N, K, rowFrom, rowTo, colFrom, colMid),
+                          new GemmAction(A, transA, B, C, M, N, K, rowFrom, rowTo, colMid, colTo));
+            }
+        }
+
+        private void multiply() {
+            for (int i0 = rowFrom; i0 < rowTo; i0 += ROW_BLOCK) {
+                int i1 = Math.min(i0 + ROW_BLOCK, rowTo);
+
+                for (int k0 = 0; k0 < K; k0 += INNER_BLOCK) {
+                    int k1 = Math.min(k0 + INNER_BLOCK, K);
+
+                    for (int j0 = colFrom; j0 < colTo; j0 += COL_BLOCK) {
+                        int j1 = Math.min(j0 + COL_BLOCK, colTo);
+                        multiplyTile(i0, i1, k0, k1, j0, j1);
+                    }
+                }
+            }
+        }
+
+        private void multiplyTile(int i0, int i1, int k0, int k1, int j0, int j1) {
+            //
+            // Update four rows of the result at a time, so that each element
+            // of the right factor loaded from memory is used four times...
+            //
+            int i = i0;
+
+            for (; i + 3 < i1; i += 4) {
+                int rowC0 = i * N;
+                int rowC1 = rowC0 + N;
+                int rowC2 = rowC1 + N;
+                int rowC3 = rowC2 + N;
+
+                for (int k = k0; k < k1; ++k) {
+                    double A0k = elementA(i, k);
+                    double A1k = elementA(i + 1, k);
+                    double A2k = elementA(i + 2, k);
+                    double A3k = elementA(i + 3, k);
+                    int rowB = k * N;
+
+                    for (int j = j0; j < j1; ++j) {
+                        double Bkj = B[rowB + j];
+                        C[rowC0 + j] += A0k * Bkj;
+                        C[rowC1 + j] += A1k * Bkj;
+                        C[rowC2 + j] += A2k * Bkj;
+                        C[rowC3 + j] += A3k * Bkj;
+                    }
+                }
+            }
+
+            for (; i < i1; ++i) {
+                int rowC = i * N;
+
+                for (int k = k0; k < k1; ++k) {
+                    double Aik = elementA(i, k);
+                    int rowB = k * N;
+
+                    for (int j = j0; j < j1; ++j)
+                        C[rowC + j] += Aik * B[rowB + j];
+                }
+            }
+        }
+
+        private double elementA(int i, int k) {
+            return transA ? A[k * M + i] : A[i * K + k];
+        }
+    }
+
+    /**
+     * Computes a contiguous range of a matrix-vector product and splits
+     * itself until the range is small enough.
+     */
+    private static final class GemvAction extends RecursiveAction {
+        private final double[] A;
+        private final double[] x;
+        private final double[] y;
+        private final boolean transA;
+        private final int M;
+        private final int N;
+        private final int from;
+        private final int to;
+
+        private GemvAction(double[] A, int M, int N, boolean transA, double[] x, double[] y, int from, int to) {
+            this.A = A;
+            this.M = M;
+            this.N = N;
+            this.transA = transA;
+            this.x = x;
+            this.y = y;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int inner = transA ? M : N;
+
+            if ((long) (to - from) * inner < PARALLEL_THRESHOLD || to - from <= ROW_BLOCK) {
+                multiply();
+            }
+            else {
+                int mid = from + (to - from) / 2;
+                invokeAll(new GemvAction(A, M, N, transA, x, y, from, mid),
+                          new GemvAction(A, M, N, transA, x, y, mid, to));
+            }
+        }
+
+        private void multiply() {
+            if (transA) {
+                //
+                // Accumulate the scaled rows of A so that the inner loop
+                // runs over contiguous memory...
+                //
+                for (int i = 0; i < M; ++i) {
+                    double xi = x[i];
+                    int row = i * N;
+
+                    for (int j = from; j < to; ++j)
+                        y[j] += A[row + j] * xi;
+                }
+            }
+            else {
+                for (int i = from; i < to; ++i) {
+                    int row = i * N;
+                    double sum = 0.0;
+
+                    for (int j = 0; j < N; ++j)
+                        sum += A[row + j] * x[j];
+
+                    y[i] = sum;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,589 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.matrix;
+
+import java.util.Arrays;
+
+import com.d3x.morpheus.util.MorpheusException;
+import com.d3x.morpheus.vector.D3xVector;
+
+/**
+ * Implements the D3xMatrix interface with compressed sparse row (CSR) or
+ * compressed sparse column (CSC) storage.
+ *
+ * <p>The non-zero elements of each row (CSR) or column (CSC) are stored
+ * contiguously, ordered by column (CSR) or row (CSC) index: the elements
+ * of slot {@code k} occupy positions {@code pointers[k]} (inclusive) to
+ * {@code pointers[k + 1]} (exclusive) in the parallel {@code indexes} and
+ * {@code values} arrays.  Products with dense vectors and matrices visit
+ * only the stored elements, products of two sparse matrices are computed
+ * with Gustavson's row-by-row algorithm and remain sparse, and the
+ * transpose of a CSR matrix is simply a CSC matrix sharing the same
+ * layout, so it is created in time proportional to the number of stored
+ * elements.</p>
+ *
+ * <p>Elements that are not stored are structural zeros and contribute
+ * nothing to a product, even when the dense operand holds {@code NaN} or
+ * an infinity at the matching position.  Every stored element is always
+ * multiplied, however, so a stored {@code NaN} or infinity propagates
+ * through a product with a dense zero exactly as in a dense product.</p>
+ *
+ * <p>Element assignment inserts into or removes from the compressed
+ * arrays and therefore costs time proportional to the number of stored
+ * elements; large matrices should be assembled with {@code copyOf} or
+ * {@code wrap} rather than element by element.</p>
+ *
+ * @author Scott Shaffer
+ */
+public final class SparseMatrix implements D3xMatrix {
+    private final int nrow;
+    private final int ncol;
+    private final boolean byRow;
+    private final int[] pointers;
+    private int[] indexes;
+    private double[] values;
+
+    private SparseMatrix(int nrow, int ncol, boolean byRow, int[] pointers, int[] indexes, double[] values) {
+        D3xMatrix.validateShape(nrow, ncol);
+
+        this.nrow = nrow;
+        this.ncol = ncol;
+        this.byRow = byRow;
+        this.pointers = pointers;
+        this.indexes = indexes;
+        this.values = values;
+    }
+
+    /**
+     * Creates a new sparse matrix with compressed row storage and all
+     * elements initialized to zero.
+     *
+     * @param nrow the number of matrix rows.
+     * @param ncol the number of matrix columns.
+     *
+     * @return a new CSR matrix of zeros.
+     *
+     * @throws RuntimeException if either dimension is negative.
+     */
+    public static SparseMatrix csr(int nrow, int ncol) {
+        return empty(nrow, ncol, true);
+    }
+
+    /**
+     * Creates a new sparse matrix with compressed column storage and all
+     * elements initialized to zero.
+     *
+     * @param nrow the number of matrix rows.
+     * @param ncol the number of matrix columns.
+     *
+     * @return a new CSC matrix of zeros.
+     *
+     * @throws RuntimeException if either dimension is negative.
+     */
+    public static SparseMatrix csc(int nrow, int ncol) {
+        return empty(nrow, ncol, false);
+    }
+
+    private static SparseMatrix empty(int nrow, int ncol, boolean byRow) {
+        D3xMatrix.validateShape(nrow, ncol);
+        return new SparseMatrix(nrow, ncol, byRow, new int[(byRow ? nrow : ncol) + 1], new int[0], new double[0]);
+    }
+
+    /**
+     * Creates a new sparse matrix with compressed row storage by copying
+     * the non-zero elements of another matrix view.
+     *
+     * @param view the view to be copied.
+     *
+     * @return a new CSR matrix containing a copy of the specified view.
+     */
+    public static SparseMatrix copyOf(D3xMatrixView view) {
+        if (view instanceof SparseMatrix)
+            return ((SparseMatrix) view).toCSR().copy();
+
+        int nnz = 0;
+        int[] pointers = new int[view.nrow() + 1];
+        int[] indexes = new int[16];
+        double[] values = new double[16];
+
+        for (int i = 0; i < view.nrow(); ++i) {
+            for (int j = 0; j < view.ncol(); ++j) {
+                double value = view.get(i, j);
+
+                if (value != 0.0) {
+                    if (nnz == indexes.length) {
+                        indexes = Arrays.copyOf(indexes, 2 * nnz);
+                        values = Arrays.copyOf(values, 2 * nnz);
+                    }
+
+                    indexes[nnz] = j;
+                    values[nnz] = value;
+                    ++nnz;
+                }
+            }
+
+            pointers[i + 1] = nnz;
+        }
+
+        return new SparseMatrix(view.nrow(), view.ncol(), true, pointers, indexes, values);
+    }
+
+    /**
+     * Creates a sparse matrix over existing compressed arrays (a shallow
+     * copy).  For compressed row storage, the pointer array has length
+     * {@code nrow + 1} and the index array contains column indexes; for
+     * compressed column storage, the pointer array has length {@code ncol + 1}
+     * and the index array contains row indexes.
+     *
+     * @param nrow the number of matrix rows.
+     * @param ncol the number of matrix columns.
+     * @param byRow {@code true} for compressed row storage, {@code false}
+     *              for compressed column storage.
+     * @param pointers the offsets of the first stored element in each row
+     *                 or column, followed by the number of stored elements.
+     * @param indexes the column (CSR) or row (CSC) index of each stored
+     *                element, ascending within each row or column.
+     * @param values the value of each stored element.
+     *
+     * @return a new sparse matrix using the input arrays for its physical
+     * storage.
+     *
+     * @throws RuntimeException unless the arrays describe a valid layout.
+     */
+    public static SparseMatrix wrap(int nrow, int ncol, boolean byRow, int[] pointers, int[] indexes, double[] values) {
+        D3xMatrix.validateShape(nrow, ncol);
+
+        int major = byRow ? nrow : ncol;
+        int minor = byRow ? ncol : nrow;
+
+        if (pointers.length != major + 1 || pointers[0] != 0)
+            throw new MorpheusException("Invalid pointer array for a [%d x %d] matrix.", nrow, ncol);
+
+        if (indexes.length < pointers[major] || values.length < pointers[major])
+            throw new MorpheusException("Index and value arrays must hold [%d] stored elements.", pointers[major]);
+
+        for (int k = 0; k < major; ++k) {
+            if (pointers[k + 1] < pointers[k])
+                throw new MorpheusException("Pointer array must be non-decreasing.");
+
+            for (int p = pointers[k]; p < pointers[k + 1]; ++p) {
+                D3xMatrixView.validateIndex(indexes[p], minor);
+
+                if (p > pointers[k] && indexes[p] <= indexes[p - 1])
+                    throw new MorpheusException("Indexes must be strictly ascending within each row or column.");
+            }
+        }
+
+        return new SparseMatrix(nrow, ncol, byRow, pointers, indexes, values);
+    }
+
+    /**
+     * Identifies compressed row storage.
+     * @return {@code true} for compressed row (CSR) storage, {@code false}
+     * for compressed column (CSC) storage.
+     */
+    public boolean isRowCompressed() {
+        return byRow;
+    }
+
+    /**
+     * Returns the number of explicitly stored (non-zero) elements.
+     * @return the number of explicitly stored (non-zero) elements.
+     */
+    public int nonZeroCount() {
+        return pointers[major()];
+    }
+
+    /**
+     * Returns this matrix with compressed row storage.
+     * @return this matrix if it has compressed row storage, otherwise a
+     * new CSR matrix containing the same elements.
+     */
+    public SparseMatrix toCSR() {
+        return byRow ? this : convert();
+    }
+
+    /**
+     * Returns this matrix with compressed column storage.
+     * @return this matrix if it has compressed column storage, otherwise a
+     * new CSC matrix containing the same elements.
+     */
+    public SparseMatrix toCSC() {
+        return byRow ? convert() : this;
+    }
+
+    private SparseMatrix convert() {
+        //
+        // A counting sort on the minor index: the stored elements are
+        // visited in major order, so each new slot is filled in order...
+        //
+        int major = major();
+        int minor = minor();
+        int nnz = nonZeroCount();
+        int[] newPointers = new int[minor + 1];
+        int[] newIndexes = new int[nnz];
+        double[] newValues = new double[nnz];
+
+        for (int p = 0; p < nnz; ++p)
+            ++newPointers[indexes[p] + 1];
+
+        for (int k = 0; k < minor; ++k)
+            newPointers[k + 1] += newPointers[k];
+
+        int[] next = Arrays.copyOf(newPointers, minor);
+
+        for (int k = 0; k < major; ++k) {
+            for (int p = pointers[k]; p < pointers[k + 1]; ++p) {
+                int q = next[indexes[p]]++;
+                newIndexes[q] = k;
+                newValues[q] = values[p];
+            }
+        }
+
+        return new SparseMatrix(nrow, ncol, !byRow, newPointers, newIndexes, newValues);
+    }
+
+    @Override
+    public int nrow() {
+        return nrow;
+    }
+
+    @Override
+    public int ncol() {
+        return ncol;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        validateRowIndex(row);
+        validateColumnIndex(col);
+
+        int k = byRow ? row : col;
+        int p = Arrays.binarySearch(indexes, pointers[k], pointers[k + 1], byRow ? col : row);
+
+        return p >= 0 ? values[p] : 0.0;
+    }
+
+    @Override
+    public void set(int row, int col, double value) {
+        validateRowIndex(row);
+        validateColumnIndex(col);
+
+        int k = byRow ? row : col;
+        int p = Arrays.binarySearch(indexes, pointers[k], pointers[k + 1], byRow ? col : row);
+
+        if (p >= 0) {
+            if (value != 0.0)
+                values[p] = value;
+            else
+                remove(k, p);
+        }
+        else if (value != 0.0) {
+            insert(k, -(p + 1), byRow ? col : row, value);
+        }
+    }
+
+    private void insert(int k, int p, int index, double value) {
+        int nnz = nonZeroCount();
+
+        if (nnz == indexes.length) {
+            indexes = Arrays.copyOf(indexes, Math.max(16, 2 * nnz));
+            values = Arrays.copyOf(values, Math.max(16, 2 * nnz));
+        }
+
+        System.arraycopy(indexes, p, indexes, p + 1, nnz - p);
+        System.arraycopy(values, p, values, p + 1, nnz - p);
+        indexes[p] = index;
+        values[p] = value;
+
+        for (int slot = k + 1; slot < pointers.length; ++slot)
+            ++pointers[slot];
+    }
+
+    private void remove(int k, int p) {
+        int nnz = nonZeroCount();
+
+        System.arraycopy(indexes, p + 1, indexes, p, nnz - p - 1);
+        System.arraycopy(values, p + 1, values, p, nnz - p - 1);
+
+        for (int slot = k + 1; slot < pointers.length; ++slot)
+            --pointers[slot];
+    }
+
+    @Override
+    public SparseMatrix copy() {
+        int nnz = nonZeroCount();
+        return new SparseMatrix(nrow, ncol, byRow, pointers.clone(), Arrays.copyOf(indexes, nnz), Arrays.copyOf(values, nnz));
+    }
+
+    @Override
+    public SparseMatrix like(int nrow, int ncol) {
+        return empty(nrow, ncol, byRow);
+    }
+
+    @Override
+    public SparseMatrix multiplyInPlace(double scalar) {
+        for (int p = 0; p < nonZeroCount(); ++p)
+            values[p] *= scalar;
+
+        return this;
+    }
+
+    @Override
+    public SparseMatrix times(double scalar) {
+        return copy().multiplyInPlace(scalar);
+    }
+
+    @Override
+    public D3xVector times(D3xVector x) {
+        if (x.length() != ncol)
+            throw new MorpheusException("Vector length does not match the number of columns.");
+
+        return D3xVector.wrap(multiply(x.toArray(), false));
+    }
+
+    @Override
+    public D3xVector transposeTimes(D3xVector x) {
+        if (x.length() != nrow)
+            throw new MorpheusException("Vector length does not match the number of rows.");
+
+        return D3xVector.wrap(multiply(x.toArray(), true));
+    }
+
+    private double[] multiply(double[] x, boolean transpose) {
+        //
+        // With compressed rows, A * x is a gather (one dot product per row)
+        // and A' * x is a scatter; the roles swap for compressed columns...
+        //
+        double[] y = new double[transpose ? ncol : nrow];
+
+        if (byRow != transpose) {
+            for (int k = 0; k < major(); ++k) {
+                double sum = 0.0;
+
+                for (int p = pointers[k]; p < pointers[k + 1]; ++p)
+                    sum += values[p] * x[indexes[p]];
+
+                y[k] = sum;
+            }
+        }
+        else {
+            for (int k = 0; k < major(); ++k) {
+                double xk = x[k];
+
+                for (int p = pointers[k]; p < pointers[k + 1]; ++p)
+                    y[indexes[p]] += values[p] * xk;
+            }
+        }
+
+        return y;
+    }
+
+    @Override
+    public D3xMatrix times(D3xMatrix B) {
+        if (B.nrow() != ncol)
+            throw new MorpheusException("Matrix shapes [%d x %d] and [%d x %d] are not conformable.", nrow, ncol, B.nrow(), B.ncol());
+
+        if (B instanceof SparseMatrix)
+            return toCSR().gustavson(((SparseMatrix) B).toCSR());
+
+        double[] diagonal = B instanceof ApacheMatrix ? ((ApacheMatrix) B).getDiagonalStorage() : null;
+
+        if (diagonal != null)
+            return copy().scaleColumns(diagonal);
+
+        return multiply(DenseMatrix.denseOf(B));
+    }
+
+    @Override
+    public D3xMatrix transposeTimes(D3xMatrix B) {
+        return transpose().times(B);
+    }
+
+    private SparseMatrix gustavson(SparseMatrix B) {
+        //
+        // Row i of the product is the combination of the rows of B selected
+        // by the stored elements in row i of this matrix; the non-zero pattern
+        // of each row is gathered in a dense accumulator, then sorted...
+        //
+        int ncolB = B.ncol;
+        int nnz = 0;
+        int[] resultPointers = new int[nrow + 1];
+        int[] resultIndexes = new int[Math.max(16, nonZeroCount() + B.nonZeroCount())];
+        double[] resultValues = new double[resultIndexes.length];
+
+        int[] marker = new int[ncolB];
+        int[] pattern = new int[ncolB];
+        double[] accumulator = new double[ncolB];
+
+        Arrays.fill(marker, -1);
+
+        for (int i = 0; i < nrow; ++i) {
+            int length = 0;
+
+            for (int p = pointers[i]; p < pointers[i + 1]; ++p) {
+                int k = indexes[p];
+                double aik = values[p];
+
+                for (int q = B.pointers[k]; q < B.pointers[k + 1]; ++q) {
+                    int j = B.indexes[q];
+
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        pattern[length++] = j;
+                        accumulator[j] = 0.0;
+                    }
+
+                    accumulator[j] += aik * B.values[q];
+                }
+            }
+
+            Arrays.sort(pattern, 0, length);
+
+            if (nnz + length > resultIndexes.length) {
+                int capacity = Math.max(2 * resultIndexes.length, nnz + length);
+                resultIndexes = Arrays.copyOf(resultIndexes, capacity);
+                resultValues = Arrays.copyOf(resultValues, capacity);
+            }
+
+            for (int t = 0; t < length; ++t) {
+                int j = pattern[t];
+
+                if (accumulator[j] != 0.0) {
+                    resultIndexes[nnz] = j;
+                    resultValues[nnz] = accumulator[j];
+                    ++nnz;
+                }
+            }
+
+            resultPointers[i + 1] = nnz;
+        }
+
+        return new SparseMatrix(nrow, ncolB, true, resultPointers, resultIndexes, resultValues);
+    }
+
+    private DenseMatrix multiply(DenseMatrix B) {
+        //
+        // Each stored element a(i, k) adds a(i, k) * B[k, :] to row i of the
+        // product, which streams contiguously through the row-major storage...
+        //
+        int ncolB = B.ncol();
+        double[] dataB = B.data();
+        DenseMatrix product = DenseMatrix.dense(nrow, ncolB);
+        double[] dataC = product.data();
+
+        for (int k = 0; k < major(); ++k) {
+            for (int p = pointers[k]; p < pointers[k + 1]; ++p) {
+                int row = byRow ? k : indexes[p];
+                int inner = byRow ? indexes[p] : k;
+                int offsetB = inner * ncolB;
+                int offsetC = row * ncolB;
+                double value = values[p];
+
+                for (int j = 0; j < ncolB; ++j)
+                    dataC[offsetC + j] += value * dataB[offsetB + j];
+            }
+        }
+
+        return product;
+    }
+
+    /**
+     * Computes the product {@code AS} of a dense matrix {@code A} and this
+     * sparse matrix {@code S}, visiting only the stored elements of this
+     * matrix.
+     *
+     * @param A the dense left matrix factor.
+     *
+     * @return the product {@code AS} in a new dense matrix.
+     */
+    DenseMatrix leftMultiply(DenseMatrix A) {
+        if (A.ncol() != nrow)
+            throw new MorpheusException("Matrix shapes [%d x %d] and [%d x %d] are not conformable.", A.nrow(), A.ncol(), nrow, ncol);
+
+        int nrowA = A.nrow();
+        double[] dataA = A.data();
+        DenseMatrix product = DenseMatrix.dense(nrowA, ncol);
+        double[] dataC = product.data();
+
+        for (int r = 0; r < nrowA; ++r) {
+            int offsetA = r * nrow;
+            int offsetC = r * ncol;
+
+            for (int k = 0; k < major(); ++k) {
+                if (byRow) {
+                    double ark = dataA[offsetA + k];
+
+                    for (int p = pointers[k]; p < pointers[k + 1]; ++p)
+                        dataC[offsetC + indexes[p]] += ark * values[p];
+                }
+                else {
+                    double sum = 0.0;
+
+                    for (int p = pointers[k]; p < pointers[k + 1]; ++p)
+                        sum += dataA[offsetA + indexes[p]] * values[p];
+
+                    dataC[offsetC + k] = sum;
+                }
+            }
+        }
+
+        return product;
+    }
+
+    private SparseMatrix scaleColumns(double[] factors) {
+        for (int k = 0; k < major(); ++k)
+            for (int p = pointers[k]; p < pointers[k + 1]; ++p)
+                values[p] *= factors[byRow ? indexes[p] : k];
+
+        return this;
+    }
+
+    @Override
+    public SparseMatrix transpose() {
+        int nnz = nonZeroCount();
+        return new SparseMatrix(ncol, nrow, !byRow, pointers.clone(), Arrays.copyOf(indexes, nnz), Arrays.copyOf(values, nnz));
+    }
+
+    @Override
+    public double[][] toArray() {
+        double[][] array = new double[nrow][ncol];
+
+        for (int k = 0; k < major(); ++k) {
+            for (int p = pointers[k]; p < pointers[k + 1]; ++p) {
+                if (byRow)
+                    array[k][indexes[p]] = values[p];
+                else
+                    array[indexes[p]][k] = values[p];
+            }
+        }
+
+        return array;
+    }
+
+    private int major() {
+        return byRow ? nrow : ncol;
+    }
+
+    private int minor() {
+        return byRow ? ncol : nrow;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SparseMatrix(%d x %d, %s, nnz = %d)", nrow, ncol, byRow ? "CSR" : "CSC", nonZeroCount());
+    }
+}
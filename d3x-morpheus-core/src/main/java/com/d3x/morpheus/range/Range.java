@@ -28,7 +28,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveTask;
 import java.util.function.DoublePredicate;
@@ -44,6 +43,7 @@ import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.array.ArrayUtils;
 import com.d3x.morpheus.index.Index;
+import com.d3x.morpheus.util.ForkJoinContext;
 
 /**
  * An interface to a range of some type with a inclusive start and exclusive end
@@ -164,7 +164,7 @@ public interface Range<T> extends Iterable<T> {
             return (Array<T>)ArrayBuilder.of(length).appendAll(iterable).toArray();
         } else {
             final ToArrayTask<T> task = new ToArrayTask<>(this, 1000);
-            return ForkJoinPool.commonPool().invoke(task);
+            return ForkJoinContext.invoke(task);
         }
     }
 
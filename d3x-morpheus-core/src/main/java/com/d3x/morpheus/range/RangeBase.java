@@ -18,6 +18,8 @@ package com.d3x.morpheus.range;
 import java.util.Arrays;
 import java.util.stream.IntStream;
 
+import com.d3x.morpheus.util.ForkJoinContext;
+
 /**
  * A convenience base class for building range implementations
  *
@@ -58,12 +60,12 @@ abstract class RangeBase<T> implements Range<T> {
 
     /**
      * Returns an array with more or less equal segment step counts as a resulting of splitting total steps into segments
-     * The number of segments is determined by the machine processor count as per Runtime.getRuntime().availableProcessors()
+     * The number of segments is determined by the parallelism of the current pool as per ForkJoinContext.getParallelism()
      * @param totalStepCount    the total number of steps to segment into more or less equal parts
      * @return                  the array of segment step counts, which sum to the arg
      */
     int[] getSegmentSteps(int totalStepCount) {
-        final int segmentStepCount = totalStepCount / Runtime.getRuntime().availableProcessors();
+        final int segmentStepCount = totalStepCount / ForkJoinContext.getParallelism();
         final int segmentCount = totalStepCount / segmentStepCount;
         var segmentSteps = new int[segmentCount];
         Arrays.fill(segmentSteps, segmentStepCount);
@@ -23,7 +23,6 @@ import java.util.Iterator;
 import java.util.Optional;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -49,6 +48,7 @@ import com.d3x.morpheus.index.Index;
 import com.d3x.morpheus.stats.Stats;
 import com.d3x.morpheus.util.Asserts;
 import com.d3x.morpheus.util.Bounds;
+import com.d3x.morpheus.util.ForkJoinContext;
 import com.d3x.morpheus.util.functions.ToBooleanFunction;
 import com.d3x.morpheus.util.text.Formats;
 
@@ -323,10 +323,10 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
             return Optional.empty();
         } else if (rowCount() > colCount()) {
             var task = new MinMaxValueTask(0, rowCount(), true, predicate);
-            return isParallel() ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+            return isParallel() ? ForkJoinContext.invoke(task) : task.compute();
         } else {
             var task = new MinMaxValueTask(0, colCount(), true, predicate);
-            return isParallel() ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+            return isParallel() ? ForkJoinContext.invoke(task) : task.compute();
         }
     }
 
@@ -337,10 +337,10 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
             return Optional.empty();
         } else if (rowCount() > colCount()) {
             var task = new MinMaxValueTask(0, rowCount(), false, predicate);
-            return  isParallel() ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+            return  isParallel() ? ForkJoinContext.invoke(task) : task.compute();
         } else {
             var task = new MinMaxValueTask(0, colCount(), false, predicate);
-            return isParallel() ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+            return isParallel() ? ForkJoinContext.invoke(task) : task.compute();
         }
     }
 
@@ -351,10 +351,10 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
             return Optional.empty();
         } else if (rowCount() > colCount()) {
             var task = new BoundsTask<V>(0, rowCount(), predicate);
-            return isParallel() ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+            return isParallel() ? ForkJoinContext.invoke(task) : task.compute();
         } else {
             var task = new BoundsTask<V>(0, colCount(), predicate);
-            return isParallel() ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+            return isParallel() ? ForkJoinContext.invoke(task) : task.compute();
         }
     }
 
@@ -363,9 +363,9 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
     public final DataFrame<R,C> forEachValue(Consumer<DataFrameValue<R,C>> consumer) {
         if (parallel && colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
-            var threshold = (rowCount() * colCount()) / Runtime.getRuntime().availableProcessors();
+            var threshold = (rowCount() * colCount()) / ForkJoinContext.getParallelism();
             var action = new ForEachValue(0, toIndex, threshold, consumer);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else if (colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
             var threshold = Integer.MAX_VALUE;
@@ -380,9 +380,9 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
     public final DataFrame<R,C> applyBooleans(ToBooleanFunction<DataFrameValue<R,C>> mapper) {
         if (parallel && colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
-            var threshold = (rowCount() * colCount()) / Runtime.getRuntime().availableProcessors();
+            var threshold = (rowCount() * colCount()) / ForkJoinContext.getParallelism();
             var action = new ApplyBooleans(0, toIndex, threshold, mapper);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else if (colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
             var threshold = Integer.MAX_VALUE;
@@ -397,9 +397,9 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
     public final DataFrame<R,C> applyInts(ToIntFunction<DataFrameValue<R,C>> mapper) {
         if (parallel && colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
-            var threshold = (rowCount() * colCount()) / Runtime.getRuntime().availableProcessors();
+            var threshold = (rowCount() * colCount()) / ForkJoinContext.getParallelism();
             var action = new ApplyInts(0, toIndex, threshold, mapper);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else if (colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
             var threshold = Integer.MAX_VALUE;
@@ -414,9 +414,9 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
     public final DataFrame<R,C> applyLongs(ToLongFunction<DataFrameValue<R,C>> mapper) {
         if (parallel && colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
-            var threshold = (rowCount() * colCount()) / Runtime.getRuntime().availableProcessors();
+            var threshold = (rowCount() * colCount()) / ForkJoinContext.getParallelism();
             var action = new ApplyLongs(0, toIndex, threshold, mapper);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else if (colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
             var threshold = Integer.MAX_VALUE;
@@ -431,9 +431,9 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
     public final DataFrame<R,C> applyDoubles(ToDoubleFunction<DataFrameValue<R,C>> mapper) {
         if (parallel && colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
-            var threshold = (rowCount() * colCount()) / Runtime.getRuntime().availableProcessors();
+            var threshold = (rowCount() * colCount()) / ForkJoinContext.getParallelism();
             var action = new ApplyDoubles(0, toIndex, threshold, mapper);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else if (colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
             var threshold = Integer.MAX_VALUE;
@@ -448,9 +448,9 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
     public final DataFrame<R,C> applyValues(Function<DataFrameValue<R,C>,?> mapper) {
         if (parallel && colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
-            var threshold = (rowCount() * colCount()) / Runtime.getRuntime().availableProcessors();
+            var threshold = (rowCount() * colCount()) / ForkJoinContext.getParallelism();
             var action = new ApplyValues(0, toIndex, threshold, mapper);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else if (colCount() > 0) {
             var toIndex = rowCount() * colCount() - 1;
             var threshold = Integer.MAX_VALUE;
@@ -715,6 +715,18 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
     }
 
 
+    @Override()
+    public final DataFrame<Integer,C> join(DataFrame<?,C> right, C on, JoinType type) {
+        try {
+            return new XDataFrameJoin<>(this, right, on, type).apply();
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Throwable t) {
+            throw new DataFrameException("Failed to join DataFrames on column " + on + ": " + t.getMessage(), t);
+        }
+    }
+
+
     @Override()
     public Iterator<DataFrameValue<R,C>> iterator() {
         var value = cursor();
@@ -826,8 +838,8 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
     public final DataFrame<R,C> select(Predicate<DataFrameRow<R,C>> rowPredicate, Predicate<DataFrameColumn<R,C>> colPredicate) {
         var selectRows = new SelectRows(0, rowCount()-1, rowPredicate);
         var selectCols = new SelectColumns(0, colCount()-1, colPredicate);
-        var rowKeys = isParallel() ? ForkJoinPool.commonPool().invoke(selectRows) : selectRows.compute();
-        var colKeys = isParallel() ? ForkJoinPool.commonPool().invoke(selectCols) : selectCols.compute();
+        var rowKeys = isParallel() ? ForkJoinContext.invoke(selectRows) : selectRows.compute();
+        var colKeys = isParallel() ? ForkJoinContext.invoke(selectCols) : selectCols.compute();
         var newRowAxis = rowKeys().filter(rowKeys);
         var newColAxis = colKeys().filter(colKeys);
         var newContents = data.filter(newRowAxis, newColAxis);
@@ -1093,7 +1105,7 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
             return Stream.empty();
         } else {
             var valueCount = rowCount() * colCount();
-            var splitThreshold = Math.max(valueCount, valueCount / Runtime.getRuntime().availableProcessors());
+            var splitThreshold = Math.max(valueCount, valueCount / ForkJoinContext.getParallelism());
             return StreamSupport.stream(new DataFrameValueSpliterator<>(0, valueCount-1, rowCount(), splitThreshold), isParallel());
         }
     }
@@ -0,0 +1,679 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameCursor;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameOptions;
+import com.d3x.morpheus.frame.DataFrameRow;
+import com.d3x.morpheus.index.Index;
+import com.d3x.morpheus.stats.StatType;
+import com.d3x.morpheus.util.ForkJoinContext;
+import com.d3x.morpheus.util.Tuple;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+
+/**
+ * A hash aggregation engine that computes grouped statistics in a single pass over the rows of a DataFrame
+ *
+ * <p>Each row is assigned a dense group id via a hash table, and statistics are accumulated in primitive arrays
+ * indexed by group id, so no frame is created per group. Group keys on a single int, long or int coded column are
+ * hashed as primitives, and are only boxed into a Tuple once per group. In parallel mode, row ranges are aggregated
+ * into partial results which are then merged, preserving the order in which groups first appear.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class XDataFrameAggregator<R,C> {
+
+    private boolean parallel;
+    private XDataFrame<R,C> source;
+    private Supplier<GroupTable> tables;
+    private Array<C> colKeys;
+    private int[] colOrdinals;
+    private StatType[] statTypes;
+
+    /**
+     * Constructor
+     * @param source    the source frame to aggregate
+     * @param parallel  true to aggregate row ranges in parallel
+     * @param tables    the supplier of hash tables that assign group ids to rows
+     * @param colKeys   the keys of the columns to aggregate
+     * @param statTypes the statistic to compute for each column
+     */
+    private XDataFrameAggregator(XDataFrame<R,C> source, boolean parallel, Supplier<GroupTable> tables, Array<C> colKeys, StatType[] statTypes) {
+        this.source = source;
+        this.parallel = parallel;
+        this.tables = tables;
+        this.colKeys = colKeys;
+        this.statTypes = statTypes;
+        this.colOrdinals = source.colKeys().ordinals(colKeys).toArray();
+    }
+
+
+    /**
+     * Returns true if the statistic type is supported by this aggregation engine
+     * @param statType  the statistic type
+     * @return          true if supported
+     */
+    static boolean isSupported(StatType statType) {
+        switch (statType) {
+            case COUNT:         return true;
+            case SUM:           return true;
+            case SUM_SQUARES:   return true;
+            case MIN:           return true;
+            case MAX:           return true;
+            case MEAN:          return true;
+            case VARIANCE:      return true;
+            case STD_DEV:       return true;
+            default:            return false;
+        }
+    }
+
+
+    /**
+     * Aggregates the numeric columns of the source frame, grouped by the keys computed by the tables supplier
+     * @param source    the source frame to aggregate
+     * @param parallel  true to aggregate row ranges in parallel
+     * @param tables    the supplier of hash tables that assign group ids to rows
+     * @param function  the function that returns the statistic for each numeric column, null to exclude the column
+     * @param <R>       the row key type
+     * @param <C>       the column key type
+     * @return          the frame of aggregated values, with a row per group and a column per aggregated column
+     */
+    static <R,C> DataFrame<Tuple,C> aggregate(XDataFrame<R,C> source, boolean parallel, Supplier<GroupTable> tables, Function<C,StatType> function) {
+        final List<C> colKeys = new ArrayList<>();
+        final List<StatType> statTypes = new ArrayList<>();
+        source.cols().forEach(column -> {
+            if (column.isNumeric()) {
+                final StatType statType = function.apply(column.key());
+                if (statType != null) {
+                    if (!isSupported(statType)) {
+                        throw new DataFrameException("Unsupported statistic for grouped aggregation: " + statType);
+                    } else {
+                        colKeys.add(column.key());
+                        statTypes.add(statType);
+                    }
+                }
+            }
+        });
+        final Array<C> keys = ArrayBuilder.of(colKeys.size(), source.cols().keyClass()).appendAll(colKeys).toArray();
+        final StatType[] types = statTypes.toArray(new StatType[0]);
+        return new XDataFrameAggregator<>(source, parallel, tables, keys, types).compute();
+    }
+
+
+    /**
+     * Returns a supplier of tables that group rows by the values of a single int, long or int coded column
+     * @param array     the column array, which must be of type int or long, or implement WithIntCoding
+     * @param decoder   the function to decode an int key into the group key value, for int and coded arrays
+     * @param content   the content of the source frame, which maps row ordinals to array coordinates
+     * @return          the supplier of tables
+     */
+    static Supplier<GroupTable> ofPrimitive(Array<?> array, IntFunction<Object> decoder, XDataFrameContent<?,?> content) {
+        switch (array.typeCode()) {
+            case LONG:  return () -> new LongTable(array, content);
+            default:    return () -> new IntTable(array, decoder, content);
+        }
+    }
+
+
+    /**
+     * Returns a supplier of tables that group rows by a Tuple computed for each row
+     * @param source    the source frame
+     * @param function  the function that computes the group key for a row
+     * @return          the supplier of tables
+     */
+    static <X,Y> Supplier<GroupTable> ofTuples(XDataFrame<X,Y> source, Function<DataFrameRow<X,Y>,Tuple> function) {
+        return () -> new TupleTable<>(source, function);
+    }
+
+
+    /**
+     * Runs the aggregation and returns the resulting frame
+     * @return  the frame of aggregated values
+     */
+    private DataFrame<Tuple,C> compute() {
+        final int rowCount = source.rowCount();
+        final AggregateTask task = new AggregateTask(0, rowCount - 1);
+        final Partial partial = rowCount == 0 ? new Partial(tables.get()) : parallel ? ForkJoinContext.invoke(task) : task.compute();
+        final int groupCount = partial.table.size();
+        final Array<Tuple> groupKeys = Array.of(Tuple.class, groupCount);
+        for (int i=0; i<groupCount; ++i) {
+            groupKeys.setValue(i, partial.table.keyAt(i));
+        }
+        final DataFrame<Tuple,C> result = DataFrame.ofDoubles(Index.of(groupKeys), colKeys);
+        for (int j=0; j<colKeys.length(); ++j) {
+            final Accumulator accumulator = partial.accumulators[j];
+            for (int i=0; i<groupCount; ++i) {
+                result.setDoubleAt(i, j, accumulator.getValue(i));
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * A hash table that assigns a dense group id to rows based on their group key
+     */
+    interface GroupTable {
+
+        /**
+         * Returns the number of groups in this table
+         * @return  the number of groups
+         */
+        int size();
+
+        /**
+         * Returns the group key for the group id specified
+         * @param groupId   the group id
+         * @return          the group key
+         */
+        Tuple keyAt(int groupId);
+
+        /**
+         * Returns the group id for the row ordinal, adding a group if the key has not been seen before
+         * @param rowOrdinal    the row ordinal in the source frame
+         * @return              the group id for row
+         */
+        int groupOf(int rowOrdinal);
+
+        /**
+         * Adds the groups of another table to this table, and returns the mapping of group ids
+         * @param other     the other table, which must be of the same type
+         * @return          the array mapping group ids in other table to group ids in this table
+         */
+        int[] merge(GroupTable other);
+    }
+
+
+    /**
+     * A GroupTable that hashes int values or int codes, and only decodes each key once per group
+     */
+    private static class IntTable implements GroupTable {
+
+        private Array<?> array;
+        private int nullGroup = -1;
+        private TIntIntHashMap groupMap;
+        private TIntArrayList keys;
+        private IntFunction<Object> decoder;
+        private XDataFrameContent<?,?> content;
+
+        /**
+         * Constructor
+         * @param array     the int or int coded array
+         * @param decoder   the function to decode an int key into the group key value
+         * @param content   the content to map row ordinals to array coordinates
+         */
+        IntTable(Array<?> array, IntFunction<Object> decoder, XDataFrameContent<?,?> content) {
+            this.array = array;
+            this.decoder = decoder;
+            this.content = content;
+            this.keys = new TIntArrayList();
+            this.groupMap = new TIntIntHashMap(100, 0.5f, 0, -1);
+        }
+
+        @Override
+        public int size() {
+            return keys.size();
+        }
+
+        @Override
+        public Tuple keyAt(int groupId) {
+            return groupId == nullGroup ? Tuple.of((Object)null) : Tuple.of(decoder.apply(keys.get(groupId)));
+        }
+
+        @Override
+        public int groupOf(int rowOrdinal) {
+            final int rowCoord = content.rowCoordinateAt(rowOrdinal);
+            if (array.isNull(rowCoord)) {
+                return nullGroup();
+            } else {
+                return groupOfKey(array.getInt(rowCoord));
+            }
+        }
+
+        /**
+         * Returns the group id for null keys, adding a group if required
+         * @return  the group id for null keys
+         */
+        private int nullGroup() {
+            if (nullGroup < 0) {
+                this.nullGroup = keys.size();
+                this.keys.add(0);
+            }
+            return nullGroup;
+        }
+
+        /**
+         * Returns the group id for the int key, adding a group if required
+         * @param key   the int key
+         * @return      the group id
+         */
+        private int groupOfKey(int key) {
+            final int groupId = groupMap.get(key);
+            if (groupId >= 0) {
+                return groupId;
+            } else {
+                final int newId = size();
+                this.keys.add(key);
+                this.groupMap.put(key, newId);
+                return newId;
+            }
+        }
+
+        @Override
+        public int[] merge(GroupTable other) {
+            final IntTable table = (IntTable)other;
+            final int[] mapping = new int[table.size()];
+            for (int i=0; i<mapping.length; ++i) {
+                mapping[i] = i == table.nullGroup ? nullGroup() : groupOfKey(table.keys.get(i));
+            }
+            return mapping;
+        }
+    }
+
+
+    /**
+     * A GroupTable that hashes long values
+     */
+    private static class LongTable implements GroupTable {
+
+        private Array<?> array;
+        private int nullGroup = -1;
+        private TLongIntHashMap groupMap;
+        private TLongArrayList keys;
+        private XDataFrameContent<?,?> content;
+
+        /**
+         * Constructor
+         * @param array     the long array
+         * @param content   the content to map row ordinals to array coordinates
+         */
+        LongTable(Array<?> array, XDataFrameContent<?,?> content) {
+            this.array = array;
+            this.content = content;
+            this.keys = new TLongArrayList();
+            this.groupMap = new TLongIntHashMap(100, 0.5f, 0L, -1);
+        }
+
+        @Override
+        public int size() {
+            return keys.size();
+        }
+
+        @Override
+        public Tuple keyAt(int groupId) {
+            return groupId == nullGroup ? Tuple.of((Object)null) : Tuple.of(keys.get(groupId));
+        }
+
+        @Override
+        public int groupOf(int rowOrdinal) {
+            final int rowCoord = content.rowCoordinateAt(rowOrdinal);
+            if (array.isNull(rowCoord)) {
+                return nullGroup();
+            } else {
+                return groupOfKey(array.getLong(rowCoord));
+            }
+        }
+
+        /**
+         * Returns the group id for null keys, adding a group if required
+         * @return  the group id for null keys
+         */
+        private int nullGroup() {
+            if (nullGroup < 0) {
+                this.nullGroup = keys.size();
+                this.keys.add(0L);
+            }
+            return nullGroup;
+        }
+
+        /**
+         * Returns the group id for the long key, adding a group if required
+         * @param key   the long key
+         * @return      the group id
+         */
+        private int groupOfKey(long key) {
+            final int groupId = groupMap.get(key);
+            if (groupId >= 0) {
+                return groupId;
+            } else {
+                final int newId = size();
+                this.keys.add(key);
+                this.groupMap.put(key, newId);
+                return newId;
+            }
+        }
+
+        @Override
+        public int[] merge(GroupTable other) {
+            final LongTable table = (LongTable)other;
+            final int[] mapping = new int[table.size()];
+            for (int i=0; i<mapping.length; ++i) {
+                mapping[i] = i == table.nullGroup ? nullGroup() : groupOfKey(table.keys.get(i));
+            }
+            return mapping;
+        }
+    }
+
+
+    /**
+     * A GroupTable that hashes a Tuple computed for each row by a grouping function
+     */
+    private static class TupleTable<X,Y> implements GroupTable {
+
+        private List<Tuple> keys;
+        private XDataFrameRow<X,Y> row;
+        private Map<Tuple,Integer> groupMap;
+        private Function<DataFrameRow<X,Y>,Tuple> function;
+
+        /**
+         * Constructor
+         * @param source    the source frame
+         * @param function  the function that computes the group key for a row
+         */
+        TupleTable(XDataFrame<X,Y> source, Function<DataFrameRow<X,Y>,Tuple> function) {
+            this.function = function;
+            this.keys = new ArrayList<>();
+            this.groupMap = new HashMap<>();
+            this.row = new XDataFrameRow<>(source, false);
+        }
+
+        @Override
+        public int size() {
+            return keys.size();
+        }
+
+        @Override
+        public Tuple keyAt(int groupId) {
+            return keys.get(groupId);
+        }
+
+        @Override
+        public int groupOf(int rowOrdinal) {
+            this.row.atOrdinal(rowOrdinal);
+            try {
+                return groupOfKey(function.apply(row));
+            } catch (Exception ex) {
+                throw new DataFrameException("Grouping failed at row: " + row.key(), ex);
+            }
+        }
+
+        /**
+         * Returns the group id for the tuple, adding a group if required
+         * @param key   the group key
+         * @return      the group id
+         */
+        private int groupOfKey(Tuple key) {
+            final Integer groupId = groupMap.get(key);
+            if (groupId != null) {
+                return groupId;
+            } else {
+                final int newId = keys.size();
+                this.keys.add(key);
+                this.groupMap.put(key, newId);
+                return newId;
+            }
+        }
+
+        @Override
+        public int[] merge(GroupTable other) {
+            final TupleTable<?,?> table = (TupleTable<?,?>)other;
+            final int[] mapping = new int[table.size()];
+            for (int i=0; i<mapping.length; ++i) {
+                mapping[i] = groupOfKey(table.keys.get(i));
+            }
+            return mapping;
+        }
+    }
+
+
+    /**
+     * An accumulator for a univariate statistic over many groups, with state held in arrays indexed by group id
+     */
+    private static class Accumulator {
+
+        private StatType type;
+        private long[] n = new long[0];
+        private double[] m1 = new double[0];
+        private double[] m2 = new double[0];
+
+        /**
+         * Constructor
+         * @param type      the statistic type
+         */
+        Accumulator(StatType type) {
+            this.type = type;
+        }
+
+        /**
+         * Ensures the arrays of this accumulator can hold the number of groups specified
+         * @param groupCount    the number of groups
+         */
+        private void ensureCapacity(int groupCount) {
+            if (groupCount > n.length) {
+                final int length = Math.max(groupCount, n.length * 2);
+                final int start = n.length;
+                this.n = Arrays.copyOf(n, length);
+                this.m1 = Arrays.copyOf(m1, length);
+                this.m2 = Arrays.copyOf(m2, length);
+                if (type == StatType.MIN || type == StatType.MAX) {
+                    Arrays.fill(m1, start, length, Double.NaN);
+                }
+            }
+        }
+
+        /**
+         * Adds a value to the sample of the group specified
+         * @param group     the group id
+         * @param value     the value to add, which is ignored if NaN
+         */
+        void add(int group, double value) {
+            if (!Double.isNaN(value)) {
+                final long count = ++n[group];
+                switch (type) {
+                    case COUNT:         break;
+                    case SUM:           m1[group] += value;   break;
+                    case SUM_SQUARES:   m1[group] += value * value;    break;
+                    case MIN:           m1[group] = count == 1 || value < m1[group] ? value : m1[group];   break;
+                    case MAX:           m1[group] = count == 1 || value > m1[group] ? value : m1[group];   break;
+                    case MEAN:          m1[group] += (value - m1[group]) / count;   break;
+                    default:
+                        final double dev = value - m1[group];
+                        m1[group] += dev / count;
+                        m2[group] += (count - 1d) * dev * (dev / count);
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Merges the state of another accumulator into this one
+         * @param other     the other accumulator for the same statistic
+         * @param mapping   the mapping of group ids in the other accumulator to group ids in this one
+         * @param groupCount    the number of groups in this accumulator after the merge
+         */
+        void merge(Accumulator other, int[] mapping, int groupCount) {
+            this.ensureCapacity(groupCount);
+            for (int i=0; i<mapping.length; ++i) {
+                final int group = mapping[i];
+                final long n1 = n[group];
+                final long n2 = other.n[i];
+                if (n2 > 0) {
+                    this.n[group] = n1 + n2;
+                    if (n1 == 0) {
+                        this.m1[group] = other.m1[i];
+                        this.m2[group] = other.m2[i];
+                    } else {
+                        switch (type) {
+                            case COUNT:         break;
+                            case SUM:           m1[group] += other.m1[i];   break;
+                            case SUM_SQUARES:   m1[group] += other.m1[i];   break;
+                            case MIN:           m1[group] = Math.min(m1[group], other.m1[i]);   break;
+                            case MAX:           m1[group] = Math.max(m1[group], other.m1[i]);   break;
+                            case MEAN:          m1[group] += (other.m1[i] - m1[group]) * n2 / (n1 + n2);    break;
+                            default:
+                                final double delta = other.m1[i] - m1[group];
+                                m1[group] += delta * n2 / (n1 + n2);
+                                m2[group] += other.m2[i] + delta * delta * n1 * n2 / (n1 + n2);
+                                break;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the value of the statistic for the group specified
+         * @param group     the group id
+         * @return          the value of the statistic
+         */
+        double getValue(int group) {
+            final long count = n[group];
+            switch (type) {
+                case COUNT:         return count;
+                case SUM:           return m1[group];
+                case SUM_SQUARES:   return m1[group];
+                case MIN:           return m1[group];
+                case MAX:           return m1[group];
+                case MEAN:          return m1[group];
+                case VARIANCE:      return count == 0 ? Double.NaN : count == 1 ? 0d : m2[group] / (count - 1d);
+                case STD_DEV:       return count == 0 ? Double.NaN : count == 1 ? 0d : Math.sqrt(m2[group] / (count - 1d));
+                default:    throw new DataFrameException("Unsupported statistic for grouped aggregation: " + type);
+            }
+        }
+    }
+
+
+    /**
+     * The partial result of aggregating a range of rows
+     */
+    private class Partial {
+
+        private GroupTable table;
+        private Accumulator[] accumulators;
+
+        /**
+         * Constructor
+         * @param table the group table for this partial
+         */
+        Partial(GroupTable table) {
+            this.table = table;
+            this.accumulators = new Accumulator[statTypes.length];
+            for (int j=0; j<statTypes.length; ++j) {
+                this.accumulators[j] = new Accumulator(statTypes[j]);
+            }
+        }
+
+        /**
+         * Merges another partial result into this one, with groups of the other appended after groups of this
+         * @param other the other partial result
+         * @return      this partial result
+         */
+        Partial merge(Partial other) {
+            final int[] mapping = table.merge(other.table);
+            for (int j=0; j<accumulators.length; ++j) {
+                this.accumulators[j].merge(other.accumulators[j], mapping, table.size());
+            }
+            return this;
+        }
+    }
+
+
+    /**
+     * A RecursiveTask that aggregates a range of rows into a partial result
+     */
+    private class AggregateTask extends RecursiveTask<Partial> {
+
+        private int from;
+        private int to;
+        private int threshold = Integer.MAX_VALUE;
+
+        /**
+         * Constructor
+         * @param from      the from row ordinal (inclusive)
+         * @param to        the to row ordinal (inclusive)
+         */
+        AggregateTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+            if (parallel) {
+                this.threshold = Math.max(DataFrameOptions.getRowSplitThreshold(source), 10000);
+            }
+        }
+
+        @Override
+        protected Partial compute() {
+            final int count = to - from + 1;
+            if (count > threshold) {
+                final int midPoint = from + (to - from) / 2;
+                final AggregateTask left = new AggregateTask(from, midPoint);
+                final AggregateTask right = new AggregateTask(midPoint + 1, to);
+                left.fork();
+                final Partial rightAns = right.compute();
+                final Partial leftAns = left.join();
+                return leftAns.merge(rightAns);
+            } else {
+                final Partial partial = new Partial(tables.get());
+                final int[] groupIds = new int[count];
+                for (int i=0; i<count; ++i) {
+                    groupIds[i] = partial.table.groupOf(from + i);
+                }
+                final int groupCount = partial.table.size();
+                final XDataFrameContent<R,C> content = source.content();
+                final DataFrameCursor<R,C> cursor = content.isColumnStore() ? null : source.cursor();
+                for (int j=0; j<colOrdinals.length; ++j) {
+                    final int colOrdinal = colOrdinals[j];
+                    final Accumulator accumulator = partial.accumulators[j];
+                    accumulator.ensureCapacity(groupCount);
+                    if (content.isColumnStore()) {
+                        final Array<?> array = content.colArrayAt(content.colCoordinateAt(colOrdinal));
+                        for (int i=0; i<count; ++i) {
+                            final int rowCoord = content.rowCoordinateAt(from + i);
+                            accumulator.add(groupIds[i], array.getDouble(rowCoord));
+                        }
+                    } else {
+                        for (int i=0; i<count; ++i) {
+                            final double value = cursor.atOrdinals(from + i, colOrdinal).getDouble();
+                            accumulator.add(groupIds[i], value);
+                        }
+                    }
+                }
+                return partial;
+            }
+        }
+    }
+}
@@ -20,7 +20,6 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.Spliterator;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.RecursiveTask;
 import java.util.function.Consumer;
@@ -43,6 +42,7 @@ import com.d3x.morpheus.index.Index;
 import com.d3x.morpheus.range.Range;
 import com.d3x.morpheus.util.Asserts;
 import com.d3x.morpheus.util.Collect;
+import com.d3x.morpheus.util.ForkJoinContext;
 import com.d3x.morpheus.util.Parallel;
 import com.d3x.morpheus.util.Tuple;
 
@@ -185,6 +185,11 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
         return axis.nextKey(key);
     }
 
+    @Override
+    public final Optional<X> asOf(X key) {
+        return axis.asOf(key);
+    }
+
     @Override
     public final int ordinal(X key) {
         return axis.getOrdinal(key);
@@ -226,12 +231,12 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
             return Stream.empty();
         } else if (axisType == Type.ROWS) {
             var rowCount = frame.rowCount();
-            var partitionSize = rowCount / Runtime.getRuntime().availableProcessors();
+            var partitionSize = rowCount / ForkJoinContext.getParallelism();
             var splitThreshold = Math.max(partitionSize, 10000);
             return StreamSupport.stream(new DataFrameVectorSpliterator<>(0, rowCount-1, rowCount, splitThreshold), frame.isParallel());
         } else if (axisType == Type.COLS) {
             var colCount = frame.colCount();
-            var partitionSize = colCount / Runtime.getRuntime().availableProcessors();
+            var partitionSize = colCount / ForkJoinContext.getParallelism();
             var splitThreshold = Math.max(partitionSize, 10000);
             return StreamSupport.stream(new DataFrameVectorSpliterator<>(0, colCount-1, colCount, splitThreshold), frame.isParallel());
         } else {
@@ -293,7 +298,7 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
         if (parallel) {
             var count = count();
             var action = new ForEachVector(0, count - 1, consumer);
-            ForkJoinPool.commonPool().invoke(action);
+            ForkJoinContext.invoke(action);
         } else if (count() > 0) {
             var count = count();
             var vector = createVector(frame, 0);
@@ -403,7 +408,7 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
         } else if (parallel) {
             var count = count();
             var select = new Select(0, count-1, predicate);
-            var keys = ForkJoinPool.commonPool().invoke(select);
+            var keys = ForkJoinContext.invoke(select);
             return createFilter(frame, keys);
         } else {
             var count = count();
@@ -430,6 +435,18 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
     }
 
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final DataFrame<R,C> between(X lower, X upper) {
+        var keys = axis.between(lower, upper);
+        if (axisType.isRow()) {
+            return frame.filter((Index<R>)keys, frame.colKeys().copy(true));
+        } else {
+            return frame.filter(frame.rowKeys().copy(true), (Index<C>)keys);
+        }
+    }
+
+
     @Override
     public final Optional<V> first(Predicate<V> predicate) {
         var count = count();
@@ -483,7 +500,7 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
     @Override
     public final Optional<V> min(Comparator<V> comparator) {
         final MinVector task = new MinVector(0, count()-1, comparator);
-        final V result = parallel ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+        final V result = parallel ? ForkJoinContext.invoke(task) : task.compute();
         return Optional.ofNullable(result);
     }
 
@@ -491,7 +508,7 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
     @Override
     public final Optional<V> max(Comparator<V> comparator) {
         final MaxVector task = new MaxVector(0, count()-1, comparator);
-        final V result = parallel ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+        final V result = parallel ? ForkJoinContext.invoke(task) : task.compute();
         return Optional.ofNullable(result);
     }
 
@@ -749,7 +766,7 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
             this.comparator = comparator;
             this.threshold = Integer.MAX_VALUE;
             if (parallel) {
-                this.threshold = Math.max(1000, count() / Runtime.getRuntime().availableProcessors());
+                this.threshold = Math.max(1000, count() / ForkJoinContext.getParallelism());
             }
         }
 
@@ -823,7 +840,7 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
             this.comparator = comparator;
             this.threshold = Integer.MAX_VALUE;
             if (parallel) {
-                this.threshold = Math.max(1000, count() / Runtime.getRuntime().availableProcessors());
+                this.threshold = Math.max(1000, count() / ForkJoinContext.getParallelism());
             }
         }
 
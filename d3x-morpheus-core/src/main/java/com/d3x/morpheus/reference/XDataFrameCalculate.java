@@ -15,17 +15,26 @@
  */
 package com.d3x.morpheus.reference;
 
+import java.util.concurrent.RecursiveAction;
+
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameCalculate;
-import com.d3x.morpheus.frame.DataFrameCursor;
 import com.d3x.morpheus.index.Index;
-import com.d3x.morpheus.stats.Statistic1;
+import com.d3x.morpheus.stats.RollingStatistic;
 import com.d3x.morpheus.stats.StdDev;
+import com.d3x.morpheus.stats.Sum;
+import com.d3x.morpheus.util.ForkJoinContext;
 
 /**
  * The reference implementation of the DataFrameCalculate interface
  *
+ * <p>Each calculation is expressed as a kernel that operates on the values of one column at a time, which are copied
+ * into a primitive double array so that windowed calculations can be updated incrementally in linear time. Rolling
+ * sums and deviations slide a RollingStatistic over the finite values, which reseeds from the window periodically to
+ * bound rounding error, while non-finite values are counted separately so they only affect the windows holding them. Columns
+ * are independent of one another, so they are distributed across the fork join pool for parallel frames.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author  Xavier Witdouck
@@ -45,148 +54,242 @@ class XDataFrameCalculate<R,C> implements DataFrameCalculate<R,C> {
 
     @Override
     public DataFrame<R, C> logReturns() {
-        final int rowCount = frame.rows().count();
-        final int colCount = frame.cols().count();
-        final DataFrame<R,C> result = frame.copy().applyDoubles(v -> Double.NaN);
-        final DataFrameCursor<R,C> readCursor = frame.cursor();
-        final DataFrameCursor<R,C> writeCursor = result.cursor();
-        for (int i=1; i<rowCount; ++i) {
-            for (int j=0; j<colCount; ++j) {
-                final double v0 = readCursor.atOrdinals(i - 1, j).getDouble();
-                final double v1 = readCursor.atOrdinals(i, j).getDouble();
-                final double logReturn = Math.log(v1 / v0);
-                writeCursor.atOrdinals(i, j).setDouble(logReturn);
+        return calculate(0, (values, result) -> {
+            result[0] = Double.NaN;
+            for (int i=1; i<values.length; ++i) {
+                result[i] = Math.log(values[i] / values[i-1]);
             }
-        }
-        return result;
+        });
     }
 
 
     @Override
     public DataFrame<R, C> cumReturns() {
-        final int rowCount = frame.rows().count();
-        final int colCount = frame.cols().count();
-        final DataFrame<R,C> result = frame.copy().applyDoubles(v -> Double.NaN);
-        final DataFrameCursor<R,C> readCursor = frame.cursor();
-        final DataFrameCursor<R,C> writeCursor = result.cursor();
-        for (int i=1; i<rowCount; ++i) {
-            for (int j=0; j<colCount; ++j) {
-                final double v0 = readCursor.atOrdinals(0, j).getDouble();
-                final double v1 = readCursor.atOrdinals(i,j).getDouble();
-                final double cumReturn = v1 / v0 - 1d;
-                writeCursor.atOrdinals(i, j).setDouble(cumReturn);
+        return calculate(0, (values, result) -> {
+            result[0] = Double.NaN;
+            for (int i=1; i<values.length; ++i) {
+                result[i] = values[i] / values[0] - 1d;
             }
-        }
-        return result;
+        });
     }
 
 
     @Override
     public DataFrame<R, C> percentChanges() {
-        final int rowCount = frame.rows().count();
-        final int colCount = frame.cols().count();
-        final DataFrame<R,C> result = frame.copy().applyDoubles(v -> Double.NaN);
-        final DataFrameCursor<R,C> readCursor = frame.cursor();
-        final DataFrameCursor<R,C> writeCursor = result.cursor();
-        for (int i=1; i<rowCount; ++i) {
-            for (int j=0; j<colCount; ++j) {
-                final double v0 = readCursor.atOrdinals(i - 1, j).getDouble();
-                final double v1 = readCursor.atOrdinals(i, j).getDouble();
-                final double percentChange = v1 / v0 - 1d;
-                writeCursor.atOrdinals(i, j).setDouble(percentChange);
+        return calculate(0, (values, result) -> {
+            result[0] = Double.NaN;
+            for (int i=1; i<values.length; ++i) {
+                result[i] = values[i] / values[i-1] - 1d;
             }
-        }
-        return result;
+        });
     }
 
 
     @Override
     public DataFrame<R,C> sma(int windowSize) {
-        final int rowCount = frame.rows().count();
-        final Array<C> colKeys = frame.cols().keyArray();
-        final Index<C> colIndex = Index.of(colKeys);
-        if (rowCount < windowSize) {
-            return DataFrame.ofDoubles(Index.empty(), colIndex);
-        } else {
-            final int colCount = frame.cols().count();
-            final Array<R> rowKeys = frame.rowKeys().toArray(windowSize-1, rowCount);
-            final Index<R> rowIndex = Index.of(rowKeys);
-            final DataFrame<R,C> result = DataFrame.ofDoubles(rowIndex, colIndex);
-            final DataFrameCursor<R,C> readCursor = frame.cursor();
-            final DataFrameCursor<R,C> writeCursor = result.cursor();
-            for (int rowOrdinal=windowSize-1; rowOrdinal<rowCount; ++rowOrdinal) {
-                for (int colOrdinal=0; colOrdinal<colCount; ++colOrdinal) {
-                    double sum = 0d;
-                    double count = 0;
-                    final int from = rowOrdinal-windowSize+1;
-                    for (int i=from; i<=rowOrdinal; ++i) {
-                        count++;
-                        sum += readCursor.atOrdinals(i, colOrdinal).getDouble();
+        return calculate(windowSize - 1, (values, result) -> {
+            final int[] counts = new int[3];
+            final RollingStatistic sum = RollingStatistic.of(new Sum(), windowSize);
+            for (int i=0; i<values.length; ++i) {
+                final double value = values[i];
+                count(counts, value, 1);
+                if (i >= windowSize) {
+                    count(counts, values[i - windowSize], -1);
+                }
+                final double total = sum.add(Double.isInfinite(value) ? Double.NaN : value);
+                if (i >= windowSize - 1) {
+                    final int nanCount = counts[0], posInfCount = counts[1], negInfCount = counts[2];
+                    if (nanCount > 0 || (posInfCount > 0 && negInfCount > 0)) {
+                        result[i - windowSize + 1] = Double.NaN;
+                    } else if (posInfCount > 0) {
+                        result[i - windowSize + 1] = Double.POSITIVE_INFINITY;
+                    } else if (negInfCount > 0) {
+                        result[i - windowSize + 1] = Double.NEGATIVE_INFINITY;
+                    } else {
+                        result[i - windowSize + 1] = total / windowSize;
                     }
-                    writeCursor.atOrdinals(from, colOrdinal).setDouble(sum / count);
                 }
             }
-            return result;
-        }
+        });
     }
 
 
     @Override
     public DataFrame<R,C> ema(int windowSize) {
-        final int rowCount = frame.rows().count();
-        final DataFrame<R,C> result = frame.copy().applyDoubles(v -> Double.NaN);
-        if (rowCount > 0) {
-            final int colCount = frame.cols().count();
-            final DataFrameCursor<R,C> readCursor = frame.cursor();
-            final DataFrameCursor<R,C> writeCursor = result.cursor();
-            for (int colIndex=0; colIndex<colCount; ++colIndex) {
-                final double value = readCursor.atOrdinals(0, colIndex).getDouble();
-                writeCursor.atOrdinals(0, colIndex).setDouble(value);
+        final double alpha = 2 / (windowSize + 1d);
+        return calculate(0, (values, result) -> {
+            result[0] = values[0];
+            for (int i=1; i<values.length; ++i) {
+                result[i] = values[i] * alpha + (1d - alpha) * result[i-1];
             }
-            final double alpha = 2 / (windowSize + 1d);
-            for (int rowIndex=1; rowIndex<rowCount; ++rowIndex) {
-                for (int j=0; j<colCount; ++j) {
-                    final double rawValue = readCursor.atOrdinals(rowIndex, j).getDouble();
-                    final double emaPrior = writeCursor.atOrdinals(rowIndex - 1, j).getDouble();
-                    final double emaValue = rawValue * alpha + (1d - alpha) * emaPrior;
-                    writeCursor.atOrdinals(rowIndex, j).setDouble(emaValue);
+        });
+    }
+
+
+    @Override
+    public DataFrame<R,C> stdDev(int windowSize) {
+        return calculate(windowSize - 1, (values, result) -> {
+            final int[] counts = new int[3];
+            final RollingStatistic stdDev = RollingStatistic.of(new StdDev(true), windowSize);
+            for (int i=0; i<values.length; ++i) {
+                final double value = values[i];
+                count(counts, value, 1);
+                if (i >= windowSize) {
+                    count(counts, values[i - windowSize], -1);
+                }
+                final double deviation = stdDev.add(Double.isInfinite(value) ? Double.NaN : value);
+                if (i >= windowSize - 1) {
+                    final boolean infinite = counts[1] > 0 || counts[2] > 0;
+                    result[i - windowSize + 1] = infinite ? Double.NaN : deviation;
                 }
             }
+        });
+    }
+
+
+    /**
+     * Updates the counts of non-finite values in a window as a value enters or leaves it
+     * @param counts    the counts of NaN, positive infinity and negative infinity values respectively
+     * @param value     the value entering or leaving the window
+     * @param delta     1 if the value enters the window, -1 if it leaves
+     */
+    private static void count(int[] counts, double value, int delta) {
+        if (Double.isNaN(value)) {
+            counts[0] += delta;
+        } else if (value == Double.POSITIVE_INFINITY) {
+            counts[1] += delta;
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            counts[2] += delta;
         }
-        return result;
     }
 
 
-    @Override
-    public DataFrame<R,C> stdDev(int windowSize) {
-        final int rowCount = frame.rows().count();
-        final Array<C> colKeys = frame.cols().keyArray();
-        final Index<C> colIndex = Index.of(colKeys);
-        if (rowCount < windowSize) {
+    /**
+     * Returns a frame of doubles with the results of applying the kernel to each column of this frame
+     * @param offset    the ordinal of the first row included in the result, which is window size - 1 for rolling calculations
+     * @param kernel    the kernel to compute the results for a column
+     * @return          the resulting frame with the rows from offset onwards
+     */
+    private DataFrame<R,C> calculate(int offset, Kernel kernel) {
+        final int rowCount = frame.rowCount();
+        final Index<C> colIndex = Index.of(frame.cols().keyArray());
+        if (rowCount == 0 || rowCount <= offset) {
             return DataFrame.ofDoubles(Index.empty(), colIndex);
         } else {
-            final int colCount = frame.cols().count();
-            final Array<R> rowKeys = frame.rowKeys().toArray(windowSize-1, rowCount);
+            final Array<R> rowKeys = frame.rowKeys().toArray(offset, rowCount);
             final Index<R> rowIndex = Index.of(rowKeys);
-            final DataFrame<R,C> result = DataFrame.ofDoubles(rowIndex, colIndex);
-            final DataFrameCursor<R,C> readCursor = frame.cursor();
-            final DataFrameCursor<R,C> writeCursor = result.cursor();
-            final Statistic1 stdDev = new StdDev(true);
-            for (int rowOrdinal=windowSize-1; rowOrdinal<rowCount; ++rowOrdinal) {
-                for (int colOrdinal=0; colOrdinal<colCount; ++colOrdinal) {
-                    final int from = rowOrdinal-windowSize+1;
-                    for (int i=from; i<=rowOrdinal; ++i) {
-                        final double value = readCursor.atOrdinals(i, colOrdinal).getDouble();
-                        if (!Double.isNaN(value)) {
-                            stdDev.add(value);
+            final XDataFrame<R,C> result = new XDataFrame<>(rowIndex, colIndex, Double.class, frame.isParallel());
+            final int colCount = colIndex.size();
+            final int[] rowCoords = getRowCoordinates();
+            if (frame.isParallel() && colCount > 1) {
+                final int threshold = ForkJoinContext.getSplitThreshold(colCount, 1);
+                ForkJoinContext.invoke(new KernelTask(0, colCount, threshold, offset, rowCoords, result, kernel));
+            } else {
+                new KernelTask(0, colCount, Integer.MAX_VALUE, offset, rowCoords, result, kernel).compute();
+            }
+            return result;
+        }
+    }
+
+
+    /**
+     * Returns the in-memory coordinates of the rows of this frame in ordinal order
+     * @return  the row coordinates, or null if they are identical to the row ordinals
+     */
+    private int[] getRowCoordinates() {
+        final int[] coords = frame.rowKeys().indexes().toArray();
+        for (int i=0; i<coords.length; ++i) {
+            if (coords[i] != i) {
+                return coords;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * A function that computes the results for a column from its values
+     */
+    private interface Kernel {
+
+        /**
+         * Computes the results for a column, where results start at some offset into the column
+         * @param values    the values of the column in row order
+         * @param result    the array to write results into
+         */
+        void apply(double[] values, double[] result);
+    }
+
+
+    /**
+     * A RecursiveAction that applies a kernel to a range of columns
+     */
+    private class KernelTask extends RecursiveAction {
+
+        private int from;
+        private int to;
+        private int offset;
+        private int threshold;
+        private int[] rowCoords;
+        private Kernel kernel;
+        private XDataFrame<R,C> result;
+
+        /**
+         * Constructor
+         * @param from          the from column ordinal, inclusive
+         * @param to            the to column ordinal, exclusive
+         * @param threshold     the column count threshold above which to split
+         * @param offset        the ordinal of the first row included in the result
+         * @param rowCoords     the in-memory row coordinates, null if identical to ordinals
+         * @param result        the frame to write results into
+         * @param kernel        the kernel to apply
+         */
+        KernelTask(int from, int to, int threshold, int offset, int[] rowCoords, XDataFrame<R,C> result, Kernel kernel) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.offset = offset;
+            this.rowCoords = rowCoords;
+            this.result = result;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected void compute() {
+            final int count = to - from;
+            if (count <= threshold) {
+                final XDataFrameContent<R,C> source = frame.content();
+                final XDataFrameContent<R,C> target = result.content();
+                final double[] values = new double[frame.rowCount()];
+                final double[] results = new double[values.length - offset];
+                for (int colOrdinal=from; colOrdinal<to; ++colOrdinal) {
+                    final int colCoord = source.colCoordinateAt(colOrdinal);
+                    if (source.isColumnStore()) {
+                        final Array<?> array = source.colArrayAt(colCoord);
+                        if (rowCoords == null) {
+                            array.getDoubles(0, values, 0, values.length);
+                        } else {
+                            for (int i=0; i<values.length; ++i) {
+                                values[i] = array.getDouble(rowCoords[i]);
+                            }
+                        }
+                    } else {
+                        for (int i=0; i<values.length; ++i) {
+                            values[i] = source.doubleAt(rowCoords == null ? i : rowCoords[i], colCoord);
                         }
                     }
-                    writeCursor.atOrdinals(from, colOrdinal).setDouble(stdDev.getValue());
+                    kernel.apply(values, results);
+                    target.colArrayAt(target.colCoordinateAt(colOrdinal)).setDoubles(0, results, 0, results.length);
                 }
+            } else {
+                final int splitCount = count / 2;
+                final int midPoint = from + splitCount;
+                invokeAll(
+                    new KernelTask(from, midPoint, threshold, offset, rowCoords, result, kernel),
+                    new KernelTask(midPoint, to, threshold, offset, rowCoords, result, kernel)
+                );
             }
-            return result;
         }
     }
 
-
 }
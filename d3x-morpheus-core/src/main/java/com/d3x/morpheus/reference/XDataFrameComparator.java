@@ -18,6 +18,8 @@ package com.d3x.morpheus.reference;
 import java.util.Comparator;
 
 import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.coding.WithIntCoding;
 import com.d3x.morpheus.frame.DataFrameColumn;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.frame.DataFrameRow;
@@ -89,6 +91,9 @@ abstract class XDataFrameComparator implements IntComparator {
      * @return              the newly created comparator
      */
     static XDataFrameComparator create(Array<?> array, int multiplier) {
+        if (array instanceof WithIntCoding && ((WithIntCoding<?>)array).getCoding() instanceof IntCoding.OfDictionary) {
+            return createDictionaryComparator(array, multiplier);
+        }
         switch (array.typeCode()) {
             case BOOLEAN:           return createBooleanComparator(array, multiplier);
             case INTEGER:           return createIntegerComparator(array, multiplier);
@@ -166,6 +171,28 @@ abstract class XDataFrameComparator implements IntComparator {
     }
 
 
+    /**
+     * Returns a newly created comparator to sort a categorical array by the dictionary ranks of its codes
+     * @param array         the array to sort, which must be coded with a dictionary
+     * @param multiplier    the multiplier for ascending / descending
+     * @return              the newly created comparator
+     */
+    private static XDataFrameComparator createDictionaryComparator(Array<?> array, int multiplier) {
+        final IntCoding.OfDictionary<?> dictionary = (IntCoding.OfDictionary<?>)((WithIntCoding<?>)array).getCoding();
+        final int[] ranks = dictionary.getRanks();
+        return new XDataFrameComparator() {
+            @Override
+            final int compareValues(int index1, int index2) {
+                final int code1 = array.getInt(index1);
+                final int code2 = array.getInt(index2);
+                final int v1 = code1 < 0 ? -1 : ranks[code1];
+                final int v2 = code2 < 0 ? -1 : ranks[code2];
+                return multiplier * Integer.compare(v1, v2);
+            }
+        };
+    }
+
+
     /**
      * Returns a newly created comparator to sort the array specified
      * @param array         the array to sort
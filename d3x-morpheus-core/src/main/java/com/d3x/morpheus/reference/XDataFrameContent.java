@@ -64,6 +64,9 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
 
     private static final long serialVersionUID = 1L;
 
+    /** The serialization format version, written as a negative marker ahead of the row count, which is never negative */
+    private static final int FORMAT_VERSION = 2;
+
     private Index<R> rowKeys;
     private Index<C> colKeys;
     private boolean columnStore;
@@ -288,6 +291,20 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
         return isColumnStore() ? IntStream.range(0, rowKeys.size()).mapToObj(i -> typeInfo()) : data.stream().map(Array::type);
     }
 
+    /**
+     * Returns the array that holds the data for the column coordinate specified, which requires a column store
+     * @param colCoord  the column coordinate
+     * @return          the array of column data
+     */
+    final Array<?> colArrayAt(int colCoord) {
+        if (!isColumnStore()) {
+            throw new DataFrameException("Column arrays are only available for a column store");
+        } else {
+            return data.get(colCoord);
+        }
+    }
+
+
     /**
      * Returns a stream of types to describe each column in this content
      * @return  the stream of column types
@@ -682,46 +699,12 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
     }
 
 
-    /**
-     * Returns a newly created comparator to sort this content in the row dimension
-     * @param colKeys       the column keys to sort rows by, in order of precedence
-     * @param multiplier    the multiplier to control ascending / descending
-     * @return              the newly created comparator
-     */
-    final XDataFrameComparator createRowComparator(List<C> colKeys, int multiplier) {
-        var comparators = new XDataFrameComparator[colKeys.size()];
-        for (int i=0; i<colKeys.size(); ++i) {
-            var colKey = colKeys.get(i);
-            var array = getColArray(colKey);
-            comparators[i] = XDataFrameComparator.create(array, multiplier);
-        }
-        return XDataFrameComparator.create(comparators).withIndex(rowKeys);
-    }
-
-
-    /**
-     * Returns a newly created comparator to sort this content in the column dimension
-     * @param rowKeys       the row keys to sort columns by, in order of precedence
-     * @param multiplier    the multiplier to control ascending / descending
-     * @return              the newly created comparator
-     */
-    final XDataFrameComparator createColComparator(List<R> rowKeys, int multiplier) {
-        var comparators = new XDataFrameComparator[rowKeys.size()];
-        for (int i=0; i<rowKeys.size(); ++i) {
-            var rowKey = rowKeys.get(i);
-            var array = getRowArray(rowKey);
-            comparators[i] = XDataFrameComparator.create(array, multiplier);
-        }
-        return XDataFrameComparator.create(comparators).withIndex(colKeys);
-    }
-
-
     /**
      * Returns row data as an array for internal use only
      * @param rowKey    the row key
      * @return          the array of row data
      */
-    private Array<?> getRowArray(R rowKey) {
+    final Array<?> getRowArray(R rowKey) {
         var rowIndex = rowKeys.getCoordinate(rowKey);
         if (!isColumnStore()) {
             return data.get(rowIndex);
@@ -750,7 +733,7 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
      * @param colKey    the column key
      * @return          the array of column data
      */
-    private Array<?> getColArray(C colKey) {
+    final Array<?> getColArray(C colKey) {
         var colIndex = colKeys.getCoordinate(colKey);
         if (isColumnStore()) {
             return data.get(colIndex);
@@ -1053,7 +1036,9 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
      */
     @SuppressWarnings("unchecked")
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        var rowCount = is.readInt();
+        var marker = is.readInt();
+        var version = marker < 0 ? -marker : 1;
+        var rowCount = version > 1 ? is.readInt() : marker;
         var colCount = is.readInt();
         final Class<R> rowType = (Class<R>)is.readObject();
         final Class<C> colType = (Class<C>)is.readObject();
@@ -1069,8 +1054,7 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
             for (int j=0; j<colCount; ++j) {
                 final C colKey = (C)is.readObject();
                 final Class<?> type = (Class<?>)is.readObject();
-                final Array array = Array.of(type, rowCount);
-                array.read(is, rowCount);
+                final Array array = readArray(is, type, rowCount, version);
                 this.data.add(array);
                 this.colKeys.add(colKey);
             }
@@ -1083,8 +1067,7 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
             for (int j=0; j<rowCount; ++j) {
                 final R rowKey = (R)is.readObject();
                 final Class<?> type = (Class<?>)is.readObject();
-                final Array array = Array.of(type, rowCount);
-                array.read(is, rowCount);
+                final Array array = readArray(is, type, colCount, version);
                 this.data.add(array);
                 this.rowKeys.add(rowKey);
             }
@@ -1100,6 +1083,7 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
     private void writeObject(ObjectOutputStream os) throws IOException {
         var rowCount = rowKeys.size();
         var colCount = colKeys.size();
+        os.writeInt(-FORMAT_VERSION);
         os.writeInt(rowCount);
         os.writeInt(colCount);
         os.writeObject(rowKeys.type());
@@ -1117,7 +1101,7 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
                 final Class<?> type = array.type();
                 os.writeObject(colKey);
                 os.writeObject(type);
-                array.write(os, indexes);
+                writeArray(os, array, indexes);
             }
         } else {
             for (int i=0; i<colCount; ++i) {
@@ -1131,9 +1115,60 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
                 final Class<?> type = array.type();
                 os.writeObject(rowKey);
                 os.writeObject(type);
-                array.write(os, indexes);
+                writeArray(os, array, indexes);
+            }
+        }
+    }
+
+
+    /**
+     * Reads an array written by writeArray(), restoring null entries of int, long and double arrays
+     * @param is        the input stream
+     * @param type      the array element type
+     * @param length    the number of entries to read
+     * @param version   the format version of the stream, where version 1 carries no null positions
+     * @return          the array read from stream
+     * @throws IOException  if read fails
+     */
+    @SuppressWarnings("unchecked")
+    private static Array readArray(ObjectInputStream is, Class<?> type, int length, int version) throws IOException {
+        final boolean hasNulls = version > 1 && ArrayType.of(type).isNumeric();
+        final int[] nulls = hasNulls ? new int[is.readInt()] : new int[0];
+        for (int i=0; i<nulls.length; ++i) {
+            nulls[i] = is.readInt();
+        }
+        final Array array = nulls.length > 0 ? Array.ofNullable(type, length) : Array.of(type, length);
+        array.read(is, length);
+        for (int index : nulls) {
+            array.setValue(index, null);
+        }
+        return array;
+    }
+
+
+    /**
+     * Writes the entries of an array at the indexes specified, preceded by the positions of any null entries
+     * Int, long and double arrays may record nulls in a validity bitmap, which is not part of the array content.
+     * @param os        the output stream
+     * @param array     the array to write
+     * @param indexes   the indexes of entries to write
+     * @throws IOException  if write fails
+     */
+    private static void writeArray(ObjectOutputStream os, Array<?> array, int[] indexes) throws IOException {
+        if (ArrayType.of(array.type()).isNumeric()) {
+            int count = 0;
+            final int[] nulls = new int[indexes.length];
+            for (int i=0; i<indexes.length; ++i) {
+                if (array.isNull(indexes[i]) && array.getValue(indexes[i]) == null) {
+                    nulls[count++] = i;
+                }
+            }
+            os.writeInt(count);
+            for (int i=0; i<count; ++i) {
+                os.writeInt(nulls[i]);
             }
         }
+        array.write(os, indexes);
     }
 
 
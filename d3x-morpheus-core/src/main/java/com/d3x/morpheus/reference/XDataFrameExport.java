@@ -15,8 +15,13 @@
  */
 package com.d3x.morpheus.reference;
 
+import java.util.Arrays;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayStyle;
 import com.d3x.morpheus.frame.DataFrameExport;
 import com.d3x.morpheus.jama.Matrix;
+import com.d3x.morpheus.matrix.SparseMatrix;
 
 import org.apache.commons.math3.exception.NotStrictlyPositiveException;
 import org.apache.commons.math3.exception.OutOfRangeException;
@@ -56,6 +61,72 @@ class XDataFrameExport<R,C> implements DataFrameExport {
 
 
 
+    @Override
+    public final SparseMatrix asSparseMatrix() {
+        final int rowCount = frame.rowCount();
+        final int colCount = frame.colCount();
+        final int[] pointers = new int[colCount + 1];
+        int[] rowIndexes = new int[Math.max(16, colCount)];
+        double[] values = new double[rowIndexes.length];
+        int count = 0;
+        for (int j = 0; j < colCount; ++j) {
+            final int[] rows = sparseRows(j);
+            final int length = rows != null ? rows.length : rowCount;
+            if (count + length > rowIndexes.length) {
+                final int capacity = Math.max(2 * rowIndexes.length, count + length);
+                rowIndexes = Arrays.copyOf(rowIndexes, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            for (int k = 0; k < length; ++k) {
+                final int i = rows != null ? rows[k] : k;
+                final double value = frame.getDoubleAt(i, j);
+                if (value != 0d) {
+                    rowIndexes[count] = i;
+                    values[count] = value;
+                    count++;
+                }
+            }
+            pointers[j + 1] = count;
+        }
+        return SparseMatrix.wrap(rowCount, colCount, false, pointers, rowIndexes, values);
+    }
+
+
+    /**
+     * Returns the ascending row ordinals of the populated entries in a column, if it is backed by a sparse array
+     * @param colOrdinal    the column ordinal
+     * @return              the ascending row ordinals of populated entries, null if the full column must be scanned
+     */
+    private int[] sparseRows(int colOrdinal) {
+        final XDataFrameContent<R,C> content = frame.content();
+        if (!content.isColumnStore() || content.rowKeys().isFilter()) {
+            return null;
+        } else {
+            final Array<?> array = content.colArrayAt(content.colCoordinateAt(colOrdinal));
+            final Object defaultValue = array.defaultValue();
+            if (array.style() != ArrayStyle.SPARSE || !array.typeCode().isNumeric()) {
+                return null;
+            } else if (!(defaultValue instanceof Number) || ((Number)defaultValue).doubleValue() != 0d) {
+                return null;
+            } else {
+                final int rowCount = frame.rowCount();
+                final int[] coordinates = array.storedIndexes();
+                final int[] ordinals = new int[coordinates.length];
+                int count = 0;
+                for (int coordinate : coordinates) {
+                    if (coordinate < rowCount) {
+                        ordinals[count++] = content.rowKeys().getOrdinalAt(coordinate);
+                    }
+                }
+                final int[] result = Arrays.copyOf(ordinals, count);
+                Arrays.sort(result);
+                return result;
+            }
+        }
+    }
+
+
+
     @Override
     public final RealMatrix asApacheMatrix() {
         return new AbstractRealMatrix() {
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.d3x.morpheus.array.Array;
@@ -39,6 +40,7 @@ import com.d3x.morpheus.frame.DataFrameCursor;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.frame.DataFrameFactory;
 import com.d3x.morpheus.frame.DataFrameHeader;
+import com.d3x.morpheus.frame.DataFramePartitions;
 import com.d3x.morpheus.frame.DataFrameRead;
 import com.d3x.morpheus.index.Index;
 import com.d3x.morpheus.range.Range;
@@ -141,6 +143,12 @@ public class XDataFrameFactory extends DataFrameFactory {
     }
 
 
+    @Override
+    public <R,C> DataFramePartitions<R,C> partitions(List<Supplier<DataFrame<R,C>>> loaders, int cacheSize) {
+        return new XDataFramePartitions<>(loaders, cacheSize);
+    }
+
+
     @SuppressWarnings("unchecked")
     public <R,C> DataFrame<R,C> from(Class<R> rowType, Map<C,Class<?>> columnMap) {
         final Set<Class> colKeySet = columnMap.keySet().stream().map(C::getClass).collect(Collectors.toSet());
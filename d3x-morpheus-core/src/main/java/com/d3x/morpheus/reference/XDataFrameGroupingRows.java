@@ -15,18 +15,24 @@
  */
 package com.d3x.morpheus.reference;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ForkJoinPool;
+import java.util.Set;
 import java.util.concurrent.RecursiveTask;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.array.ArrayCollector;
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.coding.WithIntCoding;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.frame.DataFrameGrouping;
@@ -34,10 +40,14 @@ import com.d3x.morpheus.frame.DataFrameOptions;
 import com.d3x.morpheus.frame.DataFrameRow;
 import com.d3x.morpheus.frame.DataFrameVector;
 import com.d3x.morpheus.index.Index;
+import com.d3x.morpheus.stats.StatType;
 import com.d3x.morpheus.stats.Statistic1;
 import com.d3x.morpheus.stats.Stats;
 import com.d3x.morpheus.stats.StatsAssembler;
+import com.d3x.morpheus.util.ForkJoinContext;
 import com.d3x.morpheus.util.Tuple;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
 
 /**
  * An implementation of the DataFrameGrouping interface that groups rows of a DataFrame
@@ -52,19 +62,26 @@ import com.d3x.morpheus.util.Tuple;
 class XDataFrameGroupingRows<R,C> implements DataFrameGrouping.Rows<R,C> {
 
     private int depth;
+    private boolean parallel;
+    private Array<C> colKeys;
     private XDataFrame<R,C> source;
-    private Map<Tuple,Array<R>> groupKeysMap;
+    private Function<DataFrameRow<R,C>,Tuple> function;
+    private volatile Map<Tuple,Array<R>> groupKeysMap;
 
     /**
      * Constructor
-     * @param source        the source frame for groups
-     * @param depth         the grouping depth
-     * @param groupKeysMap  the apply of keys for each group
+     * @param source    the source frame for groups
+     * @param parallel  true for parallel grouping
+     * @param depth     the grouping depth
+     * @param colKeys   the column keys to group by, null if grouping by an arbitrary function
+     * @param function  the function that computes the group key for each row
      */
-    private XDataFrameGroupingRows(XDataFrame<R,C> source, int depth, Map<Tuple,Array<R>> groupKeysMap) {
+    private XDataFrameGroupingRows(XDataFrame<R,C> source, boolean parallel, int depth, Array<C> colKeys, Function<DataFrameRow<R,C>,Tuple> function) {
         this.source = source;
+        this.parallel = parallel;
         this.depth = depth;
-        this.groupKeysMap = groupKeysMap;
+        this.colKeys = colKeys;
+        this.function = function;
     }
 
 
@@ -78,14 +95,14 @@ class XDataFrameGroupingRows<R,C> implements DataFrameGrouping.Rows<R,C> {
      * @return          the newly create grouping engine
      */
     static <R,C> XDataFrameGroupingRows<R,C> of(XDataFrame<R,C> source, boolean parallel, Array<C> colKeys) {
+        final int depth = source.rowCount() > 0 ? colKeys.length() : 0;
         if (colKeys.length() == 1) {
-            final C colKey = colKeys.getValue(0);
-            final int ordinal = source.colKeys().getOrdinal(colKey);
-            return XDataFrameGroupingRows.of(source, parallel, row -> Tuple.of(row.<Object>getValueAt(ordinal)));
+            final int ordinal = source.colKeys().getOrdinal(colKeys.getValue(0));
+            return new XDataFrameGroupingRows<>(source, parallel, depth, colKeys, row -> Tuple.of(row.<Object>getValueAt(ordinal)));
         } else {
             var ordinals = source.colKeys().ordinals(colKeys).toArray();
-            return XDataFrameGroupingRows.of(source, parallel, row -> {
-                final Object[] values = new Object[colKeys.length()];
+            return new XDataFrameGroupingRows<>(source, parallel, depth, colKeys, row -> {
+                final Object[] values = new Object[ordinals.length];
                 for (int i=0; i<ordinals.length; ++i) {
                     values[i] = row.getValueAt(ordinals[i]);
                 }
@@ -104,13 +121,97 @@ class XDataFrameGroupingRows<R,C> implements DataFrameGrouping.Rows<R,C> {
      */
     static <R,C> XDataFrameGroupingRows<R,C> of(XDataFrame<R,C> source, boolean parallel, Function<DataFrameRow<R,C>,Tuple> function) {
         final int depth = source.rows().first().map(function).map(Tuple::size).orElse(0);
-        final GroupRowsTask<R,C> task = new GroupRowsTask<>(source, 0, source.rowCount()-1, depth, parallel, function);
-        if (parallel) {
-            final Map<Tuple,ArrayBuilder<R>> groupKeyMap = ForkJoinPool.commonPool().invoke(task);
-            return new XDataFrameGroupingRows<>(source, depth, crystallize(groupKeyMap));
+        return new XDataFrameGroupingRows<>(source, parallel, depth, null, function);
+    }
+
+
+    /**
+     * Returns the column array if grouping by a single column of a column store, otherwise null
+     * @return      the array for the single grouping column, or null
+     */
+    private Array<?> groupArray() {
+        if (colKeys == null || colKeys.length() != 1) {
+            return null;
         } else {
-            final Map<Tuple,ArrayBuilder<R>> groupKeyMap = task.compute();
-            return new XDataFrameGroupingRows<>(source, depth, crystallize(groupKeyMap));
+            final int ordinal = source.colKeys().getOrdinal(colKeys.getValue(0));
+            final XDataFrameContent<R,C> content = source.content();
+            return content.isColumnStore() ? content.colArrayAt(content.colCoordinateAt(ordinal)) : null;
+        }
+    }
+
+
+    /**
+     * Returns the map of row keys for each group, which is computed on first access
+     * Grouping on an int coded column, such as a categorical column, hashes primitive codes rather than tuples
+     * @return      the map of row keys for each group
+     */
+    private Map<Tuple,Array<R>> groups() {
+        if (groupKeysMap == null) {
+            synchronized (this) {
+                if (groupKeysMap == null) {
+                    final Array<?> array = groupArray();
+                    if (array instanceof WithIntCoding) {
+                        this.groupKeysMap = ofCodes(source, parallel, array);
+                    } else {
+                        final GroupRowsTask<R,C> task = new GroupRowsTask<>(source, 0, source.rowCount()-1, depth, parallel, function);
+                        final Map<Tuple,ArrayBuilder<R>> groupKeyMap = parallel ? ForkJoinContext.invoke(task) : task.compute();
+                        this.groupKeysMap = crystallize(groupKeyMap);
+                    }
+                }
+            }
+        }
+        return groupKeysMap;
+    }
+
+
+    /**
+     * Returns the row keys for each group based on the int codes of a coded column, such as a categorical column
+     * Rows are grouped on primitive codes, and each code is only decoded once to create the key for its group
+     * @param source    the source frame to group
+     * @param parallel  true for parallel grouping
+     * @param array     the column array, which must implement WithIntCoding
+     * @param <R>       the row key type
+     * @param <C>       the column key type
+     * @return          the map of row keys for each group
+     */
+    @SuppressWarnings("unchecked")
+    private static <R,C,T> Map<Tuple,Array<R>> ofCodes(XDataFrame<R,C> source, boolean parallel, Array<T> array) {
+        final IntCoding<T> coding = ((WithIntCoding<T>)array).getCoding();
+        final GroupCodesTask<R> task = new GroupCodesTask<>(source, array, 0, source.rowCount()-1, parallel);
+        final TIntObjectMap<ArrayBuilder<R>> groupCodeMap = parallel ? ForkJoinContext.invoke(task) : task.compute();
+        final Map<Tuple,Array<R>> groupKeysMap = new HashMap<>(groupCodeMap.size());
+        groupCodeMap.forEachEntry((code, builder) -> {
+            groupKeysMap.put(Tuple.of((Object)coding.getValue(code)), builder.toArray());
+            return true;
+        });
+        return groupKeysMap;
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final DataFrame<Tuple,C> agg(int level, Function<C,StatType> statFunction) {
+        if (level < 0 || level >= Math.max(depth, 1)) {
+            throw new DataFrameException("Invalid group level specified: " + level + ", grouping depth is " + depth);
+        } else {
+            final Array<?> array = level == 0 ? groupArray() : null;
+            final Set<C> groupCols = colKeys != null ? new HashSet<>(colKeys.toList()) : Collections.emptySet();
+            final Function<C,StatType> colFunction = colKey -> groupCols.contains(colKey) ? null : statFunction.apply(colKey);
+            if (array instanceof WithIntCoding) {
+                final IntCoding<Object> coding = ((WithIntCoding<Object>)array).getCoding();
+                final Supplier<XDataFrameAggregator.GroupTable> tables = XDataFrameAggregator.ofPrimitive(array, coding::getValue, source.content());
+                return XDataFrameAggregator.aggregate(source, parallel, tables, colFunction);
+            } else if (array != null && (array.typeCode() == ArrayType.INTEGER || array.typeCode() == ArrayType.LONG)) {
+                final Supplier<XDataFrameAggregator.GroupTable> tables = XDataFrameAggregator.ofPrimitive(array, Integer::valueOf, source.content());
+                return XDataFrameAggregator.aggregate(source, parallel, tables, colFunction);
+            } else if (level == depth - 1) {
+                final Supplier<XDataFrameAggregator.GroupTable> tables = XDataFrameAggregator.ofTuples(source, function);
+                return XDataFrameAggregator.aggregate(source, parallel, tables, colFunction);
+            } else {
+                final Function<DataFrameRow<R,C>,Tuple> levelFunction = row -> function.apply(row).filter(0, level + 1);
+                final Supplier<XDataFrameAggregator.GroupTable> tables = XDataFrameAggregator.ofTuples(source, levelFunction);
+                return XDataFrameAggregator.aggregate(source, parallel, tables, colFunction);
+            }
         }
     }
 
@@ -132,12 +233,12 @@ class XDataFrameGroupingRows<R,C> implements DataFrameGrouping.Rows<R,C> {
 
     @Override
     public final int getGroupCount(int level) {
-        return (int)groupKeysMap.keySet().stream().filter(g -> g.size() == level + 1).count();
+        return (int)groups().keySet().stream().filter(g -> g.size() == level + 1).count();
     }
 
     @Override
     public final Stream<Tuple> getGroupKeys(int level) {
-        return groupKeysMap.keySet().stream().filter(g -> g.size() == level + 1);
+        return groups().keySet().stream().filter(g -> g.size() == level + 1);
     }
 
     @Override
@@ -147,13 +248,13 @@ class XDataFrameGroupingRows<R,C> implements DataFrameGrouping.Rows<R,C> {
 
     @Override
     public final Stream<Tuple> getChildren(Tuple groupKey) {
-        return groupKeysMap.keySet().stream().filter(g -> g.size() == groupKey.size() + 1 && g.filter(0, groupKey.size()).equals(groupKey));
+        return groups().keySet().stream().filter(g -> g.size() == groupKey.size() + 1 && g.filter(0, groupKey.size()).equals(groupKey));
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public final DataFrame<R,C> getGroup(Tuple groupKey) {
-        final Array<R> groupKeys = groupKeysMap.get(groupKey);
+        final Array<R> groupKeys = groups().get(groupKey);
         if (groupKeys == null) {
             throw new DataFrameException("No DataFrame for group " + groupKey);
         } else {
@@ -280,7 +381,87 @@ class XDataFrameGroupingRows<R,C> implements DataFrameGrouping.Rows<R,C> {
 
 
     /**
-     * Computes bulk statistics over grouped rows
+     * A RecursiveTask implementation to group a DataFrame along the row dimension by the int codes of a column
+     */
+    private static class GroupCodesTask<X> extends RecursiveTask<TIntObjectMap<ArrayBuilder<X>>> {
+
+        private int from;
+        private int to;
+        private boolean parallel;
+        private Array<?> array;
+        private XDataFrame<X,?> source;
+        private int threshold = Integer.MAX_VALUE;
+
+        /**
+         * Constructor
+         * @param source    the source frame to group
+         * @param array     the coded column array to group by
+         * @param from      the from index (inclusive)
+         * @param to        the to index (inclusive)
+         * @param parallel  true for parallel mode
+         */
+        private GroupCodesTask(XDataFrame<X,?> source, Array<?> array, int from, int to, boolean parallel) {
+            this.source = source;
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.parallel = parallel;
+            if (parallel) {
+                this.threshold = DataFrameOptions.getRowSplitThreshold(source);
+            }
+        }
+
+        @Override
+        protected TIntObjectMap<ArrayBuilder<X>> compute() {
+            final int count = to - from + 1;
+            if (count > threshold) {
+                return split();
+            } else {
+                final Index<X> rowKeys = source.rowKeys();
+                final Class<X> keyType = rowKeys.type();
+                final XDataFrameContent<X,?> content = source.content();
+                final TIntObjectMap<ArrayBuilder<X>> groupCodeMap = new TIntObjectHashMap<>();
+                for (int i=from; i<=to; ++i) {
+                    final int code = array.getInt(content.rowCoordinateAt(i));
+                    ArrayBuilder<X> groupKeyBuilder = groupCodeMap.get(code);
+                    if (groupKeyBuilder == null) {
+                        groupKeyBuilder = ArrayBuilder.of(1000, keyType);
+                        groupCodeMap.put(code, groupKeyBuilder);
+                    }
+                    groupKeyBuilder.append(rowKeys.getKey(i));
+                }
+                return groupCodeMap;
+            }
+        }
+
+        /**
+         * Splits into two grouping operations and then combines the results of each
+         * @return      the combined grouping of the two split grouping tasks
+         */
+        private TIntObjectMap<ArrayBuilder<X>> split() {
+            final int splitCount = (to - from) / 2;
+            final int midPoint = from + splitCount;
+            final GroupCodesTask<X> left  = new GroupCodesTask<>(source, array, from, midPoint, parallel);
+            final GroupCodesTask<X> right = new GroupCodesTask<>(source, array, midPoint + 1, to, parallel);
+            left.fork();
+            final TIntObjectMap<ArrayBuilder<X>> rightAns = right.compute();
+            final TIntObjectMap<ArrayBuilder<X>> leftAns  = left.join();
+            rightAns.forEachEntry((code, value) -> {
+                final ArrayBuilder<X> existing = leftAns.get(code);
+                if (existing == null) {
+                    leftAns.put(code, value);
+                } else {
+                    existing.appendAll(value);
+                }
+                return true;
+            });
+            return leftAns;
+        }
+    }
+
+
+    /**
+     * Computes bulk statistics over grouped rows, using hash aggregation where the statistic supports it
      */
     private class GroupedRowStats extends StatsAssembler<DataFrame<Tuple,C>> {
 
@@ -294,6 +475,46 @@ class XDataFrameGroupingRows<R,C> implements DataFrameGrouping.Rows<R,C> {
             this.level = level;
         }
 
+        @Override
+        public DataFrame<Tuple,C> count() {
+            return agg(level, colKey -> StatType.COUNT);
+        }
+
+        @Override
+        public DataFrame<Tuple,C> min() {
+            return agg(level, colKey -> StatType.MIN);
+        }
+
+        @Override
+        public DataFrame<Tuple,C> max() {
+            return agg(level, colKey -> StatType.MAX);
+        }
+
+        @Override
+        public DataFrame<Tuple,C> mean() {
+            return agg(level, colKey -> StatType.MEAN);
+        }
+
+        @Override
+        public DataFrame<Tuple,C> stdDev() {
+            return agg(level, colKey -> StatType.STD_DEV);
+        }
+
+        @Override
+        public DataFrame<Tuple,C> sum() {
+            return agg(level, colKey -> StatType.SUM);
+        }
+
+        @Override
+        public DataFrame<Tuple,C> sumSquares() {
+            return agg(level, colKey -> StatType.SUM_SQUARES);
+        }
+
+        @Override
+        public DataFrame<Tuple,C> variance() {
+            return agg(level, colKey -> StatType.VARIANCE);
+        }
+
         @Override()
         protected DataFrame<Tuple,C> compute(Statistic1 stat) {
             try {
@@ -0,0 +1,610 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntUnaryOperator;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameColumn;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameOptions;
+import com.d3x.morpheus.frame.JoinType;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.ForkJoinContext;
+import com.d3x.morpheus.util.SortAlgorithm;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+/**
+ * A class that joins two DataFrames on the values of a column common to both frames.
+ *
+ * Keys held in int, long, double and long coded temporal columns are extracted into order preserving primitive
+ * longs and matched through a primitive hash table, or merged directly when both sides are already sorted. Other
+ * key types are matched through an object hash table. The probe phase is partitioned across the fork join pool
+ * for parallel frames. The resulting frame is keyed by row ordinal, and contains the join column followed by the
+ * remaining left columns and then the remaining right columns.
+ *
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class XDataFrameJoin<C> {
+
+    private C on;
+    private JoinType type;
+    private DataFrame<?,C> left;
+    private DataFrame<?,C> right;
+
+    /**
+     * Constructor
+     * @param left      the left frame
+     * @param right     the right frame
+     * @param on        the key of the column to join on, which must exist in both frames
+     * @param type      the join type
+     */
+    XDataFrameJoin(DataFrame<?,C> left, DataFrame<?,C> right, C on, JoinType type) {
+        this.left = left;
+        this.right = right;
+        this.on = on;
+        this.type = type;
+    }
+
+
+    /**
+     * Returns the result of applying this join
+     * @return  the joined frame, keyed by row ordinal
+     */
+    DataFrame<Integer,C> apply() {
+        if (!left.cols().contains(on)) {
+            throw new DataFrameException("The join column does not exist in the left frame: " + on);
+        } else if (!right.cols().contains(on)) {
+            throw new DataFrameException("The join column does not exist in the right frame: " + on);
+        } else {
+            right.cols().keys().forEach(colKey -> {
+                if (!colKey.equals(on) && left.cols().contains(colKey)) {
+                    throw new DataFrameException("Column exists in both frames being joined: " + colKey);
+                }
+            });
+            final Class<?> leftClass = left.cols().type(on);
+            final Class<?> rightClass = right.cols().type(on);
+            final boolean primitive = isPrimitive(leftClass, rightClass);
+            final Keys leftKeys = new Keys(left.col(on), primitive);
+            final Keys rightKeys = new Keys(right.col(on), primitive);
+            final Matches matches = match(leftKeys, rightKeys);
+            final Class<?> keyClass = leftClass == rightClass ? leftClass : primitive ? Long.class : Object.class;
+            return createResult(matches.leftRows.toArray(), matches.rightRows.toArray(), keyClass);
+        }
+    }
+
+
+    /**
+     * Returns true if keys of the two column types can be compared as order preserving primitive longs
+     * @param leftClass     the left join column type
+     * @param rightClass    the right join column type
+     * @return              true if primitive keys can be used
+     */
+    private boolean isPrimitive(Class<?> leftClass, Class<?> rightClass) {
+        final KeyStyle leftStyle = KeyStyle.of(leftClass);
+        final KeyStyle rightStyle = KeyStyle.of(rightClass);
+        if (leftStyle == KeyStyle.OBJECT || rightStyle == KeyStyle.OBJECT) {
+            return false;
+        } else if (leftClass == rightClass) {
+            return true;
+        } else {
+            final boolean leftInteger = leftClass == Integer.class || leftClass == Long.class;
+            final boolean rightInteger = rightClass == Integer.class || rightClass == Long.class;
+            return leftInteger && rightInteger;
+        }
+    }
+
+
+    /**
+     * Returns the matching row ordinal pairs for the join
+     * @param leftKeys      the left keys
+     * @param rightKeys     the right keys
+     * @return              the matching row ordinals
+     */
+    private Matches match(Keys leftKeys, Keys rightKeys) {
+        if (type == JoinType.ASOF) {
+            return asOf(leftKeys, rightKeys);
+        } else if (leftKeys.isSorted() && rightKeys.isSorted()) {
+            return merge(leftKeys, rightKeys);
+        } else {
+            return hash(leftKeys, rightKeys);
+        }
+    }
+
+
+    /**
+     * Returns the matches for an equi-join using a hash table built on the right keys
+     * @param leftKeys      the left keys
+     * @param rightKeys     the right keys
+     * @return              the matching row ordinals
+     */
+    private Matches hash(Keys leftKeys, Keys rightKeys) {
+        final int size = rightKeys.size();
+        final int[] next = new int[size];
+        final boolean[] matched = type == JoinType.OUTER ? new boolean[size] : null;
+        final IntUnaryOperator first;
+        if (leftKeys.values != null) {
+            final TLongIntMap heads = new TLongIntHashMap(Math.max(size * 2, 16), 0.5f, 0L, -1);
+            for (int j = size - 1; j >= 0; --j) {
+                next[j] = rightKeys.nulls[j] ? -1 : heads.put(rightKeys.values[j], j);
+            }
+            first = i -> leftKeys.nulls[i] ? -1 : heads.get(leftKeys.values[i]);
+        } else {
+            final TObjectIntMap<Object> heads = new TObjectIntHashMap<>(Math.max(size * 2, 16), 0.5f, -1);
+            for (int j = size - 1; j >= 0; --j) {
+                next[j] = rightKeys.nulls[j] ? -1 : heads.put(rightKeys.objects[j], j);
+            }
+            first = i -> leftKeys.nulls[i] ? -1 : heads.get(leftKeys.objects[i]);
+        }
+        final Matches matches = probe(leftKeys.size(), first, next, matched);
+        return type == JoinType.OUTER ? matches.unmatched(matched) : matches;
+    }
+
+
+    /**
+     * Returns the matches for an equi-join by merging two sorted sets of primitive keys
+     * @param leftKeys      the left keys, sorted ascending
+     * @param rightKeys     the right keys, sorted ascending
+     * @return              the matching row ordinals
+     */
+    private Matches merge(Keys leftKeys, Keys rightKeys) {
+        int i = 0, j = 0;
+        final long[] lhs = leftKeys.values;
+        final long[] rhs = rightKeys.values;
+        final boolean keepLeft = type != JoinType.INNER;
+        final boolean[] matched = type == JoinType.OUTER ? new boolean[rhs.length] : null;
+        final Matches matches = new Matches(Math.max(lhs.length, 10));
+        while (i < lhs.length && j < rhs.length) {
+            if (lhs[i] < rhs[j]) {
+                if (keepLeft) matches.add(i, -1);
+                i++;
+            } else if (lhs[i] > rhs[j]) {
+                j++;
+            } else {
+                final long key = lhs[i];
+                int leftEnd = i + 1, rightEnd = j + 1;
+                while (leftEnd < lhs.length && lhs[leftEnd] == key) leftEnd++;
+                while (rightEnd < rhs.length && rhs[rightEnd] == key) rightEnd++;
+                for (int ii = i; ii < leftEnd; ++ii) {
+                    for (int jj = j; jj < rightEnd; ++jj) {
+                        matches.add(ii, jj);
+                        if (matched != null) {
+                            matched[jj] = true;
+                        }
+                    }
+                }
+                i = leftEnd;
+                j = rightEnd;
+            }
+        }
+        while (keepLeft && i < lhs.length) {
+            matches.add(i++, -1);
+        }
+        return type == JoinType.OUTER ? matches.unmatched(matched) : matches;
+    }
+
+
+    /**
+     * Returns the matches for an as-of join, which matches the last right row with a key less than or equal to each left key
+     * @param leftKeys      the left keys
+     * @param rightKeys     the right keys
+     * @return              the matching row ordinals
+     */
+    private Matches asOf(Keys leftKeys, Keys rightKeys) {
+        if (leftKeys.values == null) {
+            throw new DataFrameException("An ASOF join requires a numeric or temporal join column: " + on);
+        } else {
+            final int[] order = rightKeys.sortedOrder(left.isParallel());
+            final long[] sorted = new long[order.length];
+            for (int k = 0; k < order.length; ++k) {
+                sorted[k] = rightKeys.values[order[k]];
+            }
+            return probe(leftKeys.size(), i -> {
+                if (leftKeys.nulls[i]) {
+                    return -1;
+                } else {
+                    final long key = leftKeys.values[i];
+                    int low = 0, high = sorted.length;
+                    while (low < high) {
+                        final int mid = (low + high) >>> 1;
+                        if (sorted[mid] <= key) {
+                            low = mid + 1;
+                        } else {
+                            high = mid;
+                        }
+                    }
+                    return low > 0 ? order[low - 1] : -1;
+                }
+            }, null, null);
+        }
+    }
+
+
+    /**
+     * Probes every left row ordinal, in parallel for parallel frames
+     * @param size      the number of left rows
+     * @param first     the function that returns the first matching right row for a left row, -1 if no match
+     * @param next      the chain of subsequent matching right rows, null if only the first match applies
+     * @param matched   the flags to record matched right rows, null if not required
+     * @return          the matching row ordinals in left row order
+     */
+    private Matches probe(int size, IntUnaryOperator first, int[] next, boolean[] matched) {
+        if (left.isParallel() && size > 0) {
+            final int threshold = Math.max(DataFrameOptions.getRowSplitThreshold(left), 1000);
+            return ForkJoinContext.invoke(new ProbeTask(0, size, threshold, first, next, matched));
+        } else {
+            return new ProbeTask(0, size, Integer.MAX_VALUE, first, next, matched).compute();
+        }
+    }
+
+
+    /**
+     * Returns the joined frame given the matching row ordinals
+     * @param leftRows      the left row ordinals, -1 where there is no left row
+     * @param rightRows     the right row ordinals, -1 where there is no right row
+     * @param keyClass      the data type for the join column
+     * @return              the joined frame
+     */
+    @SuppressWarnings("unchecked")
+    private DataFrame<Integer,C> createResult(int[] leftRows, int[] rightRows, Class<?> keyClass) {
+        final int rowCount = leftRows.length;
+        final Class<C> colType = left.cols().keyClass();
+        return DataFrame.of(Range.of(0, rowCount), colType, columns -> {
+            final Array<Object> keys = Array.of((Class<Object>)keyClass, rowCount);
+            copy(left.col(on), leftRows, null, keys);
+            copy(right.col(on), rightRows, leftRows, keys);
+            columns.add(on, keys);
+            left.cols().sequential().forEach(column -> {
+                if (!column.key().equals(on)) {
+                    final Array<Object> values = createArray(column.dataClass(), leftRows);
+                    columns.add(column.key(), copy(column, leftRows, null, values));
+                }
+            });
+            right.cols().sequential().forEach(column -> {
+                if (!column.key().equals(on)) {
+                    final Array<Object> values = createArray(column.dataClass(), rightRows);
+                    columns.add(column.key(), copy(column, rightRows, null, values));
+                }
+            });
+        });
+    }
+
+
+    /**
+     * Returns a newly created array for a result column, which can hold nulls if some rows have no source row
+     * Boolean columns cannot represent null, so they are promoted to an object array in that case
+     * @param dataClass the data type of the source column
+     * @param rows      the source row ordinals for each target index, -1 where there is no source row
+     * @return          the newly created array
+     */
+    @SuppressWarnings("unchecked")
+    private Array<Object> createArray(Class<?> dataClass, int[] rows) {
+        final int rowCount = rows.length;
+        for (int row : rows) {
+            if (row < 0) {
+                if (ArrayType.of(dataClass) == ArrayType.BOOLEAN) {
+                    return Array.of(Object.class, rowCount);
+                } else {
+                    return Array.ofNullable((Class<Object>)dataClass, rowCount);
+                }
+            }
+        }
+        return Array.of((Class<Object>)dataClass, rowCount);
+    }
+
+
+    /**
+     * Copies values from a source column into the target array based on the row ordinals specified
+     * @param source    the source column
+     * @param rows      the source row ordinals for each target index, -1 to leave the target null or default
+     * @param skip      if not null, target indexes where this is non-negative are not written
+     * @param target    the target array
+     * @return          the target array
+     */
+    private Array<Object> copy(DataFrameColumn<?,C> source, int[] rows, int[] skip, Array<Object> target) {
+        final Class<?> dataClass = target.type();
+        final ArrayType arrayType = source.dataClass() == dataClass ? ArrayType.of(dataClass) : ArrayType.OBJECT;
+        for (int i = 0; i < rows.length; ++i) {
+            final int row = rows[i];
+            if (row < 0 || (skip != null && skip[i] >= 0)) {
+                continue;
+            } else if (source.isNullAt(row)) {
+                target.setValue(i, null);
+            } else {
+                switch (arrayType) {
+                    case BOOLEAN:       target.setBoolean(i, source.getBooleanAt(row));     break;
+                    case INTEGER:       target.setInt(i, source.getIntAt(row));             break;
+                    case LONG:          target.setLong(i, source.getLongAt(row));           break;
+                    case DOUBLE:        target.setDouble(i, source.getDoubleAt(row));       break;
+                    case LOCAL_TIME:    target.setLong(i, source.getLongAt(row));           break;
+                    case LOCAL_DATE:    target.setLong(i, source.getLongAt(row));           break;
+                    case ENUM:          target.setInt(i, source.getIntAt(row));             break;
+                    default:
+                        final Object value = source.getValueAt(row);
+                        if (dataClass == Long.class && value instanceof Number) {
+                            target.setLong(i, ((Number)value).longValue());
+                        } else {
+                            target.setValue(i, value);
+                        }
+                }
+            }
+        }
+        return target;
+    }
+
+
+    /**
+     * The styles in which join keys are extracted from a column
+     */
+    private enum KeyStyle {
+
+        INT,
+        LONG,
+        DOUBLE,
+        OBJECT;
+
+        /**
+         * Returns the key style for the column data type specified
+         * @param dataClass the column data type
+         * @return          the key style
+         */
+        static KeyStyle of(Class<?> dataClass) {
+            switch (ArrayType.of(dataClass)) {
+                case INTEGER:           return INT;
+                case ENUM:              return INT;
+                case YEAR:              return INT;
+                case CURRENCY:          return INT;
+                case ZONE_ID:           return INT;
+                case TIME_ZONE:         return INT;
+                case LONG:              return LONG;
+                case DATE:              return LONG;
+                case INSTANT:           return LONG;
+                case LOCAL_DATE:        return LONG;
+                case LOCAL_TIME:        return LONG;
+                case LOCAL_DATETIME:    return LONG;
+                case DOUBLE:            return DOUBLE;
+                default:                return OBJECT;
+            }
+        }
+    }
+
+
+    /**
+     * The join keys extracted from a column, either as order preserving primitive longs or as objects
+     */
+    private static class Keys {
+
+        private long[] values;
+        private Object[] objects;
+        private boolean[] nulls;
+        private boolean sorted;
+
+        /**
+         * Constructor
+         * @param column    the join column
+         * @param primitive true to extract primitive keys
+         */
+        Keys(DataFrameColumn<?,?> column, boolean primitive) {
+            final int size = column.size();
+            final KeyStyle style = primitive ? KeyStyle.of(column.dataClass()) : KeyStyle.OBJECT;
+            this.nulls = new boolean[size];
+            this.sorted = primitive;
+            if (style == KeyStyle.OBJECT) {
+                this.objects = new Object[size];
+                for (int i = 0; i < size; ++i) {
+                    this.objects[i] = column.getValueAt(i);
+                    this.nulls[i] = objects[i] == null;
+                }
+            } else {
+                this.values = new long[size];
+                final boolean nullable = column.dataClass() != Integer.class && column.dataClass() != Long.class;
+                for (int i = 0; i < size; ++i) {
+                    switch (style) {
+                        case INT:       values[i] = column.getIntAt(i);                         break;
+                        case LONG:      values[i] = column.getLongAt(i);                        break;
+                        case DOUBLE:    values[i] = toSortableLong(column.getDoubleAt(i));      break;
+                    }
+                    this.nulls[i] = nullable && column.isNullAt(i);
+                    this.sorted = sorted && !nulls[i] && (i == 0 || values[i - 1] <= values[i]);
+                }
+            }
+        }
+
+        /**
+         * Returns the number of keys
+         * @return  the number of keys
+         */
+        int size() {
+            return nulls.length;
+        }
+
+        /**
+         * Returns true if these are primitive keys in ascending order with no nulls
+         * @return  true if keys are sorted
+         */
+        boolean isSorted() {
+            return sorted;
+        }
+
+        /**
+         * Returns the ordinals of the non-null primitive keys in ascending key order, with ties in ordinal order
+         * @param parallel  true to sort in parallel
+         * @return          the sorted ordinals
+         */
+        int[] sortedOrder(boolean parallel) {
+            final TIntArrayList ordinals = new TIntArrayList(values.length);
+            for (int i = 0; i < values.length; ++i) {
+                if (!nulls[i]) {
+                    ordinals.add(i);
+                }
+            }
+            final int[] order = ordinals.toArray();
+            if (!sorted) {
+                SortAlgorithm.getDefault(parallel).sort(0, order.length, (i, j) -> {
+                    final int result = Long.compare(values[order[i]], values[order[j]]);
+                    return result != 0 ? result : Integer.compare(order[i], order[j]);
+                }, (i, j) -> {
+                    final int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                });
+            }
+            return order;
+        }
+
+        /**
+         * Returns a long that preserves the numeric ordering of the double value, with NaN mapped to the max long
+         * @param value     the double value
+         * @return          the order preserving long
+         */
+        private static long toSortableLong(double value) {
+            if (Double.isNaN(value)) {
+                return Long.MAX_VALUE;
+            } else {
+                final long bits = Double.doubleToLongBits(value == 0d ? 0d : value);
+                return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+            }
+        }
+    }
+
+
+    /**
+     * A growable list of matching left and right row ordinals
+     */
+    private static class Matches {
+
+        private TIntArrayList leftRows;
+        private TIntArrayList rightRows;
+
+        /**
+         * Constructor
+         * @param capacity  the initial capacity
+         */
+        Matches(int capacity) {
+            this.leftRows = new TIntArrayList(capacity);
+            this.rightRows = new TIntArrayList(capacity);
+        }
+
+        /**
+         * Adds a matching pair of row ordinals
+         * @param leftRow   the left row ordinal, -1 if none
+         * @param rightRow  the right row ordinal, -1 if none
+         */
+        void add(int leftRow, int rightRow) {
+            this.leftRows.add(leftRow);
+            this.rightRows.add(rightRow);
+        }
+
+        /**
+         * Appends all matches from the argument to this
+         * @param other the other matches
+         * @return      these matches
+         */
+        Matches addAll(Matches other) {
+            this.leftRows.addAll(other.leftRows);
+            this.rightRows.addAll(other.rightRows);
+            return this;
+        }
+
+        /**
+         * Appends all right rows that were not matched, as required for an outer join
+         * @param matched   the flags indicating which right rows were matched
+         * @return          these matches
+         */
+        Matches unmatched(boolean[] matched) {
+            for (int j = 0; j < matched.length; ++j) {
+                if (!matched[j]) {
+                    this.add(-1, j);
+                }
+            }
+            return this;
+        }
+    }
+
+
+    /**
+     * A RecursiveTask that probes a range of left rows for matches
+     */
+    private class ProbeTask extends RecursiveTask<Matches> {
+
+        private int from;
+        private int to;
+        private int threshold;
+        private int[] next;
+        private boolean[] matched;
+        private IntUnaryOperator first;
+
+        /**
+         * Constructor
+         * @param from      the from left row ordinal, inclusive
+         * @param to        the to left row ordinal, exclusive
+         * @param threshold the split threshold
+         * @param first     the function that returns the first matching right row for a left row
+         * @param next      the chain of subsequent matching right rows, null if only the first match applies
+         * @param matched   the flags to record matched right rows, null if not required
+         */
+        ProbeTask(int from, int to, int threshold, IntUnaryOperator first, int[] next, boolean[] matched) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.first = first;
+            this.next = next;
+            this.matched = matched;
+        }
+
+        @Override
+        protected Matches compute() {
+            final int count = to - from;
+            if (count <= threshold) {
+                final boolean keepLeft = type != JoinType.INNER;
+                final Matches matches = new Matches(Math.max(count, 10));
+                for (int i = from; i < to; ++i) {
+                    int j = first.applyAsInt(i);
+                    if (j < 0 && keepLeft) {
+                        matches.add(i, -1);
+                    }
+                    while (j >= 0) {
+                        matches.add(i, j);
+                        if (matched != null) {
+                            this.matched[j] = true;
+                        }
+                        j = next != null ? next[j] : -1;
+                    }
+                }
+                return matches;
+            } else {
+                final int midPoint = from + count / 2;
+                final ProbeTask leftTask = new ProbeTask(from, midPoint, threshold, first, next, matched);
+                final ProbeTask rightTask = new ProbeTask(midPoint, to, threshold, first, next, matched);
+                leftTask.fork();
+                final Matches rightResult = rightTask.compute();
+                return leftTask.join().addAll(rightResult);
+            }
+        }
+    }
+}
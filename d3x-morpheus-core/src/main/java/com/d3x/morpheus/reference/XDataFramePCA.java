@@ -67,13 +67,22 @@ class XDataFramePCA<R,C> implements DataFramePCA<R,C> {
 
     @Override
     public <T> Optional<T> apply(boolean demean, Solver solver, Function<Model<R, C>, Optional<T>> handler) {
+        return apply(demean, solver, Math.min(frame.rowCount(), frame.colCount()), handler);
+    }
+
+
+    @Override
+    public <T> Optional<T> apply(boolean demean, Solver solver, int numComponents, Function<Model<R,C>,Optional<T>> handler) {
         Asserts.notNull(solver, "The PCA Solver cannot be null");
         Asserts.notNull(handler, "The PCA lambda handler cannot be null");
+        Asserts.check(numComponents > 0, "The number of PCA components must be > 0");
         switch (solver) {
-            case SVD:           return handler.apply(new ModelWithSVD<>(frame, demean));
-            case EVD_COV:       return handler.apply(new ModelWithEVD<>(frame, demean, true));
-            case EVD_COR:       return handler.apply(new ModelWithEVD<>(frame, demean, false));
-            default:            throw new DataFrameException("Unsupported PCA solver specified: " + solver);
+            case SVD:               return handler.apply(new ModelWithSVD<>(frame, demean, numComponents));
+            case EVD_COV:           return handler.apply(new ModelWithEVD<>(frame, demean, numComponents, true));
+            case EVD_COR:           return handler.apply(new ModelWithEVD<>(frame, demean, numComponents, false));
+            case RANDOMIZED_SVD:    return handler.apply(new ModelWithTruncatedSVD<>(frame, demean, numComponents, false));
+            case LANCZOS:           return handler.apply(new ModelWithTruncatedSVD<>(frame, demean, numComponents, true));
+            default:                throw new DataFrameException("Unsupported PCA solver specified: " + solver);
         }
     }
 
@@ -86,11 +95,12 @@ class XDataFramePCA<R,C> implements DataFramePCA<R,C> {
 
         /**
          * Constructor
-         * @param data      the data frame reference
-         * @param demean    true if the frame columns should be demeaned
+         * @param data          the data frame reference
+         * @param demean        true if the frame columns should be demeaned
+         * @param components    the number of leading components to retain
          */
-        private ModelWithSVD(XDataFrame<X,Y> data, boolean demean) {
-            super(data, demean);
+        private ModelWithSVD(XDataFrame<X,Y> data, boolean demean, int components) {
+            super(data, demean, components);
         }
 
         @Override()
@@ -128,12 +138,13 @@ class XDataFramePCA<R,C> implements DataFramePCA<R,C> {
 
         /**
          * Constructor
-         * @param frame     the data frame reference
-         * @param demean    true if the frame columns should be demeaned
-         * @param cov       true to use covariance matrix, false for correlation matrix
+         * @param frame         the data frame reference
+         * @param demean        true if the frame columns should be demeaned
+         * @param components    the number of leading components to retain
+         * @param cov           true to use covariance matrix, false for correlation matrix
          */
-        private ModelWithEVD(XDataFrame<X,Y> frame, boolean demean, boolean cov) {
-            super(frame, demean);
+        private ModelWithEVD(XDataFrame<X,Y> frame, boolean demean, int components, boolean cov) {
+            super(frame, demean, components);
             this.cov = cov;
         }
 
@@ -163,11 +174,59 @@ class XDataFramePCA<R,C> implements DataFramePCA<R,C> {
     }
 
 
+    /**
+     * An implementation of a PCA model that only computes the leading components with a truncated SVD
+     */
+    private class ModelWithTruncatedSVD<X,Y> extends ModelBase<X,Y> {
+
+        private boolean lanczos;
+
+        /**
+         * Constructor
+         * @param data          the data frame reference
+         * @param demean        true if the frame columns should be demeaned
+         * @param components    the number of leading components to compute
+         * @param lanczos       true to use Lanczos bidiagonalization, false for the randomized range finder
+         */
+        private ModelWithTruncatedSVD(XDataFrame<X,Y> data, boolean demean, int components, boolean lanczos) {
+            super(data, demean, components);
+            this.lanczos = lanczos;
+        }
+
+
+        @Override()
+        boolean calculate() {
+            if (!isDirty()) {
+                return false;
+            } else {
+                try {
+                    final double rowCount = data().rowCount();
+                    final XDataFrameTruncatedSVD svd = new XDataFrameTruncatedSVD(data(), frame.isParallel());
+                    if (lanczos) {
+                        svd.lanczos(components());
+                    } else {
+                        svd.randomized(components());
+                    }
+                    final DoubleStream singularValues = DoubleStream.of(svd.getSingularValues());
+                    final double[] eigenValues = singularValues.map(v -> Math.pow(v, 2d) / (rowCount - 1d)).toArray();
+                    this.update(eigenValues, svd.getVectors(), svd.getSumOfSquares() / (rowCount - 1d));
+                    return true;
+                } catch (DataFrameException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new DataFrameException("Failed to perform truncated SVD on input data for PCA", ex);
+                }
+            }
+        }
+    }
+
+
     /**
      * A convenience base class for building various models to implement Principal Component Analysis
      */
     private abstract class ModelBase<X,Y> implements Model<X,Y> {
 
+        private int components;
         private DataFrame<X,Y> data;
         private DataFrame<Y,StatType> means;
         private DataFrame<Integer,Field> eigenValues;
@@ -175,11 +234,13 @@ class XDataFramePCA<R,C> implements DataFramePCA<R,C> {
 
         /**
          * Constructor
-         * @param data      the data frame reference
-         * @param demean    true if the frame columns should be demeaned
+         * @param data          the data frame reference
+         * @param demean        true if the frame columns should be demeaned
+         * @param components    the number of leading components to retain
          */
-        ModelBase(DataFrame<X,Y> data, boolean demean) {
+        ModelBase(DataFrame<X,Y> data, boolean demean, int components) {
             this.data = data;
+            this.components = components;
             if (demean) {
                 this.means = data.cols().stats().mean();
                 this.data = data.cols().demean(false);
@@ -201,6 +262,14 @@ class XDataFramePCA<R,C> implements DataFramePCA<R,C> {
             return data;
         }
 
+        /**
+         * Returns the number of leading components this model retains
+         * @return      the number of components
+         */
+        int components() {
+            return components;
+        }
+
         /**
          * Returns true if this model demeans the columns of the input DataFrame
          * @return  true if the columns are demeaned as part of the PCA
@@ -223,21 +292,13 @@ class XDataFramePCA<R,C> implements DataFramePCA<R,C> {
          * @param eigenVectors      the matrix of eigen vectors expressed as columns
          */
         protected void update(double[] eigenValues, Matrix eigenVectors) {
-            final Ordering ordering = new Ordering(eigenValues);
-            SortAlgorithm.getDefault(false).sort(0, eigenValues.length, ordering, ordering);
-            var indices = ordering.getIndices();
-            final Range<Integer> rowKeys = Range.of(0, eigenValues.length);
-            this.eigenValues = DataFrame.ofDoubles(rowKeys, Array.singleton(Field.EIGENVALUE));
-            this.eigenValues.applyDoubles(v -> eigenValues[indices[v.rowOrdinal()]]);
-            this.addVariancePercentages();
-            this.eigenVectors = DataFrame.of(Range.of(0, eigenValues.length), Integer.class, columns -> {
-                for (int i = 0; i < indices.length; ++i) {
-                    final int index = indices[i];
-                    columns.add(i, Array.of(Double.class, eigenValues.length).applyDoubles(v -> {
-                        return eigenVectors.get(v.index(), index);
-                    }));
+            final double[][] vectors = new double[eigenVectors.getColumnDimension()][eigenVectors.getRowDimension()];
+            for (int i = 0; i < vectors.length; ++i) {
+                for (int j = 0; j < vectors[i].length; ++j) {
+                    vectors[i][j] = eigenVectors.get(j, i);
                 }
-            });
+            }
+            this.update(eigenValues, vectors, DoubleStream.of(eigenValues).sum());
         }
 
 
@@ -247,28 +308,44 @@ class XDataFramePCA<R,C> implements DataFramePCA<R,C> {
          * @param eigenVectors      the matrix of eigen vectors expressed as columns
          */
         protected void update(double[] eigenValues, RealMatrix eigenVectors) {
+            final double[][] vectors = new double[eigenVectors.getColumnDimension()][eigenVectors.getRowDimension()];
+            for (int i = 0; i < vectors.length; ++i) {
+                for (int j = 0; j < vectors[i].length; ++j) {
+                    vectors[i][j] = eigenVectors.getEntry(j, i);
+                }
+            }
+            this.update(eigenValues, vectors, DoubleStream.of(eigenValues).sum());
+        }
+
+
+        /**
+         * Called by a subclass in order to present the eigenvalues and eigenvectors, retaining only the leading components
+         * @param eigenValues       the array of eigen values
+         * @param eigenVectors      the eigen vectors, one array per eigen value
+         * @param totalVariance     the total variance of the data, used to compute variance percentages
+         */
+        protected void update(double[] eigenValues, double[][] eigenVectors, double totalVariance) {
             final Ordering ordering = new Ordering(eigenValues);
             SortAlgorithm.getDefault(false).sort(0, eigenValues.length, ordering, ordering);
             var indices = ordering.getIndices();
-            final Range<Integer> rowKeys = Range.of(0, eigenValues.length);
+            final int count = Math.min(components, eigenValues.length);
+            final int length = eigenVectors.length > 0 ? eigenVectors[0].length : 0;
+            final Range<Integer> rowKeys = Range.of(0, count);
             this.eigenValues = DataFrame.ofDoubles(rowKeys, Array.singleton(Field.EIGENVALUE));
             this.eigenValues.applyDoubles(v -> eigenValues[indices[v.rowOrdinal()]]);
-            this.addVariancePercentages();
-            this.eigenVectors = DataFrame.of(Range.of(0, eigenValues.length), Integer.class, columns -> {
-                for (int i = 0; i < indices.length; ++i) {
-                    final int index = indices[i];
-                    columns.add(i, Array.of(Double.class, eigenValues.length).applyDoubles(v -> {
-                         return eigenVectors.getEntry(v.index(), index);
-                    }));
+            this.addVariancePercentages(totalVariance);
+            this.eigenVectors = DataFrame.of(Range.of(0, length), Integer.class, columns -> {
+                for (int i = 0; i < count; ++i) {
+                    columns.add(i, Array.of(eigenVectors[indices[i]]));
                 }
             });
         }
 
         /**
          * Adds two columns to the eigenvalue data frame, one for percent of variance, and for cumulative percent of variance
+         * @param sum   the total variance of the data
          */
-        private void addVariancePercentages() {
-            final double sum = eigenValues.col(Field.EIGENVALUE).stats().sum();
+        private void addVariancePercentages(double sum) {
             this.eigenValues.cols().add(Field.VAR_PERCENT, Double.class, v -> v.row().getDouble(Field.EIGENVALUE) / sum);
             this.eigenValues.cols().add(Field.VAR_PERCENT_CUM, Double.class, v -> {
                 switch (v.rowOrdinal()) {
@@ -326,6 +403,9 @@ class XDataFramePCA<R,C> implements DataFramePCA<R,C> {
         @Override
         public DataFrame<X,Integer> getScores(int numComponents) {
             this.calculate();
+            if (numComponents > eigenVectors.colCount()) {
+                throw new DataFrameException("PCA model only has " + eigenVectors.colCount() + " components, not " + numComponents);
+            }
             final DataFrame<Integer,Integer> V = eigenVectors.cols().select(col -> col.ordinal() < numComponents);
             final Matrix original = data.export().asMatrix();   // nxp
             final Matrix basis = V.export().asMatrix();         // pxk
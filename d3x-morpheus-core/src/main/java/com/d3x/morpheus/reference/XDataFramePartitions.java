@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameColumn;
+import com.d3x.morpheus.frame.DataFrameCursor;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFramePartitions;
+import com.d3x.morpheus.frame.DataFrameRow;
+import com.d3x.morpheus.frame.DataFrameVector;
+import com.d3x.morpheus.index.Index;
+import com.d3x.morpheus.stats.StatType;
+import com.d3x.morpheus.stats.Statistic1;
+import com.d3x.morpheus.stats.Stats;
+
+/**
+ * The reference implementation of the DataFramePartitions interface
+ *
+ * <p>Partitions are loaded on first access and retained in an access ordered map that evicts the least recently used
+ * partition once the cache is full, so a single pass over the partitions never holds more than cacheSize frames. The
+ * row count of each partition is remembered after it is first loaded, so head() and tail() only load the partitions
+ * they need, and statistics are accumulated column by column as each partition is visited exactly once.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class XDataFramePartitions<R,C> implements DataFramePartitions<R,C> {
+
+    private int[] rowCounts;
+    private Map<Integer,DataFrame<R,C>> cache;
+    private List<Supplier<DataFrame<R,C>>> loaders;
+
+    /**
+     * Constructor
+     * @param loaders   the loaders for each partition, in row order
+     * @param cacheSize the max number of loaded partitions to retain in memory
+     */
+    XDataFramePartitions(List<Supplier<DataFrame<R,C>>> loaders, int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new DataFrameException("The partition cache size must be > 0, not " + cacheSize);
+        } else {
+            this.loaders = new ArrayList<>(loaders);
+            this.rowCounts = IntStream.range(0, loaders.size()).map(i -> -1).toArray();
+            this.cache = new LinkedHashMap<>(cacheSize + 1, 1f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer,DataFrame<R,C>> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+        }
+    }
+
+
+    @Override
+    public final int count() {
+        return loaders.size();
+    }
+
+
+    @Override
+    public final int rowCount() {
+        int rowCount = 0;
+        for (int i=0; i<rowCounts.length; ++i) {
+            rowCount += rowCounts[i] >= 0 ? rowCounts[i] : partition(i).rowCount();
+        }
+        return rowCount;
+    }
+
+
+    @Override
+    public final synchronized DataFrame<R,C> partition(int index) {
+        final DataFrame<R,C> cached = cache.get(index);
+        if (cached != null) {
+            return cached;
+        } else {
+            try {
+                final DataFrame<R,C> frame = loaders.get(index).get();
+                if (frame == null) {
+                    throw new DataFrameException("The loader for partition " + index + " returned a null frame");
+                } else {
+                    this.rowCounts[index] = frame.rowCount();
+                    this.cache.put(index, frame);
+                    return frame;
+                }
+            } catch (DataFrameException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new DataFrameException("Failed to load DataFrame partition " + index, ex);
+            }
+        }
+    }
+
+
+    @Override
+    public final Stream<DataFrame<R,C>> stream() {
+        return IntStream.range(0, count()).mapToObj(this::partition);
+    }
+
+
+    @Override
+    public final Stream<DataFrameRow<R,C>> rows() {
+        return stream().flatMap(frame -> frame.rows().stream());
+    }
+
+
+    @Override
+    public final Stats<DataFrame<C,StatType>> stats() {
+        return new PartitionStats();
+    }
+
+
+    @Override
+    public final DataFrame<R,C> select(Predicate<DataFrameRow<R,C>> rowPredicate) {
+        return concat(frame -> frame.rows().select(rowPredicate));
+    }
+
+
+    @Override
+    public final DataFrame<R,C> select(Predicate<DataFrameRow<R,C>> rowPredicate, Predicate<DataFrameColumn<R,C>> colPredicate) {
+        return concat(frame -> frame.select(rowPredicate, colPredicate));
+    }
+
+
+    /**
+     * Returns the concatenation of the non-empty selections from each partition
+     * @param selector  the function to select from each partition
+     * @return          the combined selection, which has the selected columns but no rows if nothing matched
+     */
+    private DataFrame<R,C> concat(Function<DataFrame<R,C>,DataFrame<R,C>> selector) {
+        DataFrame<R,C> empty = null;
+        final List<DataFrame<R,C>> frames = new ArrayList<>();
+        for (int i=0; i<count(); ++i) {
+            final DataFrame<R,C> selection = selector.apply(partition(i));
+            if (selection.rowCount() > 0) {
+                frames.add(selection);
+            } else if (empty == null) {
+                empty = selection;
+            }
+        }
+        if (!frames.isEmpty()) {
+            return DataFrame.concatRows(frames);
+        } else {
+            return empty != null ? empty.copy() : DataFrame.empty();
+        }
+    }
+
+
+    @Override
+    public final DataFrame<R,C> head(int count) {
+        int remaining = count;
+        final List<DataFrame<R,C>> frames = new ArrayList<>();
+        for (int i=0; i<count() && remaining > 0; ++i) {
+            final DataFrame<R,C> frame = partition(i);
+            final int length = Math.min(remaining, frame.rowCount());
+            if (length > 0) {
+                frames.add(frame.rows().select(0, length));
+                remaining -= length;
+            }
+        }
+        return DataFrame.concatRows(frames);
+    }
+
+
+    @Override
+    public final DataFrame<R,C> tail(int count) {
+        int remaining = count;
+        final List<DataFrame<R,C>> frames = new ArrayList<>();
+        for (int i=count()-1; i>=0 && remaining > 0; --i) {
+            final DataFrame<R,C> frame = partition(i);
+            final int length = Math.min(remaining, frame.rowCount());
+            if (length > 0) {
+                frames.add(0, frame.rows().select(frame.rowCount() - length, length));
+                remaining -= length;
+            }
+        }
+        return DataFrame.concatRows(frames);
+    }
+
+
+
+    /**
+     * A Stats implementation that accumulates a statistic per numeric column while visiting each partition once
+     */
+    private class PartitionStats extends XDataFrameStatsBase<C,StatType> {
+
+        /**
+         * Constructor
+         */
+        PartitionStats() {
+            super(true, false);
+        }
+
+        @Override
+        protected int rowCount() {
+            return XDataFramePartitions.this.rowCount();
+        }
+
+        @Override
+        protected int colCount() {
+            return XDataFramePartitions.this.count() > 0 ? partition(0).colCount() : 0;
+        }
+
+        @Override
+        protected boolean isViable(Statistic1 statistic) {
+            return XDataFramePartitions.this.count() > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected XDataFrame<C,StatType> createResult(Statistic1 statistic, boolean viable) {
+            final Index<StatType> colKeys = Index.singleton(statistic.getType());
+            if (!viable) {
+                return (XDataFrame<C,StatType>)DataFrame.ofDoubles(Index.empty(), colKeys);
+            } else {
+                final Index<C> rowKeys = Index.of(partition(0).cols().filter(DataFrameVector::isNumeric).keyArray());
+                return (XDataFrame<C,StatType>)DataFrame.ofDoubles(rowKeys, colKeys);
+            }
+        }
+
+        @Override
+        protected StatisticAction createStatisticAction(Statistic1 statistic, XDataFrame<C,StatType> result) {
+            return new StatisticAction() {
+                @Override
+                public void compute() {
+                    final int colCount = result.rowCount();
+                    final Statistic1[] stats = new Statistic1[colCount];
+                    for (int j=0; j<colCount; ++j) {
+                        stats[j] = statistic.copy();
+                        stats[j].reset();
+                    }
+                    stream().forEach(frame -> {
+                        final int rowCount = frame.rowCount();
+                        for (int j=0; j<colCount; ++j) {
+                            final DataFrameColumn<R,C> column = frame.col(result.rows().key(j));
+                            for (int i=0; i<rowCount; ++i) {
+                                stats[j].add(column.getDoubleAt(i));
+                            }
+                        }
+                    });
+                    final DataFrameCursor<C,StatType> cursor = result.cursor().colAt(0);
+                    for (int j=0; j<colCount; ++j) {
+                        cursor.rowAt(j).setDouble(stats[j].getValue());
+                    }
+                }
+            };
+        }
+    }
+}
@@ -15,21 +15,27 @@
  */
 package com.d3x.morpheus.reference;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.RecursiveAction;
 
 import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayStyle;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.frame.DataFrameOptions;
 import com.d3x.morpheus.frame.DataFrameRank;
-import org.apache.commons.math3.stat.ranking.NaNStrategy;
-import org.apache.commons.math3.stat.ranking.NaturalRanking;
-import org.apache.commons.math3.stat.ranking.TiesStrategy;
+import com.d3x.morpheus.index.Index;
+import com.d3x.morpheus.util.ForkJoinContext;
+import com.d3x.morpheus.util.IntComparator;
+import com.d3x.morpheus.util.SortAlgorithm;
+import com.d3x.morpheus.util.Swapper;
 
 /**
  * The reference implementation of the DataFrameRank interface
  *
+ * <p>Rows or columns are ranked independently of one another, so for parallel frames they are distributed across the
+ * fork join pool, with each task re-using its own primitive buffers for all the vectors it ranks. The NaN and tie
+ * strategies are resolved from DataFrameOptions in the calling thread, since these options are thread local.</p>
+ *
  * @param <R>   the row key type
  * @param <C>   the column key type
  *
@@ -39,25 +45,6 @@ import org.apache.commons.math3.stat.ranking.TiesStrategy;
  */
 class XDataFrameRank<R,C> implements DataFrameRank<R,C> {
 
-    private static final Map<Object,Map<DataFrameOptions,Object>> optionsMap = new HashMap<>();
-
-    /**
-     * Static initializer
-     */
-    static {
-        try {
-            optionsMap.put(NaNStrategy.class, new HashMap<>());
-            optionsMap.put(TiesStrategy.class, new HashMap<>());
-            optionsMap.get(NaNStrategy.class).put(DataFrameOptions.MINIMUM, NaNStrategy.MINIMAL);
-            optionsMap.get(NaNStrategy.class).put(DataFrameOptions.MAXIMUM, NaNStrategy.MAXIMAL);
-            optionsMap.get(TiesStrategy.class).put(DataFrameOptions.MINIMUM, TiesStrategy.MINIMUM);
-            optionsMap.get(TiesStrategy.class).put(DataFrameOptions.MAXIMUM, TiesStrategy.MAXIMUM);
-            optionsMap.get(TiesStrategy.class).put(DataFrameOptions.AVERAGE, TiesStrategy.AVERAGE);
-        } catch (Throwable t) {
-            t.printStackTrace();
-        }
-    }
-
     private XDataFrame<R,C> frame;
 
     /**
@@ -74,50 +61,338 @@ class XDataFrameRank<R,C> implements DataFrameRank<R,C> {
      * @return          the ranks of input array
      */
     static double[] rank(double[] values) {
-        final NaNStrategy nanStrategy = (NaNStrategy)optionsMap.get(NaNStrategy.class).get(DataFrameOptions.getNanStrategy());
-        final TiesStrategy tieStrategy = (TiesStrategy)optionsMap.get(TiesStrategy.class).get(DataFrameOptions.getTieStrategy());
-        if (nanStrategy == null) throw new DataFrameException("Unsupported NaN strategy specified: " + DataFrameOptions.getNanStrategy());
-        if (tieStrategy == null) throw new DataFrameException("Unsupported tie strategy specified: " + DataFrameOptions.getTieStrategy());
-        final NaturalRanking ranking = new NaturalRanking(nanStrategy, tieStrategy);
-        return ranking.rank(values);
+        return Ranking.of(false).rank(values);
     }
 
+
     @Override
     public DataFrame<R,C> ofRows() throws DataFrameException {
+        return ofRows(false, false);
+    }
+
+
+    @Override()
+    public DataFrame<R,C> ofColumns() throws DataFrameException {
+        return ofColumns(false, false);
+    }
+
+
+    @Override
+    public DataFrame<R,C> ofRows(boolean percentile, boolean inPlace) throws DataFrameException {
         try {
-            final Array<R> rowKeys = frame.rows().keyArray();
-            final Array<C> colKeys = frame.cols().keyArray();
-            final DataFrame<R,C> result = DataFrame.ofDoubles(rowKeys, colKeys);
-            final double[] buffer = new double[colKeys.length()];
-            this.frame.rows().forEach(row -> {
-                row.forEachValue(v -> buffer[v.colOrdinal()] = v.getDouble());
-                final double[] ranks = XDataFrameRank.rank(buffer);
-                result.row(row.key()).applyDoubles(v -> ranks[v.colOrdinal()]);
-            });
-            return result;
+            return rank(true, percentile, inPlace);
+        } catch (DataFrameException ex) {
+            throw ex;
         } catch (Throwable t) {
             throw new DataFrameException("DataFrame rank ofRows() failed ", t);
         }
     }
 
 
-    @Override()
-    public DataFrame<R,C> ofColumns() throws DataFrameException {
+    @Override
+    public DataFrame<R,C> ofColumns(boolean percentile, boolean inPlace) throws DataFrameException {
         try {
-            final int rowCount = frame.rowCount();
-            final Array<R> rowKeys = frame.rows().keyArray();
-            final Array<C> colKeys = frame.cols().keyArray();
-            final DataFrame<R,C> result = DataFrame.ofDoubles(rowKeys, colKeys);
-            final double[] buffer = new double[rowKeys.length()];
-            this.frame.cols().forEach(column -> {
-                column.forEachValue(v -> buffer[v.rowOrdinal()] = v.getDouble());
-                final double[] ranks = XDataFrameRank.rank(buffer);
-                result.col(column.key()).applyDoubles(v -> ranks[v.rowOrdinal()]);
-            });
-            return result;
+            return rank(false, percentile, inPlace);
+        } catch (DataFrameException ex) {
+            throw ex;
         } catch (Throwable t) {
             throw new DataFrameException("DataFrame rank ofColumns() failed ", t);
         }
     }
 
+
+    /**
+     * Ranks each row or each column of the frame, writing ranks into a new frame or into the frame itself
+     * @param rows          true to rank each row, false to rank each column
+     * @param percentile    true to express ranks as a fraction of the vector length
+     * @param inPlace       true to write ranks into the frame, false to create a new frame of doubles
+     * @return              the frame of ranks
+     */
+    private DataFrame<R,C> rank(boolean rows, boolean percentile, boolean inPlace) {
+        final Ranking ranking = Ranking.of(percentile);
+        final XDataFrame<R,C> target = inPlace ? frame : createResult();
+        final int count = rows ? frame.rowCount() : frame.colCount();
+        if (count > 0 && (rows ? frame.colCount() : frame.rowCount()) > 0) {
+            final boolean parallel = frame.isParallel() && count > 1 && isParallelSafe(rows, target);
+            final int threshold = rows ? DataFrameOptions.getRowSplitThreshold(frame) : DataFrameOptions.getColumnSplitThreshold(frame);
+            final RankTask task = new RankTask(0, count, parallel ? threshold : Integer.MAX_VALUE, rows, target, ranking);
+            if (parallel) {
+                ForkJoinContext.invoke(task);
+            } else {
+                task.compute();
+            }
+        }
+        return target;
+    }
+
+
+    /**
+     * Returns a newly created frame of doubles with the same row and column keys as the frame being ranked
+     * @return  the newly created frame to hold ranks
+     */
+    private XDataFrame<R,C> createResult() {
+        final Index<R> rowKeys = Index.of(frame.rows().keyArray());
+        final Index<C> colKeys = Index.of(frame.cols().keyArray());
+        return new XDataFrame<>(rowKeys, colKeys, Double.class, frame.isParallel());
+    }
+
+
+    /**
+     * Returns true if ranks can be written into the target frame concurrently
+     * Tasks write to distinct entries, which is safe for all arrays except sparse arrays that are backed by a map
+     * @param rows      true if ranking rows, false if ranking columns
+     * @param target    the frame to write ranks into
+     * @return          true if ranks can be written concurrently
+     */
+    private boolean isParallelSafe(boolean rows, XDataFrame<R,C> target) {
+        final XDataFrameContent<R,C> content = target.content();
+        if (rows != content.isColumnStore()) {
+            return true;
+        } else if (!content.isColumnStore()) {
+            return false;
+        } else {
+            for (int i=0; i<target.colCount(); ++i) {
+                final Array<?> array = content.colArrayAt(content.colCoordinateAt(i));
+                if (array.style() == ArrayStyle.SPARSE) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Returns the in-memory coordinates for the keys of an index in ordinal order
+     * @param index the index of keys
+     * @return      the in-memory coordinates
+     */
+    private static int[] coordinates(Index<?> index) {
+        return index.indexes().toArray();
+    }
+
+
+    /**
+     * Returns true if the coordinates specified are identical to their ordinals
+     * @param coords    the coordinates to check
+     * @return          true if coordinates match ordinals
+     */
+    private static boolean isContiguous(int[] coords) {
+        for (int i=0; i<coords.length; ++i) {
+            if (coords[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * A RecursiveAction that ranks a range of rows or columns, re-using primitive buffers across all vectors in the range
+     */
+    private class RankTask extends RecursiveAction {
+
+        private int from;
+        private int to;
+        private int threshold;
+        private boolean rows;
+        private Ranking ranking;
+        private XDataFrame<R,C> target;
+
+        /**
+         * Constructor
+         * @param from          the from row or column ordinal, inclusive
+         * @param to            the to row or column ordinal, exclusive
+         * @param threshold     the vector count threshold above which to split
+         * @param rows          true to rank rows, false to rank columns
+         * @param target        the frame to write ranks into
+         * @param ranking       the ranking which defines the NaN and tie strategies
+         */
+        RankTask(int from, int to, int threshold, boolean rows, XDataFrame<R,C> target, Ranking ranking) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.rows = rows;
+            this.target = target;
+            this.ranking = ranking;
+        }
+
+        @Override
+        protected void compute() {
+            final int count = to - from;
+            if (count <= threshold) {
+                final XDataFrameContent<R,C> source = frame.content();
+                final XDataFrameContent<R,C> output = target.content();
+                final int[] rowCoords = coordinates(frame.rowKeys());
+                final int[] colCoords = coordinates(frame.colKeys());
+                final int[] targetRowCoords = target == frame ? rowCoords : coordinates(target.rowKeys());
+                final int[] targetColCoords = target == frame ? colCoords : coordinates(target.colKeys());
+                final double[] values = new double[rows ? colCoords.length : rowCoords.length];
+                if (rows) {
+                    for (int ordinal=from; ordinal<to; ++ordinal) {
+                        final int rowCoord = rowCoords[ordinal];
+                        final int targetRowCoord = targetRowCoords[ordinal];
+                        for (int j=0; j<values.length; ++j) {
+                            values[j] = source.doubleAt(rowCoord, colCoords[j]);
+                        }
+                        final double[] ranks = ranking.rank(values);
+                        for (int j=0; j<ranks.length; ++j) {
+                            output.doubleAt(targetRowCoord, targetColCoords[j], ranks[j]);
+                        }
+                    }
+                } else {
+                    final boolean bulkRead = source.isColumnStore() && isContiguous(rowCoords);
+                    final boolean bulkWrite = output.isColumnStore() && isContiguous(targetRowCoords);
+                    for (int ordinal=from; ordinal<to; ++ordinal) {
+                        final int colCoord = colCoords[ordinal];
+                        final int targetColCoord = targetColCoords[ordinal];
+                        if (bulkRead) {
+                            source.colArrayAt(colCoord).getDoubles(0, values, 0, values.length);
+                        } else {
+                            for (int i=0; i<values.length; ++i) {
+                                values[i] = source.doubleAt(rowCoords[i], colCoord);
+                            }
+                        }
+                        final double[] ranks = ranking.rank(values);
+                        if (bulkWrite) {
+                            output.colArrayAt(targetColCoord).setDoubles(0, ranks, 0, ranks.length);
+                        } else {
+                            for (int i=0; i<ranks.length; ++i) {
+                                output.doubleAt(targetRowCoords[i], targetColCoord, ranks[i]);
+                            }
+                        }
+                    }
+                }
+            } else {
+                final int splitCount = count / 2;
+                final int midPoint = from + splitCount;
+                invokeAll(
+                    new RankTask(from, midPoint, threshold, rows, target, ranking.copy()),
+                    new RankTask(midPoint, to, threshold, rows, target, ranking.copy())
+                );
+            }
+        }
+    }
+
+
+    /**
+     * A ranking algorithm that assigns natural ranks to values, and which re-uses its buffers across calls
+     * A Ranking is therefore not thread safe, and each task should operate on its own copy.
+     */
+    static class Ranking {
+
+        private boolean percentile;
+        private double nanValue;
+        private DataFrameOptions tieStrategy;
+        private int[] order = new int[0];
+        private double[] sorted = new double[0];
+        private double[] ranks = new double[0];
+        private IntComparator comparator = (i, j) -> Double.compare(sorted[i], sorted[j]);
+        private Swapper swapper = this::swap;
+
+        /**
+         * Constructor
+         * @param nanValue      the value to substitute for NaN, which is negative or positive infinity
+         * @param tieStrategy   the tie strategy (MINIMUM | MAXIMUM | AVERAGE)
+         * @param percentile    true to express ranks as a fraction of the number of values
+         */
+        private Ranking(double nanValue, DataFrameOptions tieStrategy, boolean percentile) {
+            this.nanValue = nanValue;
+            this.tieStrategy = tieStrategy;
+            this.percentile = percentile;
+        }
+
+        /**
+         * Returns a newly created Ranking based on the NaN and tie strategies of the current thread
+         * @param percentile    true to express ranks as a fraction of the number of values
+         * @return              the newly created ranking
+         * @throws DataFrameException   if the current thread strategies are not supported
+         */
+        static Ranking of(boolean percentile) {
+            final DataFrameOptions nanStrategy = DataFrameOptions.getNanStrategy();
+            final DataFrameOptions tieStrategy = DataFrameOptions.getTieStrategy();
+            switch (nanStrategy) {
+                case MINIMUM:   break;
+                case MAXIMUM:   break;
+                default:    throw new DataFrameException("Unsupported NaN strategy specified: " + nanStrategy);
+            }
+            switch (tieStrategy) {
+                case MINIMUM:   break;
+                case MAXIMUM:   break;
+                case AVERAGE:   break;
+                default:    throw new DataFrameException("Unsupported tie strategy specified: " + tieStrategy);
+            }
+            final double nanValue = nanStrategy == DataFrameOptions.MINIMUM ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            return new Ranking(nanValue, tieStrategy, percentile);
+        }
+
+        /**
+         * Returns a copy of this ranking with the same strategies but its own buffers
+         * @return  the copy of this ranking
+         */
+        Ranking copy() {
+            return new Ranking(nanValue, tieStrategy, percentile);
+        }
+
+        /**
+         * Returns the ranks for the values specified, which are written into a buffer owned by this ranking
+         * @param values    the values to rank
+         * @return          the ranks of values, which are only valid until the next call
+         */
+        double[] rank(double[] values) {
+            final int length = values.length;
+            if (ranks.length != length) {
+                this.order = new int[length];
+                this.sorted = new double[length];
+                this.ranks = new double[length];
+            }
+            for (int i=0; i<length; ++i) {
+                final double value = values[i];
+                this.order[i] = i;
+                this.sorted[i] = Double.isNaN(value) ? nanValue : value;
+            }
+            SortAlgorithm.getDefault(false).sort(0, length, comparator, swapper);
+            int start = 0;
+            for (int i=1; i<=length; ++i) {
+                if (i == length || Double.compare(sorted[i], sorted[start]) != 0) {
+                    final double rank = tieRank(start, i);
+                    final double value = percentile ? rank / length : rank;
+                    for (int j=start; j<i; ++j) {
+                        this.ranks[order[j]] = value;
+                    }
+                    start = i;
+                }
+            }
+            return ranks;
+        }
+
+        /**
+         * Returns the rank for a run of tied values given their positions in sorted order
+         * @param start the start position of the run, inclusive
+         * @param end   the end position of the run, exclusive
+         * @return      the rank for all values in the run
+         */
+        private double tieRank(int start, int end) {
+            switch (tieStrategy) {
+                case MINIMUM:   return start + 1;
+                case MAXIMUM:   return end;
+                default:        return (start + 1 + end) / 2d;
+            }
+        }
+
+        /**
+         * Swaps the values at the sorted positions specified, along with their original positions
+         * @param index1    the first position to swap
+         * @param index2    the second position to swap
+         */
+        private void swap(int index1, int index2) {
+            final double value = sorted[index1];
+            final int ordinal = order[index1];
+            this.sorted[index1] = sorted[index2];
+            this.sorted[index2] = value;
+            this.order[index1] = order[index2];
+            this.order[index2] = ordinal;
+        }
+    }
+
 }
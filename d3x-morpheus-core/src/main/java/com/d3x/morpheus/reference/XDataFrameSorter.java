@@ -18,9 +18,16 @@ package com.d3x.morpheus.reference;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.coding.WithIntCoding;
 import com.d3x.morpheus.frame.DataFrameColumn;
 import com.d3x.morpheus.frame.DataFrameRow;
+import com.d3x.morpheus.index.Index;
+import com.d3x.morpheus.util.StableSort;
 
 /**
  * A class that is designed to sort a DataFrame in either the row or column dimension
@@ -88,6 +95,7 @@ class XDataFrameSorter {
 
     /**
      * Sorts the rows of a DataFrame according to data in the specified columns
+     * This is a stable sort, so rows with equal values in all the sort columns retain their relative order.
      * @param frame         the frame to sort
      * @param colKeys       the column keys to sort by, in order of precedence
      * @param ascending     true for ascending, false for descending
@@ -95,16 +103,18 @@ class XDataFrameSorter {
      * @return              the sorted DataFrame
      */
     static <R,C> XDataFrame<R,C> sortRows(XDataFrame<R,C> frame, List<C> colKeys, boolean ascending, boolean parallel) {
-        var multiplier = ascending ? 1 : -1;
         var result = frame.withRowKeys(frame.rowKeys().copy(false));
-        var comparator = result.content().createRowComparator(colKeys, multiplier);
-        result.rowKeys().sort(parallel, comparator);
+        var content = result.content();
+        var arrays = colKeys.stream().map(content::getColArray).collect(Collectors.toList());
+        var order = order(result.rowKeys(), arrays, ascending, parallel);
+        result.rowKeys().reorder(order);
         return result;
     }
 
 
     /**
      * Sorts the column of a DataFrame according to data in the specified rows
+     * This is a stable sort, so columns with equal values in all the sort rows retain their relative order.
      * @param frame         the frame to sort
      * @param rowKeys       the row keys to sort by, in order of precedence
      * @param ascending     true for ascending, false for descending
@@ -112,10 +122,11 @@ class XDataFrameSorter {
      * @return              the sorted DataFrame
      */
     static <R,C> XDataFrame<R,C> sortCols(XDataFrame<R,C> frame, List<R> rowKeys, boolean ascending, boolean parallel) {
-        var multiplier = ascending ? 1 : -1;
         var result = frame.withColKeys(frame.colKeys().copy(false));
-        var comparator = result.content().createColComparator(rowKeys, multiplier);
-        result.colKeys().sort(parallel, comparator);
+        var content = result.content();
+        var arrays = rowKeys.stream().map(content::getRowArray).collect(Collectors.toList());
+        var order = order(result.colKeys(), arrays, ascending, parallel);
+        result.colKeys().reorder(order);
         return result;
     }
 
@@ -158,4 +169,77 @@ class XDataFrameSorter {
             return result;
         }
     }
+
+
+    /**
+     * Returns the ordinals of an index in the order that sorts the index by the data in the arrays specified
+     * The order is resolved with a stable sort per array from the least to the most significant, using a radix sort
+     * for primitive and coded data, and a merge sort with a comparator otherwise.
+     * @param index         the index to sort
+     * @param arrays        the arrays of data to sort by, in order of precedence, indexed by index coordinate
+     * @param ascending     true for ascending, false for descending
+     * @param parallel      true for parallel sort
+     * @return              the current ordinals of the index in sorted order
+     */
+    private static int[] order(Index<?> index, List<Array<?>> arrays, boolean ascending, boolean parallel) {
+        var size = index.size();
+        var order = IntStream.range(0, size).toArray();
+        var coordinates = index.indexes().toArray();
+        for (int i = arrays.size() - 1; i >= 0; --i) {
+            var array = arrays.get(i);
+            var keys = radixKeys(array, coordinates, order, ascending);
+            if (keys != null) {
+                StableSort.radix(keys, order, parallel);
+            } else {
+                var comparator = XDataFrameComparator.create(array, ascending ? 1 : -1);
+                StableSort.merge(order, (i1, i2) -> comparator.compareValues(coordinates[i1], coordinates[i2]), parallel);
+            }
+        }
+        return order;
+    }
+
+
+    /**
+     * Returns the radix sort keys for the array data at the ordinals specified, or null if the data is not primitive or coded
+     * @param array         the array of data indexed by coordinate
+     * @param coordinates   the coordinates of the index by ordinal
+     * @param order         the ordinals for which to extract keys
+     * @param ascending     true for keys that sort ascending, false for descending
+     * @return              the radix sort keys, or null if not applicable
+     */
+    private static long[] radixKeys(Array<?> array, int[] coordinates, int[] order, boolean ascending) {
+        var size = order.length;
+        var mask = ascending ? 0L : -1L;
+        var keys = new long[size];
+        if (array instanceof WithIntCoding && ((WithIntCoding<?>)array).getCoding() instanceof IntCoding.OfDictionary) {
+            var ranks = ((IntCoding.OfDictionary<?>)((WithIntCoding<?>)array).getCoding()).getRanks();
+            for (int i = 0; i < size; ++i) {
+                var code = array.getInt(coordinates[order[i]]);
+                keys[i] = StableSort.toKey(code < 0 ? -1 : ranks[code]) ^ mask;
+            }
+            return keys;
+        }
+        switch (array.typeCode()) {
+            case BOOLEAN:
+                for (int i = 0; i < size; ++i) keys[i] = (array.getBoolean(coordinates[order[i]]) ? 1L : 0L) ^ mask;
+                return keys;
+            case INTEGER:
+                for (int i = 0; i < size; ++i) keys[i] = StableSort.toKey(array.getInt(coordinates[order[i]])) ^ mask;
+                return keys;
+            case DOUBLE:
+                for (int i = 0; i < size; ++i) keys[i] = StableSort.toKey(array.getDouble(coordinates[order[i]])) ^ mask;
+                return keys;
+            case LONG:
+            case DATE:
+            case INSTANT:
+            case LOCAL_DATE:
+            case LOCAL_TIME:
+            case LOCAL_DATETIME:
+            case ZONED_DATETIME:
+                for (int i = 0; i < size; ++i) keys[i] = StableSort.toKey(array.getLong(coordinates[order[i]])) ^ mask;
+                return keys;
+            default:
+                return null;
+        }
+    }
 }
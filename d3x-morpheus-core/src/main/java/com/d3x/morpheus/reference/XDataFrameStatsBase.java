@@ -15,7 +15,6 @@
  */
 package com.d3x.morpheus.reference;
 
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
 
 import com.d3x.morpheus.frame.DataFrame;
@@ -40,6 +39,7 @@ import com.d3x.morpheus.stats.Sum;
 import com.d3x.morpheus.stats.SumLogs;
 import com.d3x.morpheus.stats.SumSquares;
 import com.d3x.morpheus.stats.Variance;
+import com.d3x.morpheus.util.ForkJoinContext;
 
 /**
  * A convenience base class for building Stats implementations that return bulk statistics
@@ -232,7 +232,7 @@ abstract class XDataFrameStatsBase<R,C> implements Stats<DataFrame<R,C>> {
             } else {
                 final StatisticAction action = createStatisticAction(statistic, result);
                 if (isParallel()) {
-                    ForkJoinPool.commonPool().invoke(action);
+                    ForkJoinContext.invoke(action);
                 } else {
                     action.compute();
                 }
@@ -18,11 +18,14 @@ package com.d3x.morpheus.reference;
 import com.d3x.morpheus.frame.DataFrameCursor;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.frame.DataFrameOptions;
+import com.d3x.morpheus.stats.RollingStatistic;
 import com.d3x.morpheus.stats.Statistic1;
 
 /**
  * The reference implementation of Stats to provide rolling window statistics in either the row or column dimension of a DataFrame
  *
+ * Each row or column is traversed once, with a RollingStatistic sliding the window forward one value at a time.
+ *
  * @param <R>       the row key type
  * @param <C>       the column key type
  *
@@ -101,8 +104,8 @@ class XDataFrameStatsRolling<R,C> extends XDataFrameStatsBase<R,C> {
 
         /**
          * Constructor
-         * @param from          the from row index
-         * @param to            the to row index
+         * @param from          the from row index, inclusive
+         * @param to            the to row index, exclusive
          * @param statistic     the uni-variate statistic
          * @param result        the target frame to write results to
          */
@@ -110,31 +113,29 @@ class XDataFrameStatsRolling<R,C> extends XDataFrameStatsBase<R,C> {
             this.from = from;
             this.to = to;
             this.result = result;
-            this.statistic = statistic.copy();
+            this.statistic = statistic;
         }
 
         @Override
         public void compute() {
-            final int count = to - from + 1;
+            final int count = to - from;
             final int threshold = isParallel() ? DataFrameOptions.getRowSplitThreshold(frame) : Integer.MAX_VALUE;
             if (count <= threshold) {
-                final int rowCount = frame.rows().count();
                 final int colCount = frame.cols().count();
+                final RollingStatistic rolling = RollingStatistic.of(statistic, windowSize);
                 final DataFrameCursor<R,C> readCursor = frame.cursor();
                 final DataFrameCursor<R,C> writeCursor = result.cursor();
-                for (int rowIndex = from; rowIndex < rowCount; ++rowIndex) {
+                for (int rowIndex = from; rowIndex < to; ++rowIndex) {
+                    rolling.reset();
                     readCursor.rowAt(rowIndex);
                     writeCursor.rowAt(rowIndex);
-                    for (int colIndex = windowSize-1; colIndex < colCount; colIndex++) {
-                        this.statistic.reset();
-                        final int from = colIndex - windowSize + 1;
-                        for (int i = from; i <= colIndex; ++i) {
-                            final double value = readCursor.colAt(i).getDouble();
-                            this.statistic.add(value);
+                    for (int colIndex = 0; colIndex < colCount; ++colIndex) {
+                        final double value = readCursor.colAt(colIndex).getDouble();
+                        final double statValue = rolling.add(value);
+                        if (rolling.isFull()) {
+                            writeCursor.colAt(colIndex);
+                            writeCursor.setDouble(statValue);
                         }
-                        final double statValue = statistic.getValue();
-                        writeCursor.colAt(colIndex);
-                        writeCursor.setDouble(statValue);
                     }
                 }
             } else {
@@ -142,7 +143,7 @@ class XDataFrameStatsRolling<R,C> extends XDataFrameStatsBase<R,C> {
                 final int midPoint = from + splitCount;
                 invokeAll(
                     new RowRollingStatistics(from, midPoint, statistic, result),
-                    new RowRollingStatistics(midPoint+1, to, statistic, result)
+                    new RowRollingStatistics(midPoint, to, statistic, result)
                 );
             }
         }
@@ -161,8 +162,8 @@ class XDataFrameStatsRolling<R,C> extends XDataFrameStatsBase<R,C> {
 
         /**
          * Constructor
-         * @param from          the from column index
-         * @param to            the to column index
+         * @param from          the from column index, inclusive
+         * @param to            the to column index, exclusive
          * @param statistic     the uni-variate statistic
          * @param result        the target frame to write results to
          */
@@ -170,32 +171,29 @@ class XDataFrameStatsRolling<R,C> extends XDataFrameStatsBase<R,C> {
             this.from = from;
             this.to = to;
             this.result = result;
-            this.statistic = statistic.copy();
+            this.statistic = statistic;
         }
 
         @Override
         public void compute() {
-            final int count = to - from + 1;
+            final int count = to - from;
             final int threshold = isParallel() ? DataFrameOptions.getColumnSplitThreshold(frame) : Integer.MAX_VALUE;
             if (count <= threshold) {
                 final int rowCount = frame.rows().count();
-                final int colCount = frame.cols().count();
+                final RollingStatistic rolling = RollingStatistic.of(statistic, windowSize);
                 final DataFrameCursor<R,C> readCursor = frame.cursor();
                 final DataFrameCursor<R,C> writeCursor = result.cursor();
-                for (int colIndex = from; colIndex < colCount; ++colIndex) {
+                for (int colIndex = from; colIndex < to; ++colIndex) {
+                    rolling.reset();
                     readCursor.colAt(colIndex);
                     writeCursor.colAt(colIndex);
-                    for (int rowIndex = windowSize-1; rowIndex < rowCount; rowIndex++) {
-                        this.statistic.reset();
-                        final int from = rowIndex - windowSize + 1;
-                        for (int i = from; i <= rowIndex; ++i) {
-                            readCursor.rowAt(i);
-                            final double value = readCursor.getDouble();
-                            this.statistic.add(value);
+                    for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+                        final double value = readCursor.rowAt(rowIndex).getDouble();
+                        final double statValue = rolling.add(value);
+                        if (rolling.isFull()) {
+                            writeCursor.rowAt(rowIndex);
+                            writeCursor.setDouble(statValue);
                         }
-                        final double statValue = statistic.getValue();
-                        writeCursor.rowAt(rowIndex);
-                        writeCursor.setDouble(statValue);
                     }
                 }
             } else {
@@ -203,7 +201,7 @@ class XDataFrameStatsRolling<R,C> extends XDataFrameStatsBase<R,C> {
                 final int midPoint = from + splitCount;
                 invokeAll(
                     new ColumnRollingStatistics(from, midPoint, statistic, result),
-                    new ColumnRollingStatistics(midPoint+1, to, statistic, result)
+                    new ColumnRollingStatistics(midPoint, to, statistic, result)
                 );
             }
         }
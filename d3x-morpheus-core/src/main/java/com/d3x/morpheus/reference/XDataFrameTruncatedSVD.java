@@ -0,0 +1,466 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SingularValueDecomposition;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.util.ForkJoinContext;
+
+/**
+ * A truncated Singular Value Decomposition of the nxp matrix held in a DataFrame, which computes only the leading k components
+ *
+ * <p>Two solvers are supported. The randomized solver finds an orthonormal basis for the range of the matrix by multiplying
+ * it with a random Gaussian matrix of k plus some oversampling columns, refines the basis with several power iterations, and
+ * then decomposes the small projected matrix. The Lanczos solver runs Golub-Kahan bidiagonalization with full
+ * re-orthogonalization, and decomposes the resulting small bidiagonal matrix. Both solvers only ever need products of the
+ * matrix with thin blocks of vectors, which are computed directly against the column arrays of the frame so there is no
+ * dense copy of the data, and which can be split across the fork join pool.</p>
+ *
+ * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class XDataFrameTruncatedSVD {
+
+    private static final int OVERSAMPLES = 10;
+    private static final int ROW_THRESHOLD = 4096;
+    private static final int COL_THRESHOLD = 32;
+
+    private int n;
+    private int p;
+    private int[] rows;
+    private Array<?>[] columns;
+    private boolean parallel;
+    private Random random = new Random(1L);
+    private double[] singularValues;
+    private double[][] vectors;
+
+
+    /**
+     * Constructor
+     * @param frame     the frame holding the nxp matrix to decompose
+     * @param parallel  true to split matrix products across the fork join pool
+     */
+    XDataFrameTruncatedSVD(DataFrame<?,?> frame, boolean parallel) {
+        this.n = frame.rowCount();
+        this.p = frame.colCount();
+        this.parallel = parallel;
+        this.rows = new int[n];
+        this.columns = new Array<?>[p];
+        if (frame instanceof XDataFrame && ((XDataFrame<?,?>)frame).content().isColumnStore()) {
+            final XDataFrameContent<?,?> content = ((XDataFrame<?,?>)frame).content();
+            for (int i=0; i<n; ++i) rows[i] = content.rowCoordinateAt(i);
+            for (int j=0; j<p; ++j) columns[j] = content.colArrayAt(content.colCoordinateAt(j));
+        } else {
+            for (int i=0; i<n; ++i) rows[i] = i;
+            for (int j=0; j<p; ++j) columns[j] = Array.of(frame.colAt(j).toDoubleStream().toArray());
+        }
+    }
+
+
+    /**
+     * Returns the leading singular values in descending order
+     * @return  the leading singular values
+     */
+    double[] getSingularValues() {
+        return singularValues;
+    }
+
+
+    /**
+     * Returns the leading right singular vectors, where each array is a vector of length p
+     * @return  the leading right singular vectors, ordered as per the singular values
+     */
+    double[][] getVectors() {
+        return vectors;
+    }
+
+
+    /**
+     * Returns the sum of squares of all entries in the matrix, which equals the sum of all squared singular values
+     * @return  the squared Frobenius norm of the matrix
+     */
+    double getSumOfSquares() {
+        double total = 0d;
+        for (int j=0; j<p; ++j) {
+            final Array<?> column = columns[j];
+            for (int i=0; i<n; ++i) {
+                final double value = column.getDouble(rows[i]);
+                total += value * value;
+            }
+        }
+        return total;
+    }
+
+
+    /**
+     * Computes the leading k components with the randomized range finder
+     * @param k     the number of components
+     * @return      this decomposition
+     */
+    XDataFrameTruncatedSVD randomized(int k) {
+        this.checkComponents(k);
+        final int l = Math.min(k + OVERSAMPLES, Math.min(n, p));
+        final double[][] omega = new double[l][p];
+        for (double[] vector : omega) {
+            for (int j=0; j<p; ++j) {
+                vector[j] = random.nextGaussian();
+            }
+        }
+        //Fewer components leave a smaller gap to the discarded spectrum, so more power iterations are needed to separate them
+        final int iterations = k < 0.1d * Math.min(n, p) ? 7 : 4;
+        double[][] q = orthonormalize(times(omega));
+        for (int i=0; i<iterations; ++i) {
+            q = orthonormalize(times(orthonormalize(transposeTimes(q))));
+        }
+        final double[][] z = transposeTimes(q);
+        final RealMatrix bt = new Array2DRowRealMatrix(p, l);
+        for (int c=0; c<l; ++c) {
+            for (int j=0; j<p; ++j) {
+                bt.setEntry(j, c, z[c][j]);
+            }
+        }
+        final SingularValueDecomposition svd = new SingularValueDecomposition(bt);
+        this.update(k, svd.getSingularValues(), svd.getU(), null);
+        return this;
+    }
+
+
+    /**
+     * Computes the leading k components with Golub-Kahan-Lanczos bidiagonalization
+     * @param k     the number of components
+     * @return      this decomposition
+     */
+    XDataFrameTruncatedSVD lanczos(int k) {
+        this.checkComponents(k);
+        final int steps = Math.min(Math.max(3 * k, k + 30), Math.min(n, p));
+        final double tolerance = 1e-12 * Math.sqrt(getSumOfSquares());
+        final List<double[]> vs = new ArrayList<>(steps);
+        final List<double[]> us = new ArrayList<>(steps);
+        final List<Double> alphas = new ArrayList<>(steps);
+        final List<Double> betas = new ArrayList<>(steps);
+        double[] v = new double[p];
+        for (int j=0; j<p; ++j) v[j] = random.nextGaussian();
+        scale(v, 1d / norm(v));
+        double[] u = times(new double[][] {v})[0];
+        double alpha = norm(u);
+        if (alpha <= tolerance) {
+            throw new DataFrameException("Cannot decompose a matrix of zeros");
+        }
+        scale(u, 1d / alpha);
+        while (true) {
+            vs.add(v);
+            us.add(u);
+            alphas.add(alpha);
+            if (vs.size() == steps) break;
+            final double[] w = transposeTimes(new double[][] {u})[0];
+            axpy(-alpha, v, w);
+            reorthogonalize(w, vs);
+            final double beta = norm(w);
+            if (beta <= tolerance) break;
+            scale(w, 1d / beta);
+            final double[] z = times(new double[][] {w})[0];
+            axpy(-beta, u, z);
+            reorthogonalize(z, us);
+            alpha = norm(z);
+            if (alpha <= tolerance) break;
+            scale(z, 1d / alpha);
+            betas.add(beta);
+            v = w;
+            u = z;
+        }
+        final int m = vs.size();
+        final RealMatrix bidiagonal = new Array2DRowRealMatrix(m, m);
+        for (int i=0; i<m; ++i) {
+            bidiagonal.setEntry(i, i, alphas.get(i));
+            if (i < m - 1) {
+                bidiagonal.setEntry(i, i + 1, betas.get(i));
+            }
+        }
+        final SingularValueDecomposition svd = new SingularValueDecomposition(bidiagonal);
+        this.update(k, svd.getSingularValues(), svd.getV(), vs);
+        return this;
+    }
+
+
+    /**
+     * Records the leading singular values and vectors from the decomposition of the small projected matrix
+     * @param k         the number of components requested
+     * @param values    the singular values of the projected matrix, in descending order
+     * @param basis     the singular vectors of the projected matrix in columns
+     * @param lift      the basis vectors to map the singular vectors back to length p, null if already of length p
+     */
+    private void update(int k, double[] values, RealMatrix basis, List<double[]> lift) {
+        final int count = Math.min(k, values.length);
+        this.singularValues = new double[count];
+        this.vectors = new double[count][p];
+        for (int c=0; c<count; ++c) {
+            this.singularValues[c] = values[c];
+            if (lift == null) {
+                for (int j=0; j<p; ++j) {
+                    this.vectors[c][j] = basis.getEntry(j, c);
+                }
+            } else {
+                for (int t=0; t<lift.size(); ++t) {
+                    axpy(basis.getEntry(t, c), lift.get(t), vectors[c]);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Checks the number of components requested is valid for the dimensions of the matrix
+     * @param k     the number of components
+     */
+    private void checkComponents(int k) {
+        if (k < 1) {
+            throw new DataFrameException("The number of components must be > 0, not " + k);
+        } else if (k > Math.min(n, p)) {
+            throw new DataFrameException("The number of components cannot exceed min(n,p) = " + Math.min(n, p) + ", not " + k);
+        }
+    }
+
+
+    /**
+     * Returns the product of the nxp matrix with the p-length vectors specified
+     * @param vectors   the vectors to multiply
+     * @return          the n-length products, one per input vector
+     */
+    double[][] times(double[][] vectors) {
+        final double[][] result = new double[vectors.length][n];
+        final TimesAction action = new TimesAction(0, n, vectors, result);
+        if (parallel && n > ROW_THRESHOLD) {
+            ForkJoinContext.invoke(action);
+        } else {
+            action.compute();
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns the product of the transpose of the nxp matrix with the n-length vectors specified
+     * @param vectors   the vectors to multiply
+     * @return          the p-length products, one per input vector
+     */
+    double[][] transposeTimes(double[][] vectors) {
+        final double[][] result = new double[vectors.length][p];
+        final TransposeTimesAction action = new TransposeTimesAction(0, p, vectors, result);
+        if (parallel && p > COL_THRESHOLD) {
+            ForkJoinContext.invoke(action);
+        } else {
+            action.compute();
+        }
+        return result;
+    }
+
+
+    /**
+     * Orthonormalizes vectors in place with modified Gram-Schmidt applied twice, zeroing vectors that are linearly dependent
+     * @param vectors   the vectors to orthonormalize
+     * @return          the same vectors
+     */
+    private static double[][] orthonormalize(double[][] vectors) {
+        for (int c=0; c<vectors.length; ++c) {
+            final double[] vector = vectors[c];
+            final double initial = norm(vector);
+            for (int pass=0; pass<2; ++pass) {
+                for (int t=0; t<c; ++t) {
+                    axpy(-dot(vectors[t], vector), vectors[t], vector);
+                }
+            }
+            final double norm = norm(vector);
+            scale(vector, norm > 1e-10 * initial ? 1d / norm : 0d);
+        }
+        return vectors;
+    }
+
+
+    /**
+     * Removes the components of a vector along each of the orthonormal vectors specified, applied twice for stability
+     * @param vector    the vector to re-orthogonalize in place
+     * @param basis     the orthonormal basis vectors
+     */
+    private static void reorthogonalize(double[] vector, List<double[]> basis) {
+        for (int pass=0; pass<2; ++pass) {
+            for (double[] b : basis) {
+                axpy(-dot(b, vector), b, vector);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the dot product of two vectors
+     * @param x     the first vector
+     * @param y     the second vector
+     * @return      the dot product
+     */
+    private static double dot(double[] x, double[] y) {
+        double sum = 0d;
+        for (int i=0; i<x.length; ++i) sum += x[i] * y[i];
+        return sum;
+    }
+
+
+    /**
+     * Returns the Euclidean norm of a vector
+     * @param x     the vector
+     * @return      the norm of vector
+     */
+    private static double norm(double[] x) {
+        return Math.sqrt(dot(x, x));
+    }
+
+
+    /**
+     * Scales a vector in place
+     * @param x         the vector to scale
+     * @param factor    the scale factor
+     */
+    private static void scale(double[] x, double factor) {
+        for (int i=0; i<x.length; ++i) x[i] *= factor;
+    }
+
+
+    /**
+     * Computes y = a * x + y in place
+     * @param a     the scalar multiplier
+     * @param x     the vector to add
+     * @param y     the vector to update
+     */
+    private static void axpy(double a, double[] x, double[] y) {
+        for (int i=0; i<x.length; ++i) y[i] += a * x[i];
+    }
+
+
+
+    /**
+     * A RecursiveAction that multiplies the matrix by a block of vectors, splitting over row ranges
+     */
+    private class TimesAction extends RecursiveAction {
+
+        private int from;
+        private int to;
+        private double[][] vectors;
+        private double[][] result;
+
+        /**
+         * Constructor
+         * @param from      the from row ordinal, inclusive
+         * @param to        the to row ordinal, exclusive
+         * @param vectors   the p-length vectors to multiply
+         * @param result    the n-length result vectors
+         */
+        TimesAction(int from, int to, double[][] vectors, double[][] result) {
+            this.from = from;
+            this.to = to;
+            this.vectors = vectors;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (!parallel || to - from <= ROW_THRESHOLD) {
+                final int l = vectors.length;
+                for (int j=0; j<p; ++j) {
+                    final Array<?> column = columns[j];
+                    for (int i=from; i<to; ++i) {
+                        final double value = column.getDouble(rows[i]);
+                        if (value != 0d) {
+                            for (int c=0; c<l; ++c) {
+                                result[c][i] += value * vectors[c][j];
+                            }
+                        }
+                    }
+                }
+            } else {
+                final int midPoint = from + (to - from) / 2;
+                invokeAll(
+                    new TimesAction(from, midPoint, vectors, result),
+                    new TimesAction(midPoint, to, vectors, result)
+                );
+            }
+        }
+    }
+
+
+    /**
+     * A RecursiveAction that multiplies the transpose of the matrix by a block of vectors, splitting over column ranges
+     */
+    private class TransposeTimesAction extends RecursiveAction {
+
+        private int from;
+        private int to;
+        private double[][] vectors;
+        private double[][] result;
+
+        /**
+         * Constructor
+         * @param from      the from column ordinal, inclusive
+         * @param to        the to column ordinal, exclusive
+         * @param vectors   the n-length vectors to multiply
+         * @param result    the p-length result vectors
+         */
+        TransposeTimesAction(int from, int to, double[][] vectors, double[][] result) {
+            this.from = from;
+            this.to = to;
+            this.vectors = vectors;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (!parallel || to - from <= COL_THRESHOLD) {
+                final int l = vectors.length;
+                final double[] sums = new double[l];
+                for (int j=from; j<to; ++j) {
+                    final Array<?> column = columns[j];
+                    Arrays.fill(sums, 0d);
+                    for (int i=0; i<n; ++i) {
+                        final double value = column.getDouble(rows[i]);
+                        if (value != 0d) {
+                            for (int c=0; c<l; ++c) {
+                                sums[c] += value * vectors[c][i];
+                            }
+                        }
+                    }
+                    for (int c=0; c<l; ++c) {
+                        result[c][j] = sums[c];
+                    }
+                }
+            } else {
+                final int midPoint = from + (to - from) / 2;
+                invokeAll(
+                    new TransposeTimesAction(from, midPoint, vectors, result),
+                    new TransposeTimesAction(midPoint, to, vectors, result)
+                );
+            }
+        }
+    }
+}
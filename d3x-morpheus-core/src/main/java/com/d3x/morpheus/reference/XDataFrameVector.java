@@ -47,6 +47,7 @@ import com.d3x.morpheus.stats.Statistic1;
 import com.d3x.morpheus.stats.Stats;
 import com.d3x.morpheus.util.Asserts;
 import com.d3x.morpheus.util.Bounds;
+import com.d3x.morpheus.util.ForkJoinContext;
 import com.d3x.morpheus.util.functions.ToBooleanFunction;
 
 /**
@@ -381,7 +382,7 @@ abstract class XDataFrameVector<X,Y,R,C,Z> implements DataFrameVector<X,Y,R,C,Z>
         if (valueCount == 0) {
             return Stream.empty();
         } else {
-            var partitionSize = valueCount / Runtime.getRuntime().availableProcessors();
+            var partitionSize = valueCount / ForkJoinContext.getParallelism();
             var splitThreshold = Math.max(partitionSize, 5000);
             return StreamSupport.stream(new DataFrameValueSpliterator<>(0, valueCount-1, valueCount, splitThreshold), isParallel());
         }
@@ -15,15 +15,13 @@
  */
 package com.d3x.morpheus.reference.algebra;
 
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RecursiveAction;
-
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayType;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameAlgebra;
 import com.d3x.morpheus.frame.DataFrameColumn;
 import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.matrix.DenseMatrix;
 import com.d3x.morpheus.util.Asserts;
 
 /**
@@ -309,26 +307,40 @@ public abstract class XDataFrameAlgebra<R,C> implements DataFrameAlgebra<R,C> {
     public final <X,Y> DataFrame<R,Y> dot(DataFrame<X,Y> right) throws DataFrameException {
         try {
             final DataFrame<R,C> left = frame();
+            Asserts.check(left.colCount() == right.rowCount(), "The column count of left frame must match the row count of right frame");
             final Array<R> rowKeys = left.rows().keyArray();
             final Array<Y> colKeys = right.cols().keyArray();
-            final DataFrame<R,Y> result = DataFrame.ofDoubles(rowKeys, colKeys);
-            final int count = result.rowCount() * result.colCount();
-            if (frame().isParallel()) {
-                final int threshold = Math.max(10, count / Runtime.getRuntime().availableProcessors());
-                final DotProduct action = new DotProduct(left, right, result, 0, count, threshold);
-                ForkJoinPool.commonPool().invoke(action);
-            } else {
-                final int threshold = Integer.MAX_VALUE;
-                final DotProduct action = new DotProduct(left, right, result, 0, count, threshold);
-                action.compute();
-            }
-            return result;
+            final DenseMatrix leftMatrix = toDenseMatrix(left);
+            final DenseMatrix rightMatrix = toDenseMatrix(right);
+            final DenseMatrix product = leftMatrix.times(rightMatrix, left.isParallel());
+            return DataFrame.ofDoubles(rowKeys, colKeys, v -> product.get(v.rowOrdinal(), v.colOrdinal()));
+        } catch (DataFrameException ex) {
+            throw ex;
         } catch (Exception ex) {
             throw new DataFrameException("Failed to calculate the dot product of two DataFrames", ex);
         }
     }
 
 
+    /**
+     * Returns a copy of the frame values in a contiguous dense matrix to be used by the blocked matrix kernels
+     * @param frame     the frame to copy
+     * @return          the dense matrix of frame values
+     */
+    private static DenseMatrix toDenseMatrix(DataFrame<?,?> frame) {
+        final int rowCount = frame.rowCount();
+        final int colCount = frame.colCount();
+        final double[] values = new double[rowCount * colCount];
+        frame.cols().forEach(column -> {
+            final int colOrdinal = column.ordinal();
+            for (int i=0; i<rowCount; ++i) {
+                values[i * colCount + colOrdinal] = column.getDoubleAt(i);
+            }
+        });
+        return DenseMatrix.wrap(rowCount, colCount, values);
+    }
+
+
     @Override
     public final DataFrame<R,C> divide(Number scalar) throws DataFrameException {
         try {
@@ -404,74 +416,4 @@ public abstract class XDataFrameAlgebra<R,C> implements DataFrameAlgebra<R,C> {
             throw new DataFrameException("Failed to divide two DataFrames", ex);
         }
     }
-
-
-
-    /**
-     * A recursive task to implement a parallel computation of a dot product between two frames
-     */
-    private class DotProduct extends RecursiveAction {
-
-        private int offset;
-        private int length;
-        private int threshold;
-        private DataFrame<?,?> left;
-        private DataFrame<?,?> right;
-        private DataFrame<?,?> result;
-
-        /**
-         * Constructor
-         * @param left      the left frame for dot product
-         * @param right     the right frame for dot product
-         * @param result    the frame to write the result to
-         * @param offset    the offset index
-         * @param length    the number of elements to calculate
-         * @param threshold the split threshold below which not to split
-         */
-        private DotProduct(DataFrame<?,?> left, DataFrame<?,?> right, DataFrame<?,?> result, int offset, int length, int threshold) {
-            this.left = left;
-            this.right = right;
-            this.result = result;
-            this.offset = offset;
-            this.length = length;
-            this.threshold = threshold;
-        }
-
-        @Override
-        protected void compute() {
-            try {
-                if (length > threshold) {
-                    var halfLength = length / 2;
-                    var offset1 = offset;
-                    var offset2 = offset + halfLength;
-                    invokeAll(
-                        new DotProduct(left, right, result, offset1, halfLength, threshold),
-                        new DotProduct(left, right, result, offset2, length - halfLength, threshold)
-                    );
-                } else {
-                    var rowCount = result.rowCount();
-                    var innerDim = left.colCount();
-                    var cursor = result.cursor();
-                    var leftRow = left.rows().cursor();
-                    var rightColumn = right.cols().cursor();
-                    for (int i=0; i<length; ++i) {
-                        var index = offset + i;
-                        var rowOrdinal = index % rowCount;
-                        var colOrdinal = index / rowCount;
-                        leftRow.atOrdinal(rowOrdinal);
-                        rightColumn.atOrdinal(colOrdinal);
-                        double value = 0d;
-                        for (int k=0; k<innerDim; ++k) {
-                            var v1 = leftRow.getDoubleAt(k);
-                            var v2 = rightColumn.getDoubleAt(k);
-                            value += v1 * v2;
-                        }
-                        cursor.atOrdinals(rowOrdinal, colOrdinal).setDouble(value);
-                    }
-                }
-            } catch (Exception ex) {
-                throw new DataFrameException("Failed to compute dot product of two frames", ex);
-            }
-        }
-    }
 }
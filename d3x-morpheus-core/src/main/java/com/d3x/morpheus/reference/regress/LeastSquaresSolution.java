@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference.regress;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import com.d3x.morpheus.frame.DataFrameLeastSquares.Solver;
+import com.d3x.morpheus.linalg.SVDSolver;
+import com.d3x.morpheus.matrix.D3xMatrix;
+
+/**
+ * The least squares solution for one or more response vectors that share a design matrix, which is decomposed once
+ * regardless of how many responses are solved.
+ *
+ * <p>Along with the coefficients, the solution retains the diagonal of (X'X)^-1, which scaled by the error variance of
+ * each response yields the variance of its coefficients.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+final class LeastSquaresSolution {
+
+    private RealMatrix beta;
+    private double[] inverseDiagonal;
+
+    /**
+     * Constructor
+     * @param beta              the p x m matrix of coefficients
+     * @param inverseDiagonal   the diagonal of (X'X)^-1
+     */
+    private LeastSquaresSolution(RealMatrix beta, double[] inverseDiagonal) {
+        this.beta = beta;
+        this.inverseDiagonal = inverseDiagonal;
+    }
+
+
+    /**
+     * Returns the least squares solution of X B = Y for all columns of Y
+     * @param x         the n x p design matrix
+     * @param y         the n x m matrix of responses
+     * @param solver    the solver used to decompose the design matrix
+     * @param threshold the singularity threshold for the QR decomposition
+     * @return          the least squares solution
+     */
+    static LeastSquaresSolution of(RealMatrix x, RealMatrix y, Solver solver, double threshold) {
+        final int p = x.getColumnDimension();
+        final double[] inverseDiagonal = new double[p];
+        switch (solver) {
+            case QR:
+                final QRDecomposition qr = new QRDecomposition(x, threshold);
+                final RealMatrix rInv = new LUDecomposition(qr.getR().getSubMatrix(0, p - 1, 0, p - 1)).getSolver().getInverse();
+                for (int i=0; i<p; ++i) {
+                    for (int j=0; j<p; ++j) {
+                        inverseDiagonal[i] += rInv.getEntry(i, j) * rInv.getEntry(i, j);
+                    }
+                }
+                return new LeastSquaresSolution(qr.getSolver().solve(y), inverseDiagonal);
+            case SVD:
+                final SVDSolver svd = SVDSolver.apache(D3xMatrix.wrap(x.getData()));
+                final D3xMatrix v = svd.getSVD().getV();
+                final D3xMatrix wInv = svd.invertSingularValues();
+                for (int i=0; i<p; ++i) {
+                    for (int j=0; j<p; ++j) {
+                        final double value = v.get(i, j) * wInv.get(j, j);
+                        inverseDiagonal[i] += value * value;
+                    }
+                }
+                return new LeastSquaresSolution(new Array2DRowRealMatrix(svd.solve(D3xMatrix.wrap(y.getData())).toArray(), false), inverseDiagonal);
+            default:
+                final RealMatrix xT = x.transpose();
+                final RealMatrix xTxInv = new LUDecomposition(xT.multiply(x)).getSolver().getInverse();
+                for (int i=0; i<p; ++i) {
+                    inverseDiagonal[i] = xTxInv.getEntry(i, i);
+                }
+                return new LeastSquaresSolution(xTxInv.multiply(xT.multiply(y)), inverseDiagonal);
+        }
+    }
+
+
+    /**
+     * Returns the p x m matrix of coefficients, with a column per response
+     * @return  the matrix of coefficients
+     */
+    RealMatrix getBeta() {
+        return beta;
+    }
+
+
+    /**
+     * Returns the diagonal of (X'X)^-1, which is shared by all responses
+     * @return  the diagonal of the inverse of X'X
+     */
+    double[] getInverseDiagonal() {
+        return inverseDiagonal;
+    }
+}
@@ -233,6 +233,8 @@ abstract class XDataFrameLeastSquares<R,C> implements DataFrameLeastSquares<R,C>
     private RealMatrix computeBeta(RealVector y, RealMatrix x) {
         if (solver == Solver.QR) {
             return computeBetaQR(y, x);
+        } else if (solver == Solver.SVD) {
+            return computeBetaSVD(y, x);
         } else {
             final int n = x.getRowDimension();
             final int p = x.getColumnDimension();
@@ -298,6 +300,33 @@ abstract class XDataFrameLeastSquares<R,C> implements DataFrameLeastSquares<R,C>
     }
 
 
+    /**
+     * Computes model parameters and parameter variance using a singular value decomposition of the X matrix
+     * @param y     the response vector
+     * @param x     the design matrix
+     */
+    private RealMatrix computeBetaSVD(RealVector y, RealMatrix x) {
+        final int n = x.getRowDimension();
+        final int p = x.getColumnDimension();
+        final RealMatrix yMatrix = new Array2DRowRealMatrix(y.toArray());
+        final LeastSquaresSolution solution = LeastSquaresSolution.of(x, yMatrix, Solver.SVD, threshold);
+        final RealVector betaVector = solution.getBeta().getColumnVector(0);
+        final RealVector residuals = y.subtract(x.operate(betaVector));
+        this.rss = residuals.dotProduct(residuals);
+        this.errorVariance = rss / (n - p);
+        this.stdError = Math.sqrt(errorVariance);
+        this.residuals = createResidualsFrame(residuals);
+        this.residualCursor = this.residuals.cursor();
+        final double[] inverseDiagonal = solution.getInverseDiagonal();
+        final RealMatrix result = new Array2DRowRealMatrix(p, 2);
+        for (int i = 0; i < p; i++) {
+            result.setEntry(i, 0, betaVector.getEntry(i));
+            result.setEntry(i, 1, inverseDiagonal[i] * errorVariance);
+        }
+        return result;
+    }
+
+
     /**
      * Returns a newly created frame of regression residuals
      * @param residuals     the Apache math vector of residuals
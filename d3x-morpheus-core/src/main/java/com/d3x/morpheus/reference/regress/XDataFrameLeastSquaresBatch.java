@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference.regress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math3.distribution.FDistribution;
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameLeastSquares.Field;
+import com.d3x.morpheus.frame.DataFrameLeastSquares.Solver;
+import com.d3x.morpheus.frame.DataFrameLeastSquaresBatch;
+
+/**
+ * The reference implementation of the DataFrameLeastSquaresBatch interface, which fits OLS or WLS models for many
+ * regressands against one design matrix.
+ *
+ * <p>The design matrix, whitened by the square root of the weights for WLS, is decomposed once, and the coefficients
+ * for all regressands are obtained from a single solve against the matrix of responses. The residuals of all models
+ * are likewise computed with a single matrix product, after which only the per regressand fit statistics remain.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class XDataFrameLeastSquaresBatch<R,C> implements DataFrameLeastSquaresBatch<R,C> {
+
+    private static final List<Field> fields = Arrays.asList(Field.values());
+    private static final List<Stat> stats = Arrays.asList(Stat.values());
+
+    private double alpha;
+    private Solver solver;
+    private boolean intercept;
+    private List<C> regressands;
+    private List<C> regressors;
+    private Array<Double> weights;
+    private DataFrame<R,C> frame;
+    private DataFrame<C,C> betas;
+    private DataFrame<C,C> betaStdErrors;
+    private DataFrame<C,Field> intercepts;
+    private DataFrame<R,C> residuals;
+    private DataFrame<C,Stat> fitStats;
+
+    /**
+     * Constructor
+     * @param frame         the frame to operate on
+     * @param regressands   the column keys of the regressands
+     * @param regressors    the column keys of the regressors
+     * @param weights       the diagonal weights for WLS, null for OLS
+     * @param intercept     true to include an intercept / constant term in the models
+     */
+    XDataFrameLeastSquaresBatch(DataFrame<R,C> frame, List<C> regressands, List<C> regressors, Array<Double> weights, boolean intercept) {
+        if (regressors.isEmpty()) {
+            throw new DataFrameException("At least one regressor must be specified");
+        } else if (regressands.isEmpty()) {
+            throw new DataFrameException("At least one regressand must be specified");
+        } else if (weights != null && weights.length() != frame.rowCount()) {
+            throw new DataFrameException("The weights length must match the frame row count: " + weights.length() + " != " + frame.rowCount());
+        } else {
+            this.frame = frame;
+            this.alpha = 0.05;
+            this.solver = Solver.QR;
+            this.weights = weights;
+            this.intercept = intercept;
+            this.regressands = new ArrayList<>(regressands);
+            this.regressors = new ArrayList<>(regressors);
+        }
+    }
+
+
+    @Override
+    public void fit() {
+        try {
+            final int n = frame.rowCount();
+            final int m = regressands.size();
+            final int offset = intercept ? 1 : 0;
+            final int p = regressors.size() + offset;
+            final double[] rootWeights = new double[n];
+            final int[] xOrdinals = regressors.stream().mapToInt(k -> frame.cols().ordinal(k)).toArray();
+            final int[] yOrdinals = regressands.stream().mapToInt(k -> frame.cols().ordinal(k)).toArray();
+            final RealMatrix x = new Array2DRowRealMatrix(n, p);
+            final RealMatrix y = new Array2DRowRealMatrix(n, m);
+            for (int i=0; i<n; ++i) {
+                rootWeights[i] = weights != null ? Math.sqrt(weights.getDouble(i)) : 1d;
+                if (intercept) {
+                    x.setEntry(i, 0, rootWeights[i]);
+                }
+                for (int j=0; j<xOrdinals.length; ++j) {
+                    x.setEntry(i, j + offset, rootWeights[i] * frame.getDoubleAt(i, xOrdinals[j]));
+                }
+                for (int j=0; j<m; ++j) {
+                    y.setEntry(i, j, rootWeights[i] * frame.getDoubleAt(i, yOrdinals[j]));
+                }
+            }
+            final LeastSquaresSolution solution = LeastSquaresSolution.of(x, y, solver, 0d);
+            final RealMatrix beta = solution.getBeta();
+            final RealMatrix errors = y.subtract(x.multiply(beta));
+            final double[] inverseDiagonal = solution.getInverseDiagonal();
+            this.betas = DataFrame.ofDoubles(regressands, regressors);
+            this.betaStdErrors = DataFrame.ofDoubles(regressands, regressors);
+            this.intercepts = DataFrame.ofDoubles(regressands, fields);
+            this.fitStats = DataFrame.ofDoubles(regressands, stats);
+            this.residuals = DataFrame.ofDoubles(frame.rows().keyArray(), regressands);
+            final TDistribution distribution = new TDistribution(n - (regressors.size() + 1));
+            final double tValue = distribution.inverseCumulativeProbability(1d - alpha / 2d);
+            for (int j=0; j<m; ++j) {
+                double rss = 0d;
+                for (int i=0; i<n; ++i) {
+                    final double error = errors.getEntry(i, j);
+                    this.residuals.setDoubleAt(i, j, error);
+                    rss += error * error;
+                }
+                final double tss = computeTSS(y.getColumn(j), rootWeights);
+                final double errorVariance = rss / (n - p);
+                for (int k=0; k<regressors.size(); ++k) {
+                    this.betas.setDoubleAt(j, k, beta.getEntry(k + offset, j));
+                    this.betaStdErrors.setDoubleAt(j, k, Math.sqrt(inverseDiagonal[k + offset] * errorVariance));
+                }
+                if (intercept) {
+                    final double param = beta.getEntry(0, j);
+                    final double stdError = Math.sqrt(inverseDiagonal[0] * errorVariance);
+                    final double tStat = param / stdError;
+                    this.intercepts.setDoubleAt(j, Field.PARAMETER.ordinal(), param);
+                    this.intercepts.setDoubleAt(j, Field.STD_ERROR.ordinal(), stdError);
+                    this.intercepts.setDoubleAt(j, Field.T_STAT.ordinal(), tStat);
+                    this.intercepts.setDoubleAt(j, Field.P_VALUE.ordinal(), distribution.cumulativeProbability(-Math.abs(tStat)) * 2d);
+                    this.intercepts.setDoubleAt(j, Field.CI_LOWER.ordinal(), param - stdError * tValue);
+                    this.intercepts.setDoubleAt(j, Field.CI_UPPER.ordinal(), param + stdError * tValue);
+                }
+                final int dfModel = regressors.size();
+                final double fValue = ((tss - rss) / dfModel) / (rss / (n - p));
+                this.fitStats.setDoubleAt(j, Stat.RSS.ordinal(), rss);
+                this.fitStats.setDoubleAt(j, Stat.TSS.ordinal(), tss);
+                this.fitStats.setDoubleAt(j, Stat.R_SQUARED.ordinal(), 1d - rss / tss);
+                this.fitStats.setDoubleAt(j, Stat.R_SQUARED_ADJ.ordinal(), 1d - (rss * (n - offset)) / (tss * (n - p)));
+                this.fitStats.setDoubleAt(j, Stat.STD_ERROR.ordinal(), Math.sqrt(errorVariance));
+                this.fitStats.setDoubleAt(j, Stat.F_VALUE.ordinal(), fValue);
+                this.fitStats.setDoubleAt(j, Stat.F_PROBABILITY.ordinal(), 1d - new FDistribution(dfModel, n - p).cumulativeProbability(fValue));
+            }
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            final String message = "Batch regression failed for %s regressands on %s";
+            throw new DataFrameException(String.format(message, regressands.size(), Arrays.toString(regressors.toArray())), ex);
+        }
+    }
+
+
+    /**
+     * Computes the Total Sum of Squares for a regressand, weighted about the weighted mean for WLS
+     * @param y             the whitened regressand values
+     * @param rootWeights   the square root of the weights
+     * @return              the Total Sum of Squares for regressand
+     */
+    private double computeTSS(double[] y, double[] rootWeights) {
+        double sumSquares = 0d;
+        if (!intercept) {
+            for (double value : y) sumSquares += value * value;
+        } else {
+            double sum = 0d;
+            double sumOfWeights = 0d;
+            for (int i=0; i<y.length; ++i) {
+                sum += y[i] * rootWeights[i];
+                sumOfWeights += rootWeights[i] * rootWeights[i];
+            }
+            final double mean = sum / sumOfWeights;
+            for (int i=0; i<y.length; ++i) {
+                final double diff = y[i] - rootWeights[i] * mean;
+                sumSquares += diff * diff;
+            }
+        }
+        return sumSquares;
+    }
+
+
+    /**
+     * Fits the models if they have not been fitted since they were last configured
+     */
+    private void fitIf() {
+        if (betas == null) {
+            this.fit();
+        }
+    }
+
+
+    @Override
+    public int getN() {
+        return frame.rowCount();
+    }
+
+
+    @Override
+    public List<C> getRegressands() {
+        return regressands;
+    }
+
+
+    @Override
+    public List<C> getRegressors() {
+        return regressors;
+    }
+
+
+    @Override
+    public boolean hasIntercept() {
+        return intercept;
+    }
+
+
+    @Override
+    public double getAlpha() {
+        return alpha;
+    }
+
+
+    @Override
+    public DataFrame<C,C> getBetas() {
+        this.fitIf();
+        return betas;
+    }
+
+
+    @Override
+    public DataFrame<C,C> getBetaStdErrors() {
+        this.fitIf();
+        return betaStdErrors;
+    }
+
+
+    @Override
+    public DataFrame<C,Field> getIntercepts() {
+        this.fitIf();
+        return intercepts;
+    }
+
+
+    @Override
+    public DataFrame<R,C> getResiduals() {
+        this.fitIf();
+        return residuals;
+    }
+
+
+    @Override
+    public DataFrame<C,Stat> getStats() {
+        this.fitIf();
+        return fitStats;
+    }
+
+
+    @Override
+    public DataFrameLeastSquaresBatch<R,C> withSolver(Solver solver) {
+        if (solver != this.solver) {
+            this.solver = solver;
+            this.betas = null;
+        }
+        return this;
+    }
+
+
+    @Override
+    public DataFrameLeastSquaresBatch<R,C> withAlpha(double alpha) {
+        if (alpha != this.alpha) {
+            this.alpha = alpha;
+            this.betas = null;
+        }
+        return this;
+    }
+}
@@ -15,12 +15,15 @@
  */
 package com.d3x.morpheus.reference.regress;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameLeastSquares;
+import com.d3x.morpheus.frame.DataFrameLeastSquaresBatch;
 import com.d3x.morpheus.frame.DataFrameRegression;
 import com.d3x.morpheus.util.Collect;
 
@@ -75,4 +78,24 @@ public class XDataFrameRegression<R,C> implements DataFrameRegression<R,C> {
     public <T> Optional<T> gls(C regressand, Iterable<C> regressors, DataFrame<?, ?> omega, boolean intercept, Function<DataFrameLeastSquares<R, C>, Optional<T>> handler) {
         return handler.apply(new XDataFrame_GLS<>(frame, regressand, Collect.asList(regressors), intercept, omega));
     }
+
+    @Override
+    public <T> Optional<T> olsBatch(Iterable<C> regressands, Iterable<C> regressors, boolean intercept, Function<DataFrameLeastSquaresBatch<R,C>,Optional<T>> handler) {
+        return handler.apply(new XDataFrameLeastSquaresBatch<>(frame, Collect.asList(regressands), Collect.asList(regressors), null, intercept));
+    }
+
+    @Override
+    public <T> Optional<T> wlsBatch(Iterable<C> regressands, Iterable<C> regressors, Array<Double> weights, boolean intercept, Function<DataFrameLeastSquaresBatch<R,C>,Optional<T>> handler) {
+        return handler.apply(new XDataFrameLeastSquaresBatch<>(frame, Collect.asList(regressands), Collect.asList(regressors), weights, intercept));
+    }
+
+    @Override
+    public DataFrame<R,String> rollingOls(C regressand, Iterable<C> regressors, int window, boolean intercept) {
+        return new XDataFrameRollingOLS<>(frame, Collect.asList(regressors), window, intercept).apply(Collections.singletonList(regressand)).get(regressand);
+    }
+
+    @Override
+    public Map<C,DataFrame<R,String>> rollingOls(Iterable<C> regressands, Iterable<C> regressors, int window, boolean intercept) {
+        return new XDataFrameRollingOLS<>(frame, Collect.asList(regressors), window, intercept).apply(Collect.asList(regressands));
+    }
 }
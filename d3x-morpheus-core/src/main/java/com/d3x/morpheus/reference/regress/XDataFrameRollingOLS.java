@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference.regress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.util.ForkJoinContext;
+
+/**
+ * A rolling window Ordinary Least Squares regression of one or more regressands on a common set of regressors.
+ *
+ * <p>Rather than fitting a new model for every window, the normal equations X'X and X'y are maintained incrementally,
+ * with a rank-one update as each row enters the window and a rank-one downdate as it leaves, so each step costs O(p^2)
+ * plus a Cholesky solve of the p x p system. The sums are rebuilt from scratch once every full window to stop rounding
+ * errors from accumulating. Rows with a NaN in the regressand or any regressor are excluded from the window, and windows
+ * with too few valid rows or a singular X'X produce NaN results. Regressands are independent of one another, so they
+ * are fitted in parallel when the frame is in parallel mode.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class XDataFrameRollingOLS<R,C> {
+
+    static final String INTERCEPT = "Intercept";
+    static final String STD_ERROR = "STD_ERROR";
+    static final String R_SQUARED = "R_SQUARED";
+
+    private int p;
+    private int window;
+    private double[][] x;
+    private boolean intercept;
+    private DataFrame<R,C> frame;
+    private List<String> columns;
+
+    /**
+     * Constructor
+     * @param frame         the frame to operate on
+     * @param regressors    the column keys of regressors
+     * @param window        the number of rows in each window
+     * @param intercept     true to include an intercept / constant term in the model
+     */
+    XDataFrameRollingOLS(DataFrame<R,C> frame, List<C> regressors, int window, boolean intercept) {
+        this.frame = frame;
+        this.window = window;
+        this.intercept = intercept;
+        this.p = regressors.size() + (intercept ? 1 : 0);
+        if (regressors.isEmpty()) {
+            throw new DataFrameException("At least one regressor must be specified");
+        } else if (window <= p) {
+            throw new DataFrameException("The rolling window of " + window + " rows must exceed the number of parameters " + p);
+        } else {
+            this.columns = new ArrayList<>();
+            if (intercept) columns.add(INTERCEPT);
+            regressors.forEach(regressor -> columns.add(regressor.toString()));
+            for (int j=0; j<p; ++j) {
+                columns.add(columns.get(j) + "_" + STD_ERROR);
+            }
+            columns.add(R_SQUARED);
+            columns.add(STD_ERROR);
+            this.x = createX(regressors);
+        }
+    }
+
+
+    /**
+     * Returns the design matrix as rows of doubles, which is shared by all regressands
+     * @param regressors    the column keys of regressors
+     * @return              the design matrix
+     */
+    private double[][] createX(List<C> regressors) {
+        final int n = frame.rowCount();
+        final int offset = intercept ? 1 : 0;
+        final int[] colOrdinals = regressors.stream().mapToInt(k -> frame.cols().ordinal(k)).toArray();
+        final double[][] x = new double[n][p];
+        for (int i=0; i<n; ++i) {
+            x[i][0] = 1d;
+            for (int j=0; j<colOrdinals.length; ++j) {
+                x[i][j + offset] = frame.getDoubleAt(i, colOrdinals[j]);
+            }
+        }
+        return x;
+    }
+
+
+    /**
+     * Returns the rolling regression results for each of the regressands specified
+     * @param regressands   the column keys of regressands
+     * @return              the results keyed by regressand
+     */
+    Map<C,DataFrame<R,String>> apply(List<C> regressands) {
+        final int n = frame.rowCount();
+        final Array<R> keys = n >= window ? frame.rows().keyArray().copy(window - 1, n) : frame.rows().keyArray().copy(0, 0);
+        final Map<C,DataFrame<R,String>> results = new LinkedHashMap<>();
+        for (C regressand : regressands) {
+            results.put(regressand, DataFrame.ofDoubles(keys, columns));
+        }
+        if (!regressands.isEmpty()) {
+            final RollingAction action = new RollingAction(0, regressands.size() - 1, regressands, results);
+            if (frame.isParallel() && regressands.size() > 1) {
+                ForkJoinContext.invoke(action);
+            } else {
+                action.compute();
+            }
+        }
+        return results;
+    }
+
+
+    /**
+     * Computes the rolling regression of a single regressand, writing one row of results per window
+     * @param regressand    the column key of regressand
+     * @param result        the frame to write results to
+     */
+    private void compute(C regressand, DataFrame<R,String> result) {
+        final int n = frame.rowCount();
+        final int colOrdinal = frame.cols().ordinal(regressand);
+        final double[] y = new double[n];
+        final boolean[] valid = new boolean[n];
+        for (int i=0; i<n; ++i) {
+            y[i] = frame.getDoubleAt(i, colOrdinal);
+            valid[i] = !Double.isNaN(y[i]);
+            for (int j=0; j<p && valid[i]; ++j) {
+                valid[i] = !Double.isNaN(x[i][j]);
+            }
+        }
+        int removed = 0;
+        final NormalEquations equations = new NormalEquations();
+        for (int i=0; i<n; ++i) {
+            if (valid[i]) {
+                equations.add(x[i], y[i], 1d);
+            }
+            final int expired = i - window;
+            if (expired >= 0 && valid[expired]) {
+                equations.add(x[expired], y[expired], -1d);
+                removed++;
+            }
+            if (i >= window - 1) {
+                if (removed >= window) {
+                    removed = 0;
+                    equations.reset();
+                    for (int k=i-window+1; k<=i; ++k) {
+                        if (valid[k]) {
+                            equations.add(x[k], y[k], 1d);
+                        }
+                    }
+                }
+                equations.solve(result, i - window + 1);
+            }
+        }
+    }
+
+
+    /**
+     * The normal equations of a least squares regression, maintained incrementally over a window of observations
+     */
+    private class NormalEquations {
+
+        private int n;
+        private double yty;
+        private double sumY;
+        private double[] xty = new double[p];
+        private double[] beta = new double[p];
+        private double[][] xtx = new double[p][p];
+        private double[][] lower = new double[p][p];
+        private double[][] inverse = new double[p][p];
+
+        /**
+         * Resets these equations to represent an empty window
+         */
+        void reset() {
+            this.n = 0;
+            this.yty = 0d;
+            this.sumY = 0d;
+            for (int j=0; j<p; ++j) {
+                this.xty[j] = 0d;
+                Arrays.fill(xtx[j], 0d);
+            }
+        }
+
+        /**
+         * Adds or removes an observation with a rank-one update of the upper triangle of X'X and of X'y
+         * @param row   the regressor values for observation
+         * @param y     the regressand value for observation
+         * @param sign  1 to add the observation, -1 to remove it
+         */
+        void add(double[] row, double y, double sign) {
+            this.n += (int)sign;
+            this.yty += sign * y * y;
+            this.sumY += sign * y;
+            for (int j=0; j<p; ++j) {
+                final double value = sign * row[j];
+                this.xty[j] += value * y;
+                final double[] xtxRow = xtx[j];
+                for (int k=j; k<p; ++k) {
+                    xtxRow[k] += value * row[k];
+                }
+            }
+        }
+
+        /**
+         * Solves these equations and writes the parameters, their standard errors, R^2 and the regression standard error
+         * @param result    the result frame
+         * @param rowOrdinal    the row ordinal in the result frame
+         */
+        void solve(DataFrame<R,String> result, int rowOrdinal) {
+            if (n > p && decompose()) {
+                for (int j=0; j<p; ++j) {
+                    double sum = xty[j];
+                    for (int k=0; k<j; ++k) sum -= lower[j][k] * beta[k];
+                    this.beta[j] = sum / lower[j][j];
+                }
+                for (int j=p-1; j>=0; --j) {
+                    double sum = beta[j];
+                    for (int k=j+1; k<p; ++k) sum -= lower[k][j] * beta[k];
+                    this.beta[j] = sum / lower[j][j];
+                }
+                double explained = 0d;
+                for (int j=0; j<p; ++j) {
+                    explained += beta[j] * xty[j];
+                }
+                final double rss = Math.max(yty - explained, 0d);
+                final double tss = intercept ? yty - sumY * sumY / n : yty;
+                final double errorVariance = rss / (n - p);
+                this.invertLower();
+                for (int j=0; j<p; ++j) {
+                    double variance = 0d;
+                    for (int k=j; k<p; ++k) variance += inverse[k][j] * inverse[k][j];
+                    result.setDoubleAt(rowOrdinal, j, beta[j]);
+                    result.setDoubleAt(rowOrdinal, p + j, Math.sqrt(variance * errorVariance));
+                }
+                result.setDoubleAt(rowOrdinal, 2 * p, 1d - rss / tss);
+                result.setDoubleAt(rowOrdinal, 2 * p + 1, Math.sqrt(errorVariance));
+            }
+        }
+
+        /**
+         * Computes the Cholesky factor of X'X into the lower triangular matrix
+         * @return  true if X'X is positive definite, false if it is singular to working precision
+         */
+        private boolean decompose() {
+            for (int j=0; j<p; ++j) {
+                double diagonal = xtx[j][j];
+                for (int k=0; k<j; ++k) diagonal -= lower[j][k] * lower[j][k];
+                if (!(diagonal > xtx[j][j] * 1e-12)) {
+                    return false;
+                }
+                this.lower[j][j] = Math.sqrt(diagonal);
+                for (int i=j+1; i<p; ++i) {
+                    double sum = xtx[j][i];
+                    for (int k=0; k<j; ++k) sum -= lower[i][k] * lower[j][k];
+                    this.lower[i][j] = sum / lower[j][j];
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Computes the inverse of the lower Cholesky factor, so that the diagonal of (X'X)^-1 is the sum of squares of its columns
+         */
+        private void invertLower() {
+            for (int j=0; j<p; ++j) {
+                this.inverse[j][j] = 1d / lower[j][j];
+                for (int i=j+1; i<p; ++i) {
+                    double sum = 0d;
+                    for (int k=j; k<i; ++k) sum -= lower[i][k] * inverse[k][j];
+                    this.inverse[i][j] = sum / lower[i][i];
+                }
+            }
+        }
+    }
+
+
+
+    /**
+     * A RecursiveAction that fits the rolling regression for a range of regressands
+     */
+    private class RollingAction extends RecursiveAction {
+
+        private int from;
+        private int to;
+        private List<C> regressands;
+        private Map<C,DataFrame<R,String>> results;
+
+        /**
+         * Constructor
+         * @param from          the from regressand index, inclusive
+         * @param to            the to regressand index, inclusive
+         * @param regressands   the regressand keys
+         * @param results       the result frames keyed by regressand
+         */
+        RollingAction(int from, int to, List<C> regressands, Map<C,DataFrame<R,String>> results) {
+            this.from = from;
+            this.to = to;
+            this.regressands = regressands;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (from == to || !frame.isParallel()) {
+                for (int i=from; i<=to; ++i) {
+                    final C regressand = regressands.get(i);
+                    XDataFrameRollingOLS.this.compute(regressand, results.get(regressand));
+                }
+            } else {
+                final int midPoint = from + (to - from) / 2;
+                invokeAll(
+                    new RollingAction(from, midPoint, regressands, results),
+                    new RollingAction(midPoint + 1, to, regressands, results)
+                );
+            }
+        }
+    }
+}
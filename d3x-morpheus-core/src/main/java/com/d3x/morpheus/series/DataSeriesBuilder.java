@@ -493,7 +493,7 @@ public interface DataSeriesBuilder<K,V> {
 
         @Override
         public boolean contains(K key) {
-            return values.containsKey(coding.getCode(key));
+            return values.containsKey(coding.findCode(key));
         }
 
         @Override
@@ -508,7 +508,7 @@ public interface DataSeriesBuilder<K,V> {
 
         @Override
         public final V getValue(K key) {
-            return values.get(coding.getCode(key));
+            return values.get(coding.findCode(key));
         }
 
         @Override
@@ -53,6 +53,16 @@ public class Count implements Statistic1 {
         return !Double.isNaN(value) ? ++n : n;
     }
 
+    @Override
+    public long remove(double value) {
+        return !Double.isNaN(value) ? --n : n;
+    }
+
+    @Override
+    public boolean isRemovable() {
+        return true;
+    }
+
     @Override
     public Statistic1 copy() {
         try {
@@ -77,6 +77,31 @@ public class Kurtosis implements Statistic1 {
         return n;
     }
 
+    @Override
+    public long remove(double value) {
+        if (n <= 1) {
+            this.reset();
+        } else {
+            var prevM1 = (n * m1 - value) / (n - 1d);
+            var dev = value - prevM1;
+            var nDev = dev / n;
+            var nDevSq = nDev * nDev;
+            var prevM2 = m2 - (n - 1d) * dev * nDev;
+            var prevM3 = m3 + 3d * nDev * prevM2 - (n - 1d) * (n - 2d) * nDevSq * dev;
+            this.m4 = m4 + 4d * nDev * prevM3 - 6d * nDevSq * prevM2 - ((n * n) - 3d * (n -1d)) * (nDevSq * nDevSq * (n - 1d) * n);
+            this.m3 = prevM3;
+            this.m2 = prevM2;
+            this.m1 = prevM1;
+            this.n--;
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isRemovable() {
+        return true;
+    }
+
     @Override
     public Statistic1 copy() {
         try {
@@ -57,6 +57,23 @@ public class Mean implements Statistic1 {
         return n;
     }
 
+    @Override
+    public long remove(double value) {
+        if (!Double.isNaN(value)) {
+            if (n <= 1) {
+                this.reset();
+            } else {
+                this.m1 -= (value - m1) / --n;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isRemovable() {
+        return true;
+    }
+
     @Override
     public Statistic1 copy() {
         try {
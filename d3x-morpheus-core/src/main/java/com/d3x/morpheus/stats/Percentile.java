@@ -43,6 +43,14 @@ public class Percentile implements Statistic1 {
     }
 
 
+    /**
+     * Returns the requested percentile for this statistic
+     * @return  the requested percentile in the range 0 to 1
+     */
+    public double getNth() {
+        return nth;
+    }
+
     @Override
     public long getN() {
         return n;
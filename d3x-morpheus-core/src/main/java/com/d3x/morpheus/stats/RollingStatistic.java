@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.stats;
+
+import java.util.Arrays;
+
+/**
+ * A sliding window over a uni-variate statistic which updates incrementally as values enter and leave the window.
+ *
+ * Statistics that support removal slide in constant time, min and max use a monotonic deque, and median and
+ * percentile maintain a sorted window so that no re-sorting is required. Any other statistic falls back to
+ * recomputing over the window contents on each step.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public abstract class RollingStatistic {
+
+    private long count;
+    private int windowSize;
+    private double[] window;
+
+    /**
+     * Constructor
+     * @param windowSize    the window size
+     */
+    RollingStatistic(int windowSize) {
+        if (windowSize < 1) {
+            throw new StatException("The rolling window size must be > 0, not " + windowSize);
+        } else {
+            this.windowSize = windowSize;
+            this.window = new double[windowSize];
+        }
+    }
+
+
+    /**
+     * Returns a newly created rolling statistic for the statistic and window size specified
+     * @param statistic     the statistic to compute over the window, which is copied
+     * @param windowSize    the window size
+     * @return              the rolling statistic
+     */
+    public static RollingStatistic of(Statistic1 statistic, int windowSize) {
+        if (statistic instanceof Min) {
+            return new Extreme(windowSize, true);
+        } else if (statistic instanceof Max) {
+            return new Extreme(windowSize, false);
+        } else if (statistic instanceof Percentile) {
+            return new Ranked(windowSize, ((Percentile)statistic).getNth());
+        } else if (statistic.isRemovable()) {
+            return new Incremental(statistic.copy().reset(), windowSize);
+        } else {
+            return new Recompute(statistic.copy().reset(), windowSize);
+        }
+    }
+
+
+    /**
+     * Returns the window size for this rolling statistic
+     * @return  the window size
+     */
+    public final int getWindowSize() {
+        return windowSize;
+    }
+
+
+    /**
+     * Returns the number of values added since the last reset
+     * @return  the number of values added
+     */
+    public final long getCount() {
+        return count;
+    }
+
+
+    /**
+     * Returns true if the window has been filled since the last reset
+     * @return  true if the window is full
+     */
+    public final boolean isFull() {
+        return count >= windowSize;
+    }
+
+
+    /**
+     * Adds a value to the window, evicting the oldest value if the window is full
+     * @param value     the value to add
+     * @return          the value of the statistic over the current window
+     */
+    public final double add(double value) {
+        final long position = count++;
+        final int slot = (int)(position % windowSize);
+        if (position < windowSize) {
+            this.window[slot] = value;
+            this.insert(value, position);
+        } else {
+            final double evicted = window[slot];
+            this.window[slot] = value;
+            this.slide(evicted, value, position);
+        }
+        return getValue();
+    }
+
+
+    /**
+     * Resets this rolling statistic back to an empty window
+     * @return  this rolling statistic
+     */
+    public final RollingStatistic reset() {
+        this.count = 0L;
+        this.clear();
+        return this;
+    }
+
+
+    /**
+     * Returns the value in the window at the position specified
+     * @param position  the position since the last reset, which must still be in the window
+     * @return          the value at position
+     */
+    final double valueAt(long position) {
+        return window[(int)(position % windowSize)];
+    }
+
+
+    /**
+     * Returns the current value of the statistic over the window
+     * @return      the statistic value
+     */
+    public abstract double getValue();
+
+    /**
+     * Clears any state held by the implementation
+     */
+    abstract void clear();
+
+    /**
+     * Called when a value is added to a window that is not yet full
+     * @param value     the value added
+     * @param position  the position of the value since the last reset
+     */
+    abstract void insert(double value, long position);
+
+    /**
+     * Called when a value is added to a full window, evicting the oldest value
+     * @param evicted   the value evicted from the window
+     * @param value     the value added
+     * @param position  the position of the value since the last reset
+     */
+    abstract void slide(double evicted, double value, long position);
+
+
+
+    /**
+     * A rolling statistic for statistics that support removal of values
+     */
+    private static class Incremental extends RollingStatistic {
+
+        private int slides;
+        private Statistic1 statistic;
+
+        /**
+         * Constructor
+         * @param statistic     the removable statistic
+         * @param windowSize    the window size
+         */
+        Incremental(Statistic1 statistic, int windowSize) {
+            super(windowSize);
+            this.statistic = statistic;
+        }
+
+        @Override
+        public double getValue() {
+            return statistic.getValue();
+        }
+
+        @Override
+        void clear() {
+            this.slides = 0;
+            this.statistic.reset();
+        }
+
+        @Override
+        void insert(double value, long position) {
+            this.statistic.add(value);
+        }
+
+        @Override
+        void slide(double evicted, double value, long position) {
+            if (++slides >= getWindowSize() || !Double.isFinite(evicted)) {
+                //Recompute from the window once per cycle to bound any accumulated rounding error
+                this.slides = 0;
+                this.statistic.reset();
+                final long start = position - getWindowSize() + 1;
+                for (long i = start; i <= position; ++i) {
+                    this.statistic.add(valueAt(i));
+                }
+            } else {
+                this.statistic.remove(evicted);
+                this.statistic.add(value);
+            }
+        }
+    }
+
+
+    /**
+     * A rolling statistic that recomputes the statistic over the full window on each step
+     */
+    private static class Recompute extends RollingStatistic {
+
+        private Statistic1 statistic;
+
+        /**
+         * Constructor
+         * @param statistic     the statistic
+         * @param windowSize    the window size
+         */
+        Recompute(Statistic1 statistic, int windowSize) {
+            super(windowSize);
+            this.statistic = statistic;
+        }
+
+        @Override
+        public double getValue() {
+            return statistic.getValue();
+        }
+
+        @Override
+        void clear() {
+            this.statistic.reset();
+        }
+
+        @Override
+        void insert(double value, long position) {
+            this.statistic.add(value);
+        }
+
+        @Override
+        void slide(double evicted, double value, long position) {
+            this.statistic.reset();
+            final long start = position - getWindowSize() + 1;
+            for (long i = start; i <= position; ++i) {
+                this.statistic.add(valueAt(i));
+            }
+        }
+    }
+
+
+    /**
+     * A rolling min or max statistic that uses a monotonic deque of window positions
+     */
+    private static class Extreme extends RollingStatistic {
+
+        private int head;
+        private int size;
+        private boolean min;
+        private long[] deque;
+
+        /**
+         * Constructor
+         * @param windowSize    the window size
+         * @param min           true for rolling min, false for rolling max
+         */
+        Extreme(int windowSize, boolean min) {
+            super(windowSize);
+            this.min = min;
+            this.deque = new long[windowSize];
+        }
+
+        @Override
+        public double getValue() {
+            return size == 0 ? Double.NaN : valueAt(deque[head]);
+        }
+
+        @Override
+        void clear() {
+            this.head = 0;
+            this.size = 0;
+        }
+
+        @Override
+        void insert(double value, long position) {
+            this.slide(Double.NaN, value, position);
+        }
+
+        @Override
+        void slide(double evicted, double value, long position) {
+            final int capacity = deque.length;
+            final long expired = position - getWindowSize();
+            while (size > 0 && deque[head] <= expired) {
+                this.head = (head + 1) % capacity;
+                this.size--;
+            }
+            if (!Double.isNaN(value)) {
+                while (size > 0) {
+                    final double last = valueAt(deque[(head + size - 1) % capacity]);
+                    if (min ? last >= value : last <= value) {
+                        this.size--;
+                    } else {
+                        break;
+                    }
+                }
+                this.deque[(head + size) % capacity] = position;
+                this.size++;
+            }
+        }
+    }
+
+
+    /**
+     * A rolling percentile statistic that maintains the non-NaN window values in sorted order
+     */
+    private static class Ranked extends RollingStatistic {
+
+        private int size;
+        private double nth;
+        private double[] sorted;
+
+        /**
+         * Constructor
+         * @param windowSize    the window size
+         * @param nth           the percentile in the range 0 to 1
+         */
+        Ranked(int windowSize, double nth) {
+            super(windowSize);
+            this.nth = nth;
+            this.sorted = new double[windowSize];
+        }
+
+        /**
+         * Returns the value computed using the same R-7 estimation as the Percentile statistic
+         */
+        @Override
+        public double getValue() {
+            if (size == 0) {
+                return Double.NaN;
+            } else if (size == 1) {
+                return sorted[0];
+            } else {
+                final double pos = nth <= 0d ? 0d : nth >= 1d ? size : 1d + (size - 1d) * nth;
+                if (pos < 1d) {
+                    return sorted[0];
+                } else if (pos >= size) {
+                    return sorted[size - 1];
+                } else {
+                    final int index = (int)Math.floor(pos);
+                    final double dif = pos - index;
+                    final double lower = sorted[index - 1];
+                    final double upper = sorted[index];
+                    return lower + dif * (upper - lower);
+                }
+            }
+        }
+
+        @Override
+        void clear() {
+            this.size = 0;
+        }
+
+        @Override
+        void insert(double value, long position) {
+            if (!Double.isNaN(value)) {
+                final int index = Arrays.binarySearch(sorted, 0, size, value);
+                final int insertAt = index < 0 ? -index - 1 : index;
+                System.arraycopy(sorted, insertAt, sorted, insertAt + 1, size - insertAt);
+                this.sorted[insertAt] = value;
+                this.size++;
+            }
+        }
+
+        @Override
+        void slide(double evicted, double value, long position) {
+            if (!Double.isNaN(evicted)) {
+                final int index = Arrays.binarySearch(sorted, 0, size, evicted);
+                if (index >= 0) {
+                    System.arraycopy(sorted, index + 1, sorted, index, size - index - 1);
+                    this.size--;
+                }
+            }
+            this.insert(value, position);
+        }
+    }
+}
@@ -72,6 +72,29 @@ public class Skew implements Statistic1 {
         return n;
     }
 
+    @Override
+    public long remove(double value) {
+        if (n <= 1) {
+            this.reset();
+        } else {
+            final double prevM1 = (n * m1 - value) / (n - 1d);
+            final double dev = value - prevM1;
+            final double nDev = dev / n;
+            final double nDevSq = nDev * nDev;
+            final double prevM2 = m2 - (n - 1d) * dev * nDev;
+            this.m3 = m3 + 3d * nDev * prevM2 - (n - 1d) * (n - 2d) * nDevSq * dev;
+            this.m2 = prevM2;
+            this.m1 = prevM1;
+            this.n--;
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isRemovable() {
+        return true;
+    }
+
     @Override
     public Statistic1 copy() {
         try {
@@ -37,6 +37,25 @@ public interface Statistic1 extends Statistic {
      */
     long add(double value);
 
+    /**
+     * Removes a value previously added to the sample for this statistic, which allows a
+     * sliding window to be maintained without recomputing the statistic from scratch.
+     * @param value     the value to remove, which must have been previously added
+     * @return          the sample size after removing value
+     * @throws UnsupportedOperationException    if this statistic does not support removal
+     */
+    default long remove(double value) {
+        throw new UnsupportedOperationException("Statistic does not support removal of values: " + getType());
+    }
+
+    /**
+     * Returns true if this statistic supports removal of values via remove()
+     * @return  true if values can be removed from the sample of this statistic
+     */
+    default boolean isRemovable() {
+        return false;
+    }
+
     /**
      * Adds new values to the sample for this statistic.
      *
@@ -60,6 +60,20 @@ public class Sum implements Statistic1 {
         return n;
     }
 
+    @Override
+    public long remove(double value) {
+        if (!Double.isNaN(value)) {
+            this.sum -= value;
+            this.n--;
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isRemovable() {
+        return true;
+    }
+
     @Override
     public Statistic1 copy() {
         try {
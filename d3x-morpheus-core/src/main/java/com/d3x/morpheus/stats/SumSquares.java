@@ -58,6 +58,20 @@ public class SumSquares implements Statistic1 {
         return n;
     }
 
+    @Override
+    public long remove(double value) {
+        if (!Double.isNaN(value)) {
+            this.sumSquares -= (value * value);
+            this.n--;
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isRemovable() {
+        return true;
+    }
+
     @Override
     public Statistic1 copy() {
         try {
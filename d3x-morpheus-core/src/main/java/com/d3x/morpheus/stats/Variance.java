@@ -49,10 +49,12 @@ public class Variance implements Statistic1 {
         } else if (n == 1) {
             return 0d;
         } else {
+            //Clamp tiny negative second moments left by removals, which would otherwise yield NaN standard deviations
+            final double sumSq = Math.max(m2, 0d);
             if (biasCorrected) {
-                return m2 / (n - 1d);
+                return sumSq / (n - 1d);
             } else {
-                return m2 / n;
+                return sumSq / n;
             }
         }
     }
@@ -73,6 +75,25 @@ public class Variance implements Statistic1 {
         return n;
     }
 
+    @Override
+    public long remove(double value) {
+        if (!Double.isNaN(value)) {
+            if (n <= 1) {
+                this.reset();
+            } else {
+                final double dev = value - m1;
+                this.m1 -= dev / --n;
+                this.m2 -= dev * (value - m1);
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isRemovable() {
+        return true;
+    }
+
     @Override
     public Statistic1 copy() {
         try {
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A class that controls which ForkJoinPool executes the parallel operations of the Morpheus library.
+ *
+ * <p>By default, parallel operations run in the JVM wide common pool. A different default pool can be configured globally,
+ * and a pool can be scoped to the current thread with a context that is intended to be used in a try-with-resources
+ * block, so that independent workloads can run in isolated pools within the same JVM. Tasks that are already running
+ * in a ForkJoinPool, including nested parallel operations, continue to execute in that pool.</p>
+ *
+ * <pre>
+ *     try (ForkJoinContext context = ForkJoinContext.of(4)) {
+ *         frame.rows().parallel().groupBy("Sector");
+ *     }
+ * </pre>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class ForkJoinContext implements AutoCloseable {
+
+    private static volatile ForkJoinPool defaultPool;
+    private static final ThreadLocal<ForkJoinPool> threadPool = new ThreadLocal<>();
+
+    private ForkJoinPool pool;
+    private ForkJoinPool previous;
+    private boolean owner;
+    private boolean closed;
+
+    /**
+     * Constructor
+     * @param pool      the pool to scope to the current thread
+     * @param owner     true if this context owns the pool and should shut it down on close
+     */
+    private ForkJoinContext(ForkJoinPool pool, boolean owner) {
+        Asserts.notNull(pool, "The ForkJoinPool cannot be null");
+        this.pool = pool;
+        this.owner = owner;
+        this.previous = threadPool.get();
+        threadPool.set(pool);
+    }
+
+
+    /**
+     * Returns a context that scopes the pool specified to the current thread until closed
+     * @param pool  the pool for parallel operations initiated by the current thread
+     * @return      the newly created context, which should be closed by the same thread
+     */
+    public static ForkJoinContext of(ForkJoinPool pool) {
+        return new ForkJoinContext(pool, false);
+    }
+
+
+    /**
+     * Returns a context that scopes a dedicated pool with the parallelism specified to the current thread until closed
+     * The dedicated pool is shut down when the context is closed
+     * @param parallelism   the parallelism level for the dedicated pool
+     * @return              the newly created context, which should be closed by the same thread
+     */
+    public static ForkJoinContext of(int parallelism) {
+        Asserts.check(parallelism > 0, "The parallelism must be > 0");
+        return new ForkJoinContext(new ForkJoinPool(parallelism), true);
+    }
+
+
+    /**
+     * Sets the default pool for parallel operations, which applies to threads with no scoped context
+     * @param pool  the default pool, null to revert to the common pool
+     */
+    public static void setDefaultPool(ForkJoinPool pool) {
+        ForkJoinContext.defaultPool = pool;
+    }
+
+
+    /**
+     * Returns the pool that should execute parallel operations initiated by the current thread
+     * This is the pool of the current task if any, else the pool scoped to this thread, else the default pool
+     * @return  the pool for parallel operations
+     */
+    public static ForkJoinPool getPool() {
+        final ForkJoinPool scoped = threadPool.get();
+        if (ForkJoinTask.inForkJoinPool() && (scoped == null || ForkJoinTask.getPool() == scoped)) {
+            return ForkJoinTask.getPool();
+        } else if (scoped != null) {
+            return scoped;
+        } else {
+            final ForkJoinPool pool = defaultPool;
+            return pool != null ? pool : ForkJoinPool.commonPool();
+        }
+    }
+
+
+    /**
+     * Returns the parallelism of the pool for parallel operations initiated by the current thread
+     * The common pool reserves one processor for the submitting thread, so in that case the processor count is returned
+     * @return  the parallelism of the current pool
+     */
+    public static int getParallelism() {
+        final ForkJoinPool pool = getPool();
+        if (pool == ForkJoinPool.commonPool()) {
+            return Runtime.getRuntime().availableProcessors();
+        } else {
+            return pool.getParallelism();
+        }
+    }
+
+
+    /**
+     * Returns a split threshold that divides the count specified evenly across the parallelism of the current pool
+     * @param count     the number of items to process
+     * @param minimum   the minimum threshold to avoid excessive splitting of small jobs
+     * @return          the threshold above which a task should split
+     */
+    public static int getSplitThreshold(int count, int minimum) {
+        return Math.max(count / getParallelism(), minimum);
+    }
+
+
+    /**
+     * Invokes the task in the current pool, waiting for its completion
+     * @param task  the task to invoke
+     * @param <T>   the result type
+     * @return      the task result
+     */
+    public static <T> T invoke(ForkJoinTask<T> task) {
+        return getPool().invoke(task);
+    }
+
+
+    /**
+     * Returns the pool scoped by this context
+     * @return  the pool scoped by this context
+     */
+    public ForkJoinPool pool() {
+        return pool;
+    }
+
+
+    @Override
+    public void close() {
+        if (!closed) {
+            this.closed = true;
+            if (previous != null) {
+                threadPool.set(previous);
+            } else {
+                threadPool.remove();
+            }
+            if (owner) {
+                pool.shutdown();
+            }
+        }
+    }
+}
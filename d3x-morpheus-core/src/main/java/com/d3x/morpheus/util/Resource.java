@@ -20,14 +20,21 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 
+import com.d3x.morpheus.util.compress.Compression;
+
 /**
  * A simple wrapper class that can be used to carry a resource such as a File, URL, Input or Output stream.
  *
+ * <p>Content is transparently compressed and decompressed with the codec implied by the file or URL extension, or the
+ * codec explicitly assigned with <code>withCompression()</code>. When reading, GZIP and LZ content is also detected from
+ * the leading bytes, so compressed streams and files without a recognized extension can be read as is.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author  Xavier Witdouck
@@ -38,13 +45,24 @@ public class Resource {
 
     private Type type;
     private Object target;
+    private Compression compression;
 
     /**
      * Constructor
      * @param target     the resource target
      */
     private Resource(Object target) {
+        this(target, null);
+    }
+
+    /**
+     * Constructor
+     * @param target        the resource target
+     * @param compression   the compression for content, null to resolve from extension or content
+     */
+    private Resource(Object target, Compression compression) {
         this.target = target;
+        this.compression = compression;
         if (target == null) {
             throw new IllegalArgumentException("The resource target cannot be null");
         } else if (target instanceof File) {
@@ -147,6 +165,44 @@ public class Resource {
         }
     }
 
+    /**
+     * Returns a copy of this resource that uses the compression specified for content
+     * @param compression   the compression for content, null to resolve from extension or content
+     * @return              the newly created resource wrapper
+     */
+    public Resource withCompression(Compression compression) {
+        return new Resource(target, compression);
+    }
+
+    /**
+     * Returns the compression of content for this resource
+     * This is the explicitly assigned compression if any, else the compression implied by the file or URL extension,
+     * else the compression detected from the leading bytes of an existing file. Streams are only inspected when read.
+     * @return  the compression of content
+     */
+    public Compression getCompression() {
+        if (compression != null) {
+            return compression;
+        } else if (isFile()) {
+            final File file = asFile();
+            final Compression named = Compression.of(file.getName());
+            if (named != Compression.NONE || !file.isFile()) {
+                return named;
+            } else {
+                try (InputStream is = new FileInputStream(file)) {
+                    final byte[] header = new byte[4];
+                    return Compression.detect(header, is.readNBytes(header, 0, header.length));
+                } catch (IOException ex) {
+                    throw new RuntimeException("Failed to read header of file: " + file.getAbsolutePath(), ex);
+                }
+            }
+        } else if (isUrl()) {
+            return Compression.of(asURL().getPath());
+        } else {
+            return Compression.NONE;
+        }
+    }
+
     /**
      * Returns the resource type
      * @return  the resource type
@@ -216,14 +272,20 @@ public class Resource {
         return (InputStream) target;
     }
 
+    /**
+     * Returns an InputStream to read the content of this resource, decompressing content if necessary
+     * @return  the input stream for resource content
+     */
     public InputStream toInputStream() {
         try {
             if (isInputStream()) {
-                return (InputStream)target;
+                return decode((InputStream)target, null);
             } else if (isFile()) {
-                return new BufferedInputStream(new FileInputStream((File)target));
+                final File file = asFile();
+                return decode(new BufferedInputStream(new FileInputStream(file)), file.getName());
             } else if (isUrl()) {
-                return new BufferedInputStream(((URL) target).openStream());
+                final URL url = asURL();
+                return decode(new BufferedInputStream(url.openStream()), url.getPath());
             } else {
                 throw new RuntimeException("Cannot create InputStream from resource target:" + target);
             }
@@ -235,7 +297,24 @@ public class Resource {
     }
 
     /**
-     * Returns the resource as a OutputStream
+     * Returns a stream that decompresses the content of the stream specified with the compression for this resource
+     * @param is    the input stream with content of this resource
+     * @param name  the file name or path of content, null if not applicable
+     * @return      the input stream for content
+     * @throws IOException  if there is an I/O error
+     */
+    public InputStream decode(InputStream is, String name) throws IOException {
+        final Compression named = compression != null ? compression : Compression.of(name);
+        if (named != Compression.NONE) {
+            return named.decode(is);
+        } else {
+            final InputStream buffered = is.markSupported() ? is : new BufferedInputStream(is);
+            return Compression.detect(buffered).decode(buffered);
+        }
+    }
+
+    /**
+     * Returns the resource as a OutputStream, compressing content if necessary
      * @return  the output stream reference
      * @throws java.lang.ClassCastException if the resource is not of this type
      */
@@ -243,12 +322,16 @@ public class Resource {
         try {
             if (target instanceof OutputStream) {
                 final OutputStream os = getTarget();
-                return os instanceof BufferedOutputStream ? os : new BufferedOutputStream(os);
+                final OutputStream buffered = os instanceof BufferedOutputStream ? os : new BufferedOutputStream(os);
+                return compression != null ? compression.encode(buffered) : buffered;
             } else if (isFile()) {
                 final File file = getTarget();
                 final File dir = file.getParentFile();
                 final boolean failed = dir != null && !dir.exists() && !dir.mkdirs();
-                if (!failed) return new BufferedOutputStream(new FileOutputStream(file));
+                if (!failed) {
+                    final Compression named = compression != null ? compression : Compression.of(file.getName());
+                    return named.encode(new BufferedOutputStream(new FileOutputStream(file)));
+                }
                 throw new RuntimeException("Failed to create output directory for: " + file.getAbsolutePath());
             } else if (isUrl() && getTarget().toString().startsWith("http")) {
                 final URL url = getTarget();
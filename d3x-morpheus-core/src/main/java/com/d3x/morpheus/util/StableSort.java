@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Stable sorts that compute a permutation of int values, either by primitive keys using an LSD radix sort, or by comparator using a merge sort
+ *
+ * <p>These are used when sorting DataFrames by column or row values, where the values being permuted are the ordinals of an Index.
+ * The radix sort operates on long keys that compare as unsigned values, so int, long and double values must first be mapped to
+ * such keys with one of the <code>toKey()</code> functions, and keys can simply be complemented to sort in descending order.
+ * Both sorts are stable, so sorting by several keys from the least to the most significant yields a multi-key sort.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public final class StableSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX_SIZE = 1 << RADIX_BITS;
+    private static final int RADIX_PASSES = Long.SIZE / RADIX_BITS;
+    private static final int RADIX_INSERTION_THRESHOLD = 64;
+    private static final int MERGE_INSERTION_THRESHOLD = 32;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Private constructor for static utility class
+     */
+    private StableSort() {
+        super();
+    }
+
+
+    /**
+     * Returns a radix sort key for an int value, which compares as unsigned in the same order as the int values
+     * @param value the int value
+     * @return      the radix sort key
+     */
+    public static long toKey(int value) {
+        return (long)value ^ Long.MIN_VALUE;
+    }
+
+
+    /**
+     * Returns a radix sort key for a long value, which compares as unsigned in the same order as the long values
+     * @param value the long value
+     * @return      the radix sort key
+     */
+    public static long toKey(long value) {
+        return value ^ Long.MIN_VALUE;
+    }
+
+
+    /**
+     * Returns a radix sort key for a double value, which compares as unsigned in the same order as <code>Double.compare()</code>
+     * @param value the double value
+     * @return      the radix sort key
+     */
+    public static long toKey(double value) {
+        final long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+
+    /**
+     * Sorts the keys in ascending unsigned order using a stable LSD radix sort, applying the same permutation to the values
+     * Byte positions that are the same across all keys are skipped, so keys that span a narrow range only take a few passes.
+     * @param keys      the keys to sort, which are sorted in place
+     * @param values    the values to permute along with the keys, of the same length as keys
+     * @param parallel  true to compute histograms and scatter values in parallel
+     */
+    public static void radix(long[] keys, int[] values, boolean parallel) {
+        final int length = keys.length;
+        if (values.length != length) {
+            throw new IllegalArgumentException("The keys and values must have the same length: " + length + " != " + values.length);
+        } else if (length < RADIX_INSERTION_THRESHOLD) {
+            insertion(keys, values, 0, length);
+        } else {
+            final boolean fork = parallel && length >= PARALLEL_THRESHOLD;
+            final int chunks = fork ? Math.max(1, Math.min(ForkJoinContext.getParallelism() * 4, length / (PARALLEL_THRESHOLD / 4))) : 1;
+            final int chunkSize = (length + chunks - 1) / chunks;
+            final int[][][] counts = new int[chunks][RADIX_PASSES][RADIX_SIZE];
+            forEachChunk(chunks, fork, chunk -> {
+                final int from = chunk * chunkSize;
+                final int to = Math.min(length, from + chunkSize);
+                final int[][] histograms = counts[chunk];
+                for (int i = from; i < to; ++i) {
+                    final long key = keys[i];
+                    for (int pass = 0; pass < RADIX_PASSES; ++pass) {
+                        histograms[pass][(int)(key >>> (pass * RADIX_BITS)) & (RADIX_SIZE - 1)]++;
+                    }
+                }
+            });
+            long[] srcKeys = keys, dstKeys = new long[length];
+            int[] srcValues = values, dstValues = new int[length];
+            final int[][] offsets = new int[chunks][RADIX_SIZE];
+            boolean permuted = false;
+            for (int pass = 0; pass < RADIX_PASSES; ++pass) {
+                if (!isConstant(counts, pass, length)) {
+                    final int shift = pass * RADIX_BITS;
+                    final long[] inKeys = srcKeys, outKeys = dstKeys;
+                    final int[] inValues = srcValues, outValues = dstValues;
+                    if (chunks > 1 && permuted) {
+                        final int index = pass;
+                        forEachChunk(chunks, true, chunk -> {
+                            final int from = chunk * chunkSize;
+                            final int to = Math.min(length, from + chunkSize);
+                            final int[] histogram = counts[chunk][index];
+                            Arrays.fill(histogram, 0);
+                            for (int i = from; i < to; ++i) {
+                                histogram[(int)(inKeys[i] >>> shift) & (RADIX_SIZE - 1)]++;
+                            }
+                        });
+                    }
+                    prepare(counts, pass, offsets);
+                    forEachChunk(chunks, fork, chunk -> {
+                        final int from = chunk * chunkSize;
+                        final int to = Math.min(length, from + chunkSize);
+                        final int[] offset = offsets[chunk];
+                        for (int i = from; i < to; ++i) {
+                            final long key = inKeys[i];
+                            final int target = offset[(int)(key >>> shift) & (RADIX_SIZE - 1)]++;
+                            outKeys[target] = key;
+                            outValues[target] = inValues[i];
+                        }
+                    });
+                    permuted = true;
+                    srcKeys = outKeys; dstKeys = inKeys;
+                    srcValues = outValues; dstValues = inValues;
+                }
+            }
+            if (srcKeys != keys) {
+                System.arraycopy(srcKeys, 0, keys, 0, length);
+                System.arraycopy(srcValues, 0, values, 0, length);
+            }
+        }
+    }
+
+
+    /**
+     * Sorts the values by the comparator provided using a stable merge sort, which forks sub-sorts if parallel
+     * @param values        the values to sort in place
+     * @param comparator    the comparator that compares values
+     * @param parallel      true to sort in parallel
+     */
+    public static void merge(int[] values, IntComparator comparator, boolean parallel) {
+        final int[] buffer = values.clone();
+        if (parallel && values.length >= PARALLEL_THRESHOLD) {
+            ForkJoinContext.invoke(new MergeSort(buffer, values, 0, values.length, comparator));
+        } else {
+            mergeSort(buffer, values, 0, values.length, comparator);
+        }
+    }
+
+
+    /**
+     * Returns true if all keys share the same digit for the radix pass specified, in which case the pass can be skipped
+     * The per chunk histograms of the original keys are used, since the totals per digit do not change between passes.
+     * @param counts    the histograms per chunk per pass
+     * @param pass      the pass index
+     * @param length    the number of keys
+     * @return          true if all keys have the same digit for pass
+     */
+    private static boolean isConstant(int[][][] counts, int pass, int length) {
+        for (int digit = 0; digit < RADIX_SIZE; ++digit) {
+            var count = 0;
+            for (int[][] chunk : counts) {
+                count += chunk[pass][digit];
+            }
+            if (count == length) {
+                return true;
+            } else if (count > 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Computes the scatter offsets of each chunk for the radix pass specified, ordering chunks within a digit for stability
+     * @param counts    the histograms per chunk per pass, which must reflect the current order of keys for pass
+     * @param pass      the pass index
+     * @param offsets   the offsets per chunk to populate
+     */
+    private static void prepare(int[][][] counts, int pass, int[][] offsets) {
+        var total = 0;
+        for (int digit = 0; digit < RADIX_SIZE; ++digit) {
+            for (int chunk = 0; chunk < counts.length; ++chunk) {
+                offsets[chunk][digit] = total;
+                total += counts[chunk][pass][digit];
+            }
+        }
+    }
+
+
+    /**
+     * Runs the consumer for each chunk index, forking a task per chunk if parallel
+     * @param chunks    the number of chunks
+     * @param parallel  true to run chunks in parallel
+     * @param consumer  the consumer to receive the chunk index
+     */
+    private static void forEachChunk(int chunks, boolean parallel, IntConsumer consumer) {
+        if (parallel && chunks > 1) {
+            ForkJoinContext.invoke(new ChunkTask(0, chunks, consumer));
+        } else {
+            for (int chunk = 0; chunk < chunks; ++chunk) {
+                consumer.accept(chunk);
+            }
+        }
+    }
+
+
+    /**
+     * Sorts a small range of keys and values with a stable insertion sort
+     * @param keys      the keys to sort
+     * @param values    the values to permute along with keys
+     * @param from      the from index, inclusive
+     * @param to        the to index, exclusive
+     */
+    private static void insertion(long[] keys, int[] values, int from, int to) {
+        for (int i = from + 1; i < to; ++i) {
+            final long key = keys[i];
+            final int value = values[i];
+            int j = i - 1;
+            while (j >= from && Long.compareUnsigned(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                --j;
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+        }
+    }
+
+
+    /**
+     * Merge sorts the source range into the target range, using the target as scratch space for the source and vice versa
+     * Both arrays must hold the same values in the range on entry, and the sorted values end up in the target.
+     * @param source        the source array
+     * @param target        the target array
+     * @param from          the from index, inclusive
+     * @param to            the to index, exclusive
+     * @param comparator    the comparator for values
+     */
+    private static void mergeSort(int[] source, int[] target, int from, int to, IntComparator comparator) {
+        final int length = to - from;
+        if (length < MERGE_INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; ++i) {
+                final int value = target[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(target[j], value) > 0) {
+                    target[j + 1] = target[j];
+                    --j;
+                }
+                target[j + 1] = value;
+            }
+        } else {
+            final int mid = (from + to) >>> 1;
+            mergeSort(target, source, from, mid, comparator);
+            mergeSort(target, source, mid, to, comparator);
+            mergeHalves(source, target, from, mid, to, comparator);
+        }
+    }
+
+
+    /**
+     * Merges the two sorted halves of the source range into the target, taking from the left half on ties for stability
+     * @param source        the source with sorted halves
+     * @param target        the target for merged values
+     * @param from          the from index of the left half, inclusive
+     * @param mid           the from index of the right half, inclusive
+     * @param to            the to index of the right half, exclusive
+     * @param comparator    the comparator for values
+     */
+    private static void mergeHalves(int[] source, int[] target, int from, int mid, int to, IntComparator comparator) {
+        if (comparator.compare(source[mid - 1], source[mid]) <= 0) {
+            System.arraycopy(source, from, target, from, to - from);
+        } else {
+            int i = from, j = mid, k = from;
+            while (i < mid && j < to) {
+                target[k++] = comparator.compare(source[j], source[i]) < 0 ? source[j++] : source[i++];
+            }
+            while (i < mid) target[k++] = source[i++];
+            while (j < to) target[k++] = source[j++];
+        }
+    }
+
+
+    /**
+     * A RecursiveAction that runs a consumer for a range of chunk indexes, splitting until there is one chunk per task
+     */
+    private static class ChunkTask extends RecursiveAction {
+
+        private int from;
+        private int to;
+        private IntConsumer consumer;
+
+        /**
+         * Constructor
+         * @param from      the from chunk index, inclusive
+         * @param to        the to chunk index, exclusive
+         * @param consumer  the consumer to receive chunk indexes
+         */
+        ChunkTask(int from, int to, IntConsumer consumer) {
+            this.from = from;
+            this.to = to;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                consumer.accept(from);
+            } else {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(from, mid, consumer), new ChunkTask(mid, to, consumer));
+            }
+        }
+    }
+
+
+    /**
+     * A RecursiveAction that merge sorts halves of a range in parallel, and then merges the two halves
+     */
+    private static class MergeSort extends RecursiveAction {
+
+        private int[] source;
+        private int[] target;
+        private int from;
+        private int to;
+        private IntComparator comparator;
+
+        /**
+         * Constructor
+         * @param source        the source array
+         * @param target        the target array
+         * @param from          the from index, inclusive
+         * @param to            the to index, exclusive
+         * @param comparator    the comparator for values
+         */
+        MergeSort(int[] source, int[] target, int from, int to, IntComparator comparator) {
+            this.source = source;
+            this.target = target;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator.copy();
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < PARALLEL_THRESHOLD / 4) {
+                mergeSort(source, target, from, to, comparator);
+            } else {
+                final int mid = (from + to) >>> 1;
+                invokeAll(
+                    new MergeSort(target, source, from, mid, comparator),
+                    new MergeSort(target, source, mid, to, comparator)
+                );
+                mergeHalves(source, target, from, mid, to, comparator);
+            }
+        }
+    }
+}
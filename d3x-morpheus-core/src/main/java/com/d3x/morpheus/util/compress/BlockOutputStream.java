@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.RecursiveAction;
+
+import com.d3x.morpheus.util.Asserts;
+import com.d3x.morpheus.util.ForkJoinContext;
+
+/**
+ * A base class for compressing output streams that buffer content into fixed size blocks and encode a batch of blocks in parallel
+ *
+ * <p>Blocks are encoded in the ForkJoinPool of the current ForkJoinContext, and written to the underlying stream in order.
+ * Each block is given the raw content of the block that precedes it, so that codecs can use it as a dictionary. Content
+ * is only encoded once a batch of blocks is full or the stream is closed, so calling flush() does not emit partial
+ * blocks, which is consistent with the default behaviour of the JDK deflater streams.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+abstract class BlockOutputStream extends OutputStream {
+
+    static final int DEFAULT_BLOCK_SIZE = 1024 * 256;
+
+    private OutputStream out;
+    private int blockSize;
+    private int index;
+    private int position;
+    private byte[][] blocks;
+    private int[] lengths;
+    private byte[][] encoded;
+    private byte[] prior;
+    private int priorLength;
+    private boolean started;
+    private boolean closed;
+
+
+    /**
+     * Constructor
+     * @param out           the underlying output stream
+     * @param blockSize     the size of each block in bytes
+     * @param batchSize     the number of blocks to encode in parallel
+     * @param priorSize     the number of bytes of the preceding block to retain across batches, zero if not used
+     */
+    BlockOutputStream(OutputStream out, int blockSize, int batchSize, int priorSize) {
+        Asserts.notNull(out, "The output stream cannot be null");
+        Asserts.check(blockSize > 0, "The block size must be > 0");
+        Asserts.check(batchSize > 0, "The batch size must be > 0");
+        this.out = out;
+        this.blockSize = blockSize;
+        this.blocks = new byte[batchSize][];
+        this.lengths = new int[batchSize];
+        this.encoded = new byte[batchSize][];
+        this.prior = new byte[Math.min(priorSize, blockSize)];
+    }
+
+
+    /**
+     * Writes the stream header to the underlying stream
+     * @param out   the underlying stream
+     * @throws IOException  if there is an I/O error
+     */
+    abstract void writeHeader(OutputStream out) throws IOException;
+
+
+    /**
+     * Updates any checksum with the raw content of a block, which is called in block order before encoding
+     * @param block     the block content
+     * @param length    the block length
+     */
+    abstract void update(byte[] block, int length);
+
+
+    /**
+     * Returns the encoded form of a block, which may be called concurrently for different blocks
+     * @param block         the block content
+     * @param length        the block length
+     * @param prior         the content of the preceding block
+     * @param priorLength   the length of the preceding block content, zero for the first block
+     * @param last          true if this is the last block of the stream
+     * @return              the encoded block
+     */
+    abstract byte[] encode(byte[] block, int length, byte[] prior, int priorLength, boolean last);
+
+
+    /**
+     * Writes the stream trailer to the underlying stream
+     * @param out   the underlying stream
+     * @throws IOException  if there is an I/O error
+     */
+    abstract void writeTrailer(OutputStream out) throws IOException;
+
+
+    @Override
+    public void write(int b) throws IOException {
+        this.write(new byte[] {(byte)b}, 0, 1);
+    }
+
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("The output stream has been closed");
+        } else {
+            while (length > 0) {
+                if (blocks[index] == null) {
+                    this.blocks[index] = new byte[blockSize];
+                }
+                var count = Math.min(length, blockSize - position);
+                System.arraycopy(bytes, offset, blocks[index], position, count);
+                this.position += count;
+                offset += count;
+                length -= count;
+                if (position == blockSize) {
+                    this.lengths[index++] = position;
+                    this.position = 0;
+                    if (index == blocks.length) {
+                        this.writeBatch(false);
+                    }
+                }
+            }
+        }
+    }
+
+
+    @Override
+    public void flush() throws IOException {
+        if (!closed) {
+            this.out.flush();
+        }
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                if (position > 0) {
+                    this.lengths[index++] = position;
+                    this.position = 0;
+                }
+                this.writeBatch(true);
+                this.writeTrailer(out);
+                this.out.flush();
+            } finally {
+                this.closed = true;
+                this.out.close();
+            }
+        }
+    }
+
+
+    /**
+     * Encodes the full blocks of the current batch in parallel and writes them to the underlying stream in order
+     * @param last  true if this is the last batch of the stream
+     * @throws IOException  if there is an I/O error
+     */
+    private void writeBatch(boolean last) throws IOException {
+        if (!started) {
+            this.started = true;
+            this.writeHeader(out);
+        }
+        if (index == 0 && last) {
+            this.blocks[0] = blocks[0] != null ? blocks[0] : new byte[0];
+            this.lengths[0] = 0;
+            this.index = 1;
+        }
+        for (int i=0; i<index; ++i) {
+            this.update(blocks[i], lengths[i]);
+        }
+        if (index == 1) {
+            this.encoded[0] = encode(blocks[0], lengths[0], prior, priorLength, last);
+        } else {
+            ForkJoinContext.invoke(new EncodeTask(0, index, last));
+        }
+        for (int i=0; i<index; ++i) {
+            this.out.write(encoded[i]);
+            this.encoded[i] = null;
+        }
+        if (prior.length > 0) {
+            var length = lengths[index - 1];
+            this.priorLength = Math.min(prior.length, length);
+            System.arraycopy(blocks[index - 1], length - priorLength, prior, 0, priorLength);
+        }
+        this.index = 0;
+    }
+
+
+    /**
+     * A task that encodes a range of blocks in the current batch
+     */
+    private class EncodeTask extends RecursiveAction {
+
+        private int from;
+        private int to;
+        private boolean last;
+
+        /**
+         * Constructor
+         * @param from  the first block index, inclusive
+         * @param to    the last block index, exclusive
+         * @param last  true if the batch is the last batch of the stream
+         */
+        EncodeTask(int from, int to, boolean last) {
+            this.from = from;
+            this.to = to;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                var isLast = last && from == index - 1;
+                var priorBlock = from > 0 ? blocks[from - 1] : prior;
+                var priorBlockLength = from > 0 ? lengths[from - 1] : priorLength;
+                encoded[from] = encode(blocks[from], lengths[from], priorBlock, priorBlockLength, isLast);
+            } else {
+                var split = from + (to - from) / 2;
+                invokeAll(new EncodeTask(from, split, last), new EncodeTask(split, to, last));
+            }
+        }
+    }
+}
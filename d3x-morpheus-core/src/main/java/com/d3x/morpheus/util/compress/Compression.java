@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.compress;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.d3x.morpheus.util.ForkJoinContext;
+
+/**
+ * An enum of the compression codecs that can be applied transparently to the content of a Resource
+ *
+ * <p>The GZIP and DEFLATE (ZLIB) codecs produce standard streams, and LZ is a faster pure Java block codec that favours
+ * speed over ratio. All codecs compress blocks in parallel on write using the ForkJoinPool of the current ForkJoinContext.
+ * A codec can be resolved from a file extension, or detected from the leading bytes of content for GZIP and LZ.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public enum Compression {
+
+    NONE(),
+    GZIP(".gz", ".gzip"),
+    DEFLATE(".deflate", ".zz"),
+    LZ(".mlz");
+
+    private static final int BUFFER_SIZE = 1024 * 64;
+
+    private String[] extensions;
+
+    /**
+     * Constructor
+     * @param extensions    the file extensions associated with this codec
+     */
+    Compression(String... extensions) {
+        this.extensions = extensions;
+    }
+
+
+    /**
+     * Returns the codec implied by the extension of a file name or path, NONE if no match
+     * @param name  the file name or path
+     * @return      the matching codec
+     */
+    public static Compression of(String name) {
+        if (name != null) {
+            var lower = name.toLowerCase();
+            for (Compression compression : values()) {
+                for (String extension : compression.extensions) {
+                    if (lower.endsWith(extension)) {
+                        return compression;
+                    }
+                }
+            }
+        }
+        return NONE;
+    }
+
+
+    /**
+     * Returns the codec detected from the leading bytes of content, NONE if no GZIP or LZ magic number is present
+     * @param header    the leading bytes of content
+     * @param length    the number of valid leading bytes
+     * @return          the detected codec
+     */
+    public static Compression detect(byte[] header, int length) {
+        if (length >= 2 && (header[0] & 0xFF) == 0x1f && (header[1] & 0xFF) == 0x8b) {
+            return GZIP;
+        } else if (length >= LZOutputStream.MAGIC.length) {
+            for (int i=0; i<LZOutputStream.MAGIC.length; ++i) {
+                if (header[i] != LZOutputStream.MAGIC[i]) {
+                    return NONE;
+                }
+            }
+            return LZ;
+        } else {
+            return NONE;
+        }
+    }
+
+
+    /**
+     * Returns the codec detected from the leading bytes of the stream, which must support mark and reset
+     * @param is    the input stream, which is reset to its original position
+     * @return      the detected codec
+     * @throws IOException  if there is an I/O error
+     */
+    public static Compression detect(InputStream is) throws IOException {
+        var header = new byte[4];
+        is.mark(header.length);
+        try {
+            var length = 0;
+            while (length < header.length) {
+                var count = is.read(header, length, header.length - length);
+                if (count < 0) break;
+                length += count;
+            }
+            return detect(header, length);
+        } finally {
+            is.reset();
+        }
+    }
+
+
+    /**
+     * Returns a stream that decompresses the content of the stream specified with this codec
+     * @param is    the compressed input stream
+     * @return      the decompressing input stream
+     * @throws IOException  if there is an I/O error
+     */
+    public InputStream decode(InputStream is) throws IOException {
+        switch (this) {
+            case NONE:      return is;
+            case GZIP:      return new BufferedInputStream(new GZIPInputStream(is, BUFFER_SIZE), BUFFER_SIZE);
+            case DEFLATE:   return new BufferedInputStream(new InflaterInputStream(is), BUFFER_SIZE);
+            case LZ:        return new LZInputStream(is);
+            default:    throw new IllegalStateException("Unsupported compression: " + this);
+        }
+    }
+
+
+    /**
+     * Returns a stream that compresses content written to it with this codec, encoding blocks in parallel
+     * @param os    the underlying output stream
+     * @return      the compressing output stream
+     */
+    public OutputStream encode(OutputStream os) {
+        return encode(os, BlockOutputStream.DEFAULT_BLOCK_SIZE, ForkJoinContext.getParallelism());
+    }
+
+
+    /**
+     * Returns a stream that compresses content written to it with this codec, encoding blocks in parallel
+     * @param os            the underlying output stream
+     * @param blockSize     the size of blocks in bytes
+     * @param batchSize     the number of blocks to encode in parallel
+     * @return              the compressing output stream
+     */
+    public OutputStream encode(OutputStream os, int blockSize, int batchSize) {
+        switch (this) {
+            case NONE:      return os;
+            case GZIP:      return new DeflateOutputStream(os, true, Deflater.DEFAULT_COMPRESSION, blockSize, batchSize);
+            case DEFLATE:   return new DeflateOutputStream(os, false, Deflater.DEFAULT_COMPRESSION, blockSize, batchSize);
+            case LZ:        return new LZOutputStream(os, blockSize, batchSize);
+            default:    throw new IllegalStateException("Unsupported compression: " + this);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.Deflater;
+
+/**
+ * An output stream that writes GZIP or ZLIB content by deflating blocks in parallel
+ *
+ * <p>Each block is deflated independently using the last 32KB of the preceding block as a preset dictionary, and all
+ * but the last block end with a sync flush so that the blocks concatenate into a single deflate stream. The output is
+ * therefore a standard single member GZIP or ZLIB stream that can be read by any compliant decoder, while the ratio is
+ * very close to that of a sequential deflater.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class DeflateOutputStream extends BlockOutputStream {
+
+    private static final int DICTIONARY_SIZE = 1024 * 32;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte)0xff};
+    private static final byte[] ZLIB_HEADER = {0x78, (byte)0x9c};
+
+    private int level;
+    private boolean gzip;
+    private long size;
+    private Checksum checksum;
+
+
+    /**
+     * Constructor
+     * @param out           the underlying output stream
+     * @param gzip          true for GZIP format, false for ZLIB format
+     * @param level         the deflater compression level
+     * @param blockSize     the size of each block in bytes
+     * @param batchSize     the number of blocks to deflate in parallel
+     */
+    DeflateOutputStream(OutputStream out, boolean gzip, int level, int blockSize, int batchSize) {
+        super(out, blockSize, batchSize, DICTIONARY_SIZE);
+        this.gzip = gzip;
+        this.level = level;
+        this.checksum = gzip ? new CRC32() : new Adler32();
+    }
+
+
+    @Override
+    void writeHeader(OutputStream out) throws IOException {
+        out.write(gzip ? GZIP_HEADER : ZLIB_HEADER);
+    }
+
+
+    @Override
+    void update(byte[] block, int length) {
+        this.checksum.update(block, 0, length);
+        this.size += length;
+    }
+
+
+    @Override
+    byte[] encode(byte[] block, int length, byte[] prior, int priorLength, boolean last) {
+        var deflater = new Deflater(level, true);
+        try {
+            if (priorLength > 0) {
+                var dictionaryLength = Math.min(DICTIONARY_SIZE, priorLength);
+                deflater.setDictionary(prior, priorLength - dictionaryLength, dictionaryLength);
+            }
+            deflater.setInput(block, 0, length);
+            var buffer = new byte[Math.max(1024, length / 4)];
+            var result = new ByteArrayOutputStream(buffer.length);
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    var count = deflater.deflate(buffer);
+                    result.write(buffer, 0, count);
+                }
+            } else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    result.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            return result.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+
+    @Override
+    void writeTrailer(OutputStream out) throws IOException {
+        var value = checksum.getValue();
+        if (gzip) {
+            writeIntLE(out, (int)value);
+            writeIntLE(out, (int)size);
+        } else {
+            out.write((int)(value >>> 24));
+            out.write((int)(value >>> 16));
+            out.write((int)(value >>> 8));
+            out.write((int)value);
+        }
+    }
+
+
+    /**
+     * Writes an int in little endian byte order
+     * @param out   the output stream
+     * @param value the value to write
+     * @throws IOException  if there is an I/O error
+     */
+    private static void writeIntLE(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.compress;
+
+import java.io.IOException;
+
+/**
+ * A pure Java implementation of a fast LZ77 block codec that uses the sequence layout of the LZ4 block format
+ *
+ * <p>Each sequence consists of a token byte holding the literal length in the high nibble and the match length less
+ * four in the low nibble, optional length extension bytes, the literals, and a two byte little endian match offset.
+ * The final sequence of a block only contains literals. Matches are found with a single probe hash table, which trades
+ * some compression ratio for speed, and incompressible input is skipped over progressively faster.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+final class LZCodec {
+
+    private static final int MIN_MATCH = 4;
+    private static final int HASH_LOG = 14;
+    private static final int MAX_OFFSET = 65535;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int SKIP_TRIGGER = 6;
+
+
+    /**
+     * Private constructor
+     */
+    private LZCodec() {
+        super();
+    }
+
+
+    /**
+     * Returns the maximum compressed length for an input of the length specified
+     * @param length    the input length
+     * @return          the maximum compressed length
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+
+    /**
+     * Compresses the source bytes into the destination buffer
+     * @param src       the source bytes
+     * @param srcOff    the offset into source
+     * @param srcLen    the number of source bytes
+     * @param dst       the destination buffer, which must have at least maxCompressedLength() bytes from offset
+     * @param dstOff    the offset into destination
+     * @return          the number of compressed bytes written to destination
+     */
+    static int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+        var srcEnd = srcOff + srcLen;
+        var matchLimit = srcEnd - LAST_LITERALS;
+        var findLimit = srcEnd - MATCH_FIND_LIMIT;
+        var table = new int[1 << HASH_LOG];
+        var anchor = srcOff;
+        var sp = srcOff;
+        var dp = dstOff;
+        while (sp < findLimit) {
+            var sequence = readInt(src, sp);
+            var hash = hash(sequence);
+            var ref = table[hash] + srcOff - 1;
+            table[hash] = sp - srcOff + 1;
+            if (ref < srcOff || sp - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                sp += 1 + ((sp - anchor) >>> SKIP_TRIGGER);
+            } else {
+                while (sp > anchor && ref > srcOff && src[sp - 1] == src[ref - 1]) {
+                    --sp;
+                    --ref;
+                }
+                var length = MIN_MATCH;
+                while (sp + length < matchLimit && src[sp + length] == src[ref + length]) {
+                    ++length;
+                }
+                dp = writeSequence(src, anchor, sp - anchor, sp - ref, length, dst, dp);
+                sp += length;
+                anchor = sp;
+                if (sp < findLimit) {
+                    table[hash(readInt(src, sp - 2))] = sp - 2 - srcOff + 1;
+                }
+            }
+        }
+        dp = writeSequence(src, anchor, srcEnd - anchor, 0, 0, dst, dp);
+        return dp - dstOff;
+    }
+
+
+    /**
+     * Decompresses the source bytes into the destination buffer
+     * @param src       the compressed bytes
+     * @param srcOff    the offset into source
+     * @param srcLen    the number of compressed bytes
+     * @param dst       the destination buffer
+     * @param dstOff    the offset into destination
+     * @param dstLen    the expected number of decompressed bytes
+     * @throws IOException  if the compressed bytes are corrupt
+     */
+    static void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) throws IOException {
+        try {
+            var srcEnd = srcOff + srcLen;
+            var dstEnd = dstOff + dstLen;
+            var sp = srcOff;
+            var dp = dstOff;
+            while (sp < srcEnd) {
+                var token = src[sp++] & 0xFF;
+                var literals = token >>> 4;
+                if (literals == 15) {
+                    int next;
+                    do {
+                        next = src[sp++] & 0xFF;
+                        literals += next;
+                    } while (next == 255);
+                }
+                if (sp + literals > srcEnd || dp + literals > dstEnd) {
+                    throw new IOException("Corrupt LZ block, literals exceed bounds");
+                }
+                System.arraycopy(src, sp, dst, dp, literals);
+                sp += literals;
+                dp += literals;
+                if (sp < srcEnd) {
+                    var offset = (src[sp++] & 0xFF) | ((src[sp++] & 0xFF) << 8);
+                    var length = token & 0x0F;
+                    if (length == 15) {
+                        int next;
+                        do {
+                            next = src[sp++] & 0xFF;
+                            length += next;
+                        } while (next == 255);
+                    }
+                    length += MIN_MATCH;
+                    var ref = dp - offset;
+                    if (offset == 0 || ref < dstOff || dp + length > dstEnd) {
+                        throw new IOException("Corrupt LZ block, match exceeds bounds");
+                    } else if (offset >= length) {
+                        System.arraycopy(dst, ref, dst, dp, length);
+                        dp += length;
+                    } else {
+                        for (int i=0; i<length; ++i) {
+                            dst[dp++] = dst[ref++];
+                        }
+                    }
+                }
+            }
+            if (dp != dstEnd) {
+                throw new IOException("Corrupt LZ block, expected " + dstLen + " bytes but decoded " + (dp - dstOff));
+            }
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            throw new IOException("Corrupt LZ block, unexpected end of input", ex);
+        }
+    }
+
+
+    /**
+     * Writes a sequence of literals followed by an optional match to the destination buffer
+     * @param src       the source bytes
+     * @param start     the offset of literals in source
+     * @param literals  the number of literals
+     * @param offset    the match offset, ignored if length is zero
+     * @param length    the match length, zero for the final literal only sequence
+     * @param dst       the destination buffer
+     * @param dp        the destination offset
+     * @return          the destination offset after the sequence
+     */
+    private static int writeSequence(byte[] src, int start, int literals, int offset, int length, byte[] dst, int dp) {
+        var token = dp++;
+        var extra = Math.max(length - MIN_MATCH, 0);
+        dst[token] = (byte)((Math.min(literals, 15) << 4) | Math.min(extra, 15));
+        if (literals >= 15) {
+            dp = writeLength(literals - 15, dst, dp);
+        }
+        System.arraycopy(src, start, dst, dp, literals);
+        dp += literals;
+        if (length > 0) {
+            dst[dp++] = (byte)offset;
+            dst[dp++] = (byte)(offset >>> 8);
+            if (extra >= 15) {
+                dp = writeLength(extra - 15, dst, dp);
+            }
+        }
+        return dp;
+    }
+
+
+    /**
+     * Writes a length extension as a run of 255 bytes terminated by a byte less than 255
+     * @param length    the remaining length
+     * @param dst       the destination buffer
+     * @param dp        the destination offset
+     * @return          the destination offset after the length
+     */
+    private static int writeLength(int length, byte[] dst, int dp) {
+        while (length >= 255) {
+            dst[dp++] = (byte)255;
+            length -= 255;
+        }
+        dst[dp++] = (byte)length;
+        return dp;
+    }
+
+
+    /**
+     * Returns the hash table slot for a four byte sequence
+     * @param sequence  the four byte sequence
+     * @return          the hash table slot
+     */
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+
+    /**
+     * Returns a little endian int read from the bytes at the offset specified
+     * @param bytes     the bytes
+     * @param offset    the offset
+     * @return          the int value
+     */
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8 | (bytes[offset + 2] & 0xFF) << 16 | (bytes[offset + 3] & 0xFF) << 24;
+    }
+}
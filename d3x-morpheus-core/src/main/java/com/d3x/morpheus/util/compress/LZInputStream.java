@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.compress;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * An input stream that reads the LZ block stream format written by the LZOutputStream
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class LZInputStream extends InputStream {
+
+    private DataInputStream in;
+    private byte[] stored = new byte[0];
+    private byte[] buffer = new byte[0];
+    private int position;
+    private int length;
+    private boolean finished;
+
+
+    /**
+     * Constructor
+     * @param in    the underlying input stream
+     * @throws IOException  if the stream does not start with the LZ magic number
+     */
+    LZInputStream(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        var magic = new byte[LZOutputStream.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, LZOutputStream.MAGIC)) {
+            throw new IOException("The input stream is not in LZ block format");
+        }
+    }
+
+
+    @Override
+    public int read() throws IOException {
+        if (position == length && !nextBlock()) {
+            return -1;
+        } else {
+            return buffer[position++] & 0xFF;
+        }
+    }
+
+
+    @Override
+    public int read(byte[] bytes, int offset, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        } else if (position == length && !nextBlock()) {
+            return -1;
+        } else {
+            var result = Math.min(count, length - position);
+            System.arraycopy(buffer, position, bytes, offset, result);
+            this.position += result;
+            return result;
+        }
+    }
+
+
+    @Override
+    public int available() {
+        return length - position;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+
+    /**
+     * Reads and decompresses the next block from the underlying stream
+     * @return      true if a block was read, false if the end of the stream was reached
+     * @throws IOException  if there is an I/O error or the content is corrupt
+     */
+    private boolean nextBlock() throws IOException {
+        while (!finished) {
+            try {
+                var rawLength = in.readInt();
+                if (rawLength == 0) {
+                    this.finished = true;
+                } else {
+                    var storedLength = in.readInt();
+                    if (rawLength < 0 || storedLength < 0 || storedLength > rawLength) {
+                        throw new IOException("Corrupt LZ block header: " + rawLength + ", " + storedLength);
+                    }
+                    this.buffer = buffer.length < rawLength ? new byte[rawLength] : buffer;
+                    if (storedLength == rawLength) {
+                        this.in.readFully(buffer, 0, rawLength);
+                    } else {
+                        this.stored = stored.length < storedLength ? new byte[storedLength] : stored;
+                        this.in.readFully(stored, 0, storedLength);
+                        LZCodec.decompress(stored, 0, storedLength, buffer, 0, rawLength);
+                    }
+                    this.position = 0;
+                    this.length = rawLength;
+                    return true;
+                }
+            } catch (EOFException ex) {
+                throw new IOException("Unexpected end of LZ block stream", ex);
+            }
+        }
+        return false;
+    }
+}
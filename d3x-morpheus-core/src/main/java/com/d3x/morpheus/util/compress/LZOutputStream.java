@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * An output stream that writes the LZ block stream format, compressing blocks in parallel with the LZCodec
+ *
+ * <p>The stream starts with a four byte magic number, followed by a sequence of blocks that each consist of the raw
+ * length and the stored length as big endian ints followed by the stored bytes, and ends with a raw length of zero.
+ * Blocks that do not compress are stored as is, in which case the stored length equals the raw length.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class LZOutputStream extends BlockOutputStream {
+
+    static final byte[] MAGIC = {(byte)0x89, 'M', 'L', 'Z'};
+
+
+    /**
+     * Constructor
+     * @param out           the underlying output stream
+     * @param blockSize     the size of each block in bytes
+     * @param batchSize     the number of blocks to compress in parallel
+     */
+    LZOutputStream(OutputStream out, int blockSize, int batchSize) {
+        super(out, blockSize, batchSize, 0);
+    }
+
+
+    @Override
+    void writeHeader(OutputStream out) throws IOException {
+        out.write(MAGIC);
+    }
+
+
+    @Override
+    void update(byte[] block, int length) {
+        // no checksum
+    }
+
+
+    @Override
+    byte[] encode(byte[] block, int length, byte[] prior, int priorLength, boolean last) {
+        if (length == 0) {
+            return new byte[0];
+        } else {
+            var result = new byte[8 + LZCodec.maxCompressedLength(length)];
+            var count = LZCodec.compress(block, 0, length, result, 8);
+            if (count >= length) {
+                count = length;
+                System.arraycopy(block, 0, result, 8, length);
+            }
+            writeInt(result, 0, length);
+            writeInt(result, 4, count);
+            return Arrays.copyOf(result, 8 + count);
+        }
+    }
+
+
+    @Override
+    void writeTrailer(OutputStream out) throws IOException {
+        out.write(new byte[4]);
+    }
+
+
+    /**
+     * Writes a big endian int into the bytes at the offset specified
+     * @param bytes     the target bytes
+     * @param offset    the offset
+     * @param value     the value
+     */
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte)(value >>> 24);
+        bytes[offset + 1] = (byte)(value >>> 16);
+        bytes[offset + 2] = (byte)(value >>> 8);
+        bytes[offset + 3] = (byte)value;
+    }
+}
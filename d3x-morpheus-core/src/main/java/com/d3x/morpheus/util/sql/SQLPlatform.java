@@ -48,4 +48,48 @@ public enum SQLPlatform {
         }
     }
 
+
+    /**
+     * Returns true if this platform supports INSERT statements with multiple rows in the VALUES clause
+     * @return  true if multi-row inserts are supported
+     */
+    public boolean isMultiRowInsertSupported() {
+        return this != GENERIC;
+    }
+
+
+    /**
+     * Returns the maximum number of bind parameters this platform allows in a single statement
+     * @return  the maximum number of bind parameters per statement
+     */
+    public int getMaxParameterCount() {
+        switch (this) {
+            case SQLITE:    return 999;
+            case MSSQL:     return 2000;
+            case MYSQL:     return 65535;
+            default:        return 32767;
+        }
+    }
+
+
+    /**
+     * Returns the maximum number of rows this platform allows in the VALUES clause of a single INSERT statement
+     * @return  the maximum number of rows per INSERT statement
+     */
+    public int getMaxRowsPerInsert() {
+        switch (this) {
+            case MSSQL:     return 1000;
+            default:        return Integer.MAX_VALUE;
+        }
+    }
+
+
+    /**
+     * Returns true if this platform supports concurrent writes to the same table over multiple connections
+     * @return  true if concurrent writes are supported
+     */
+    public boolean isConcurrentWriteSupported() {
+        return this != SQLITE;
+    }
+
 }
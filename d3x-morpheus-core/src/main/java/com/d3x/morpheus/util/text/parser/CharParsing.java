@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.text.parser;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Allocation free parsing routines that operate directly on a range of characters in a CharSequence.
+ *
+ * <p>These routines only handle the common plain forms of each type, and signal that a value is outside of the fast
+ * path by returning NaN, false or null rather than by throwing, so that callers can fall back on the general purpose
+ * String based parsing which remains the reference behaviour for all other inputs.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+final class CharParsing {
+
+    /** The powers of ten that are exactly representable as a double */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** The max number of significant digits for which the mantissa is exact */
+    private static final int MAX_DIGITS = 15;
+
+    /**
+     * The layout of the time portion of a date time value
+     */
+    enum TimeLayout {
+
+        /** Hours and minutes only, as in HH:mm */
+        MINUTES,
+        /** Hours, minutes and seconds, as in HH:mm:ss */
+        SECONDS,
+        /** Hours and minutes, with optional seconds and fraction of second as per ISO-8601 */
+        ISO
+    }
+
+
+    /**
+     * Private constructor
+     */
+    private CharParsing() {
+        super();
+    }
+
+
+    /**
+     * Returns true if the range is an optionally signed integer with at most the number of digits specified
+     * @param value     the character sequence
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @param maxDigits the max number of digits
+     * @return          true if the range can be parsed by parseLong()
+     */
+    static boolean isInteger(CharSequence value, int start, int end, int maxDigits) {
+        int i = start;
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            ++i;
+        }
+        final int digits = end - i;
+        if (digits < 1 || digits > maxDigits) {
+            return false;
+        } else {
+            for (; i<end; ++i) {
+                final char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Returns the long value of a range previously validated with isInteger() for at most 18 digits
+     * @param value     the character sequence
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          the long value
+     */
+    static long parseLong(CharSequence value, int start, int end) {
+        int i = start;
+        final char first = value.charAt(i);
+        final boolean negative = first == '-';
+        if (negative || first == '+') {
+            ++i;
+        }
+        long result = 0L;
+        for (; i<end; ++i) {
+            result = result * 10L + (value.charAt(i) - '0');
+        }
+        return negative ? -result : result;
+    }
+
+
+    /**
+     * Returns the double value of a plain decimal in the range, or NaN if the value is outside the fast path
+     * The fast path accepts an optional sign, at least one integer digit, an optional fraction and an optional
+     * exponent, with at most 15 significant digits and a net decimal exponent within 22, in which case a single
+     * exactly rounded multiply or divide yields the same result as Double.parseDouble()
+     * @param value     the character sequence
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          the double value, NaN if the value must be parsed by Double.parseDouble()
+     */
+    static double parseDouble(CharSequence value, int start, int end) {
+        int i = start;
+        if (i >= end) {
+            return Double.NaN;
+        }
+        final char first = value.charAt(i);
+        final boolean negative = first == '-';
+        if (negative || first == '+') {
+            ++i;
+        }
+        long mantissa = 0L;
+        int digits = 0;
+        int exponent = 0;
+        final int integerStart = i;
+        for (; i<end; ++i) {
+            final char c = value.charAt(i);
+            if (c < '0' || c > '9') break;
+            if (mantissa != 0L || c != '0') {
+                if (++digits > MAX_DIGITS) return Double.NaN;
+                mantissa = mantissa * 10L + (c - '0');
+            }
+        }
+        if (i == integerStart) {
+            return Double.NaN;
+        }
+        if (i < end && value.charAt(i) == '.') {
+            for (++i; i<end; ++i) {
+                final char c = value.charAt(i);
+                if (c < '0' || c > '9') break;
+                --exponent;
+                if (mantissa != 0L || c != '0') {
+                    if (++digits > MAX_DIGITS) return Double.NaN;
+                    mantissa = mantissa * 10L + (c - '0');
+                }
+            }
+        }
+        if (i < end && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            ++i;
+            boolean negativeExponent = false;
+            if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                negativeExponent = value.charAt(i) == '-';
+                ++i;
+            }
+            final int exponentStart = i;
+            int explicit = 0;
+            for (; i<end; ++i) {
+                final char c = value.charAt(i);
+                if (c < '0' || c > '9') return Double.NaN;
+                if (i - exponentStart >= 4) return Double.NaN;
+                explicit = explicit * 10 + (c - '0');
+            }
+            if (i == exponentStart) {
+                return Double.NaN;
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (i != end) {
+            return Double.NaN;
+        } else if (mantissa == 0L) {
+            return negative ? -0d : 0d;
+        } else if (exponent < -22 || exponent > 22) {
+            return Double.NaN;
+        } else {
+            final double result = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -result : result;
+        }
+    }
+
+
+    /**
+     * Returns a LocalDate for a range of the form yyyy-MM-dd, or null if the value is outside the fast path
+     * @param value     the character sequence
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          the date, null if the value must be parsed by a DateTimeFormatter
+     */
+    static LocalDate parseLocalDate(CharSequence value, int start, int end) {
+        if (end - start != 10 || value.charAt(start + 4) != '-' || value.charAt(start + 7) != '-') {
+            return null;
+        } else {
+            final int year = digits(value, start, 4);
+            final int month = digits(value, start + 5, 2);
+            final int day = digits(value, start + 8, 2);
+            if (year <= 0 || month < 0 || day < 0) {
+                return null;
+            } else {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException ex) {
+                    return null;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns a LocalDateTime for a range of the form yyyy-MM-dd?HH:mm[:ss[.SSS]], or null if outside the fast path
+     * @param value     the character sequence
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @param separator the character that separates the date and time
+     * @param layout    the layout of the time portion
+     * @return          the date time, null if the value must be parsed by a DateTimeFormatter
+     */
+    static LocalDateTime parseLocalDateTime(CharSequence value, int start, int end, char separator, TimeLayout layout) {
+        final int length = end - start;
+        if (length < 16 || value.charAt(start + 10) != separator || value.charAt(start + 13) != ':') {
+            return null;
+        }
+        final LocalDate date = parseLocalDate(value, start, start + 10);
+        final int hour = digits(value, start + 11, 2);
+        final int minute = digits(value, start + 14, 2);
+        if (date == null || hour < 0 || minute < 0) {
+            return null;
+        }
+        int second = 0;
+        int nanos = 0;
+        if (length == 16) {
+            if (layout == TimeLayout.SECONDS) {
+                return null;
+            }
+        } else if (layout == TimeLayout.MINUTES || length < 19 || value.charAt(start + 16) != ':') {
+            return null;
+        } else {
+            second = digits(value, start + 17, 2);
+            if (second < 0) {
+                return null;
+            } else if (length > 19) {
+                final int fraction = length - 20;
+                if (layout != TimeLayout.ISO || fraction < 1 || fraction > 9 || value.charAt(start + 19) != '.') {
+                    return null;
+                }
+                nanos = digits(value, start + 20, fraction);
+                if (nanos < 0) {
+                    return null;
+                }
+                for (int i=fraction; i<9; ++i) {
+                    nanos *= 10;
+                }
+            }
+        }
+        try {
+            return LocalDateTime.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), hour, minute, second, nanos);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Returns the non-negative value of a fixed width run of digits, or -1 if any character is not a digit
+     * @param value     the character sequence
+     * @param start     the start index
+     * @param count     the number of digits, at most 9
+     * @return          the value of the digits, -1 if not all digits
+     */
+    private static int digits(CharSequence value, int start, int count) {
+        int result = 0;
+        for (int i=0; i<count; ++i) {
+            final char c = value.charAt(start + i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
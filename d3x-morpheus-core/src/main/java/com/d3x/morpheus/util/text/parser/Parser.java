@@ -49,6 +49,9 @@ import com.d3x.morpheus.util.text.FormatException;
  * a number of applyXXX() methods that yield primitives, and a getStyle() method that can be queried
  * to check what type the function supports.
  *
+ * The applyXXX(CharSequence, int, int) methods parse a range of characters directly, which parsers for the common
+ * primitive and date types implement without allocating intermediate objects in the usual case.
+ *
  * @param <T>   the type produced by this parser
  *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
@@ -121,6 +124,96 @@ public abstract class Parser<T> extends Function1<String,T> {
     }
 
 
+    /**
+     * Returns true if the range of characters specified represents a null value according to the null checker
+     * @param value     the character sequence, which may be null
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          true if the value is null
+     */
+    protected final boolean isNull(CharSequence value, int start, int end) {
+        return nullChecker.applyAsBoolean(substring(value, start, end));
+    }
+
+
+    /**
+     * Returns a boolean parsed from a range of characters, avoiding a String copy where the parser supports it
+     * @param value     the character sequence, which may be null
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          the parsed boolean
+     */
+    public boolean applyAsBoolean(CharSequence value, int start, int end) {
+        return applyAsBoolean(substring(value, start, end));
+    }
+
+
+    /**
+     * Returns an int parsed from a range of characters, avoiding a String copy where the parser supports it
+     * @param value     the character sequence, which may be null
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          the parsed int
+     */
+    public int applyAsInt(CharSequence value, int start, int end) {
+        return applyAsInt(substring(value, start, end));
+    }
+
+
+    /**
+     * Returns a long parsed from a range of characters, avoiding a String copy where the parser supports it
+     * @param value     the character sequence, which may be null
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          the parsed long
+     */
+    public long applyAsLong(CharSequence value, int start, int end) {
+        return applyAsLong(substring(value, start, end));
+    }
+
+
+    /**
+     * Returns a double parsed from a range of characters, avoiding a String copy where the parser supports it
+     * @param value     the character sequence, which may be null
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          the parsed double
+     */
+    public double applyAsDouble(CharSequence value, int start, int end) {
+        return applyAsDouble(substring(value, start, end));
+    }
+
+
+    /**
+     * Returns a value parsed from a range of characters, avoiding a String copy where the parser supports it
+     * @param value     the character sequence, which may be null
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          the parsed value
+     */
+    public T apply(CharSequence value, int start, int end) {
+        return apply(substring(value, start, end));
+    }
+
+
+    /**
+     * Returns a String for the range of characters, which is the value itself if it is a String and the range covers it
+     * @param value     the character sequence, which may be null
+     * @param start     the start index, inclusive
+     * @param end       the end index, exclusive
+     * @return          the String for range, null if value is null
+     */
+    static String substring(CharSequence value, int start, int end) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof String && start == 0 && end == value.length()) {
+            return (String)value;
+        } else {
+            return value.subSequence(start, end).toString();
+        }
+    }
+
+
     /**
      * Returns a possibly modified version of this parser optimized to parse values of the form presented
      * @param value     the format of the value to optimize for
@@ -250,7 +343,7 @@ public abstract class Parser<T> extends Function1<String,T> {
      * @return  newly created Parser
      */
     public static Parser<Double> ofDouble() {
-        return new ParserOfDouble(defaultNullCheck, Double::parseDouble);
+        return new ParserOfDouble(defaultNullCheck, ParserOfDouble.DEFAULT_HANDLER);
     }
 
     /**
@@ -35,9 +35,13 @@ import com.d3x.morpheus.util.text.FormatException;
  */
 class ParserOfDouble extends Parser<Double> {
 
+    /** The default handler, for which values can be parsed without allocation */
+    static final ToDoubleFunction<String> DEFAULT_HANDLER = Double::parseDouble;
+
     private static final Set<Pattern> patternSet = new HashSet<>();
 
     private ToDoubleFunction<String> handler;
+    private boolean fastPath;
 
     /*
      * Static initializer
@@ -55,6 +59,7 @@ class ParserOfDouble extends Parser<Double> {
     ParserOfDouble(ToBooleanFunction<String> nullChecker, ToDoubleFunction<String> handler) {
         super(FunctionStyle.DOUBLE, Double.class, nullChecker);
         this.handler = handler;
+        this.fastPath = handler == null || handler == DEFAULT_HANDLER;
     }
 
     @Override
@@ -98,4 +103,15 @@ class ParserOfDouble extends Parser<Double> {
             throw new FormatException("Failed to parse value into Double: " + value, ex);
         }
     }
+
+    @Override
+    public final double applyAsDouble(CharSequence value, int start, int end) {
+        if (fastPath && value != null && !isNull(value, start, end)) {
+            final double result = CharParsing.parseDouble(value, start, end);
+            if (!Double.isNaN(result)) {
+                return result;
+            }
+        }
+        return applyAsDouble(substring(value, start, end));
+    }
 }
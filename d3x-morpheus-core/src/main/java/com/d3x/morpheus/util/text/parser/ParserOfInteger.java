@@ -64,4 +64,13 @@ class ParserOfInteger extends Parser<Integer> {
             throw new FormatException("Failed to parse value into Integer: " + value, ex);
         }
     }
+
+    @Override
+    public final int applyAsInt(CharSequence value, int start, int end) {
+        if (value != null && CharParsing.isInteger(value, start, end, 9) && !isNull(value, start, end)) {
+            return (int)CharParsing.parseLong(value, start, end);
+        } else {
+            return applyAsInt(substring(value, start, end));
+        }
+    }
 }
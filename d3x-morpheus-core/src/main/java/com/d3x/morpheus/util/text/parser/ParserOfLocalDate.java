@@ -37,6 +37,7 @@ import com.d3x.morpheus.util.text.FormatException;
 class ParserOfLocalDate extends Parser<LocalDate> {
 
     private static final Map<Pattern,DateTimeFormatter> patternMap = new LinkedHashMap<>();
+    private static final DateTimeFormatter isoPattern = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     private Supplier<DateTimeFormatter> format;
 
@@ -44,7 +45,7 @@ class ParserOfLocalDate extends Parser<LocalDate> {
      * Static initializer
      */
     static {
-        patternMap.put(Pattern.compile("\\d{4}-\\d{2}-\\d{2}"), DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        patternMap.put(Pattern.compile("\\d{4}-\\d{2}-\\d{2}"), isoPattern);
         patternMap.put(Pattern.compile("\\d{2}-\\p{Alpha}{3}]-\\d{4}"), DateTimeFormatter.ofPattern("dd-MMM-yyyy"));
     }
 
@@ -113,4 +114,26 @@ class ParserOfLocalDate extends Parser<LocalDate> {
             throw new FormatException("Failed to parse value into LocalDate: " + value, ex);
         }
     }
+
+
+    @Override
+    public final LocalDate apply(CharSequence value, int start, int end) {
+        if (value != null && isIsoFormat(format.get()) && !isNull(value, start, end)) {
+            final LocalDate result = CharParsing.parseLocalDate(value, start, end);
+            if (result != null) {
+                return result;
+            }
+        }
+        return apply(substring(value, start, end));
+    }
+
+
+    /**
+     * Returns true if the formatter parses dates of the form yyyy-MM-dd, which can be handled without allocation
+     * @param formatter the formatter, which may be null
+     * @return          true if the formatter is a known ISO local date format
+     */
+    private static boolean isIsoFormat(DateTimeFormatter formatter) {
+        return formatter == DateTimeFormatter.ISO_LOCAL_DATE || formatter == DateTimeFormatter.ISO_DATE || formatter == isoPattern;
+    }
 }
@@ -17,6 +17,7 @@ package com.d3x.morpheus.util.text.parser;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -37,6 +38,8 @@ import com.d3x.morpheus.util.text.FormatException;
 class ParserOfLocalDateTime extends Parser<LocalDateTime> {
 
     private static final Map<Pattern,DateTimeFormatter> patternMap = new LinkedHashMap<>();
+    private static final Map<DateTimeFormatter,Character> separatorMap = new IdentityHashMap<>();
+    private static final Map<DateTimeFormatter,CharParsing.TimeLayout> layoutMap = new IdentityHashMap<>();
 
     private Supplier<DateTimeFormatter> format;
 
@@ -44,13 +47,15 @@ class ParserOfLocalDateTime extends Parser<LocalDateTime> {
      * Static initializer
      */
     static {
-        patternMap.put(Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}"), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-        patternMap.put(Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}"), DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm"));
-        patternMap.put(Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        patternMap.put(Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}"), DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
-        patternMap.put(Pattern.compile("\\d{2}-\\p{Alpha}{3}]-\\d{4} \\d{2}:\\d{2}"), DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm"));
-        patternMap.put(Pattern.compile("\\d{2}-\\p{Alpha}{3}]-\\d{4} \\d{2}:\\d{2}:\\d{2}"), DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm:ss"));
-        patternMap.put(Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.{1}\\d*"), DateTimeFormatter.ISO_DATE_TIME);
+        register("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}", DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"), ' ', CharParsing.TimeLayout.MINUTES);
+        register("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}", DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm"), 'T', CharParsing.TimeLayout.MINUTES);
+        register("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}", DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"), ' ', CharParsing.TimeLayout.SECONDS);
+        register("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}", DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"), 'T', CharParsing.TimeLayout.SECONDS);
+        register("\\d{2}-\\p{Alpha}{3}]-\\d{4} \\d{2}:\\d{2}", DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm"), ' ', null);
+        register("\\d{2}-\\p{Alpha}{3}]-\\d{4} \\d{2}:\\d{2}:\\d{2}", DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm:ss"), ' ', null);
+        register("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.{1}\\d*", DateTimeFormatter.ISO_DATE_TIME, 'T', CharParsing.TimeLayout.ISO);
+        separatorMap.put(DateTimeFormatter.ISO_LOCAL_DATE_TIME, 'T');
+        layoutMap.put(DateTimeFormatter.ISO_LOCAL_DATE_TIME, CharParsing.TimeLayout.ISO);
     }
 
     /**
@@ -63,6 +68,22 @@ class ParserOfLocalDateTime extends Parser<LocalDateTime> {
         this.format = format;
     }
 
+
+    /**
+     * Registers a regex pattern and formatter, along with the layout used to parse the format without allocation
+     * @param regex     the regex pattern for values of the format
+     * @param formatter the formatter for values that match the pattern
+     * @param separator the character that separates the date and time
+     * @param layout    the layout of the time portion, null if the format has no allocation free path
+     */
+    private static void register(String regex, DateTimeFormatter formatter, char separator, CharParsing.TimeLayout layout) {
+        patternMap.put(Pattern.compile(regex), formatter);
+        if (layout != null) {
+            separatorMap.put(formatter, separator);
+            layoutMap.put(formatter, layout);
+        }
+    }
+
     @Override
     public final boolean isSupported(String value) {
         if (!getNullChecker().applyAsBoolean(value)) {
@@ -117,4 +138,21 @@ class ParserOfLocalDateTime extends Parser<LocalDateTime> {
             throw new FormatException("Failed to parse value into LocalDateTime: " + value, ex);
         }
     }
+
+
+    @Override
+    public final LocalDateTime apply(CharSequence value, int start, int end) {
+        if (value != null) {
+            final DateTimeFormatter formatter = format.get();
+            final CharParsing.TimeLayout layout = formatter != null ? layoutMap.get(formatter) : null;
+            if (layout != null && !isNull(value, start, end)) {
+                final char separator = separatorMap.get(formatter);
+                final LocalDateTime result = CharParsing.parseLocalDateTime(value, start, end, separator, layout);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return apply(substring(value, start, end));
+    }
 }
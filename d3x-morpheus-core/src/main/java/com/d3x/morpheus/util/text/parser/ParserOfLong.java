@@ -64,4 +64,13 @@ class ParserOfLong extends Parser<Long> {
             throw new FormatException("Failed to parse value into Long: " + value, ex);
         }
     }
+
+    @Override
+    public final long applyAsLong(CharSequence value, int start, int end) {
+        if (value != null && CharParsing.isInteger(value, start, end, 18) && !isNull(value, start, end)) {
+            return CharParsing.parseLong(value, start, end);
+        } else {
+            return applyAsLong(substring(value, start, end));
+        }
+    }
 }
@@ -519,7 +519,7 @@ public interface D3xVector extends D3xVectorView {
      * @throws RuntimeException if the length is negative.
      */
     static D3xVector sparse(int length) {
-        return ApacheVector.sparse(length);
+        return SparseVector.sparse(length);
     }
 
     /**
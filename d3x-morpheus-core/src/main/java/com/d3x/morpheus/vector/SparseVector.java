@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.vector;
+
+import java.util.Arrays;
+
+import com.d3x.morpheus.util.MorpheusException;
+
+/**
+ * Implements the D3xVector interface with compressed sparse storage: the
+ * indexes of the non-zero elements are stored in ascending order in one
+ * array and the corresponding values in a parallel array.
+ *
+ * <p>Element access is a binary search over the stored indexes, and dot
+ * products and scalar operations touch only the stored elements, so their
+ * cost is proportional to the number of non-zero elements rather than the
+ * vector length.  Assigning zero to an element removes it from storage.</p>
+ *
+ * @author Scott Shaffer
+ */
+public final class SparseVector implements D3xVector {
+    private final int length;
+    private int count;
+    private int[] indexes;
+    private double[] values;
+
+    private SparseVector(int length, int count, int[] indexes, double[] values) {
+        D3xVector.validateLength(length);
+
+        this.length = length;
+        this.count = count;
+        this.indexes = indexes;
+        this.values = values;
+    }
+
+    /**
+     * Creates a new sparse vector with all elements initialized to zero.
+     *
+     * @param length the length of the vector.
+     *
+     * @return a new sparse vector of zeros.
+     *
+     * @throws RuntimeException if the length is negative.
+     */
+    public static SparseVector sparse(int length) {
+        return new SparseVector(length, 0, new int[4], new double[4]);
+    }
+
+    /**
+     * Creates a new sparse vector by copying the non-zero elements of
+     * another vector view.
+     *
+     * @param view the view to be copied.
+     *
+     * @return a new sparse vector containing a copy of the specified view.
+     */
+    public static SparseVector copyOf(D3xVectorView view) {
+        if (view instanceof SparseVector)
+            return ((SparseVector) view).copy();
+
+        int count = 0;
+        int[] indexes = new int[4];
+        double[] values = new double[4];
+
+        for (int index = 0; index < view.length(); ++index) {
+            double value = view.get(index);
+
+            if (value != 0.0) {
+                if (count == indexes.length) {
+                    indexes = Arrays.copyOf(indexes, 2 * count);
+                    values = Arrays.copyOf(values, 2 * count);
+                }
+
+                indexes[count] = index;
+                values[count] = value;
+                ++count;
+            }
+        }
+
+        return new SparseVector(view.length(), count, indexes, values);
+    }
+
+    /**
+     * Returns the number of explicitly stored (non-zero) elements.
+     * @return the number of explicitly stored (non-zero) elements.
+     */
+    public int nonZeroCount() {
+        return count;
+    }
+
+    /**
+     * Returns the index of a stored element; stored elements are ordered
+     * by ascending index.
+     *
+     * @param k the ordinal of the stored element, in {@code [0, nonZeroCount())}.
+     *
+     * @return the vector index of the specified stored element.
+     */
+    public int nonZeroIndex(int k) {
+        validateStored(k);
+        return indexes[k];
+    }
+
+    /**
+     * Returns the value of a stored element.
+     *
+     * @param k the ordinal of the stored element, in {@code [0, nonZeroCount())}.
+     *
+     * @return the value of the specified stored element.
+     */
+    public double nonZeroValue(int k) {
+        validateStored(k);
+        return values[k];
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public double get(int index) {
+        validateIndex(index);
+        int k = Arrays.binarySearch(indexes, 0, count, index);
+        return k >= 0 ? values[k] : 0.0;
+    }
+
+    @Override
+    public void set(int index, double value) {
+        validateIndex(index);
+        int k = Arrays.binarySearch(indexes, 0, count, index);
+
+        if (k >= 0) {
+            if (value != 0.0) {
+                values[k] = value;
+            }
+            else {
+                System.arraycopy(indexes, k + 1, indexes, k, count - k - 1);
+                System.arraycopy(values, k + 1, values, k, count - k - 1);
+                --count;
+            }
+        }
+        else if (value != 0.0) {
+            k = -(k + 1);
+
+            if (count == indexes.length) {
+                indexes = Arrays.copyOf(indexes, Math.max(4, 2 * count));
+                values = Arrays.copyOf(values, Math.max(4, 2 * count));
+            }
+
+            System.arraycopy(indexes, k, indexes, k + 1, count - k);
+            System.arraycopy(values, k, values, k + 1, count - k);
+            indexes[k] = index;
+            values[k] = value;
+            ++count;
+        }
+    }
+
+    @Override
+    public SparseVector copy() {
+        return new SparseVector(length, count, Arrays.copyOf(indexes, count), Arrays.copyOf(values, count));
+    }
+
+    @Override
+    public SparseVector like(int length) {
+        return sparse(length);
+    }
+
+    @Override
+    public double dot(D3xVector vector) {
+        if (vector.length() != length)
+            throw new MorpheusException("Vector length [%d] does not match [%d].", vector.length(), length);
+
+        double result = 0.0;
+
+        if (vector instanceof SparseVector) {
+            SparseVector that = (SparseVector) vector;
+            int j = 0;
+            int k = 0;
+
+            while (j < this.count && k < that.count) {
+                if (this.indexes[j] < that.indexes[k])
+                    ++j;
+                else if (this.indexes[j] > that.indexes[k])
+                    ++k;
+                else
+                    result += this.values[j++] * that.values[k++];
+            }
+        }
+        else {
+            for (int k = 0; k < count; ++k)
+                result += values[k] * vector.get(indexes[k]);
+        }
+
+        return result;
+    }
+
+    @Override
+    public SparseVector times(double scalar) {
+        return copy().multiplyInPlace(scalar);
+    }
+
+    @Override
+    public SparseVector multiplyInPlace(double scalar) {
+        if (scalar == 0.0) {
+            count = 0;
+            return this;
+        }
+
+        for (int k = 0; k < count; ++k)
+            values[k] *= scalar;
+
+        return this;
+    }
+
+    @Override
+    public double sum() {
+        double sum = 0.0;
+
+        for (int k = 0; k < count; ++k)
+            sum += values[k];
+
+        return sum;
+    }
+
+    @Override
+    public double[] toArray() {
+        double[] array = new double[length];
+
+        for (int k = 0; k < count; ++k)
+            array[indexes[k]] = values[k];
+
+        return array;
+    }
+
+    private void validateStored(int k) {
+        if (k < 0 || k >= count)
+            throw new MorpheusException("Stored element [%d] is out of bounds [0, %d).", k, count);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SparseVector(%d, nnz = %d)", length, count);
+    }
+}
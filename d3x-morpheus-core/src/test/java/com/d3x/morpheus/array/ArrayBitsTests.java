@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for bit packed boolean arrays and primitive arrays with a validity bitmap
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ArrayBitsTests {
+
+    @DataProvider(name="lengths")
+    public Object[][] lengths() {
+        return new Object[][] { {0}, {1}, {63}, {64}, {65}, {1000}, {100003} };
+    }
+
+
+    @DataProvider(name="types")
+    public Object[][] types() {
+        return new Object[][] { {Integer.class}, {Long.class}, {Double.class} };
+    }
+
+
+    /**
+     * Returns a bits array and an equivalent boolean array with random values
+     * @param length    the array length
+     * @param seed      the random seed
+     * @return          the bits array and boolean array
+     */
+    @SuppressWarnings("unchecked")
+    private Array<Boolean>[] createArrays(int length, long seed) {
+        final Random random = new Random(seed);
+        final Array<Boolean> bits = Array.ofBits(length);
+        final Array<Boolean> booleans = Array.of(Boolean.class, length);
+        for (int i=0; i<length; ++i) {
+            final boolean value = random.nextBoolean();
+            bits.setBoolean(i, value);
+            booleans.setBoolean(i, value);
+        }
+        return new Array[] { bits, booleans };
+    }
+
+
+    @Test(dataProvider="lengths")
+    public void testBitsMatchBooleans(int length) {
+        final Array<Boolean>[] arrays = createArrays(length, 1);
+        final Array<Boolean> bits = arrays[0];
+        final Array<Boolean> booleans = arrays[1];
+        Assert.assertTrue(bits instanceof WithBits);
+        Assert.assertEquals(bits.length(), length);
+        Assert.assertEquals(bits.toList(), booleans.toList());
+        Assert.assertEquals(((WithBits)bits).cardinality(), booleans.count(v -> v.getBoolean()));
+        Assert.assertEquals(bits.copy().toList(), booleans.toList());
+        if (length > 10) {
+            Assert.assertEquals(bits.copy(3, length - 5).toList(), booleans.copy(3, length - 5).toList());
+            Assert.assertEquals(bits.copy(new int[] {7, 2, 9}).toList(), booleans.copy(new int[] {7, 2, 9}).toList());
+            Assert.assertEquals(((WithBits)bits).cardinality(5, length - 7), booleans.copy(5, length - 7).count(v -> v.getBoolean()));
+            Assert.assertEquals(bits.filter(v -> v.index() % 3 == 0).toList(), booleans.filter(v -> v.index() % 3 == 0).toList());
+        }
+        Assert.assertEquals(bits.copy().sort(true).toList(), booleans.copy().sort(true).toList());
+        Assert.assertEquals(bits.copy().sort(false).toList(), booleans.copy().sort(false).toList());
+        Assert.assertEquals(bits.distinct().length(), booleans.distinct().length());
+    }
+
+
+    @Test(dataProvider="lengths")
+    public void testLogicalOperations(int length) {
+        final Array<Boolean>[] left = createArrays(length, 2);
+        final Array<Boolean>[] right = createArrays(length, 3);
+        final Array<Boolean> and = ((WithBits)left[0].copy()).and(right[0]);
+        final Array<Boolean> or = ((WithBits)left[0].copy()).or(right[1]);
+        final Array<Boolean> xor = ((WithBits)left[0].copy()).xor(right[0]);
+        final Array<Boolean> not = ((WithBits)left[0].copy()).not();
+        for (int i=0; i<length; ++i) {
+            final boolean a = left[1].getBoolean(i);
+            final boolean b = right[1].getBoolean(i);
+            Assert.assertEquals(and.getBoolean(i), a && b, "AND at " + i);
+            Assert.assertEquals(or.getBoolean(i), a || b, "OR at " + i);
+            Assert.assertEquals(xor.getBoolean(i), a ^ b, "XOR at " + i);
+            Assert.assertEquals(not.getBoolean(i), !a, "NOT at " + i);
+        }
+        Assert.assertEquals(((WithBits)not).cardinality(), length - ((WithBits)left[0]).cardinality());
+    }
+
+
+    @Test()
+    public void testBitsExpandAndFill() {
+        final Array<Boolean> bits = Array.ofBits(70);
+        bits.fill(true, 60, 70);
+        bits.expand(200);
+        Assert.assertEquals(bits.length(), 200);
+        Assert.assertEquals(((WithBits)bits).cardinality(), 10);
+        bits.fill(true, 100, 200);
+        Assert.assertEquals(((WithBits)bits).cardinality(), 110);
+        Assert.assertFalse(bits.getBoolean(99));
+        Assert.assertTrue(bits.getBoolean(199));
+    }
+
+
+    @Test()
+    public void testBitsParallelUpdates() {
+        final Array<Boolean> bits = Array.ofBits(1000000);
+        bits.parallel().applyBooleans(v -> v.index() % 3 == 0);
+        Assert.assertEquals(((WithBits)bits).cardinality(), 333334);
+        for (int i=0; i<bits.length(); ++i) {
+            Assert.assertEquals(bits.getBoolean(i), i % 3 == 0);
+        }
+    }
+
+
+    @Test()
+    public void testBitsSerialization() throws Exception {
+        final Array<Boolean> bits = createArrays(1000, 4)[0];
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream os = new ObjectOutputStream(bytes)) {
+            os.writeObject(bits);
+        }
+        try (ObjectInputStream is = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            final Array<Boolean> result = (Array<Boolean>)is.readObject();
+            Assert.assertEquals(result.toList(), bits.toList());
+        }
+    }
+
+
+    @Test(dataProvider="types")
+    public <T> void testNullable(Class<T> type) throws Exception {
+        final Array<T> array = Array.ofNullable(type, 100);
+        Assert.assertEquals(array.type(), type);
+        Assert.assertTrue(array.isNull(0));
+        Assert.assertNull(array.getValue(50));
+        for (int i=0; i<100; ++i) {
+            if (i % 4 != 0) {
+                switch (array.typeCode()) {
+                    case INTEGER:   array.setInt(i, i);     break;
+                    case LONG:      array.setLong(i, i);    break;
+                    default:        array.setDouble(i, i);  break;
+                }
+            }
+        }
+        Assert.assertTrue(array.isNull(0));
+        Assert.assertFalse(array.isNull(1));
+        Assert.assertEquals(array.getDouble(1), 1d);
+        Assert.assertEquals(array.count(v -> v.isNull()), 25);
+        array.setValue(1, null);
+        Assert.assertTrue(array.isNull(1));
+        Assert.assertTrue(array.isEqualTo(1, null));
+        final Array<T> filter = array.filter(v -> v.index() < 10);
+        Assert.assertEquals(filter.length(), 10);
+        Assert.assertTrue(filter.isNull(8));
+        Assert.assertFalse(filter.isNull(9));
+        final Array<T> copy = array.copy(2, 12);
+        Assert.assertTrue(copy.isNull(2));
+        Assert.assertEquals(copy.getDouble(1), 3d);
+        final Array<T> sorted = array.copy().sort(true);
+        for (int i=0; i<26; ++i) {
+            Assert.assertTrue(sorted.isNull(i), "Nulls sort first at " + i);
+        }
+        Assert.assertEquals(sorted.getDouble(26), 2d);
+        array.expand(120);
+        Assert.assertTrue(array.isNull(110));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream os = new ObjectOutputStream(bytes)) {
+            os.writeObject(array);
+        }
+        try (ObjectInputStream is = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            final Array<T> result = (Array<T>)is.readObject();
+            Assert.assertEquals(result.toList(), array.toList());
+        }
+    }
+
+
+    @Test()
+    public void testNullableBuilder() {
+        final ArrayBuilder<Integer> builder = ArrayBuilder.ofNullable(4, Integer.class);
+        for (int i=0; i<20; ++i) {
+            builder.append(i % 5 == 0 ? null : i);
+        }
+        final Array<Integer> array = builder.toArray();
+        Assert.assertEquals(array.typeCode(), ArrayType.INTEGER);
+        Assert.assertEquals(array.length(), 20);
+        Assert.assertNull(array.getValue(15));
+        Assert.assertEquals(array.getValue(16), Integer.valueOf(16));
+        Assert.assertEquals(array.getInt(15), 0);
+    }
+
+
+    @Test()
+    public void testBuilderKeepsNullsAndPacksBooleans() {
+        final ArrayBuilder<Long> longs = ArrayBuilder.of(4, Long.class);
+        final ArrayBuilder<Object> untyped = ArrayBuilder.of(4);
+        final ArrayBuilder<Boolean> booleans = ArrayBuilder.of(4, Boolean.class);
+        for (int i=0; i<200; ++i) {
+            longs.append(i % 3 == 0 ? null : (long)i);
+            untyped.append(i % 3 == 0 ? null : i);
+            booleans.appendBoolean(i % 5 == 0);
+        }
+        final Array<Long> longArray = longs.toArray();
+        final Array<Object> intArray = untyped.toArray();
+        final Array<Boolean> boolArray = booleans.toArray();
+        Assert.assertEquals(longArray.typeCode(), ArrayType.LONG);
+        Assert.assertEquals(intArray.typeCode(), ArrayType.INTEGER);
+        Assert.assertTrue(boolArray instanceof WithBits);
+        Assert.assertEquals(boolArray.length(), 200);
+        for (int i=0; i<200; ++i) {
+            Assert.assertEquals(longArray.isNull(i), i % 3 == 0);
+            Assert.assertEquals(intArray.getValue(i), i % 3 == 0 ? null : Integer.valueOf(i));
+            Assert.assertEquals(boolArray.getBoolean(i), i % 5 == 0);
+        }
+        final Array<Long> concat = Array.concat(Long.class, Arrays.asList(longArray, Array.of(Long.class, 5)));
+        Assert.assertTrue(concat.isNull(3));
+        Assert.assertFalse(concat.isNull(202));
+        final Array<Boolean> bits = Array.concat(Boolean.class, Arrays.asList(boolArray, boolArray));
+        Assert.assertTrue(bits instanceof WithBits);
+        Assert.assertEquals(((WithBits)bits).cardinality(), 80);
+        final ArrayBuilder<Object> mixed = ArrayBuilder.of(4);
+        mixed.appendInt(1);
+        mixed.append(null);
+        mixed.append("text");
+        Assert.assertEquals(mixed.toArray().toList(), Arrays.asList(1, null, "text"));
+    }
+
+
+    @Test()
+    public void testNonNullableUnchanged() {
+        final Array<Integer> ints = Array.of(Integer.class, 10);
+        ints.setValue(3, null);
+        Assert.assertFalse(ints.isNull(3));
+        Assert.assertEquals(ints.getValue(3), Integer.valueOf(0));
+        final Array<Double> doubles = Array.of(Double.class, 10, 1d);
+        doubles.setValue(3, null);
+        Assert.assertTrue(doubles.isNull(3));
+        Assert.assertTrue(Double.isNaN(doubles.getDouble(3)));
+    }
+
+
+    @Test(expectedExceptions = { ArrayException.class })
+    public void testNullableBooleansNotSupported() {
+        Array.ofNullable(Boolean.class, 10);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.array.coding.IntCoding;
+import com.d3x.morpheus.array.coding.WithIntCoding;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameGrouping;
+import com.d3x.morpheus.index.Index;
+
+/**
+ * Unit tests for categorical arrays that store int codes into a dictionary of distinct values
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ArrayCategoricalTests {
+
+    private static final String[] tickers = {"MSFT", "AAPL", "GOOGL", "IBM", "ORCL", "AMZN", "BLK", "GS"};
+
+
+    @DataProvider(name="parallel")
+    public Object[][] parallel() {
+        return new Object[][] {{false}, {true}};
+    }
+
+
+    /**
+     * Returns a categorical array and an equivalent object array with random tickers, including some nulls
+     * @param length    the array length
+     * @return          the categorical array and object array
+     */
+    @SuppressWarnings("unchecked")
+    private Array<String>[] createArrays(int length) {
+        final Random random = new Random(5);
+        final ArrayBuilder<String> categorical = ArrayBuilder.ofCategorical(10, String.class);
+        final ArrayBuilder<String> objects = ArrayBuilder.of(10, String.class);
+        for (int i=0; i<length; ++i) {
+            final int index = random.nextInt(tickers.length + 1);
+            final String value = index < tickers.length ? tickers[index] : null;
+            categorical.append(value);
+            objects.append(value);
+        }
+        return new Array[] { categorical.toArray(), objects.toArray() };
+    }
+
+
+    @Test()
+    public void testCategorical() {
+        final Array<String>[] arrays = createArrays(1000);
+        final Array<String> categorical = arrays[0];
+        final Array<String> objects = arrays[1];
+        Assert.assertTrue(categorical instanceof WithIntCoding);
+        Assert.assertEquals(categorical.typeCode(), ArrayType.STRING);
+        Assert.assertEquals(categorical.length(), 1000);
+        Assert.assertEquals(categorical.toList(), objects.toList());
+        final IntCoding<String> coding = ((WithIntCoding<String>)categorical).getCoding();
+        Assert.assertTrue(coding instanceof IntCoding.OfDictionary);
+        Assert.assertEquals(((IntCoding.OfDictionary<String>)coding).size(), tickers.length);
+        for (int i=0; i<categorical.length(); ++i) {
+            Assert.assertEquals(categorical.isNull(i), objects.isNull(i));
+            Assert.assertTrue(categorical.isEqualTo(i, objects.getValue(i)));
+        }
+        final Array<String> filter = categorical.filter(v -> "IBM".equals(v.getValue()));
+        Assert.assertTrue(filter instanceof WithIntCoding);
+        Assert.assertEquals(filter.toList(), objects.filter(v -> "IBM".equals(v.getValue())).toList());
+        final Array<String> distinct = categorical.distinct();
+        Assert.assertTrue(distinct instanceof WithIntCoding);
+        Assert.assertEquals(distinct.toList(), objects.distinct().toList());
+        Assert.assertEquals(categorical.copy(10, 50).toList(), objects.copy(10, 50).toList());
+    }
+
+
+    @Test()
+    public void testSortFollowsValueOrder() {
+        final Array<String>[] arrays = createArrays(1000);
+        final List<String> expected = new ArrayList<>(arrays[1].toList());
+        expected.sort((s1, s2) -> s1 == null ? (s2 == null ? 0 : -1) : s2 == null ? 1 : s1.compareTo(s2));
+        Assert.assertEquals(arrays[0].copy().sort(true).toList(), expected);
+        final Array<String> descending = arrays[0].copy().sort(false);
+        for (int i=1; i<descending.length(); ++i) {
+            Assert.assertTrue(descending.compare(i - 1, i) >= 0, "Descending order at " + i);
+        }
+        final Array<String> categorical = Array.ofCategorical(String.class, 3);
+        categorical.setValue(0, "C");
+        categorical.setValue(1, "A");
+        categorical.setValue(2, "B");
+        Assert.assertEquals(categorical.sort(true).toList(), Arrays.asList("A", "B", "C"));
+        categorical.setValue(2, "AA");
+        Assert.assertEquals(categorical.sort(true).toList(), Arrays.asList("A", "AA", "B"));
+    }
+
+
+    @Test()
+    public void testSharedDictionaryAndConcat() {
+        final IntCoding.OfDictionary<String> dictionary = IntCoding.ofDictionary(String.class);
+        final Array<String> first = Array.ofCategorical(dictionary, 3).applyValues(v -> tickers[v.index()]);
+        final Array<String> second = Array.ofCategorical(dictionary, 3).applyValues(v -> tickers[v.index() + 2]);
+        Assert.assertEquals(first.getInt(2), second.getInt(0));
+        final Array<String> shared = Array.concat(String.class, Arrays.asList(first, second));
+        Assert.assertSame(((WithIntCoding<String>)shared).getCoding(), dictionary);
+        Assert.assertEquals(shared.toList(), Arrays.asList("MSFT", "AAPL", "GOOGL", "GOOGL", "IBM", "ORCL"));
+        final Array<String> other = Array.ofCategorical(String.class, 2).applyValues(v -> tickers[7 - v.index()]);
+        final Array<String> merged = Array.concat(String.class, Arrays.asList(first, other));
+        Assert.assertTrue(merged instanceof WithIntCoding);
+        Assert.assertEquals(merged.toList(), Arrays.asList("MSFT", "AAPL", "GOOGL", "GS", "BLK"));
+    }
+
+
+    @Test()
+    public void testIndex() {
+        final Array<String> keys = Array.ofCategorical(String.class, tickers.length).applyValues(v -> tickers[v.index()]);
+        final Index<String> index = Index.of(keys);
+        Assert.assertTrue(index instanceof WithIntCoding);
+        Assert.assertEquals(index.size(), tickers.length);
+        for (int i=0; i<tickers.length; ++i) {
+            Assert.assertEquals(index.getCoordinate(tickers[i]), i);
+        }
+        Assert.assertTrue(index.add("JPM"));
+        Assert.assertFalse(index.add("IBM"));
+        Assert.assertEquals(index.getCoordinate("JPM"), tickers.length);
+        final Index<String> filter = index.filter(Arrays.asList("IBM", "GS"));
+        Assert.assertEquals(filter.size(), 2);
+        Assert.assertEquals(filter.getCoordinate("GS"), 7);
+        final Index<String> predicate = index.filter(key -> key.startsWith("A"));
+        Assert.assertEquals(predicate.toList(), Arrays.asList("AAPL", "AMZN"));
+    }
+
+
+    @Test()
+    public void testLookupsDoNotGrowDictionary() {
+        final IntCoding.OfDictionary<String> dictionary = IntCoding.ofDictionary(String.class);
+        final Array<String> keys = Array.ofCategorical(dictionary, 4).applyValues(v -> v.index() < 3 ? tickers[v.index()] : null);
+        final int[] ranks = dictionary.getRanks();
+        final Index<String> index = Index.of(keys);
+        Assert.assertEquals(dictionary.findCode("JPM"), -1);
+        Assert.assertEquals(dictionary.findCode("AAPL"), dictionary.getCode("AAPL"));
+        Assert.assertFalse(keys.isEqualTo(0, "JPM"));
+        Assert.assertFalse(keys.isEqualTo(3, "JPM"));
+        Assert.assertTrue(keys.isEqualTo(3, null));
+        Assert.assertFalse(index.contains("JPM"));
+        Assert.assertEquals(index.getCoordinate("JPM"), -1);
+        Assert.assertTrue(index.contains(null));
+        Assert.assertEquals(index.getCoordinate(null), 3);
+        Assert.assertEquals(dictionary.size(), 3);
+        Assert.assertSame(dictionary.getRanks(), ranks);
+        keys.setValue(3, "JPM");
+        Assert.assertEquals(dictionary.size(), 4);
+        Assert.assertTrue(keys.isEqualTo(3, "JPM"));
+    }
+
+
+    @Test(dataProvider="parallel")
+    public void testGroupAndSortFrame(boolean parallel) {
+        final DataFrame<Integer,String> frame = DataFrame.read("/csv/etf.csv").csv(Integer.class, options -> {
+            options.setHeader(true);
+            options.setCategoricalColumns("Niche");
+        });
+        final DataFrame<Integer,String> expected = DataFrame.read("/csv/etf.csv").csv();
+        final Array<String> niche = frame.col("Niche").toArray();
+        Assert.assertEquals(niche.toList(), expected.col("Niche").toArray().toList());
+        final DataFrameGrouping.Rows<Integer,String> grouping = parallel ? frame.rows().parallel().groupBy("Niche") : frame.rows().sequential().groupBy("Niche");
+        final DataFrameGrouping.Rows<Integer,String> expectedGrouping = expected.rows().groupBy("Niche");
+        Assert.assertEquals(grouping.getDepth(), 1);
+        Assert.assertEquals(grouping.getGroupCount(0), expectedGrouping.getGroupCount(0));
+        expectedGrouping.getGroupKeys(0).forEach(groupKey -> {
+            final DataFrame<Integer,String> group = grouping.getGroup(groupKey);
+            final DataFrame<Integer,String> expectedGroup = expectedGrouping.getGroup(groupKey);
+            Assert.assertEquals(group.rows().keyArray().toList(), expectedGroup.rows().keyArray().toList(), "Rows match for " + groupKey);
+        });
+        final DataFrame<Integer,String> sorted = frame.rows().sort(true, "Niche");
+        final DataFrame<Integer,String> expectedSorted = expected.rows().sort(true, "Niche");
+        Assert.assertEquals(sorted.col("Niche").toArray().toList(), expectedSorted.col("Niche").toArray().toList());
+    }
+
+
+    @Test()
+    public void testSerialization() throws Exception {
+        final Array<String> categorical = createArrays(1000)[0];
+        final DataFrame<Integer,String> frame = DataFrame.of(Index.of(Array.of(Integer.class, 1000).applyInts(v -> v.index())), String.class, columns -> {
+            columns.add("Ticker", categorical);
+        });
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream os = new ObjectOutputStream(bytes)) {
+            os.writeObject(categorical);
+            os.writeObject(frame);
+        }
+        try (ObjectInputStream is = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            final Array<String> array = (Array<String>)is.readObject();
+            @SuppressWarnings("unchecked")
+            final DataFrame<Integer,String> result = (DataFrame<Integer,String>)is.readObject();
+            Assert.assertEquals(array.toList(), categorical.toList());
+            final List<String> values = result.col("Ticker").<String>toValueStream().collect(Collectors.toList());
+            Assert.assertEquals(values, categorical.toList());
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.time.LocalTime;
 import java.time.Month;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Currency;
 import java.util.List;
 
@@ -57,7 +58,13 @@ public class ArrayFuncTests {
         final List<Object[]> argList = new ArrayList<>();
         for (ArrayStyle style : ArrayStyle.values()) {
             for (Class<?> clazz : types) {
-                if (style.isMapped()) {
+                if (style.isOffHeap()) {
+                    final ArrayType type = ArrayType.of(clazz);
+                    if (Arrays.asList(style.getSupportedTypes()).contains(type)) {
+                        final Array<?> array = ArraysBasicTests.createRandomArray(clazz, 1000, style);
+                        argList.add(new Object[]  { array });
+                    }
+                } else if (style.isMapped()) {
                     final ArrayType type = ArrayType.of(clazz);
                     if (!type.isString() && !type.isObject()) {
                         final Array<?> array = ArraysBasicTests.createRandomArray(clazz, 1000, style);
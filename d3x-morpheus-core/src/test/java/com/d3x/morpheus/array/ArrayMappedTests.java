@@ -16,10 +16,17 @@
 package com.d3x.morpheus.array;
 
 
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Random;
+import java.util.function.Supplier;
+
+import com.d3x.morpheus.array.mapped.MappedArrayConstructor;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -100,4 +107,178 @@ public class ArrayMappedTests {
             System.out.println(v1);
         }
     }
+
+
+    @Test()
+    public void testExpandAndCopyRange() {
+        final Array<ZonedDateTime> array = Array.map(ZonedDateTime.class, 100, null);
+        final ZonedDateTime start = ZonedDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        array.applyValues(v -> start.plusMinutes(v.index()));
+        array.expand(200);
+        Assert.assertEquals(array.length(), 200);
+        for (int i=0; i<200; ++i) {
+            Assert.assertEquals(array.getValue(i), i < 100 ? start.plusMinutes(i) : null, "Values match at " + i);
+        }
+        final Array<ZonedDateTime> copy = array.copy(10, 20);
+        Assert.assertEquals(copy.length(), 10);
+        for (int i=0; i<10; ++i) {
+            Assert.assertEquals(copy.getValue(i), start.plusMinutes(10 + i));
+        }
+        array.update(150, copy, 0, 10);
+        for (int i=0; i<10; ++i) {
+            Assert.assertEquals(array.getValue(150 + i), start.plusMinutes(10 + i));
+        }
+    }
+
+
+    @Test()
+    public void testReadOnlyOpen() throws IOException {
+        final File file = createFile(1000, 8L);
+        try {
+            final Array<Long> array = MappedArrayConstructor.open(Long.class, 1000, 0L, null, file, 8L, true);
+            for (int i=0; i<array.length(); ++i) {
+                Assert.assertEquals(array.getLong(i), i * 3L, "Values match at " + i);
+            }
+            Assert.assertThrows(ArrayException.class, () -> array.setLong(0, 42L));
+            Assert.assertThrows(ArrayException.class, () -> array.expand(2000));
+            final Array<Long> view = MappedArrayConstructor.view(Long.class, 1000, 0L, null, file, 8L);
+            view.setLong(0, 42L);
+            Assert.assertEquals(view.getLong(0), 42L);
+            Assert.assertEquals(array.getLong(0), 0L);
+        } finally {
+            file.delete();
+        }
+    }
+
+
+    @Test()
+    public void testSharedOpen() throws IOException {
+        final File file = createFile(1000, 0L);
+        try {
+            final Array<Long> writer = MappedArrayConstructor.open(Long.class, 1000, 0L, null, file, 0L, false);
+            final Array<Long> reader = MappedArrayConstructor.open(Long.class, 1000, 0L, null, file, 0L, true);
+            for (int i=0; i<writer.length(); ++i) {
+                writer.setLong(i, writer.getLong(i) + 1);
+            }
+            for (int i=0; i<reader.length(); ++i) {
+                Assert.assertEquals(reader.getLong(i), i * 3L + 1, "Values match at " + i);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+
+    @Test()
+    public void testSegmentedReadsAndWrites() {
+        withSegmentBytes(64, () -> {
+            final Array<Double> doubles = Array.map(Double.class, 1000, Double.NaN).applyDoubles(v -> v.index() * 2d);
+            final Array<Integer> ints = Array.map(Integer.class, 1000, -1).applyInts(v -> v.index() * 3);
+            for (int i=0; i<1000; ++i) {
+                Assert.assertEquals(doubles.getDouble(i), i * 2d, "Double matches at " + i);
+                Assert.assertEquals(ints.getInt(i), i * 3, "Int matches at " + i);
+            }
+            final Array<Double> copy = doubles.copy(3, 997);
+            Assert.assertEquals(copy.length(), 994);
+            for (int i=0; i<copy.length(); ++i) {
+                Assert.assertEquals(copy.getDouble(i), (i + 3) * 2d, "Copy matches at " + i);
+            }
+            doubles.update(501, copy, 5, 400);
+            for (int i=0; i<1000; ++i) {
+                final double expected = i >= 501 && i < 901 ? (i - 501 + 8) * 2d : i * 2d;
+                Assert.assertEquals(doubles.getDouble(i), expected, "Update matches at " + i);
+            }
+            ints.expand(1013);
+            for (int i=0; i<1013; ++i) {
+                Assert.assertEquals(ints.getInt(i), i < 1000 ? i * 3 : -1, "Expanded int matches at " + i);
+            }
+        });
+    }
+
+
+    @Test()
+    public void testSegmentedRecords() {
+        final ZonedDateTime start = ZonedDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        final Array<ZonedDateTime> small = withSegmentBytes(64, () -> Array.map(ZonedDateTime.class, 250, null).applyValues(v -> start.plusMinutes(v.index())));
+        final Array<ZonedDateTime> large = withSegmentBytes(256, () -> Array.map(ZonedDateTime.class, 250, null));
+        large.update(7, small, 3, 240);
+        for (int i=0; i<250; ++i) {
+            Assert.assertEquals(large.getValue(i), i >= 7 && i < 247 ? start.plusMinutes(i - 4) : null, "Values match at " + i);
+        }
+        small.expand(333);
+        final Array<ZonedDateTime> copy = small.copy(1, 333);
+        for (int i=0; i<copy.length(); ++i) {
+            Assert.assertEquals(copy.getValue(i), i < 249 ? start.plusMinutes(i + 1) : null, "Copy matches at " + i);
+        }
+    }
+
+
+    @Test()
+    public void testSegmentedOpen() throws IOException {
+        final File file = createFile(1000, 8L);
+        try {
+            withSegmentBytes(64, () -> {
+                final Array<Long> view = MappedArrayConstructor.view(Long.class, 1000, 0L, null, file, 8L);
+                for (int i=0; i<view.length(); ++i) {
+                    Assert.assertEquals(view.getLong(i), i * 3L, "Values match at " + i);
+                }
+                view.setLong(17, 42L);
+                view.expand(1100);
+                for (int i=0; i<view.length(); ++i) {
+                    Assert.assertEquals(view.getLong(i), i == 17 ? 42L : i < 1000 ? i * 3L : 0L, "Detached values match at " + i);
+                }
+                final Array<Long> array = MappedArrayConstructor.open(Long.class, 1000, 0L, null, file, 8L, true);
+                Assert.assertEquals(array.getLong(17), 51L);
+                Assert.assertEquals(array.getLong(999), 2997L);
+            });
+        } finally {
+            file.delete();
+        }
+    }
+
+
+    /**
+     * Runs a task with memory mapped arrays created with the segment size specified, restoring the default afterwards
+     * @param segmentBytes  the maximum number of bytes in each memory mapped segment
+     * @param task          the task to run
+     */
+    private void withSegmentBytes(int segmentBytes, Runnable task) {
+        this.withSegmentBytes(segmentBytes, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+
+    /**
+     * Returns the result of a task with memory mapped arrays created with the segment size specified, restoring the default afterwards
+     * @param segmentBytes  the maximum number of bytes in each memory mapped segment
+     * @param task          the task to run
+     * @return              the result of the task
+     */
+    private <T> T withSegmentBytes(int segmentBytes, Supplier<T> task) {
+        System.setProperty("morpheus.array.segmentBytes", String.valueOf(segmentBytes));
+        try {
+            return task.get();
+        } finally {
+            System.clearProperty("morpheus.array.segmentBytes");
+        }
+    }
+
+
+    /**
+     * Returns a temporary file with longs 0, 3, 6, etc... written after the number of header bytes specified
+     * @param count     the number of longs to write
+     * @param header    the number of header bytes before the longs
+     * @return          the temporary file
+     */
+    private File createFile(int count, long header) throws IOException {
+        final File file = File.createTempFile("morpheus", ".dat");
+        file.deleteOnExit();
+        try (DataOutputStream os = new DataOutputStream(new FileOutputStream(file))) {
+            for (int i=0; i<header; ++i) os.writeByte(0xFF);
+            for (int i=0; i<count; ++i) os.writeLong(i * 3L);
+        }
+        return file;
+    }
 }
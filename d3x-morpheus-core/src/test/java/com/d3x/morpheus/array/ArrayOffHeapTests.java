@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.array.offheap.OffHeapArena;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.range.Range;
+
+/**
+ * Unit tests specific to off-heap arrays
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ArrayOffHeapTests {
+
+
+    @Test()
+    public void testBuild() {
+        var length = 10000;
+        final Array<Double> dense = Array.of(Double.class, length).applyDoubles(v -> Math.random() * 100);
+        final Array<Double> offHeap = Array.offHeap(Double.class, length, Double.NaN).applyDoubles(v -> dense.getDouble(v.index()));
+        Assert.assertEquals(offHeap.style(), ArrayStyle.OFFHEAP);
+        Assert.assertEquals(offHeap.length(), length);
+        for (int i=0; i<offHeap.length(); ++i) {
+            Assert.assertEquals(offHeap.getDouble(i), dense.getDouble(i), "Values match at index " + i);
+        }
+        Assert.assertTrue(Array.of(Double.class, 10, Double.NaN, ArrayStyle.OFFHEAP).style().isOffHeap());
+    }
+
+
+    @Test()
+    public void testCopyAndSort() {
+        var length = 10000;
+        final Array<Long> offHeap = Array.offHeap(Long.class, length).applyLongs(v -> (long)(Math.random() * 1000000));
+        final Array<Long> copy = offHeap.copy();
+        Assert.assertEquals(copy.style(), ArrayStyle.OFFHEAP);
+        Assert.assertEquals(copy, offHeap);
+        copy.sort(true);
+        for (int i=1; i<copy.length(); ++i) {
+            Assert.assertTrue(copy.getLong(i-1) <= copy.getLong(i), "Sorted at index " + i);
+        }
+        final Array<Long> subset = offHeap.copy(100, 200);
+        Assert.assertEquals(subset.length(), 100);
+        for (int i=0; i<subset.length(); ++i) {
+            Assert.assertEquals(subset.getLong(i), offHeap.getLong(100 + i));
+        }
+        final Array<Long> selection = offHeap.copy(new int[] {5, 2, 9});
+        Assert.assertEquals(selection.getLong(0), offHeap.getLong(5));
+        Assert.assertEquals(selection.getLong(1), offHeap.getLong(2));
+        Assert.assertEquals(selection.getLong(2), offHeap.getLong(9));
+    }
+
+
+    @Test()
+    public void testBulkDoubles() {
+        var random = new Random(3);
+        var values = new double[5000];
+        for (int i=0; i<values.length; ++i) values[i] = random.nextGaussian();
+        final Array<Double> offHeap = Array.offHeap(Double.class, values.length + 100);
+        offHeap.setDoubles(100, values, 0, values.length);
+        final double[] result = offHeap.getDoubles(100, new double[values.length], 0, values.length);
+        Assert.assertEquals(result, values);
+        Assert.assertTrue(Double.isNaN(offHeap.getDouble(99)));
+        Assert.assertEquals(offHeap.getDouble(100), values[0]);
+    }
+
+
+    @Test()
+    public void testExpand() {
+        final Array<Integer> offHeap = Array.offHeap(Integer.class, 100, -1).applyInts(v -> v.index());
+        final Array<Integer> parallel = offHeap.parallel();
+        offHeap.expand(250);
+        Assert.assertEquals(offHeap.length(), 250);
+        for (int i=0; i<250; ++i) {
+            Assert.assertEquals(offHeap.getInt(i), i < 100 ? i : -1, "Value at index " + i);
+        }
+        Assert.assertEquals(parallel.getInt(99), 99);
+    }
+
+
+    @Test()
+    public void testCodedTypes() {
+        var start = LocalDate.of(2000, 1, 1);
+        final Array<LocalDate> dates = Array.offHeap(LocalDate.class, 1000).applyValues(v -> start.plusDays(v.index()));
+        Assert.assertEquals(dates.style(), ArrayStyle.OFFHEAP);
+        Assert.assertTrue(dates.isNull(0) == false);
+        for (int i=0; i<dates.length(); ++i) {
+            Assert.assertEquals(dates.getValue(i), start.plusDays(i));
+        }
+        dates.setValue(10, null);
+        Assert.assertTrue(dates.isNull(10));
+        final Array<ArrayStyle> styles = Array.offHeap(ArrayStyle.class, 4).applyValues(v -> ArrayStyle.values()[v.index()]);
+        Assert.assertEquals(styles.getValue(3), ArrayStyle.OFFHEAP);
+        Assert.assertEquals(styles.distinct().length(), 4);
+    }
+
+
+    @Test()
+    public void testArenaLifetime() {
+        final Array<Double> array;
+        try (OffHeapArena arena = OffHeapArena.create()) {
+            array = arena.array(Double.class, 1000).applyDoubles(v -> v.index());
+            final Array<Double> copy = array.copy();
+            Assert.assertEquals(arena.allocated(), 2 * 1000 * 8L);
+            Assert.assertEquals(copy.getDouble(999), 999d);
+            Assert.assertEquals(OffHeapArena.global().allocated(), 0L);
+        }
+        Assert.assertThrows(ArrayException.class, () -> array.getDouble(0));
+    }
+
+
+    @Test()
+    public void testExpandAndCloseWhileReading() throws Exception {
+        final int length = 100000;
+        final OffHeapArena arena = OffHeapArena.create();
+        final Array<Double> array = arena.array(Double.class, length).applyDoubles(v -> v.index());
+        final List<Throwable> errors = new CopyOnWriteArrayList<>();
+        final CountDownLatch started = new CountDownLatch(4);
+        final Thread[] readers = new Thread[4];
+        for (int t=0; t<readers.length; ++t) {
+            readers[t] = new Thread(() -> {
+                started.countDown();
+                try {
+                    while (true) {
+                        for (int i=0; i<length; ++i) {
+                            if (array.getDouble(i) != i) {
+                                throw new AssertionError("Value mismatch at index " + i);
+                            }
+                        }
+                        Assert.assertEquals(array.copy(0, length).getDouble(length - 1), length - 1d);
+                    }
+                } catch (ArrayException ex) {
+                    // expected once the arena is closed
+                } catch (Throwable t2) {
+                    errors.add(t2);
+                }
+            });
+            readers[t].start();
+        }
+        started.await();
+        for (int i=1; i<=5; ++i) {
+            array.expand(length + i * 1000);
+            Thread.sleep(10);
+        }
+        arena.close();
+        for (Thread reader : readers) {
+            reader.join(30000);
+            Assert.assertFalse(reader.isAlive(), "Reader completed after arena was closed");
+        }
+        Assert.assertEquals(errors, Collections.emptyList());
+        Assert.assertEquals(arena.allocated(), 0L);
+        Assert.assertThrows(ArrayException.class, () -> array.getDouble(0));
+    }
+
+
+    @Test()
+    public void testInFrame() {
+        var rowKeys = Range.of(0, 1000);
+        final DataFrame<Integer,String> frame = DataFrame.of(rowKeys, String.class, columns -> {
+            columns.add("A", Array.offHeap(Double.class, 1000).applyDoubles(v -> v.index()));
+            columns.add("B", Array.offHeap(Long.class, 1000).applyLongs(v -> v.index() * 2L));
+        });
+        Assert.assertEquals(frame.col("A").stats().sum().doubleValue(), 499500d);
+        Assert.assertEquals(frame.col("B").stats().sum().doubleValue(), 999000d);
+        frame.rows().add(1000);
+        Assert.assertEquals(frame.rowCount(), 1001);
+        Assert.assertTrue(Double.isNaN(frame.getDouble(1000, "A")));
+        frame.col("A").applyDoubles(v -> v.getDouble() + 1d);
+        frame.col("B").applyLongs(v -> v.getLong() + 1L);
+        Assert.assertEquals(frame.getDouble(10, "A"), 11d);
+        Assert.assertEquals(frame.getLong(10, "B"), 21L);
+    }
+}
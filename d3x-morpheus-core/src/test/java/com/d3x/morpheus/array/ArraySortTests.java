@@ -120,7 +120,7 @@ public class ArraySortTests {
     @SuppressWarnings("unchecked")
     public static <T> Array<T> random(Class<T> type, int size, ArrayStyle style) {
         final Random random = new Random();
-        final Array<T> array = style.isMapped() ? Array.map(type, size) : Array.of(type, size, style.isSparse() ? 0.5f : 1f);
+        final Array<T> array = style.isMapped() ? Array.map(type, size) : style.isOffHeap() ? Array.offHeap(type, size) : Array.of(type, size, style.isSparse() ? 0.5f : 1f);
         switch (array.typeCode()) {
             case OBJECT:            array.applyDoubles(v -> random.nextDouble());   break;
             case BOOLEAN:           array.applyBooleans(v -> Math.random() > 0.5d);     break;
@@ -89,7 +89,12 @@ public class ArraysBasicTests {
         final List<Object[]> argList = new ArrayList<>();
         for (ArrayStyle style : ArrayStyle.values()) {
             for (Class<?> clazz : classes) {
-                if (style.isMapped()) {
+                if (style.isOffHeap()) {
+                    final ArrayType type = ArrayType.of(clazz);
+                    if (Arrays.asList(style.getSupportedTypes()).contains(type)) {
+                        argList.add(new Object[]  { clazz, style });
+                    }
+                } else if (style.isMapped()) {
                     final ArrayType type = ArrayType.of(clazz);
                     if (!type.isString() && !type.isObject()) {
                         argList.add(new Object[]  { clazz, style });
@@ -1218,7 +1223,7 @@ public class ArraysBasicTests {
     public static <T> Array<T> createRandomArray(Class<T> type, int length, ArrayStyle style) {
         final Random random = new Random();
         final float loadFactor = style.isSparse() ? 0.5F : 1F;
-        final Array<T> array = style.isMapped() ? Array.map(type, length) : Array.of(type, length, loadFactor);
+        final Array<T> array = style.isMapped() ? Array.map(type, length) : style.isOffHeap() ? Array.offHeap(type, length) : Array.of(type, length, loadFactor);
         switch (ArrayType.of(type)) {
             case OBJECT:            return array.applyDoubles(v -> random.nextDouble());
             case BOOLEAN:           return array.applyBooleans(v -> random.nextBoolean());
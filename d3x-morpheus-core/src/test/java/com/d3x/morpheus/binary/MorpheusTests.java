@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.TestSuite;
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameAsserts;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.reference.TestDataFrames;
+
+/**
+ * Unit tests for reading and writing DataFrames in the Morpheus columnar binary format
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class MorpheusTests {
+
+    private File tmpDir = TestSuite.getOutputDir("morpheus-tests");
+
+
+    @DataProvider(name="rowTypes")
+    public Object[][] rowTypes() {
+        return new Object[][] {
+            { Integer.class },
+            { Long.class },
+            { String.class },
+            { LocalDate.class },
+            { LocalTime.class },
+            { LocalDateTime.class },
+            { ZonedDateTime.class },
+        };
+    }
+
+
+    @Test(dataProvider="rowTypes")
+    public <T> void testWriteThenRead(Class<T> rowType) {
+        final File file = new File(tmpDir, "frame-" + rowType.getSimpleName() + ".dat");
+        final DataFrame<T,String> frame = TestDataFrames.createMixedRandomFrame(rowType, 1000);
+        frame.write().morpheus(file).apply();
+        final DataFrame<T,String> result = DataFrame.read(file).morpheus();
+        DataFrameAsserts.assertEqualsByIndex(result, frame);
+        Assert.assertEquals(result.rows().keyClass(), rowType);
+        Assert.assertEquals(result.cols().type("DoubleColumn"), Double.class);
+    }
+
+
+    @Test()
+    public void testColumnsAreMapped() throws Exception {
+        final File file = new File(tmpDir, "frame-mapped.dat");
+        final DataFrame<String,String> frame = TestDataFrames.random(double.class, 100, 10);
+        frame.write().morpheus(file).apply();
+        final byte[] before = Files.readAllBytes(file.toPath());
+        final DataFrame<String,String> result = DataFrame.read(file).morpheus();
+        DataFrameAsserts.assertEqualsByIndex(result, frame);
+        result.applyDoubles(v -> v.getDouble() * 2d);
+        Assert.assertEquals(result.getDoubleAt(5, 5), frame.getDoubleAt(5, 5) * 2d, 0.0000001);
+        Assert.assertEquals(Files.readAllBytes(file.toPath()), before, "Updates never modify the file");
+        final DataFrame<String,String> reloaded = DataFrame.read(file).morpheus();
+        DataFrameAsserts.assertEqualsByIndex(reloaded, frame);
+    }
+
+
+    @Test()
+    public void testAddRowsToMappedFrame() {
+        final File file = new File(tmpDir, "frame-expand.dat");
+        final DataFrame<String,String> frame = TestDataFrames.random(double.class, 20, 5);
+        frame.write().morpheus(file).apply();
+        final DataFrame<String,String> result = DataFrame.read(file).morpheus();
+        result.rows().add("NewRow", v -> 7d);
+        Assert.assertEquals(result.rowCount(), 21);
+        Assert.assertEquals(result.getDoubleAt(20, 3), 7d);
+        Assert.assertEquals(result.getDoubleAt(3, 3), frame.getDoubleAt(3, 3));
+        DataFrameAsserts.assertEqualsByIndex(DataFrame.read(file).morpheus(), frame);
+    }
+
+
+    @Test()
+    public void testCompressedFile() throws Exception {
+        final File file = new File(tmpDir, "frame-compressed.dat.gz");
+        final DataFrame<Integer,String> frame = TestDataFrames.createMixedRandomFrame(Integer.class, 200);
+        frame.write().morpheus(file).apply();
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        Assert.assertEquals(bytes[0] & 0xFF, 0x1F, "The file is gzip compressed");
+        Assert.assertEquals(bytes[1] & 0xFF, 0x8B, "The file is gzip compressed");
+        final DataFrame<Integer,String> result = DataFrame.read(file).morpheus();
+        DataFrameAsserts.assertEqualsByIndex(result, frame);
+    }
+
+
+    @Test()
+    public void testStreams() {
+        final DataFrame<Integer,String> frame = TestDataFrames.createMixedRandomFrame(Integer.class, 200);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        frame.write().morpheus(bytes).apply();
+        final DataFrame<Integer,String> result = DataFrame.read(new ByteArrayInputStream(bytes.toByteArray())).morpheus();
+        DataFrameAsserts.assertEqualsByIndex(result, frame);
+    }
+
+
+    @Test()
+    public void testFilteredFrame() {
+        final File file = new File(tmpDir, "frame-filtered.dat");
+        final DataFrame<String,String> frame = TestDataFrames.random(double.class, 100, 10);
+        final DataFrame<String,String> filter = frame.rows().select(row -> row.ordinal() % 3 == 0).cols().select(col -> col.ordinal() % 2 == 0);
+        filter.write().morpheus(file).apply();
+        DataFrameAsserts.assertEqualsByIndex(DataFrame.read(file).morpheus(), filter);
+    }
+
+
+    @Test()
+    public void testEmptyFrame() {
+        final File file = new File(tmpDir, "frame-empty.dat");
+        final DataFrame<String,String> frame = TestDataFrames.random(double.class, 0, 3);
+        frame.write().morpheus(file).apply();
+        final DataFrame<String,String> result = DataFrame.read(file).morpheus();
+        Assert.assertEquals(result.rowCount(), 0);
+        Assert.assertEquals(result.colCount(), 3);
+    }
+
+
+    @Test()
+    public void testObjectColumns() {
+        final File file = new File(tmpDir, "frame-objects.dat");
+        final LocalDate date = LocalDate.of(2018, 3, 14);
+        final DataFrame<Integer,String> frame = DataFrame.of(Range.of(0, 100), String.class, columns -> {
+            columns.add("Strings", Array.of(String.class, 100).applyValues(v -> v.index() % 9 == 0 ? null : "Value-\u00e9-" + v.index()));
+            columns.add("Objects", Array.of(Object.class, 100).applyValues(v -> {
+                switch (v.index() % 6) {
+                    case 0:     return null;
+                    case 1:     return v.index();
+                    case 2:     return date.plusDays(v.index());
+                    case 3:     return Month.of(1 + v.index() % 12);
+                    case 4:     return v.index() * 1.5d;
+                    default:    return "Text" + v.index();
+                }
+            }));
+        });
+        frame.write().morpheus(file).apply();
+        final DataFrame<Integer,String> result = DataFrame.read(file).morpheus();
+        DataFrameAsserts.assertEqualsByIndex(result, frame);
+        Assert.assertEquals(result.cols().type("Objects"), Object.class);
+    }
+
+
+    @Test()
+    public void testNullPrimitives() {
+        final File file = new File(tmpDir, "frame-nulls.dat");
+        final DataFrame<Integer,String> frame = DataFrame.of(Range.of(0, 200), String.class, columns -> {
+            columns.add("Ints", Array.ofNullable(Integer.class, 200).applyValues(v -> v.index() % 7 == 0 ? null : v.index()));
+            columns.add("Longs", Array.ofNullable(Long.class, 200).applyValues(v -> v.index() % 5 == 0 ? null : v.index() * 10L));
+            columns.add("Dense", Array.of(Integer.class, 200).applyInts(v -> v.index()));
+        });
+        frame.write().morpheus(file).apply();
+        final DataFrame<Integer,String> result = DataFrame.read(file).morpheus();
+        DataFrameAsserts.assertEqualsByIndex(result, frame);
+        Assert.assertEquals(result.cols().type("Ints"), Integer.class);
+        Assert.assertEquals(result.cols().type("Longs"), Long.class);
+        for (int i=0; i<frame.rowCount(); ++i) {
+            Assert.assertEquals(result.col("Ints").isNullAt(i), i % 7 == 0, "Int null at " + i);
+            Assert.assertEquals(result.col("Longs").isNullAt(i), i % 5 == 0, "Long null at " + i);
+            Assert.assertEquals(result.getValueAt(i, 0), i % 7 == 0 ? null : i);
+            Assert.assertEquals(result.getValueAt(i, 1), i % 5 == 0 ? null : i * 10L);
+            Assert.assertFalse(result.col("Dense").isNullAt(i));
+        }
+    }
+
+
+    @Test()
+    public void testUnsupportedValues() {
+        final File file = new File(tmpDir, "frame-unsupported.dat");
+        final DataFrame<Integer,String> frame = DataFrame.of(Range.of(0, 10), String.class, columns -> {
+            columns.add("Decimals", Array.of(BigDecimal.class, 10).applyValues(v -> BigDecimal.valueOf(v.index())));
+            columns.add("Objects", Array.of(Object.class, 10).applyValues(v -> BigDecimal.valueOf(v.index())));
+        });
+        Assert.assertThrows(DataFrameException.class, () -> frame.write().morpheus(file).apply());
+        Assert.assertThrows(DataFrameException.class, () -> frame.cols().select("Objects").write().morpheus(file).apply());
+    }
+
+
+    @Test()
+    public void testInvalidFooterOffset() throws Exception {
+        final File file = new File(tmpDir, "frame-corrupt.dat");
+        TestDataFrames.random(double.class, 10, 3).write().morpheus(file).apply();
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        for (long offset : new long[] {-8L, 3L, bytes.length - 4, bytes.length * 2L, Long.MAX_VALUE}) {
+            ByteBuffer.wrap(bytes).putLong(bytes.length - 8, offset);
+            Files.write(file.toPath(), bytes);
+            Assert.assertThrows(DataFrameException.class, () -> DataFrame.read(file).morpheus());
+        }
+    }
+
+
+    @Test()
+    public void testTemporaryFileDeleted() {
+        final File tmp = new File(System.getProperty("java.io.tmpdir"));
+        final FilenameFilter filter = (dir, name) -> name.startsWith("morpheus") && name.endsWith(".dat");
+        final Set<String> before = new HashSet<>(Arrays.asList(Objects.requireNonNull(tmp.list(filter))));
+        final DataFrame<Integer,String> frame = TestDataFrames.createMixedRandomFrame(Integer.class, 200);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        frame.write().morpheus(bytes).apply();
+        final DataFrame<Integer,String> result = DataFrame.read(new ByteArrayInputStream(bytes.toByteArray())).morpheus();
+        final Set<String> after = new HashSet<>(Arrays.asList(Objects.requireNonNull(tmp.list(filter))));
+        after.removeAll(before);
+        Assert.assertEquals(after, Collections.emptySet(), "The temporary file is deleted after reading");
+        DataFrameAsserts.assertEqualsByIndex(result, frame);
+    }
+
+
+    @Test(expectedExceptions = { DataFrameException.class })
+    public void testNotMorpheusFormat() throws Exception {
+        final File file = new File(tmpDir, "frame-invalid.dat");
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), "Date,Open,High\n2014-01-01,1,2\n".getBytes());
+        DataFrame.read(file).morpheus();
+    }
+}
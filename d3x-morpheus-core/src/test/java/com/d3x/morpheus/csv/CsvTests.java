@@ -34,6 +34,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import com.d3x.morpheus.TestSuite;
+import com.d3x.morpheus.array.WithBits;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameAsserts;
 import com.d3x.morpheus.frame.DataFrameCursor;
@@ -503,6 +504,133 @@ public class CsvTests {
 
 
 
+    /**
+     * Writes a CSV file with the number of rows specified, which is large enough to be split into several chunks
+     * @param file          the file to write
+     * @param rowCount      the number of rows
+     * @param mixedTypes    true to leave the Note column empty in the first half of the file, and numeric in the second
+     */
+    private File writeLargeFile(File file, int rowCount, boolean mixedTypes) throws Exception {
+        file.getParentFile().mkdirs();
+        var random = new java.util.Random(123);
+        var start = LocalDate.of(2000, 1, 1);
+        try (var writer = new java.io.PrintWriter(file, StandardCharsets.UTF_8)) {
+            writer.println("Id,Date,Value,Count,Label,Note");
+            for (int i=0; i<rowCount; ++i) {
+                var note = !mixedTypes ? "N" + (i % 13) : i > rowCount / 2 ? String.valueOf(i * 0.5d) : "";
+                writer.println(i + "," + start.plusDays(i % 5000) + "," + random.nextDouble() + "," + random.nextInt(1000) + ",L" + (i % 97) + "," + note);
+            }
+        }
+        return file;
+    }
+
+
+    @Test()
+    public void testParallelChunkedRead() throws Exception {
+        var file = writeLargeFile(new File(tmpDir, "large.csv"), 100000, false);
+        var sequential = DataFrame.read(file).csv(Integer.class, options -> options.setRowKeyColumnName("Id"));
+        var parallel = DataFrame.read(file).csv(Integer.class, options -> {
+            options.setRowKeyColumnName("Id");
+            options.setParallel(true);
+        });
+        assertEquals(parallel.rowCount(), 100000);
+        assertEquals(parallel.cols().keyList(), Arrays.asList("Date", "Value", "Count", "Label", "Note"));
+        assertEquals(parallel.cols().type("Date"), LocalDate.class);
+        assertEquals(parallel.cols().type("Value"), Double.class);
+        assertEquals(parallel.cols().type("Count"), sequential.cols().type("Count"));
+        DataFrameAsserts.assertEqualsByIndex(parallel, sequential);
+    }
+
+
+    @DataProvider(name="compression")
+    public Object[][] compression() {
+        return new Object[][] { {".gz"}, {".zz"}, {".mlz"} };
+    }
+
+
+    @Test(dataProvider="compression")
+    public void testCompressedFiles(String extension) throws Exception {
+        var file = writeLargeFile(new File(tmpDir, "large-source.csv"), 20000, false);
+        var frame = DataFrame.read(file).csv(Integer.class, options -> options.setRowKeyColumnName("Id"));
+        var plain = new File(tmpDir, "large-plain.csv");
+        var compressed = new File(tmpDir, "large-compressed.csv" + extension);
+        frame.write().csv(plain).apply();
+        frame.write().csv(compressed).apply();
+        assertTrue(compressed.length() < plain.length() * 0.7, "File is compressed: " + compressed.length());
+        var expected = DataFrame.read(plain).csv(Integer.class, options -> options.setRowKeyColumnName("DataFrame"));
+        var result = DataFrame.read(compressed).csv(Integer.class, options -> {
+            options.setRowKeyColumnName("DataFrame");
+            options.setParallel(true);
+        });
+        assertEquals(result.rowCount(), 20000);
+        DataFrameAsserts.assertEqualsByIndex(result, expected);
+    }
+
+
+    @Test()
+    public void testParallelChunkedReadWithConflictingTypes() throws Exception {
+        var file = writeLargeFile(new File(tmpDir, "large-mixed.csv"), 100000, true);
+        var sequential = DataFrame.read(file).csv(Integer.class, options -> options.setHeader(true));
+        var parallel = DataFrame.read(file).csv(Integer.class, options -> options.setParallel(true));
+        assertEquals(parallel.rowCount(), 100000);
+        assertEquals(parallel.cols().type("Note"), sequential.cols().type("Note"));
+        DataFrameAsserts.assertEqualsByIndex(parallel, sequential);
+    }
+
+
+    @Test()
+    public void testParallelChunkedReadWithMultilineQuotes() throws Exception {
+        var file = new File(tmpDir, "multiline.csv");
+        file.getParentFile().mkdirs();
+        try (var writer = new java.io.PrintWriter(file, StandardCharsets.UTF_8)) {
+            writer.println("Id,Comment,Value");
+            for (int i=0; i<20000; ++i) {
+                var comment = i % 1000 == 0 ? "\"Line one\nline \"\"two\"\"\"" : "Comment " + i;
+                writer.println(i + "," + comment + "," + (i * 1.5d));
+            }
+        }
+        var sequential = DataFrame.read(file).csv(Integer.class, options -> options.setHeader(true));
+        var parallel = DataFrame.read(file).csv(Integer.class, options -> options.setParallel(true));
+        assertEquals(parallel.rowCount(), 20000);
+        assertEquals(parallel.getValueAt(1000, 1), "Line one\nline \"two\"");
+        DataFrameAsserts.assertEqualsByIndex(parallel, sequential);
+    }
+
+
+
+    @Test(dataProvider="parallel")
+    public void testPrimitiveColumnsWithGaps(boolean parallel) throws Exception {
+        var file = new File(tmpDir, "gaps.csv");
+        file.getParentFile().mkdirs();
+        try (var writer = new java.io.PrintWriter(file, StandardCharsets.UTF_8)) {
+            writer.println("Id,Count,Volume,Flag");
+            for (int i=0; i<20000; ++i) {
+                var count = i % 7 == 0 ? "" : String.valueOf(i);
+                var volume = i % 11 == 0 ? "" : String.valueOf(i * 10000000000L);
+                writer.println(i + "," + count + "," + volume + "," + (i % 3 == 0));
+            }
+        }
+        var frame = DataFrame.read(file).csv(Integer.class, options -> {
+            options.setRowKeyColumnName("Id");
+            options.setParallel(parallel);
+            options.getFormats().setParser("Id", Integer.class);
+            options.getFormats().setParser("Count", Integer.class);
+            options.getFormats().setParser("Volume", Long.class);
+        });
+        assertEquals(frame.rowCount(), 20000);
+        assertEquals(frame.cols().type("Count"), Integer.class);
+        assertEquals(frame.cols().type("Volume"), Long.class);
+        assertEquals(frame.cols().type("Flag"), Boolean.class);
+        assertTrue(frame.col("Flag").toArray() instanceof WithBits);
+        for (int i=0; i<20000; ++i) {
+            assertEquals(frame.<Integer>getValue(i, "Count"), i % 7 == 0 ? null : Integer.valueOf(i));
+            assertEquals(frame.<Long>getValue(i, "Volume"), i % 11 == 0 ? null : Long.valueOf(i * 10000000000L));
+            assertEquals(frame.getBoolean(i, "Flag"), i % 3 == 0);
+        }
+    }
+
+
+
     private enum QuoteField {
         OPEN, HIGH, LOW, CLOSE, VOLUME, ADJ_CLOSE;
 
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 
 import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.range.Range;
 import com.d3x.morpheus.util.IO;
 import com.d3x.morpheus.util.functions.Function1;
@@ -291,6 +292,62 @@ public class DbTests {
     }
 
 
+    @Test(dataProvider = "databases")
+    public void testBulkWrite(String dbName) throws Exception {
+        var rowCount = 25003;
+        var frame = createRandomFrame(rowCount);
+        var sink = new DbSink(dataSourceMap.get(dbName));
+        sink.write(frame, options -> {
+            options.setBatchSize(1000);
+            options.setCommitSize(5000);
+            options.setParallelism(4);
+            options.setRowsPerInsert(50);
+            options.setTableName("BulkTable");
+            options.setRowKeyMapping("RowKey", Integer.class, Function1.toInt(v -> v));
+        });
+
+        var conn = dataSourceMap.get(dbName).getConnection();
+        try {
+            var resultSet = conn.createStatement().executeQuery("select count(*), sum(column_1), sum(column_9), sum(RowKey) from BulkTable");
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals(resultSet.getLong(1), rowCount);
+            Assert.assertEquals(resultSet.getLong(2), (long)frame.col("Column-1").stats().sum().doubleValue());
+            Assert.assertEquals(resultSet.getLong(3), (long)frame.col("Column-9").stats().sum().doubleValue());
+            Assert.assertEquals(resultSet.getLong(4), (long)rowCount * (rowCount - 1) / 2);
+        } finally {
+            IO.close(conn);
+        }
+    }
+
+
+    @Test(dataProvider = "databases")
+    public void testFailedBulkWrite(String dbName) throws Exception {
+        var frame = createRandomFrame(8000);
+        var source = dataSourceMap.get(dbName);
+        new DbSink(source).write(frame.rows().select(row -> row.key() == 10), options -> {
+            options.setTableName("FailedBulkTable");
+            options.setRowKeyMapping("RowKey", Integer.class, Function1.toInt(v -> v));
+        });
+        try (Connection conn = source.getConnection()) {
+            conn.createStatement().execute("create unique index FailedBulkIndex on FailedBulkTable (RowKey)");
+        }
+        try {
+            new DbSink(source).write(frame, options -> {
+                options.setBatchSize(1000);
+                options.setCommitSize(1000);
+                options.setParallelism(4);
+                options.setRowsPerInsert(50);
+                options.setTableName("FailedBulkTable");
+                options.setRowKeyMapping("RowKey", Integer.class, Function1.toInt(v -> v));
+            });
+            Assert.fail("Expected the insert of a duplicate row key to fail");
+        } catch (DataFrameException ex) {
+            var running = Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().equals("DbSink-FailedBulkTable"));
+            Assert.assertEquals(running.count(), 0L, "No insert threads outlive the failed write");
+        }
+    }
+
+
     private DataFrame<Integer,String> createRandomFrame(int rowCount) {
         final Range<Integer> rowKeys = Range.of(0, rowCount);
         return DataFrame.of(rowKeys, String.class, columns -> {
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.index;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.range.Range;
+
+/**
+ * Tests on sorted Index lookups such as lower / higher / as-of keys and key range filters
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class IndexSearchTests {
+
+
+    @DataProvider(name="arrays")
+    public Object[][] arrays() {
+        final ZoneId gmt = ZoneId.of("GMT");
+        return new Object[][] {
+            { Range.of(2000, 5000).toArray() },
+            { Range.of(2000L, 5000L).toArray() },
+            { Range.of(2000d, 5000d).toArray() },
+            { Range.of(1000, 3000).map(i -> "String-" + i).toArray() },
+            { Range.of(LocalDate.of(2000, 1, 1), LocalDate.of(2010, 1, 1)).toArray() },
+            { Range.of(LocalTime.of(0,0), LocalTime.of(12, 0), Duration.ofSeconds(10)).toArray() },
+            { Range.of(LocalDateTime.of(2000, 1, 1, 0, 0), LocalDateTime.of(2000, 1, 3, 0, 0), Duration.ofMinutes(1)).toArray() },
+            { Range.of(ZonedDateTime.of(2000, 1, 1, 0, 0, 0, 0, gmt), ZonedDateTime.of(2000, 1, 3, 0, 0, 0, 0, gmt), Duration.ofMinutes(1)).toArray() },
+        };
+    }
+
+
+    /**
+     * Returns an array with the values at even positions of the array specified, optionally shuffled
+     * @param array     the source array
+     * @param shuffle   true to shuffle the result
+     * @return          the array of values at even positions
+     */
+    private <T> Array<T> evens(Array<T> array, boolean shuffle) {
+        final ArrayBuilder<T> builder = ArrayBuilder.of(array.length() / 2 + 1, array.type());
+        for (int i=0; i<array.length(); i += 2) {
+            builder.append(array.getValue(i));
+        }
+        final Array<T> result = builder.toArray();
+        if (shuffle) {
+            final Random random = new Random(1);
+            for (int i=0; i<result.length(); ++i) {
+                result.swap(i, random.nextInt(result.length()));
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns the value in the array at the index specified, or empty if out of bounds
+     * @param array the array reference
+     * @param index the index of value
+     * @return      the optional value
+     */
+    private <T> Optional<T> valueAt(Array<T> array, int index) {
+        return index >= 0 && index < array.length() ? Optional.of(array.getValue(index)) : Optional.empty();
+    }
+
+
+    /**
+     * Asserts that lookups against an index of the values at even positions in the array match expected results
+     * @param index     the index built from values at even positions of array
+     * @param array     the full sorted array of values
+     */
+    private <T> void assertLookups(Index<T> index, Array<T> array) {
+        for (int i=0; i<array.length(); ++i) {
+            final T key = array.getValue(i);
+            final boolean even = i % 2 == 0;
+            Assert.assertEquals(index.asOf(key), valueAt(array, even ? i : i - 1), "As-of key for " + key);
+            Assert.assertEquals(index.previousKey(key), valueAt(array, even ? i - 2 : i - 1), "Previous key for " + key);
+            final Optional<T> next = valueAt(array, even ? i + 2 : i + 1);
+            Assert.assertEquals(index.nextKey(key), next.isPresent() && (even ? i + 2 : i + 1) % 2 == 0 ? next : Optional.empty(), "Next key for " + key);
+        }
+        final int from = array.length() / 3;
+        final int to = 2 * array.length() / 3;
+        final Index<T> between = index.between(array.getValue(from), array.getValue(to));
+        Assert.assertEquals(between.size(), to / 2 - (from - 1) / 2);
+        between.forEach(key -> {
+            final int ordinal = array.binarySearch(key);
+            Assert.assertTrue(ordinal >= from && ordinal <= to, "Key in range: " + key);
+            Assert.assertEquals(between.getCoordinate(key), index.getCoordinate(key));
+        });
+        Assert.assertEquals(index.between(array.getValue(to), array.getValue(from)).size(), 0);
+    }
+
+
+    @Test(dataProvider = "arrays")
+    public <T> void testSortedLookups(Array<T> array) {
+        final Index<T> index = Index.of(evens(array, false));
+        Assert.assertTrue(index.isSorted());
+        this.assertLookups(index, array);
+        Assert.assertTrue(index.between(array.getValue(0), array.getValue(array.length() - 1)).isSorted());
+    }
+
+
+    @Test(dataProvider = "arrays")
+    public <T> void testUnsortedLookups(Array<T> array) {
+        final Index<T> index = Index.of(evens(array, true));
+        Assert.assertFalse(index.isSorted());
+        this.assertLookups(index, array);
+        index.sort(false, true);
+        Assert.assertTrue(index.isSorted());
+        this.assertLookups(index, array);
+    }
+
+
+    @Test(dataProvider = "arrays")
+    public <T> void testSortedOnAppend(Array<T> array) {
+        final Index<T> index = Index.of(array.type(), 100);
+        for (int i=0; i<array.length(); i += 2) {
+            index.add(array.getValue(i));
+            Assert.assertTrue(index.isSorted());
+        }
+        this.assertLookups(index, array);
+        index.add(array.getValue(1));
+        Assert.assertFalse(index.isSorted());
+    }
+
+
+    @Test(dataProvider = "arrays")
+    public <T> void testSortedOnReplace(Array<T> array) {
+        final Index<T> index = Index.of(evens(array, false));
+        final int lastOdd = array.length() % 2 == 0 ? array.length() - 1 : array.length() - 2;
+        index.replace(array.getValue(2), array.getValue(3));
+        Assert.assertTrue(index.isSorted());
+        index.replace(array.getValue(3), array.getValue(lastOdd));
+        Assert.assertFalse(index.isSorted());
+        Assert.assertEquals(index.asOf(array.getValue(4)), Optional.of(array.getValue(4)));
+        Assert.assertEquals(index.previousKey(array.getValue(4)), Optional.of(array.getValue(0)));
+    }
+
+
+    @Test()
+    public void testRangeIndexIsSorted() {
+        Assert.assertTrue(Index.of(Range.of(LocalDate.of(2000, 1, 1), LocalDate.of(2001, 1, 1))).isSorted());
+        Assert.assertTrue(Index.of(Range.of(0, 1000)).isSorted());
+        Assert.assertFalse(Index.of(Range.of(1000, 0)).isSorted());
+        Assert.assertFalse(Index.of(Range.of(0, 1000).map(i -> 1000 - i)).isSorted());
+    }
+
+
+    @Test()
+    public void testFrameRangeSelectAndAsOf() {
+        final LocalDate start = LocalDate.of(2010, 1, 1);
+        final Range<LocalDate> dates = Range.of(start, start.plusDays(5000)).filter(d -> d.getDayOfMonth() != 1);
+        final DataFrame<LocalDate,String> frame = DataFrame.ofDoubles(dates, Array.ofObjects("A", "B"), v -> v.rowOrdinal());
+        final DataFrame<LocalDate,String> slice = frame.rows().between(LocalDate.of(2012, 1, 1), LocalDate.of(2012, 12, 31));
+        Assert.assertEquals(slice.rowCount(), 366 - 12);
+        Assert.assertEquals(slice.rows().firstKey(), Optional.of(LocalDate.of(2012, 1, 2)));
+        Assert.assertEquals(slice.rows().lastKey(), Optional.of(LocalDate.of(2012, 12, 31)));
+        Assert.assertEquals(slice.getDouble(LocalDate.of(2012, 6, 15), "A"), frame.getDouble(LocalDate.of(2012, 6, 15), "A"));
+        Assert.assertEquals(frame.rows().asOf(LocalDate.of(2012, 6, 1)), Optional.of(LocalDate.of(2012, 5, 31)));
+        Assert.assertEquals(frame.rows().asOf(LocalDate.of(2012, 6, 2)), Optional.of(LocalDate.of(2012, 6, 2)));
+        Assert.assertEquals(frame.rows().asOf(start), Optional.empty());
+        Assert.assertEquals(frame.cols().between("B", "Z").colCount(), 1);
+    }
+
+}
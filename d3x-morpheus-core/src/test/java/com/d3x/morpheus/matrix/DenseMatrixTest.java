@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.matrix;
+
+import java.util.Random;
+
+import com.d3x.morpheus.vector.D3xVector;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class DenseMatrixTest {
+    private static final double TOLERANCE = 1.0E-10;
+    private final Random random = new Random(20211101);
+
+    @DataProvider(name = "shapes")
+    public Object[][] shapes() {
+        return new Object[][] {
+                { 1, 1, 1 },
+                { 3, 5, 2 },
+                { 70, 130, 300 },
+                { 257, 65, 129 },
+                { 300, 400, 500 }
+        };
+    }
+
+    private RealMatrix randomApache(int nrow, int ncol) {
+        RealMatrix matrix = new Array2DRowRealMatrix(nrow, ncol);
+
+        for (int i = 0; i < nrow; ++i)
+            for (int j = 0; j < ncol; ++j)
+                matrix.setEntry(i, j, random.nextGaussian());
+
+        return matrix;
+    }
+
+    private static void assertMatrix(D3xMatrix actual, RealMatrix expected) {
+        assertEquals(actual.nrow(), expected.getRowDimension());
+        assertEquals(actual.ncol(), expected.getColumnDimension());
+
+        for (int i = 0; i < actual.nrow(); ++i)
+            for (int j = 0; j < actual.ncol(); ++j)
+                assertEquals(actual.get(i, j), expected.getEntry(i, j), TOLERANCE);
+    }
+
+    @Test
+    public void testDefaultStorage() {
+        assertTrue(D3xMatrix.dense(2, 3) instanceof DenseMatrix);
+        assertTrue(D3xMatrix.copyOf(new double[][] {{ 1.0, 2.0 }}) instanceof DenseMatrix);
+    }
+
+    @Test
+    public void testWrap() {
+        double[] data = { 1.0, 2.0, 3.0, 4.0, 5.0, 6.0 };
+        DenseMatrix matrix = DenseMatrix.wrap(2, 3, data);
+
+        assertEquals(matrix.get(1, 0), 4.0);
+        matrix.set(0, 2, 30.0);
+        assertEquals(data[2], 30.0);
+        assertTrue(matrix.transpose().equalsArray(new double[][] {{ 1.0, 4.0 }, { 2.0, 5.0 }, { 30.0, 6.0 }}));
+
+        assertThrows(RuntimeException.class, () -> DenseMatrix.wrap(2, 2, data));
+        assertThrows(RuntimeException.class, () -> matrix.get(2, 0));
+    }
+
+    @Test(dataProvider = "shapes")
+    public void testTimesMatrix(int M, int N, int K) {
+        RealMatrix A = randomApache(M, K);
+        RealMatrix B = randomApache(K, N);
+        DenseMatrix denseA = DenseMatrix.copyOf(A.getData());
+        DenseMatrix denseB = DenseMatrix.copyOf(B.getData());
+
+        assertMatrix(denseA.times(denseB), A.multiply(B));
+        assertMatrix(denseA.times(denseB, false), A.multiply(B));
+        assertMatrix(denseA.times(ApacheMatrix.wrap(B)), A.multiply(B));
+        assertMatrix(ApacheMatrix.wrap(A).times(denseB), A.multiply(B));
+    }
+
+    @Test(dataProvider = "shapes")
+    public void testTransposeTimesMatrix(int M, int N, int K) {
+        RealMatrix A = randomApache(K, M);
+        RealMatrix B = randomApache(K, N);
+        DenseMatrix denseA = DenseMatrix.copyOf(A.getData());
+        DenseMatrix denseB = DenseMatrix.copyOf(B.getData());
+
+        assertMatrix(denseA.transposeTimes(denseB), A.transpose().multiply(B));
+        assertMatrix(denseA.transposeTimes(denseB, false), A.transpose().multiply(B));
+        assertThrows(RuntimeException.class, () -> denseA.transposeTimes(DenseMatrix.dense(K + 1, N)));
+    }
+
+    @Test(dataProvider = "shapes")
+    public void testTimesVector(int M, int N, int K) {
+        RealMatrix A = randomApache(M, K);
+        DenseMatrix denseA = DenseMatrix.copyOf(A.getData());
+        double[] x = randomApache(1, K).getRow(0);
+        double[] y = randomApache(1, M).getRow(0);
+
+        assertTrue(denseA.times(D3xVector.wrap(x)).equalsArray(A.operate(x)));
+        assertTrue(denseA.transposeTimes(D3xVector.wrap(y)).equalsArray(A.preMultiply(y)));
+    }
+
+    @Test
+    public void testDiagonalFactors() {
+        RealMatrix A = randomApache(40, 30);
+        DenseMatrix denseA = DenseMatrix.copyOf(A.getData());
+        D3xVector left = D3xVector.wrap(randomApache(1, 40).getRow(0));
+        D3xVector right = D3xVector.wrap(randomApache(1, 30).getRow(0));
+        RealMatrix leftDiag = ApacheMatrix.asOperand(D3xMatrix.diagonal(left));
+        RealMatrix rightDiag = ApacheMatrix.asOperand(D3xMatrix.diagonal(right));
+
+        assertMatrix(denseA.times(D3xMatrix.diagonal(right)), A.multiply(rightDiag));
+        assertMatrix(denseA.transposeTimes(D3xMatrix.diagonal(left)), A.transpose().multiply(leftDiag));
+        assertMatrix(D3xMatrix.diagonal(left).times(denseA), leftDiag.multiply(A));
+    }
+
+    @Test
+    public void testNaNPropagation() {
+        DenseMatrix A = DenseMatrix.copyOf(new double[][] {{ 0.0, 1.0 }, { 0.0, 1.0 }, { 0.0, 1.0 }, { 0.0, 1.0 }, { 0.0, 1.0 }});
+        DenseMatrix B = DenseMatrix.copyOf(new double[][] {{ Double.NaN }, { 2.0 }});
+        D3xVector x = D3xVector.wrap(Double.NaN, 2.0);
+
+        for (D3xMatrix product : new D3xMatrix[] { A.times(B), A.times(B, false), A.transpose().transposeTimes(B) })
+            for (int i = 0; i < 5; ++i)
+                assertTrue(Double.isNaN(product.get(i, 0)));
+
+        D3xVector y = A.transpose().transposeTimes(x);
+
+        for (int i = 0; i < 5; ++i)
+            assertTrue(Double.isNaN(y.get(i)));
+    }
+}
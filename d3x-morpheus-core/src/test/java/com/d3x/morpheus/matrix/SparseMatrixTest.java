@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.matrix;
+
+import java.util.Random;
+
+import com.d3x.morpheus.vector.D3xVector;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class SparseMatrixTest {
+    private static final double TOLERANCE = 1.0E-12;
+    private final Random random = new Random(20211115);
+
+    @DataProvider(name = "shapes")
+    public Object[][] shapes() {
+        return new Object[][] {
+                { 1, 1, 1, 0.5 },
+                { 5, 3, 4, 0.3 },
+                { 40, 70, 30, 0.05 },
+                { 200, 150, 120, 0.01 }
+        };
+    }
+
+    private DenseMatrix randomSparse(int nrow, int ncol, double density) {
+        DenseMatrix matrix = DenseMatrix.dense(nrow, ncol);
+
+        for (int i = 0; i < nrow; ++i)
+            for (int j = 0; j < ncol; ++j)
+                if (random.nextDouble() < density)
+                    matrix.set(i, j, random.nextGaussian());
+
+        return matrix;
+    }
+
+    private static void assertMatrix(D3xMatrixView actual, D3xMatrixView expected) {
+        assertEquals(actual.nrow(), expected.nrow());
+        assertEquals(actual.ncol(), expected.ncol());
+
+        for (int i = 0; i < actual.nrow(); ++i)
+            for (int j = 0; j < actual.ncol(); ++j)
+                assertEquals(actual.get(i, j), expected.get(i, j), TOLERANCE);
+    }
+
+    @Test
+    public void testDefaultStorage() {
+        assertTrue(D3xMatrix.sparse(2, 3) instanceof SparseMatrix);
+        assertTrue(D3xMatrix.zeros(2, 3) instanceof SparseMatrix);
+        assertTrue(((SparseMatrix) D3xMatrix.sparse(2, 3)).isRowCompressed());
+    }
+
+    @Test
+    public void testSetGet() {
+        SparseMatrix csr = SparseMatrix.csr(3, 4);
+        SparseMatrix csc = SparseMatrix.csc(3, 4);
+
+        for (SparseMatrix matrix : new SparseMatrix[] { csr, csc }) {
+            matrix.set(2, 3, 23.0);
+            matrix.set(0, 1, 1.0);
+            matrix.set(2, 0, 20.0);
+            matrix.set(0, 3, 3.0);
+            matrix.set(1, 1, 11.0);
+
+            assertEquals(matrix.nonZeroCount(), 5);
+            assertTrue(matrix.equalsArray(new double[][] {
+                    { 0.0,  1.0, 0.0,  3.0 },
+                    { 0.0, 11.0, 0.0,  0.0 },
+                    { 20.0, 0.0, 0.0, 23.0 }
+            }));
+
+            matrix.set(1, 1, 0.0);
+            matrix.set(0, 3, 30.0);
+            matrix.set(1, 2, 0.0);
+
+            assertEquals(matrix.nonZeroCount(), 4);
+            assertEquals(matrix.get(1, 1), 0.0);
+            assertEquals(matrix.get(0, 3), 30.0);
+            assertThrows(RuntimeException.class, () -> matrix.get(3, 0));
+            assertThrows(RuntimeException.class, () -> matrix.set(0, 4, 1.0));
+        }
+    }
+
+    @Test
+    public void testWrap() {
+        int[] pointers = { 0, 2, 2, 3 };
+        int[] indexes = { 0, 2, 1 };
+        double[] values = { 1.0, 2.0, 3.0 };
+
+        SparseMatrix csr = SparseMatrix.wrap(3, 3, true, pointers, indexes, values);
+        SparseMatrix csc = SparseMatrix.wrap(3, 3, false, pointers, indexes, values);
+
+        assertTrue(csr.equalsArray(new double[][] {{ 1.0, 0.0, 2.0 }, { 0.0, 0.0, 0.0 }, { 0.0, 3.0, 0.0 }}));
+        assertTrue(csc.equalsArray(new double[][] {{ 1.0, 0.0, 0.0 }, { 0.0, 0.0, 3.0 }, { 2.0, 0.0, 0.0 }}));
+
+        assertThrows(RuntimeException.class, () -> SparseMatrix.wrap(3, 3, true, new int[] { 0, 1, 1 }, indexes, values));
+        assertThrows(RuntimeException.class, () -> SparseMatrix.wrap(3, 3, true, pointers, new int[] { 2, 0, 1 }, values));
+        assertThrows(RuntimeException.class, () -> SparseMatrix.wrap(3, 3, true, pointers, new int[] { 0, 3, 1 }, values));
+    }
+
+    @Test(dataProvider = "shapes")
+    public void testLayout(int nrow, int ncol, int ignored, double density) {
+        DenseMatrix dense = randomSparse(nrow, ncol, density);
+        SparseMatrix csr = SparseMatrix.copyOf(dense);
+        SparseMatrix csc = csr.toCSC();
+
+        assertTrue(csr.isRowCompressed());
+        assertFalse(csc.isRowCompressed());
+        assertSame(csr.toCSR(), csr);
+        assertEquals(csc.nonZeroCount(), csr.nonZeroCount());
+
+        assertMatrix(csr, dense);
+        assertMatrix(csc, dense);
+        assertMatrix(csc.toCSR(), dense);
+        assertMatrix(csr.transpose(), dense.transpose());
+        assertMatrix(csc.transpose(), dense.transpose());
+        assertFalse(csr.transpose().isRowCompressed());
+    }
+
+    @Test(dataProvider = "shapes")
+    public void testVectorProducts(int nrow, int ncol, int ignored, double density) {
+        DenseMatrix dense = randomSparse(nrow, ncol, density);
+        D3xVector x = D3xVector.random(ncol, random);
+        D3xVector y = D3xVector.random(nrow, random);
+
+        for (SparseMatrix sparse : new SparseMatrix[] { SparseMatrix.copyOf(dense), SparseMatrix.copyOf(dense).toCSC() }) {
+            assertTrue(sparse.times(x).equalsVector(dense.times(x)));
+            assertTrue(sparse.transposeTimes(y).equalsVector(dense.transposeTimes(y)));
+        }
+    }
+
+    @Test(dataProvider = "shapes")
+    public void testMatrixProducts(int nrow, int ncol, int inner, double density) {
+        DenseMatrix A = randomSparse(nrow, inner, density);
+        DenseMatrix B = randomSparse(inner, ncol, density);
+        DenseMatrix G = randomSparse(inner, ncol, 1.0);
+        DenseMatrix H = randomSparse(ncol, inner, 1.0);
+        DenseMatrix expected = A.times(B);
+
+        for (SparseMatrix sparseA : new SparseMatrix[] { SparseMatrix.copyOf(A), SparseMatrix.copyOf(A).toCSC() }) {
+            for (SparseMatrix sparseB : new SparseMatrix[] { SparseMatrix.copyOf(B), SparseMatrix.copyOf(B).toCSC() }) {
+                D3xMatrix product = sparseA.times(sparseB);
+                assertTrue(product instanceof SparseMatrix);
+                assertMatrix(product, expected);
+                assertMatrix(sparseB.transposeTimes(sparseA.transpose()), expected.transpose());
+            }
+
+            D3xMatrix sparseDense = sparseA.times(G);
+            assertTrue(sparseDense instanceof DenseMatrix);
+            assertMatrix(sparseDense, A.times(G));
+            assertMatrix(sparseA.transpose().transposeTimes(G), A.times(G));
+            assertMatrix(H.times(sparseA.transpose()), H.times(A.transpose()));
+            assertMatrix(H.transpose().transposeTimes(sparseA.transpose()), H.times(A.transpose()));
+            assertMatrix(ApacheMatrix.copyOf(H.toArray()).times(sparseA.transpose()), H.times(A.transpose()));
+        }
+    }
+
+    @Test
+    public void testDiagonalProduct() {
+        DenseMatrix A = randomSparse(20, 10, 0.2);
+        D3xVector diagonal = D3xVector.random(10, random);
+        D3xMatrix product = SparseMatrix.copyOf(A).toCSC().times(D3xMatrix.diagonal(diagonal));
+
+        assertTrue(product instanceof SparseMatrix);
+        assertMatrix(product, A.times(D3xMatrix.diagonal(diagonal)));
+        assertThrows(RuntimeException.class, () -> SparseMatrix.csr(3, 4).times(SparseMatrix.csr(3, 4)));
+    }
+
+    @Test
+    public void testScalar() {
+        SparseMatrix matrix = SparseMatrix.csr(2, 2);
+        matrix.set(0, 1, 2.0);
+        matrix.set(1, 0, 3.0);
+
+        SparseMatrix product = matrix.times(2.0);
+        assertTrue(product.equalsArray(new double[][] {{ 0.0, 4.0 }, { 6.0, 0.0 }}));
+        assertTrue(matrix.equalsArray(new double[][] {{ 0.0, 2.0 }, { 3.0, 0.0 }}));
+
+        SparseMatrix copy = matrix.copy();
+        copy.set(0, 0, 1.0);
+        assertEquals(matrix.get(0, 0), 0.0);
+        assertEquals(matrix.like(3, 5).nonZeroCount(), 0);
+    }
+
+    @Test
+    public void testNaNPropagation() {
+        SparseMatrix S = SparseMatrix.csr(2, 3);
+        S.set(0, 0, 1.0);
+        S.set(0, 1, Double.NaN);
+        S.set(1, 2, Double.POSITIVE_INFINITY);
+
+        DenseMatrix denseS = DenseMatrix.copyOf(S);
+        DenseMatrix A = DenseMatrix.dense(4, 2);
+        D3xVector x = D3xVector.wrap(1.0, 0.0, 0.0);
+        D3xVector zeros = D3xVector.wrap(0.0, 0.0);
+
+        for (SparseMatrix matrix : new SparseMatrix[] { S, S.toCSC() }) {
+            D3xVector y = matrix.times(x);
+            assertTrue(Double.isNaN(y.get(0)));
+            assertTrue(Double.isNaN(y.get(1)));
+
+            D3xVector z = matrix.transposeTimes(zeros);
+            assertEquals(z.get(0), 0.0);
+            assertTrue(Double.isNaN(z.get(1)));
+            assertTrue(Double.isNaN(z.get(2)));
+
+            D3xMatrix product = A.times(matrix);
+            D3xMatrix expected = A.times(denseS);
+
+            for (int i = 0; i < 4; ++i) {
+                assertEquals(product.get(i, 0), 0.0);
+                assertTrue(Double.isNaN(product.get(i, 1)));
+                assertTrue(Double.isNaN(product.get(i, 2)));
+
+                for (int j = 0; j < 3; ++j)
+                    assertEquals(product.get(i, j), expected.get(i, j));
+            }
+        }
+    }
+}
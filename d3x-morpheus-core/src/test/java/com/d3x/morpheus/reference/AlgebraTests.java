@@ -338,6 +338,20 @@ public class AlgebraTests {
         });
     }
 
+
+    @Test(dataProvider = "styles")
+    public void testDotProductPropagatesNaN(DataFrameAlgebra.Lib lib, boolean parallel) {
+        DataFrameAlgebra.LIBRARY.set(lib);
+        final DataFrame<Integer,Integer> left = DataFrame.ofDoubles(Range.of(0, 5), Range.of(0, 2), v -> v.colOrdinal() == 0 ? 0d : 1d);
+        final DataFrame<Integer,Integer> right = DataFrame.ofDoubles(Range.of(0, 2), Range.of(0, 1), v -> v.rowOrdinal() == 0 ? Double.NaN : 2d);
+        final DataFrame<Integer,Integer> result = (parallel ? left.parallel() : left.sequential()).dot(right);
+        Assert.assertEquals(result.rowCount(), 5);
+        Assert.assertEquals(result.colCount(), 1);
+        for (int i=0; i<result.rowCount(); ++i) {
+            Assert.assertTrue(Double.isNaN(result.getDoubleAt(i, 0)), "NaN propagates to row " + i);
+        }
+    }
+
     /*
     @Test(dataProvider = "styles")
     public void testDeterminant(DataFrameAlgebra.Lib lib, boolean parallel) {
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference;
+
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.stats.StdDev;
+
+/**
+ * Unit tests for the calculations exposed by DataFrameCalculate
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class CalculateTests {
+
+
+    @DataProvider(name="parallel")
+    public Object[][] parallel() {
+        return new Object[][] {{false}, {true}};
+    }
+
+
+    /**
+     * Returns a frame of random prices with some missing values, optionally as a reversed filter of a larger frame
+     * @param parallel  true for a parallel frame
+     * @param filter    true to return a filter whose row coordinates differ from row ordinals
+     * @return          the frame of prices
+     */
+    private DataFrame<Integer,String> createPrices(boolean parallel, boolean filter) {
+        final Random random = new Random(7);
+        final DataFrame<Integer,String> frame = DataFrame.ofDoubles(Range.of(0, 1000), Range.of(0, 8).map(i -> "C" + i));
+        frame.applyDoubles(v -> random.nextDouble() < 0.01 ? Double.NaN : 50d + random.nextDouble() * 100d);
+        final DataFrame<Integer,String> prices = filter ? frame.rows().select(row -> row.ordinal() % 3 != 0).rows().sort(false) : frame;
+        return parallel ? prices.parallel() : prices.sequential();
+    }
+
+
+    /**
+     * Asserts the result of a calculation against values computed by the function provided
+     * @param result    the result frame
+     * @param source    the source frame
+     * @param offset    the row offset of the result relative to the source
+     * @param expected  the function to compute the expected value given a source row and column ordinal
+     */
+    private void assertResult(DataFrame<Integer,String> result, DataFrame<Integer,String> source, int offset, Expected expected) {
+        Assert.assertEquals(result.rowCount(), source.rowCount() - offset);
+        Assert.assertEquals(result.cols().keyArray().toList(), source.cols().keyArray().toList());
+        for (int i=0; i<result.rowCount(); ++i) {
+            Assert.assertEquals(result.rows().key(i), source.rows().key(i + offset));
+            for (int j=0; j<result.colCount(); ++j) {
+                final double value = result.getDoubleAt(i, j);
+                final double expect = expected.compute(i + offset, j);
+                Assert.assertEquals(value, expect, 0.0000001, "Value matches at (" + i + "," + j + ")");
+            }
+        }
+    }
+
+
+    @Test(dataProvider="parallel")
+    public void testReturns(boolean parallel) {
+        for (boolean filter : new boolean[] {false, true}) {
+            final DataFrame<Integer,String> prices = createPrices(parallel, filter);
+            assertResult(prices.calc().percentChanges(), prices, 0, (i, j) -> {
+                return i == 0 ? Double.NaN : prices.getDoubleAt(i, j) / prices.getDoubleAt(i-1, j) - 1d;
+            });
+            assertResult(prices.calc().logReturns(), prices, 0, (i, j) -> {
+                return i == 0 ? Double.NaN : Math.log(prices.getDoubleAt(i, j) / prices.getDoubleAt(i-1, j));
+            });
+            assertResult(prices.calc().cumReturns(), prices, 0, (i, j) -> {
+                return i == 0 ? Double.NaN : prices.getDoubleAt(i, j) / prices.getDoubleAt(0, j) - 1d;
+            });
+        }
+    }
+
+
+    @Test(dataProvider="parallel")
+    public void testSimpleMovingAverage(boolean parallel) {
+        for (boolean filter : new boolean[] {false, true}) {
+            final int windowSize = 20;
+            final DataFrame<Integer,String> prices = createPrices(parallel, filter);
+            assertResult(prices.calc().sma(windowSize), prices, windowSize - 1, (i, j) -> {
+                double sum = 0d;
+                for (int k=i-windowSize+1; k<=i; ++k) {
+                    sum += prices.getDoubleAt(k, j);
+                }
+                return sum / windowSize;
+            });
+        }
+    }
+
+
+    @Test(dataProvider="parallel")
+    public void testExponentialMovingAverage(boolean parallel) {
+        for (boolean filter : new boolean[] {false, true}) {
+            final int windowSize = 10;
+            final double alpha = 2d / (windowSize + 1d);
+            final DataFrame<Integer,String> prices = createPrices(parallel, filter).applyDoubles(v -> {
+                return Double.isNaN(v.getDouble()) ? 100d : v.getDouble();
+            });
+            assertResult(prices.calc().ema(windowSize), prices, 0, (i, j) -> {
+                double ema = prices.getDoubleAt(0, j);
+                for (int k=1; k<=i; ++k) {
+                    ema = prices.getDoubleAt(k, j) * alpha + (1d - alpha) * ema;
+                }
+                return ema;
+            });
+        }
+    }
+
+
+    @Test(dataProvider="parallel")
+    public void testStdDev(boolean parallel) {
+        for (boolean filter : new boolean[] {false, true}) {
+            final int windowSize = 15;
+            final DataFrame<Integer,String> prices = createPrices(parallel, filter);
+            assertResult(prices.calc().stdDev(windowSize), prices, windowSize - 1, (i, j) -> {
+                final StdDev stdDev = new StdDev(true);
+                for (int k=i-windowSize+1; k<=i; ++k) {
+                    stdDev.add(prices.getDoubleAt(k, j));
+                }
+                return stdDev.getValue();
+            });
+        }
+    }
+
+
+    @Test(dataProvider="parallel")
+    public void testInfiniteValues(boolean parallel) {
+        final int windowSize = 3;
+        final double[] values = {1d, 2d, Double.POSITIVE_INFINITY, 4d, 5d, Double.NEGATIVE_INFINITY, 7d, 8d, 9d, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 12d, 13d, 14d};
+        final DataFrame<Integer,String> frame = DataFrame.ofDoubles(Range.of(0, values.length), Range.of(0, 2).map(i -> "C" + i));
+        frame.applyDoubles(v -> v.colOrdinal() == 0 ? values[v.rowOrdinal()] : values[values.length - v.rowOrdinal() - 1]);
+        final DataFrame<Integer,String> source = parallel ? frame.parallel() : frame.sequential();
+        assertResult(source.calc().sma(windowSize), source, windowSize - 1, (i, j) -> {
+            double sum = 0d;
+            for (int k=i-windowSize+1; k<=i; ++k) {
+                sum += source.getDoubleAt(k, j);
+            }
+            return sum / windowSize;
+        });
+        assertResult(source.calc().stdDev(windowSize), source, windowSize - 1, (i, j) -> {
+            final StdDev stdDev = new StdDev(true);
+            for (int k=i-windowSize+1; k<=i; ++k) {
+                final double value = source.getDoubleAt(k, j);
+                if (Double.isInfinite(value)) {
+                    return Double.NaN;
+                } else {
+                    stdDev.add(value);
+                }
+            }
+            return stdDev.getValue();
+        });
+        final DataFrame<Integer,String> sma = source.calc().sma(windowSize);
+        Assert.assertEquals(sma.getDoubleAt(0, 0), Double.POSITIVE_INFINITY);
+        Assert.assertEquals(sma.getDoubleAt(6, 0), 8d, 0.0000001);
+        Assert.assertEquals(sma.getDoubleAt(11, 0), 13d, 0.0000001);
+    }
+
+
+    @Test(dataProvider="parallel")
+    public void testConstantWindows(boolean parallel) {
+        final int windowSize = 10;
+        final Random random = new Random(11);
+        final DataFrame<Integer,String> frame = DataFrame.ofDoubles(Range.of(0, 2000), Range.of(0, 8).map(i -> "C" + i));
+        frame.applyDoubles(v -> (v.rowOrdinal() / 50) % 2 == 0 ? random.nextDouble() * 1000d : 0.1d * (v.colOrdinal() + 1));
+        final DataFrame<Integer,String> source = parallel ? frame.parallel() : frame.sequential();
+        final DataFrame<Integer,String> stdDev = source.calc().stdDev(windowSize);
+        final DataFrame<Integer,String> sma = source.calc().sma(windowSize);
+        for (int i=0; i<stdDev.rowCount(); ++i) {
+            final int last = i + windowSize - 1;
+            final boolean constant = (i / 50) % 2 == 1 && (last / 50) % 2 == 1 && i / 50 == last / 50;
+            for (int j=0; j<stdDev.colCount(); ++j) {
+                final double value = stdDev.getDoubleAt(i, j);
+                Assert.assertFalse(Double.isNaN(value), "StdDev is defined at (" + i + "," + j + ")");
+                Assert.assertTrue(value >= 0d, "StdDev is non-negative at (" + i + "," + j + ")");
+                if (constant) {
+                    Assert.assertEquals(value, 0d, 0.000001, "StdDev of constant window at (" + i + "," + j + ")");
+                    Assert.assertEquals(sma.getDoubleAt(i, j), 0.1d * (j + 1), 0.000001, "Mean of constant window at (" + i + "," + j + ")");
+                }
+            }
+        }
+    }
+
+
+    @Test()
+    public void testWindowLargerThanFrame() {
+        final DataFrame<Integer,String> prices = createPrices(false, false).rows().select(row -> row.ordinal() < 5);
+        Assert.assertEquals(prices.calc().sma(10).rowCount(), 0);
+        Assert.assertEquals(prices.calc().stdDev(10).rowCount(), 0);
+        Assert.assertEquals(prices.calc().sma(10).colCount(), prices.colCount());
+        Assert.assertEquals(prices.calc().sma(5).rowCount(), 1);
+    }
+
+
+    /**
+     * A function to compute an expected value given a source row and column ordinal
+     */
+    private interface Expected {
+
+        double compute(int rowOrdinal, int colOrdinal);
+    }
+
+}
@@ -15,7 +15,11 @@
  */
 package com.d3x.morpheus.reference;
 
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayStyle;
 import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.matrix.SparseMatrix;
+import com.d3x.morpheus.range.Range;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -99,4 +103,51 @@ public class ExportTests {
         }
     }
 
+
+    @Test()
+    public void testSparseMatrix() {
+        final DataFrame<String,String> frame = TestDataFrames.random(double.class, 50, 20);
+        frame.applyDoubles(v -> v.rowOrdinal() % 3 == v.colOrdinal() % 4 ? v.getDouble() : 0d);
+        assertSparseMatrix(frame, frame.export().asSparseMatrix());
+        assertSparseMatrix(frame.rows().select(row -> row.ordinal() % 2 == 0), frame.rows().select(row -> row.ordinal() % 2 == 0).export().asSparseMatrix());
+    }
+
+
+    @Test()
+    public void testSparseMatrixOfSparseColumns() {
+        final int rowCount = 1000;
+        final DataFrame<Integer,String> frame = DataFrame.of(Range.of(0, rowCount), String.class, columns -> {
+            for (int j=0; j<10; ++j) {
+                final Array<Double> array = Array.of(Double.class, rowCount, 0d, ArrayStyle.SPARSE);
+                for (int i=j; i<rowCount; i += 97) array.setDouble(i, i + j / 10d);
+                columns.add("C" + j, array);
+            }
+            columns.add("Dense", Array.of(Double.class, rowCount, 0d));
+        });
+        assertSparseMatrix(frame, frame.export().asSparseMatrix());
+        final DataFrame<Integer,String> sorted = frame.rows().sort(false);
+        assertSparseMatrix(sorted, sorted.export().asSparseMatrix());
+    }
+
+
+    /**
+     * Asserts that a sparse matrix contains exactly the non-zero values of a frame
+     * @param frame     the source frame
+     * @param matrix    the sparse matrix exported from frame
+     */
+    private void assertSparseMatrix(DataFrame<?,?> frame, SparseMatrix matrix) {
+        Assert.assertFalse(matrix.isRowCompressed(), "Matrix has compressed columns");
+        Assert.assertEquals(matrix.nrow(), frame.rowCount(), "Row count matches");
+        Assert.assertEquals(matrix.ncol(), frame.colCount(), "Column count matches");
+        int count = 0;
+        for (int i=0; i<frame.rowCount(); ++i) {
+            for (int j = 0; j<frame.colCount(); ++j) {
+                final double value = frame.getDoubleAt(i, j);
+                Assert.assertEquals(matrix.get(i, j), value, "Values match at " + i + "," + j);
+                if (value != 0d) count++;
+            }
+        }
+        Assert.assertEquals(matrix.nonZeroCount(), count, "Only non-zero values are stored");
+    }
+
 }
@@ -15,8 +15,16 @@
  */
 package com.d3x.morpheus.reference;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -29,6 +37,9 @@ import com.d3x.morpheus.frame.DataFrameColumn;
 import com.d3x.morpheus.frame.DataFrameGrouping;
 import com.d3x.morpheus.frame.DataFrameRow;
 import com.d3x.morpheus.index.Index;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.stats.StatType;
+import com.d3x.morpheus.stats.StdDev;
 import com.d3x.morpheus.util.Tuple;
 
 /**
@@ -161,6 +172,100 @@ public class GroupingTests {
     }
 
 
+    @Test(dataProvider = "parallel")
+    public void testAggRows1D(boolean parallel) {
+        final DataFrame<String,String> source = frame();
+        final DataFrameGrouping.Rows<String,String> grouping = parallel ? source.rows().parallel().groupBy("Niche") : source.rows().sequential().groupBy("Niche");
+        final DataFrame<Tuple,String> agg = grouping.agg(colKey -> {
+            switch (colKey) {
+                case "AUM":             return StatType.SUM;
+                case "Expense Ratio":   return StatType.MEAN;
+                case "Spread%":         return StatType.STD_DEV;
+                case "P/E":             return StatType.MAX;
+                default:                return null;
+            }
+        });
+        Assert.assertEquals(agg.cols().keyArray().toList(), Arrays.asList("Expense Ratio", "AUM", "Spread%", "P/E"));
+        Assert.assertEquals(agg.rowCount(), grouping.getGroupCount(0));
+        final DataFrame<Tuple,String> sums = grouping.stats(0).sum();
+        final DataFrame<Tuple,String> counts = grouping.stats(0).count();
+        grouping.getGroupKeys(0).forEach(groupKey -> {
+            final DataFrame<String,String> group = grouping.getGroup(groupKey);
+            assertEquals(agg.getDouble(groupKey, "AUM"), group.col("AUM").stats().sum(), 0.01, "The AUM sums match for " + groupKey);
+            assertEquals(agg.getDouble(groupKey, "Expense Ratio"), group.col("Expense Ratio").stats().mean(), 0.0001, "The mean matches for " + groupKey);
+            assertEquals(agg.getDouble(groupKey, "Spread%"), group.col("Spread%").stats().stdDev(), 0.0001, "The stdDev matches for " + groupKey);
+            assertEquals(agg.getDouble(groupKey, "P/E"), group.col("P/E").stats().max(), 0.0001, "The max matches for " + groupKey);
+            assertEquals(sums.getDouble(groupKey, "AUM"), group.col("AUM").stats().sum(), 0.01, "The AUM stats sums match for " + groupKey);
+            assertEquals(counts.getDouble(groupKey, "P/E"), group.col("P/E").stats().count(), 0.0001, "The counts match for " + groupKey);
+        });
+    }
+
+
+    @Test(dataProvider = "parallel")
+    public void testAggRows2D(boolean parallel) {
+        final DataFrame<String,String> source = frame();
+        final DataFrameGrouping.Rows<String,String> grouping = parallel ? source.rows().parallel().groupBy("Issuer", "Niche") : source.rows().groupBy("Issuer", "Niche");
+        for (int level=0; level<2; ++level) {
+            final DataFrame<Tuple,String> agg = grouping.agg(level, colKey -> colKey.equals("AUM") ? StatType.MEAN : null);
+            Assert.assertEquals(agg.rowCount(), grouping.getGroupCount(level));
+            grouping.getGroupKeys(level).forEach(groupKey -> {
+                final DataFrame<String,String> group = grouping.getGroup(groupKey);
+                assertEquals(agg.getDouble(groupKey, "AUM"), group.col("AUM").stats().mean(), 0.01, "The AUM mean matches for " + groupKey);
+            });
+        }
+    }
+
+
+    @Test(dataProvider = "parallel")
+    public void testAggPrimitiveKeys(boolean parallel) {
+        final Random random = new Random(7);
+        final int rowCount = 200000;
+        final DataFrame<Integer,String> frame = DataFrame.of(Range.of(0, rowCount), String.class, columns -> {
+            columns.add("IntKey", Array.of(Integer.class, rowCount).applyInts(v -> random.nextInt(5000)));
+            columns.add("LongKey", Array.of(Long.class, rowCount).applyLongs(v -> 1000000000000L + random.nextInt(300)));
+            columns.add("Value", Array.of(Double.class, rowCount).applyDoubles(v -> random.nextInt(10) == 0 ? Double.NaN : random.nextGaussian()));
+        });
+        for (String keyColumn : new String[] {"IntKey", "LongKey"}) {
+            final Map<Object,StdDev> expected = new HashMap<>();
+            frame.rows().forEach(row -> expected.computeIfAbsent(row.getValue(keyColumn), k -> new StdDev(true)).add(row.getDouble("Value")));
+            final DataFrameGrouping.Rows<Integer,String> grouping = parallel ? frame.rows().parallel().groupBy(keyColumn) : frame.rows().sequential().groupBy(keyColumn);
+            final DataFrame<Tuple,String> stdDev = grouping.agg(colKey -> colKey.equals("Value") ? StatType.STD_DEV : null);
+            final DataFrame<Tuple,String> count = grouping.agg(colKey -> colKey.equals("Value") ? StatType.COUNT : null);
+            Assert.assertEquals(stdDev.rowCount(), expected.size());
+            expected.forEach((key, stat) -> {
+                final Tuple groupKey = Tuple.of(key);
+                assertEquals(stdDev.getDouble(groupKey, "Value"), stat.getValue(), 0.0000001, "StdDev matches for " + key);
+                assertEquals(count.getDouble(groupKey, "Value"), stat.getN(), 0d, "Count matches for " + key);
+            });
+        }
+    }
+
+
+    @Test(dataProvider = "parallel")
+    public void testAggExcludesGroupColumnsInFirstRowOrder(boolean parallel) {
+        final Random random = new Random(3);
+        final int rowCount = 50000;
+        final DataFrame<Integer,String> frame = DataFrame.of(Range.of(0, rowCount), String.class, columns -> {
+            columns.add("IntKey", Array.of(Integer.class, rowCount).applyInts(v -> random.nextInt(2000)));
+            columns.add("LongKey", Array.of(Long.class, rowCount).applyLongs(v -> random.nextInt(50)));
+            columns.add("Value", Array.of(Double.class, rowCount).applyDoubles(v -> random.nextGaussian()));
+        });
+        for (String[] keys : new String[][] {{"IntKey"}, {"LongKey"}, {"IntKey", "LongKey"}}) {
+            final Set<Tuple> groupKeys = new LinkedHashSet<>();
+            frame.rows().forEach(row -> groupKeys.add(Tuple.of(Stream.of(keys).map(row::getValue).toArray())));
+            final List<Tuple> expected = new ArrayList<>(groupKeys);
+            final DataFrameGrouping.Rows<Integer,String> grouping = parallel ? frame.rows().parallel().groupBy(keys) : frame.rows().sequential().groupBy(keys);
+            final DataFrame<Tuple,String> sums = grouping.stats(keys.length - 1).sum();
+            final DataFrame<Tuple,String> agg = grouping.agg(colKey -> StatType.MEAN);
+            final List<String> colKeys = frame.cols().keyArray().toList().stream().filter(c -> !Arrays.asList(keys).contains(c)).collect(Collectors.toList());
+            Assert.assertEquals(sums.cols().keyArray().toList(), colKeys, "Group columns are not aggregated for " + Arrays.toString(keys));
+            Assert.assertEquals(agg.cols().keyArray().toList(), colKeys, "Group columns are not aggregated for " + Arrays.toString(keys));
+            Assert.assertEquals(sums.rows().keyArray().toList(), expected, "Groups follow first row order for " + Arrays.toString(keys));
+            Assert.assertEquals(agg.rows().keyArray().toList(), expected, "Groups follow first row order for " + Arrays.toString(keys));
+        }
+    }
+
+
     @Test()
     public void testTranspose() {
         final DataFrame<String,String> source = frame();
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.JoinType;
+import com.d3x.morpheus.range.Range;
+
+/**
+ * Tests for key based joins between DataFrames
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class JoinTests {
+
+    @DataProvider(name="styles")
+    public Object[][] styles() {
+        return new Object[][] {
+            { JoinType.INNER, false, false },
+            { JoinType.INNER, true, false },
+            { JoinType.INNER, false, true },
+            { JoinType.LEFT, false, false },
+            { JoinType.LEFT, true, true },
+            { JoinType.OUTER, false, false },
+            { JoinType.OUTER, true, false },
+            { JoinType.OUTER, false, true },
+        };
+    }
+
+
+    /**
+     * Returns a frame with an int key column and a double value column
+     * @param column    the value column key
+     * @param size      the row count
+     * @param keyRange  the range of key values
+     * @param sorted    true to sort the keys
+     * @param seed      the random seed
+     * @return          the newly created frame
+     */
+    private DataFrame<Integer,String> createFrame(String column, int size, int keyRange, boolean sorted, long seed) {
+        final Random random = new Random(seed);
+        final int[] keys = random.ints(size, 0, keyRange).toArray();
+        if (sorted) Arrays.sort(keys);
+        return DataFrame.of(Range.of(0, size), String.class, columns -> {
+            columns.add("Key", Array.of(keys));
+            columns.add(column, Array.of(random.doubles(size).toArray()));
+        });
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testEquiJoin(JoinType type, boolean sorted, boolean parallel) {
+        final DataFrame<Integer,String> left = createFrame("A", 5000, 2000, sorted, 1);
+        final DataFrame<Integer,String> right = createFrame("B", 3000, 2000, sorted, 2);
+        final DataFrame<Integer,String> result = parallel ? left.parallel().join(right, "Key", type) : left.join(right, "Key", type);
+        final List<int[]> expected = new ArrayList<>();
+        final boolean[] matched = new boolean[right.rowCount()];
+        for (int i=0; i<left.rowCount(); ++i) {
+            boolean found = false;
+            for (int j=0; j<right.rowCount(); ++j) {
+                if (left.getIntAt(i, 0) == right.getIntAt(j, 0)) {
+                    expected.add(new int[] {i, j});
+                    matched[j] = true;
+                    found = true;
+                }
+            }
+            if (!found && type != JoinType.INNER) {
+                expected.add(new int[] {i, -1});
+            }
+        }
+        if (type == JoinType.OUTER) {
+            for (int j=0; j<matched.length; ++j) {
+                if (!matched[j]) expected.add(new int[] {-1, j});
+            }
+        }
+        Assert.assertEquals(result.rowCount(), expected.size());
+        Assert.assertEquals(result.cols().keyList(), List.of("Key", "A", "B"));
+        Assert.assertEquals(result.cols().type("Key"), Integer.class);
+        if (sorted && type != JoinType.OUTER) {
+            for (int i=1; i<result.rowCount(); ++i) {
+                Assert.assertTrue(result.getIntAt(i-1, 0) <= result.getIntAt(i, 0), "Keys remain sorted");
+            }
+        }
+        for (int i=0; i<result.rowCount(); ++i) {
+            final int[] pair = expected.get(i);
+            final int key = pair[0] >= 0 ? left.getIntAt(pair[0], 0) : right.getIntAt(pair[1], 0);
+            Assert.assertEquals(result.getIntAt(i, 0), key, "Key matches at " + i);
+            if (pair[0] >= 0) {
+                Assert.assertEquals(result.getDoubleAt(i, 1), left.getDoubleAt(pair[0], 1), "Left value at " + i);
+            } else {
+                Assert.assertTrue(Double.isNaN(result.getDoubleAt(i, 1)));
+            }
+            if (pair[1] >= 0) {
+                Assert.assertEquals(result.getDoubleAt(i, 2), right.getDoubleAt(pair[1], 1), "Right value at " + i);
+            } else {
+                Assert.assertTrue(Double.isNaN(result.getDoubleAt(i, 2)));
+            }
+        }
+    }
+
+
+    @Test()
+    public void testObjectKeys() {
+        final DataFrame<Integer,String> left = DataFrame.of(Range.of(0, 4), String.class, columns -> {
+            columns.add("Ticker", Array.of(String.class, "IBM", "AAPL", "MSFT", null));
+            columns.add("Price", Array.of(120d, 150d, 210d, 1d));
+        });
+        final DataFrame<Integer,String> right = DataFrame.of(Range.of(0, 3), String.class, columns -> {
+            columns.add("Ticker", Array.of(String.class, "MSFT", "IBM", null));
+            columns.add("Sector", Array.of(String.class, "Tech", "Services", "None"));
+        });
+        final DataFrame<Integer,String> inner = left.join(right, "Ticker", JoinType.INNER);
+        Assert.assertEquals(inner.rowCount(), 2);
+        Assert.assertEquals(inner.getValueAt(0, 0), "IBM");
+        Assert.assertEquals(inner.getValueAt(0, 2), "Services");
+        Assert.assertEquals(inner.getValueAt(1, 0), "MSFT");
+        Assert.assertEquals(inner.getValueAt(1, 2), "Tech");
+        final DataFrame<Integer,String> outer = left.join(right, "Ticker", JoinType.OUTER);
+        Assert.assertEquals(outer.rowCount(), 5);
+        Assert.assertNull(outer.getValueAt(1, 2));
+        Assert.assertNull(outer.getValueAt(4, 0));
+        Assert.assertEquals(outer.getValueAt(4, 2), "None");
+    }
+
+
+    @Test()
+    public void testAsOfJoin() {
+        final LocalDate start = LocalDate.of(2020, 1, 1);
+        final DataFrame<Integer,String> trades = DataFrame.of(Range.of(0, 5), String.class, columns -> {
+            columns.add("Date", Array.of(LocalDate.class, start.plusDays(10), start.plusDays(1), start, start.minusDays(1), start.plusDays(4)));
+            columns.add("Quantity", Array.of(1, 2, 3, 4, 5));
+        });
+        final DataFrame<Integer,String> quotes = DataFrame.of(Range.of(0, 4), String.class, columns -> {
+            columns.add("Date", Array.of(LocalDate.class, start.plusDays(3), start, start.plusDays(3), start.plusDays(8)));
+            columns.add("Price", Array.of(103d, 100d, 104d, 108d));
+        });
+        for (boolean parallel : new boolean[] {false, true}) {
+            final DataFrame<Integer,String> result = (parallel ? trades.parallel() : trades).join(quotes, "Date", JoinType.ASOF);
+            Assert.assertEquals(result.rowCount(), 5);
+            Assert.assertEquals(result.cols().type("Date"), LocalDate.class);
+            Assert.assertEquals(result.getValueAt(0, 0), start.plusDays(10));
+            Assert.assertEquals(result.getDoubleAt(0, 2), 108d);
+            Assert.assertEquals(result.getDoubleAt(1, 2), 100d);
+            Assert.assertEquals(result.getDoubleAt(2, 2), 100d);
+            Assert.assertTrue(Double.isNaN(result.getDoubleAt(3, 2)));
+            Assert.assertEquals(result.getDoubleAt(4, 2), 104d);
+            Assert.assertEquals(result.getIntAt(4, 1), 5);
+        }
+    }
+
+
+    @Test()
+    public void testMixedIntegerAndLongKeys() {
+        final DataFrame<Integer,String> left = DataFrame.of(Range.of(0, 3), String.class, columns -> {
+            columns.add("Key", Array.of(1, 2, 3));
+            columns.add("A", Array.of(1d, 2d, 3d));
+        });
+        final DataFrame<Integer,String> right = DataFrame.of(Range.of(0, 2), String.class, columns -> {
+            columns.add("Key", Array.of(3L, 1L));
+            columns.add("B", Array.of(30d, 10d));
+        });
+        final DataFrame<Integer,String> result = left.join(right, "Key", JoinType.LEFT);
+        Assert.assertEquals(result.cols().type("Key"), Long.class);
+        Assert.assertEquals(result.getLongAt(0, 0), 1L);
+        Assert.assertEquals(result.getDoubleAt(0, 2), 10d);
+        Assert.assertTrue(Double.isNaN(result.getDoubleAt(1, 2)));
+        Assert.assertEquals(result.getDoubleAt(2, 2), 30d);
+    }
+
+
+    @Test()
+    public void testUnmatchedValuesAreNull() {
+        final DataFrame<Integer,String> left = DataFrame.of(Range.of(0, 3), String.class, columns -> {
+            columns.add("Key", Array.of(1, 2, 3));
+            columns.add("Count", Array.of(10, 20, 30));
+        });
+        final DataFrame<Integer,String> right = DataFrame.of(Range.of(0, 3), String.class, columns -> {
+            columns.add("Key", Array.of(3, 1, 4));
+            columns.add("Size", Array.of(300, 100, 400));
+            columns.add("Volume", Array.of(3000L, 1000L, 4000L));
+            columns.add("Flag", Array.of(true, false, true));
+        });
+        final DataFrame<Integer,String> leftJoin = left.join(right, "Key", JoinType.LEFT);
+        Assert.assertEquals(leftJoin.cols().type("Size"), Integer.class);
+        Assert.assertEquals(leftJoin.cols().type("Volume"), Long.class);
+        Assert.assertEquals(leftJoin.getIntAt(0, 2), 100);
+        Assert.assertEquals(leftJoin.getLongAt(2, 3), 3000L);
+        Assert.assertFalse(leftJoin.col("Size").isNullAt(0));
+        Assert.assertTrue(leftJoin.col("Size").isNullAt(1));
+        Assert.assertTrue(leftJoin.col("Volume").isNullAt(1));
+        Assert.assertTrue(leftJoin.col("Flag").isNullAt(1));
+        Assert.assertNull(leftJoin.getValueAt(1, 2));
+        Assert.assertNull(leftJoin.getValueAt(1, 3));
+        Assert.assertEquals(leftJoin.<Boolean>getValueAt(0, 4), Boolean.FALSE);
+        final DataFrame<Integer,String> outerJoin = left.join(right, "Key", JoinType.OUTER);
+        Assert.assertEquals(outerJoin.rowCount(), 4);
+        Assert.assertEquals(outerJoin.getIntAt(3, 0), 4);
+        Assert.assertTrue(outerJoin.col("Count").isNullAt(3));
+        Assert.assertNull(outerJoin.getValueAt(3, 1));
+        Assert.assertEquals(outerJoin.getLongAt(3, 3), 4000L);
+        final DataFrame<Integer,String> innerJoin = left.join(right, "Key", JoinType.INNER);
+        Assert.assertEquals(innerJoin.cols().type("Flag"), Boolean.class);
+        Assert.assertFalse(innerJoin.col("Size").isNullAt(0));
+    }
+
+
+    @Test(expectedExceptions = { DataFrameException.class })
+    public void testColumnCollision() {
+        final DataFrame<Integer,String> left = createFrame("A", 10, 5, false, 1);
+        final DataFrame<Integer,String> right = createFrame("A", 10, 5, false, 2);
+        left.join(right, "Key", JoinType.INNER);
+    }
+
+
+    @Test(expectedExceptions = { DataFrameException.class })
+    public void testMissingJoinColumn() {
+        final DataFrame<Integer,String> left = createFrame("A", 10, 5, false, 1);
+        final DataFrame<Integer,String> right = createFrame("B", 10, 5, false, 2);
+        left.join(right, "Missing", JoinType.INNER);
+    }
+}
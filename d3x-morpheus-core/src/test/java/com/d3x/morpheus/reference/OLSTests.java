@@ -17,6 +17,9 @@ package com.d3x.morpheus.reference;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Optional;
 
 import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
@@ -28,8 +31,10 @@ import org.testng.annotations.Test;
 import static com.d3x.morpheus.util.Asserts.assertEquals;
 
 import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.frame.DataFrameLeastSquares;
 import com.d3x.morpheus.frame.DataFrameLeastSquares.Field;
+import com.d3x.morpheus.frame.DataFrameLeastSquaresBatch;
 import com.d3x.morpheus.index.Index;
 import com.d3x.morpheus.range.Range;
 
@@ -48,11 +53,18 @@ public class OLSTests {
     }
 
 
+    @DataProvider(name="parallel")
+    public Object[][] parallel() {
+        return new Object[][] { {false}, {true} };
+    }
+
+
     @DataProvider(name="solver")
     public Object[][] solver() {
         return new Object[][] {
             { DataFrameLeastSquares.Solver.INV },
-            { DataFrameLeastSquares.Solver.QR }
+            { DataFrameLeastSquares.Solver.QR },
+            { DataFrameLeastSquares.Solver.SVD }
         };
     }
 
@@ -285,4 +297,107 @@ public class OLSTests {
         });
     }
 
+
+    @Test(dataProvider = "parallel")
+    public void testRollingOls(boolean parallel) {
+        final Random random = new Random(5);
+        final Range<Integer> rowKeys = Range.of(0, 400);
+        final DataFrame<Integer,String> frame = DataFrame.of(rowKeys, String.class, columns -> {
+            columns.add("X1", Double.class, v -> random.nextGaussian());
+            columns.add("X2", Double.class, v -> random.nextGaussian() * 2d);
+            columns.add("X3", Double.class, v -> 100d + random.nextGaussian());
+        });
+        frame.cols().add("Y1", Double.class, v -> 2d + 0.5d * v.row().getDouble("X1") - v.row().getDouble("X2") + random.nextGaussian());
+        frame.cols().add("Y2", Double.class, v -> -1d + 3d * v.row().getDouble("X3") + random.nextGaussian() * 5d);
+        frame.setDouble(57, "X2", Double.NaN);
+        frame.setDouble(130, "Y1", Double.NaN);
+        final int window = 50;
+        final List<String> regressors = Arrays.asList("X1", "X2", "X3");
+        final DataFrame<Integer,String> input = parallel ? frame.parallel() : frame.sequential();
+        final Map<String,DataFrame<Integer,String>> results = input.regress().rollingOls(Arrays.asList("Y1", "Y2"), regressors, window, true);
+        Assert.assertEquals(results.size(), 2);
+        for (String regressand : Arrays.asList("Y1", "Y2")) {
+            final DataFrame<Integer,String> result = results.get(regressand);
+            Assert.assertEquals(result.rowCount(), frame.rowCount() - window + 1);
+            Assert.assertEquals(result.rows().firstKey().orElse(null), Integer.valueOf(window - 1));
+            result.rows().forEach(row -> {
+                final int start = row.ordinal();
+                final DataFrame<Integer,String> sample = frame.rows().select(start, window).rows().select(r -> {
+                    return !Double.isNaN(r.getDouble(regressand)) && regressors.stream().noneMatch(k -> Double.isNaN(r.getDouble(k)));
+                });
+                sample.regress().ols(regressand, regressors, true, model -> {
+                    assertEquals(row.getDouble("Intercept"), model.getInterceptValue(Field.PARAMETER), 1e-7);
+                    assertEquals(row.getDouble("Intercept_STD_ERROR"), model.getInterceptValue(Field.STD_ERROR), 1e-7);
+                    for (String regressor : regressors) {
+                        assertEquals(row.getDouble(regressor), model.getBetaValue(regressor, Field.PARAMETER), 1e-7);
+                        assertEquals(row.getDouble(regressor + "_STD_ERROR"), model.getBetaValue(regressor, Field.STD_ERROR), 1e-7);
+                    }
+                    assertEquals(row.getDouble("R_SQUARED"), model.getRSquared(), 1e-7);
+                    assertEquals(row.getDouble("STD_ERROR"), model.getStdError(), 1e-7);
+                    return Optional.empty();
+                });
+            });
+        }
+    }
+
+
+    @Test()
+    public void testRollingOlsSingular() {
+        final Range<Integer> rowKeys = Range.of(0, 100);
+        final DataFrame<Integer,String> frame = DataFrame.of(rowKeys, String.class, columns -> {
+            columns.add("Y", Double.class, v -> Math.random());
+            columns.add("X", Double.class, v -> v.rowOrdinal() < 60 ? 1d : Math.random());
+        });
+        final DataFrame<Integer,String> result = frame.regress().rollingOls("Y", Collections.singletonList("X"), 20, true);
+        Assert.assertEquals(result.rowCount(), 81);
+        Assert.assertTrue(Double.isNaN(result.getDouble(30, "X")), "Constant regressor cannot be fitted");
+        Assert.assertFalse(Double.isNaN(result.getDouble(90, "X")), "Varying regressor can be fitted");
+        Assert.assertThrows(DataFrameException.class, () -> frame.regress().rollingOls("Y", Collections.singletonList("X"), 2, true));
+    }
+
+
+    @Test(dataProvider = "solver")
+    public void testOlsBatch(DataFrameLeastSquares.Solver solver) {
+        final DataFrame<Integer,String> frame = loadCarDataset();
+        final List<String> regressands = Arrays.asList("Horsepower", "Price", "RPM");
+        final List<String> regressors = Arrays.asList("EngineSize", "Weight");
+        for (boolean intercept : new boolean[] { true, false }) {
+            frame.regress().olsBatch(regressands, regressors, intercept, batch -> {
+                batch.withSolver(solver);
+                Assert.assertEquals(batch.getN(), frame.rowCount());
+                Assert.assertEquals(batch.getRegressands(), regressands);
+                Assert.assertEquals(batch.getRegressors(), regressors);
+                Assert.assertEquals(batch.getBetas().rowCount(), regressands.size());
+                Assert.assertEquals(batch.getResiduals().colCount(), regressands.size());
+                for (String regressand : regressands) {
+                    frame.regress().ols(regressand, regressors, intercept, model -> {
+                        final DataFrame<String,DataFrameLeastSquaresBatch.Stat> stats = batch.getStats();
+                        for (String regressor : regressors) {
+                            assertEquals(batch.getBetas().getDouble(regressand, regressor), model.getBetaValue(regressor, Field.PARAMETER), 1e-7);
+                            assertEquals(batch.getBetaStdErrors().getDouble(regressand, regressor), model.getBetaValue(regressor, Field.STD_ERROR), 1e-7);
+                        }
+                        if (intercept) {
+                            for (Field field : Field.values()) {
+                                assertEquals(batch.getIntercepts().getDouble(regressand, field), model.getInterceptValue(field), 1e-7);
+                            }
+                        } else {
+                            Assert.assertTrue(Double.isNaN(batch.getIntercepts().getDouble(regressand, Field.PARAMETER)));
+                        }
+                        assertEquals(stats.getDouble(regressand, DataFrameLeastSquaresBatch.Stat.RSS), model.getResidualSumOfSquares(), 1e-6);
+                        assertEquals(stats.getDouble(regressand, DataFrameLeastSquaresBatch.Stat.R_SQUARED), model.getRSquared(), 1e-7);
+                        assertEquals(stats.getDouble(regressand, DataFrameLeastSquaresBatch.Stat.R_SQUARED_ADJ), model.getRSquaredAdj(), 1e-7);
+                        assertEquals(stats.getDouble(regressand, DataFrameLeastSquaresBatch.Stat.STD_ERROR), model.getStdError(), 1e-7);
+                        assertEquals(stats.getDouble(regressand, DataFrameLeastSquaresBatch.Stat.F_VALUE), model.getFValue(), 1e-6);
+                        final DataFrame<Integer,String> residuals = model.getResiduals();
+                        residuals.rows().forEach(row -> {
+                            assertEquals(batch.getResiduals().getDouble(row.key(), regressand), row.getDoubleAt(0), 1e-7);
+                        });
+                        return Optional.empty();
+                    });
+                }
+                return Optional.empty();
+            });
+        }
+    }
+
 }
@@ -20,6 +20,7 @@ import java.util.Optional;
 import java.util.stream.IntStream;
 
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import com.d3x.morpheus.frame.DataFrame;
@@ -204,4 +205,90 @@ public class PCATests {
         });
     }
 
+
+    @DataProvider(name="truncated")
+    public Object[][] truncated() {
+        return new Object[][] {
+            { DataFramePCA.Solver.RANDOMIZED_SVD, false },
+            { DataFramePCA.Solver.RANDOMIZED_SVD, true },
+            { DataFramePCA.Solver.LANCZOS, false },
+            { DataFramePCA.Solver.LANCZOS, true },
+        };
+    }
+
+
+    @Test(dataProvider = "truncated")
+    public void pcaWithTruncatedSVD(DataFramePCA.Solver solver, boolean parallel) {
+        final int k = 20;
+        final DataFrame<Integer,Integer> data = poppet().transpose().mapToDoubles(v -> v.getDouble());
+        final DataFrame<Integer,Integer> input = parallel ? data.parallel() : data.sequential();
+        data.pca().apply(true, DataFramePCA.Solver.SVD, expected -> {
+            return input.pca().apply(true, solver, k, model -> {
+                final DataFrame<Integer,DataFramePCA.Field> eigenValues = model.getEigenValues();
+                final DataFrame<Integer,Integer> eigenVectors = model.getEigenVectors();
+                Assert.assertEquals(eigenValues.rowCount(), k);
+                Assert.assertEquals(eigenVectors.rowCount(), 360);
+                Assert.assertEquals(eigenVectors.colCount(), k);
+                for (int i=0; i<k; ++i) {
+                    final double expectedValue = expected.getEigenValues().getDoubleAt(i, 0);
+                    Assert.assertEquals(eigenValues.getDoubleAt(i, 0), expectedValue, expectedValue * 1e-5, "Eigenvalue " + i);
+                    Assert.assertEquals(eigenValues.getDoubleAt(i, 1), expected.getEigenValues().getDoubleAt(i, 1), 1e-6);
+                    Assert.assertEquals(eigenValues.getDoubleAt(i, 2), expected.getEigenValues().getDoubleAt(i, 2), 1e-6);
+                }
+                for (int i=0; i<10; ++i) {
+                    final int col = i;
+                    final double dot = IntStream.range(0, 360).mapToDouble(j -> {
+                        return eigenVectors.getDoubleAt(j, col) * expected.getEigenVectors().getDoubleAt(j, col);
+                    }).sum();
+                    Assert.assertEquals(Math.abs(dot), 1d, 1e-6, "Eigenvector " + i + " matches up to sign");
+                }
+                final DataFrame<Integer,Integer> projection = model.getProjection(k);
+                final DataFrame<Integer,Integer> expectedProjection = expected.getProjection(k);
+                Assert.assertEquals(projection.rowCount(), 504);
+                Assert.assertEquals(projection.colCount(), 360);
+                final double[] norms = new double[2];
+                projection.forEachValue(v -> {
+                    final double value = expectedProjection.getDoubleAt(v.rowOrdinal(), v.colOrdinal());
+                    norms[0] += Math.pow(v.getDouble() - value, 2d);
+                    norms[1] += Math.pow(value, 2d);
+                });
+                Assert.assertTrue(Math.sqrt(norms[0] / norms[1]) < 1e-4, "Projection matches full SVD");
+                Assert.assertThrows(DataFrameException.class, () -> model.getScores(k + 1));
+                return Optional.empty();
+            });
+        });
+    }
+
+
+    @Test(dataProvider = "truncated")
+    public void pcaWithTruncatedSVDOnWideFrame(DataFramePCA.Solver solver, boolean parallel) {
+        final DataFrame<Integer,Integer> data = poppet().mapToDoubles(v -> v.getDouble());
+        final DataFrame<Integer,Integer> input = parallel ? data.parallel() : data.sequential();
+        data.transpose().pca().apply(false, DataFramePCA.Solver.SVD, 5, expected -> {
+            return input.pca().apply(false, solver, 5, model -> {
+                Assert.assertEquals(model.getEigenVectors().rowCount(), 504);
+                Assert.assertEquals(model.getEigenVectors().colCount(), 5);
+                Assert.assertEquals(model.getScores().colCount(), 5);
+                for (int i=0; i<5; ++i) {
+                    //Singular values of a matrix and its transpose are the same, only the n-1 scaling differs
+                    final double actual = model.getEigenValues().getDoubleAt(i, 0) * 359d;
+                    final double value = expected.getEigenValues().getDoubleAt(i, 0) * 503d;
+                    Assert.assertEquals(actual, value, value * 1e-5);
+                }
+                return Optional.empty();
+            });
+        });
+    }
+
+
+    @Test()
+    public void pcaWithTruncatedSVDInvalidComponents() {
+        final DataFrame<Integer,Integer> data = poppet().transpose().mapToDoubles(v -> v.getDouble());
+        Assert.assertThrows(DataFrameException.class, () -> {
+            data.pca().apply(true, DataFramePCA.Solver.RANDOMIZED_SVD, 361, model -> {
+                return Optional.of(model.getEigenValues());
+            });
+        });
+    }
+
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.TestSuite;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameAsserts;
+import com.d3x.morpheus.frame.DataFramePartitions;
+import com.d3x.morpheus.stats.StatType;
+
+/**
+ * Unit tests for DataFrames partitioned across files that are loaded on demand
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class PartitionTests {
+
+    private File tmpDir = TestSuite.getOutputDir("partition-tests");
+
+
+    /**
+     * Returns partitions over the frame written to files of the size specified
+     * @param frame         the frame to partition
+     * @param name          the name of the directory to write to
+     * @param rowsPerFile   the max rows per partition
+     * @param cacheSize     the max number of partitions to keep in memory
+     * @return              the partitions
+     */
+    private <R,C> DataFramePartitions<R,C> partition(DataFrame<R,C> frame, String name, int rowsPerFile, int cacheSize) {
+        final File dir = new File(tmpDir, name);
+        final File[] existing = dir.listFiles();
+        if (existing != null) {
+            for (File file : existing) file.delete();
+        }
+        DataFramePartitions.write(frame, dir, rowsPerFile);
+        return DataFramePartitions.ofMorpheus(dir, cacheSize);
+    }
+
+
+    @Test()
+    public void testStructure() {
+        final DataFrame<Integer,String> frame = TestDataFrames.createMixedRandomFrame(Integer.class, 10500);
+        final DataFramePartitions<Integer,String> partitions = partition(frame, "structure", 1000, 2);
+        Assert.assertEquals(partitions.count(), 11);
+        Assert.assertEquals(partitions.rowCount(), 10500);
+        Assert.assertEquals(partitions.rows().count(), 10500L);
+        Assert.assertEquals(partitions.partition(10).rowCount(), 500);
+        DataFrameAsserts.assertEqualsByIndex(partitions.partition(3), frame.rows().select(3000, 1000));
+        final double expected = frame.col("DoubleColumn").toDoubleStream().sum();
+        final double actual = partitions.rows().mapToDouble(row -> row.getDouble("DoubleColumn")).sum();
+        Assert.assertEquals(actual, expected, 0.0000001d);
+    }
+
+
+    @Test()
+    public void testHeadAndTail() {
+        final DataFrame<Integer,String> frame = TestDataFrames.createMixedRandomFrame(Integer.class, 5000);
+        final DataFramePartitions<Integer,String> partitions = partition(frame, "head-tail", 1000, 1);
+        DataFrameAsserts.assertEqualsByIndex(partitions.head(1500), frame.head(1500));
+        DataFrameAsserts.assertEqualsByIndex(partitions.tail(1500), frame.tail(1500));
+        DataFrameAsserts.assertEqualsByIndex(partitions.head(10), frame.head(10));
+        DataFrameAsserts.assertEqualsByIndex(partitions.tail(6000), frame);
+    }
+
+
+    @Test()
+    public void testSelect() {
+        final DataFrame<Integer,String> frame = TestDataFrames.createMixedRandomFrame(Integer.class, 5000);
+        final DataFramePartitions<Integer,String> partitions = partition(frame, "select", 700, 2);
+        final DataFrame<Integer,String> expected1 = frame.rows().select(row -> row.getDouble("DoubleColumn") > 0.5d);
+        final DataFrame<Integer,String> actual1 = partitions.select(row -> row.getDouble("DoubleColumn") > 0.5d);
+        DataFrameAsserts.assertEqualsByIndex(actual1, expected1);
+        final DataFrame<Integer,String> expected2 = frame.select(row -> row.key() % 3 == 0, col -> col.isNumeric());
+        final DataFrame<Integer,String> actual2 = partitions.select(row -> row.key() % 3 == 0, col -> col.isNumeric());
+        DataFrameAsserts.assertEqualsByIndex(actual2, expected2);
+        final DataFrame<Integer,String> expected3 = frame.rows().select(row -> row.key() >= 4000);
+        final DataFrame<Integer,String> actual3 = partitions.select(row -> row.key() >= 4000);
+        DataFrameAsserts.assertEqualsByIndex(actual3, expected3);
+        final DataFrame<Integer,String> expected4 = frame.select(row -> row.key() >= 4000, col -> col.isNumeric());
+        final DataFrame<Integer,String> actual4 = partitions.select(row -> row.key() >= 4000, col -> col.isNumeric());
+        DataFrameAsserts.assertEqualsByIndex(actual4, expected4);
+        final DataFrame<Integer,String> actual5 = partitions.select(row -> false);
+        Assert.assertEquals(actual5.rowCount(), 0);
+        Assert.assertEquals(actual5.cols().keyList(), frame.cols().keyList());
+        final DataFrame<Integer,String> actual6 = partitions.select(row -> false, col -> col.isNumeric());
+        Assert.assertEquals(actual6.rowCount(), 0);
+        Assert.assertEquals(actual6.cols().keyList(), expected2.cols().keyList());
+    }
+
+
+    @Test()
+    public void testStats() {
+        final DataFrame<Integer,String> frame = TestDataFrames.createMixedRandomFrame(Integer.class, 5000);
+        final DataFramePartitions<Integer,String> partitions = partition(frame, "stats", 600, 2);
+        final List<DataFrame<String,StatType>> expected = List.of(
+            frame.cols().stats().count(),
+            frame.cols().stats().min(),
+            frame.cols().stats().max(),
+            frame.cols().stats().mean(),
+            frame.cols().stats().stdDev(),
+            frame.cols().stats().median()
+        );
+        final List<DataFrame<String,StatType>> actual = List.of(
+            partitions.stats().count(),
+            partitions.stats().min(),
+            partitions.stats().max(),
+            partitions.stats().mean(),
+            partitions.stats().stdDev(),
+            partitions.stats().median()
+        );
+        for (int i=0; i<expected.size(); ++i) {
+            final DataFrame<String,StatType> stats1 = expected.get(i);
+            final DataFrame<String,StatType> stats2 = actual.get(i);
+            Assert.assertEquals(stats2.rows().keyArray(), stats1.rows().keyArray());
+            stats1.forEachValue(v -> {
+                final double value = stats2.getDoubleAt(v.rowOrdinal(), v.colOrdinal());
+                Assert.assertEquals(value, v.getDouble(), Math.abs(v.getDouble()) * 1e-10, "Stat matches for " + v.rowKey());
+            });
+        }
+    }
+
+
+    @Test()
+    public void testCache() {
+        final AtomicInteger loads = new AtomicInteger();
+        final DataFrame<Integer,String> frame = TestDataFrames.createMixedRandomFrame(Integer.class, 1000);
+        final List<Supplier<DataFrame<Integer,String>>> loaders = new ArrayList<>();
+        for (int i=0; i<10; ++i) {
+            final int start = i * 100;
+            loaders.add(() -> {
+                loads.incrementAndGet();
+                return frame.rows().select(start, 100);
+            });
+        }
+        final DataFramePartitions<Integer,String> partitions = DataFramePartitions.of(loaders, 3);
+        Assert.assertEquals(partitions.rowCount(), 1000);
+        Assert.assertEquals(loads.get(), 10);
+        partitions.partition(9);
+        partitions.partition(8);
+        partitions.partition(7);
+        Assert.assertEquals(loads.get(), 10);
+        partitions.partition(0);
+        Assert.assertEquals(loads.get(), 11);
+        partitions.partition(8);
+        Assert.assertEquals(loads.get(), 11);
+        partitions.partition(9);
+        Assert.assertEquals(loads.get(), 12);
+        partitions.head(250);
+        Assert.assertEquals(loads.get(), 14);
+    }
+}
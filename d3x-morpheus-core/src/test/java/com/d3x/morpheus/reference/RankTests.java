@@ -18,8 +18,12 @@ package com.d3x.morpheus.reference;
 import java.util.Random;
 
 import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameOptions;
+import org.apache.commons.math3.stat.ranking.NaNStrategy;
 import org.apache.commons.math3.stat.ranking.NaturalRanking;
+import org.apache.commons.math3.stat.ranking.TiesStrategy;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 /**
@@ -80,4 +84,104 @@ public class RankTests {
             }
         });
     }
+
+
+    @DataProvider(name="strategies")
+    public Object[][] strategies() {
+        return new Object[][] {
+            { DataFrameOptions.MINIMUM, DataFrameOptions.AVERAGE, false },
+            { DataFrameOptions.MINIMUM, DataFrameOptions.MINIMUM, true },
+            { DataFrameOptions.MAXIMUM, DataFrameOptions.MAXIMUM, false },
+            { DataFrameOptions.MAXIMUM, DataFrameOptions.AVERAGE, true },
+        };
+    }
+
+
+    /**
+     * Returns a random frame with many ties and some NaN values
+     * @param parallel  true for a parallel frame
+     * @return          the random frame
+     */
+    private DataFrame<String,String> createTiedFrame(boolean parallel) {
+        final Random random = new Random(3);
+        final DataFrame<String,String> frame = TestDataFrames.random(double.class, 500, 80);
+        frame.applyDoubles(v -> random.nextDouble() < 0.05 ? Double.NaN : random.nextInt(20));
+        return parallel ? frame.parallel() : frame.sequential();
+    }
+
+
+    @Test(dataProvider="strategies")
+    public void testRankStrategies(DataFrameOptions nanStrategy, DataFrameOptions tieStrategy, boolean parallel) {
+        final DataFrame<String,String> frame = createTiedFrame(parallel);
+        final NaNStrategy nans = nanStrategy == DataFrameOptions.MINIMUM ? NaNStrategy.MINIMAL : NaNStrategy.MAXIMAL;
+        final TiesStrategy ties = tieStrategy == DataFrameOptions.MINIMUM ? TiesStrategy.MINIMUM : tieStrategy == DataFrameOptions.MAXIMUM ? TiesStrategy.MAXIMUM : TiesStrategy.AVERAGE;
+        final NaturalRanking ranking = new NaturalRanking(nans, ties);
+        try {
+            DataFrameOptions.setNanStrategy(nanStrategy);
+            DataFrameOptions.setTieStrategy(tieStrategy);
+            final DataFrame<String,String> rowRanks = frame.rank().ofRows();
+            final DataFrame<String,String> colRanks = frame.rank().ofColumns();
+            for (int i=0; i<frame.rowCount(); ++i) {
+                final double[] expected = ranking.rank(frame.rowAt(i).toDoubleStream().toArray());
+                final double[] actual = rowRanks.rowAt(i).toDoubleStream().toArray();
+                Assert.assertEquals(actual, expected, "Row ranks match at " + i);
+            }
+            for (int j=0; j<frame.colCount(); ++j) {
+                final double[] expected = ranking.rank(frame.colAt(j).toDoubleStream().toArray());
+                final double[] actual = colRanks.colAt(j).toDoubleStream().toArray();
+                Assert.assertEquals(actual, expected, "Column ranks match at " + j);
+            }
+        } finally {
+            DataFrameOptions.setNanStrategy(DataFrameOptions.MINIMUM);
+            DataFrameOptions.setTieStrategy(DataFrameOptions.AVERAGE);
+        }
+    }
+
+
+    @Test()
+    public void testPercentileRanks() {
+        final DataFrame<String,String> frame = createTiedFrame(true);
+        final DataFrame<String,String> ranks = frame.rank().ofColumns();
+        final DataFrame<String,String> percentiles = frame.rank().ofColumns(true, false);
+        final DataFrame<String,String> rowRanks = frame.rank().ofRows();
+        final DataFrame<String,String> rowPercentiles = frame.rank().ofRows(true, false);
+        for (int i=0; i<frame.rowCount(); ++i) {
+            for (int j=0; j<frame.colCount(); ++j) {
+                Assert.assertEquals(percentiles.getDoubleAt(i, j), ranks.getDoubleAt(i, j) / frame.rowCount(), 0.0000001);
+                Assert.assertEquals(rowPercentiles.getDoubleAt(i, j), rowRanks.getDoubleAt(i, j) / frame.colCount(), 0.0000001);
+                Assert.assertTrue(percentiles.getDoubleAt(i, j) > 0d && percentiles.getDoubleAt(i, j) <= 1d);
+            }
+        }
+    }
+
+
+    @Test()
+    public void testRankInPlace() {
+        final DataFrame<String,String> frame = createTiedFrame(true);
+        final DataFrame<String,String> expectedCols = frame.rank().ofColumns();
+        final DataFrame<String,String> copy = frame.copy();
+        final DataFrame<String,String> expectedRows = copy.rank().ofRows();
+        Assert.assertSame(frame.rank().ofColumns(false, true), frame);
+        Assert.assertSame(copy.rank().ofRows(false, true), copy);
+        for (int i=0; i<frame.rowCount(); ++i) {
+            for (int j=0; j<frame.colCount(); ++j) {
+                Assert.assertEquals(frame.getDoubleAt(i, j), expectedCols.getDoubleAt(i, j));
+                Assert.assertEquals(copy.getDoubleAt(i, j), expectedRows.getDoubleAt(i, j));
+            }
+        }
+    }
+
+
+    @Test()
+    public void testRankOfFilter() {
+        final DataFrame<String,String> frame = createTiedFrame(true);
+        final DataFrame<String,String> filter = frame.rows().select(row -> row.ordinal() % 2 == 0).cols().select(col -> col.ordinal() % 3 != 0);
+        final DataFrame<String,String> ranks = filter.rank().ofColumns();
+        final NaturalRanking ranking = new NaturalRanking(NaNStrategy.MINIMAL, TiesStrategy.AVERAGE);
+        Assert.assertEquals(ranks.rows().keyArray().toList(), filter.rows().keyArray().toList());
+        for (int j=0; j<filter.colCount(); ++j) {
+            final double[] expected = ranking.rank(filter.colAt(j).toDoubleStream().toArray());
+            Assert.assertEquals(ranks.colAt(j).toDoubleStream().toArray(), expected, "Column ranks match at " + j);
+        }
+    }
 }
@@ -22,11 +22,14 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 
+import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameAsserts;
 import com.d3x.morpheus.index.Index;
 import com.d3x.morpheus.range.Range;
+import org.testng.Assert;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -111,6 +114,79 @@ public class SerializationTests {
     }
 
 
+    @Test()
+    public void testSerializationOfNulls() throws Exception {
+        final File file = new File(directory, "DataFrameOfNulls-dense.ser");
+        try {
+            final Array<Integer> ints = Array.ofNullable(Integer.class, 20);
+            final Array<Long> longs = Array.ofNullable(Long.class, 20);
+            final Array<Double> doubles = Array.ofNullable(Double.class, 20);
+            for (int i=0; i<20; ++i) {
+                if (i % 3 != 0) ints.setInt(i, i);
+                if (i % 4 != 1) longs.setLong(i, i * 1000L);
+                if (i % 5 != 2) doubles.setDouble(i, i % 7 == 0 ? Double.NaN : i / 2d);
+            }
+            final DataFrame<Integer,String> frame = DataFrame.of(Range.of(0, 20), String.class, columns -> {
+                columns.add("Ints", ints);
+                columns.add("Longs", longs);
+                columns.add("Doubles", doubles);
+                columns.add("Plain", Array.of(1d, Double.NaN, 3d, 4d, 5d, 6d, 7d, 8d, 9d, 10d, 11d, 12d, 13d, 14d, 15d, 16d, 17d, 18d, 19d, 20d));
+            });
+            this.writeObject(frame, file);
+            @SuppressWarnings("unchecked")
+            final DataFrame<Integer,String> result = (DataFrame<Integer,String>)readObject(file);
+            DataFrameAsserts.assertEqualsByIndex(result, frame);
+            for (int i=0; i<frame.rowCount(); ++i) {
+                for (int j=0; j<frame.colCount(); ++j) {
+                    final Object expected = frame.getValueAt(i, j);
+                    final Object actual = result.getValueAt(i, j);
+                    Assert.assertEquals(actual, expected, "Values match at " + i + "," + j);
+                }
+            }
+            Assert.assertNull(result.getValue(3, "Ints"));
+            Assert.assertNull(result.getValue(5, "Longs"));
+            Assert.assertNull(result.getValue(7, "Doubles"));
+            Assert.assertEquals(result.getDouble(7, "Ints"), 7d);
+            Assert.assertTrue(Double.isNaN(result.getDouble(14, "Doubles")));
+            Assert.assertNotNull(result.getValue(1, "Plain"));
+        } finally {
+            if (file.delete()) {
+                System.out.println("Deleted file " + file.getAbsolutePath());
+            }
+        }
+    }
+
+
+    @Test()
+    @SuppressWarnings("unchecked")
+    public void testDeserializationOfVersion1() throws Exception {
+        //Written before null positions and validity bitmaps were added to the serialized form
+        try (ObjectInputStream is = new ObjectInputStream(getClass().getResourceAsStream("/serialization/frames-v1.ser"))) {
+            final DataFrame<Integer,String> frame = (DataFrame<Integer,String>)is.readObject();
+            final DataFrame<String,Integer> transpose = (DataFrame<String,Integer>)is.readObject();
+            final Array<Integer> ints = (Array<Integer>)is.readObject();
+            final Array<Long> longs = (Array<Long>)is.readObject();
+            final Array<Double> doubles = (Array<Double>)is.readObject();
+            Assert.assertEquals(frame.rowCount(), 5);
+            Assert.assertEquals(frame.cols().keyArray().toList(), Arrays.asList("Ints", "Longs", "Doubles", "Booleans", "Strings"));
+            Assert.assertEquals(frame.col("Ints").toArray().toList(), Arrays.asList(1, 2, 3, 4, 5));
+            Assert.assertEquals(frame.col("Longs").toArray().toList(), Arrays.asList(10L, 20L, 30L, 40L, 50L));
+            Assert.assertEquals(frame.col("Doubles").toArray().toList(), Arrays.asList(1.5d, Double.NaN, 3.5d, 4.5d, 5.5d));
+            Assert.assertEquals(frame.col("Booleans").toArray().toList(), Arrays.asList(true, false, true, true, false));
+            Assert.assertEquals(frame.col("Strings").toArray().toList(), Arrays.asList("A", "B", null, "D", "E"));
+            Assert.assertEquals(transpose.rows().keyArray().toList(), Arrays.asList("Ints", "Doubles"));
+            Assert.assertEquals(transpose.getDouble("Ints", 3), 4d);
+            Assert.assertEquals(transpose.getDouble("Doubles", 4), 5.5d);
+            Assert.assertEquals(ints.toList(), Arrays.asList(7, 8, 9));
+            Assert.assertEquals(longs.toList(), Arrays.asList(7L, 8L, 9L));
+            Assert.assertEquals(doubles.toList(), Arrays.asList(7d, 8d, 9d));
+            Assert.assertFalse(ints.isNull(0));
+            ints.setValue(0, 1);
+            Assert.assertEquals(ints.getInt(0), 1);
+        }
+    }
+
+
     /**
      * Reads an object from the file specified
      * @param file      the file reference
@@ -393,6 +393,43 @@ public class SortingTests {
     }
 
 
+    @Test(dataProvider = "order")
+    public void testStableMultiKeyRowSort(boolean ascending, boolean parallel) {
+        final Random random = new Random(7);
+        final String[] names = {"A", "B", "C", "D"};
+        final Array<Integer> groups = Array.of(Integer.class, 200000);
+        final Array<String> labels = Array.of(String.class, 200000);
+        final Array<Double> values = Array.of(Double.class, 200000);
+        for (int i=0; i<200000; ++i) {
+            groups.setInt(i, random.nextInt(10));
+            labels.setValue(i, names[random.nextInt(4)]);
+            values.setDouble(i, random.nextInt(100) == 0 ? Double.NaN : random.nextGaussian());
+        }
+        final DataFrame<Integer,String> frame = DataFrame.of(Range.of(0, 200000), String.class, columns -> {
+            columns.add("Group", groups);
+            columns.add("Name", labels);
+            columns.add("Value", values);
+        });
+        final DataFrame<Integer,String> source = parallel ? frame.parallel() : frame.sequential();
+        final DataFrame<Integer,String> sorted = source.rows().sort(ascending, List.of("Group", "Name"));
+        final int multiplier = ascending ? 1 : -1;
+        Assert.assertEquals(sorted.rowCount(), frame.rowCount());
+        for (int i=1; i<sorted.rowCount(); ++i) {
+            final int group = multiplier * Integer.compare(sorted.getIntAt(i-1, 0), sorted.getIntAt(i, 0));
+            final int name = multiplier * sorted.<String>getValueAt(i-1, 1).compareTo(sorted.getValueAt(i, 1));
+            Assert.assertTrue(group < 0 || (group == 0 && name <= 0), "Rows are sorted at " + i);
+            if (group == 0 && name == 0) {
+                Assert.assertTrue(sorted.rows().key(i-1) < sorted.rows().key(i), "Equal rows retain their order at " + i);
+            }
+        }
+        final DataFrame<Integer,String> byValue = source.rows().sort(ascending, "Value");
+        for (int i=1; i<byValue.rowCount(); ++i) {
+            final int compare = multiplier * Double.compare(byValue.getDoubleAt(i-1, 2), byValue.getDoubleAt(i, 2));
+            Assert.assertTrue(compare < 0 || (compare == 0 && byValue.rows().key(i-1) < byValue.rows().key(i)), "Sorted by value at " + i);
+        }
+    }
+
+
     @Test(dataProvider="args1")
     public void testMultiDimensionalRowSort2(boolean parallel) {
         var frame = createRowTestFrame(parallel, 10000).rows().sort((row1, row2) -> {
@@ -24,6 +24,7 @@ import org.testng.annotations.Test;
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameLeastSquares.Field;
+import com.d3x.morpheus.frame.DataFrameLeastSquaresBatch;
 
 /**
  * Unit tests for Weighted Least Squares Regression Analysis
@@ -179,6 +180,38 @@ public class WLSTests {
 
 
 
+    @Test(dataProvider = "data2")
+    public void testMultipleBatch(DataFrame<Integer,String> data) {
+        final Array<Double> weights = computeWeightsMultiple(data);
+        final DataFrame<Integer,String> frame = data.copy();
+        frame.cols().add("Z", Double.class, v -> 2d * v.row().getDouble("Y") - 5d * v.row().getDouble("X2") + Math.sin(v.rowOrdinal()));
+        final Array<String> regressands = Array.ofObjects("Y", "Z");
+        final Array<String> regressors = Array.ofObjects("X1", "X2");
+        for (boolean intercept : new boolean[] { true, false }) {
+            frame.regress().wlsBatch(regressands, regressors, weights, intercept, batch -> {
+                Assert.assertEquals(batch.getN(), 100);
+                for (String regressand : regressands) {
+                    frame.regress().wls(regressand, regressors, weights, intercept, model -> {
+                        for (String regressor : regressors) {
+                            Assert.assertEquals(batch.getBetas().getDouble(regressand, regressor), model.getBetaValue(regressor, Field.PARAMETER), 0.0000001);
+                            Assert.assertEquals(batch.getBetaStdErrors().getDouble(regressand, regressor), model.getBetaValue(regressor, Field.STD_ERROR), 0.0000001);
+                        }
+                        if (intercept) {
+                            Assert.assertEquals(batch.getIntercepts().getDouble(regressand, Field.PARAMETER), model.getInterceptValue(Field.PARAMETER), 0.0000001);
+                            Assert.assertEquals(batch.getIntercepts().getDouble(regressand, Field.STD_ERROR), model.getInterceptValue(Field.STD_ERROR), 0.0000001);
+                        }
+                        Assert.assertEquals(batch.getStats().getDouble(regressand, DataFrameLeastSquaresBatch.Stat.R_SQUARED), model.getRSquared(), 0.00000001);
+                        Assert.assertEquals(batch.getStats().getDouble(regressand, DataFrameLeastSquaresBatch.Stat.R_SQUARED_ADJ), model.getRSquaredAdj(), 0.00000001);
+                        return Optional.empty();
+                    });
+                }
+                return Optional.empty();
+            });
+        }
+    }
+
+
+
     /**
      * Returns the vector of weights for the WLS regression by regressing |residuals| on the predictor
      * @param frame     the frame of original data
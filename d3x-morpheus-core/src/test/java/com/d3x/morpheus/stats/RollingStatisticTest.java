@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.stats;
+
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for RollingStatistic which compare results against recomputing the statistic over each window
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class RollingStatisticTest {
+
+    @DataProvider(name="stats")
+    public Object[][] stats() {
+        return new Object[][] {
+            { new Count() },
+            { new Min() },
+            { new Max() },
+            { new Sum() },
+            { new Mean() },
+            { new SumSquares() },
+            { new Variance(true) },
+            { new StdDev(true) },
+            { new StdErrorMean() },
+            { new Skew() },
+            { new Kurtosis() },
+            { new Median() },
+            { new Percentile(0.8) },
+            { new MeanAbsDev() },
+            { new Product() },
+        };
+    }
+
+
+    private double[] createValues(int count, boolean withNaNs) {
+        final Random random = new Random(12345);
+        final double[] values = new double[count];
+        for (int i=0; i<count; ++i) {
+            final boolean nan = withNaNs && random.nextDouble() < 0.05d;
+            values[i] = nan ? Double.NaN : 100d + random.nextGaussian() * 5d;
+        }
+        return values;
+    }
+
+
+    private boolean isAllNaN(double[] values, int offset, int length) {
+        for (int i=0; i<length; ++i) {
+            if (!Double.isNaN(values[offset + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Test(dataProvider="stats")
+    public void rollingMatchesFullRecompute(Statistic1 statistic) {
+        for (boolean withNaNs : new boolean[] {false, true}) {
+            for (int windowSize : new int[] {1, 2, 5, 20}) {
+                final double[] values = createValues(500, withNaNs);
+                final RollingStatistic rolling = RollingStatistic.of(statistic, windowSize);
+                for (int i=0; i<values.length; ++i) {
+                    final double actual = rolling.add(values[i]);
+                    Assert.assertEquals(rolling.isFull(), i >= windowSize - 1);
+                    if (rolling.isFull() && !isAllNaN(values, i - windowSize + 1, windowSize)) {
+                        final double expected = Statistic1.compute(statistic.copy(), Sample.of(values), i - windowSize + 1, windowSize);
+                        final String message = statistic.getType() + " at " + i + " with window " + windowSize;
+                        if (Double.isNaN(expected)) {
+                            Assert.assertTrue(Double.isNaN(actual), message);
+                        } else {
+                            final double delta = Math.max(0.00000001, Math.abs(expected) * 0.00000001);
+                            Assert.assertEquals(actual, expected, delta, message);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+
+    @Test()
+    public void resetClearsWindow() {
+        final RollingStatistic rolling = RollingStatistic.of(new Mean(), 3);
+        rolling.add(1d);
+        rolling.add(2d);
+        rolling.add(3d);
+        Assert.assertTrue(rolling.isFull());
+        Assert.assertEquals(rolling.getValue(), 2d, 0.0000001);
+        rolling.reset();
+        Assert.assertFalse(rolling.isFull());
+        Assert.assertEquals(rolling.getCount(), 0L);
+        Assert.assertEquals(rolling.add(10d), 10d, 0.0000001);
+    }
+
+
+    @Test()
+    public void removeReversesAdd() {
+        final Statistic1[] stats = { new Sum(), new Mean(), new Variance(true), new Skew(), new Kurtosis() };
+        for (Statistic1 stat : stats) {
+            final Statistic1 expected = stat.copy().reset();
+            stat.reset();
+            for (double value : new double[] {4d, 8d, 1d, 9d, 3d, 7d}) {
+                stat.add(value);
+            }
+            stat.remove(4d);
+            stat.remove(8d);
+            for (double value : new double[] {1d, 9d, 3d, 7d}) {
+                expected.add(value);
+            }
+            Assert.assertTrue(stat.isRemovable());
+            Assert.assertEquals(stat.getN(), expected.getN());
+            Assert.assertEquals(stat.getValue(), expected.getValue(), 0.0000001, stat.getType().name());
+        }
+    }
+
+
+    @Test(expectedExceptions = { StatException.class })
+    public void invalidWindowSize() {
+        RollingStatistic.of(new Mean(), 0);
+    }
+}
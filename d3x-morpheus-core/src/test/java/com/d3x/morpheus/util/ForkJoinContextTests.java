@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameOptions;
+import com.d3x.morpheus.range.Range;
+
+/**
+ * Unit tests for scoping the ForkJoinPool used by parallel operations
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ForkJoinContextTests {
+
+
+    /**
+     * Records the pool of the current worker thread, or null if the current thread is not a pool worker
+     * @param pools the set of pools to record into
+     */
+    private static void record(Set<Object> pools) {
+        final Thread thread = Thread.currentThread();
+        pools.add(thread instanceof ForkJoinWorkerThread ? ((ForkJoinWorkerThread)thread).getPool() : "caller");
+    }
+
+
+    @Test()
+    public void testDefaultIsCommonPool() {
+        Assert.assertSame(ForkJoinContext.getPool(), ForkJoinPool.commonPool());
+        Assert.assertEquals(ForkJoinContext.getParallelism(), Runtime.getRuntime().availableProcessors());
+    }
+
+
+    @Test()
+    public void testScopedPoolRestoredOnClose() {
+        final ForkJoinPool pool1 = new ForkJoinPool(2);
+        final ForkJoinPool pool2 = new ForkJoinPool(3);
+        try {
+            try (ForkJoinContext context1 = ForkJoinContext.of(pool1)) {
+                Assert.assertSame(ForkJoinContext.getPool(), pool1);
+                Assert.assertEquals(ForkJoinContext.getParallelism(), 2);
+                try (ForkJoinContext context2 = DataFrameOptions.withForkJoinPool(pool2)) {
+                    Assert.assertSame(DataFrameOptions.getForkJoinPool(), pool2);
+                }
+                Assert.assertSame(ForkJoinContext.getPool(), pool1);
+            }
+            Assert.assertSame(ForkJoinContext.getPool(), ForkJoinPool.commonPool());
+        } finally {
+            pool1.shutdown();
+            pool2.shutdown();
+        }
+    }
+
+
+    @Test()
+    public void testDedicatedPoolShutdownOnClose() {
+        final ForkJoinContext context = DataFrameOptions.withParallelism(3);
+        final ForkJoinPool pool = context.pool();
+        Assert.assertEquals(ForkJoinContext.getParallelism(), 3);
+        Assert.assertEquals(ForkJoinContext.getSplitThreshold(3000, 10), 1000);
+        Assert.assertEquals(ForkJoinContext.getSplitThreshold(3, 10), 10);
+        context.close();
+        Assert.assertTrue(pool.isShutdown());
+        Assert.assertSame(ForkJoinContext.getPool(), ForkJoinPool.commonPool());
+    }
+
+
+    @Test()
+    public void testDefaultPool() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            DataFrameOptions.setDefaultForkJoinPool(pool);
+            Assert.assertSame(ForkJoinContext.getPool(), pool);
+        } finally {
+            DataFrameOptions.setDefaultForkJoinPool(null);
+            pool.shutdown();
+        }
+        Assert.assertSame(ForkJoinContext.getPool(), ForkJoinPool.commonPool());
+    }
+
+
+    @Test()
+    public void testArrayOperationsRunInScopedPool() {
+        final Set<Object> pools = ConcurrentHashMap.newKeySet();
+        try (ForkJoinContext context = ForkJoinContext.of(2)) {
+            final Array<Integer> array = Array.of(Integer.class, 1000000);
+            array.parallel().applyInts(v -> {
+                record(pools);
+                return v.index();
+            });
+            Assert.assertEquals(array.getInt(999999), 999999);
+            Assert.assertEquals(pools.size(), 1);
+            Assert.assertSame(pools.iterator().next(), context.pool());
+        }
+    }
+
+
+    @Test()
+    public void testFrameOperationsRunInScopedPool() {
+        final Set<Object> pools = ConcurrentHashMap.newKeySet();
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            final DataFrame<Integer,Integer> frame = DataFrame.ofDoubles(Range.of(0, 1000), Range.of(0, 20));
+            final double sum = DataFrameOptions.whileUsing(pool, () -> {
+                frame.parallel().applyDoubles(v -> {
+                    record(pools);
+                    return v.rowOrdinal() + v.colOrdinal();
+                });
+                return frame.parallel().stats().sum();
+            });
+            Assert.assertEquals(sum, 20 * 499500d + 1000 * 190d, 0.0001);
+            Assert.assertEquals(pools.size(), 1);
+            Assert.assertSame(pools.iterator().next(), pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.util.text.FormatException;
+import com.d3x.morpheus.util.text.Formats;
+import com.d3x.morpheus.util.text.parser.Parser;
+
+/**
+ * Unit tests for parsing ranges of characters with the Parser class
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ParserTest {
+
+    @DataProvider(name="doubles")
+    public Object[][] doubles() {
+        return new Object[][] {
+            { "0" }, { "-0" }, { "+1" }, { "1." }, { "3.14159" }, { "-2.5e-3" }, { "1E10" }, { "0.000123456789" },
+            { "123456789012345" }, { "1234567890123456789" }, { "0.1" }, { "0.3" }, { "9007199254740993" },
+            { "1.7976931348623157E308" }, { "4.9e-324" }, { "2.2250738585072014E-308" }, { "1e22" }, { "1e23" },
+            { ".5" }, { "1d" }, { "Infinity" }, { "-Infinity" }, { "NaN" }, { "1.000000000000000000001" },
+        };
+    }
+
+
+    @Test(dataProvider="doubles")
+    public void testDoubles(String value) {
+        final Parser<Double> parser = new Formats().getParserOrFail(Double.class);
+        final String padded = "xx," + value + ",yy";
+        final double expected = value.equals("NaN") ? Double.NaN : Double.parseDouble(value);
+        assertEquals(Double.doubleToLongBits(parser.applyAsDouble(value, 0, value.length())), Double.doubleToLongBits(expected));
+        assertEquals(Double.doubleToLongBits(parser.applyAsDouble(padded, 3, 3 + value.length())), Double.doubleToLongBits(expected));
+        assertEquals(Double.doubleToLongBits(parser.applyAsDouble(new StringBuilder(value), 0, value.length())), Double.doubleToLongBits(expected));
+    }
+
+
+    @Test()
+    public void testRandomDoubles() {
+        final Random random = new Random(7);
+        final Parser<Double> parser = Parser.ofDouble();
+        for (int i=0; i<100000; ++i) {
+            final double value = (random.nextDouble() - 0.5d) * Math.pow(10, random.nextInt(20) - 10);
+            final String text = i % 2 == 0 ? String.valueOf(value) : String.format("%.6f", value);
+            assertEquals(parser.applyAsDouble(text, 0, text.length()), Double.parseDouble(text), "Parsed " + text);
+        }
+    }
+
+
+    @Test()
+    public void testDecimalFormatNotBypassed() {
+        final Parser<Double> parser = Parser.ofDouble("#,##0.00", 100);
+        assertEquals(parser.applyAsDouble("1234", 0, 4), 12.34d, 0.0000001);
+        assertEquals(parser.applyAsDouble("a,1,234.5,b", 2, 9), 12.345d, 0.0000001);
+    }
+
+
+    @Test()
+    public void testIntsAndLongs() {
+        final Parser<Integer> intParser = new Formats().getParserOrFail(Integer.class);
+        final Parser<Long> longParser = new Formats().getParserOrFail(Long.class);
+        assertEquals(intParser.applyAsInt("a,-12345,b", 2, 8), -12345);
+        assertEquals(intParser.applyAsInt("+7", 0, 2), 7);
+        assertEquals(intParser.applyAsInt("2147483647", 0, 10), Integer.MAX_VALUE);
+        assertEquals(intParser.applyAsInt("-2147483648", 0, 11), Integer.MIN_VALUE);
+        assertEquals(intParser.applyAsInt(null, 0, 0), 0);
+        assertEquals(intParser.applyAsInt("N/A", 0, 3), 0);
+        assertEquals(longParser.applyAsLong("123456789012345678", 0, 18), 123456789012345678L);
+        assertEquals(longParser.applyAsLong("9223372036854775807", 0, 19), Long.MAX_VALUE);
+        assertEquals(longParser.applyAsLong("-9223372036854775808", 0, 20), Long.MIN_VALUE);
+        assertEquals(longParser.applyAsLong("", 0, 0), 0L);
+    }
+
+
+    @Test(expectedExceptions = { FormatException.class })
+    public void testIntOverflow() {
+        new Formats().getParserOrFail(Integer.class).applyAsInt("2147483648", 0, 10);
+    }
+
+
+    @Test(expectedExceptions = { FormatException.class })
+    public void testMalformedInt() {
+        new Formats().getParserOrFail(Integer.class).applyAsInt("12a", 0, 3);
+    }
+
+
+    @Test()
+    public void testLocalDates() {
+        final Parser<LocalDate> parser = new Formats().getParserOrFail(LocalDate.class);
+        assertEquals(parser.apply("2014-05-22", 0, 10), LocalDate.of(2014, 5, 22));
+        assertEquals(parser.apply("x,2020-02-29,y", 2, 12), LocalDate.of(2020, 2, 29));
+        assertNull(parser.apply("null", 0, 4));
+        assertNull(parser.apply(null, 0, 0));
+        final Parser<LocalDate> smart = Parser.ofLocalDate("yyyy-MM-dd");
+        assertEquals(smart.apply("2019-02-30", 0, 10), smart.apply("2019-02-30"));
+        final Parser<LocalDate> custom = Parser.ofLocalDate("dd/MM/yyyy");
+        assertEquals(custom.apply("22/05/2014", 0, 10), LocalDate.of(2014, 5, 22));
+    }
+
+
+    @Test(expectedExceptions = { FormatException.class })
+    public void testInvalidLocalDate() {
+        new Formats().getParserOrFail(LocalDate.class).apply("2019-02-30", 0, 10);
+    }
+
+
+    @Test()
+    public void testLocalDateTimes() {
+        final Parser<LocalDateTime> parser = new Formats().getParserOrFail(LocalDateTime.class);
+        assertEquals(parser.apply("2014-05-22T22:34", 0, 16), LocalDateTime.of(2014, 5, 22, 22, 34));
+        assertEquals(parser.apply("2014-05-22T22:34:07", 0, 19), LocalDateTime.of(2014, 5, 22, 22, 34, 7));
+        assertEquals(parser.apply("2014-05-22T22:34:07.5", 0, 21), LocalDateTime.of(2014, 5, 22, 22, 34, 7, 500000000));
+        assertEquals(parser.apply("2014-05-22T22:34:07.123456789", 0, 29), LocalDateTime.of(2014, 5, 22, 22, 34, 7, 123456789));
+        final Parser<LocalDateTime> spaced = Parser.ofLocalDateTime(DateTimeFormatter.ISO_LOCAL_DATE_TIME).optimize("2014-05-22 22:34:07");
+        assertEquals(spaced.apply("2014-05-22 22:34:07", 0, 19), LocalDateTime.of(2014, 5, 22, 22, 34, 7));
+        final Parser<LocalDateTime> minutes = Parser.ofLocalDateTime(DateTimeFormatter.ISO_LOCAL_DATE_TIME).optimize("2014-05-22 22:34");
+        assertEquals(minutes.apply("2014-05-22 22:34", 0, 16), LocalDateTime.of(2014, 5, 22, 22, 34));
+    }
+
+
+    @Test(expectedExceptions = { FormatException.class })
+    public void testLocalDateTimeLayoutMismatch() {
+        Parser.ofLocalDateTime(DateTimeFormatter.ISO_LOCAL_DATE_TIME).optimize("2014-05-22 22:34").apply("2014-05-22 22:34:07", 0, 19);
+    }
+}
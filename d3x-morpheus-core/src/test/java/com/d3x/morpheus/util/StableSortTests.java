@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the stable radix and merge sorts
+ *
+ * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class StableSortTests {
+
+
+    @DataProvider(name="args")
+    public Object[][] getArgs() {
+        return new Object[][] {
+            { 10, false },
+            { 1000, false },
+            { 1000, true },
+            { 500000, false },
+            { 500000, true },
+        };
+    }
+
+
+    @Test(dataProvider = "args")
+    public void testRadixSortOfDoubles(int length, boolean parallel) {
+        final Random random = new Random(length);
+        final double[] values = random.doubles(length, -1000d, 1000d).toArray();
+        values[0] = Double.NaN;
+        values[length / 2] = -0d;
+        values[length - 1] = Double.NEGATIVE_INFINITY;
+        final long[] keys = new long[length];
+        final int[] order = IntStream.range(0, length).toArray();
+        for (int i=0; i<length; ++i) keys[i] = StableSort.toKey(values[i]);
+        StableSort.radix(keys, order, parallel);
+        for (int i=1; i<length; ++i) {
+            final double v1 = values[order[i-1]];
+            final double v2 = values[order[i]];
+            Assert.assertTrue(Double.compare(v1, v2) <= 0, "Values in ascending order at " + i + ": " + v1 + " > " + v2);
+        }
+        Assert.assertTrue(Double.isNaN(values[order[length - 1]]), "NaN sorts last");
+    }
+
+
+    @Test(dataProvider = "args")
+    public void testRadixSortIsStable(int length, boolean parallel) {
+        final Random random = new Random(length);
+        final long[] values = random.longs(length, -50, 50).toArray();
+        final long[] keys = new long[length];
+        final int[] order = IntStream.range(0, length).toArray();
+        for (int i=0; i<length; ++i) keys[i] = ~StableSort.toKey(values[i]);
+        StableSort.radix(keys, order, parallel);
+        for (int i=1; i<length; ++i) {
+            final long v1 = values[order[i-1]];
+            final long v2 = values[order[i]];
+            Assert.assertTrue(v1 >= v2, "Values in descending order at " + i);
+            Assert.assertTrue(v1 != v2 || order[i-1] < order[i], "Equal values retain their order at " + i);
+        }
+    }
+
+
+    @Test(dataProvider = "args")
+    public void testMergeSortIsStable(int length, boolean parallel) {
+        final Random random = new Random(length);
+        final int[] values = random.ints(length, 0, 100).toArray();
+        final int[] order = IntStream.range(0, length).toArray();
+        StableSort.merge(order, (i, j) -> Integer.compare(values[i], values[j]), parallel);
+        for (int i=1; i<length; ++i) {
+            final int v1 = values[order[i-1]];
+            final int v2 = values[order[i]];
+            Assert.assertTrue(v1 <= v2, "Values in ascending order at " + i);
+            Assert.assertTrue(v1 != v2 || order[i-1] < order[i], "Equal values retain their order at " + i);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.util.Resource;
+
+/**
+ * Unit tests for the compression codecs applied to Resource content
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class CompressionTests {
+
+
+    @DataProvider(name="codecs")
+    public Object[][] codecs() {
+        return new Object[][] {
+            {Compression.GZIP, 0}, {Compression.GZIP, 1}, {Compression.GZIP, 5000}, {Compression.GZIP, 1000003},
+            {Compression.DEFLATE, 0}, {Compression.DEFLATE, 1}, {Compression.DEFLATE, 5000}, {Compression.DEFLATE, 1000003},
+            {Compression.LZ, 0}, {Compression.LZ, 1}, {Compression.LZ, 5000}, {Compression.LZ, 1000003},
+        };
+    }
+
+
+    /**
+     * Returns CSV like text content of roughly the length specified
+     * @param length    the content length
+     * @return          the content bytes
+     */
+    private byte[] text(int length) {
+        var random = new Random(3);
+        var text = new StringBuilder(length + 100);
+        while (text.length() < length) {
+            text.append("2019-05-").append(10 + random.nextInt(20)).append(",AAPL,");
+            text.append(random.nextInt(1000)).append(".").append(random.nextInt(100)).append(",").append(random.nextInt(100000)).append("\n");
+        }
+        return text.substring(0, length).getBytes(StandardCharsets.US_ASCII);
+    }
+
+
+    /**
+     * Returns the content compressed with the codec specified using small blocks so several parallel batches are written
+     * @param compression   the codec
+     * @param content       the content to compress
+     * @return              the compressed content
+     */
+    private byte[] compress(Compression compression, byte[] content) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var os = compression.encode(bytes, 64 * 1024, 3)) {
+            os.write(content, 0, content.length / 2);
+            for (int i=content.length / 2; i<Math.min(content.length, content.length / 2 + 10); ++i) {
+                os.write(content[i]);
+            }
+            var offset = Math.min(content.length, content.length / 2 + 10);
+            os.write(content, offset, content.length - offset);
+        }
+        return bytes.toByteArray();
+    }
+
+
+    /**
+     * Returns all the bytes read from the stream, which is then closed
+     * @param is    the input stream
+     * @return      the bytes read
+     */
+    private byte[] readAll(InputStream is) throws IOException {
+        try (is) {
+            return is.readAllBytes();
+        }
+    }
+
+
+    @Test(dataProvider="codecs")
+    public void testRoundTripText(Compression compression, int length) throws IOException {
+        var content = text(length);
+        var compressed = compress(compression, content);
+        Assert.assertEquals(readAll(compression.decode(new ByteArrayInputStream(compressed))), content);
+        if (length > 1000) {
+            Assert.assertTrue(compressed.length < content.length * 0.7, "Content is compressed by " + compression);
+        }
+    }
+
+
+    @Test(dataProvider="codecs")
+    public void testRoundTripRandom(Compression compression, int length) throws IOException {
+        var content = new byte[length];
+        new Random(5).nextBytes(content);
+        var compressed = compress(compression, content);
+        Assert.assertEquals(readAll(compression.decode(new ByteArrayInputStream(compressed))), content);
+    }
+
+
+    @Test()
+    public void testParallelGzipRatioMatchesSequential() throws IOException {
+        var content = text(2000000);
+        var sequential = new ByteArrayOutputStream();
+        try (var os = new GZIPOutputStream(sequential)) {
+            os.write(content);
+        }
+        var parallel = compress(Compression.GZIP, content);
+        Assert.assertTrue(parallel.length < sequential.size() * 1.02, "Parallel size " + parallel.length + " vs sequential " + sequential.size());
+    }
+
+
+    @Test()
+    public void testExtensions() {
+        Assert.assertEquals(Compression.of("/data/prices.csv.gz"), Compression.GZIP);
+        Assert.assertEquals(Compression.of("prices.json.GZIP"), Compression.GZIP);
+        Assert.assertEquals(Compression.of("prices.csv.zz"), Compression.DEFLATE);
+        Assert.assertEquals(Compression.of("prices.csv.mlz"), Compression.LZ);
+        Assert.assertEquals(Compression.of("prices.csv"), Compression.NONE);
+        Assert.assertEquals(Compression.of(null), Compression.NONE);
+    }
+
+
+    @Test()
+    public void testResourceDetectsCompressedStreams() throws IOException {
+        var content = text(100000);
+        for (Compression compression : new Compression[] {Compression.GZIP, Compression.LZ}) {
+            var compressed = compress(compression, content);
+            var resource = Resource.of(new ByteArrayInputStream(compressed));
+            Assert.assertEquals(readAll(resource.toInputStream()), content, "Detected " + compression);
+        }
+        var plain = Resource.of(new ByteArrayInputStream(content));
+        Assert.assertEquals(readAll(plain.toInputStream()), content);
+        var deflate = Resource.of(new ByteArrayInputStream(compress(Compression.DEFLATE, content))).withCompression(Compression.DEFLATE);
+        Assert.assertEquals(readAll(deflate.toInputStream()), content);
+    }
+
+
+    @Test()
+    public void testResourceCompressesOutputStreams() throws IOException {
+        var content = text(100000);
+        var bytes = new ByteArrayOutputStream();
+        try (var os = Resource.of(bytes).withCompression(Compression.LZ).toOutputStream()) {
+            os.write(content);
+        }
+        Assert.assertTrue(bytes.size() < content.length * 0.7);
+        Assert.assertEquals(readAll(Resource.of(new ByteArrayInputStream(bytes.toByteArray())).toInputStream()), content);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.vector;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class SparseVectorTest {
+    private static final double TOLERANCE = 1.0E-12;
+    private final Random random = new Random(20211115);
+
+    private D3xVector randomSparse(int length, double density) {
+        D3xVector vector = D3xVector.dense(length);
+
+        for (int index = 0; index < length; ++index)
+            if (random.nextDouble() < density)
+                vector.set(index, random.nextGaussian());
+
+        return vector;
+    }
+
+    @Test
+    public void testDefaultStorage() {
+        assertTrue(D3xVector.sparse(10) instanceof SparseVector);
+    }
+
+    @Test
+    public void testSetGet() {
+        SparseVector vector = SparseVector.sparse(100);
+
+        vector.set(50, 5.0);
+        vector.set(10, 1.0);
+        vector.set(90, 9.0);
+        vector.set(30, 3.0);
+
+        assertEquals(vector.nonZeroCount(), 4);
+        assertEquals(vector.nonZeroIndex(0), 10);
+        assertEquals(vector.nonZeroIndex(3), 90);
+        assertEquals(vector.nonZeroValue(1), 3.0);
+        assertEquals(vector.get(30), 3.0);
+        assertEquals(vector.get(31), 0.0);
+        assertEquals(vector.sum(), 18.0, TOLERANCE);
+
+        vector.set(30, 0.0);
+        vector.set(50, 50.0);
+        vector.set(70, 0.0);
+
+        assertEquals(vector.nonZeroCount(), 3);
+        assertEquals(vector.get(30), 0.0);
+        assertEquals(vector.get(50), 50.0);
+        assertThrows(RuntimeException.class, () -> vector.get(100));
+        assertThrows(RuntimeException.class, () -> vector.nonZeroIndex(3));
+    }
+
+    @Test
+    public void testCopyOf() {
+        D3xVector dense = randomSparse(500, 0.05);
+        SparseVector sparse = SparseVector.copyOf(dense);
+
+        assertTrue(sparse.equalsVector(dense));
+        assertTrue(sparse.equalsArray(dense.toArray()));
+
+        SparseVector copy = sparse.copy();
+        copy.set(0, 123.0);
+        assertEquals(sparse.get(0), dense.get(0));
+        assertEquals(sparse.like(20).nonZeroCount(), 0);
+    }
+
+    @Test
+    public void testDot() {
+        D3xVector x = randomSparse(1000, 0.05);
+        D3xVector y = randomSparse(1000, 0.05);
+        D3xVector z = D3xVector.random(1000, random);
+
+        SparseVector sx = SparseVector.copyOf(x);
+        SparseVector sy = SparseVector.copyOf(y);
+
+        assertEquals(sx.dot(sy), x.dot(y), TOLERANCE);
+        assertEquals(sx.dot(z), x.dot(z), TOLERANCE);
+        assertEquals(z.dot(sx), x.dot(z), TOLERANCE);
+        assertThrows(RuntimeException.class, () -> sx.dot(D3xVector.sparse(10)));
+    }
+
+    @Test
+    public void testScalar() {
+        SparseVector vector = SparseVector.sparse(5);
+        vector.set(1, 2.0);
+        vector.set(3, 4.0);
+
+        assertTrue(vector.times(0.5).equalsArray(0.0, 1.0, 0.0, 2.0, 0.0));
+        assertTrue(vector.equalsArray(0.0, 2.0, 0.0, 4.0, 0.0));
+
+        vector.multiplyInPlace(0.0);
+        assertEquals(vector.nonZeroCount(), 0);
+        assertEquals(vector.get(1), 0.0);
+    }
+}
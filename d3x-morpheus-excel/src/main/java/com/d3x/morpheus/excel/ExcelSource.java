@@ -18,6 +18,8 @@ package com.d3x.morpheus.excel;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
@@ -32,8 +34,12 @@ import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.frame.DataFrameSource;
 import com.d3x.morpheus.index.Index;
 import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.Asserts;
 import com.d3x.morpheus.util.IO;
 import com.d3x.morpheus.util.Resource;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.DataFormatter;
@@ -43,6 +49,16 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * A component used to initialize a DataFrame from the contents of an Excel sheet
@@ -67,14 +83,18 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
             final Options options = new Options();
             consumer.accept(options);
             options.validate();
+            if (options.streaming) {
+                return readStreaming(options);
+            }
             workbook = WorkbookFactory.create(options.resource.toInputStream());
             final Sheet sheet = options.getSheet(workbook);
             final int rowStart = options.getDataStartRowIndex();
             final int rowEnd = options.getDataEndRowIndex(sheet);
             final int rowCount = rowEnd - rowStart + 1;
-            final Array<String> header = getHeader(sheet, options);
-            final int colCount = header.length();
             final int colStart = options.topLeft != null ? options.topLeft.colIndex : 0;
+            final int colEnd = options.bottomRight != null ? options.bottomRight.colIndex : getLastColIndex(sheet, options);
+            final Array<String> header = getHeader(sheet, options, colStart, colEnd);
+            final int colCount = header.length();
             final Index<Integer> rowKeys = Index.of(Integer.class, rowCount);
             final List<ArrayBuilder<Object>> valueList = createValues(rowCount, colCount);
             final FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
@@ -110,19 +130,119 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
     }
 
 
+    /**
+     * Returns a DataFrame loaded from an XLSX sheet by parsing the sheet XML with a SAX parser
+     * This never creates the workbook model, so memory usage is bounded by the resulting frame and the shared strings
+     * @param options   the options
+     * @return          the resulting DataFrame
+     * @throws Exception    if the sheet fails to load
+     */
+    private DataFrame<Integer,String> readStreaming(Options options) throws Exception {
+        final Resource resource = options.resource;
+        final OPCPackage pkg = resource.isFile() ? OPCPackage.open(resource.asFile(), PackageAccess.READ) : OPCPackage.open(resource.toInputStream());
+        try {
+            final XSSFReader reader = new XSSFReader(pkg);
+            final boolean date1904 = isDate1904(reader);
+            final ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            final SheetHandler handler = new SheetHandler(options, reader.getStylesTable(), strings, date1904);
+            final XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator)reader.getSheetsData();
+            while (iterator.hasNext()) {
+                try (InputStream stream = iterator.next()) {
+                    if (options.sheetName == null || options.sheetName.equals(iterator.getSheetName())) {
+                        parse(stream, handler);
+                        return handler.toDataFrame();
+                    }
+                }
+            }
+            throw new IllegalArgumentException("No worksheet found with name: " + options.sheetName);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+
+    /**
+     * Returns true if the workbook uses the 1904 date system, which is declared in the workbook properties
+     * @param reader    the XSSF reader
+     * @return          true if the workbook uses the 1904 date system
+     * @throws Exception    if the workbook part fails to parse
+     */
+    private boolean isDate1904(XSSFReader reader) throws Exception {
+        final boolean[] date1904 = new boolean[1];
+        try (InputStream stream = reader.getWorkbookData()) {
+            parse(stream, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                    if (name(localName, qName).equals("workbookPr")) {
+                        final String value = attributes.getValue("date1904");
+                        date1904[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+                        throw new StopParsing();
+                    }
+                }
+            });
+        }
+        return date1904[0];
+    }
+
+
+    /**
+     * Parses the XML stream with the handler specified, until the end of the stream or until the handler stops parsing
+     * @param stream    the XML stream to parse
+     * @param handler   the SAX handler
+     * @throws Exception    if parsing fails
+     */
+    private static void parse(InputStream stream, DefaultHandler handler) throws Exception {
+        try {
+            final XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            parser.parse(new InputSource(stream));
+        } catch (StopParsing ex) {
+            //  handler has all it needs
+        }
+    }
+
+
+    /**
+     * Returns the local name of an element, which is the qualified name without prefix if the parser is not namespace aware
+     * @param localName     the local name
+     * @param qName         the qualified name
+     * @return              the local name
+     */
+    private static String name(String localName, String qName) {
+        if (localName != null && localName.length() > 0) {
+            return localName;
+        } else {
+            final int index = qName.indexOf(':');
+            return index < 0 ? qName : qName.substring(index + 1);
+        }
+    }
+
+
+    /**
+     * Returns the index of the last column to read when no bottom-right coordinate bounds the read
+     * The workbook reader sizes columns from the header row, while the streaming reader widens to the data it sees
+     * @param sheet     the sheet reference
+     * @param options   the options
+     * @return          the zero-based index of the last column, -1 if the header row is missing
+     */
+    private int getLastColIndex(Sheet sheet, Options options) {
+        final Row row = options.topLeft != null ? sheet.getRow(options.topLeft.rowIndex) : sheet.getRow(0);
+        return row != null ? row.getLastCellNum() - 1 : -1;
+    }
+
+
     /**
      * Returns the header array based extracted from the sheet
      * @param sheet     the sheet reference
      * @param options   the options
+     * @param colStart  the index of the first column
+     * @param colEnd    the index of the last column
      * @return          the array of header values
      */
-    private Array<String> getHeader(Sheet sheet, Options options) {
+    private Array<String> getHeader(Sheet sheet, Options options, int colStart, int colEnd) {
         final Coordinate topLeft = options.topLeft;
-        final Coordinate bottomRight = options.bottomRight;
         final Row row = topLeft != null ? sheet.getRow(topLeft.rowIndex) : sheet.getRow(0);
-        final int colStart = topLeft != null ? topLeft.colIndex : 0;
-        final int colEnd = bottomRight != null ? bottomRight.colIndex : row.getLastCellNum() - 1 ;
-        final int colCount = colEnd - colStart + 1;
+        final int colCount = Math.max(colEnd - colStart + 1, 0);
         if (!options.header) {
             return Range.of(0, colCount).map(i -> "Column-" + i).toArray();
         } else {
@@ -130,7 +250,7 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
             final DataFormatter formatter = new DataFormatter();
             for (int j=0; j<colCount; ++j) {
                 final int colIndex = colStart + j;
-                final Cell cell = row.getCell(colIndex, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+                final Cell cell = row != null ? row.getCell(colIndex, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL) : null;
                 final String value = cell == null ? "Column-" + j : formatter.formatCellValue(cell);
                 header.setValue(j, value);
             }
@@ -177,6 +297,287 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
     }
 
 
+    /**
+     * An exception used to abort parsing once a handler has all the data it needs
+     */
+    private static class StopParsing extends SAXException {
+
+        /**
+         * Constructor
+         */
+        StopParsing() {
+            super("Parsing stopped");
+        }
+    }
+
+
+    /**
+     * A SAX handler that captures the cells of a worksheet straight into column builders, without any Row or Cell objects
+     */
+    private static class SheetHandler extends DefaultHandler {
+
+        private boolean header;
+        private boolean date1904;
+        private boolean fixedCols;
+        private int headerRow;
+        private int dataStart;
+        private int dataEnd;
+        private int colStart;
+        private int colEnd;
+        private int capacity;
+        private StylesTable styles;
+        private ReadOnlySharedStringsTable strings;
+        private DataFormatter formatter = new DataFormatter();
+        private Boolean[] dateStyles = new Boolean[0];
+
+        private int rowNum = -1;
+        private int colIndex = -1;
+        private int rowMaxCol = -1;
+        private int styleIndex;
+        private String cellType;
+        private boolean hasValue;
+        private boolean inValue;
+        private boolean inInline;
+        private boolean inText;
+        private StringBuilder text = new StringBuilder();
+        private Object[] rowValues = new Object[16];
+
+        private String[] names;
+        private ArrayBuilder<Integer> rowKeys;
+        private List<ArrayBuilder<Object>> valueList;
+
+        /**
+         * Constructor
+         * @param options   the options
+         * @param styles    the workbook styles
+         * @param strings   the workbook shared strings
+         * @param date1904  true if the workbook uses the 1904 date system
+         */
+        SheetHandler(Options options, StylesTable styles, ReadOnlySharedStringsTable strings, boolean date1904) {
+            this.styles = styles;
+            this.strings = strings;
+            this.date1904 = date1904;
+            this.header = options.header;
+            this.headerRow = options.topLeft != null ? options.topLeft.rowIndex : 0;
+            this.dataStart = options.getDataStartRowIndex();
+            this.dataEnd = options.bottomRight != null ? options.bottomRight.rowIndex : Integer.MAX_VALUE;
+            this.colStart = options.topLeft != null ? options.topLeft.colIndex : 0;
+            this.colEnd = options.bottomRight != null ? options.bottomRight.colIndex : -1;
+            this.fixedCols = options.bottomRight != null;
+            this.capacity = dataEnd < Integer.MAX_VALUE ? Math.max(dataEnd - dataStart + 1, 1) : 1000;
+            this.rowKeys = ArrayBuilder.of(capacity, Integer.class);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (name(localName, qName)) {
+                case "row":
+                    final String rowRef = attributes.getValue("r");
+                    this.rowNum = rowRef != null ? Integer.parseInt(rowRef) - 1 : rowNum + 1;
+                    this.colIndex = -1;
+                    this.rowMaxCol = -1;
+                    Arrays.fill(rowValues, null);
+                    break;
+                case "c":
+                    final String cellRef = attributes.getValue("r");
+                    final String style = attributes.getValue("s");
+                    this.colIndex = cellRef != null ? toColIndex(cellRef) : colIndex + 1;
+                    this.cellType = attributes.getValue("t");
+                    this.styleIndex = style != null ? Integer.parseInt(style) : 0;
+                    this.hasValue = false;
+                    this.text.setLength(0);
+                    break;
+                case "v":
+                    this.inValue = true;
+                    this.text.setLength(0);
+                    break;
+                case "is":
+                    this.inInline = true;
+                    this.text.setLength(0);
+                    break;
+                case "t":
+                    this.inText = inInline;
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] chars, int start, int length) {
+            if (inValue || inText) {
+                this.text.append(chars, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (name(localName, qName)) {
+                case "v":
+                    this.inValue = false;
+                    this.hasValue = true;
+                    break;
+                case "t":
+                    this.inText = false;
+                    break;
+                case "is":
+                    this.inInline = false;
+                    this.hasValue = true;
+                    break;
+                case "c":
+                    if (hasValue && colIndex >= colStart && (!fixedCols || colIndex <= colEnd) && rowNum >= headerRow) {
+                        final int ordinal = colIndex - colStart;
+                        if (ordinal >= rowValues.length) {
+                            this.rowValues = Arrays.copyOf(rowValues, Math.max(ordinal + 1, rowValues.length * 2));
+                        }
+                        this.rowValues[ordinal] = getCellValue(header && rowNum == headerRow);
+                        this.rowMaxCol = Math.max(rowMaxCol, colIndex);
+                    }
+                    break;
+                case "row":
+                    this.endRow();
+                    break;
+            }
+        }
+
+        /**
+         * Captures the values of the row that has just been parsed
+         * @throws SAXException if the row is beyond the last row to capture
+         */
+        private void endRow() throws SAXException {
+            if (rowNum > dataEnd) {
+                throw new StopParsing();
+            } else if (rowNum >= headerRow) {
+                if (valueList == null) {
+                    this.colEnd = colEnd >= 0 ? colEnd : rowMaxCol;
+                    final int colCount = Math.max(colEnd - colStart + 1, 0);
+                    this.names = new String[colCount];
+                    this.valueList = new ArrayList<>(colCount);
+                    for (int j=0; j<colCount; ++j) {
+                        final Object value = header && rowNum == headerRow && j < rowValues.length ? rowValues[j] : null;
+                        this.names[j] = value != null ? value.toString() : "Column-" + j;
+                        this.valueList.add(ArrayBuilder.of(capacity));
+                    }
+                    if (header && rowNum == headerRow) {
+                        return;
+                    }
+                }
+                if (rowNum >= dataStart) {
+                    if (!fixedCols && rowMaxCol > colEnd) {
+                        this.widen(rowMaxCol);
+                    }
+                    this.rowKeys.appendInt(rowNum);
+                    for (int j=0; j<valueList.size(); ++j) {
+                        final Object value = j < rowValues.length ? rowValues[j] : null;
+                        this.valueList.get(j).append(value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds columns for data cells beyond the current last column, with null values for the rows already captured.
+         * Columns are initially sized from the header row, but data rows may extend further than the header.
+         * @param newColEnd the zero-based index of the new last column
+         */
+        private void widen(int newColEnd) {
+            final int colCount = newColEnd - colStart + 1;
+            final int rowCount = rowKeys.length();
+            this.names = Arrays.copyOf(names, colCount);
+            for (int j=valueList.size(); j<colCount; ++j) {
+                final ArrayBuilder<Object> values = ArrayBuilder.of(capacity);
+                for (int i=0; i<rowCount; ++i) {
+                    values.append(null);
+                }
+                this.names[j] = "Column-" + j;
+                this.valueList.add(values);
+            }
+            this.colEnd = newColEnd;
+        }
+
+        /**
+         * Returns the value of the cell that has just been parsed
+         * @param formatted true to return the value formatted as a string, as for header cells
+         * @return          the typed or formatted cell value
+         */
+        private Object getCellValue(boolean formatted) {
+            final String value = text.toString();
+            switch (cellType != null ? cellType : "n") {
+                case "s":           return strings.getItemAt(Integer.parseInt(value)).getString();
+                case "str":         return value;
+                case "inlineStr":   return value;
+                case "b":           return formatted ? String.valueOf(value.equals("1")) : value.equals("1");
+                case "e":           return null;
+                default:
+                    final double number = Double.parseDouble(value);
+                    if (formatted) {
+                        final XSSFCellStyle style = styles.getStyleAt(styleIndex);
+                        final int formatIndex = style != null ? style.getDataFormat() : 0;
+                        final String format = style != null ? style.getDataFormatString() : null;
+                        return formatter.formatRawCellContents(number, formatIndex, format != null ? format : BuiltinFormats.getBuiltinFormat(formatIndex));
+                    } else if (isDateStyle(styleIndex) && DateUtil.isValidExcelDate(number)) {
+                        return DateUtil.getJavaDate(number, date1904);
+                    } else {
+                        return number;
+                    }
+            }
+        }
+
+        /**
+         * Returns true if the cell style specified has a date format, which is cached per style
+         * @param styleIndex    the style index
+         * @return              true if the style has a date format
+         */
+        private boolean isDateStyle(int styleIndex) {
+            if (styleIndex >= dateStyles.length) {
+                this.dateStyles = Arrays.copyOf(dateStyles, styleIndex + 16);
+            }
+            if (dateStyles[styleIndex] == null) {
+                final XSSFCellStyle style = styles.getStyleAt(styleIndex);
+                if (style == null) {
+                    this.dateStyles[styleIndex] = false;
+                } else {
+                    final int formatIndex = style.getDataFormat();
+                    final String format = style.getDataFormatString();
+                    this.dateStyles[styleIndex] = DateUtil.isADateFormat(formatIndex, format);
+                }
+            }
+            return dateStyles[styleIndex];
+        }
+
+        /**
+         * Returns the zero-based column index from a cell reference such as "AB12"
+         * @param cellRef   the cell reference
+         * @return          the zero-based column index
+         */
+        private int toColIndex(String cellRef) {
+            int result = 0;
+            for (int i=0; i<cellRef.length(); ++i) {
+                final char c = cellRef.charAt(i);
+                if (c >= 'A' && c <= 'Z') {
+                    result = result * 26 + (c - 'A' + 1);
+                } else {
+                    break;
+                }
+            }
+            return result - 1;
+        }
+
+        /**
+         * Returns the DataFrame with the values captured from the sheet
+         * @return  the resulting DataFrame
+         */
+        private DataFrame<Integer,String> toDataFrame() {
+            final Index<Integer> index = Index.of(rowKeys.toArray());
+            return DataFrame.of(index, String.class, columns -> {
+                if (valueList != null) {
+                    for (int j=0; j<names.length; ++j) {
+                        columns.add(names[j], valueList.get(j).toArray());
+                    }
+                }
+            });
+        }
+    }
+
+
     /**
      * Defines a zero-based row and column coordinate in an Excel sheet
      */
@@ -210,6 +611,9 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
         /** The optional row predicate to includes rows */
         @lombok.Getter @lombok.Setter
         private Predicate<Row> rowPredicate;
+        /** True to stream an XLSX sheet with a SAX parser rather than loading the workbook, which does not support a row predicate */
+        @lombok.Getter @lombok.Setter
+        private boolean streaming;
 
 
         /**
@@ -217,6 +621,7 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
          */
         public void validate() {
             Objects.requireNonNull(resource, "The resource cannot be null");
+            Asserts.check(!streaming || rowPredicate == null, "A row predicate is not supported when streaming a sheet");
         }
 
         /**
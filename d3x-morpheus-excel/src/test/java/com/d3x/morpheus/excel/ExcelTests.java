@@ -16,22 +16,30 @@
 
 package com.d3x.morpheus.excel;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.stream.Stream;
 
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.util.Asserts;
 import com.d3x.morpheus.util.Predicates;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -190,6 +198,67 @@ public class ExcelTests {
 
 
 
+    @Test()
+    public void testStreamingReadMatchesWorkbook() {
+        final DataFrame<Integer,String> expected = ExcelSource.load(options -> {
+            options.setResource("/xls/cars93.xlsx");
+            options.setHeader(true);
+        });
+        final DataFrame<Integer,String> frame = ExcelSource.load(options -> {
+            options.setResource("/xls/cars93.xlsx");
+            options.setHeader(true);
+            options.setStreaming(true);
+        });
+        assertEquals(frame.rowCount(), expected.rowCount());
+        assertEquals(frame.cols().keyArray().toList(), expected.cols().keyArray().toList());
+        assertEquals(frame.rows().keyArray().toList(), expected.rows().keyArray().toList());
+        expected.cols().keys().forEach(key -> {
+            assertEquals(frame.cols().type(key), expected.cols().type(key), "Column types match for " + key);
+            for (int i=0; i<expected.rowCount(); ++i) {
+                final Object value = frame.rows().getValueAt(i, key);
+                assertEquals(value, expected.rows().getValueAt(i, key), "Values match for " + key + " at " + i);
+            }
+        });
+    }
+
+
+    @Test()
+    public void testStreamingReadWithCoordinates() {
+        DataFrame<Integer,String> frame = ExcelSource.load(options -> {
+            options.setResource("/xls/cars93.xlsx");
+            options.setTopLeft(new ExcelSource.Coordinate(0, 1));
+            options.setBottomRight(new ExcelSource.Coordinate(5, 11));
+            options.setHeader(true);
+            options.setStreaming(true);
+        });
+        assertEquals(frame.rowCount(), 5);
+        assertEquals(frame.cols().count(), 11);
+        assertEquals(frame.cols().type("Date"), Date.class);
+        assertEquals(frame.cols().type("Manufacturer"), String.class);
+        assertEquals(frame.cols().type("Min.Price"), Double.class);
+        assertEquals(frame.rows().getValueAt(0, "Manufacturer"), "Acura");
+    }
+
+
+    @Test()
+    public void testStreamingReadFromNamedSheet() {
+        DataFrame<Integer,String> frame = ExcelSource.load(options -> {
+            options.setResource("/xls/ApplesAndCars.xlsx");
+            options.setHeader(true);
+            options.setSheetName("Apple");
+            options.setStreaming(true);
+        }).mapToObjects("Date", LocalDate.class, v -> {
+            final Date date = v.getValue();
+            final Instant instant = date.toInstant();
+            return LocalDateTime.ofInstant(instant, ZoneId.of("GMT")).toLocalDate();
+        });
+        assertEquals(frame.rowCount() ,43);
+        assertEquals(frame.colCount() ,7);
+        assertAppleFrame(frame);
+    }
+
+
+
     /**
      * Makes assertions about the structure and content of the Apple worksheet
      * @param frame     the DataFrame
@@ -221,4 +290,48 @@ public class ExcelTests {
         assertEquals(frame.rows().getDoubleAt(10, "Adj Close"), 0.5535, 0.00001);
     }
 
+
+    @Test()
+    public void testReadWithDataWiderThanHeader() throws IOException {
+        final File file = File.createTempFile("morpheus-wide", ".xlsx");
+        file.deleteOnExit();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream os = new FileOutputStream(file)) {
+            final Sheet sheet = workbook.createSheet("Data");
+            final Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("A");
+            header.createCell(1).setCellValue("B");
+            final Row row1 = sheet.createRow(1);
+            row1.createCell(0).setCellValue(1d);
+            row1.createCell(1).setCellValue(2d);
+            row1.createCell(5).setCellStyle(workbook.createCellStyle());
+            final Row row2 = sheet.createRow(2);
+            row2.createCell(0).setCellValue(3d);
+            row2.createCell(1).setCellValue(4d);
+            row2.createCell(3).setCellValue(5d);
+            workbook.write(os);
+        }
+        final DataFrame<Integer,String> workbook = ExcelSource.load(options -> {
+            options.setResource(file.getAbsolutePath());
+            options.setHeader(true);
+        });
+        final DataFrame<Integer,String> streamed = ExcelSource.load(options -> {
+            options.setResource(file.getAbsolutePath());
+            options.setHeader(true);
+            options.setStreaming(true);
+        });
+        assertEquals(workbook.rowCount(), 2);
+        assertEquals(workbook.cols().keys().toArray(), new Object[] {"A", "B"});
+        assertEquals(streamed.rowCount(), 2);
+        assertEquals(streamed.cols().keys().toArray(), new Object[] {"A", "B", "Column-2", "Column-3"});
+        assertNull(streamed.rows().getValueAt(0, "Column-2"));
+        assertNull(streamed.rows().getValueAt(1, "Column-2"));
+        assertTrue(Double.isNaN(streamed.rows().getDoubleAt(0, "Column-3")));
+        assertEquals(streamed.rows().getDoubleAt(1, "Column-3"), 5d, 0d);
+        for (DataFrame<Integer,String> frame : Arrays.asList(workbook, streamed)) {
+            assertEquals(frame.rows().getDoubleAt(0, "A"), 1d, 0d);
+            assertEquals(frame.rows().getDoubleAt(1, "B"), 4d, 0d);
+        }
+        assertEquals(workbook.rows().keys().toArray(), streamed.rows().keys().toArray());
+    }
+
 }
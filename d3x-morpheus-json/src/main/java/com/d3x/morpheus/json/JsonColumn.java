@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.json;
+
+import java.io.IOException;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.util.text.parser.Parser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * A column buffer that streams JSON values straight into a primitive ArrayBuilder while a JsonSource parses content
+ *
+ * <p>If the column data type is declared, values are written with the matching primitive setter. Otherwise the type is
+ * inferred from the content: a column whose first number is an integral literal starts out as ints and is widened to longs
+ * and then doubles as needed, and numeric columns with missing values are widened to doubles so that missing values are
+ * represented as NaN. Columns that mix numbers with other values fall back to an object array.</p>
+ *
+ * @param <T>   the element type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author Xavier Witdouck
+ */
+class JsonColumn<T> {
+
+    private int capacity;
+    private int length;
+    private ArrayType type;
+    private boolean inferred;
+    private boolean nullable;
+    private Parser<T> parser;
+    private ArrayBuilder<T> builder;
+
+
+    /**
+     * Constructor
+     * @param capacity  the expected number of values, used to pre-size the buffer
+     * @param dataType  the declared data type for column, null to infer from content
+     * @param parser    the optional parser for string values, null to retain strings as is
+     */
+    JsonColumn(int capacity, Class<T> dataType, Parser<T> parser) {
+        this.capacity = capacity;
+        this.parser = parser;
+        this.inferred = dataType == null;
+        this.type = dataType != null ? ArrayType.of(dataType) : null;
+        this.builder = dataType != null ? ArrayBuilder.of(capacity, dataType) : ArrayBuilder.of(capacity);
+    }
+
+
+    /**
+     * Returns the number of values buffered so far, including nulls
+     * @return  the current length of this column
+     */
+    int length() {
+        return length;
+    }
+
+
+    /**
+     * Reads the next value from the reader into this column at the index specified
+     * @param reader    the json reader
+     * @param index     the index for value
+     * @throws IOException  if there is an I/O error
+     */
+    @SuppressWarnings("unchecked")
+    void read(JsonReader reader, int index) throws IOException {
+        if (inferred && index > length) {
+            this.missing();
+        }
+        var token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            this.builder.setValue(index, null);
+            this.missing();
+        } else if (token == JsonToken.BOOLEAN) {
+            var value = reader.nextBoolean();
+            if (inferred && type != ArrayType.BOOLEAN) {
+                if (type == null && !nullable) {
+                    this.type = ArrayType.BOOLEAN;
+                } else {
+                    this.widen(ArrayType.OBJECT);
+                }
+            }
+            if (inferred && type == ArrayType.OBJECT) {
+                this.builder.setValue(index, (T)Boolean.valueOf(value));
+            } else {
+                this.builder.setBoolean(index, value);
+            }
+        } else if (token == JsonToken.STRING) {
+            var text = reader.nextString();
+            if (inferred && type != ArrayType.OBJECT) {
+                this.widen(ArrayType.OBJECT);
+            }
+            this.builder.setValue(index, parser != null ? parser.apply(text) : (T)text);
+        } else if (token == JsonToken.NUMBER) {
+            this.readNumber(reader, index);
+        } else {
+            throw new IOException("Unsupported JSON token for column value: " + token);
+        }
+        this.length = Math.max(length, index + 1);
+    }
+
+
+    /**
+     * Reads the next number from the reader into this column, widening the inferred type if necessary
+     * @param reader    the json reader
+     * @param index     the index for value
+     * @throws IOException  if there is an I/O error
+     */
+    @SuppressWarnings("unchecked")
+    private void readNumber(JsonReader reader, int index) throws IOException {
+        if (inferred && type == null) {
+            this.readFirstNumber(reader.nextString(), index);
+        } else if (type == ArrayType.DOUBLE) {
+            this.builder.setDouble(index, reader.nextDouble());
+        } else if (type == ArrayType.LONG) {
+            try {
+                this.builder.setLong(index, reader.nextLong());
+            } catch (NumberFormatException ex) {
+                if (!inferred) throw ex;
+                var value = Double.parseDouble(reader.nextString());
+                this.widen(ArrayType.DOUBLE);
+                this.builder.setDouble(index, value);
+            }
+        } else if (type == ArrayType.INTEGER) {
+            try {
+                this.builder.setInt(index, reader.nextInt());
+            } catch (NumberFormatException ex) {
+                if (!inferred) throw ex;
+                this.readWider(reader.nextString(), index);
+            }
+        } else if (parser != null) {
+            this.builder.setValue(index, parser.apply(reader.nextString()));
+        } else {
+            if (inferred && type != ArrayType.OBJECT) {
+                this.widen(ArrayType.OBJECT);
+            }
+            this.builder.setValue(index, (T)Double.valueOf(reader.nextDouble()));
+        }
+    }
+
+
+    /**
+     * Records the first number of an inferred column, choosing the narrowest type that represents the literal
+     * @param literal   the number literal as it appears in the json
+     * @param index     the index for value
+     */
+    private void readFirstNumber(String literal, int index) {
+        var value = nullable ? null : parseLong(literal);
+        if (value == null) {
+            this.type = ArrayType.DOUBLE;
+            this.builder.setDouble(index, Double.parseDouble(literal));
+        } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            this.type = ArrayType.INTEGER;
+            this.builder.setInt(index, value.intValue());
+        } else {
+            this.type = ArrayType.LONG;
+            this.builder.setLong(index, value);
+        }
+    }
+
+
+    /**
+     * Records a number that does not fit in an inferred int column, widening the column to longs or doubles
+     * @param literal   the number literal as it appears in the json
+     * @param index     the index for value
+     */
+    private void readWider(String literal, int index) {
+        var value = parseLong(literal);
+        if (value != null) {
+            this.widen(ArrayType.LONG);
+            this.builder.setLong(index, value);
+        } else {
+            this.widen(ArrayType.DOUBLE);
+            this.builder.setDouble(index, Double.parseDouble(literal));
+        }
+    }
+
+
+    /**
+     * Returns the long value of a json number literal, or null if the literal is not an integral long
+     * @param literal   the number literal
+     * @return          the long value, or null
+     */
+    private static Long parseLong(String literal) {
+        for (int i=0; i<literal.length(); ++i) {
+            var c = literal.charAt(i);
+            if (c != '-' && !Character.isDigit(c)) {
+                return null;
+            }
+        }
+        try {
+            return Long.parseLong(literal);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Records that this column has a missing value, widening an inferred column so missing values can be represented
+     */
+    private void missing() {
+        this.nullable = true;
+        if (inferred && (type == ArrayType.INTEGER || type == ArrayType.LONG)) {
+            this.widen(ArrayType.DOUBLE);
+        } else if (inferred && type == ArrayType.BOOLEAN) {
+            this.widen(ArrayType.OBJECT);
+        }
+    }
+
+
+    /**
+     * Widens the inferred type of this column, copying over the values buffered so far
+     * @param target    the target type, which must be LONG, DOUBLE or OBJECT
+     */
+    @SuppressWarnings("unchecked")
+    private void widen(ArrayType target) {
+        var values = builder.toArray();
+        var count = Math.min(values.length(), length);
+        var newCapacity = Math.max(capacity, count);
+        if (target == ArrayType.LONG) {
+            var result = ArrayBuilder.of(newCapacity, Long.class);
+            for (int i=0; i<count; ++i) result.setLong(i, values.getInt(i));
+            this.builder = (ArrayBuilder<T>)result;
+        } else if (target == ArrayType.DOUBLE) {
+            var result = ArrayBuilder.of(newCapacity, Double.class);
+            for (int i=0; i<count; ++i) result.setDouble(i, values.getDouble(i));
+            this.builder = (ArrayBuilder<T>)result;
+        } else {
+            var result = ArrayBuilder.of(newCapacity, Object.class);
+            for (int i=0; i<count; ++i) result.setValue(i, values.getValue(i));
+            this.builder = (ArrayBuilder<T>)result;
+        }
+        this.type = target;
+    }
+
+
+    /**
+     * Returns the array of values for this column, padded with missing values to the length specified
+     * @param length    the length for the resulting array
+     * @return          the array of values
+     */
+    Array<T> toArray(int length) {
+        if (inferred && this.length < length) {
+            this.missing();
+        }
+        var array = builder.toArray();
+        return array.length() < length ? array.expand(length) : array;
+    }
+}
@@ -57,11 +57,14 @@ public interface JsonSource<R,C> {
      * @param <C>   the column key type
      * @return      the newly created source
      */
+    @SuppressWarnings("unchecked")
     static <R,C> JsonSource<R,C> create(JsonStyle style) {
         switch (style) {
             case DEFAULT:   return new JsonSourceDefault<>();
             case COLUMNS:   return new JsonSourceColumns<>();
             case SPLIT:     return new JsonSourceSplit<>();
+            case INDEX:     return new JsonSourceIndex<>();
+            case RECORDS:   return (JsonSource<R,C>)new JsonSourceRecords<C>();
             default:        throw new IllegalArgumentException("Unsupported style specified: " + style);
         }
     }
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.text.parser.Parser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * A convenience base class for JsonSources that parse different json formats in a single streaming pass
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author Xavier Witdouck
+ */
+public abstract class JsonSourceBase<R,C> implements JsonSource<R,C> {
+
+    private static final int BUFFER_SIZE = 1024 * 64;
+
+
+    @Override
+    public DataFrame<R,C> read(Options<R,C> options) throws DataFrameException {
+        JsonReader reader = null;
+        try {
+            var is = options.getResource().toInputStream();
+            reader = new JsonReader(new BufferedReader(new InputStreamReader(is, options.getCharset()), BUFFER_SIZE));
+            reader.setLenient(true);
+            return read(reader, options);
+        } finally {
+            IO.close(reader);
+        }
+    }
+
+
+    /**
+     * Returns a DataFrame loaded from the Json reader
+     * @param reader        the Json stream reader
+     * @param options       the options for parsing
+     * @return              the resulting DataFrame
+     * @throws DataFrameException   if fails to parse json into DataFrame
+     */
+    public abstract DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException;
+
+
+    /**
+     * Returns the row key parser from the options, or a parser that retains labels as strings
+     * @param options   the source options
+     * @return          the row key parser
+     */
+    @SuppressWarnings("unchecked")
+    Parser<R> getRowKeyParser(Options<R,C> options) {
+        var defaultParser = (Parser<R>)Parser.forObject(String.class, v -> v);
+        return Optional.ofNullable(options.getRowKeyParser()).orElse(defaultParser);
+    }
+
+
+    /**
+     * Returns the column key parser from the options, or a parser that retains labels as strings
+     * @param options   the source options
+     * @return          the column key parser
+     */
+    @SuppressWarnings("unchecked")
+    Parser<C> getColKeyParser(Options<R,C> options) {
+        var defaultParser = (Parser<C>)Parser.forObject(String.class, v -> v);
+        return Optional.ofNullable(options.getColKeyParser()).orElse(defaultParser);
+    }
+
+
+    /**
+     * Returns the next value from the reader as text, which is used for row and column labels
+     * @param reader    the json reader
+     * @return          the label text
+     * @throws IOException  if there is an I/O error
+     */
+    String nextLabel(JsonReader reader) throws IOException {
+        var token = reader.peek();
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        } else if (token == JsonToken.NULL) {
+            throw new DataFrameException("Cannot have null row or column labels in JSON");
+        } else {
+            return reader.nextString();
+        }
+    }
+
+
+    /**
+     * Reads a json object of column label to value pairs directly into the column buffers at the row index specified
+     * @param reader    the json reader
+     * @param rowIndex  the row index for values
+     * @param capacity  the capacity for buffers of columns first seen in this object
+     * @param columns   the column buffers keyed by column label, in order of first appearance
+     * @throws IOException  if there is an I/O error
+     */
+    void readRow(JsonReader reader, int rowIndex, int capacity, Map<String,JsonColumn<Object>> columns) throws IOException {
+        reader.beginObject();
+        while (reader.peek() != JsonToken.END_OBJECT) {
+            var colLabel = reader.nextName();
+            var column = columns.get(colLabel);
+            if (column == null) {
+                column = new JsonColumn<>(capacity, null, null);
+                columns.put(colLabel, column);
+            }
+            column.read(reader, rowIndex);
+        }
+        reader.endObject();
+    }
+
+
+    /**
+     * Returns a DataFrame with the row keys and column buffers specified, filtering columns if a predicate is configured
+     * @param rowKeys   the row keys for frame
+     * @param columns   the column buffers keyed by column label
+     * @param options   the source options
+     * @return          the resulting DataFrame
+     */
+    DataFrame<R,C> toDataFrame(Array<R> rowKeys, Map<String,JsonColumn<Object>> columns, Options<R,C> options) {
+        var length = rowKeys.length();
+        var parser = getColKeyParser(options);
+        var predicate = options.getColPredicate();
+        var colKeys = columns.keySet().stream().map(parser::apply).collect(Collectors.toList());
+        return DataFrame.of(rowKeys, typeOf(colKeys.isEmpty() ? null : colKeys.get(0)), cols -> {
+            var iterator = columns.values().iterator();
+            for (C colKey : colKeys) {
+                var column = iterator.next();
+                if (predicate == null || predicate.test(colKey)) {
+                    cols.add(colKey, column.toArray(length));
+                }
+            }
+        });
+    }
+
+
+    /**
+     * Returns the type of the first key, or Object if there are no keys
+     * @param key   the first key, null allowed
+     * @param <T>   the key type
+     * @return      the key type
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Class<T> typeOf(Object key) {
+        return key != null ? (Class<T>)key.getClass() : (Class<T>)Object.class;
+    }
+}
@@ -15,8 +15,11 @@
  */
 package com.d3x.morpheus.json;
 
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 
+import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.google.gson.stream.JsonReader;
@@ -25,46 +28,63 @@ import com.google.gson.stream.JsonToken;
 /**
  * A JsonSource implementation that can load a DataFrame from Pandas compatible JSON with "columns" orientation
  *
+ * <p>Each column object is streamed directly into a primitive buffer, with row labels resolved to ordinals as they are
+ * first encountered, so that the buffers of subsequent columns can be pre-sized from the row count of the first.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author Xavier Witdouck
  */
-class JsonSourceColumns<R,C> implements JsonSource<R,C> {
+class JsonSourceColumns<R,C> extends JsonSourceBase<R,C> {
 
-    private JsonReader reader;
 
     @Override
-    public synchronized DataFrame<R,C> read(Options<R,C> options) throws DataFrameException {
+    public DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException {
         try {
-            this.reader = new JsonReader(new InputStreamReader(options.getResource().toInputStream()));
-            this.reader.beginObject();
-            while (reader.hasNext()) {
-                final String name = reader.nextName();
-                final C colKey = options.getColKeyParser().apply(name);
-                this.reader.beginObject();
-                while (true) {
-                    final JsonToken token = reader.peek();
-                    if (token == JsonToken.END_OBJECT) {
-                        reader.endObject();
-                        break;
-                    } else if (token == JsonToken.NAME) {
-                        final String rowLabel = reader.nextName();
-                        final R rowKey = options.getRowKeyParser().apply(rowLabel);
-
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return null;
+            } else {
+                var rowKeyParser = getRowKeyParser(options);
+                var colKeyParser = getColKeyParser(options);
+                var colPredicate = options.getColPredicate();
+                var rowKeys = ArrayBuilder.<R>of(1000);
+                var rowMap = new HashMap<String,Integer>();
+                var colKeys = new ArrayList<C>();
+                var columns = new ArrayList<JsonColumn<Object>>();
+                reader.beginObject();
+                while (reader.peek() != JsonToken.END_OBJECT) {
+                    var colKey = colKeyParser.apply(reader.nextName());
+                    if (colPredicate != null && !colPredicate.test(colKey)) {
+                        reader.skipValue();
                     } else {
-                        switch (token) {
-                            case NAME:  break;
-                            case BOOLEAN:   break;
-                            case NUMBER:    break;
-                            case STRING:    break;
-                            case NULL:      break;
+                        var column = new JsonColumn<>(Math.max(rowMap.size(), 1000), null, null);
+                        reader.beginObject();
+                        while (reader.peek() != JsonToken.END_OBJECT) {
+                            var rowLabel = reader.nextName();
+                            var rowIndex = rowMap.get(rowLabel);
+                            if (rowIndex == null) {
+                                rowIndex = rowMap.size();
+                                rowMap.put(rowLabel, rowIndex);
+                                rowKeys.append(rowKeyParser.apply(rowLabel));
+                            }
+                            column.read(reader, rowIndex);
                         }
+                        reader.endObject();
+                        colKeys.add(colKey);
+                        columns.add(column);
                     }
                 }
+                reader.endObject();
+                var rowKeyArray = rowKeys.toArray();
+                var length = rowKeyArray.length();
+                return DataFrame.of(rowKeyArray, typeOf(colKeys.isEmpty() ? null : colKeys.get(0)), cols -> {
+                    for (int i=0; i<colKeys.size(); ++i) {
+                        cols.add(colKeys.get(i), columns.get(i).toArray(length));
+                    }
+                });
             }
-            reader.endObject();
-            return null;
-        } catch (Exception ex) {
+        } catch (IOException ex) {
             throw new DataFrameException("Failed to load DataFrame from JSON: " + options, ex);
         }
     }
@@ -15,49 +15,38 @@
  */
 package com.d3x.morpheus.json;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-import com.d3x.morpheus.array.Array;
-import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameException;
-import com.d3x.morpheus.index.Index;
 import com.d3x.morpheus.range.Range;
 import com.d3x.morpheus.util.IO;
 import com.d3x.morpheus.util.Resource;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
+import com.d3x.morpheus.util.text.Formats;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 
 /**
  * A JsonSource implementation that can parsed the DEFAULT
  *
+ * <p>The row count and column types written by the JsonSinkDefault precede the data, so the column buffers are pre-sized
+ * and typed before the first row is read, and values are streamed directly into primitive arrays in a single pass.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author Xavier Witdouck
  */
-public class JsonSourceDefault<R,C> implements JsonSource<R,C> {
+public class JsonSourceDefault<R,C> extends JsonSourceBase<R,C> {
 
 
-    @Override
-    public DataFrame<R,C> read(Options<R,C> options) throws DataFrameException {
-        var is = options.getResource().toInputStream();
-        var reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
-        try {
-            return read(reader, options);
-        } finally {
-            IO.close(reader);
-        }
-    }
-
     /**
      * Returns a DataFrame loaded from the Json reader
      * @param reader        the Json stream reader
@@ -65,6 +54,7 @@ public class JsonSourceDefault<R,C> implements JsonSource<R,C> {
      * @return              the resulting DataFrame
      * @throws DataFrameException   if fails to parse json into DataFrame
      */
+    @Override
     @SuppressWarnings("unchecked")
     public DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException {
         try {
@@ -74,47 +64,44 @@ public class JsonSourceDefault<R,C> implements JsonSource<R,C> {
                 return null;
             } else {
                 reader.beginObject();
-                token = reader.peek();
                 var rowCount = 10;
                 var colCount = 10;
-                DataFrame<R,C> result = null;
                 var rowType = (Class<R>)Object.class;
                 var colType = (Class<C>)Object.class;
-                var formats = options.getFormats();
-                while (token != JsonToken.END_OBJECT) {
+                var colKeys = new ArrayList<C>();
+                var columns = new ArrayList<JsonColumn<Object>>();
+                ArrayBuilder<R> rowKeys = null;
+                while (reader.peek() != JsonToken.END_OBJECT) {
                     var name = reader.nextName();
                     if (name.equalsIgnoreCase("rowCount")) {
                         rowCount = reader.nextInt();
-                        token = reader.peek();
                     } else if (name.equalsIgnoreCase("colCount")) {
                         colCount = reader.nextInt();
-                        token = reader.peek();
+                        colKeys.ensureCapacity(colCount);
+                        columns.ensureCapacity(colCount);
                     } else if (name.equalsIgnoreCase("rowType")) {
                         rowType = JsonSink.getDataType(reader.nextString());
-                        token = reader.peek();
                     } else if (name.equalsIgnoreCase("colType")) {
                         colType = JsonSink.getDataType(reader.nextString());
-                        token = reader.peek();
                     } else if (name.equalsIgnoreCase("columns")) {
-                        var rows = Index.of(rowType, rowCount);
-                        var cols = Index.of(colType, colCount);
-                        result = DataFrame.ofObjects(rows, cols);
-                        var columns = (JsonArray)new Gson().fromJson(reader, JsonArray.class);
-                        for (int i=0; i<columns.size(); ++i) {
-                            var object = columns.get(i).getAsJsonObject();
-                            var key = formats.<C>parse(colType, object.get("key").getAsString());
-                            var dataType = JsonSink.getDataType(object.get("dataType").getAsString());
-                            var array = Array.of(dataType, rowCount);
-                            result.cols().add(key, array);
-                        }
-                        token = reader.peek();
+                        readColumns(reader, rowCount, colType, colKeys, columns, options.getFormats());
                     } else if (name.equalsIgnoreCase("data")) {
-                        readData(result, reader, options);
-                        token = reader.peek();
+                        rowKeys = ArrayBuilder.of(rowCount, rowType);
+                        readData(reader, rowType, rowKeys, columns, options.getFormats());
+                    } else {
+                        reader.skipValue();
                     }
                 }
                 reader.endObject();
-                return result;
+                var rowKeyArray = rowKeys != null ? rowKeys.toArray() : ArrayBuilder.of(0, rowType).toArray();
+                var length = rowKeyArray.length();
+                return DataFrame.of(rowKeyArray, colType, cols -> {
+                    for (int i=0; i<colKeys.size(); ++i) {
+                        var colKey = colKeys.get(i);
+                        var column = columns.get(i);
+                        cols.add(colKey, column.toArray(length));
+                    }
+                });
             }
         } catch (IOException ex) {
             throw new DataFrameException("Failed to deserialzie DataFrame from json", ex);
@@ -123,66 +110,82 @@ public class JsonSourceDefault<R,C> implements JsonSource<R,C> {
 
 
     /**
-     * Reads data from the json stream into the data frame
-     * @param frame     the frame to populate with data
+     * Reads the column definitions and creates a typed, pre-sized buffer for each column
      * @param reader    the json stream reader
-     * @param options   the json source options
+     * @param rowCount  the expected row count
+     * @param colType   the column key type
+     * @param colKeys   the list to populate with column keys
+     * @param columns   the list to populate with column buffers
+     * @param formats   the formats to parse keys and values
      */
-    private void readData(DataFrame<R,C> frame, JsonReader reader, Options options) throws IOException {
+    @SuppressWarnings("unchecked")
+    private void readColumns(
+        JsonReader reader,
+        int rowCount,
+        Class<C> colType,
+        List<C> colKeys,
+        List<JsonColumn<Object>> columns,
+        Formats formats) throws IOException {
+        reader.beginArray();
+        while (reader.peek() != JsonToken.END_ARRAY) {
+            C key = null;
+            Class<Object> dataType = null;
+            reader.beginObject();
+            while (reader.peek() != JsonToken.END_OBJECT) {
+                var name = reader.nextName();
+                if (name.equals("key")) {
+                    key = formats.parse(colType, reader.nextString());
+                } else if (name.equals("dataType")) {
+                    dataType = JsonSink.getDataType(reader.nextString());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (dataType == null) {
+                throw new DataFrameException("No dataType specified in JSON for column: " + key);
+            } else {
+                var parser = formats.<Object>getParserOrFail(key, dataType);
+                colKeys.add(key);
+                columns.add(new JsonColumn<>(rowCount, dataType, parser));
+            }
+        }
+        reader.endArray();
+    }
+
+
+    /**
+     * Reads data from the json stream directly into the row key and column buffers
+     * @param reader    the json stream reader
+     * @param rowType   the row key type
+     * @param rowKeys   the row key builder
+     * @param columns   the column buffers
+     * @param formats   the formats to parse row keys
+     */
+    private void readData(
+        JsonReader reader,
+        Class<R> rowType,
+        ArrayBuilder<R> rowKeys,
+        List<JsonColumn<Object>> columns,
+        Formats formats) throws IOException {
         var token = reader.peek();
         if (token == JsonToken.NULL) {
             reader.nextNull();
         } else {
             reader.beginObject();
-            token = reader.peek();
-            var cursor = frame.cursor();
-            var formats = options.getFormats();
-            var rowKeyType = frame.rows().keyClass();
-            var typeMap = frame.cols().keys().collect(Collectors.toMap(v -> v, v -> frame.cols().type(v)));
-            while (token != JsonToken.END_OBJECT) {
+            var rowIndex = 0;
+            var rowKeyParser = formats.<R>getParserOrFail(rowType);
+            while (reader.peek() != JsonToken.END_OBJECT) {
                 var rowLabel = reader.nextName();
-                var rowKey = formats.<R>parse(rowKeyType, rowLabel);
-                frame.rows().add(rowKey);
-                cursor.row(rowKey);
+                rowKeys.setValue(rowIndex, rowKeyParser.apply(rowLabel));
                 reader.beginObject();
-                token = reader.peek();
-                while (token != JsonToken.END_OBJECT) {
+                while (reader.peek() != JsonToken.END_OBJECT) {
                     var colLabel = reader.nextName();
-                    var colIndex = Integer.parseInt(colLabel.replace("#", ""));
-                    var colKey = frame.cols().key(colIndex);
-                    var dataType = typeMap.get(colKey);
-                    var typeCode = ArrayType.of(dataType);
-                    token = reader.peek();
-                    if (token == JsonToken.NULL) {
-                        reader.nextNull();
-                        cursor.colAt(colIndex).setValue(null);
-                        token = reader.peek();
-                    } else if (token == JsonToken.BOOLEAN) {
-                        var value = reader.nextBoolean();
-                        cursor.colAt(colIndex).setBoolean(value);
-                        token = reader.peek();
-                    } else if (token == JsonToken.STRING) {
-                        var text = reader.nextString();
-                        var parser = formats.getParserOrFail(colKey, dataType);
-                        var value = parser.apply(text);
-                        cursor.colAt(colIndex).setValue(value);
-                        token = reader.peek();
-                    } else if (typeCode == ArrayType.DOUBLE) {
-                        var value = reader.nextDouble();
-                        cursor.colAt(colIndex).setDouble(value);
-                        token = reader.peek();
-                    } else if (typeCode == ArrayType.LONG) {
-                        var value = reader.nextLong();
-                        cursor.colAt(colIndex).setLong(value);
-                        token = reader.peek();
-                    } else {
-                        var value = reader.nextInt();
-                        cursor.colAt(colIndex).setInt(value);
-                        token = reader.peek();
-                    }
+                    var colIndex = Integer.parseInt(colLabel.substring(1));
+                    columns.get(colIndex).read(reader, rowIndex);
                 }
                 reader.endObject();
-                token = reader.peek();
+                rowIndex++;
             }
             reader.endObject();
         }
@@ -15,7 +15,57 @@
  */
 package com.d3x.morpheus.json;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
 
-public class JsonSourceIndex {
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+/**
+ * A JsonSource implementation that can load a DataFrame from Pandas compatible JSON with "index" orientation
+ *
+ * <p>Each row object is streamed directly into a primitive buffer per column, and columns that are missing from
+ * some rows are padded with missing values.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author Xavier Witdouck
+ */
+public class JsonSourceIndex<R,C> extends JsonSourceBase<R,C> {
+
+
+    @Override
+    public DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException {
+        try {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return null;
+            } else {
+                var rowKeyParser = getRowKeyParser(options);
+                var rowPredicate = options.getRowPredicate();
+                var rowKeys = ArrayBuilder.<R>of(1000);
+                var columns = new LinkedHashMap<String,JsonColumn<Object>>();
+                reader.beginObject();
+                while (reader.peek() != JsonToken.END_OBJECT) {
+                    var rowKey = rowKeyParser.apply(reader.nextName());
+                    if (rowPredicate != null && !rowPredicate.test(rowKey)) {
+                        reader.skipValue();
+                    } else {
+                        var rowIndex = rowKeys.append(rowKey);
+                        readRow(reader, rowIndex, 1000, columns);
+                    }
+                }
+                reader.endObject();
+                return toDataFrame(rowKeys.toArray(), columns, options);
+            }
+        } catch (IOException ex) {
+            throw new DataFrameException("Failed to load DataFrame from JSON: " + options, ex);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.json;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * A JsonSource implementation that can load a DataFrame from a sequence of JSON records, one object per row
+ *
+ * <p>This supports both Pandas compatible JSON with "records" orientation, which is an array of row objects, and
+ * newline delimited JSON where each line holds a row object. Each record is streamed directly into a primitive buffer
+ * per column, and the resulting frame is keyed by the integer ordinal of each record.</p>
+ *
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author Xavier Witdouck
+ */
+public class JsonSourceRecords<C> extends JsonSourceBase<Integer,C> {
+
+
+    @Override
+    public DataFrame<Integer,C> read(JsonReader reader, Options<Integer,C> options) throws DataFrameException {
+        try {
+            var rowCount = 0;
+            var columns = new LinkedHashMap<String,JsonColumn<Object>>();
+            var token = reader.peek();
+            if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.peek() != JsonToken.END_ARRAY) {
+                    readRow(reader, rowCount++, 1000, columns);
+                }
+                reader.endArray();
+            } else {
+                reader.setLenient(true);
+                while (reader.peek() != JsonToken.END_DOCUMENT) {
+                    readRow(reader, rowCount++, 1000, columns);
+                }
+            }
+            var rowKeys = Array.of(Integer.class, rowCount).applyInts(v -> v.index());
+            return toDataFrame(rowKeys, columns, options);
+        } catch (IOException ex) {
+            throw new DataFrameException("Failed to load DataFrame from JSON: " + options, ex);
+        }
+    }
+}
@@ -15,44 +15,32 @@
  */
 package com.d3x.morpheus.json;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.util.IO;
 import com.d3x.morpheus.util.Resource;
-import com.d3x.morpheus.util.text.parser.Parser;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 
 /**
  * A JsonSource implementation that can load a DataFrame from Pandas compatible JSON with "split" orientation
  *
+ * <p>The column and index arrays precede the data in the output of JsonSinkSplit, so the column buffers are pre-sized
+ * from the row count and each value is streamed directly into a primitive array in a single pass.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author Xavier Witdouck
  */
-public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
+public class JsonSourceSplit<R,C> extends JsonSourceBase<R,C> {
 
-    @Override
-    public synchronized DataFrame<R,C> read(Options<R,C> options) throws DataFrameException {
-        var is = options.getResource().toInputStream();
-        var reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
-        try {
-            return read(reader, options);
-        } finally {
-            IO.close(reader);
-        }
-    }
 
     /**
      * Returns a DataFrame loaded from the Json reader
@@ -61,36 +49,46 @@ public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
      * @return              the resulting DataFrame
      * @throws DataFrameException   if fails to parse json into DataFrame
      */
-    public synchronized DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException {
+    @Override
+    @SuppressWarnings("unchecked")
+    public DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException {
         try {
             var token = reader.peek();
-            if (token == null) {
+            if (token == JsonToken.NULL) {
                 reader.nextNull();
                 return null;
             } else {
                 reader.beginObject();
-                token = reader.peek();
-                var rows = new ArrayList<R>();
+                Array<R> rows = null;
                 var columns = new ArrayList<C>();
-                DataFrame<R,C> frame = null;
-                while (token != JsonToken.END_OBJECT) {
+                var data = new ArrayList<JsonColumn<Object>>();
+                while (reader.peek() != JsonToken.END_OBJECT) {
                     var name = reader.nextName();
                     if (name.equalsIgnoreCase("columns")) {
                         columns.addAll(this.columns(reader, options));
-                        token = reader.peek();
                     } else if (name.equalsIgnoreCase("index")) {
-                        rows.addAll(this.rows(reader, options));
-                        token = reader.peek();
+                        rows = this.rows(reader, options);
                     } else if (name.equalsIgnoreCase("data")) {
-                        frame = data(reader, rows, columns);
-                        token = reader.peek();
+                        var rowCount = rows != null ? rows.length() : 1000;
+                        this.data(reader, rowCount, columns.size(), data);
                     } else {
                         throw new DataFrameException("Unexpected field name in DataFrame JSON: " + name);
                     }
                 }
                 reader.endObject();
-                return frame;
+                var rowCount = data.stream().mapToInt(JsonColumn::length).max().orElse(0);
+                var rowKeys = rows != null ? rows : (Array<R>)Array.of(Integer.class, rowCount).applyInts(v -> v.index());
+                var length = rowKeys.length();
+                return DataFrame.of(rowKeys, JsonSourceBase.<C>typeOf(columns.isEmpty() ? null : columns.get(0)), cols -> {
+                    for (int i=0; i<columns.size(); ++i) {
+                        var column = columns.get(i);
+                        var array = i < data.size() ? data.get(i).toArray(length) : Array.ofObjects(length);
+                        cols.add(column, array);
+                    }
+                });
             }
+        } catch (DataFrameException ex) {
+            throw ex;
         } catch (Exception ex) {
             throw new DataFrameException("Failed to parse json into DataFrame", ex);
         }
@@ -103,30 +101,13 @@ public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
      * @param options   the options
      * @return          the column keys
      */
-    @SuppressWarnings("unchecked")
     private List<C> columns(JsonReader reader, Options<R,C> options) throws IOException {
         reader.beginArray();
-        var token = reader.peek();
-        var defaultParser = (Parser<C>)Parser.forObject(String.class, v -> v);
-        var parser = Optional.ofNullable(options.getColKeyParser()).orElse(defaultParser);
+        var parser = getColKeyParser(options);
         var columns = new ArrayList<C>();
-        while (token != JsonToken.END_ARRAY) {
-            token = reader.peek();
-            if (token == JsonToken.STRING) {
-                var value = reader.nextString();
-                columns.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.NUMBER) {
-                var value = String.valueOf(reader.nextDouble());
-                columns.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.BOOLEAN) {
-                var value = String.valueOf(reader.nextBoolean());
-                columns.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.NULL) {
-                throw new DataFrameException("Cannot have null column headings in JSON");
-            }
+        while (reader.peek() != JsonToken.END_ARRAY) {
+            var label = nextLabel(reader);
+            columns.add(parser.apply(label));
         }
         reader.endArray();
         return columns;
@@ -134,89 +115,61 @@ public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
 
 
     /**
-     * Returns the row keys from reader
+     * Returns the row keys from reader, inferring primitive keys from the content unless a row key parser is configured
      * @param reader    the json reader
      * @param options   the options
      * @return          the row keys
      */
-    @SuppressWarnings("unchecked")
-    private List<R> rows(JsonReader reader, Options<R,C> options) throws IOException {
+    private Array<R> rows(JsonReader reader, Options<R,C> options) throws IOException {
         reader.beginArray();
-        var token = reader.peek();
-        var defaultParser = (Parser<R>)Parser.forObject(String.class, v -> v);
-        var parser = Optional.ofNullable(options.getRowKeyParser()).orElse(defaultParser);
-        var rows = new ArrayList<R>();
-        while (token != JsonToken.END_ARRAY) {
-            token = reader.peek();
-            if (token == JsonToken.STRING) {
-                var value = reader.nextString();
-                rows.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.NUMBER) {
-                var value = String.valueOf(reader.nextDouble());
-                rows.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.BOOLEAN) {
-                var value = String.valueOf(reader.nextBoolean());
-                rows.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.NULL) {
-                throw new DataFrameException("Cannot have null row headings in JSON");
+        var parser = options.getRowKeyParser();
+        if (parser != null) {
+            var rows = ArrayBuilder.<R>of(1000);
+            while (reader.peek() != JsonToken.END_ARRAY) {
+                rows.append(parser.apply(nextLabel(reader)));
             }
+            reader.endArray();
+            return rows.toArray();
+        } else {
+            var rows = new JsonColumn<R>(1000, null, null);
+            for (int i=0; reader.peek() != JsonToken.END_ARRAY; ++i) {
+                if (reader.peek() == JsonToken.NULL) {
+                    throw new DataFrameException("Cannot have null row headings in JSON");
+                } else {
+                    rows.read(reader, i);
+                }
+            }
+            reader.endArray();
+            return rows.toArray(rows.length());
         }
-        reader.endArray();
-        return rows;
     }
 
 
     /**
-     * Returns the data frame with all the data
+     * Reads the data rows from the reader directly into a buffer per column
      * @param reader        the json reader
-     * @param rows          the row keys
-     * @param columns       the column keys
-     * @return              the resulting data frame
+     * @param rowCount      the expected row count to pre-size buffers
+     * @param colCount      the column count
+     * @param data          the list to populate with column buffers
      * @throws IOException      if there is an IO error
      */
-    @SuppressWarnings("unchecked")
-    private DataFrame<R,C> data(JsonReader reader, List<R> rows, List<C> columns) throws IOException {
+    private void data(JsonReader reader, int rowCount, int colCount, List<JsonColumn<Object>> data) throws IOException {
+        for (int i=0; i<colCount; ++i) {
+            data.add(new JsonColumn<>(rowCount, null, null));
+        }
         reader.beginArray();
-        var token = reader.peek();
-        var rowCount = rows.size();
-        var colCount = columns.size();
-        var colIndexes = IntStream.range(0, columns.size());
-        var arrays = colIndexes.mapToObj(i -> ArrayBuilder.of(rowCount)).collect(Collectors.toList());
-        while (token != JsonToken.END_ARRAY) {
+        for (int rowIndex=0; reader.peek() != JsonToken.END_ARRAY; ++rowIndex) {
             reader.beginArray();
-            token = reader.peek();
-            for (int i=0; i<colCount; ++i) {
-                var array = arrays.get(i);
-                if (token == JsonToken.BOOLEAN) {
-                    array.appendBoolean(reader.nextBoolean());
-                    token = reader.peek();
-                } else if (token == JsonToken.NUMBER) {
-                    array.appendDouble(reader.nextDouble());
-                    token = reader.peek();
-                } else if (token == JsonToken.STRING) {
-                    array.append(reader.nextString());
-                    token = reader.peek();
-                } else if (token == JsonToken.NULL) {
-                    reader.nextNull();
-                    array.append(null);
-                    token = reader.peek();
+            for (int colIndex=0; reader.peek() != JsonToken.END_ARRAY; ++colIndex) {
+                if (colIndex < colCount) {
+                    data.get(colIndex).read(reader, rowIndex);
+                } else {
+                    throw new DataFrameException("JSON data row " + rowIndex + " has more values than columns: " + colCount);
                 }
             }
             reader.endArray();
-            token = reader.peek();
         }
         reader.endArray();
-        var colType = (Class<C>)columns.get(0).getClass();
-        return DataFrame.of(rows, colType, cols -> {
-            for (int i=0; i<columns.size(); ++i) {
-                var column = columns.get(i);
-                var array = arrays.get(i).toArray();
-                cols.add(column, array);
-            }
-        });
     }
 
 
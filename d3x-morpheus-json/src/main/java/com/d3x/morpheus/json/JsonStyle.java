@@ -22,5 +22,5 @@ package com.d3x.morpheus.json;
  */
 public enum JsonStyle {
 
-    DEFAULT, SPLIT, COLUMNS
+    DEFAULT, SPLIT, COLUMNS, INDEX, RECORDS
 }
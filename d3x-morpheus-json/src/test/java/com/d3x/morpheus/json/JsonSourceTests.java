@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.Resource;
+import com.d3x.morpheus.util.compress.Compression;
+
+/**
+ * Unit tests for the streaming JsonSource implementations of each JsonStyle
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class JsonSourceTests {
+
+
+    @DataProvider(name="styles")
+    public Object[][] styles() {
+        return new Object[][] { {JsonStyle.DEFAULT}, {JsonStyle.SPLIT}, {JsonStyle.COLUMNS}, {JsonStyle.INDEX} };
+    }
+
+
+    /**
+     * Returns a frame with a primitive column of each type
+     * @param rowCount  the row count
+     * @return          the newly created frame
+     */
+    private DataFrame<String,String> createFrame(int rowCount) {
+        var random = new Random(7);
+        var rows = Range.of(0, rowCount).map(i -> "R" + i);
+        return DataFrame.of(rows, String.class, columns -> {
+            columns.add("Doubles", Double.class, v -> random.nextDouble() * 100d - 50d);
+            columns.add("Ints", Integer.class, v -> random.nextInt());
+            columns.add("Longs", Long.class, v -> random.nextLong());
+            columns.add("Flags", Boolean.class, v -> random.nextBoolean());
+        });
+    }
+
+
+    /**
+     * Returns the frame written by the sink and read back by the source in the style specified
+     * @param frame     the frame to write
+     * @param style     the json style
+     * @return          the frame read back from json
+     */
+    private DataFrame<String,String> roundTrip(DataFrame<String,String> frame, JsonStyle style) {
+        var os = new ByteArrayOutputStream();
+        JsonSink.<String,String>create().write(frame, options -> {
+            options.resource(Resource.of(os));
+            options.style(style);
+        });
+        return JsonSource.<String,String>create().read(options -> {
+            options.resource(Resource.of(new ByteArrayInputStream(os.toByteArray())));
+            options.style(style);
+        });
+    }
+
+
+    /**
+     * Returns a frame read from the json text in the style specified
+     * @param json      the json text
+     * @param style     the json style
+     * @return          the resulting frame
+     */
+    private DataFrame<Integer,String> read(String json, JsonStyle style) {
+        var bytes = json.getBytes(StandardCharsets.UTF_8);
+        return JsonSource.<Integer,String>create(style).read(style, new ByteArrayInputStream(bytes));
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testRoundTripIsTyped(JsonStyle style) {
+        var frame = createFrame(500);
+        var result = roundTrip(frame, style);
+        Assert.assertEquals(result.rowCount(), frame.rowCount());
+        Assert.assertEquals(result.cols().keyArray().toList(), frame.cols().keyArray().toList());
+        Assert.assertEquals(result.rows().keyArray().toList(), frame.rows().keyArray().toList());
+        Assert.assertEquals(result.cols().type("Doubles"), Double.class);
+        Assert.assertEquals(result.cols().type("Ints"), Integer.class);
+        Assert.assertEquals(result.cols().type("Longs"), Long.class);
+        Assert.assertEquals(result.cols().type("Flags"), Boolean.class);
+        for (int i=0; i<frame.rowCount(); ++i) {
+            Assert.assertEquals(result.getDoubleAt(i, 0), frame.getDoubleAt(i, 0), 0d);
+            Assert.assertEquals(result.getIntAt(i, 1), frame.getIntAt(i, 1));
+            Assert.assertEquals(result.getLongAt(i, 2), frame.getLongAt(i, 2));
+            Assert.assertEquals(result.getBooleanAt(i, 3), frame.getBooleanAt(i, 3));
+        }
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testCompressedRoundTrip(JsonStyle style) {
+        var frame = createFrame(2000);
+        var os = new ByteArrayOutputStream();
+        JsonSink.<String,String>create().write(frame, options -> {
+            options.resource(Resource.of(os).withCompression(Compression.GZIP));
+            options.style(style);
+        });
+        var result = JsonSource.<String,String>create().read(options -> {
+            options.resource(Resource.of(new ByteArrayInputStream(os.toByteArray())));
+            options.style(style);
+        });
+        Assert.assertEquals(result.rows().keyArray().toList(), frame.rows().keyArray().toList());
+        Assert.assertEquals(result.col("Longs").toArray().toList(), frame.col("Longs").toArray().toList());
+    }
+
+
+    @Test()
+    public void testNewlineDelimitedRecords() {
+        var json = String.join("\n",
+            "{\"a\": 1, \"b\": \"x\", \"c\": 1.5, \"d\": 1}",
+            "{\"a\": 2, \"c\": 2, \"d\": 2.5}",
+            "{\"a\": 5000000000, \"b\": \"y\", \"c\": null, \"d\": 3}"
+        );
+        var frame = read(json, JsonStyle.RECORDS);
+        Assert.assertEquals(frame.rows().keyArray().toList(), Arrays.asList(0, 1, 2));
+        Assert.assertEquals(frame.cols().keyArray().toList(), Arrays.asList("a", "b", "c", "d"));
+        Assert.assertEquals(frame.cols().type("a"), Long.class);
+        Assert.assertEquals(frame.cols().type("c"), Double.class);
+        Assert.assertEquals(frame.cols().type("d"), Double.class);
+        Assert.assertEquals(frame.col("a").toArray().toList(), Arrays.asList(1L, 2L, 5000000000L));
+        Assert.assertEquals(frame.col("b").toArray().toList(), Arrays.asList("x", null, "y"));
+        Assert.assertEquals(frame.col("d").toArray().toList(), Arrays.asList(1d, 2.5d, 3d));
+        Assert.assertEquals(frame.getDouble(0, "c"), 1.5d);
+        Assert.assertEquals(frame.getDouble(1, "c"), 2d);
+        Assert.assertTrue(Double.isNaN(frame.getDouble(2, "c")));
+    }
+
+
+    @Test()
+    public void testRecordsArrayWithMissingFields() {
+        var json = "[{\"a\": 1, \"b\": true}, {\"b\": false}, {\"a\": 3}]";
+        var frame = read(json, JsonStyle.RECORDS);
+        Assert.assertEquals(frame.rowCount(), 3);
+        Assert.assertEquals(frame.cols().type("a"), Double.class);
+        Assert.assertEquals(frame.getDouble(0, "a"), 1d);
+        Assert.assertTrue(Double.isNaN(frame.getDouble(1, "a")));
+        Assert.assertEquals(frame.getDouble(2, "a"), 3d);
+        Assert.assertEquals(frame.col("b").toArray().toList(), Arrays.asList(true, false, null));
+    }
+
+
+    @Test()
+    public void testSplitWithNumericIndex() {
+        var json = "{\"columns\": [\"x\", \"y\"], \"index\": [10, 20, 30], \"data\": [[1, 1.5], [2, 2.5], [3, null]]}";
+        var frame = read(json, JsonStyle.SPLIT);
+        Assert.assertEquals(frame.rows().keyArray().toList(), Arrays.asList(10, 20, 30));
+        Assert.assertEquals(frame.cols().type("x"), Integer.class);
+        Assert.assertEquals(frame.cols().type("y"), Double.class);
+        Assert.assertEquals(frame.getInt(20, "x"), 2);
+        Assert.assertTrue(Double.isNaN(frame.getDouble(30, "y")));
+    }
+}